@@ -39,6 +39,11 @@ package gov.nasa.gsfc.commons.numerics.math.calculations;
  * mean square, and a sample count.  It is given an array of data to sum
  * with the indices to include in the sum.  Then when all the arrays have
  * been summed, it returns all three calculations in a CoaddData structure.
+ * <p>
+ * Each channel keeps its samples as {@link StreamingMoments}, so the sums
+ * are accumulated in one cache-friendly pass and the RMS does not suffer
+ * the cancellation of the sum-of-squares formula.  NaN samples are left out
+ * of the coadd and of the sample count.
  *  
  *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
  *  for the Instrument Remote Control (IRC) project.
@@ -48,9 +53,7 @@ package gov.nasa.gsfc.commons.numerics.math.calculations;
 **/
 public class Coadd 
 {
-	private double [] fSum;
-	private double [] fSumOfSquares;
-	private long [] fNumberOfSamples;
+	private StreamingMoments [] fMoments;
 	private boolean   fProduceMeans = true;
 
 	/**
@@ -72,10 +75,13 @@ public class Coadd
 	**/
 	public Coadd(int numberOfChannels, boolean produceMeans)
 	{
-		fSum = new double[numberOfChannels];
-		fSumOfSquares = new double[numberOfChannels];
-		fNumberOfSamples = new long[numberOfChannels];
+		fMoments = new StreamingMoments[numberOfChannels];
 		fProduceMeans = produceMeans;
+		
+		for (int c = 0; c < numberOfChannels; c++)
+		{
+			fMoments[c] = new StreamingMoments();
+		}
 	}
 
 	/**
@@ -86,11 +92,9 @@ public class Coadd
 	**/
 	public void initialize()
 	{
-		for (int c = 0; c < fSum.length; c++)
+		for (int c = 0; c < fMoments.length; c++)
 		{
-			fSum[c] = 0.0;
-			fSumOfSquares[c] = 0.0;
-			fNumberOfSamples[c] = 0;
+			fMoments[c].clear();
 		}
 	}
 
@@ -108,15 +112,7 @@ public class Coadd
 	public void sumData(double[] srcArray, int startIndex, int endIndex,
 							int channelId)
 	{
-		for (int frame = startIndex; frame <= endIndex; frame++)
-		{
-			double value = srcArray[frame];
-			fSum[channelId] += value;
-
-			fSumOfSquares[channelId] += value*value;
-		}
-
-		fNumberOfSamples[channelId] += (long)(endIndex - startIndex + 1);
+		fMoments[channelId].add(srcArray, startIndex, endIndex - startIndex + 1);
 	}
 
 	/**
@@ -133,15 +129,7 @@ public class Coadd
 	public void sumData(float[] srcArray, int startIndex, int endIndex,
 							int channelId)
 	{
-		for (int frame = startIndex; frame <= endIndex; frame++)
-		{
-			double value = srcArray[frame];
-			fSum[channelId] += value;
-
-			fSumOfSquares[channelId] += value*value;
-		}
-
-		fNumberOfSamples[channelId] += (long)(endIndex - startIndex + 1);
+		fMoments[channelId].add(srcArray, startIndex, endIndex - startIndex + 1);
 	}
 
 	/**
@@ -155,23 +143,23 @@ public class Coadd
 	**/
 	public strictfp CoaddInfo calculate(int channelId)
 	{
+		StreamingMoments moments = fMoments[channelId];
 		double coadditionValue;
 
 		if (fProduceMeans)
 		{
-			coadditionValue = fSum[channelId] / fNumberOfSamples[channelId];
+			coadditionValue = moments.getMean();
 		}
 		else
 		{
-			coadditionValue = fSum[channelId];
+			coadditionValue = moments.getSum();
 		}
 
-		double rmsValue = calculateRmsValue(
-					fSum[channelId], fSumOfSquares[channelId], 
-					fNumberOfSamples[channelId]);
+		// The sample standard deviation, as calculateRmsValue gives
+		double rmsValue = moments.getStandardDeviation();
 
 		return new CoaddInfo(coadditionValue, 
-							rmsValue, fNumberOfSamples[channelId]);
+							rmsValue, moments.getCount());
 	}
 
 	/**
@@ -213,6 +201,6 @@ public class Coadd
 	**/
 	public long getSampleCount(int channel)
 	{
-		return fNumberOfSamples[channel];
+		return fMoments[channel].getCount();
 	}
 }
@@ -0,0 +1,575 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.numerics.math.calculations;
+
+import gov.nasa.gsfc.commons.numerics.Constants;
+
+
+/**
+ *  A ComplexFftPlan applies the forward and inverse Discrete Fourier 
+ *  Transform to n Complex values, for a fixed n chosen when the plan is 
+ *  created. Everything that depends only on n (the factorization of n and 
+ *  the twiddle factors) is computed once, so a plan can be reused for any 
+ *  number of transforms of that size without allocating.
+ *
+ *  <P>Sizes whose prime factors are all small are transformed by a 
+ *  mixed-radix decimation-in-time Fft (radix 4 and 2 butterflies, with a 
+ *  generic butterfly for the remaining factors). Any other size is 
+ *  transformed with Bluestein's algorithm, which expresses the transform 
+ *  as a convolution computed by a power-of-two plan, so every size runs 
+ *  in O(n log n).
+ *
+ *  <P>A plan is immutable once created and may be shared between threads; 
+ *  each thread gets its own work arrays.
+ *
+ *  <P>The forward transform computes X[k] = sum of x[j] e^(-2 pi i jk / n) 
+ *  and is not scaled. The inverse transform is scaled by 1/n.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version $Date$
+ *  @author $Author$
+**/
+
+public class ComplexFftPlan implements Constants
+{
+	/**
+	 * The largest prime factor handled by the mixed-radix transform. Sizes 
+	 * with a larger prime factor use Bluestein's algorithm.
+	**/
+	public static final int MAX_RADIX = 13;
+	
+	private final int fSize;
+	
+	// Mixed-radix form: the radix of each stage and the twiddle factors 
+	// e^(-2 pi i k / n) for k < n.
+	private final int[] fFactors;
+	private final double[] fTwiddlesReal;
+	private final double[] fTwiddlesImaginary;
+	
+	// Bluestein form: the chirp e^(-pi i k^2 / n), and the Fft of the 
+	// conjugate chirp zero-padded to the size of the convolution plan.
+	private final ComplexFftPlan fConvolutionPlan;
+	private final double[] fChirpReal;
+	private final double[] fChirpImaginary;
+	private final double[] fFilterReal;
+	private final double[] fFilterImaginary;
+	
+	private final ThreadLocal fWorkspaces = new ThreadLocal()
+	{
+		protected Object initialValue()
+		{
+			return (new Workspace());
+		}
+	};
+	
+	
+	/**
+	 *  Per-thread work arrays of a ComplexFftPlan.
+	**/
+	
+	private class Workspace
+	{
+		final double[] fReal;
+		final double[] fImaginary;
+		final double[] fScratchReal;
+		final double[] fScratchImaginary;
+		
+		Workspace()
+		{
+			int size = (fConvolutionPlan != null) ? 
+				fConvolutionPlan.getSize() : fSize;
+			
+			fReal = new double[size];
+			fImaginary = new double[size];
+			fScratchReal = new double[MAX_RADIX];
+			fScratchImaginary = new double[MAX_RADIX];
+		}
+	}
+	
+	
+	/**
+	 *  Constructs a new ComplexFftPlan for transforms of the given size.
+	 *
+	 *  @param size The number of Complex values transformed by the new plan
+	 *  @throws IllegalArgumentException if the given size is less than 1
+	**/
+
+	public ComplexFftPlan(int size)
+	{
+		if (size < 1)
+		{
+			String message = "The size of an Fft must be positive: " + size;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fSize = size;
+		
+		int[] factors = factor(size);
+		
+		if (factors != null)
+		{
+			fFactors = factors;
+			fTwiddlesReal = new double[size];
+			fTwiddlesImaginary = new double[size];
+			
+			for (int k = 0; k < size; k++)
+			{
+				double angle = MINUS_TWO_PI * k / size;
+				
+				fTwiddlesReal[k] = Math.cos(angle);
+				fTwiddlesImaginary[k] = Math.sin(angle);
+			}
+			
+			fConvolutionPlan = null;
+			fChirpReal = null;
+			fChirpImaginary = null;
+			fFilterReal = null;
+			fFilterImaginary = null;
+		}
+		else
+		{
+			fFactors = null;
+			fTwiddlesReal = null;
+			fTwiddlesImaginary = null;
+			
+			int convolutionSize = 1;
+			
+			while (convolutionSize < 2 * size - 1)
+			{
+				convolutionSize <<= 1;
+			}
+			
+			fConvolutionPlan = new ComplexFftPlan(convolutionSize);
+			fChirpReal = new double[size];
+			fChirpImaginary = new double[size];
+			fFilterReal = new double[convolutionSize];
+			fFilterImaginary = new double[convolutionSize];
+			
+			long twiceSize = 2L * size;
+			
+			for (int k = 0; k < size; k++)
+			{
+				// Reduce k^2 modulo 2n first so the angle stays accurate
+				double angle = - PI * (((long) k * k) % twiceSize) / size;
+				
+				fChirpReal[k] = Math.cos(angle);
+				fChirpImaginary[k] = Math.sin(angle);
+				
+				fFilterReal[k] = fChirpReal[k];
+				fFilterImaginary[k] = - fChirpImaginary[k];
+				
+				if (k > 0)
+				{
+					fFilterReal[convolutionSize - k] = fFilterReal[k];
+					fFilterImaginary[convolutionSize - k] = fFilterImaginary[k];
+				}
+			}
+			
+			fConvolutionPlan.transform(fFilterReal, fFilterImaginary);
+		}
+	}
+	
+	
+	/**
+	 *  Returns the radices of the stages of a mixed-radix transform of the 
+	 *  given size, or null if the size has a prime factor larger than 
+	 *  MAX_RADIX.
+	 *
+	 *  @param size The size of the transform
+	 *  @return The radices of the stages of the transform, or null
+	**/
+
+	private static int[] factor(int size)
+	{
+		int[] factors = new int[32];
+		int numFactors = 0;
+		int remaining = size;
+		
+		while ((remaining % 4) == 0)
+		{
+			factors[numFactors++] = 4;
+			remaining /= 4;
+		}
+		
+		for (int radix = 2; remaining > 1; radix++)
+		{
+			if (radix > MAX_RADIX)
+			{
+				return (null);
+			}
+			
+			while ((remaining % radix) == 0)
+			{
+				factors[numFactors++] = radix;
+				remaining /= radix;
+			}
+		}
+		
+		int[] result = new int[numFactors];
+		System.arraycopy(factors, 0, result, 0, numFactors);
+		
+		return (result);
+	}
+	
+	
+	/**
+	 *  Returns the number of Complex values transformed by this plan.
+	 *
+	 *  @return The size of this plan
+	**/
+
+	public int getSize()
+	{
+		return (fSize);
+	}
+	
+	
+	/**
+	 *  Returns true if this plan uses Bluestein's algorithm, false if it 
+	 *  uses the mixed-radix transform.
+	 *
+	 *  @return True if this plan uses Bluestein's algorithm
+	**/
+
+	public boolean isBluestein()
+	{
+		return (fConvolutionPlan != null);
+	}
+	
+	
+	/**
+	 *  Replaces the given n Complex values with their forward Discrete 
+	 *  Fourier Transform, where n is the size of this plan.
+	 *
+	 *  @param real The real parts of the values
+	 *  @param imaginary The imaginary parts of the values
+	 *  @throws IllegalArgumentException if either array is shorter than the 
+	 * 		size of this plan
+	**/
+
+	public void transform(double[] real, double[] imaginary)
+	{
+		if (real.length < fSize || imaginary.length < fSize)
+		{
+			String message = "The arrays are shorter than the size of the Fft (" 
+				+ fSize + ")";
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		Workspace workspace = (Workspace) fWorkspaces.get();
+		
+		if (fFactors != null && fFactors.length == 0)
+		{
+			// The transform of a single value is the value itself
+		}
+		else if (fConvolutionPlan == null)
+		{
+			System.arraycopy(real, 0, workspace.fReal, 0, fSize);
+			System.arraycopy(imaginary, 0, workspace.fImaginary, 0, fSize);
+			
+			transform(workspace, real, imaginary, 0, 0, 1, 0);
+		}
+		else
+		{
+			transformBluestein(workspace, real, imaginary);
+		}
+	}
+	
+	
+	/**
+	 *  Replaces the given n Complex values with their inverse Discrete 
+	 *  Fourier Transform, scaled by 1/n, where n is the size of this plan.
+	 *
+	 *  @param real The real parts of the values
+	 *  @param imaginary The imaginary parts of the values
+	 *  @throws IllegalArgumentException if either array is shorter than the 
+	 * 		size of this plan
+	**/
+
+	public void inverse(double[] real, double[] imaginary)
+	{
+		// The inverse transform is the conjugate of the forward transform 
+		// of the conjugate.
+		
+		for (int i = 0; i < fSize; i++)
+		{
+			imaginary[i] = - imaginary[i];
+		}
+		
+		transform(real, imaginary);
+		
+		double scale = 1.0D / fSize;
+		
+		for (int i = 0; i < fSize; i++)
+		{
+			real[i] *= scale;
+			imaginary[i] *= - scale;
+		}
+	}
+	
+	
+	/**
+	 *  Recursively applies one stage of the mixed-radix transform. The 
+	 *  input is read from the work arrays of the given Workspace, every 
+	 *  stride'th value starting at the given input index, and the output is 
+	 *  written to the given arrays starting at the given output index.
+	 *
+	 *  @param workspace The Workspace holding the input values
+	 *  @param real The real parts of the output
+	 *  @param imaginary The imaginary parts of the output
+	 *  @param outputIndex The index of the first output value
+	 *  @param inputIndex The index of the first input value
+	 *  @param stride The distance between input values
+	 *  @param stage The index of the radix of this stage
+	**/
+
+	private void transform(Workspace workspace, double[] real, 
+		double[] imaginary, int outputIndex, int inputIndex, int stride, 
+		int stage)
+	{
+		int radix = fFactors[stage];
+		int span = fSize / (stride * radix);
+		
+		if (span == 1)
+		{
+			for (int j = 0, input = inputIndex; j < radix; j++, input += stride)
+			{
+				real[outputIndex + j] = workspace.fReal[input];
+				imaginary[outputIndex + j] = workspace.fImaginary[input];
+			}
+		}
+		else
+		{
+			for (int j = 0; j < radix; j++)
+			{
+				transform(workspace, real, imaginary, outputIndex + j * span, 
+					inputIndex + j * stride, stride * radix, stage + 1);
+			}
+		}
+		
+		if (radix == 4)
+		{
+			butterfly4(real, imaginary, outputIndex, stride, span);
+		}
+		else if (radix == 2)
+		{
+			butterfly2(real, imaginary, outputIndex, stride, span);
+		}
+		else
+		{
+			butterfly(workspace, real, imaginary, outputIndex, stride, span, 
+				radix);
+		}
+	}
+	
+	
+	/**
+	 *  Applies the radix 2 butterflies of one stage.
+	**/
+
+	private void butterfly2(double[] real, double[] imaginary, int offset, 
+		int stride, int span)
+	{
+		for (int u = 0, twiddle = 0; u < span; u++, twiddle += stride)
+		{
+			int i = offset + u;
+			int j = i + span;
+			
+			double wr = fTwiddlesReal[twiddle];
+			double wi = fTwiddlesImaginary[twiddle];
+			
+			double tr = real[j] * wr - imaginary[j] * wi;
+			double ti = real[j] * wi + imaginary[j] * wr;
+			
+			real[j] = real[i] - tr;
+			imaginary[j] = imaginary[i] - ti;
+			real[i] += tr;
+			imaginary[i] += ti;
+		}
+	}
+	
+	
+	/**
+	 *  Applies the radix 4 butterflies of one stage.
+	**/
+
+	private void butterfly4(double[] real, double[] imaginary, int offset, 
+		int stride, int span)
+	{
+		for (int u = 0; u < span; u++)
+		{
+			int i0 = offset + u;
+			int i1 = i0 + span;
+			int i2 = i1 + span;
+			int i3 = i2 + span;
+			
+			int t1 = u * stride;
+			int t2 = 2 * t1;
+			int t3 = 3 * t1;
+			
+			double s0r = real[i1] * fTwiddlesReal[t1] 
+				- imaginary[i1] * fTwiddlesImaginary[t1];
+			double s0i = real[i1] * fTwiddlesImaginary[t1] 
+				+ imaginary[i1] * fTwiddlesReal[t1];
+			double s1r = real[i2] * fTwiddlesReal[t2] 
+				- imaginary[i2] * fTwiddlesImaginary[t2];
+			double s1i = real[i2] * fTwiddlesImaginary[t2] 
+				+ imaginary[i2] * fTwiddlesReal[t2];
+			double s2r = real[i3] * fTwiddlesReal[t3] 
+				- imaginary[i3] * fTwiddlesImaginary[t3];
+			double s2i = real[i3] * fTwiddlesImaginary[t3] 
+				+ imaginary[i3] * fTwiddlesReal[t3];
+			
+			double s5r = real[i0] - s1r;
+			double s5i = imaginary[i0] - s1i;
+			double ar = real[i0] + s1r;
+			double ai = imaginary[i0] + s1i;
+			
+			double s3r = s0r + s2r;
+			double s3i = s0i + s2i;
+			double s4r = s0r - s2r;
+			double s4i = s0i - s2i;
+			
+			real[i0] = ar + s3r;
+			imaginary[i0] = ai + s3i;
+			real[i2] = ar - s3r;
+			imaginary[i2] = ai - s3i;
+			real[i1] = s5r + s4i;
+			imaginary[i1] = s5i - s4r;
+			real[i3] = s5r - s4i;
+			imaginary[i3] = s5i + s4r;
+		}
+	}
+	
+	
+	/**
+	 *  Applies the butterflies of one stage of any radix.
+	**/
+
+	private void butterfly(Workspace workspace, double[] real, 
+		double[] imaginary, int offset, int stride, int span, int radix)
+	{
+		double[] scratchReal = workspace.fScratchReal;
+		double[] scratchImaginary = workspace.fScratchImaginary;
+		
+		for (int u = 0; u < span; u++)
+		{
+			for (int q = 0, k = offset + u; q < radix; q++, k += span)
+			{
+				scratchReal[q] = real[k];
+				scratchImaginary[q] = imaginary[k];
+			}
+			
+			for (int q1 = 0, k = u; q1 < radix; q1++, k += span)
+			{
+				int step = stride * k;
+				int twiddle = 0;
+				double sumReal = scratchReal[0];
+				double sumImaginary = scratchImaginary[0];
+				
+				for (int q = 1; q < radix; q++)
+				{
+					twiddle += step;
+					
+					if (twiddle >= fSize)
+					{
+						twiddle %= fSize;
+					}
+					
+					double wr = fTwiddlesReal[twiddle];
+					double wi = fTwiddlesImaginary[twiddle];
+					
+					sumReal += scratchReal[q] * wr - scratchImaginary[q] * wi;
+					sumImaginary += scratchReal[q] * wi + scratchImaginary[q] * wr;
+				}
+				
+				real[offset + k] = sumReal;
+				imaginary[offset + k] = sumImaginary;
+			}
+		}
+	}
+	
+	
+	/**
+	 *  Applies the forward transform with Bluestein's algorithm.
+	 *
+	 *  @param workspace The Workspace of the calling thread
+	 *  @param real The real parts of the values
+	 *  @param imaginary The imaginary parts of the values
+	**/
+
+	private void transformBluestein(Workspace workspace, double[] real, 
+		double[] imaginary)
+	{
+		int convolutionSize = fConvolutionPlan.getSize();
+		double[] ar = workspace.fReal;
+		double[] ai = workspace.fImaginary;
+		
+		for (int k = 0; k < fSize; k++)
+		{
+			double cr = fChirpReal[k];
+			double ci = fChirpImaginary[k];
+			
+			ar[k] = real[k] * cr - imaginary[k] * ci;
+			ai[k] = real[k] * ci + imaginary[k] * cr;
+		}
+		
+		for (int k = fSize; k < convolutionSize; k++)
+		{
+			ar[k] = 0;
+			ai[k] = 0;
+		}
+		
+		fConvolutionPlan.transform(ar, ai);
+		
+		for (int k = 0; k < convolutionSize; k++)
+		{
+			double fr = fFilterReal[k];
+			double fi = fFilterImaginary[k];
+			double r = ar[k] * fr - ai[k] * fi;
+			
+			ai[k] = ar[k] * fi + ai[k] * fr;
+			ar[k] = r;
+		}
+		
+		fConvolutionPlan.inverse(ar, ai);
+		
+		for (int k = 0; k < fSize; k++)
+		{
+			double cr = fChirpReal[k];
+			double ci = fChirpImaginary[k];
+			
+			real[k] = ar[k] * cr - ai[k] * ci;
+			imaginary[k] = ar[k] * ci + ai[k] * cr;
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
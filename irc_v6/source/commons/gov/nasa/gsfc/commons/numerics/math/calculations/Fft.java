@@ -59,6 +59,7 @@
 
 package gov.nasa.gsfc.commons.numerics.math.calculations;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -87,8 +88,12 @@ import gov.nasa.gsfc.commons.numerics.types.ComplexArray;
 
 public class Fft implements Constants
 {
-	protected static Map fRealFactorsByNumSamples = new HashMap();
-	protected static Map fImaginaryFactorsByNumSamples = new HashMap();
+	// Shared by all threads; the real factors are put before the imaginary 
+	// ones, so finding the latter means the former are present.
+	protected static Map fRealFactorsByNumSamples = 
+		Collections.synchronizedMap(new HashMap());
+	protected static Map fImaginaryFactorsByNumSamples = 
+		Collections.synchronizedMap(new HashMap());
 
 	
    /**
@@ -0,0 +1,259 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.numerics.math.calculations;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import gov.nasa.gsfc.commons.numerics.Constants;
+
+
+/**
+ *  A RealFftPlan applies the Discrete Fourier Transform to n real values, 
+ *  for a fixed n chosen when the plan is created, producing the n/2 + 1 
+ *  non-redundant Complex results (the rest are their conjugates).
+ *
+ *  <P>For even n the real values are packed into n/2 Complex values, 
+ *  transformed by a {@link ComplexFftPlan} of half the size, and then split 
+ *  into the spectrum of the even and odd samples, which halves the work of 
+ *  a Complex transform of the real data. Odd n are transformed as Complex 
+ *  values with zero imaginary parts. Any n is supported.
+ *
+ *  <P>A plan is immutable once created and may be shared between threads; 
+ *  each thread gets its own work arrays. Plans are typically obtained from 
+ *  {@link #getInstance(int)}, which keeps one plan per size.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version $Date$
+ *  @author $Author$
+**/
+
+public class RealFftPlan implements Constants
+{
+	private static final Map sPlansBySize = new HashMap();
+	
+	private final int fSize;
+	private final int fResultSize;
+	private final ComplexFftPlan fComplexPlan;
+	
+	// e^(-2 pi i k / n) for k <= n/2, used to split the half-size transform
+	private final double[] fSplitReal;
+	private final double[] fSplitImaginary;
+	
+	private final ThreadLocal fWorkspaces = new ThreadLocal()
+	{
+		protected Object initialValue()
+		{
+			int size = fComplexPlan.getSize();
+			
+			return (new double[][] {new double[size], new double[size]});
+		}
+	};
+	
+	
+	/**
+	 *  Constructs a new RealFftPlan for transforms of the given number of 
+	 *  real values.
+	 *
+	 *  @param size The number of real values transformed by the new plan
+	 *  @throws IllegalArgumentException if the given size is less than 1
+	**/
+
+	public RealFftPlan(int size)
+	{
+		if (size < 1)
+		{
+			String message = "The size of an Fft must be positive: " + size;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fSize = size;
+		fResultSize = size / 2 + 1;
+		
+		if ((size % 2) == 0)
+		{
+			int half = size / 2;
+			
+			fComplexPlan = new ComplexFftPlan(half);
+			fSplitReal = new double[half + 1];
+			fSplitImaginary = new double[half + 1];
+			
+			for (int k = 0; k <= half; k++)
+			{
+				double angle = MINUS_TWO_PI * k / size;
+				
+				fSplitReal[k] = Math.cos(angle);
+				fSplitImaginary[k] = Math.sin(angle);
+			}
+		}
+		else
+		{
+			fComplexPlan = new ComplexFftPlan(size);
+			fSplitReal = null;
+			fSplitImaginary = null;
+		}
+	}
+	
+	
+	/**
+	 *  Returns the shared RealFftPlan for the given number of real values, 
+	 *  creating it if necessary.
+	 *
+	 *  @param size The number of real values transformed by the plan
+	 *  @return The RealFftPlan for the given size
+	 *  @throws IllegalArgumentException if the given size is less than 1
+	**/
+
+	public static RealFftPlan getInstance(int size)
+	{
+		Integer key = new Integer(size);
+		RealFftPlan result;
+		
+		synchronized (sPlansBySize)
+		{
+			result = (RealFftPlan) sPlansBySize.get(key);
+			
+			if (result == null)
+			{
+				result = new RealFftPlan(size);
+				sPlansBySize.put(key, result);
+			}
+		}
+		
+		return (result);
+	}
+	
+	
+	/**
+	 *  Returns the number of real values transformed by this plan.
+	 *
+	 *  @return The size of this plan
+	**/
+
+	public int getSize()
+	{
+		return (fSize);
+	}
+	
+	
+	/**
+	 *  Returns the number of Complex values produced by this plan, i.e., 
+	 *  n/2 + 1.
+	 *
+	 *  @return The number of Complex values produced by this plan
+	**/
+
+	public int getResultSize()
+	{
+		return (fResultSize);
+	}
+	
+	
+	/**
+	 *  Applies the forward Discrete Fourier Transform to the n real values 
+	 *  of the given array starting at the given offset, where n is the size 
+	 *  of this plan, and writes the n/2 + 1 non-redundant results into the 
+	 *  given arrays. The input is not modified. The results are not scaled.
+	 *
+	 *  @param input The real values to transform
+	 *  @param offset The index of the first value to transform
+	 *  @param real Receives the real parts of the results
+	 *  @param imaginary Receives the imaginary parts of the results
+	 *  @throws IllegalArgumentException if the input holds fewer than n 
+	 * 		values from the given offset or the result arrays are shorter 
+	 * 		than n/2 + 1
+	**/
+
+	public void transform(double[] input, int offset, double[] real, 
+		double[] imaginary)
+	{
+		if (offset < 0 || offset + fSize > input.length 
+			|| real.length < fResultSize || imaginary.length < fResultSize)
+		{
+			String message = "The arrays do not fit an Fft of size " + fSize;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		double[][] workspace = (double[][]) fWorkspaces.get();
+		double[] zr = workspace[0];
+		double[] zi = workspace[1];
+		
+		if (fSplitReal == null)
+		{
+			System.arraycopy(input, offset, zr, 0, fSize);
+			
+			for (int i = 0; i < fSize; i++)
+			{
+				zi[i] = 0;
+			}
+			
+			fComplexPlan.transform(zr, zi);
+			
+			System.arraycopy(zr, 0, real, 0, fResultSize);
+			System.arraycopy(zi, 0, imaginary, 0, fResultSize);
+		}
+		else
+		{
+			int half = fSize / 2;
+			
+			for (int i = 0, j = offset; i < half; i++, j += 2)
+			{
+				zr[i] = input[j];
+				zi[i] = input[j + 1];
+			}
+			
+			fComplexPlan.transform(zr, zi);
+			
+			// X[k] = E[k] + e^(-2 pi i k / n) O[k], where E and O are the 
+			// spectra of the even and odd samples, recovered from the 
+			// packed transform Z as E = (Z[k] + conj(Z[h-k])) / 2 and
+			// O = (Z[k] - conj(Z[h-k])) / 2i.
+			
+			for (int k = 0; k <= half; k++)
+			{
+				int a = (k == half) ? 0 : k;
+				int b = (k == 0) ? 0 : half - k;
+				
+				double evenReal = 0.5 * (zr[a] + zr[b]);
+				double evenImaginary = 0.5 * (zi[a] - zi[b]);
+				double oddReal = 0.5 * (zi[a] + zi[b]);
+				double oddImaginary = -0.5 * (zr[a] - zr[b]);
+				
+				double wr = fSplitReal[k];
+				double wi = fSplitImaginary[k];
+				
+				real[k] = evenReal + wr * oddReal - wi * oddImaginary;
+				imaginary[k] = evenImaginary + wr * oddImaginary + wi * oddReal;
+			}
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,483 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.numerics.math.calculations;
+
+
+/**
+ *  A StreamingMoments accumulates the count, mean, variance, minimum and 
+ *  maximum of a stream of samples in a single pass, without keeping the 
+ *  samples. NaN samples take up a position in the stream but are otherwise 
+ *  ignored.
+ * 
+ *  <p>Rather than summing the squares of the samples, which loses all 
+ *  precision when the mean is large compared to the spread, the moments are 
+ *  kept as a running mean and sum of squared deviations from it (Welford). 
+ *  Arrays are taken in blocks small enough to stay in cache: the sum of a 
+ *  block and then the squared deviations from its own mean are formed in 
+ *  two tight loops over the block, and the block is then merged into the 
+ *  running moments (Chan et al.). The block loops have no divisions or 
+ *  loop-carried dependencies other than the sums, so the compiler can 
+ *  unroll and vectorize them.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version $Date$
+ *  @author $Author$
+**/
+
+public class StreamingMoments
+{
+	/**
+	 * The number of samples in each block of an array.
+	 */
+	private static final int BLOCK_SIZE = 256;
+	
+	private long fCount;
+	private double fSum;
+	private double fMean;
+	private double fSumOfSquaredDeviations;
+	
+	private double fMinValue;
+	private long fMinValueIndex;
+	private double fMaxValue;
+	private long fMaxValueIndex;
+	
+	private long fNumPositions;
+	
+	
+	/**
+	 *  Constructs a new, empty StreamingMoments.
+	**/
+	
+	public StreamingMoments()
+	{
+		clear();
+	}
+	
+	
+	/**
+	 *  Discards all of the samples added so far.
+	**/
+	
+	public void clear()
+	{
+		fCount = 0;
+		fSum = 0.0;
+		fMean = 0.0;
+		fSumOfSquaredDeviations = 0.0;
+		
+		fMinValue = Double.POSITIVE_INFINITY;
+		fMinValueIndex = -1;
+		fMaxValue = Double.NEGATIVE_INFINITY;
+		fMaxValueIndex = -1;
+		
+		fNumPositions = 0;
+	}
+	
+	
+	/**
+	 *  Adds the given sample.
+	 * 
+	 *  @param value A sample
+	**/
+	
+	public void add(double value)
+	{
+		if (value == value)
+		{
+			fCount++;
+			fSum += value;
+			
+			double delta = value - fMean;
+			fMean += delta / fCount;
+			fSumOfSquaredDeviations += delta * (value - fMean);
+			
+			updateExtremes(value, fNumPositions);
+		}
+		
+		fNumPositions++;
+	}
+	
+	
+	/**
+	 *  Adds the given number of samples of the given array, starting at the 
+	 *  given offset.
+	 * 
+	 *  @param values An array of samples
+	 *  @param offset The index of the first sample to add
+	 *  @param length The number of samples to add
+	**/
+	
+	public void add(double[] values, int offset, int length)
+	{
+		int end = offset + length;
+		
+		for (int start = offset; start < end; start += BLOCK_SIZE)
+		{
+			int blockEnd = Math.min(start + BLOCK_SIZE, end);
+			
+			double sum = 0.0;
+			int count = 0;
+			
+			for (int i = start; i < blockEnd; i++)
+			{
+				double value = values[i];
+				
+				if (value == value)
+				{
+					sum += value;
+					count++;
+					
+					if ((value < fMinValue) || (value > fMaxValue))
+					{
+						updateExtremes(value, fNumPositions + (i - start));
+					}
+				}
+			}
+			
+			if (count > 0)
+			{
+				double blockMean = sum / count;
+				double sumOfSquaredDeviations = 0.0;
+				
+				for (int i = start; i < blockEnd; i++)
+				{
+					double deviation = values[i] - blockMean;
+					
+					if (deviation == deviation)
+					{
+						sumOfSquaredDeviations += deviation * deviation;
+					}
+				}
+				
+				fSum += sum;
+				merge(count, blockMean, sumOfSquaredDeviations);
+			}
+			
+			fNumPositions += blockEnd - start;
+		}
+	}
+	
+	
+	/**
+	 *  Adds the given number of samples of the given array, starting at the 
+	 *  given offset.
+	 * 
+	 *  @param values An array of samples
+	 *  @param offset The index of the first sample to add
+	 *  @param length The number of samples to add
+	**/
+	
+	public void add(float[] values, int offset, int length)
+	{
+		int end = offset + length;
+		
+		for (int start = offset; start < end; start += BLOCK_SIZE)
+		{
+			int blockEnd = Math.min(start + BLOCK_SIZE, end);
+			
+			double sum = 0.0;
+			int count = 0;
+			
+			for (int i = start; i < blockEnd; i++)
+			{
+				double value = values[i];
+				
+				if (value == value)
+				{
+					sum += value;
+					count++;
+					
+					if ((value < fMinValue) || (value > fMaxValue))
+					{
+						updateExtremes(value, fNumPositions + (i - start));
+					}
+				}
+			}
+			
+			if (count > 0)
+			{
+				double blockMean = sum / count;
+				double sumOfSquaredDeviations = 0.0;
+				
+				for (int i = start; i < blockEnd; i++)
+				{
+					double deviation = values[i] - blockMean;
+					
+					if (deviation == deviation)
+					{
+						sumOfSquaredDeviations += deviation * deviation;
+					}
+				}
+				
+				fSum += sum;
+				merge(count, blockMean, sumOfSquaredDeviations);
+			}
+			
+			fNumPositions += blockEnd - start;
+		}
+	}
+	
+	
+	/**
+	 *  Adds all of the samples of the given StreamingMoments, as if they 
+	 *  followed the samples already added.
+	 * 
+	 *  @param moments A StreamingMoments
+	**/
+	
+	public void add(StreamingMoments moments)
+	{
+		if (moments.fCount > 0)
+		{
+			if (moments.fMinValue < fMinValue)
+			{
+				fMinValue = moments.fMinValue;
+				fMinValueIndex = fNumPositions + moments.fMinValueIndex;
+			}
+			
+			if (moments.fMaxValue > fMaxValue)
+			{
+				fMaxValue = moments.fMaxValue;
+				fMaxValueIndex = fNumPositions + moments.fMaxValueIndex;
+			}
+			
+			fSum += moments.fSum;
+			merge(moments.fCount, moments.fMean, 
+				moments.fSumOfSquaredDeviations);
+		}
+		
+		fNumPositions += moments.fNumPositions;
+	}
+	
+	
+	/**
+	 *  Merges the moments of a group of samples into the running moments.
+	 * 
+	 *  @param count The number of samples in the group
+	 *  @param mean The mean of the group
+	 *  @param sumOfSquaredDeviations The sum of the squared deviations of 
+	 * 		the group from its mean
+	**/
+	
+	private void merge(long count, double mean, double sumOfSquaredDeviations)
+	{
+		long total = fCount + count;
+		double delta = mean - fMean;
+		double weight = (double) count / total;
+		
+		fSumOfSquaredDeviations += sumOfSquaredDeviations 
+			+ delta * delta * fCount * weight;
+		fMean += delta * weight;
+		fCount = total;
+	}
+	
+	
+	/**
+	 *  Records the given value as the minimum or maximum if it is one.
+	 * 
+	 *  @param value A sample
+	 *  @param index The position of the sample in the stream
+	**/
+	
+	private void updateExtremes(double value, long index)
+	{
+		if (value < fMinValue)
+		{
+			fMinValue = value;
+			fMinValueIndex = index;
+		}
+		
+		if (value > fMaxValue)
+		{
+			fMaxValue = value;
+			fMaxValueIndex = index;
+		}
+	}
+	
+	
+	/**
+	 *  Returns the number of (non-NaN) samples added.
+	 * 
+	 *  @return The number of samples
+	**/
+	
+	public long getCount()
+	{
+		return (fCount);
+	}
+	
+	
+	/**
+	 *  Returns the number of positions in the stream, including those of 
+	 *  NaN samples.
+	 * 
+	 *  @return The number of positions in the stream
+	**/
+	
+	public long getNumPositions()
+	{
+		return (fNumPositions);
+	}
+	
+	
+	/**
+	 *  Returns the sum of the samples, accumulated directly rather than 
+	 *  derived from the mean, so that it is exact for samples whose sum is.
+	 * 
+	 *  @return The sum of the samples
+	**/
+	
+	public double getSum()
+	{
+		return (fSum);
+	}
+	
+	
+	/**
+	 *  Returns the arithmetic mean of the samples, or NaN if there are none.
+	 * 
+	 *  @return The mean of the samples
+	**/
+	
+	public double getMean()
+	{
+		return ((fCount > 0) ? fMean : Double.NaN);
+	}
+	
+	
+	/**
+	 *  Returns the population variance of the samples, or NaN if there are 
+	 *  none.
+	 * 
+	 *  @return The population variance of the samples
+	**/
+	
+	public double getVariance()
+	{
+		return ((fCount > 0) ? fSumOfSquaredDeviations / fCount : Double.NaN);
+	}
+	
+	
+	/**
+	 *  Returns the sample (unbiased) variance of the samples, or NaN if there 
+	 *  are fewer than two.
+	 * 
+	 *  @return The sample variance of the samples
+	**/
+	
+	public double getSampleVariance()
+	{
+		return ((fCount > 1) ? 
+			fSumOfSquaredDeviations / (fCount - 1) : Double.NaN);
+	}
+	
+	
+	/**
+	 *  Returns the sample standard deviation of the samples, or NaN if there 
+	 *  are fewer than two.
+	 * 
+	 *  @return The sample standard deviation of the samples
+	**/
+	
+	public double getStandardDeviation()
+	{
+		return (Math.sqrt(getSampleVariance()));
+	}
+	
+	
+	/**
+	 *  Returns the root mean square of the samples, or NaN if there are none.
+	 * 
+	 *  @return The root mean square of the samples
+	**/
+	
+	public double getRootMeanSquare()
+	{
+		double result = Double.NaN;
+		
+		if (fCount > 0)
+		{
+			result = Math.sqrt(fMean * fMean 
+				+ fSumOfSquaredDeviations / fCount);
+		}
+		
+		return (result);
+	}
+	
+	
+	/**
+	 *  Returns the smallest sample, or positive infinity if there are none.
+	 * 
+	 *  @return The smallest sample
+	**/
+	
+	public double getMinValue()
+	{
+		return (fMinValue);
+	}
+	
+	
+	/**
+	 *  Returns the position in the stream of the first occurrence of the 
+	 *  smallest sample, or -1 if there are no samples.
+	 * 
+	 *  @return The position of the smallest sample
+	**/
+	
+	public long getMinValueIndex()
+	{
+		return (fMinValueIndex);
+	}
+	
+	
+	/**
+	 *  Returns the largest sample, or negative infinity if there are none.
+	 * 
+	 *  @return The largest sample
+	**/
+	
+	public double getMaxValue()
+	{
+		return (fMaxValue);
+	}
+	
+	
+	/**
+	 *  Returns the position in the stream of the first occurrence of the 
+	 *  largest sample, or -1 if there are no samples.
+	 * 
+	 *  @return The position of the largest sample
+	**/
+	
+	public long getMaxValueIndex()
+	{
+		return (fMaxValueIndex);
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,190 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.numerics.math.calculations;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import gov.nasa.gsfc.commons.numerics.Constants;
+import gov.nasa.gsfc.commons.types.namespaces.AbstractNamedObject;
+
+
+/**
+ *  A WindowFunction enumerates the tapers that can be applied to a segment 
+ *  of samples before it is transformed, to reduce the spectral leakage 
+ *  caused by the segment ends. The coefficients are periodic (DFT-even), 
+ *  as is usual for spectral analysis.
+ * 
+ *  <ul>
+ *  <li>{@link #RECTANGULAR}: no taper.</li>
+ *  <li>{@link #HANN}: raised cosine; a good general-purpose choice.</li>
+ *  <li>{@link #HAMMING}: raised cosine with a lower nearest sidelobe.</li>
+ *  <li>{@link #BLACKMAN}: three-term cosine with low sidelobes and a wider 
+ * 		main lobe.</li>
+ *  </ul>
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version $Date$
+ *  @author $Author$
+**/
+
+public class WindowFunction extends AbstractNamedObject 
+	implements Serializable, Constants
+{
+	/**
+	 * All known WindowFunctions, keyed by name.
+	**/
+	// NB: For initialization sequence, this has to come before any 
+	// WindowFunction constants.
+	private static Map sWindows = new HashMap();
+	
+	public static final WindowFunction RECTANGULAR = 
+		new WindowFunction("rectangular", 1.0D, 0.0D, 0.0D);
+	public static final WindowFunction HANN = 
+		new WindowFunction("hann", 0.5D, 0.5D, 0.0D);
+	public static final WindowFunction HAMMING = 
+		new WindowFunction("hamming", 0.54D, 0.46D, 0.0D);
+	public static final WindowFunction BLACKMAN = 
+		new WindowFunction("blackman", 0.42D, 0.5D, 0.08D);
+	
+	// w[j] = a0 - a1 cos(2 pi j / n) + a2 cos(4 pi j / n)
+	private final double fA0;
+	private final double fA1;
+	private final double fA2;
+	
+
+	/**
+	 * Constructs a new WindowFunction having the given name and cosine 
+	 * coefficients.
+	 *
+	 * @param name The name of the new WindowFunction
+	 * @param a0 The constant term
+	 * @param a1 The coefficient of the first cosine term
+	 * @param a2 The coefficient of the second cosine term
+	**/
+	
+	protected WindowFunction(String name, double a0, double a1, double a2)
+	{
+		super(name);
+		
+		fA0 = a0;
+		fA1 = a1;
+		fA2 = a2;
+		
+		sWindows.put(name, this);
+	}
+	
+
+	/**
+	 * Writes the coefficients of this WindowFunction for a segment of the 
+	 * given size into the given array.
+	 *
+	 * @param coefficients Receives the coefficients
+	 * @param size The number of samples in a segment
+	 * @return The given array
+	**/
+	
+	public double[] getCoefficients(double[] coefficients, int size)
+	{
+		double delta = TWO_PI / size;
+		
+		for (int j = 0; j < size; j++)
+		{
+			double angle = delta * j;
+			
+			coefficients[j] = fA0 - fA1 * Math.cos(angle) 
+				+ fA2 * Math.cos(2 * angle);
+		}
+		
+		return (coefficients);
+	}
+	
+
+	/**
+	 * Returns the coefficients of this WindowFunction for a segment of the 
+	 * given size.
+	 *
+	 * @param size The number of samples in a segment
+	 * @return The coefficients of this WindowFunction
+	**/
+	
+	public double[] getCoefficients(int size)
+	{
+		return (getCoefficients(new double[size], size));
+	}
+	
+
+	/**
+	 *  Returns a String representation of this WindowFunction.
+	 *
+	 *  @return A String representation of this WindowFunction
+	**/
+	
+	public String toString()
+	{
+		return (getName());
+	}
+	
+
+	/**
+	 * Returns the WindowFunction corresponding to the given WindowFunction 
+	 * name.
+	 *
+	 * @param The name of the desired WindowFunction
+	 * @return The WindowFunction that has the given name (if any)
+	**/
+	
+	public static WindowFunction forName(String name)
+	{
+		WindowFunction result = (WindowFunction) sWindows.get(name);
+		
+		return (result);
+	}
+	
+
+	/**
+	 * This method supports serialization.
+	 *
+	**/
+	
+	public Object readResolve() throws ObjectStreamException
+	{
+		String name = getName();
+		
+		if (! sWindows.containsKey(name))
+		{
+			sWindows.put(name, this);
+		}
+		
+		return ((WindowFunction) sWindows.get(name));
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
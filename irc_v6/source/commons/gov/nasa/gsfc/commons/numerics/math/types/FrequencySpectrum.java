@@ -51,6 +51,8 @@ package gov.nasa.gsfc.commons.numerics.math.types;
 import gov.nasa.gsfc.commons.numerics.Constants;
 import gov.nasa.gsfc.commons.numerics.math.Utilities;
 import gov.nasa.gsfc.commons.numerics.math.calculations.Fft;
+import gov.nasa.gsfc.commons.numerics.math.calculations.RealFftPlan;
+import gov.nasa.gsfc.commons.numerics.math.calculations.WindowFunction;
 import gov.nasa.gsfc.commons.numerics.types.ComplexArray;
 import gov.nasa.gsfc.commons.numerics.types.Range;
 
@@ -60,6 +62,13 @@ import gov.nasa.gsfc.commons.numerics.types.Range;
  *  sampled input data and then calculates an amplitude for each resulting
  *  frequency value.
  *
+ *  <P>The FFT is applied with a shared {@link RealFftPlan}, and the work 
+ *  arrays are kept from one spectrum to the next, so forming spectra of the 
+ *  same size repeatedly does not allocate. A FrequencySpectrum can also 
+ *  form a Welch estimate, averaging the power of overlapping windowed 
+ *  segments of its input; see {@link #formAveragedFrequencySpectrum}. A 
+ *  FrequencySpectrum is not thread-safe; use one per thread.
+ *
  *	<P>This code was developed for NASA, Goddard Space Flight Center, Code 580
  *	for the Instrument Remote Control (IRC) project.
  *
@@ -81,6 +90,23 @@ public class FrequencySpectrum implements Constants
 	private Range fAmplitudeRange;	// The range of the amplitude values
 	private double fFrequencyDelta;   // The (calculated) change in frequency
 										// between each amplitude value
+	
+	private RealFftPlan fPlan;
+	private double[] fSegment;
+	private double[] fPowers;
+	private double[] fOwnAmplitudeValues;
+	private WindowFunction fWindow;
+	private double[] fWindowCoefficients;
+	private double fWindowPower;
+
+
+	/**
+	 *	Constructs a new FrequencySpectrum that has not yet formed a spectrum.
+	**/
+
+	public FrequencySpectrum()
+	{
+	}
 
 
 	/**
@@ -236,23 +262,21 @@ public class FrequencySpectrum implements Constants
 			((calibrationCoefficient * Math.sqrt(numUsefulSamples)) +
 				calibrationOffset));
 
-		fFftResults = Fft.applySampledFft(sampleValues);
-
-		fNumAmplitudeValues = fFftResults.length;
+		prepare(numUsefulSamples, amplitudeValues);
 		
-		if (amplitudeValues == null)
-		{
-			fAmplitudeValues = new double[fNumAmplitudeValues];
-		}
-		else
-		{
-			fAmplitudeValues = amplitudeValues;	
-		}
+		fPlan.transform(sampleValues, 0, fFftResults.realParts, 
+			fFftResults.imaginaryParts);
+		
+		// Scale as Fft.applySampledFft does, and use its sign convention
+		double fftScale = Math.sqrt(1.0D / numUsefulSamples);
 
 		for (int i = 0; i < fNumAmplitudeValues; i++)
 		{
-			double realPart = fFftResults.realParts[i];
-			double imaginaryPart = fFftResults.imaginaryParts[i];
+			double realPart = fFftResults.realParts[i] * fftScale;
+			double imaginaryPart = - fFftResults.imaginaryParts[i] * fftScale;
+			
+			fFftResults.realParts[i] = realPart;
+			fFftResults.imaginaryParts[i] = imaginaryPart;
 
 			double amplitude = SQRT_OF_TWO * Math.sqrt
 				((realPart * realPart) + (imaginaryPart * imaginaryPart));
@@ -280,6 +304,224 @@ public class FrequencySpectrum implements Constants
 	}
 	
 
+	/**
+	 *  Returns the size of the averaged FrequencySpectrum formed from 
+	 *  segments of the given number of samples.
+	 * 
+	 *  @param segmentSize The number of samples in each segment
+	 *  @return The number of amplitude values of the averaged spectrum
+	**/
+
+	public static int getAveragedResultSize(int segmentSize)
+	{
+		return ((segmentSize / 2) + 1);
+	}
+	
+	
+	/**
+	 *	Forms a Welch estimate of the FrequencySpectrum of the first 
+	 *  numSamples of the given sample values, which were uniformly sampled 
+	 *  at the specified period, and writes the resulting segmentSize/2 + 1 
+	 *  amplitude values into the given buffer.
+	 * 
+	 *  <p>The samples are divided into segments of the given size, each 
+	 *  overlapping the previous one by the given number of samples. Each 
+	 *  segment is multiplied by the given WindowFunction and transformed, 
+	 *  and the powers of the segments are averaged. Samples after the last 
+	 *  whole segment are ignored. The segment size need not be a power of 
+	 *  two. A segment size of 0 (or more than numSamples) uses all of the 
+	 *  samples as one segment.
+	 * 
+	 *  <p>The amplitudes are normalized for the power of the window, so a 
+	 *  single rectangular segment of a power-of-two size gives the same 
+	 *  amplitudes as {@link #formFrequencySpectrum(double[], double, 
+	 *  double[], double, double) formFrequencySpectrum}. The FFT results 
+	 *  kept by this FrequencySpectrum are those of the last segment.
+	 *
+	 *	@param sampleValues A set of uniformly sampled values
+	 *  @param numSamples The number of sample values to use
+	 *  @param samplingPeriod The period at which the values were sampled
+	 *  @param segmentSize The number of samples in each segment
+	 *  @param segmentOverlap The number of samples shared by successive 
+	 * 		segments
+	 *  @param window The WindowFunction applied to each segment, or null 
+	 * 		for none
+	 *	@param amplitudeValues Buffer to receive the resulting set of 
+	 * 		amplitude values, or null to allocate one
+	 *  @param calibrationCoefficient Each output amplitude is multiplied by
+	 *	  a scale value calculated based on this value
+	 *  @param calibrationOffset This value is added to each output amplitude
+	 *	  after the calibrationCoefficient is applied
+	 *  @return The actual number of calculated amplitude values that were 
+	 * 		written into the amplitude values buffer 
+	 *  @throws IllegalArgumentException if the overlap is negative or not 
+	 * 		less than the segment size
+	**/
+
+	public int formAveragedFrequencySpectrum(double[] sampleValues, 
+		int numSamples, double samplingPeriod, int segmentSize, 
+		int segmentOverlap, WindowFunction window, double[] amplitudeValues, 
+		double calibrationCoefficient, double calibrationOffset)
+	{
+		if ((segmentSize <= 0) || (segmentSize > numSamples))
+		{
+			segmentSize = numSamples;
+		}
+		
+		if ((segmentOverlap < 0) || (segmentOverlap >= segmentSize))
+		{
+			String message = "The segment overlap (" + segmentOverlap 
+				+ ") must be at least 0 and less than the segment size (" 
+				+ segmentSize + ")";
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		if (window == null)
+		{
+			window = WindowFunction.RECTANGULAR;
+		}
+		
+		int step = segmentSize - segmentOverlap;
+		int numSegments = 1 + (numSamples - segmentSize) / step;
+		
+		fCalibrationScaleValue = Math.sqrt((2 * samplingPeriod) /
+			((calibrationCoefficient * Math.sqrt(segmentSize)) +
+				calibrationOffset));
+		
+		prepare(segmentSize, amplitudeValues);
+		prepareWindow(window, segmentSize);
+		
+		double[] real = fFftResults.realParts;
+		double[] imaginary = fFftResults.imaginaryParts;
+		
+		for (int i = 0; i < fNumAmplitudeValues; i++)
+		{
+			fPowers[i] = 0;
+		}
+		
+		for (int segment = 0, start = 0; segment < numSegments; 
+			segment++, start += step)
+		{
+			if (window == WindowFunction.RECTANGULAR)
+			{
+				fPlan.transform(sampleValues, start, real, imaginary);
+			}
+			else
+			{
+				for (int j = 0; j < segmentSize; j++)
+				{
+					fSegment[j] = sampleValues[start + j] * fWindowCoefficients[j];
+				}
+				
+				fPlan.transform(fSegment, 0, real, imaginary);
+			}
+			
+			for (int i = 0; i < fNumAmplitudeValues; i++)
+			{
+				fPowers[i] += (real[i] * real[i]) + (imaginary[i] * imaginary[i]);
+			}
+		}
+		
+		double scale = 1.0D / (numSegments * segmentSize * fWindowPower);
+		double minAmplitude = 0.0D;
+		double maxAmplitude = 0.0D;
+		
+		for (int i = 0; i < fNumAmplitudeValues; i++)
+		{
+			double amplitude = SQRT_OF_TWO * Math.sqrt(fPowers[i] * scale) 
+				* fCalibrationScaleValue;
+			
+			fAmplitudeValues[i] = amplitude;
+			
+			if (amplitude > maxAmplitude)
+			{
+				maxAmplitude = amplitude;
+			}
+		}
+		
+		fFrequencyDelta = 1.0D / (segmentSize * samplingPeriod);
+		fFrequencyRange = new Range(0, (fNumAmplitudeValues - 1) *
+			fFrequencyDelta);
+		fAmplitudeRange = new Range(minAmplitude, maxAmplitude);
+		
+		return (fNumAmplitudeValues);
+	}
+	
+	
+	/**
+	 *  Gets the plan and work arrays for transforms of the given size, 
+	 *  reusing those of the previous spectrum where possible.
+	 *
+	 *  @param size The number of samples transformed
+	 *  @param amplitudeValues Buffer to receive the amplitude values, or 
+	 * 		null to use an internal one
+	**/
+
+	private void prepare(int size, double[] amplitudeValues)
+	{
+		if ((fPlan == null) || (fPlan.getSize() != size))
+		{
+			fPlan = RealFftPlan.getInstance(size);
+		}
+		
+		fNumAmplitudeValues = fPlan.getResultSize();
+		
+		if ((fFftResults == null) 
+			|| (fFftResults.realParts.length < fNumAmplitudeValues))
+		{
+			fFftResults = new ComplexArray(fNumAmplitudeValues);
+			fPowers = new double[fNumAmplitudeValues];
+		}
+		
+		fFftResults.length = fNumAmplitudeValues;
+		
+		if (amplitudeValues != null)
+		{
+			fAmplitudeValues = amplitudeValues;	
+		}
+		else
+		{
+			if ((fOwnAmplitudeValues == null) 
+				|| (fOwnAmplitudeValues.length != fNumAmplitudeValues))
+			{
+				fOwnAmplitudeValues = new double[fNumAmplitudeValues];
+			}
+			
+			fAmplitudeValues = fOwnAmplitudeValues;
+		}
+	}
+	
+	
+	/**
+	 *  Computes the coefficients and power of the given WindowFunction for 
+	 *  segments of the given size, unless they are already known.
+	 *
+	 *  @param window The WindowFunction
+	 *  @param size The number of samples in a segment
+	**/
+
+	private void prepareWindow(WindowFunction window, int size)
+	{
+		if ((fWindow != window) || (fSegment == null) 
+			|| (fSegment.length != size))
+		{
+			fWindow = window;
+			fSegment = new double[size];
+			fWindowCoefficients = window.getCoefficients(size);
+			
+			double sum = 0;
+			
+			for (int j = 0; j < size; j++)
+			{
+				sum += fWindowCoefficients[j] * fWindowCoefficients[j];
+			}
+			
+			fWindowPower = sum / size;
+		}
+	}
+	
+
 	/**
 	 *	Returns the calibration scale value used by this FrequencySpectrum.
 	 *
@@ -0,0 +1,438 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.processing.tasks;
+
+import java.util.LinkedList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * A BoundedTaskPool runs {@link java.lang.Runnable Runnables} on a shared,
+ * bounded set of worker Threads. Unlike the single-threaded
+ * {@link DefaultTaskManager}, tasks may run concurrently, and so are not
+ * guaranteed to run in the order they were received.
+ * <p>
+ * The pool keeps up to its core number of worker Threads alive while idle.
+ * When a task is received and no worker is idle, a new worker is started,
+ * up to the maximum number of Threads; beyond that, tasks wait in order for
+ * the next free worker. Workers above the core number exit once they have
+ * been idle for the keep-alive time. The number of Threads therefore follows
+ * the number of tasks actually running at once, rather than the number of
+ * clients of the pool.
+ * <p>
+ * All worker Threads are daemon Threads.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.</p>
+ *
+ * @version	$Date$
+ * @author	$Author$
+ */
+public class BoundedTaskPool
+{
+	private static final String CLASS_NAME = 
+		BoundedTaskPool.class.getName();
+	private static final Logger sLogger = 
+		Logger.getLogger(CLASS_NAME);
+	
+	/**
+	 * The default time an idle worker above the core number waits for a new 
+	 * task before exiting, in milliseconds.
+	 */
+	public static final long DEFAULT_KEEP_ALIVE_MILLIS = 60000;
+	
+	private final String fName;
+	private final int fCoreThreads;
+	private final int fMaxThreads;
+	private final long fKeepAliveMillis;
+	
+	// Holder of tasks to run; also the monitor for all of the counts below.
+	private final LinkedList fTasks = new LinkedList();
+	
+	private int fNumThreads = 0;
+	private int fNumIdleThreads = 0;
+	private int fPeakNumThreads = 0;
+	private int fThreadSequence = 0;
+	private boolean fShutdown = false;
+
+	/**
+	 * Constructs a new BoundedTaskPool having the given name and maximum 
+	 * number of worker Threads. The core number of Threads is the number of 
+	 * available processors, or the maximum if that is smaller.
+	 * 
+	 * @param name The name of the new BoundedTaskPool, used to name its 
+	 * 		worker Threads
+	 * @param maxThreads The maximum number of worker Threads
+	 * @throws IllegalArgumentException if the maximum number of Threads is 
+	 * 		less than 1
+	 */
+	public BoundedTaskPool(String name, int maxThreads)
+	{
+		this(name, Math.min(Runtime.getRuntime().availableProcessors(), 
+			maxThreads), maxThreads, DEFAULT_KEEP_ALIVE_MILLIS);
+	}
+	
+	/**
+	 * Constructs a new BoundedTaskPool having the given name, core and 
+	 * maximum number of worker Threads, and keep-alive time.
+	 * 
+	 * @param name The name of the new BoundedTaskPool, used to name its 
+	 * 		worker Threads
+	 * @param coreThreads The number of worker Threads kept alive while idle
+	 * @param maxThreads The maximum number of worker Threads
+	 * @param keepAliveMillis The time an idle worker above the core number 
+	 * 		waits for a new task before exiting, in milliseconds
+	 * @throws IllegalArgumentException if the maximum number of Threads is 
+	 * 		less than 1, the core number is negative or greater than the 
+	 * 		maximum, or the keep-alive time is negative
+	 */
+	public BoundedTaskPool(String name, int coreThreads, int maxThreads, 
+		long keepAliveMillis)
+	{
+		if ((maxThreads < 1) || (coreThreads < 0) || 
+			(coreThreads > maxThreads) || (keepAliveMillis < 0))
+		{
+			String message = "Invalid pool bounds: core threads " + 
+				coreThreads + ", max threads " + maxThreads + 
+				", keep alive " + keepAliveMillis + " ms";
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fName = name;
+		fCoreThreads = coreThreads;
+		fMaxThreads = maxThreads;
+		fKeepAliveMillis = keepAliveMillis;
+	}
+	
+	/**
+	 * Causes a task to be run asynchronously by this pool. The task will be 
+	 * run by an idle worker if there is one, by a new worker if there is not 
+	 * and the maximum number of workers has not been reached, and otherwise 
+	 * by the next worker to become free.
+	 *
+	 * @param task	the Runnable task to run
+	 * @throws IllegalStateException if this pool has been shut down
+	 */
+	public void invokeLater(Runnable task)
+	{
+		synchronized (fTasks)
+		{
+			if (fShutdown)
+			{
+				String message = "Pool " + fName + " has been shut down";
+				
+				throw (new IllegalStateException(message));
+			}
+			
+			fTasks.addLast(task);
+			
+			// An idle worker that has been notified but has not yet woken up 
+			// is still counted as idle, so compare against the whole queue.
+			
+			if ((fTasks.size() > fNumIdleThreads) && 
+				(fNumThreads < fMaxThreads))
+			{
+				startWorker();
+			}
+			else
+			{
+				fTasks.notify();
+			}
+		}
+	}
+	
+	/**
+	 * Causes a task to be run asynchronously by this pool if an idle worker 
+	 * can take it, or a new worker can be started for it. Otherwise the task 
+	 * is not queued, and the caller may run it itself rather than wait for a 
+	 * busy worker.
+	 *
+	 * @param task	the Runnable task to run
+	 * @return True if the task will be run by a worker of this pool
+	 * @throws IllegalStateException if this pool has been shut down
+	 */
+	public boolean invokeIfAvailable(Runnable task)
+	{
+		boolean result = false;
+		
+		synchronized (fTasks)
+		{
+			if (fShutdown)
+			{
+				String message = "Pool " + fName + " has been shut down";
+				
+				throw (new IllegalStateException(message));
+			}
+			
+			if (fTasks.size() < fNumIdleThreads)
+			{
+				fTasks.addLast(task);
+				fTasks.notify();
+				result = true;
+			}
+			else if (fNumThreads < fMaxThreads)
+			{
+				fTasks.addLast(task);
+				startWorker();
+				result = true;
+			}
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Shuts down this pool. Tasks already received are still run, but no 
+	 * new tasks will be accepted, and the workers exit once the queue is 
+	 * empty.
+	 */
+	public void shutdown()
+	{
+		synchronized (fTasks)
+		{
+			fShutdown = true;
+			fTasks.notifyAll();
+		}
+	}
+	
+	/**
+	 * Returns the name of this pool.
+	 * 
+	 * @return The name of this pool
+	 */
+	public String getName()
+	{
+		return (fName);
+	}
+	
+	/**
+	 * Returns the maximum number of worker Threads of this pool.
+	 * 
+	 * @return The maximum number of worker Threads of this pool
+	 */
+	public int getMaxThreads()
+	{
+		return (fMaxThreads);
+	}
+	
+	/**
+	 * Returns the current number of worker Threads of this pool.
+	 * 
+	 * @return The current number of worker Threads of this pool
+	 */
+	public int getThreadCount()
+	{
+		synchronized (fTasks)
+		{
+			return (fNumThreads);
+		}
+	}
+	
+	/**
+	 * Returns the largest number of worker Threads this pool has had at once.
+	 * 
+	 * @return The largest number of worker Threads this pool has had at once
+	 */
+	public int getPeakThreadCount()
+	{
+		synchronized (fTasks)
+		{
+			return (fPeakNumThreads);
+		}
+	}
+	
+	/**
+	 * Returns the number of tasks waiting for a worker.
+	 * 
+	 * @return The number of tasks waiting for a worker
+	 */
+	public int getQueuedTaskCount()
+	{
+		synchronized (fTasks)
+		{
+			return (fTasks.size());
+		}
+	}
+	
+	/**
+	 * Returns a String representation of this pool.
+	 * 
+	 * @return A String representation of this pool
+	 */
+	public String toString()
+	{
+		synchronized (fTasks)
+		{
+			return ("BoundedTaskPool " + fName + ": " + fNumThreads + 
+				" threads (" + fNumIdleThreads + " idle, max " + fMaxThreads + 
+				"), " + fTasks.size() + " queued tasks");
+		}
+	}
+	
+	/**
+	 * Starts a new worker Thread. Must be called while holding the task 
+	 * queue monitor.
+	 */
+	private void startWorker()
+	{
+		Thread worker = new Thread(new Worker(), 
+			fName + " worker " + (++fThreadSequence));
+		
+		worker.setDaemon(true);
+		
+		fNumThreads++;
+		
+		if (fNumThreads > fPeakNumThreads)
+		{
+			fPeakNumThreads = fNumThreads;
+		}
+		
+		worker.start();
+	}
+	
+	/**
+	 * Returns the next task to run, waiting for one if necessary, or null if 
+	 * the calling worker should exit. Must be called while holding the task 
+	 * queue monitor.
+	 * 
+	 * @return The next task to run, or null if the worker should exit
+	 */
+	private Runnable nextTask()
+	{
+		Runnable result = null;
+		long idleSince = System.currentTimeMillis();
+		boolean exit = false;
+		
+		while (fTasks.isEmpty() && ! exit)
+		{
+			long remaining = fKeepAliveMillis - 
+				(System.currentTimeMillis() - idleSince);
+			
+			if (fShutdown || 
+				((remaining <= 0) && (fNumThreads > fCoreThreads)))
+			{
+				exit = true;
+			}
+			else
+			{
+				fNumIdleThreads++;
+				
+				try
+				{
+					if (fNumThreads > fCoreThreads)
+					{
+						fTasks.wait(Math.max(remaining, 1));
+					}
+					else
+					{
+						fTasks.wait();
+					}
+				}
+				catch (InterruptedException ex)
+				{
+					exit = true;
+				}
+				finally
+				{
+					fNumIdleThreads--;
+				}
+			}
+		}
+		
+		if (! fTasks.isEmpty())
+		{
+			result = (Runnable) fTasks.removeFirst();
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * A Worker runs tasks from the queue until it is idle for too long or 
+	 * the pool is shut down.
+	 */
+	private class Worker implements Runnable
+	{
+		/**
+		 * Runs tasks from the queue of this pool.
+		 */
+		public void run()
+		{
+			try
+			{
+				Runnable task = null;
+				
+				synchronized (fTasks)
+				{
+					task = nextTask();
+				}
+				
+				while (task != null)
+				{
+					try
+					{
+						task.run();
+					}
+					catch (RuntimeException ex)
+					{
+						if (sLogger.isLoggable(Level.SEVERE))
+						{
+							String message = "Task failed in pool " + fName;
+							
+							sLogger.logp(Level.SEVERE, CLASS_NAME, "run", 
+								message, ex);
+						}
+					}
+					
+					synchronized (fTasks)
+					{
+						task = nextTask();
+					}
+				}
+			}
+			finally
+			{
+				synchronized (fTasks)
+				{
+					fNumThreads--;
+					
+					// If this worker is exiting abnormally, make sure any 
+					// queued tasks still have a worker.
+					
+					if (! fTasks.isEmpty() && (fNumIdleThreads == 0) && 
+						(fNumThreads < fMaxThreads))
+					{
+						startWorker();
+					}
+				}
+			}
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
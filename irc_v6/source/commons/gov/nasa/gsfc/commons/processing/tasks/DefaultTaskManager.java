@@ -29,6 +29,7 @@ import java.util.logging.Logger;
 import gov.nasa.gsfc.commons.processing.activity.Startable;
 import gov.nasa.gsfc.commons.types.queues.FifoQueue;
 import gov.nasa.gsfc.commons.types.queues.Queue;
+import gov.nasa.gsfc.commons.types.queues.QueueFactory;
 
 /**
  * This DefaultTaskManager manages a sequence of 
@@ -53,8 +54,16 @@ public class DefaultTaskManager implements TaskManager
 	private static final Logger sLogger = 
 		Logger.getLogger(CLASS_NAME);
 
+	/**
+	 * The system property that selects a lock-free task queue, e.g. "mpsc".
+	 * 
+	 * @see QueueFactory
+	 */
+	public static final String QUEUE_PROPERTY = CLASS_NAME + ".queue";
+
 	// Holder of tasks to run
-	private Queue fQueue = new FifoQueue();
+	private Queue fQueue = 
+		QueueFactory.getQueue(QUEUE_PROPERTY, new FifoQueue());
 	private Thread fTaskRunnerThread = null;
 
 	/**
@@ -74,7 +83,7 @@ public class DefaultTaskManager implements TaskManager
 	**/
 	public void invokeLater(Runnable task)
 	{
-		fQueue.add(task);
+		enqueue(task);
 	}
 
 	/**
@@ -85,7 +94,38 @@ public class DefaultTaskManager implements TaskManager
 	 **/
 	public void invokeLater(Task task)
 	{
-		fQueue.add(task);
+		enqueue(task);
+	}
+
+	/**
+	 * Adds the given task to the queue of tasks to run, waiting for room if 
+	 * the queue is bounded and full. If the wait is interrupted the task is
+	 * not run.
+	 *
+	 * @param task	the task to add
+	 */
+	private void enqueue(Object task)
+	{
+		if (! fQueue.add(task))
+		{
+			try
+			{
+				fQueue.blockingAdd(task);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				
+				if (sLogger.isLoggable(Level.WARNING))
+				{
+					String message = "Interrupted while queueing task: " + 
+						task;
+					
+					sLogger.logp(Level.WARNING, CLASS_NAME, 
+						"enqueue", message);
+				}
+			}
+		}
 	}
 
 	/**
@@ -103,7 +143,7 @@ public class DefaultTaskManager implements TaskManager
 
 		synchronized (synchronizedTask)
 		{
-			fQueue.add(synchronizedTask);
+			fQueue.blockingAdd(synchronizedTask);
 			synchronizedTask.wait();
 		}
 	}
@@ -123,7 +163,7 @@ public class DefaultTaskManager implements TaskManager
 
 		synchronized (synchronizedTask)
 		{
-			fQueue.add(synchronizedTask);
+			fQueue.blockingAdd(synchronizedTask);
 			synchronizedTask.wait();
 		}
 	}
@@ -0,0 +1,302 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.processing.tasks;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * A StagedTaskRunner runs successive stages of {@link java.lang.Runnable 
+ * Runnables}. The tasks of a stage run concurrently on a 
+ * {@link BoundedTaskPool}, and a stage returns only when all of its tasks 
+ * have finished, so that each stage sees the results of the stages before 
+ * it. The time taken by each stage is logged and kept for reporting.
+ * <p>
+ * The Thread running a stage also runs tasks of that stage until none are 
+ * left, and then waits only for tasks that other Threads are already 
+ * running. A task may therefore itself run stages on the same pool, even 
+ * when every worker of the pool is busy, as long as the tasks of a stage 
+ * do not wait for one another. The tasks must not need any monitor held by
+ * the Thread running the stage, since that Thread keeps it while waiting.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.</p>
+ *
+ * @version	$Date$
+ * @author	$Author$
+ */
+public class StagedTaskRunner
+{
+	private static final String CLASS_NAME = 
+		StagedTaskRunner.class.getName();
+	private static final Logger sLogger = 
+		Logger.getLogger(CLASS_NAME);
+	
+	private final String fName;
+	private final BoundedTaskPool fPool;
+	
+	// Stage name -> Long elapsed milliseconds, in the order the stages ran
+	private final Map fStageTimes = new LinkedHashMap();
+
+	/**
+	 * Constructs a new StagedTaskRunner having the given name that runs the 
+	 * tasks of its stages on the given BoundedTaskPool.
+	 * 
+	 * @param name The name of the new StagedTaskRunner, used when logging
+	 * @param pool The BoundedTaskPool on which to run tasks
+	 */
+	public StagedTaskRunner(String name, BoundedTaskPool pool)
+	{
+		fName = name;
+		fPool = pool;
+	}
+	
+	/**
+	 * Runs the given tasks as a stage having the given name, and returns 
+	 * when all of them have finished. If any task throws a RuntimeException 
+	 * or an Error, the remaining tasks of the stage are still run, and the 
+	 * first one thrown is then rethrown.
+	 * 
+	 * @param stage The name of the stage
+	 * @param tasks The List of Runnable tasks of the stage
+	 */
+	public void runStage(String stage, List tasks)
+	{
+		long startTime = System.currentTimeMillis();
+		Stage current = new Stage(tasks);
+		int numHelpers = Math.min(tasks.size() - 1, fPool.getMaxThreads());
+		
+		for (int i = 0; i < numHelpers; i++)
+		{
+			fPool.invokeLater(current);
+		}
+		
+		current.run();
+		current.awaitCompletion();
+		
+		long elapsed = System.currentTimeMillis() - startTime;
+		
+		synchronized (fStageTimes)
+		{
+			fStageTimes.put(stage, new Long(elapsed));
+		}
+		
+		if (sLogger.isLoggable(Level.INFO))
+		{
+			String message = fName + ": " + stage + " (" + tasks.size() + 
+				" tasks) took " + elapsed + " ms";
+			
+			sLogger.logp(Level.INFO, CLASS_NAME, "runStage", message);
+		}
+		
+		current.rethrowFailure();
+	}
+	
+	/**
+	 * Returns the time taken by each of the stages run so far, as an 
+	 * unmodifiable Map from stage name to elapsed milliseconds (as a Long), 
+	 * in the order the stages were run.
+	 * 
+	 * @return The time taken by each stage run so far
+	 */
+	public Map getStageTimes()
+	{
+		synchronized (fStageTimes)
+		{
+			return (Collections.unmodifiableMap(
+				new LinkedHashMap(fStageTimes)));
+		}
+	}
+	
+	/**
+	 * Returns the name of this StagedTaskRunner.
+	 * 
+	 * @return The name of this StagedTaskRunner
+	 */
+	public String getName()
+	{
+		return (fName);
+	}
+	
+	/**
+	 * Returns a String representation of this StagedTaskRunner, listing the 
+	 * time taken by each stage run so far.
+	 * 
+	 * @return A String representation of this StagedTaskRunner
+	 */
+	public String toString()
+	{
+		return ("StagedTaskRunner " + fName + ": " + getStageTimes() + " ms");
+	}
+	
+	/**
+	 * A Stage hands out its tasks in order to every Thread that runs it, 
+	 * until none are left, and keeps track of how many have finished.
+	 */
+	private static class Stage implements Runnable
+	{
+		private final List fTasks;
+		
+		// Monitor for all of the fields below
+		private final Object fLock = new Object();
+		
+		private int fNextTask = 0;
+		private int fNumFinished = 0;
+		private Throwable fFailure = null;
+		
+		/**
+		 * Constructs a new Stage of the given tasks.
+		 * 
+		 * @param tasks The List of Runnable tasks of the new Stage
+		 */
+		Stage(List tasks)
+		{
+			fTasks = tasks;
+		}
+		
+		/**
+		 * Runs tasks of this Stage until none are left.
+		 */
+		public void run()
+		{
+			Runnable task = nextTask();
+			
+			while (task != null)
+			{
+				Throwable failure = null;
+				
+				try
+				{
+					task.run();
+				}
+				catch (RuntimeException ex)
+				{
+					failure = ex;
+				}
+				catch (Error ex)
+				{
+					failure = ex;
+				}
+				
+				synchronized (fLock)
+				{
+					if (fFailure == null)
+					{
+						fFailure = failure;
+					}
+					
+					fNumFinished++;
+					
+					if (fNumFinished == fTasks.size())
+					{
+						fLock.notifyAll();
+					}
+				}
+				
+				task = nextTask();
+			}
+		}
+		
+		/**
+		 * Returns the next task of this Stage to run, or null if every task 
+		 * has been handed out.
+		 * 
+		 * @return The next task to run, or null if none are left
+		 */
+		private Runnable nextTask()
+		{
+			Runnable result = null;
+			
+			synchronized (fLock)
+			{
+				if (fNextTask < fTasks.size())
+				{
+					result = (Runnable) fTasks.get(fNextTask++);
+				}
+			}
+			
+			return (result);
+		}
+		
+		/**
+		 * Waits until every task of this Stage has finished.
+		 */
+		void awaitCompletion()
+		{
+			boolean interrupted = false;
+			
+			synchronized (fLock)
+			{
+				while (fNumFinished < fTasks.size())
+				{
+					try
+					{
+						fLock.wait();
+					}
+					catch (InterruptedException ex)
+					{
+						interrupted = true;
+					}
+				}
+			}
+			
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		/**
+		 * Rethrows the first RuntimeException or Error thrown by a task of 
+		 * this Stage, if any.
+		 */
+		void rethrowFailure()
+		{
+			Throwable failure = null;
+			
+			synchronized (fLock)
+			{
+				failure = fFailure;
+			}
+			
+			if (failure instanceof Error)
+			{
+				throw ((Error) failure);
+			}
+			else if (failure != null)
+			{
+				throw ((RuntimeException) failure);
+			}
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
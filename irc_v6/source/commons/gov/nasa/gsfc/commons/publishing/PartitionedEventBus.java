@@ -0,0 +1,700 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.publishing;
+
+import java.util.ArrayList;
+import java.util.EventObject;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.emory.mathcs.backport.java.util.concurrent.CopyOnWriteArrayList;
+import edu.emory.mathcs.backport.java.util.concurrent.CountDownLatch;
+
+import gov.nasa.gsfc.commons.publishing.selectors.AllEventSelector;
+import gov.nasa.gsfc.commons.publishing.selectors.EventSelector;
+
+/**
+ * Implements the Publish/Subscribe pattern for an <code>EventBus</code> of
+ * arbitrary event types, spreading the delivery of events over a number of
+ * lanes, each with its own publishing thread. Every selector that listeners
+ * are registered with is assigned to one lane, in turn, and its listeners
+ * only ever receive events on that lane's thread. A published event is
+ * added to every lane that has selectors, and each lane matches the event
+ * against its own selectors. The listeners of a selector therefore receive
+ * events in the order in which they were published, while the events for,
+ * say, different <code>AddressableEvent</code> destinations (as selected by
+ * a {@link gov.nasa.gsfc.commons.publishing.selectors.MessageEventDestinationSelector
+ * MessageEventDestinationSelector}) are routed concurrently.
+ * <p>
+ * Each lane holds its pending events in a ring buffer, so publishing does
+ * not allocate, and its thread takes the events out in batches. A publisher
+ * waits while a lane is full, except a lane thread (of any bus), for which
+ * the ring grows instead, since lanes publishing to each other could
+ * otherwise wait for each other forever.
+ * <p>
+ * As with {@link ThreadedEventBus}, listeners will not receive events that
+ * they are the source of, and listeners registered with more than one
+ * selector may receive an event more than once; such a listener may also
+ * receive events concurrently if its selectors are on different lanes. The
+ * number of lanes defaults to the number of available processors and can
+ * be set with the {@link #LANES_PROPERTY} system property.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class PartitionedEventBus implements EventBus
+{
+	private static final String CLASS_NAME = PartitionedEventBus.class.getName();
+	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+	
+	/**
+	 * The system property giving the number of lanes of a default bus.
+	 */
+	public static final String LANES_PROPERTY = CLASS_NAME + ".lanes";
+	
+	/**
+	 * The initial capacity of the ring buffer of each lane.
+	 */
+	public static final int DEFAULT_LANE_CAPACITY = 1024;
+	
+	/**
+	 * The largest number of events a lane takes out of its ring at once.
+	 */
+	private static final int BATCH_SIZE = 64;
+	
+	private static final EventSelector sDefaultSelector = 
+		AllEventSelector.getInstance();
+	
+	private Lane[] fLanes;
+	private int fNextLane = 0;
+	
+	// Selector to EventPublisherSupport
+	private Map fListenerMap = new HashMap();
+	
+	// Selector to Lane
+	private Map fLaneMap = new HashMap();
+
+	/**
+	 * Default constructor. The number of lanes is given by the 
+	 * {@link #LANES_PROPERTY} system property, if set, and is otherwise the 
+	 * number of available processors.
+	 */
+	public PartitionedEventBus()
+	{
+		this(Integer.getInteger(LANES_PROPERTY, 
+			Runtime.getRuntime().availableProcessors()).intValue());
+	}
+
+	/**
+	 * Constructs a bus with the given number of lanes.
+	 * 
+	 * @param numberOfLanes the number of lanes
+	 * @throws IllegalArgumentException if the number of lanes is less than 1
+	 */
+	public PartitionedEventBus(int numberOfLanes)
+	{
+		this(numberOfLanes, DEFAULT_LANE_CAPACITY);
+	}
+
+	/**
+	 * Constructs a bus with the given number of lanes, each with a ring 
+	 * buffer of the given capacity.
+	 * 
+	 * @param numberOfLanes the number of lanes
+	 * @param laneCapacity the number of events each lane can hold before 
+	 *        publishers have to wait
+	 * @throws IllegalArgumentException if either argument is less than 1
+	 */
+	public PartitionedEventBus(int numberOfLanes, int laneCapacity)
+	{
+		if (numberOfLanes < 1 || laneCapacity < 1)
+		{
+			String message = "Invalid number of lanes or lane capacity: " 
+				+ numberOfLanes + ", " + laneCapacity;
+			
+			throw new IllegalArgumentException(message);
+		}
+		
+		fLanes = new Lane[numberOfLanes];
+		
+		for (int i = 0; i < numberOfLanes; i++)
+		{
+			fLanes[i] = new Lane(laneCapacity, CLASS_NAME + " Lane " + i);
+		}
+	}
+
+	/**
+	 * Returns the number of lanes of this bus.
+	 * 
+	 * @return the number of lanes
+	 */
+	public int getNumberOfLanes()
+	{
+		return fLanes.length;
+	}
+
+	/**
+	 * Publishes the given event on the bus.
+	 * 
+	 * @param event the event to publish
+	 */
+	public void publish(EventObject event)
+	{
+		if (event != null)
+		{
+			if (sLogger.isLoggable(Level.FINE))
+			{
+				String message = "Publishing event: " + event;
+				
+				sLogger.logp(Level.FINE, CLASS_NAME, "publish", message);
+			}
+			
+			for (int i = 0; i < fLanes.length; i++)
+			{
+				if (fLanes[i].hasSubscriptions())
+				{
+					fLanes[i].add(event);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Publishes the given event on the bus and does not return until all
+	 * interested subscribers have received the event. This must not be 
+	 * called by a listener of this bus, since the lane of the listener 
+	 * would then wait for itself.
+	 * 
+	 * @param event the event to publish
+	 * @throws InterruptedException if another thread has interrupted the
+	 *             waiting thread
+	 */
+	public void publishAndWait(EventObject event) throws InterruptedException
+	{
+		if (event != null)
+		{
+			List lanes = new ArrayList(fLanes.length);
+			
+			for (int i = 0; i < fLanes.length; i++)
+			{
+				if (fLanes[i].hasSubscriptions())
+				{
+					lanes.add(fLanes[i]);
+				}
+			}
+			
+			WaitingEvent waitingEvent = 
+				new WaitingEvent(event, new CountDownLatch(lanes.size()));
+			
+			for (Iterator i = lanes.iterator(); i.hasNext();)
+			{
+				((Lane) i.next()).add(waitingEvent);
+			}
+			
+			waitingEvent.fLatch.await();
+		}
+	}
+
+	/**
+	 * Subscribes the given listener to all events that match the 
+	 * given selector published by this EventBus. If the selector is null 
+	 * the listener will be registered for all events.
+	 * 
+	 * @param selector the selector to use for this listener or null.
+	 * @param listener the listener to register.
+	 */
+	public synchronized void addBusEventListener(
+			EventSelector selector, BusEventListener listener)
+	{
+		if (listener != null)
+		{
+			if (selector == null)
+			{
+				selector = sDefaultSelector;
+			}
+			
+			EventPublisherSupport publisher = 
+				(EventPublisherSupport) fListenerMap.get(selector);
+			
+			if (publisher == null) 
+			{
+				publisher = new EventPublisherSupport();
+				fListenerMap.put(selector, publisher);
+				
+				Lane lane = fLanes[fNextLane];
+				fNextLane = (fNextLane + 1) % fLanes.length;
+				
+				fLaneMap.put(selector, lane);
+				lane.addSubscription(selector, publisher);
+			}
+			
+			publisher.addBusEventListener(listener);
+		}
+	}
+
+	/**
+	 * Subscribes the given listener to all events published by this
+	 * EventBus.
+	 * 
+	 * @param listener the listener to register.
+	 */
+	public synchronized void addBusEventListener(BusEventListener listener)
+	{
+		addBusEventListener(sDefaultSelector, listener);
+	}
+	
+	/**
+	 * Unsubscribes the given listener to all events that match the 
+	 * given selector published by this BusEventPublisher.
+	 * 
+	 * @param selector the selector to unsubscribe from.
+	 * @param listener the listener to unregister.
+	 */
+	public synchronized void removeBusEventListener(
+			EventSelector selector, BusEventListener listener)
+	{
+		EventPublisherSupport publisher = 
+			(EventPublisherSupport) fListenerMap.get(selector);
+		
+		if (publisher != null)
+		{
+			publisher.removeBusEventListener(listener);
+		}
+	}
+	
+	/**
+	 * Unsubscribes the given listener to all events published by this
+	 * BusEventPublisher.
+	 * 
+	 * @param listener the listener to unregister.
+	 */
+	public synchronized void removeBusEventListener(BusEventListener listener)
+	{
+		Iterator selectors = fListenerMap.keySet().iterator();
+		
+		while (selectors.hasNext())
+		{
+			Object selector = selectors.next();
+			EventPublisherSupport publisher = 
+				(EventPublisherSupport) fListenerMap.get(selector);
+
+			publisher.removeBusEventListener(listener);
+			
+			if (publisher.getSize() == 0)
+			{
+				// Since there is not any listeners for this selector,
+				// remove it from the map and from its lane.
+				selectors.remove();
+				
+				Lane lane = (Lane) fLaneMap.remove(selector);
+				lane.removeSubscription(selector);
+			}
+		}
+	}
+	
+	/**
+	 * Cause this BusEventListener to receive the given published event.
+	 * 
+	 * @param event A published EventObject
+	 */
+	public void receiveBusEvent(EventObject event)
+	{
+		if (sLogger.isLoggable(Level.FINE))
+		{
+			String message = "Received event: " + event;
+			
+			sLogger.logp(Level.FINE, CLASS_NAME, "receiveBusEvent", message);
+		}
+
+		publish(event);
+	}
+
+	/**
+	 * An event published with <code>publishAndWait</code>, together with
+	 * the latch counting down the lanes still to deliver it.
+	 */
+	private static class WaitingEvent
+	{
+		private EventObject fEvent;
+		private CountDownLatch fLatch;
+		
+		WaitingEvent(EventObject event, CountDownLatch latch)
+		{
+			fEvent = event;
+			fLatch = latch;
+		}
+	}
+
+	/**
+	 * A Lane holds the selectors assigned to it and a ring buffer of the 
+	 * events still to be delivered to them, and delivers the events on its
+	 * own thread in the order that they were added.
+	 */
+	private static class Lane implements Runnable
+	{
+		private Object[] fRing;
+		private int fHead = 0;
+		private int fCount = 0;
+		
+		// Alternating selectors and their EventPublisherSupports, replaced 
+		// as a whole whenever a selector is added or removed
+		private volatile Object[] fSubscriptions = new Object[0];
+		
+		private Thread fThread;
+		
+		/**
+		 * Constructs a Lane and starts its thread.
+		 * 
+		 * @param capacity the initial capacity of the ring buffer
+		 * @param name the name of the thread
+		 */
+		Lane(int capacity, String name)
+		{
+			int size = 1;
+			
+			while (size < capacity)
+			{
+				size <<= 1;
+			}
+			
+			fRing = new Object[size];
+			
+			fThread = new LaneThread(this, name);
+			fThread.start();
+		}
+		
+		/**
+		 * Returns true if any selectors are assigned to this Lane.
+		 * 
+		 * @return true if this Lane has selectors
+		 */
+		boolean hasSubscriptions()
+		{
+			return fSubscriptions.length > 0;
+		}
+		
+		/**
+		 * Assigns the given selector to this Lane.
+		 * 
+		 * @param selector the selector
+		 * @param publisher the listeners of the selector
+		 */
+		synchronized void addSubscription(
+				Object selector, EventPublisherSupport publisher)
+		{
+			Object[] subscriptions = new Object[fSubscriptions.length + 2];
+			
+			System.arraycopy(fSubscriptions, 0, subscriptions, 0, 
+				fSubscriptions.length);
+			subscriptions[fSubscriptions.length] = selector;
+			subscriptions[fSubscriptions.length + 1] = publisher;
+			
+			fSubscriptions = subscriptions;
+		}
+		
+		/**
+		 * Removes the given selector from this Lane.
+		 * 
+		 * @param selector the selector
+		 */
+		synchronized void removeSubscription(Object selector)
+		{
+			for (int i = 0; i < fSubscriptions.length; i += 2)
+			{
+				if (fSubscriptions[i] == selector)
+				{
+					Object[] subscriptions = 
+						new Object[fSubscriptions.length - 2];
+					
+					System.arraycopy(fSubscriptions, 0, subscriptions, 0, i);
+					System.arraycopy(fSubscriptions, i + 2, subscriptions, i, 
+						fSubscriptions.length - i - 2);
+					
+					fSubscriptions = subscriptions;
+					break;
+				}
+			}
+		}
+		
+		/**
+		 * Adds the given event, or WaitingEvent, to the end of the ring,
+		 * waiting while the ring is full unless called by a lane thread.
+		 * 
+		 * @param entry the entry to add
+		 */
+		synchronized void add(Object entry)
+		{
+			boolean interrupted = false;
+			
+			while (fCount == fRing.length)
+			{
+				if (interrupted || Thread.currentThread() instanceof LaneThread)
+				{
+					// A lane thread must never wait, as the lane it waits
+					// for may itself be waiting to add to a lane of this 
+					// thread (or waiting has been given up), so make room 
+					// instead
+					grow();
+				}
+				else
+				{
+					try
+					{
+						wait();
+					}
+					catch (InterruptedException e)
+					{
+						interrupted = true;
+					}
+				}
+			}
+			
+			fRing[(fHead + fCount) & (fRing.length - 1)] = entry;
+			fCount++;
+			
+			if (fCount == 1)
+			{
+				// The thread of this Lane may be waiting for an entry
+				notifyAll();
+			}
+			
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		/**
+		 * Doubles the capacity of the ring.
+		 */
+		private void grow()
+		{
+			Object[] ring = new Object[fRing.length * 2];
+			
+			for (int i = 0; i < fCount; i++)
+			{
+				ring[i] = fRing[(fHead + i) & (fRing.length - 1)];
+			}
+			
+			fRing = ring;
+			fHead = 0;
+		}
+		
+		/**
+		 * Moves up to the given array's length of entries from the start of
+		 * the ring to the given array, waiting until there is at least one.
+		 * 
+		 * @param batch the array to fill
+		 * @return the number of entries moved
+		 * @throws InterruptedException if the thread is interrupted while
+		 *             waiting
+		 */
+		private synchronized int take(Object[] batch) 
+			throws InterruptedException
+		{
+			while (fCount == 0)
+			{
+				wait();
+			}
+			
+			int mask = fRing.length - 1;
+			int result = Math.min(fCount, batch.length);
+			
+			for (int i = 0; i < result; i++)
+			{
+				int index = (fHead + i) & mask;
+				
+				batch[i] = fRing[index];
+				fRing[index] = null;
+			}
+			
+			if (fCount == fRing.length)
+			{
+				// Publishers may be waiting for room
+				notifyAll();
+			}
+			
+			fHead = (fHead + result) & mask;
+			fCount -= result;
+			
+			return result;
+		}
+		
+		/**
+		 * Loops indefinitely delivering batches of events. Events are 
+		 * delivered in the order that they were added.
+		 */
+		public void run()
+		{
+			Object[] batch = new Object[BATCH_SIZE];
+			
+			try
+			{
+				while (true)
+				{
+					int size = take(batch);
+					
+					for (int i = 0; i < size; i++)
+					{
+						deliver(batch[i]);
+						batch[i] = null;
+					}
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				sLogger.logp(Level.WARNING, CLASS_NAME, 
+						"run", "Run interrupted", e);
+			}
+		}
+		
+		/**
+		 * Delivers the given entry to the listeners of every selector of 
+		 * this Lane that matches it.
+		 * 
+		 * @param entry an event or WaitingEvent
+		 */
+		private void deliver(Object entry)
+		{
+			WaitingEvent waitingEvent = null;
+			EventObject event;
+			
+			if (entry instanceof WaitingEvent)
+			{
+				waitingEvent = (WaitingEvent) entry;
+				event = waitingEvent.fEvent;
+			}
+			else
+			{
+				event = (EventObject) entry;
+			}
+			
+			Object[] subscriptions = fSubscriptions;
+			
+			for (int i = 0; i < subscriptions.length; i += 2)
+			{
+				try
+				{
+					if (((EventSelector) subscriptions[i]).matches(event))
+					{
+						((EventPublisherSupport) subscriptions[i + 1])
+							.publish(event);
+					}
+				}
+				catch (RuntimeException e)
+				{
+					sLogger.logp(Level.WARNING, CLASS_NAME, "deliver", 
+						"Listener failed to receive event: " + event, e);
+				}
+			}
+			
+			if (waitingEvent != null)
+			{
+				waitingEvent.fLatch.countDown();
+			}
+		}
+	}
+
+	/**
+	 * The thread of a Lane, marking the threads that must never wait for 
+	 * room in a Lane.
+	 */
+	private static class LaneThread extends Thread
+	{
+		LaneThread(Runnable target, String name)
+		{
+			super(target, name);
+		}
+	}
+
+	/**
+	 * EventPublisherSupport holds the listeners registered with one selector
+	 * and publishes events to them.
+	 */
+	private static class EventPublisherSupport 
+	{
+		private List fListeners = new CopyOnWriteArrayList();
+
+		/**
+		 * Subscribes the given listener.
+		 * 
+		 * @param listener the listener to register.
+		 */
+		public void addBusEventListener(BusEventListener listener)
+		{
+			fListeners.add(listener);
+		}
+
+		/**
+		 * Unsubscribes the given listener.
+		 * 
+		 * @param listener the listener to unregister.
+		 */
+		public void removeBusEventListener(BusEventListener listener)
+		{
+			fListeners.remove(listener);
+		}
+
+		/**
+		 * Publishes the given event to the listeners.
+		 * 
+		 * @param event the event to publish
+		 */
+		public void publish(EventObject event)
+		{
+			for (Iterator iter = fListeners.iterator(); iter.hasNext();)
+			{
+				BusEventListener listener = (BusEventListener) iter.next();
+				
+				// Do not send the event to the event source
+				if (event.getSource() != listener)
+				{
+					listener.receiveBusEvent(event);
+				}
+			}
+		}
+
+		/**
+		 * Get the number of listeners.
+		 * 
+		 * @return the number of listeners
+		 */
+		public int getSize()
+		{
+			return fListeners.size();
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
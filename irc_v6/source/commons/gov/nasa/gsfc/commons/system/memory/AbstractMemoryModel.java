@@ -437,7 +437,7 @@ public abstract class AbstractMemoryModel implements MemoryModel
 	 * @throws InterruptedException if the call blocks but is interrupted before
 	 *             the allocation can be filled
 	 */
-	public synchronized final Allocation blockingAllocate(int amount)
+	public synchronized Allocation blockingAllocate(int amount)
 			throws InterruptedException
 	{
 		Allocation result = null;
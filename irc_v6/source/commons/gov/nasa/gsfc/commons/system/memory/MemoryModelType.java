@@ -0,0 +1,143 @@
+//=== File Prolog ============================================================
+//
+// This code was developed by NASA Goddard Space Flight Center,
+// Code 588 for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+// Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//
+// This software is property of the National Aeronautics and Space
+// Administration. Unauthorized use or duplication of this software is
+// strictly prohibited. Authorized users are subject to the following
+// restrictions:
+// *  Neither the author, their corporation, nor NASA is responsible for
+//	  any consequence of the use of this software.
+// *  The origin of this software must not be misrepresented either by
+//	  explicit claim or by omission.
+// *  Altered versions of this software must be plainly marked as such.
+// *  This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.system.memory;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import gov.nasa.gsfc.commons.types.namespaces.AbstractNamedObject;
+
+
+/**
+ * A MemoryModelType enumerates the available kinds of MemoryModel, and
+ * creates new MemoryModels of its kind.
+ * <p>
+ * This code was developed for NASA, Goddard Space Flight Center, Code 588
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$
+ * @author $Author$
+ */
+public abstract class MemoryModelType extends AbstractNamedObject
+	implements Serializable
+{
+	/**
+	 * All known MemoryModelTypes, keyed by name.
+	**/
+	// NB: For initialization sequence, this has to come before any
+	// MemoryModelType constants.
+	private static Map sTypes = new HashMap();
+
+	/**
+	 * A monitor-based {@link ContiguousMemoryModel}.
+	 */
+	public static final MemoryModelType CONTIGUOUS =
+		new MemoryModelType("contiguous")
+		{
+			public MemoryModel createMemoryModel(int size)
+			{
+				return (new ContiguousMemoryModel(size));
+			}
+		};
+
+	/**
+	 * A lock-free {@link RingMemoryModel}.
+	 */
+	public static final MemoryModelType RING =
+		new MemoryModelType("ring")
+		{
+			public MemoryModel createMemoryModel(int size)
+			{
+				return (new RingMemoryModel(size));
+			}
+		};
+
+	/**
+	 * Constructs a new MemoryModelType having the given name.
+	 *
+	 * @param name The name of the new MemoryModelType
+	**/
+	protected MemoryModelType(String name)
+	{
+		super(name);
+
+		sTypes.put(name, this);
+	}
+
+	/**
+	 * Creates a new MemoryModel of this type and of the given size.
+	 *
+	 * @param size The size of the new MemoryModel
+	 * @return A new MemoryModel of this type
+	 * @throws IllegalArgumentException if the given size is negative or zero
+	 */
+	public abstract MemoryModel createMemoryModel(int size);
+
+	/**
+	 *  Returns a String representation of this MemoryModelType.
+	 *
+	 *  @return A String representation of this MemoryModelType
+	**/
+	public String toString()
+	{
+		return (getName());
+	}
+
+	/**
+	 * Returns the MemoryModelType corresponding to the given MemoryModelType
+	 * name.
+	 *
+	 * @param The name of the desired MemoryModelType
+	 * @return The MemoryModelType that has the given name (if any)
+	**/
+	public static MemoryModelType forName(String name)
+	{
+		MemoryModelType result = (MemoryModelType) sTypes.get(name);
+
+		return (result);
+	}
+
+	/**
+	 * This method supports serialization.
+	 *
+	**/
+	public Object readResolve() throws ObjectStreamException
+	{
+		String name = getName();
+
+		if (! sTypes.containsKey(name))
+		{
+			sTypes.put(name, this);
+		}
+
+		return ((MemoryModelType) sTypes.get(name));
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+// $Log$
+//
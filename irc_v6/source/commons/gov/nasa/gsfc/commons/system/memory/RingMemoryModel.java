@@ -0,0 +1,409 @@
+//=== File Prolog ============================================================
+//
+// This code was developed by NASA Goddard Space Flight Center,
+// Code 588 for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+// Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//
+// This software is property of the National Aeronautics and Space
+// Administration. Unauthorized use or duplication of this software is
+// strictly prohibited. Authorized users are subject to the following
+// restrictions:
+// *  Neither the author, their corporation, nor NASA is responsible for
+//	  any consequence of the use of this software.
+// *  The origin of this software must not be misrepresented either by
+//	  explicit claim or by omission.
+// *  Altered versions of this software must be plainly marked as such.
+// *  This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.system.memory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import gov.nasa.gsfc.commons.types.synchronization.PaddedSequence;
+
+
+/**
+ * A RingMemoryModel is a one-dimensional, circular MemoryModel with the same
+ * contiguous allocation semantics as the
+ * {@link gov.nasa.gsfc.commons.system.memory.ContiguousMemoryModel ContiguousMemoryModel},
+ * but which never takes a lock to allocate or release.
+ * <p>
+ * The state of the model is kept in two padded sequence counters that only
+ * ever increase: the head, which is the sequence of the next position to be
+ * allocated, and the tail, which is the sequence of the oldest position that
+ * is still held. A producer claims an Allocation by advancing the head, and an
+ * Allocation whose reference count drops to zero publishes its end sequence in
+ * a release table indexed by its start. Whichever thread finds the Allocation
+ * at the tail released advances the tail over it, and over any Allocations
+ * after it that were released out of order. As with the
+ * ContiguousMemoryModel, releasing the most recent Allocation gives its space
+ * straight back to the producer.
+ * <p>
+ * This model is intended for a single producer, which is how a BasisBundle is
+ * used by its BasisBundleSource; allocation is nevertheless safe from more
+ * than one thread. A producer that blocks waiting for space parks instead of
+ * waiting on the model's monitor, so releasing threads never contend with it.
+ * <p>
+ * This code was developed for NASA, Goddard Space Flight Center, Code 588 for
+ * the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$
+ * @author $Author$
+ */
+public class RingMemoryModel extends AbstractMemoryModel
+	implements MemoryModel
+{
+	private static final String CLASS_NAME = RingMemoryModel.class.getName();
+	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+
+	/**
+	 * Upper bound on a single park of a blocked producer. A release always
+	 * unparks the producer, so this only bounds the cost of a missed signal.
+	 */
+	private static final long MAX_PARK_NANOS = 1000000L;
+
+	private final PaddedSequence fHead = new PaddedSequence(0L);
+	private final PaddedSequence fTail = new PaddedSequence(0L);
+	private final AtomicLongArray fReleasedEnds;
+	private volatile Thread fWaitingProducer = null;
+
+	/**
+	 * Contructs a new RingMemoryModel of the given size. The indices of
+	 * the positions in the new MemoryModel will begin at 0.
+	 *
+	 * @param size The size of the new MemoryModel
+	 * @throws IllegalArgumentException if the given size is negative or zero
+	 */
+	public RingMemoryModel(int size)
+	{
+		super(size);
+
+		fReleasedEnds = new AtomicLongArray(size);
+	}
+
+	/**
+	 * Attempts to allocate the given amount of memory from within this
+	 * MemoryModel. The Allocation will be returned if there is enough free
+	 * space in the MemoryModel, null otherwise.
+	 *
+	 * @param amount The desired amount to allocate
+	 * @return The allocation or null if unsuccessful
+	 */
+	public Allocation allocate(int amount)
+	{
+		Allocation result = null;
+
+		if (amount > 0 && amount <= fSize)
+		{
+			boolean claimed = false;
+
+			while (!claimed)
+			{
+				long head = fHead.get();
+
+				if (head + amount - fTail.get() > fSize)
+				{
+					break;
+				}
+
+				claimed = fHead.compareAndSet(head, head + amount);
+
+				if (claimed)
+				{
+					result = new RingAllocation(this, head, amount);
+				}
+			}
+		}
+
+		return (result);
+	}
+
+	/**
+	 * Attempts to allocate the given amount from within this MemoryModel,
+	 * blocking until the request can be filled.
+	 * <p>
+	 * Here, the calling thread parks until a release makes enough space
+	 * available, rather than waiting on the monitor of this MemoryModel.
+	 * </p>
+	 *
+	 * @param amount The desired amount to allocate
+	 * @return An Allocation representing the allocated amount
+	 * @throws InterruptedException if the call blocks but is interrupted before
+	 *             the allocation can be filled
+	 */
+	public Allocation blockingAllocate(int amount) throws InterruptedException
+	{
+		Allocation result = allocate(amount);
+
+		if (result == null)
+		{
+			// If our first allocation request fails, then we ask our listeners
+			// to release any Allocations they hold and try again.
+
+			reportReleaseRequest();
+
+			result = allocate(amount);
+
+			if (result == null)
+			{
+				if (sLogger.isLoggable(Level.FINE))
+				{
+					String message = "Attempted allocation of size " + amount
+							+ " is blocking...\n" + this;
+
+					sLogger.logp(Level.FINE, CLASS_NAME, "blockingAllocate",
+						message);
+				}
+
+				try
+				{
+					while (result == null)
+					{
+						// Advertise ourselves before the last check so that a
+						// release after the check is guaranteed to unpark us.
+						fWaitingProducer = Thread.currentThread();
+
+						result = allocate(amount);
+
+						if (result == null)
+						{
+							LockSupport.parkNanos(this, MAX_PARK_NANOS);
+
+							if (Thread.interrupted())
+							{
+								throw (new InterruptedException());
+							}
+						}
+					}
+				}
+				finally
+				{
+					fWaitingProducer = null;
+				}
+
+				if (sLogger.isLoggable(Level.FINE))
+				{
+					String message = "Allocation of size " + amount
+							+ " proceeding...";
+
+					sLogger.logp(Level.FINE, CLASS_NAME, "blockingAllocate",
+						message);
+				}
+			}
+		}
+
+		return (result);
+	}
+
+	/**
+	 * Returns the current amount of available memory in this MemoryModel.
+	 *
+	 * @return The current amount of available memory in this MemoryModel
+	 */
+	public int getAmountAvailable()
+	{
+		// Read the tail first so that a concurrent allocation can only make
+		// the result too small, never larger than the size.
+		long tail = fTail.get();
+		long head = fHead.get();
+
+		return ((int) (fSize - (head - tail)));
+	}
+
+	/**
+	 *  Returns true if this MemoryModel is currently able to allocate the given
+	 *  amount, false otherwise.
+	 *
+	 *  @param amount The allocation amount requested
+	 *  @return True if this MemoryModel is currently able to allocate the given
+	 *  		amount, false otherwise
+	 */
+	public final boolean isAvailable(int amount)
+	{
+		boolean result = false;
+
+		if (isRationalAllocationAmount(amount))
+		{
+			if (amount <= getAmountAvailable())
+			{
+				result = true;
+			}
+		}
+
+		return (result);
+	}
+
+	/**
+	 * Immediately releases the given Allocation from this MemoryModel
+	 * (regardless of the value of its reference count). Releasing an
+	 * Allocation more than once has no further effect.
+	 *
+	 * @param allocation An Allocation from this MemoryModel
+	 * @throws IllegalArgumentException if the given Allocation was not made on
+	 *             this MemoryModel
+	 */
+	public void release(Allocation allocation)
+	{
+		if ((allocation instanceof RingAllocation)
+				&& (allocation.getMemoryModel() == this))
+		{
+			RingAllocation ringAllocation = (RingAllocation) allocation;
+
+			if (ringAllocation.markReclaimed())
+			{
+				long start = ringAllocation.fSequence;
+				long end = start + ringAllocation.getSize();
+
+				// If this allocation is still the most recent one, give its
+				// space straight back to the producer. Otherwise publish its
+				// release and reclaim whatever is now contiguous with the tail.
+
+				if (!fHead.compareAndSet(end, start))
+				{
+					fReleasedEnds.set(indexOf(start), end);
+
+					advanceTail();
+				}
+
+				Thread producer = fWaitingProducer;
+
+				if (producer != null)
+				{
+					LockSupport.unpark(producer);
+				}
+			}
+		}
+		else
+		{
+			String message =
+				"The given allocation is not from this MemoryModel:\n"
+				+ allocation;
+
+			throw (new IllegalArgumentException(message));
+		}
+	}
+
+	/**
+	 * Advances the tail of this MemoryModel over every released Allocation
+	 * that is contiguous with it. Any number of threads can do this
+	 * concurrently; each advance is a single compare-and-set.
+	 */
+	private void advanceTail()
+	{
+		long tail = fTail.get();
+
+		// An entry left over from an earlier pass around the ring always has
+		// an end at or before the current tail, so only the release of the
+		// allocation actually starting at the tail can move it.
+		long end = fReleasedEnds.get(indexOf(tail));
+
+		while (end > tail)
+		{
+			fTail.compareAndSet(tail, end);
+
+			tail = fTail.get();
+			end = fReleasedEnds.get(indexOf(tail));
+		}
+	}
+
+	/**
+	 * Returns the position in this MemoryModel of the given sequence.
+	 *
+	 * @param sequence A sequence
+	 * @return The position of the sequence
+	 */
+	private int indexOf(long sequence)
+	{
+		return ((int) (sequence % fSize));
+	}
+
+	/**
+	 *  Returns a String representation of this MemoryModel.
+	 *
+	 *  @return A String representation of this MemoryModel
+	 */
+	public final String toString()
+	{
+		StringBuffer stringRep = new StringBuffer(super.toString());
+
+		stringRep.append("\nNext allocation position: " + indexOf(fHead.get()));
+		stringRep.append("\nSpace available: " + getAmountAvailable());
+
+		return (stringRep.toString());
+	}
+
+    /**
+	 * Checks and resolves the given index relative to this memory model.
+	 *
+	 * @returns an absolute index into the memory model.
+	 */
+	public final int resolveIndex(int index)
+	{
+		int result = index;
+		int size = fSize;
+
+		if (result >= size)
+		{
+			result -= size;
+		}
+
+		return (result);
+	}
+
+	// --- Utility classes ---------------------------------------------------
+
+	/**
+	 * A root Allocation from a RingMemoryModel that remembers the sequence it
+	 * was allocated at.
+	 */
+	private static class RingAllocation extends DefaultLinkedAllocation
+	{
+		private final long fSequence;
+		private boolean fReclaimed = false;
+
+		/**
+		 * Constructs a new RingAllocation of the given size starting at the
+		 * given sequence of the given RingMemoryModel.
+		 *
+		 * @param model The RingMemoryModel of the new Allocation
+		 * @param sequence The sequence of the start of the new Allocation
+		 * @param size The size of the new Allocation
+		 */
+		RingAllocation(RingMemoryModel model, long sequence, int size)
+		{
+			super(model, model.indexOf(sequence), size);
+
+			fSequence = sequence;
+		}
+
+		/**
+		 * Marks this Allocation as reclaimed by its MemoryModel.
+		 *
+		 * @return True if this call marked the Allocation, false if it had
+		 * 		already been reclaimed
+		 */
+		synchronized boolean markReclaimed()
+		{
+			boolean result = !fReclaimed;
+
+			fReclaimed = true;
+			setReferenceCount(0);
+
+			return (result);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+// $Log$
+//
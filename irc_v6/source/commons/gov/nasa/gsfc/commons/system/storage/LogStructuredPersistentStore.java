@@ -0,0 +1,1781 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.system.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+
+/**
+ * This class provides a log-structured persistent store for Serializable 
+ * Objects. Instead of rewriting one serialized Map, every store or delete 
+ * appends a single CRC-checked record for its key to the active segment 
+ * file, so its cost depends only on the size of that record. Only an index 
+ * of the keys and the locations of their latest records is kept in memory: 
+ * reading the store from disk replays the records to rebuild the index, and 
+ * an Object is not deserialized until it is first retrieved.
+ * <p>
+ * The segments of a store named <code>name</code> are the files 
+ * <code>name.1.log</code>, <code>name.2.log</code>, and so on. A new segment
+ * is started when the active one grows past the segment size. When at least
+ * a segment's worth of bytes, and more than half of all bytes, belong to 
+ * superseded or deleted records, a background thread copies the live records 
+ * of all sealed segments into a single compacted segment and deletes the 
+ * others. If no segments exist but a file written by 
+ * {@link DefaultPersistentStore} has the name of the store, its contents are
+ * imported.
+ * <p>
+ * The following system properties configure new stores:
+ * <ul>
+ * <li>gov.nasa.gsfc.commons.system.storage.LogStructuredPersistentStore.segmentSize
+ * 		- the size in bytes at which the active segment is sealed (default 
+ * 		4 MB)</li>
+ * <li>gov.nasa.gsfc.commons.system.storage.LogStructuredPersistentStore.syncInterval
+ * 		- how records are forced to disk. A negative value (the default) 
+ * 		leaves it to the operating system and <code>saveToDisk</code>, 0 
+ * 		forces each record before <code>store</code> or <code>delete</code>
+ * 		returns, and a positive value is a group commit window in 
+ * 		milliseconds: <code>store</code> and <code>delete</code> wait until a
+ * 		background thread has forced all of the records written during the 
+ * 		window with one call.</li>
+ * </ul>
+ * <p>
+ * Stored and retrieved Objects may be changed in place, at any time, so 
+ * <code>saveToDisk</code> re-serializes every Object that has been stored 
+ * or retrieved since the store was read, appends a record for each one that
+ * no longer matches its latest record, and forces the active segment to 
+ * disk. Objects that have only been read from disk are not re-serialized.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$
+ * @author $Author$
+**/
+public class LogStructuredPersistentStore implements PersistentObjectStore
+{
+	private static final String CLASS_NAME = 
+		LogStructuredPersistentStore.class.getName();
+	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+	
+	public static final String SEGMENT_SIZE_PROPERTY = 
+		CLASS_NAME + ".segmentSize";
+	public static final String SYNC_INTERVAL_PROPERTY = 
+		CLASS_NAME + ".syncInterval";
+	
+	public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+	public static final int DEFAULT_SYNC_INTERVAL = -1;
+	
+	private static final String DEFAULT_STORE_NAME = "PersistentObjectStore";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final String COMPACT_SUFFIX = ".compact";
+	
+	private static final int SEGMENT_MAGIC = 0x49524353;
+	private static final int SEGMENT_VERSION = 1;
+	private static final int SEGMENT_HEADER_SIZE = 12;
+	private static final int COMPACTED_FLAG = 1;
+	
+	private static final int RECORD_HEADER_SIZE = 8;
+	private static final byte PUT_RECORD = 1;
+	private static final byte DELETE_RECORD = 2;
+	
+	private String fStoreName = DEFAULT_STORE_NAME;
+	private int fSegmentSize;
+	private int fSyncInterval;
+	
+	//  Key -> Entry of the latest record of the key
+	private Map fIndex = new TreeMap();
+	
+	//  Keys whose Objects have been handed out, and so may be changed in 
+	//  place, or could not be written, since the store was read
+	private HashSet fHandedOutKeys = new HashSet();
+	
+	//  Segment number -> Segment
+	private TreeMap fSegments = new TreeMap();
+	private Segment fActiveSegment = null;
+	private boolean fOpen = false;
+	private int fGeneration = 0;
+	
+	private long fLiveBytes = 0;
+	private long fDeadBytes = 0;
+	
+	private final RecordOutputStream fRecordBytes = new RecordOutputStream();
+	private final CRC32 fChecksum = new CRC32();
+	
+	private boolean fCompactionScheduled = false;
+	private final Object fCompactionLock = new Object();
+	
+	//  Group commit
+	private long fWriteSequence = 0;
+	private final Object fSyncLock = new Object();
+	private long fRequestedSequence = 0;
+	private long fSyncedSequence = 0;
+	private long fFailedSequence = 0;
+	private Thread fSyncThread = null;
+
+	//  Listeners for Object store changes
+	private HashSet fListeners = new HashSet();
+	
+
+	/**
+	 * Constructs a new LogStructuredPersistentStore configured by the system
+	 * properties described above. The store is opened by 
+	 * <code>readFromDisk</code>, or by the first change made to it.
+	 */
+	public LogStructuredPersistentStore()
+	{
+		this(Integer.getInteger(SEGMENT_SIZE_PROPERTY, 
+				DEFAULT_SEGMENT_SIZE).intValue(), 
+			Integer.getInteger(SYNC_INTERVAL_PROPERTY, 
+				DEFAULT_SYNC_INTERVAL).intValue());
+	}
+
+	/**
+	 * Constructs a new LogStructuredPersistentStore with the given segment 
+	 * size and sync interval.
+	 *
+	 * @param segmentSize the size in bytes at which the active segment is 
+	 * 		sealed
+	 * @param syncInterval the group commit window in milliseconds, 0 to force
+	 * 		every record, or a negative value to only force records when the 
+	 * 		store is saved
+	 */
+	public LogStructuredPersistentStore(int segmentSize, int syncInterval)
+	{
+		if (segmentSize <= SEGMENT_HEADER_SIZE)
+		{
+			String message = "Segment size must be greater than " 
+				+ SEGMENT_HEADER_SIZE + ": " + segmentSize;
+			
+			throw new IllegalArgumentException(message);
+		}
+		
+		fSegmentSize = segmentSize;
+		fSyncInterval = syncInterval;
+	}
+
+	/**
+	 * Constructs a new LogStructuredPersistentStore with the specified name 
+	 * and reads it from disk if it exists.
+	 *
+	 * @param storeName the name of the store
+	 */
+	public LogStructuredPersistentStore(String storeName)
+	{
+		this();
+		
+		fStoreName = storeName;
+		
+		if (!readFromDisk())
+		{
+			if (sLogger.isLoggable(Level.FINE))
+			{
+				String message = "Creating a new persistent store " + storeName;
+					
+				sLogger.logp(Level.FINE, CLASS_NAME, 
+					"LogStructuredPersistentStore", message);
+			}
+		}
+	}
+	
+	/**
+	 * Store a Serializable in the store with the specified key.
+	 *
+	 * @param key		The key under which to store the Serializable
+	 * @param object	The Serializable to store
+	 */
+	public void store(String key, Serializable object)
+	{
+		if (object != null)
+		{
+			long sequence = 0;
+			
+			synchronized (this)
+			{
+				ensureOpen();
+				
+				Entry entry = new Entry(object);
+				sequence = writeEntry(key, entry);
+				
+				//  Add it to the store and fire the proper event depending 
+				//  on if the object is new or not.
+				Entry previous = (Entry) fIndex.put(key, entry);
+				fHandedOutKeys.add(key);
+				
+				if (previous == null)
+				{
+					fireEntryAdded(object);
+				}
+				else
+				{
+					discard(previous);
+					fireEntryChanged(object);
+				}
+				
+				scheduleCompactionIfNeeded();
+			}
+			
+			awaitDurable(sequence);
+		}
+	}
+
+	/**
+	 * Retrieve a Serializable from the store.
+	 *
+	 * @param key	The key of the Serializable to be retrieved
+	 * @return The Serializable stored under the specified key, or null
+	 */
+	public synchronized Serializable retrieve(String key)
+	{
+		Serializable result = null;
+		
+		Entry entry = (Entry) fIndex.get(key);
+		
+		if (entry != null)
+		{
+			result = load(key, entry);
+			
+			if (result != null)
+			{
+				fHandedOutKeys.add(key);
+			}
+		}
+
+		return (result);
+	}
+
+	/**
+	 * Remove a Serializable from the store.
+	 *
+	 * @param key	The key to be removed
+	 */
+	public void delete(String key)
+	{
+		long sequence = 0;
+		
+		synchronized (this)
+		{
+			Entry removedEntry = (Entry) fIndex.get(key);
+			
+			if (removedEntry != null)
+			{
+				Serializable removedObject = load(key, removedEntry);
+				
+				fIndex.remove(key);
+				fHandedOutKeys.remove(key);
+				discard(removedEntry);
+				
+				try
+				{
+					int length = encodeRecord(DELETE_RECORD, key, null);
+					
+					appendRecord(length);
+					fDeadBytes += length;
+					sequence = fWriteSequence;
+				}
+				catch (IOException ex)
+				{
+					String message = "Exception deleting " + key 
+						+ " from persistent store " + fStoreName;
+					
+					sLogger.logp(Level.WARNING, CLASS_NAME, "delete", 
+						message, ex);
+				}
+				
+				scheduleCompactionIfNeeded();
+				
+				if (removedObject != null)
+				{
+					fireEntryRemoved(removedObject);
+				}
+			}
+		}
+		
+		awaitDurable(sequence);
+	}
+
+	/**
+	 * Retrieve all of the keys currently in the store.
+	 *
+	 * @return Iterator	over all keys
+	 */
+	public synchronized Iterator getAllKeys()
+	{
+		return fIndex.keySet().iterator();
+	}
+
+	/**
+	 * Appends a record for each Serializable stored or retrieved since the 
+	 * store was read that has changed since its latest record was written, 
+	 * and for each Serializable that could not be written when it was 
+	 * stored, and then forces the store to disk.
+	 *
+	 * @return True if the store was successfully written; false otherwise.
+	 */
+	public synchronized boolean saveToDisk()
+	{
+		boolean result = true;
+		
+		try
+		{
+			ensureOpen();
+			
+			if (fActiveSegment == null)
+			{
+				throw new IOException("Persistent store is not open");
+			}
+			
+			for (Iterator iter = fHandedOutKeys.iterator(); iter.hasNext();)
+			{
+				String key = (String) iter.next();
+				Entry entry = (Entry) fIndex.get(key);
+				
+				if (entry != null && entry.fValue != null)
+				{
+					int length = encodeRecord(PUT_RECORD, key, entry.fValue);
+					
+					if (entry.fSegment < 0 
+						|| getChecksum() != entry.fChecksum)
+					{
+						Entry changedEntry = new Entry(entry.fValue);
+						
+						placeEntry(changedEntry, length);
+						fIndex.put(key, changedEntry);
+						discard(entry);
+					}
+				}
+			}
+			
+			fActiveSegment.fChannel.force(false);
+			
+			scheduleCompactionIfNeeded();
+		}
+		catch (IOException ex)
+		{
+			String message = "Exception saving persistent store " 
+				+ fStoreName + " to disk";
+			
+			sLogger.logp(Level.WARNING, CLASS_NAME, "saveToDisk", message, ex);
+	
+			result = false;
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Replaces the contents of the store with those on disk by replaying the
+	 * records of its segments.
+	 *
+	 * @return True if the store was successfully read; false otherwise.
+	 */
+	public synchronized boolean readFromDisk()
+	{
+		boolean result = false;
+
+		closeSegments();
+		
+		try
+		{
+			result = open();
+		}
+		catch (IOException ex)
+		{
+			String message = "Exception reading persistent store from disk - " 
+				+ ex.getLocalizedMessage();
+			
+			sLogger.logp(Level.WARNING, CLASS_NAME, "readFromDisk", message);
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Copies the live records of all sealed segments into a single compacted
+	 * segment and deletes the other sealed segments. This is normally done 
+	 * in the background when enough of the store is superseded records, but
+	 * may also be called directly. Changes made while the records are copied
+	 * are kept.
+	 */
+	public void compact()
+	{
+		synchronized (fCompactionLock)
+		{
+			List keys = new ArrayList();
+			List entries = new ArrayList();
+			Map segments = null;
+			int base = 0;
+			int generation = 0;
+			
+			synchronized (this)
+			{
+				if (fActiveSegment == null)
+				{
+					return;
+				}
+				
+				try
+				{
+					if (fActiveSegment.fSize > SEGMENT_HEADER_SIZE)
+					{
+						rotate();
+					}
+				}
+				catch (IOException ex)
+				{
+					String message = "Exception sealing segment of " 
+						+ fStoreName;
+					
+					sLogger.logp(Level.WARNING, CLASS_NAME, "compact", 
+						message, ex);
+					
+					return;
+				}
+				
+				segments = fSegments.headMap(new Integer(fActiveSegment.fNumber));
+				
+				if (segments.isEmpty())
+				{
+					return;
+				}
+				
+				segments = new TreeMap(segments);
+				base = ((Integer) ((TreeMap) segments).lastKey()).intValue();
+				generation = fGeneration;
+				
+				for (Iterator iter = fIndex.entrySet().iterator(); iter.hasNext();)
+				{
+					Map.Entry mapEntry = (Map.Entry) iter.next();
+					Entry entry = (Entry) mapEntry.getValue();
+					
+					if (entry.fSegment >= 0 && entry.fSegment <= base)
+					{
+						keys.add(mapEntry.getKey());
+						entries.add(entry);
+					}
+				}
+			}
+			
+			File compactFile = new File(getSegmentFile(base).getPath() 
+				+ COMPACT_SUFFIX);
+			long[] offsets = new long[entries.size()];
+			
+			try
+			{
+				copyRecords(entries, segments, compactFile, offsets);
+			}
+			catch (IOException ex)
+			{
+				compactFile.delete();
+				
+				if (sLogger.isLoggable(Level.FINE))
+				{
+					String message = "Compaction of " + fStoreName 
+						+ " abandoned - " + ex.getLocalizedMessage();
+					
+					sLogger.logp(Level.FINE, CLASS_NAME, "compact", message);
+				}
+				
+				return;
+			}
+			
+			synchronized (this)
+			{
+				if (generation != fGeneration)
+				{
+					compactFile.delete();
+					
+					return;
+				}
+				
+				try
+				{
+					replaceSegment(base, compactFile);
+					
+					for (int i = 0; i < offsets.length; i++)
+					{
+						Entry entry = (Entry) entries.get(i);
+						
+						//  Skip keys changed or deleted during the copy
+						if (fIndex.get(keys.get(i)) == entry)
+						{
+							entry.fSegment = base;
+							entry.fOffset = offsets[i];
+						}
+					}
+					
+					Iterator iter = fSegments.headMap(new Integer(base))
+						.values().iterator();
+					
+					while (iter.hasNext())
+					{
+						Segment segment = (Segment) iter.next();
+						
+						segment.close();
+						segment.fFile.delete();
+						iter.remove();
+					}
+					
+					countBytes();
+				}
+				catch (IOException ex)
+				{
+					String message = "Exception compacting persistent store " 
+						+ fStoreName;
+					
+					sLogger.logp(Level.WARNING, CLASS_NAME, "compact", 
+						message, ex);
+					
+					//  Reopen, which completes or discards the compaction
+					readFromDisk();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of segment files of the store.
+	 * 
+	 * @return the number of segment files
+	 */
+	public synchronized int getNumberOfSegments()
+	{
+		return (fSegments.size());
+	}
+
+	/**
+	 * Returns the number of bytes of the segments taken up by records that
+	 * have been superseded or deleted.
+	 * 
+	 * @return the number of bytes of superseded records
+	 */
+	public synchronized long getNumberOfDeadBytes()
+	{
+		return (fDeadBytes);
+	}
+
+	/**
+	 * Closes the segment files of the store. The store is reopened by 
+	 * <code>readFromDisk</code> or by the next change made to it.
+	 */
+	public synchronized void close()
+	{
+		closeSegments();
+	}
+
+	/**
+	 * Test dump for debugging purposes.
+	 */
+	public synchronized void dumpValues()
+	{
+		Iterator iter = fIndex.entrySet().iterator();
+		while (iter.hasNext())
+		{
+			Map.Entry mapEntry = (Map.Entry) iter.next();
+			Serializable obj = 
+				load((String) mapEntry.getKey(), (Entry) mapEntry.getValue());
+			System.out.println("=====================");
+			System.out.println(obj);
+		}
+	}
+
+	/**
+	 * Opens the store if it has not been opened yet.
+	 */
+	private void ensureOpen()
+	{
+		if (!fOpen)
+		{
+			readFromDisk();
+		}
+	}
+	
+	/**
+	 * Opens the segments of the store, replays their records into the index, 
+	 * and makes the last one the active segment. If there are no segments,
+	 * imports a store written by DefaultPersistentStore, if any.
+	 * 
+	 * @return True if an existing store was read; false otherwise.
+	 * @throws IOException if the segments cannot be opened
+	 */
+	private boolean open() throws IOException
+	{
+		boolean result = false;
+		
+		fOpen = true;
+		fGeneration++;
+		
+		File storeFile = new File(fStoreName).getAbsoluteFile();
+		File directory = storeFile.getParentFile();
+		String prefix = storeFile.getName() + ".";
+		String[] names = directory.list();
+		
+		for (int i = 0; names != null && i < names.length; i++)
+		{
+			int number = getSegmentNumber(names[i], prefix, 
+				SEGMENT_SUFFIX + COMPACT_SUFFIX);
+			
+			if (number > 0)
+			{
+				recoverCompactedSegment(number);
+			}
+		}
+		
+		names = directory.list();
+		int base = 0;
+		
+		for (int i = 0; names != null && i < names.length; i++)
+		{
+			int number = getSegmentNumber(names[i], prefix, SEGMENT_SUFFIX);
+			
+			if (number > 0)
+			{
+				Segment segment = openSegment(number);
+				
+				if (segment != null)
+				{
+					fSegments.put(new Integer(number), segment);
+					
+					if ((segment.fFlags & COMPACTED_FLAG) != 0)
+					{
+						base = Math.max(base, number);
+					}
+				}
+			}
+		}
+		
+		//  Finish the cleanup of an interrupted compaction
+		Iterator iter = fSegments.headMap(new Integer(base)).values().iterator();
+		
+		while (iter.hasNext())
+		{
+			Segment segment = (Segment) iter.next();
+			
+			segment.close();
+			segment.fFile.delete();
+			iter.remove();
+		}
+		
+		if (!fSegments.isEmpty())
+		{
+			for (iter = fSegments.values().iterator(); iter.hasNext();)
+			{
+				Segment segment = (Segment) iter.next();
+				
+				replay(segment, !iter.hasNext());
+			}
+			
+			fActiveSegment = (Segment) fSegments.get(fSegments.lastKey());
+			
+			if (fActiveSegment.fSize >= fSegmentSize)
+			{
+				rotate();
+			}
+			
+			result = true;
+		}
+		else
+		{
+			fActiveSegment = createSegment(1, 0);
+			
+			result = importStore(storeFile);
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Closes all segments and clears the index.
+	 */
+	private void closeSegments()
+	{
+		for (Iterator iter = fSegments.values().iterator(); iter.hasNext();)
+		{
+			((Segment) iter.next()).close();
+		}
+		
+		fSegments.clear();
+		fIndex.clear();
+		fHandedOutKeys.clear();
+		fActiveSegment = null;
+		fLiveBytes = 0;
+		fDeadBytes = 0;
+		fOpen = false;
+		fGeneration++;
+	}
+
+	/**
+	 * Replays the records of the given segment into the index. Damaged 
+	 * records at the end of the last segment, left by an interrupted write, 
+	 * are truncated.
+	 * 
+	 * @param segment the segment to replay
+	 * @param last true if this is the last segment of the store
+	 * @throws IOException if the segment cannot be read
+	 */
+	private void replay(Segment segment, boolean last) throws IOException
+	{
+		long fileSize = segment.fChannel.size();
+		long position = SEGMENT_HEADER_SIZE;
+		
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+			new FileInputStream(segment.fFile)));
+		
+		try
+		{
+			in.skipBytes(SEGMENT_HEADER_SIZE);
+			
+			while (fileSize - position >= RECORD_HEADER_SIZE)
+			{
+				int length = in.readInt();
+				int checksum = in.readInt();
+				
+				if (length < 3 || length > fileSize - position 
+					- RECORD_HEADER_SIZE)
+				{
+					break;
+				}
+				
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+				
+				fChecksum.reset();
+				fChecksum.update(payload, 0, length);
+				
+				if ((int) fChecksum.getValue() != checksum)
+				{
+					break;
+				}
+				
+				String key = new DataInputStream(new ByteArrayInputStream
+					(payload, 1, length - 1)).readUTF();
+				int recordLength = RECORD_HEADER_SIZE + length;
+				Entry previous = null;
+				
+				if (payload[0] == PUT_RECORD)
+				{
+					Entry entry = new Entry(null);
+					entry.fLoaded = false;
+					entry.fSegment = segment.fNumber;
+					entry.fOffset = position;
+					entry.fLength = recordLength;
+					entry.fChecksum = checksum;
+					
+					previous = (Entry) fIndex.put(key, entry);
+					fLiveBytes += recordLength;
+				}
+				else
+				{
+					previous = (Entry) fIndex.remove(key);
+					fDeadBytes += recordLength;
+				}
+				
+				if (previous != null)
+				{
+					discard(previous);
+				}
+				
+				position += recordLength;
+			}
+		}
+		catch (EOFException ex)
+		{
+			//  Damaged record, handled below
+		}
+		finally
+		{
+			in.close();
+		}
+		
+		if (position < fileSize)
+		{
+			if (sLogger.isLoggable(Level.WARNING))
+			{
+				String message = "Discarding " + (fileSize - position) 
+					+ " bytes of damaged records at the end of " 
+					+ segment.fFile;
+				
+				sLogger.logp(Level.WARNING, CLASS_NAME, "replay", message);
+			}
+			
+			if (last)
+			{
+				segment.fChannel.truncate(position);
+			}
+			else
+			{
+				fDeadBytes += fileSize - position;
+				position = fileSize;
+			}
+		}
+		
+		segment.fSize = position;
+	}
+
+	/**
+	 * Imports the contents of a store written by DefaultPersistentStore.
+	 * 
+	 * @param storeFile the file written by DefaultPersistentStore
+	 * @return True if a store was imported; false otherwise.
+	 */
+	private boolean importStore(File storeFile)
+	{
+		boolean result = false;
+		
+		if (storeFile.isFile())
+		{
+			try
+			{
+				ObjectInputStream inStream = 
+					new ObjectInputStream(new FileInputStream(storeFile));
+				Map objects = (Map) inStream.readObject();
+				inStream.close();
+				
+				for (Iterator iter = objects.entrySet().iterator(); iter.hasNext();)
+				{
+					Map.Entry mapEntry = (Map.Entry) iter.next();
+					Entry entry = new Entry((Serializable) mapEntry.getValue());
+					
+					writeEntry((String) mapEntry.getKey(), entry);
+					fIndex.put(mapEntry.getKey(), entry);
+				}
+				
+				fActiveSegment.fChannel.force(false);
+				result = true;
+				
+				if (sLogger.isLoggable(Level.INFO))
+				{
+					String message = "Imported " + objects.size() 
+						+ " objects from persistent store " + storeFile;
+					
+					sLogger.logp(Level.INFO, CLASS_NAME, "importStore", message);
+				}
+			}
+			catch (Exception ex)
+			{
+				String message = "Exception importing persistent store " 
+					+ storeFile + " - " + ex.getLocalizedMessage();
+				
+				sLogger.logp(Level.WARNING, CLASS_NAME, "importStore", message);
+			}
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Writes a record of the given Entry to the active segment. If the record
+	 * cannot be written the Entry is kept in memory only, and written by the 
+	 * next <code>saveToDisk</code>.
+	 * 
+	 * @param key the key of the Entry
+	 * @param entry the Entry to write
+	 * @return the write sequence number of the record, or 0 if it was not 
+	 * 		written
+	 */
+	private long writeEntry(String key, Entry entry)
+	{
+		long result = 0;
+		
+		try
+		{
+			int length = encodeRecord(PUT_RECORD, key, entry.fValue);
+			
+			placeEntry(entry, length);
+			result = fWriteSequence;
+		}
+		catch (IOException ex)
+		{
+			fHandedOutKeys.add(key);
+			
+			String message = "Exception writing " + key 
+				+ " to persistent store " + fStoreName;
+			
+			sLogger.logp(Level.WARNING, CLASS_NAME, "writeEntry", message, ex);
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Appends the encoded record to the active segment and records its 
+	 * location in the given Entry.
+	 * 
+	 * @param entry the Entry of the record
+	 * @param length the length of the encoded record
+	 * @throws IOException if the record cannot be written
+	 */
+	private void placeEntry(Entry entry, int length) throws IOException
+	{
+		int checksum = getChecksum();
+		Segment segment = fActiveSegment;
+		long offset = appendRecord(length);
+		
+		entry.fSegment = segment.fNumber;
+		entry.fOffset = offset;
+		entry.fLength = length;
+		entry.fChecksum = checksum;
+		
+		fLiveBytes += length;
+	}
+
+	/**
+	 * Encodes a record into the reusable record buffer.
+	 * 
+	 * @param type the type of the record
+	 * @param key the key of the record
+	 * @param object the Serializable of a put record, or null
+	 * @return the length of the encoded record
+	 * @throws IOException if the Serializable cannot be serialized
+	 */
+	private int encodeRecord(byte type, String key, Serializable object) 
+		throws IOException
+	{
+		fRecordBytes.reset();
+		
+		DataOutputStream out = new DataOutputStream(fRecordBytes);
+		out.writeInt(0);
+		out.writeInt(0);
+		out.writeByte(type);
+		out.writeUTF(key);
+		
+		if (object != null)
+		{
+			ObjectOutputStream objectOut = new ObjectOutputStream(out);
+			objectOut.writeObject(object);
+			objectOut.flush();
+		}
+		
+		out.flush();
+		
+		int result = fRecordBytes.size();
+		byte[] bytes = fRecordBytes.getBuffer();
+		
+		fChecksum.reset();
+		fChecksum.update(bytes, RECORD_HEADER_SIZE, result - RECORD_HEADER_SIZE);
+		
+		putInt(bytes, 0, result - RECORD_HEADER_SIZE);
+		putInt(bytes, 4, (int) fChecksum.getValue());
+		
+		return (result);
+	}
+
+	/**
+	 * Returns the checksum of the record in the reusable record buffer.
+	 * 
+	 * @return the checksum of the record
+	 */
+	private int getChecksum()
+	{
+		byte[] bytes = fRecordBytes.getBuffer();
+		
+		return (((bytes[4] & 0xff) << 24) | ((bytes[5] & 0xff) << 16) 
+			| ((bytes[6] & 0xff) << 8) | (bytes[7] & 0xff));
+	}
+
+	/**
+	 * Writes the given int into the given array in big-endian order.
+	 */
+	private static void putInt(byte[] bytes, int index, int value)
+	{
+		bytes[index] = (byte) (value >>> 24);
+		bytes[index + 1] = (byte) (value >>> 16);
+		bytes[index + 2] = (byte) (value >>> 8);
+		bytes[index + 3] = (byte) value;
+	}
+
+	/**
+	 * Appends the record in the reusable record buffer to the active 
+	 * segment, sealing the segment if it has grown past the segment size.
+	 * 
+	 * @param length the length of the encoded record
+	 * @return the offset of the record in the segment it was written to
+	 * @throws IOException if the record cannot be written
+	 */
+	private long appendRecord(int length) throws IOException
+	{
+		Segment segment = fActiveSegment;
+		
+		if (segment == null)
+		{
+			throw new IOException("Persistent store is not open");
+		}
+		
+		long result = segment.fSize;
+		ByteBuffer buffer = ByteBuffer.wrap(fRecordBytes.getBuffer(), 0, length);
+		
+		writeFully(segment.fChannel, buffer, result);
+		
+		segment.fSize += length;
+		fWriteSequence++;
+		
+		if (fSyncInterval == 0)
+		{
+			segment.fChannel.force(false);
+		}
+		
+		if (segment.fSize >= fSegmentSize)
+		{
+			rotate();
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Seals the active segment and starts a new one.
+	 * 
+	 * @throws IOException if the new segment cannot be created
+	 */
+	private void rotate() throws IOException
+	{
+		//  Keeps the group commit guarantee for records in the sealed segment
+		fActiveSegment.fChannel.force(false);
+		
+		fActiveSegment = createSegment(fActiveSegment.fNumber + 1, 0);
+	}
+
+	/**
+	 * Reads the record of the given Entry and deserializes its Serializable 
+	 * unless that has been done already.
+	 * 
+	 * @param key the key of the Entry
+	 * @param entry the Entry to load
+	 * @return the Serializable of the Entry, or null if it cannot be read
+	 */
+	private Serializable load(String key, Entry entry)
+	{
+		if (!entry.fLoaded)
+		{
+			try
+			{
+				Segment segment = 
+					(Segment) fSegments.get(new Integer(entry.fSegment));
+				ByteBuffer buffer = ByteBuffer.allocate(entry.fLength);
+				
+				readFully(segment.fChannel, buffer, entry.fOffset);
+				
+				byte[] bytes = buffer.array();
+				int length = entry.fLength - RECORD_HEADER_SIZE;
+				
+				fChecksum.reset();
+				fChecksum.update(bytes, RECORD_HEADER_SIZE, length);
+				
+				if ((int) fChecksum.getValue() != entry.fChecksum)
+				{
+					throw new IOException("Checksum mismatch in " + segment.fFile 
+						+ " at " + entry.fOffset);
+				}
+				
+				DataInputStream in = new DataInputStream(new ByteArrayInputStream
+					(bytes, RECORD_HEADER_SIZE, length));
+				in.readByte();
+				in.readUTF();
+				
+				entry.fValue = (Serializable) new ObjectInputStream(in).readObject();
+				entry.fLoaded = true;
+			}
+			catch (Exception ex)
+			{
+				String message = "Exception reading " + key 
+					+ " from persistent store " + fStoreName + " - " 
+					+ ex.getLocalizedMessage();
+				
+				sLogger.logp(Level.WARNING, CLASS_NAME, "load", message);
+			}
+		}
+		
+		return (entry.fValue);
+	}
+
+	/**
+	 * Counts the given superseded Entry as dead bytes.
+	 */
+	private void discard(Entry entry)
+	{
+		if (entry.fSegment >= 0)
+		{
+			fLiveBytes -= entry.fLength;
+			fDeadBytes += entry.fLength;
+		}
+	}
+
+	/**
+	 * Recounts the live and dead bytes of the store.
+	 */
+	private void countBytes()
+	{
+		long total = 0;
+		
+		for (Iterator iter = fSegments.values().iterator(); iter.hasNext();)
+		{
+			total += ((Segment) iter.next()).fSize - SEGMENT_HEADER_SIZE;
+		}
+		
+		fLiveBytes = 0;
+		
+		for (Iterator iter = fIndex.values().iterator(); iter.hasNext();)
+		{
+			Entry entry = (Entry) iter.next();
+			
+			if (entry.fSegment >= 0)
+			{
+				fLiveBytes += entry.fLength;
+			}
+		}
+		
+		fDeadBytes = total - fLiveBytes;
+	}
+
+	/**
+	 * Starts a background compaction if at least a segment's worth of bytes,
+	 * and more than half of all bytes, belong to superseded records.
+	 */
+	private void scheduleCompactionIfNeeded()
+	{
+		if (!fCompactionScheduled && fDeadBytes >= fSegmentSize 
+			&& fDeadBytes > fLiveBytes)
+		{
+			fCompactionScheduled = true;
+			
+			Thread compactor = new Thread(new Runnable()
+				{
+					public void run()
+					{
+						try
+						{
+							compact();
+						}
+						finally
+						{
+							synchronized (LogStructuredPersistentStore.this)
+							{
+								fCompactionScheduled = false;
+							}
+						}
+					}
+				}, "Compactor of " + fStoreName);
+			
+			compactor.setDaemon(true);
+			compactor.start();
+		}
+	}
+
+	/**
+	 * Copies the records of the given Entries into a new compacted segment.
+	 * 
+	 * @param entries the Entries to copy
+	 * @param segments the sealed segments holding the Entries
+	 * @param file the file of the compacted segment
+	 * @param offsets receives the offsets of the copied records
+	 * @throws IOException if the records cannot be copied
+	 */
+	private void copyRecords(List entries, Map segments, File file, 
+		long[] offsets) throws IOException
+	{
+		RandomAccessFile compactFile = new RandomAccessFile(file, "rw");
+		
+		try
+		{
+			compactFile.setLength(0);
+			
+			FileChannel channel = compactFile.getChannel();
+			long position = writeHeader(channel, COMPACTED_FLAG);
+			ByteBuffer buffer = ByteBuffer.allocate(4096);
+			
+			for (int i = 0; i < offsets.length; i++)
+			{
+				Entry entry = (Entry) entries.get(i);
+				Segment segment = 
+					(Segment) segments.get(new Integer(entry.fSegment));
+				
+				if (buffer.capacity() < entry.fLength)
+				{
+					buffer = ByteBuffer.allocate(
+						Math.max(entry.fLength, buffer.capacity() * 2));
+				}
+				
+				buffer.clear();
+				buffer.limit(entry.fLength);
+				readFully(segment.fChannel, buffer, entry.fOffset);
+				
+				buffer.flip();
+				writeFully(channel, buffer, position);
+				
+				offsets[i] = position;
+				position += entry.fLength;
+			}
+			
+			channel.force(true);
+		}
+		finally
+		{
+			compactFile.close();
+		}
+	}
+
+	/**
+	 * Replaces the given segment with the given compacted segment file.
+	 * 
+	 * @param number the number of the segment to replace
+	 * @param compactFile the file of the compacted segment
+	 * @throws IOException if the segment cannot be replaced
+	 */
+	private void replaceSegment(int number, File compactFile) throws IOException
+	{
+		Integer key = new Integer(number);
+		Segment segment = (Segment) fSegments.get(key);
+		
+		segment.close();
+		fSegments.remove(key);
+		
+		if (!segment.fFile.delete() || !compactFile.renameTo(segment.fFile))
+		{
+			throw new IOException("Cannot replace " + segment.fFile 
+				+ " with " + compactFile);
+		}
+		
+		segment = openSegment(number);
+		
+		if (segment == null)
+		{
+			throw new IOException("Cannot open " + getSegmentFile(number));
+		}
+		
+		segment.fSize = segment.fChannel.size();
+		fSegments.put(key, segment);
+	}
+
+	/**
+	 * Completes the replacement of a segment by a compacted segment file 
+	 * that was interrupted after the segment was deleted, or else deletes 
+	 * the unused compacted segment file.
+	 * 
+	 * @param number the number of the segment
+	 */
+	private void recoverCompactedSegment(int number)
+	{
+		File segmentFile = getSegmentFile(number);
+		File compactFile = new File(segmentFile.getPath() + COMPACT_SUFFIX);
+		
+		if (segmentFile.exists())
+		{
+			compactFile.delete();
+		}
+		else
+		{
+			compactFile.renameTo(segmentFile);
+		}
+	}
+
+	/**
+	 * Creates a new empty segment with the given number and flags.
+	 * 
+	 * @param number the number of the segment
+	 * @param flags the flags of the segment
+	 * @return the new segment
+	 * @throws IOException if the segment cannot be created
+	 */
+	private Segment createSegment(int number, int flags) throws IOException
+	{
+		File file = getSegmentFile(number);
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		
+		randomAccessFile.setLength(0);
+		
+		Segment result = new Segment(number, file, randomAccessFile);
+		result.fFlags = flags;
+		result.fSize = writeHeader(result.fChannel, flags);
+		
+		fSegments.put(new Integer(number), result);
+		
+		return (result);
+	}
+
+	/**
+	 * Opens the existing segment with the given number.
+	 * 
+	 * @param number the number of the segment
+	 * @return the segment, or null if the file is not a valid segment
+	 * @throws IOException if the segment cannot be opened
+	 */
+	private Segment openSegment(int number) throws IOException
+	{
+		Segment result = null;
+		
+		File file = getSegmentFile(number);
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+		
+		try
+		{
+			readFully(randomAccessFile.getChannel(), header, 0);
+			header.flip();
+			
+			if (header.getInt() == SEGMENT_MAGIC 
+				&& header.getInt() == SEGMENT_VERSION)
+			{
+				result = new Segment(number, file, randomAccessFile);
+				result.fFlags = header.getInt();
+				result.fSize = randomAccessFile.length();
+			}
+		}
+		catch (EOFException ex)
+		{
+			//  Not a valid segment, handled below
+		}
+		
+		if (result == null)
+		{
+			randomAccessFile.close();
+			
+			if (sLogger.isLoggable(Level.WARNING))
+			{
+				String message = "Ignoring invalid segment " + file;
+				
+				sLogger.logp(Level.WARNING, CLASS_NAME, "openSegment", message);
+			}
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Writes a segment header with the given flags to the given channel.
+	 * 
+	 * @return the size of the header
+	 */
+	private static long writeHeader(FileChannel channel, int flags) 
+		throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+		
+		header.putInt(SEGMENT_MAGIC);
+		header.putInt(SEGMENT_VERSION);
+		header.putInt(flags);
+		header.flip();
+		
+		writeFully(channel, header, 0);
+		
+		return (SEGMENT_HEADER_SIZE);
+	}
+
+	/**
+	 * Returns the file of the segment with the given number.
+	 */
+	private File getSegmentFile(int number)
+	{
+		return (new File(fStoreName + "." + number + SEGMENT_SUFFIX));
+	}
+
+	/**
+	 * Returns the segment number in the given file name, or 0 if the file 
+	 * name does not have the given prefix and suffix around a number.
+	 */
+	private static int getSegmentNumber(String name, String prefix, 
+		String suffix)
+	{
+		int result = 0;
+		
+		if (name.startsWith(prefix) && name.endsWith(suffix) 
+			&& name.length() > prefix.length() + suffix.length())
+		{
+			try
+			{
+				result = Integer.parseInt(name.substring(prefix.length(), 
+					name.length() - suffix.length()));
+			}
+			catch (NumberFormatException ex)
+			{
+				result = 0;
+			}
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Writes all of the given buffer to the given channel at the given 
+	 * position.
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, 
+		long position) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Fills the given buffer from the given channel at the given position.
+	 * 
+	 * @throws EOFException if the channel ends first
+	 */
+	private static void readFully(FileChannel channel, ByteBuffer buffer, 
+		long position) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			int count = channel.read(buffer, position);
+			
+			if (count < 0)
+			{
+				throw new EOFException();
+			}
+			
+			position += count;
+		}
+	}
+
+	/**
+	 * Waits until the record with the given write sequence number has been 
+	 * forced to disk by the group commit thread, if there is a group commit 
+	 * window, or until forcing it has failed.
+	 * 
+	 * @param sequence the write sequence number of the record
+	 */
+	private void awaitDurable(long sequence)
+	{
+		if (sequence > 0 && fSyncInterval > 0)
+		{
+			boolean interrupted = false;
+			
+			synchronized (fSyncLock)
+			{
+				if (fSyncThread == null)
+				{
+					fSyncThread = new Thread(new Runnable()
+						{
+							public void run()
+							{
+								runSync();
+							}
+						}, "Sync of " + fStoreName);
+					
+					fSyncThread.setDaemon(true);
+					fSyncThread.start();
+				}
+				
+				if (sequence > fRequestedSequence)
+				{
+					fRequestedSequence = sequence;
+					fSyncLock.notifyAll();
+				}
+				
+				//  A failed force has been logged, and the record is left to 
+				//  a later one
+				while (fSyncedSequence < sequence 
+					&& fFailedSequence < sequence)
+				{
+					try
+					{
+						fSyncLock.wait();
+					}
+					catch (InterruptedException ex)
+					{
+						interrupted = true;
+					}
+				}
+			}
+			
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Runs the group commit thread: once a record is waiting, lets the group
+	 * commit window pass and then forces all records written so far with one
+	 * call.
+	 */
+	private void runSync()
+	{
+		try
+		{
+			while (true)
+			{
+				synchronized (fSyncLock)
+				{
+					while (fRequestedSequence 
+						<= Math.max(fSyncedSequence, fFailedSequence))
+					{
+						fSyncLock.wait();
+					}
+				}
+				
+				Thread.sleep(fSyncInterval);
+				
+				long sequence;
+				boolean forced = true;
+				FileChannel channel = null;
+				
+				synchronized (this)
+				{
+					sequence = fWriteSequence;
+					
+					if (fActiveSegment != null)
+					{
+						channel = fActiveSegment.fChannel;
+					}
+				}
+				
+				try
+				{
+					if (channel != null)
+					{
+						channel.force(false);
+					}
+				}
+				catch (ClosedChannelException ex)
+				{
+					//  Sealed and forced, or closed, in the meantime
+				}
+				catch (IOException ex)
+				{
+					String message = "Exception forcing persistent store " 
+						+ fStoreName + " to disk";
+					
+					sLogger.logp(Level.WARNING, CLASS_NAME, "runSync", 
+						message, ex);
+					
+					forced = false;
+				}
+				
+				synchronized (fSyncLock)
+				{
+					//  Only a successful force makes the records durable
+					if (forced)
+					{
+						fSyncedSequence = Math.max(fSyncedSequence, sequence);
+					}
+					else
+					{
+						fFailedSequence = Math.max(fFailedSequence, sequence);
+					}
+					
+					fSyncLock.notifyAll();
+				}
+			}
+		}
+		catch (InterruptedException ex)
+		{
+			//  Exit
+		}
+	}
+
+	/**
+	 * Add a listener for changes to the data store.<p>
+	 * Note that because of the synchronized nature of the methods of this 
+	 * class listeners should be careful what they do in their response to 
+	 * events and always return quickly as this event occurs in the calling
+	 * thread.
+	 *
+	 * @param l  the listener to add
+	 */
+	public void addPersistentObjectStoreListener(PersistentObjectStoreListener l)
+	{
+		fListeners.add(l);		
+	}
+
+	/**
+	 * Remove a listener for changes that is listening for changed to the 
+	 * data store.
+	 *  
+	 * @param l  the listener to remove
+	 */
+	public void removePersistentObjectStoreListener(PersistentObjectStoreListener l)
+	{
+		fListeners.remove(l);		
+	}
+
+	/**
+	 * Inform all listeners that an entry was added to the data store.
+	 *
+	 * @param entry  the data object that was added
+	 */
+	protected void fireEntryAdded(Serializable entry)
+	{
+		Object[] listeners = fListeners.toArray();
+		PersistentObjectStoreEvent dataStoreEvent = new PersistentObjectStoreEvent(this, entry);
+		
+		for (int i = 0;  i < listeners.length; i++)
+		{
+			((PersistentObjectStoreListener) listeners[i]).objectAdded(dataStoreEvent);
+		}
+	}
+
+	/**
+	 * Inform all listeners that an entry was removed from the data store.
+	 *
+	 * @param entry  the data object that was removed
+	 */
+	protected void fireEntryRemoved(Serializable entry)
+	{
+		Object[] listeners = fListeners.toArray();
+		PersistentObjectStoreEvent dataStoreEvent = new PersistentObjectStoreEvent(this, entry);
+		
+		for (int i = 0;  i < listeners.length; i++)
+		{
+			((PersistentObjectStoreListener) listeners[i]).objectRemoved(dataStoreEvent);
+		}
+	}
+
+	/**
+	 * Inform all listeners that an entry was changed in the data store.
+	 *
+	 * @param entry  the data object that was changed
+	 */
+	protected void fireEntryChanged(Serializable entry)
+	{
+		Object[] listeners = fListeners.toArray();
+		PersistentObjectStoreEvent dataStoreEvent = new PersistentObjectStoreEvent(this, entry);
+		
+		for (int i = 0;  i < listeners.length; i++)
+		{
+			((PersistentObjectStoreListener) listeners[i]).objectChanged(dataStoreEvent);
+		}
+	}
+
+	/**
+	 * Gets the current name of the store.
+	 * 
+	 * @return the name of this store
+	 */
+	public String getStoreName()
+	{
+		return fStoreName;
+	}
+
+	/**
+	 * Sets the name of this store. The name takes effect the next time the
+	 * store is read from disk, or when it is first opened.
+	 * 
+	 * @param name the name of the persistent store
+	 */
+	public void setStoreName(String name)
+	{
+		fStoreName = name;
+	}
+	
+	
+	/**
+	 * The location of the latest record of a key, and its Serializable once
+	 * that has been deserialized.
+	 */
+	private static final class Entry
+	{
+		private int fSegment = -1;
+		private long fOffset;
+		private int fLength;
+		private int fChecksum;
+		private Serializable fValue;
+		private boolean fLoaded = true;
+		
+		private Entry(Serializable value)
+		{
+			fValue = value;
+		}
+	}
+	
+	
+	/**
+	 * An open segment file.
+	 */
+	private static final class Segment
+	{
+		private final int fNumber;
+		private final File fFile;
+		private final RandomAccessFile fRandomAccessFile;
+		private final FileChannel fChannel;
+		private int fFlags;
+		private long fSize;
+		
+		private Segment(int number, File file, RandomAccessFile randomAccessFile)
+		{
+			fNumber = number;
+			fFile = file;
+			fRandomAccessFile = randomAccessFile;
+			fChannel = randomAccessFile.getChannel();
+		}
+		
+		private void close()
+		{
+			try
+			{
+				fRandomAccessFile.close();
+			}
+			catch (IOException ex)
+			{
+				//  Nothing more to do with it
+			}
+		}
+	}
+	
+	
+	/**
+	 * A ByteArrayOutputStream whose buffer can be used in place.
+	 */
+	private static final class RecordOutputStream extends ByteArrayOutputStream
+	{
+		private RecordOutputStream()
+		{
+			super(256);
+		}
+		
+		private byte[] getBuffer()
+		{
+			return (buf);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
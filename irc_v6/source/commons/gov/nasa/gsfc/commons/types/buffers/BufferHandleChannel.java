@@ -0,0 +1,347 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.buffers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ScatteringByteChannel;
+import java.util.LinkedList;
+
+
+/**
+ *  A BufferHandleChannel is an in-process, nonblocking channel that reads 
+ *  from a chain of BufferHandles. Appending a BufferHandle marks it in use, 
+ *  and the chain releases it as soon as all of its bytes have been read, so 
+ *  no data is copied until it is read and the original buffers are never 
+ *  copied at all by readers that use {@link #getReadableBuffer()}.
+ *  <p>
+ *  The channel behaves like the source of a nonblocking Pipe: a read 
+ *  returns 0 when no data is available, and -1 once the channel has been 
+ *  closed. One thread may append while another reads.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version	$Date$
+ *  @author	$Author$
+**/
+
+public class BufferHandleChannel implements ScatteringByteChannel
+{
+	// Entries of the chain, in the order the data was appended
+	private LinkedList fEntries = new LinkedList();
+	
+	private long fAvailable = 0;
+	private boolean fOpen = true;
+	
+
+	/**
+	 * Appends the data of the given BufferHandle, from the position to the 
+	 * limit of its buffer, to the end of this channel. The BufferHandle is 
+	 * marked in use until its data has been read or the channel is closed.
+	 *
+	 * @param handle a BufferHandle to a ByteBuffer
+	 * @throws ClosedChannelException if this channel is closed
+	**/
+	
+	public void append(BufferHandle handle) throws ClosedChannelException
+	{
+		handle.setInUse();
+		
+		ByteBuffer buffer = (ByteBuffer) handle.getBuffer();
+		
+		synchronized (this)
+		{
+			if (fOpen && buffer.hasRemaining())
+			{
+				fEntries.addLast(new Entry(handle, buffer));
+				fAvailable += buffer.remaining();
+				
+				return;
+			}
+		}
+		
+		handle.release();
+		
+		if (! isOpen())
+		{
+			throw (new ClosedChannelException());
+		}
+	}
+	
+
+	/**
+	 * Returns the number of bytes that can currently be read.
+	 *
+	 * @return the number of available bytes
+	**/
+	
+	public synchronized long available()
+	{
+		long result = fAvailable;
+		
+		if (! fEntries.isEmpty())
+		{
+			// Account for data consumed through getReadableBuffer
+			Entry entry = (Entry) fEntries.getFirst();
+			
+			result -= entry.fLength - entry.fBuffer.remaining() - 
+				entry.fConsumed;
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns the unread data of the first BufferHandle in this channel 
+	 * without copying it, or null if no data is available. Reading from the 
+	 * returned buffer consumes the data from this channel. The buffer remains 
+	 * valid until the next read from this channel, at which point the 
+	 * BufferHandle is released if all of its data has been consumed.
+	 *
+	 * @return a read-only view of the next available data, or null
+	**/
+	
+	public synchronized ByteBuffer getReadableBuffer()
+	{
+		ByteBuffer result = null;
+		
+		Entry entry = firstEntry();
+		
+		if (entry != null)
+		{
+			result = entry.fBuffer;
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Reads a sequence of bytes from this channel into the given buffer.
+	 *
+	 * @param destination the buffer into which bytes are to be transferred
+	 * @return the number of bytes read, possibly zero, or -1 if the channel
+	 * 		is closed and has no data
+	**/
+	
+	public synchronized int read(ByteBuffer destination) throws IOException
+	{
+		int result = 0;
+		Entry entry = firstEntry();
+		
+		if (entry == null && ! fOpen)
+		{
+			result = -1;
+		}
+		
+		while (entry != null && destination.hasRemaining())
+		{
+			result += transfer(entry.fBuffer, destination);
+			entry = firstEntry();
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Reads a sequence of bytes from this channel into a subsequence of the 
+	 * given buffers.
+	 *
+	 * @param destinations the buffers into which bytes are to be transferred
+	 * @param offset the offset of the first buffer to use
+	 * @param length the maximum number of buffers to use
+	 * @return the number of bytes read, possibly zero, or -1 if the channel
+	 * 		is closed and has no data
+	**/
+	
+	public synchronized long read(ByteBuffer[] destinations, int offset, 
+		int length) throws IOException
+	{
+		if (offset < 0 || length < 0 || offset > destinations.length - length)
+		{
+			throw (new IndexOutOfBoundsException());
+		}
+		
+		long result = 0;
+		Entry entry = firstEntry();
+		
+		if (entry == null && ! fOpen)
+		{
+			result = -1;
+		}
+		
+		for (int i = offset; i < offset + length && entry != null; i++)
+		{
+			ByteBuffer destination = destinations[i];
+			
+			while (entry != null && destination.hasRemaining())
+			{
+				result += transfer(entry.fBuffer, destination);
+				entry = firstEntry();
+			}
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Reads a sequence of bytes from this channel into the given buffers.
+	 *
+	 * @param destinations the buffers into which bytes are to be transferred
+	 * @return the number of bytes read, possibly zero, or -1 if the channel
+	 * 		is closed and has no data
+	**/
+	
+	public long read(ByteBuffer[] destinations) throws IOException
+	{
+		return (read(destinations, 0, destinations.length));
+	}
+	
+
+	/**
+	 * Tells whether or not this channel is open.
+	 *
+	 * @return true if this channel is open
+	**/
+	
+	public synchronized boolean isOpen()
+	{
+		return (fOpen);
+	}
+	
+
+	/**
+	 * Closes this channel and releases all BufferHandles whose data has not 
+	 * been read.
+	**/
+	
+	public synchronized void close()
+	{
+		fOpen = false;
+		
+		while (! fEntries.isEmpty())
+		{
+			((Entry) fEntries.removeFirst()).fHandle.release();
+		}
+		
+		fAvailable = 0;
+	}
+	
+
+	/**
+	 * Returns the first entry that still has unread data, releasing the 
+	 * BufferHandles of any entries that have been consumed.
+	 *
+	 * @return the first entry, or null if no data is available
+	**/
+	
+	private Entry firstEntry()
+	{
+		Entry result = null;
+		
+		while (result == null && ! fEntries.isEmpty())
+		{
+			Entry entry = (Entry) fEntries.getFirst();
+			int consumed = entry.fLength - entry.fBuffer.remaining();
+			
+			fAvailable -= consumed - entry.fConsumed;
+			entry.fConsumed = consumed;
+			
+			if (entry.fBuffer.hasRemaining())
+			{
+				result = entry;
+			}
+			else
+			{
+				fEntries.removeFirst();
+				entry.fHandle.release();
+			}
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Copies as many bytes as fit from the source to the destination buffer.
+	 *
+	 * @param source the buffer to copy from
+	 * @param destination the buffer to copy to
+	 * @return the number of bytes copied
+	**/
+	
+	private static int transfer(ByteBuffer source, ByteBuffer destination)
+	{
+		int result = Math.min(source.remaining(), destination.remaining());
+		
+		if (result == source.remaining())
+		{
+			destination.put(source);
+		}
+		else
+		{
+			int limit = source.limit();
+			
+			source.limit(source.position() + result);
+			destination.put(source);
+			source.limit(limit);
+		}
+		
+		return (result);
+	}
+	
+	
+	/**
+	 * An appended BufferHandle and the view of its data that is read.
+	 */
+	private static class Entry
+	{
+		private BufferHandle fHandle;
+		private ByteBuffer fBuffer;
+		private int fLength;
+		private int fConsumed = 0;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param handle the BufferHandle
+		 * @param buffer the view of its data
+		 */
+		public Entry(BufferHandle handle, ByteBuffer buffer)
+		{
+			fHandle = handle;
+			fBuffer = buffer;
+			fLength = buffer.remaining();
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
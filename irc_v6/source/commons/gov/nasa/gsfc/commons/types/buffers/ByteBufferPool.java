@@ -0,0 +1,281 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.buffers;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ *  A ByteBufferPool lends out reusable direct ByteBuffers, each wrapped in a
+ *  {@link PooledBufferHandle}. The caller that acquires a handle is its
+ *  first user and fills its buffer; any further users share the buffer by
+ *  following the usual BufferHandle protocol of paired <code>setInUse</code>
+ *  and <code>release</code> calls. When the last user releases the handle,
+ *  the handle and its buffer are returned to this pool for reuse.
+ *
+ *  <p>A pooled buffer that is too small for a request is replaced by one that
+ *  is large enough, so a pool serving requests of a similar size stops
+ *  allocating after its first few leases. A handle that is never released is
+ *  simply garbage collected, and the pool allocates a new buffer in its
+ *  place.
+ *
+ *  <p>A pool counts its leases, the leases it could not fill from an idle
+ *  buffer (misses), and the buffers it discarded because it was full, so
+ *  that its capacity can be tuned to the load it serves.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version	$Date$
+ *  @author		$Author$
+**/
+
+public class ByteBufferPool
+{
+	/**
+	 * The default minimum size in bytes of the buffers in a pool.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	
+	/**
+	 * The default maximum number of idle buffers held by a pool.
+	 */
+	public static final int DEFAULT_CAPACITY = 16;
+	
+	private final int fBufferSize;
+	private final PooledBufferHandle[] fFreeHandles;
+	private int fNumberOfFreeHandles = 0;
+	private int fNumberOfLeasedHandles = 0;
+	private long fNumberOfAcquires = 0;
+	private long fNumberOfMisses = 0;
+	private long fNumberOfDiscards = 0;
+	
+	
+	/**
+	 * Constructs a new ByteBufferPool with the default buffer size and 
+	 * capacity.
+	 */
+	public ByteBufferPool()
+	{
+		this(DEFAULT_BUFFER_SIZE, DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Constructs a new ByteBufferPool whose buffers are at least the given 
+	 * size and that holds at most the given number of idle buffers.
+	 * 
+	 * @param bufferSize the minimum size in bytes of a buffer
+	 * @param capacity the maximum number of idle buffers held by the pool
+	 * @throws IllegalArgumentException if either argument is negative or zero
+	 */
+	public ByteBufferPool(int bufferSize, int capacity)
+	{
+		if (bufferSize <= 0 || capacity <= 0)
+		{
+			String message = "Invalid buffer pool size " + bufferSize 
+				+ " or capacity " + capacity;
+			
+			throw new IllegalArgumentException(message);
+		}
+		
+		fBufferSize = bufferSize;
+		fFreeHandles = new PooledBufferHandle[capacity];
+	}
+	
+	/**
+	 * Leases a buffer of at least the given size from this pool. The buffer 
+	 * of the returned handle has a position of 0 and a limit of the given 
+	 * size, and the handle has already been marked as in use by the caller, 
+	 * who must <code>release</code> it when done.
+	 * 
+	 * @param size the number of bytes needed
+	 * @return a handle to a buffer of at least the given size
+	 */
+	public PooledBufferHandle acquire(int size)
+	{
+		PooledBufferHandle result = null;
+		
+		synchronized (this)
+		{
+			fNumberOfAcquires++;
+			fNumberOfLeasedHandles++;
+			
+			if (fNumberOfFreeHandles > 0)
+			{
+				fNumberOfFreeHandles--;
+				result = fFreeHandles[fNumberOfFreeHandles];
+				fFreeHandles[fNumberOfFreeHandles] = null;
+			}
+			
+			if (result == null || result.getByteBuffer().capacity() < size)
+			{
+				fNumberOfMisses++;
+			}
+		}
+		
+		if (result == null)
+		{
+			result = new PooledBufferHandle(this, allocate(size));
+		}
+		else if (result.getByteBuffer().capacity() < size)
+		{
+			result.setByteBuffer(allocate(size));
+		}
+		
+		ByteBuffer buffer = result.getByteBuffer();
+		buffer.clear();
+		buffer.limit(size);
+		
+		result.setContext(null);
+		result.setInUse();
+		
+		return (result);
+	}
+	
+	/**
+	 * Returns the given handle to this pool once it has no users. The handle
+	 * is dropped if the pool is already holding its capacity of idle 
+	 * buffers.
+	 * 
+	 * @param handle a handle that was leased from this pool
+	 */
+	synchronized void reclaim(PooledBufferHandle handle)
+	{
+		fNumberOfLeasedHandles--;
+		
+		if (fNumberOfFreeHandles < fFreeHandles.length)
+		{
+			fFreeHandles[fNumberOfFreeHandles] = handle;
+			fNumberOfFreeHandles++;
+		}
+		else
+		{
+			fNumberOfDiscards++;
+		}
+	}
+	
+	/**
+	 * Returns the number of idle buffers currently held by this pool.
+	 * 
+	 * @return the number of idle buffers
+	 */
+	public synchronized int getNumberOfFreeBuffers()
+	{
+		return (fNumberOfFreeHandles);
+	}
+	
+	/**
+	 * Returns the number of buffers currently leased from this pool and not
+	 * yet released. Leased buffers that are never released remain counted.
+	 * 
+	 * @return the number of leased buffers
+	 */
+	public synchronized int getNumberOfLeasedBuffers()
+	{
+		return (fNumberOfLeasedHandles);
+	}
+	
+	/**
+	 * Returns the total number of buffers leased from this pool.
+	 * 
+	 * @return the number of leases
+	 */
+	public synchronized long getNumberOfAcquires()
+	{
+		return (fNumberOfAcquires);
+	}
+	
+	/**
+	 * Returns the number of leases that had to allocate a new buffer because
+	 * no idle buffer of a sufficient size was available.
+	 * 
+	 * @return the number of misses
+	 */
+	public synchronized long getNumberOfMisses()
+	{
+		return (fNumberOfMisses);
+	}
+	
+	/**
+	 * Returns the number of released buffers that were discarded because 
+	 * the pool already held its capacity of idle buffers.
+	 * 
+	 * @return the number of discarded buffers
+	 */
+	public synchronized long getNumberOfDiscards()
+	{
+		return (fNumberOfDiscards);
+	}
+	
+	/**
+	 * Returns the maximum number of idle buffers held by this pool.
+	 * 
+	 * @return the capacity of this pool
+	 */
+	public int getCapacity()
+	{
+		return (fFreeHandles.length);
+	}
+	
+	/**
+	 * Returns the minimum size in bytes of the buffers of this pool.
+	 * 
+	 * @return the minimum buffer size
+	 */
+	public int getBufferSize()
+	{
+		return (fBufferSize);
+	}
+	
+	/**
+	 * Allocates a new direct buffer of at least the given size.
+	 * 
+	 * @param size the number of bytes needed
+	 * @return a new direct buffer
+	 */
+	private ByteBuffer allocate(int size)
+	{
+		return (ByteBuffer.allocateDirect(Math.max(size, fBufferSize)));
+	}
+	
+	/**
+	 * Returns a String representation of this ByteBufferPool.
+	 * 
+	 * @return a String representation of this ByteBufferPool
+	 */
+	public synchronized String toString()
+	{
+		return ("ByteBufferPool [BufferSize=" + fBufferSize 
+			+ " Capacity=" + fFreeHandles.length
+			+ " Free=" + fNumberOfFreeHandles
+			+ " Leased=" + fNumberOfLeasedHandles
+			+ " Acquires=" + fNumberOfAcquires
+			+ " Misses=" + fNumberOfMisses
+			+ " Discards=" + fNumberOfDiscards + "]");
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,122 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.buffers;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+
+/**
+ *  A PooledBufferHandle is a BufferHandle leased from a 
+ *  {@link ByteBufferPool}. As with a DefaultBufferHandle, 
+ *  <code>getBuffer</code> returns a read-only view of the buffer, so each
+ *  user has its own position and limit; the lessee fills the buffer through
+ *  <code>getByteBuffer</code>. When the last user of the handle releases it,
+ *  the handle and its buffer are returned to the pool and must no longer be
+ *  used.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version	$Date$
+ *  @author		$Author$
+**/
+
+public class PooledBufferHandle extends AbstractBufferHandle
+{
+	private final ByteBufferPool fPool;
+	private ByteBuffer fBuffer;
+	
+	
+	/**
+	 * Constructs a new PooledBufferHandle for the given buffer of the given
+	 * pool.
+	 * 
+	 * @param pool the pool that owns the buffer
+	 * @param buffer the buffer to wrap by this handle
+	 */
+	PooledBufferHandle(ByteBufferPool pool, ByteBuffer buffer)
+	{
+		fPool = pool;
+		fBuffer = buffer;
+	}
+	
+	/**
+	 * Gets the buffer that this BufferHandle refers to. The method
+	 * <code>setInUse</code> should be called before getting the buffer.
+	 *
+	 * @return a read only version of the Buffer
+	 * @see #setInUse
+	**/
+	public Buffer getBuffer()
+	{
+		return (fBuffer.asReadOnlyBuffer());
+	}
+	
+	/**
+	 * Gets the writable buffer that this BufferHandle refers to. This is
+	 * intended for the lessee that fills the buffer.
+	 *
+	 * @return the ByteBuffer
+	**/
+	public ByteBuffer getByteBuffer()
+	{
+		return (fBuffer);
+	}
+	
+	/**
+	 * Replaces the buffer of this handle.
+	 * 
+	 * @param buffer the new buffer
+	 */
+	void setByteBuffer(ByteBuffer buffer)
+	{
+		fBuffer = buffer;
+	}
+
+	/**
+	 * Gets the offset of the containing buffer's position with respect
+	 * to it's parent buffer. This implementation always returns 0 since
+	 * there is not a parent buffer.
+	 *
+	 * @return the offset
+	**/
+	public int getParentOffset()
+	{
+		return (0);
+	}
+
+	/**
+	 *  Returns this handle and its buffer to the pool it was leased from. 
+	 *  This is only called if there are no current users of the buffer.
+	**/
+	protected void releaseBuffer()
+	{
+		fPool.reclaim(this);
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -53,6 +53,7 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import gov.nasa.gsfc.commons.types.strings.PatternCache;
 import gov.nasa.gsfc.irc.components.MinimalComponent;
 
 
@@ -469,7 +470,7 @@ public class DefaultMemberSet implements MemberSet, PropertyChangeListener
 		{
 			if (fMembersByFullyQualifiedName.size() > 0)
 			{
-				Pattern pattern = Pattern.compile(regExPattern);
+				Pattern pattern = PatternCache.getPattern(regExPattern);
 				
 				Iterator members = fMembersByFullyQualifiedName.values().iterator();
 				
@@ -528,7 +529,7 @@ public class DefaultMemberSet implements MemberSet, PropertyChangeListener
 		{
 			if (fMembersByFullyQualifiedName.size() > 0)
 			{
-				Pattern pattern = Pattern.compile(regExPattern);
+				Pattern pattern = PatternCache.getPattern(regExPattern);
 				
 				Iterator members = fMembersByFullyQualifiedName.values().iterator();
 				
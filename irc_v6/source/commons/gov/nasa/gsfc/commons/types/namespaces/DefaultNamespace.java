@@ -136,6 +136,8 @@ import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import gov.nasa.gsfc.commons.types.strings.PatternCache;
+
 
 /**
  *  A Namespace is a set of Members within which the base name of each Member is 
@@ -799,7 +801,7 @@ public class DefaultNamespace extends AbstractNamespaceMemberBean
 		
 		if (fMembers.size() > 0)
 		{
-			Pattern pattern = Pattern.compile(regExPattern);
+			Pattern pattern = PatternCache.getPattern(regExPattern);
 			
 			Iterator members = fMembers.iterator();
 			
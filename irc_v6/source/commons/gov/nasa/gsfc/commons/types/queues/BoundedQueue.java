@@ -0,0 +1,86 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.queues;
+
+import java.util.Collection;
+
+
+/**
+ *  A BoundedQueue is a Queue that can hold at most a fixed number of Objects, 
+ *  and whose behavior when an Object is added while it is full is given by 
+ *  its {@link OverflowPolicy}.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center,
+ *  Code 580 for the Instrument Remote Control (IRC) project.
+ *
+ *  @version	$Date$
+ *  @author	$Author$
+**/
+
+public interface BoundedQueue extends Queue
+{
+	/**
+	 * Returns the maximum number of Objects this Queue can hold.
+	 * 
+	 * @return The capacity of this Queue
+	**/
+	
+	public int getCapacity();
+	
+
+	/**
+	 * Returns the OverflowPolicy of this Queue.
+	 * 
+	 * @return The OverflowPolicy of this Queue
+	**/
+	
+	public OverflowPolicy getOverflowPolicy();
+	
+
+	/**
+	 * Sets the OverflowPolicy of this Queue.
+	 * 
+	 * @param policy The new OverflowPolicy of this Queue
+	 * @throws IllegalArgumentException if the given policy is null
+	**/
+	
+	public void setOverflowPolicy(OverflowPolicy policy);
+	
+
+	/**
+	 * Removes up to the given number of available Objects from this Queue, 
+	 * in order, and adds them to the given Collection. This method does not 
+	 * block.
+	 * 
+	 * @param collection The Collection to which to add the removed Objects
+	 * @param maxObjects The maximum number of Objects to remove
+	 * @return The number of Objects removed
+	**/
+	
+	public int drainTo(Collection collection, int maxObjects);
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,646 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.queues;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import gov.nasa.gsfc.commons.types.synchronization.PaddedSequence;
+
+
+/**
+ *  A ConcurrentArrayQueue is a lock-free, array-backed BoundedQueue. Each 
+ *  slot of the array carries a sequence number that tells producers and 
+ *  consumers whether the slot is free or holds an Object, so neither side 
+ *  ever takes a lock. Where a side has a single thread, it claims slots with 
+ *  a plain ordered write instead of a compare-and-set; subclasses fix the 
+ *  number of producer and consumer threads.
+ *
+ *  <p>The capacity is rounded up to the next power of two. Blocking methods 
+ *  wait according to the queue's {@link WaitStrategy}, and a call to 
+ *  {@link #unblock()} is seen by a waiting thread within one wait interval.
+ *  
+ *  <p>Note that a queue with the {@link OverflowPolicy#KEEP_LATEST} policy 
+ *  removes Objects on the producer side, so its consumer side always uses 
+ *  compare-and-set. The policy should therefore be set before the queue is 
+ *  in use. Likewise, {@link #clear()} and {@link #drainTo(Collection, int)} 
+ *  are consumer operations.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center,
+ *  Code 580 for the Instrument Remote Control (IRC) project.
+ *
+ *  @version	$Date$
+ *  @author	$Author$
+**/
+
+public abstract class ConcurrentArrayQueue implements BoundedQueue
+{
+	private final Object[] fBuffer;
+	private final AtomicLongArray fSequences;
+	private final int fMask;
+	
+	// The position of the next Object to add
+	private final PaddedSequence fTail = new PaddedSequence(0);
+	
+	// The position of the next Object to remove
+	private final PaddedSequence fHead = new PaddedSequence(0);
+	
+	private final boolean fMultipleProducers;
+	private final boolean fMultipleConsumers;
+	
+	private volatile OverflowPolicy fOverflowPolicy;
+	private volatile WaitStrategy fWaitStrategy;
+	private volatile boolean fUnblocked = false;
+	
+
+	/**
+	 * Constructs a new ConcurrentArrayQueue.
+	 *
+	 * @param capacity The minimum capacity of the new Queue
+	 * @param multipleProducers True if more than one thread may add Objects
+	 * @param multipleConsumers True if more than one thread may remove Objects
+	 * @param policy The OverflowPolicy of the new Queue
+	 * @param strategy The WaitStrategy of the new Queue
+	 * @throws IllegalArgumentException if the capacity is not positive or the 
+	 * 		policy or strategy is null
+	**/
+	
+	protected ConcurrentArrayQueue(int capacity, boolean multipleProducers, 
+		boolean multipleConsumers, OverflowPolicy policy, WaitStrategy strategy)
+	{
+		if (capacity < 1 || capacity > (1 << 30))
+		{
+			String message = "Capacity must be between 1 and 2^30: " + 
+				capacity;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		setOverflowPolicy(policy);
+		setWaitStrategy(strategy);
+		
+		int size = 1;
+		
+		while (size < capacity)
+		{
+			size <<= 1;
+		}
+		
+		fBuffer = new Object[size];
+		fSequences = new AtomicLongArray(size);
+		fMask = size - 1;
+		
+		for (int i = 0; i < size; i++)
+		{
+			fSequences.set(i, i);
+		}
+		
+		fMultipleProducers = multipleProducers;
+		fMultipleConsumers = multipleConsumers;
+	}
+	
+
+	/**
+	 * Adds the given Object to this Queue if there is room for it, without 
+	 * applying the OverflowPolicy.
+	 *
+	 * @param object The Object to add
+	 * @return False if this Queue is full
+	**/
+	
+	protected final boolean offer(Object object)
+	{
+		long position;
+		int index;
+		
+		while (true)
+		{
+			position = fTail.get();
+			index = (int) position & fMask;
+			
+			long difference = fSequences.get(index) - position;
+			
+			if (difference == 0)
+			{
+				if (! fMultipleProducers)
+				{
+					fTail.lazySet(position + 1);
+					
+					break;
+				}
+				else if (fTail.compareAndSet(position, position + 1))
+				{
+					break;
+				}
+			}
+			else if (difference < 0)
+			{
+				return (false);
+			}
+		}
+		
+		fBuffer[index] = object;
+		fSequences.lazySet(index, position + 1);
+		
+		return (true);
+	}
+	
+
+	/**
+	 * Removes and returns the next available Object on this Queue, or 
+	 * returns null if this Queue is empty.
+	 *
+	 * @return The next available Object, or null if none is available
+	**/
+	
+	protected final Object poll()
+	{
+		boolean claimWithCas = fMultipleConsumers || 
+			fOverflowPolicy == OverflowPolicy.KEEP_LATEST;
+		
+		long position;
+		int index;
+		
+		while (true)
+		{
+			position = fHead.get();
+			index = (int) position & fMask;
+			
+			long difference = fSequences.get(index) - (position + 1);
+			
+			if (difference == 0)
+			{
+				if (! claimWithCas)
+				{
+					fHead.lazySet(position + 1);
+					
+					break;
+				}
+				else if (fHead.compareAndSet(position, position + 1))
+				{
+					break;
+				}
+			}
+			else if (difference < 0)
+			{
+				return (null);
+			}
+		}
+		
+		Object result = fBuffer[index];
+		
+		fBuffer[index] = null;
+		fSequences.lazySet(index, position + fBuffer.length);
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Attempts to add the given Object to this Queue. If this Queue is full,
+	 * then with the keep latest policy the earliest Object is discarded to 
+	 * make room, and otherwise this method returns false.
+	 *
+	 * @param object The Object to add to this Queue
+	 * @return False if the add attempt failed
+	**/
+	
+	public boolean add(Object object)
+	{
+		boolean result = offer(object);
+		
+		if (! result && fOverflowPolicy == OverflowPolicy.KEEP_LATEST)
+		{
+			addDiscardingEarliest(object);
+			
+			result = true;
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Adds the given Object to this Queue. If this Queue is full, then with 
+	 * the keep all policy this method waits until there is room; with the 
+	 * keep latest policy the earliest Object is discarded to make room; and 
+	 * with the keep earliest policy the given Object is discarded.
+	 *
+	 * @param object The Object to add to this Queue
+	 * @throws InterruptedException if this method waits and then is 
+	 * 		interrupted
+	**/
+	
+	public void blockingAdd(Object object) throws InterruptedException
+	{
+		if (! offer(object))
+		{
+			OverflowPolicy policy = fOverflowPolicy;
+			
+			if (policy == OverflowPolicy.KEEP_LATEST)
+			{
+				addDiscardingEarliest(object);
+			}
+			else if (policy == OverflowPolicy.KEEP_ALL)
+			{
+				WaitStrategy strategy = fWaitStrategy;
+				
+				for (int attempt = 0; ! offer(object); attempt++)
+				{
+					strategy.idle(attempt);
+				}
+			}
+		}
+	}
+	
+
+	/**
+	 * Adds the given Object, discarding the earliest Objects on this Queue 
+	 * until there is room for it.
+	 *
+	 * @param object The Object to add
+	**/
+	
+	private void addDiscardingEarliest(Object object)
+	{
+		do
+		{
+			poll();
+		}
+		while (! offer(object));
+	}
+	
+
+	/**
+	 * Returns the next available Object on this Queue without removing it, 
+	 * or null if no Object is available. If there are other consumers, the
+	 * Object may have been removed by the time this method returns.
+	 * 
+	 * @return The next available Object on this Queue, or null if no Object 
+	 * 		is available
+	**/
+	
+	public Object get()
+	{
+		Object result = null;
+		
+		long position = fHead.get();
+		int index = (int) position & fMask;
+		
+		if (fSequences.get(index) == position + 1)
+		{
+			result = fBuffer[index];
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns the next available Object on this Queue without removing it. 
+	 * If there is no Object available, then this method waits until one 
+	 * becomes available or this Queue is unblocked (in which case the result
+	 * is null).
+	 * 
+	 * @return The next available Object on this Queue, or null
+	 * @throws InterruptedException if this method waits and then is 
+	 * 		interrupted
+	**/
+	
+	public Object blockingGet() throws InterruptedException
+	{
+		WaitStrategy strategy = fWaitStrategy;
+		Object result = get();
+		
+		for (int attempt = 0; result == null; attempt++)
+		{
+			if (fUnblocked)
+			{
+				fUnblocked = false;
+				
+				break;
+			}
+			
+			strategy.idle(attempt);
+			
+			result = get();
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Removes the next available Object on this Queue, and returns it. If no 
+	 * Object is available, returns null.
+	 *
+	 * @return The next available Object on this Queue, or null if no Object 
+	 * 		is available
+	**/
+	
+	public Object remove()
+	{
+		return (poll());
+	}
+	
+
+	/**
+	 * Removes the next available Object on this Queue, and returns it. If no
+	 * Object is available, then this method waits until one becomes available 
+	 * or this Queue is unblocked (in which case the result is null).
+	 *
+	 * @return The next available Object on this Queue, or null
+	 * @throws InterruptedException if this method waits and then is 
+	 * 		interrupted
+	**/
+	
+	public Object blockingRemove() throws InterruptedException
+	{
+		WaitStrategy strategy = fWaitStrategy;
+		Object result = poll();
+		
+		for (int attempt = 0; result == null; attempt++)
+		{
+			if (fUnblocked)
+			{
+				fUnblocked = false;
+				
+				break;
+			}
+			
+			strategy.idle(attempt);
+			
+			result = poll();
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Removes up to the given number of available Objects from this Queue, 
+	 * in order, and adds them to the given Collection. A single consumer 
+	 * claims all of the Objects with one update of the head of the Queue.
+	 * 
+	 * @param collection The Collection to which to add the removed Objects
+	 * @param maxObjects The maximum number of Objects to remove
+	 * @return The number of Objects removed
+	**/
+	
+	public int drainTo(Collection collection, int maxObjects)
+	{
+		int result = 0;
+		
+		if (fMultipleConsumers || 
+			fOverflowPolicy == OverflowPolicy.KEEP_LATEST)
+		{
+			Object object;
+			
+			while (result < maxObjects && (object = poll()) != null)
+			{
+				collection.add(object);
+				result++;
+			}
+		}
+		else
+		{
+			long position = fHead.get();
+			
+			while (result < maxObjects)
+			{
+				int index = (int) position & fMask;
+				
+				if (fSequences.get(index) != position + 1)
+				{
+					break;
+				}
+				
+				collection.add(fBuffer[index]);
+				
+				fBuffer[index] = null;
+				fSequences.lazySet(index, position + fBuffer.length);
+				
+				position++;
+				result++;
+			}
+			
+			fHead.lazySet(position);
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Removes all available Objects from this Queue and adds them to the 
+	 * given Collection.
+	 * 
+	 * @param collection The Collection to which to add the removed Objects
+	 * @return The number of Objects removed
+	**/
+	
+	public int drainTo(Collection collection)
+	{
+		return (drainTo(collection, Integer.MAX_VALUE));
+	}
+	
+
+	/**
+	 * Returns the number of Objects currently in this Queue. 
+	 * 
+	 * @return The number of Objects currently in this Queue 
+	**/
+	
+	public int size()
+	{
+		long head = fHead.get();
+		long result = fTail.get() - head;
+		
+		if (result < 0)
+		{
+			result = 0;
+		}
+		else if (result > fBuffer.length)
+		{
+			result = fBuffer.length;
+		}
+		
+		return ((int) result);
+	}
+	
+
+	/**
+	 * Returns true if this Queue is currently empty, false otherwise. 
+	 * 
+	 * @return True if this Queue is currently empty, false otherwise 
+	**/
+	
+	public boolean isEmpty()
+	{
+		return (size() == 0);
+	}
+	
+
+	/**
+	 * If this Queue is not currently empty, then this method waits until 
+	 * this Queue becomes empty or is unblocked.
+	 *
+	 * @throws InterruptedException if this method waits and then is 
+	 * 		interrupted
+	**/
+	
+	public void blockUntilEmpty() throws InterruptedException
+	{
+		WaitStrategy strategy = fWaitStrategy;
+		
+		for (int attempt = 0; ! isEmpty() && ! fUnblocked; attempt++)
+		{
+			strategy.idle(attempt);
+		}
+		
+		fUnblocked = false;
+	}
+	
+
+	/**
+	 * Clears all Objects from this Queue.
+	**/
+	
+	public void clear()
+	{
+		while (poll() != null)
+		{
+			// Discard the Object.
+		}
+	}
+	
+
+	/**
+	 * Unblocks any blocked methods of this Queue.
+	**/
+	
+	public void unblock()
+	{
+		fUnblocked = true;
+	}
+	
+
+	/**
+	 * Returns the maximum number of Objects this Queue can hold.
+	 * 
+	 * @return The capacity of this Queue
+	**/
+	
+	public int getCapacity()
+	{
+		return (fBuffer.length);
+	}
+	
+
+	/**
+	 * Returns the OverflowPolicy of this Queue.
+	 * 
+	 * @return The OverflowPolicy of this Queue
+	**/
+	
+	public OverflowPolicy getOverflowPolicy()
+	{
+		return (fOverflowPolicy);
+	}
+	
+
+	/**
+	 * Sets the OverflowPolicy of this Queue.
+	 * 
+	 * @param policy The new OverflowPolicy of this Queue
+	 * @throws IllegalArgumentException if the given policy is null
+	**/
+	
+	public void setOverflowPolicy(OverflowPolicy policy)
+	{
+		if (policy == null)
+		{
+			String message = "OverflowPolicy cannot be null";
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fOverflowPolicy = policy;
+	}
+	
+
+	/**
+	 * Returns the WaitStrategy of this Queue.
+	 * 
+	 * @return The WaitStrategy of this Queue
+	**/
+	
+	public WaitStrategy getWaitStrategy()
+	{
+		return (fWaitStrategy);
+	}
+	
+
+	/**
+	 * Sets the WaitStrategy used by the blocking methods of this Queue.
+	 * 
+	 * @param strategy The new WaitStrategy of this Queue
+	 * @throws IllegalArgumentException if the given strategy is null
+	**/
+	
+	public void setWaitStrategy(WaitStrategy strategy)
+	{
+		if (strategy == null)
+		{
+			String message = "WaitStrategy cannot be null";
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fWaitStrategy = strategy;
+	}
+	
+
+	/**
+	 * Returns a String representation of this Queue.
+	 * 
+	 * @return A String representation of this Queue
+	**/
+	
+	public String toString()
+	{
+		StringBuffer result = new StringBuffer(getClass().getName());
+		
+		result.append(" size: " + size());
+		result.append(", capacity: " + getCapacity());
+		result.append(", policy: " + fOverflowPolicy);
+		result.append(", wait: " + fWaitStrategy);
+		
+		return (result.toString());
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -21,6 +21,8 @@
 
 package gov.nasa.gsfc.commons.types.queues;
 
+import java.util.Collection;
+
 
 /**
  * A thread safe queue that blocks accessing threads on
@@ -51,7 +53,8 @@ package gov.nasa.gsfc.commons.types.queues;
  * @version $Date: 2005/10/21 20:19:57 $
  * @author Troy Ames
  */
-public class KeepOptionalBoundedQueue extends BoundedFifoQueue
+public class KeepOptionalBoundedQueue extends BoundedFifoQueue 
+	implements BoundedQueue
 {
 	private static final int KEEP_ALL = 0;
 	private static final int KEEP_LATEST = 1;
@@ -212,6 +215,76 @@ public class KeepOptionalBoundedQueue extends BoundedFifoQueue
 	{
 		fKeepMode = KEEP_EARLIEST;
 	}
+
+	/**
+	 * Returns the OverflowPolicy corresponding to the current keep mode.
+	 * 
+	 * @return The OverflowPolicy of the Queue
+	 */
+	public synchronized OverflowPolicy getOverflowPolicy()
+	{
+		OverflowPolicy result = OverflowPolicy.KEEP_ALL;
+		
+		if (fKeepMode == KEEP_LATEST)
+		{
+			result = OverflowPolicy.KEEP_LATEST;
+		}
+		else if (fKeepMode == KEEP_EARLIEST)
+		{
+			result = OverflowPolicy.KEEP_EARLIEST;
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Sets the keep mode corresponding to the given OverflowPolicy.
+	 * 
+	 * @param policy The new OverflowPolicy of the Queue
+	 * @throws IllegalArgumentException if the given policy is null
+	 */
+	public synchronized void setOverflowPolicy(OverflowPolicy policy)
+	{
+		if (policy == OverflowPolicy.KEEP_ALL)
+		{
+			setKeepAll();
+		}
+		else if (policy == OverflowPolicy.KEEP_LATEST)
+		{
+			setKeepLatest();
+		}
+		else if (policy == OverflowPolicy.KEEP_EARLIEST)
+		{
+			setKeepEarliest();
+		}
+		else
+		{
+			String message = "Unsupported OverflowPolicy: " + policy;
+			
+			throw (new IllegalArgumentException(message));
+		}
+	}
+
+	/**
+	 * Removes up to the given number of Objects from the Queue, in order, 
+	 * and adds them to the given Collection.
+	 * 
+	 * @param collection The Collection to which to add the removed Objects
+	 * @param maxObjects The maximum number of Objects to remove
+	 * @return The number of Objects removed
+	 */
+	public synchronized int drainTo(Collection collection, int maxObjects)
+	{
+		int result = 0;
+		
+		while (result < maxObjects && fCount > 0)
+		{
+			collection.add(remove());
+			result++;
+		}
+		
+		return (result);
+	}
 }
 
 //--- Development History -----------------------------------------------------
@@ -0,0 +1,133 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.queues;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import gov.nasa.gsfc.commons.types.namespaces.AbstractNamedObject;
+
+
+/**
+ * An OverflowPolicy enumerates what a {@link BoundedQueue} does when an 
+ * Object is added to it while it is full.
+ * <ul>
+ * <li>{@link #KEEP_ALL}: <code>add</code> fails and <code>blockingAdd</code>
+ * 		waits until there is room.</li>
+ * <li>{@link #KEEP_LATEST}: the earliest Object in the Queue is discarded
+ * 		to make room, and neither method fails or waits.</li>
+ * <li>{@link #KEEP_EARLIEST}: the new Object is discarded; <code>add</code> 
+ * 		fails and <code>blockingAdd</code> returns without waiting.</li>
+ * </ul>
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$ 
+ * @author $Author$ 
+**/
+
+public class OverflowPolicy extends AbstractNamedObject 
+	implements Serializable
+{
+	/**
+	 * All known OverflowPolicies, keyed by name.
+	**/
+	// NB: For initialization sequence, this has to come before any 
+	// OverflowPolicy constants.
+	private static Map sPolicies = new HashMap();
+	
+	public static final OverflowPolicy KEEP_ALL = 
+		new OverflowPolicy("keepAll");
+	public static final OverflowPolicy KEEP_LATEST = 
+		new OverflowPolicy("keepLatest");
+	public static final OverflowPolicy KEEP_EARLIEST = 
+		new OverflowPolicy("keepEarliest");
+	
+
+	/**
+	 * Constructs a new OverflowPolicy having the given name.
+	 *
+	 * @param name The name of the new OverflowPolicy
+	**/
+	
+	protected OverflowPolicy(String name)
+	{
+		super(name);
+		
+		sPolicies.put(name, this);
+	}
+	
+
+	/**
+	 *  Returns a String representation of this OverflowPolicy.
+	 *
+	 *  @return A String representation of this OverflowPolicy
+	**/
+	
+	public String toString()
+	{
+		return (getName());
+	}
+	
+
+	/**
+	 * Returns the OverflowPolicy corresponding to the given OverflowPolicy 
+	 * name.
+	 *
+	 * @param The name of the desired OverflowPolicy
+	 * @return The OverflowPolicy that has the given name (if any)
+	**/
+	
+	public static OverflowPolicy forName(String name)
+	{
+		OverflowPolicy result = (OverflowPolicy) sPolicies.get(name);
+		
+		return (result);
+	}
+	
+
+	/**
+	 * This method supports serialization.
+	 *
+	**/
+	
+	public Object readResolve() throws ObjectStreamException
+	{
+		String name = getName();
+		
+		if (! sPolicies.containsKey(name))
+		{
+			sPolicies.put(name, this);
+		}
+		
+		return ((OverflowPolicy) sPolicies.get(name));
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,159 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.queues;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ *  QueueFactory creates the Queues of hot paths that can be switched to a 
+ *  lock-free {@link ConcurrentArrayQueue} by configuration. Each such Queue 
+ *  is named by a system property whose value is the queue type: 
+ *  "spsc", "mpsc" or "mpmc". If the property is not set, the Queue supplied 
+ *  by the caller is used. The optional properties 
+ *  <code>&lt;name&gt;.capacity</code> and <code>&lt;name&gt;.wait</code> 
+ *  give the capacity (default {@link #DEFAULT_CAPACITY}) and the name of 
+ *  the {@link WaitStrategy} (default "park").
+ *  
+ *  <p>For example, 
+ *  <code>-Dgov.nasa.gsfc.irc.data.DefaultBasisRequester.queue=mpsc</code>
+ *  switches the satisfied request queues of DefaultBasisRequesters.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center,
+ *  Code 580 for the Instrument Remote Control (IRC) project.
+ *
+ *  @version	$Date$
+ *  @author	$Author$
+**/
+
+public class QueueFactory
+{
+	private static final String CLASS_NAME = QueueFactory.class.getName();
+	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+	
+	public static final String SPSC_TYPE = "spsc";
+	public static final String MPSC_TYPE = "mpsc";
+	public static final String MPMC_TYPE = "mpmc";
+	
+	public static final String CAPACITY_SUFFIX = ".capacity";
+	public static final String WAIT_SUFFIX = ".wait";
+	
+	public static final int DEFAULT_CAPACITY = 4096;
+	
+
+	/**
+	 * Returns the Queue configured by the given system property, or the given 
+	 * default Queue if the property does not name a queue type.
+	 *
+	 * @param property The name of the system property
+	 * @param defaultQueue The Queue to use if none is configured
+	 * @return The configured Queue, or the given default Queue
+	**/
+	
+	public static Queue getQueue(String property, Queue defaultQueue)
+	{
+		Queue result = defaultQueue;
+		String type = System.getProperty(property);
+		
+		if (type != null)
+		{
+			try
+			{
+				int capacity = Integer.getInteger(property + CAPACITY_SUFFIX, 
+					DEFAULT_CAPACITY).intValue();
+				
+				WaitStrategy strategy = WaitStrategy.forName(
+					System.getProperty(property + WAIT_SUFFIX, 
+						WaitStrategy.PARK.getName()));
+				
+				if (strategy == null)
+				{
+					strategy = WaitStrategy.PARK;
+				}
+				
+				result = createQueue(type, capacity, 
+					OverflowPolicy.KEEP_ALL, strategy);
+			}
+			catch (IllegalArgumentException e)
+			{
+				if (sLogger.isLoggable(Level.WARNING))
+				{
+					String message = "Invalid queue configuration for " + 
+						property + ", using " + 
+						defaultQueue.getClass().getName();
+					
+					sLogger.logp(Level.WARNING, CLASS_NAME, "getQueue", 
+						message, e);
+				}
+			}
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Creates a new ConcurrentArrayQueue of the given type.
+	 *
+	 * @param type The queue type: "spsc", "mpsc" or "mpmc"
+	 * @param capacity The minimum capacity of the new Queue
+	 * @param policy The OverflowPolicy of the new Queue
+	 * @param strategy The WaitStrategy of the new Queue
+	 * @return The new Queue
+	 * @throws IllegalArgumentException if the type is unknown, the capacity 
+	 * 		is not positive, or the policy or strategy is null
+	**/
+	
+	public static ConcurrentArrayQueue createQueue(String type, int capacity, 
+		OverflowPolicy policy, WaitStrategy strategy)
+	{
+		ConcurrentArrayQueue result = null;
+		
+		if (SPSC_TYPE.equalsIgnoreCase(type))
+		{
+			result = new SpscArrayQueue(capacity, policy, strategy);
+		}
+		else if (MPSC_TYPE.equalsIgnoreCase(type))
+		{
+			result = new MpscArrayQueue(capacity, policy, strategy);
+		}
+		else if (MPMC_TYPE.equalsIgnoreCase(type))
+		{
+			result = new MpmcArrayQueue(capacity, policy, strategy);
+		}
+		else
+		{
+			String message = "Unknown queue type: " + type;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		return (result);
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
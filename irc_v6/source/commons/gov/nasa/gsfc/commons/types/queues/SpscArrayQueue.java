@@ -0,0 +1,74 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.queues;
+
+
+/**
+ *  A SpscArrayQueue is a lock-free, array-backed BoundedQueue for use by
+ *  exactly one producer thread and exactly one consumer thread.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center,
+ *  Code 580 for the Instrument Remote Control (IRC) project.
+ *
+ *  @version	$Date$
+ *  @author	$Author$
+**/
+
+public class SpscArrayQueue extends ConcurrentArrayQueue
+{
+	/**
+	 * Constructs a new SpscArrayQueue that keeps all Objects and parks while
+	 * it waits.
+	 *
+	 * @param capacity The minimum capacity of the new Queue
+	 * @throws IllegalArgumentException if the capacity is not positive
+	**/
+	
+	public SpscArrayQueue(int capacity)
+	{
+		this(capacity, OverflowPolicy.KEEP_ALL, WaitStrategy.PARK);
+	}
+	
+
+	/**
+	 * Constructs a new SpscArrayQueue having the given OverflowPolicy and 
+	 * WaitStrategy.
+	 *
+	 * @param capacity The minimum capacity of the new Queue
+	 * @param policy The OverflowPolicy of the new Queue
+	 * @param strategy The WaitStrategy of the new Queue
+	 * @throws IllegalArgumentException if the capacity is not positive or the 
+	 * 		policy or strategy is null
+	**/
+	
+	public SpscArrayQueue(int capacity, OverflowPolicy policy, 
+		WaitStrategy strategy)
+	{
+		super(capacity, false, false, policy, strategy);
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,170 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.queues;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import gov.nasa.gsfc.commons.types.namespaces.AbstractNamedObject;
+
+
+/**
+ * A WaitStrategy enumerates how a thread waits for a lock-free Queue to 
+ * change state, e.g. for an Object to become available. Every strategy 
+ * first spins briefly, since the wait is usually short.
+ * <ul>
+ * <li>{@link #PARK}: then parks for short, bounded intervals. Idle waiters 
+ * 		use little CPU, at the cost of some latency when the wait is 
+ * 		long.</li>
+ * <li>{@link #SPIN}: then keeps spinning, yielding the processor between 
+ * 		checks. This has the lowest latency but keeps a processor busy, so 
+ * 		it should only be used where a core can be dedicated to the 
+ * 		waiting thread.</li>
+ * </ul>
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$ 
+ * @author $Author$ 
+**/
+
+public class WaitStrategy extends AbstractNamedObject 
+	implements Serializable
+{
+	/**
+	 * The number of checks made before yielding or parking.
+	 */
+	private static final int SPIN_TRIES = 100;
+	
+	/**
+	 * The length of a single park.
+	 */
+	private static final long PARK_NANOS = 100000L;
+	
+	/**
+	 * All known WaitStrategies, keyed by name.
+	**/
+	// NB: For initialization sequence, this has to come before any 
+	// WaitStrategy constants.
+	private static Map sStrategies = new HashMap();
+	
+	public static final WaitStrategy PARK = new WaitStrategy("park");
+	public static final WaitStrategy SPIN = new WaitStrategy("spin");
+	
+
+	/**
+	 * Constructs a new WaitStrategy having the given name.
+	 *
+	 * @param name The name of the new WaitStrategy
+	**/
+	
+	protected WaitStrategy(String name)
+	{
+		super(name);
+		
+		sStrategies.put(name, this);
+	}
+	
+
+	/**
+	 * Waits once, according to this WaitStrategy, before the waiting thread
+	 * checks its condition again.
+	 *
+	 * @param attempt The number of times the thread has already waited
+	 * @throws InterruptedException if the thread has been interrupted
+	**/
+	
+	public void idle(int attempt) throws InterruptedException
+	{
+		if (Thread.interrupted())
+		{
+			throw (new InterruptedException());
+		}
+		
+		if (attempt >= SPIN_TRIES)
+		{
+			if (this == SPIN)
+			{
+				Thread.yield();
+			}
+			else
+			{
+				LockSupport.parkNanos(this, PARK_NANOS);
+			}
+		}
+	}
+	
+
+	/**
+	 *  Returns a String representation of this WaitStrategy.
+	 *
+	 *  @return A String representation of this WaitStrategy
+	**/
+	
+	public String toString()
+	{
+		return (getName());
+	}
+	
+
+	/**
+	 * Returns the WaitStrategy corresponding to the given WaitStrategy name.
+	 *
+	 * @param The name of the desired WaitStrategy
+	 * @return The WaitStrategy that has the given name (if any)
+	**/
+	
+	public static WaitStrategy forName(String name)
+	{
+		WaitStrategy result = (WaitStrategy) sStrategies.get(name);
+		
+		return (result);
+	}
+	
+
+	/**
+	 * This method supports serialization.
+	 *
+	**/
+	
+	public Object readResolve() throws ObjectStreamException
+	{
+		String name = getName();
+		
+		if (! sStrategies.containsKey(name))
+		{
+			sStrategies.put(name, this);
+		}
+		
+		return ((WaitStrategy) sStrategies.get(name));
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
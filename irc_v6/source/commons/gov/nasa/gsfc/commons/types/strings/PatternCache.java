@@ -0,0 +1,96 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.strings;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+
+/**
+ *  PatternCache holds the compiled Patterns of the most recently used regular
+ *  expressions, so that code that matches names against the same regular 
+ *  expression over and over compiles it only once. The least recently used 
+ *  Pattern is dropped when the cache is full.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version $Date$
+ *  @author $Author$
+ */
+public final class PatternCache
+{
+	public static final int CAPACITY = 256;
+	
+	private static final Map sPatterns = new LinkedHashMap(64, 0.75f, true)
+	{
+		protected boolean removeEldestEntry(Map.Entry eldest)
+		{
+			return (size() > CAPACITY);
+		}
+	};
+	
+	
+	/**
+	 *  Not instantiable.
+	 */
+	private PatternCache()
+	{
+	}
+	
+	/**
+	 *  Returns the compiled Pattern of the given regular expression.
+	 *
+	 *  @param regEx A regular expression
+	 *  @return The compiled Pattern of the given regular expression
+	 *  @throws java.util.regex.PatternSyntaxException if the regular 
+	 *  		expression is not valid
+	 */
+	public static Pattern getPattern(String regEx)
+	{
+		Pattern result = null;
+		
+		synchronized (sPatterns)
+		{
+			result = (Pattern) sPatterns.get(regEx);
+		}
+		
+		if (result == null)
+		{
+			result = Pattern.compile(regEx);
+			
+			synchronized (sPatterns)
+			{
+				sPatterns.put(regEx, result);
+			}
+		}
+		
+		return (result);
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,154 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.synchronization;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+
+/**
+ * A PaddedSequence is a monotonically increasing <code>long</code> counter
+ * that can be read, written, and compare-and-set atomically without locking.
+ * The counter is padded on both sides so that it occupies a cache line of its
+ * own, which keeps a producer updating one sequence from invalidating the
+ * cache line of a consumer updating another (false sharing).
+ * <p>
+ * This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ */
+public final class PaddedSequence extends PaddedSequenceValue
+{
+	// Right-hand padding; the left-hand padding is in the superclasses.
+	protected long p9, p10, p11, p12, p13, p14, p15;
+
+	/**
+	 * Constructs a new PaddedSequence with an initial value of 0.
+	 */
+	public PaddedSequence()
+	{
+		this(0L);
+	}
+
+	/**
+	 * Constructs a new PaddedSequence with the given initial value.
+	 *
+	 * @param initialValue The initial value of the sequence
+	 */
+	public PaddedSequence(long initialValue)
+	{
+		fValue = initialValue;
+	}
+
+	/**
+	 * Returns the current value of this sequence.
+	 *
+	 * @return The current value of this sequence
+	 */
+	public long get()
+	{
+		return (fValue);
+	}
+
+	/**
+	 * Sets this sequence to the given value.
+	 *
+	 * @param value The new value of this sequence
+	 */
+	public void set(long value)
+	{
+		fValue = value;
+	}
+
+	/**
+	 * Sets this sequence to the given value. The write is not immediately
+	 * visible to other threads but will not be reordered with prior writes,
+	 * which is sufficient for a single writer publishing progress.
+	 *
+	 * @param value The new value of this sequence
+	 */
+	public void lazySet(long value)
+	{
+		sUpdater.lazySet(this, value);
+	}
+
+	/**
+	 * Atomically sets this sequence to the given updated value if the current
+	 * value equals the expected value.
+	 *
+	 * @param expectedValue The expected current value
+	 * @param newValue The new value
+	 * @return True if successful, false if the current value was not equal to
+	 *         the expected value
+	 */
+	public boolean compareAndSet(long expectedValue, long newValue)
+	{
+		return (sUpdater.compareAndSet(this, expectedValue, newValue));
+	}
+
+	/**
+	 * Atomically adds the given amount to this sequence.
+	 *
+	 * @param increment The amount to add
+	 * @return The updated value of this sequence
+	 */
+	public long addAndGet(long increment)
+	{
+		return (sUpdater.addAndGet(this, increment));
+	}
+
+	/**
+	 * Returns a String representation of this PaddedSequence.
+	 *
+	 * @return A String representation of this PaddedSequence
+	 */
+	public String toString()
+	{
+		return (Long.toString(fValue));
+	}
+}
+
+/**
+ * Left-hand padding of a PaddedSequence.
+ */
+abstract class PaddedSequenceLeftPad
+{
+	protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+/**
+ * The value of a PaddedSequence, between its left and right padding.
+ */
+abstract class PaddedSequenceValue extends PaddedSequenceLeftPad
+{
+	static final AtomicLongFieldUpdater sUpdater =
+		AtomicLongFieldUpdater.newUpdater(PaddedSequenceValue.class, "fValue");
+
+	protected volatile long fValue;
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -63,6 +63,14 @@ import java.util.Iterator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import edu.emory.mathcs.backport.java.util.concurrent.ExecutionException;
+import edu.emory.mathcs.backport.java.util.concurrent.ExecutorService;
+import edu.emory.mathcs.backport.java.util.concurrent.Executors;
+import edu.emory.mathcs.backport.java.util.concurrent.Future;
+import edu.emory.mathcs.backport.java.util.concurrent.ThreadFactory;
+import edu.emory.mathcs.backport.java.util.concurrent.atomic.AtomicBoolean;
+import edu.emory.mathcs.backport.java.util.concurrent.atomic.AtomicInteger;
+
 import gov.nasa.gsfc.irc.components.description.ComponentDescriptor;
 import gov.nasa.gsfc.irc.data.BasisSet;
 import gov.nasa.gsfc.irc.data.DataSet;
@@ -73,6 +81,14 @@ import gov.nasa.gsfc.irc.data.DataSet;
  *  DataSet in order and independently, and releases each BasisSet after it has been 
  *  processed.
  *
+ *  <p>Subclasses whose work on a BasisSet divides into independent 
+ *  per-channel (typically per-DataBuffer) kernels can hand them to 
+ *  {@link #processChannels(int, ChannelKernel)}, which runs them on up to 
+ *  the configured parallelism of threads and returns only when all of them 
+ *  are done, so that the results can be made available in the same order 
+ *  as when run sequentially. The parallelism defaults to 1 and can be set 
+ *  per Processor as its "parallelism" property.
+ *
  *	<P>This code was developed for NASA, Goddard Space Flight Center, Code 580
  *	for the Instrument Remote Control (IRC) project.
  *
@@ -85,6 +101,98 @@ public abstract class BasisSetProcessor extends DefaultProcessor
 	private static final String CLASS_NAME = BasisSetProcessor.class.getName();
 	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
 	
+	/**
+	 * The number of chunks into which the channels are divided per worker, 
+	 * so that workers that finish early take over the remaining chunks.
+	 */
+	private static final int CHUNKS_PER_WORKER = 4;
+	
+	private static ExecutorService sExecutor;
+	
+	private int fParallelism = 1;
+	
+	
+	/**
+	 *  A ChannelKernel processes a single channel of the BasisSet currently 
+	 *  being processed. Kernels for different channels may run concurrently, 
+	 *  but each worker runs its channels one at a time, so state indexed by 
+	 *  worker need not be synchronized.
+	 */
+	
+	protected interface ChannelKernel
+	{
+		/**
+		 *  Processes the given channel on the given worker.
+		 * 
+		 *  @param channel The index of the channel to process
+		 *  @param worker The index of the worker, less than the number of 
+		 * 		workers returned by getNumberOfWorkers
+		 */
+		
+		public void processChannel(int channel, int worker);
+	}
+	
+	
+	/**
+	 *  Runs a share of the chunks of a call to processChannels. If a kernel 
+	 *  throws, the shared stop flag is set, so that no worker claims any 
+	 *  more chunks, and the exception is rethrown.
+	 */
+	
+	private static class ChunkRunner implements Runnable
+	{
+		private ChannelKernel fKernel;
+		private AtomicInteger fNextChunk;
+		private AtomicBoolean fStopped;
+		private int fNumChannels;
+		private int fNumChunks;
+		private int fWorker;
+		
+		ChunkRunner(ChannelKernel kernel, AtomicInteger nextChunk, 
+			AtomicBoolean stopped, int numChannels, int numChunks, int worker)
+		{
+			fKernel = kernel;
+			fNextChunk = nextChunk;
+			fStopped = stopped;
+			fNumChannels = numChannels;
+			fNumChunks = numChunks;
+			fWorker = worker;
+		}
+		
+		public void run()
+		{
+			try
+			{
+				int chunk = fNextChunk.getAndIncrement();
+				
+				while ((chunk < fNumChunks) && !fStopped.get())
+				{
+					int first = (int) ((long) fNumChannels * chunk / fNumChunks);
+					int last = (int) ((long) fNumChannels * (chunk + 1) / fNumChunks);
+					
+					for (int channel = first; channel < last; channel++)
+					{
+						fKernel.processChannel(channel, fWorker);
+					}
+					
+					chunk = fNextChunk.getAndIncrement();
+				}
+			}
+			catch (RuntimeException e)
+			{
+				fStopped.set(true);
+				
+				throw (e);
+			}
+			catch (Error e)
+			{
+				fStopped.set(true);
+				
+				throw (e);
+			}
+		}
+	}
+	
 	
 	/**
 	 *  Constructs a new BasisSetProcessor having the given base name. Note that 
@@ -128,6 +236,185 @@ public abstract class BasisSetProcessor extends DefaultProcessor
 	protected abstract void processBasisSet(BasisSet basisSet);
 	
 	
+	/**
+	 *  Sets the largest number of threads among which the channels of a 
+	 *  BasisSet are split by processChannels. A parallelism of 1 processes 
+	 *  every channel on the calling thread.
+	 * 
+	 *  @param parallelism The largest number of threads used per BasisSet
+	 *  @throws IllegalArgumentException if the given parallelism is less 
+	 * 		than 1
+	 **/
+
+	public void setParallelism(int parallelism)
+	{
+		if (parallelism < 1)
+		{
+			String message = "The parallelism must be at least 1: " 
+				+ parallelism;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fParallelism = parallelism;
+	}
+	
+	
+	/**
+	 *  Returns the largest number of threads among which the channels of a 
+	 *  BasisSet are split by processChannels.
+	 * 
+	 *  @return The largest number of threads used per BasisSet
+	 **/
+
+	public int getParallelism()
+	{
+		return (fParallelism);
+	}
+	
+	
+	/**
+	 *  Returns the number of workers among which processChannels will split 
+	 *  the given number of channels. Subclasses can use this to allocate 
+	 *  per-worker state before calling processChannels.
+	 * 
+	 *  @param numChannels The number of channels
+	 *  @return The number of workers, at least 1
+	 **/
+
+	protected int getNumberOfWorkers(int numChannels)
+	{
+		return (Math.max(1, Math.min(fParallelism, numChannels)));
+	}
+	
+	
+	/**
+	 *  Runs the given ChannelKernel for each of the given number of channels. 
+	 *  The channels are divided into contiguous chunks that the workers take 
+	 *  in turn, so that a worker held up by an expensive channel does not 
+	 *  hold up the rest; worker 0 runs on the calling thread and the others 
+	 *  on an ExecutorService shared by all BasisSetProcessors. This method 
+	 *  returns only when every worker has finished. If any kernel throws an 
+	 *  exception or Error, the workers stop claiming chunks, and the first 
+	 *  one thrown is rethrown once they have all finished.
+	 * 
+	 *  @param numChannels The number of channels to process
+	 *  @param kernel The ChannelKernel that processes each channel
+	 **/
+
+	protected void processChannels(int numChannels, ChannelKernel kernel)
+	{
+		int numWorkers = getNumberOfWorkers(numChannels);
+		
+		if (numWorkers == 1)
+		{
+			for (int channel = 0; channel < numChannels; channel++)
+			{
+				kernel.processChannel(channel, 0);
+			}
+		}
+		else
+		{
+			int numChunks = Math.min(numChannels, 
+				numWorkers * CHUNKS_PER_WORKER);
+			AtomicInteger nextChunk = new AtomicInteger(0);
+			AtomicBoolean stopped = new AtomicBoolean(false);
+			Future[] futures = new Future[numWorkers];
+			Throwable failure = null;
+			boolean interrupted = false;
+			
+			try
+			{
+				for (int i = 1; i < numWorkers; i++)
+				{
+					futures[i] = getExecutor().submit(new ChunkRunner(kernel, 
+						nextChunk, stopped, numChannels, numChunks, i));
+				}
+				
+				new ChunkRunner(kernel, nextChunk, stopped, numChannels, 
+					numChunks, 0).run();
+			}
+			catch (Throwable e)
+			{
+				failure = e;
+				
+				// Keep the other workers from starting any more chunks
+				stopped.set(true);
+			}
+			
+			// Always wait for every worker, since they share the kernel
+			for (int i = 1; (i < numWorkers) && (futures[i] != null); i++)
+			{
+				boolean done = false;
+				
+				while (!done)
+				{
+					try
+					{
+						futures[i].get();
+						done = true;
+					}
+					catch (InterruptedException e)
+					{
+						interrupted = true;
+					}
+					catch (ExecutionException e)
+					{
+						if (failure == null)
+						{
+							failure = e.getCause();
+						}
+						
+						done = true;
+					}
+				}
+			}
+			
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+			
+			if (failure instanceof Error)
+			{
+				throw ((Error) failure);
+			}
+			else if (failure != null)
+			{
+				throw ((RuntimeException) failure);
+			}
+		}
+	}
+	
+	
+	/**
+	 *  Returns the ExecutorService shared by all BasisSetProcessors to run 
+	 *  their channel workers, creating it if necessary.
+	 * 
+	 *  @return The shared ExecutorService
+	 **/
+
+	private static synchronized ExecutorService getExecutor()
+	{
+		if (sExecutor == null)
+		{
+			sExecutor = Executors.newCachedThreadPool(new ThreadFactory()
+			{
+				public Thread newThread(Runnable runnable)
+				{
+					Thread thread = new Thread(runnable, 
+						"BasisSetProcessor Worker");
+					thread.setDaemon(true);
+					
+					return (thread);
+				}
+			});
+		}
+		
+		return (sExecutor);
+	}
+	
+	
 	/**
 	 * Causes this BasisSetProcessor to process the given DataSet.
 	 * 
@@ -30,6 +30,7 @@ import gov.nasa.gsfc.irc.components.AbstractManagedComponent;
 import gov.nasa.gsfc.irc.components.description.ComponentDescriptor;
 import gov.nasa.gsfc.irc.data.BasisBundleId;
 import gov.nasa.gsfc.irc.data.BasisRequest;
+import gov.nasa.gsfc.irc.data.DownsamplingMode;
 import gov.nasa.gsfc.irc.data.DataRequestSatisfactionRuleType;
 import gov.nasa.gsfc.irc.data.DataRequester;
 import gov.nasa.gsfc.irc.data.DefaultDataRequester;
@@ -332,6 +333,65 @@ public class DefaultInput extends AbstractManagedComponent implements Input
 	{
 		return fDataRequester.getDownsamplingRate();
 	}
+	
+	/**
+	 * Sets the DownsamplingMode applied to all BasisSets received by this 
+	 * Input to the given mode.
+	 * 
+	 * @param downsamplingMode The DownsamplingMode of all BasisSets received 
+	 * 		by this Input
+	 */
+	public void setDownsamplingMode(DownsamplingMode downsamplingMode)
+	{
+		fDataRequester.setDownsamplingMode(downsamplingMode);
+	}
+	
+	/**
+	 * Gets the DownsamplingMode applied to all BasisSets received by this 
+	 * Input. 
+	 * 
+	 * @return The DownsamplingMode of this Input
+	 */
+	public DownsamplingMode getDownsamplingMode()
+	{
+		return fDataRequester.getDownsamplingMode();
+	}
+	
+	/**
+	 * Sets the DownsamplingMode applied to all BasisSets received by this 
+	 * Input to the mode having the given name (one of "first", "last", 
+	 * "mean", "min", "max", "envelope" or "rms"). This allows the mode to be 
+	 * given as a property in the descriptor of this Input.
+	 * 
+	 * @param modeName The name of the DownsamplingMode of all BasisSets 
+	 * 		received by this Input
+	 * @throws IllegalArgumentException if the given name is not the name of 
+	 * 		a DownsamplingMode
+	 */
+	public void setDownsamplingModeName(String modeName)
+	{
+		DownsamplingMode mode = DownsamplingMode.forName(modeName);
+		
+		if (mode == null)
+		{
+			String message = "Unknown downsampling mode: " + modeName;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		setDownsamplingMode(mode);
+	}
+	
+	/**
+	 * Gets the name of the DownsamplingMode applied to all BasisSets received 
+	 * by this Input. 
+	 * 
+	 * @return The name of the DownsamplingMode of this Input
+	 */
+	public String getDownsamplingModeName()
+	{
+		return getDownsamplingMode().getName();
+	}
 
 	/**
 	 * Causes this Input to start issuing and satisfying its Set of
@@ -25,8 +25,11 @@ import java.beans.PropertyVetoException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.StringTokenizer;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -51,7 +54,6 @@ import gov.nasa.gsfc.irc.components.description.ComponentSetDescriptor;
 import gov.nasa.gsfc.irc.data.BasisBundleFactory;
 import gov.nasa.gsfc.irc.data.BasisRequesterFactory;
 import gov.nasa.gsfc.irc.data.DataSpace;
-import gov.nasa.gsfc.irc.description.Descriptor;
 import gov.nasa.gsfc.irc.description.DescriptorException;
 import gov.nasa.gsfc.irc.description.DescriptorLibrary;
 import gov.nasa.gsfc.irc.description.DuplicateDescriptorNameException;
@@ -59,7 +61,6 @@ import gov.nasa.gsfc.irc.description.xml.LookupTable;
 import gov.nasa.gsfc.irc.devices.DeviceProxy;
 import gov.nasa.gsfc.irc.devices.description.DeviceDescriptor;
 import gov.nasa.gsfc.irc.devices.description.DeviceSetDescriptor;
-import gov.nasa.gsfc.irc.devices.description.RootDescriptor;
 import gov.nasa.gsfc.irc.gui.GuiFactory;
 import gov.nasa.gsfc.irc.messages.MessageFactory;
 import gov.nasa.gsfc.irc.messages.MessageValidator;
@@ -142,6 +143,11 @@ public class DefaultIrcManager implements IrcManager
 	private String DEFAULT_PLIST = "resources/configurations/irc.plist";
 
 	private ProgressDisplay fProgress;
+	
+	// Startup phase name -> Long elapsed milliseconds, in order
+	private LinkedHashMap fStartupPhaseTimes = new LinkedHashMap();
+	private String fStartupPhase = null;
+	private long fStartupPhaseStartTime = 0;
 
 	/**
 	 * Initialize the application based on the specified arguments. 
@@ -158,50 +164,42 @@ public class DefaultIrcManager implements IrcManager
 		fProgress = new ProgressDisplay(fGraphicsEnabled);
 
 		//---Process command line arguments
-		fProgress.setString("Processing command line arguments");
-		fProgress.setPercentComplete(0.0f);
+		beginStartupPhase("Processing command line arguments", 0.0f);
 		processArguments(argv);
 							
 		// Load preferences
-		fProgress.setString("Loading preferences");
-		fProgress.setPercentComplete(0.1f);
+		beginStartupPhase("Loading preferences", 0.1f);
 		loadPreferences();
 		
 		// Initialize global namespace
 		loadGlobalNamespace();
 		
 		//---Setup logging
-		fProgress.setString("Initializing logging");
-		fProgress.setPercentComplete(0.2f);
+		beginStartupPhase("Initializing logging", 0.2f);
 		initializeLogging();
 
 		//---Initialize typemap
-		fProgress.setString("Initializing type map");
-		fProgress.setPercentComplete(0.3f);
+		beginStartupPhase("Initializing type map", 0.3f);
 		loadTypeMap();
 
 		//---Find the component types
-		fProgress.setString("Loading Component Types");
-		fProgress.setPercentComplete(0.4f);
+		beginStartupPhase("Loading Component Types", 0.4f);
 		loadComponentTypes();
 
 		//---Get handle to descriptor library
 		//DescriptorLibrary library = DescriptorLibrary.getInstance();
 
 		//---Setup peer network interface
-		fProgress.setString("Initializing Peer Network");
-		fProgress.setPercentComplete(0.5f);
+		beginStartupPhase("Initializing Peer Network", 0.5f);
 		initializePeerNetwork();
 		
 		//---Setup this device interface
-		fProgress.setString("Initializing Device");
-		fProgress.setPercentComplete(0.6f);
+		beginStartupPhase("Initializing Device", 0.6f);
 		initializeDevice();
 				
 		//---Load the command procedures specified in the irc.plist and store them
 		//   in the descriptor library.
-		fProgress.setString("Loading Script Library");
-		fProgress.setPercentComplete(0.65f);
+		beginStartupPhase("Loading Script Library", 0.65f);
 		loadGeneralScripts();
 
 		//---Initialize the algorithm plugin bus
@@ -213,36 +211,62 @@ public class DefaultIrcManager implements IrcManager
 		//new PipelineRestorer();
 
 		//---Create the components as specified in a CML file
-		fProgress.setString("Loading Components");
-		fProgress.setPercentComplete(0.7f);
+		beginStartupPhase("Loading Components", 0.7f);
 		initializeComponents();
 
 		//---Handle startup script
-		fProgress.setString("Running Startup Script");
-		fProgress.setPercentComplete(0.8f);
+		beginStartupPhase("Running Startup Script", 0.8f);
 		runStartupScript();
 
 		//---Initialize GUI components if specified
-		fProgress.setString("Initializing GUI");
-		fProgress.setPercentComplete(0.9f);
+		beginStartupPhase("Initializing GUI", 0.9f);
 		initializeGui();
 
 		//---Initialize console UI if specified
-		fProgress.setString("Initializing Console");
+		beginStartupPhase("Initializing Console", 0.9f);
 		initializeConsoleInterface();
 
+		beginStartupPhase(null, 1.0f);
 		fProgress.setString("Startup Completed");
-		fProgress.setPercentComplete(1.0f);
 
 		if (sLogger.isLoggable(Level.INFO))
 		{
-			String message = "Startup completed...";
+			String message = "Startup completed in phases " + 
+				fStartupPhaseTimes + " ms";
 				
 			sLogger.logp(Level.INFO, CLASS_NAME, 
 				"main", message);
 		}
 	}
 	
+	/**
+	 * Ends the current startup phase, if any, recording the time it took, 
+	 * and begins the given one, reporting it as the current startup progress.
+	 *
+	 * @param phase the name of the phase to begin, or null if startup is done
+	 * @param percentComplete the fraction of startup completed so far
+	 */
+	private void beginStartupPhase(String phase, float percentComplete)
+	{
+		long now = System.currentTimeMillis();
+		
+		if (fStartupPhase != null)
+		{
+			fStartupPhaseTimes.put(fStartupPhase, 
+				new Long(now - fStartupPhaseStartTime));
+		}
+		
+		fStartupPhase = phase;
+		fStartupPhaseStartTime = now;
+		
+		if (phase != null)
+		{
+			fProgress.setString(phase);
+		}
+		
+		fProgress.setPercentComplete(percentComplete);
+	}
+	
 	/**
 	 * Add the device specified by the given descriptor. 
 	 *
@@ -308,49 +332,156 @@ public class DefaultIrcManager implements IrcManager
 	**/
 	public void addExternalDevice(URL url)
 	{
-		RootDescriptor rootDescriptor = null;
-		DescriptorFramework descriptorFramework = getDescriptorFramework();
+		Object rootDescriptor = 
+			loadDescription(getDescriptorFramework(), url, true);
+		
+		addExternalDevices(rootDescriptor);
+	}
 
-		try
+	/**
+	 * Add the devices specified by the given root descriptor.
+	 *
+	 * @param rootDescriptor a device or device set descriptor, or null
+	**/
+	private void addExternalDevices(Object rootDescriptor)
+	{
+		if (rootDescriptor instanceof DeviceSetDescriptor)
 		{
-			rootDescriptor = descriptorFramework.loadInstruments(url);
-			
-			if (rootDescriptor instanceof DeviceSetDescriptor)
-			{
-				
-				Iterator instruments = 
-					((DeviceSetDescriptor) rootDescriptor).getInstruments();
+			Iterator instruments = 
+				((DeviceSetDescriptor) rootDescriptor).getInstruments();
 
-				while (instruments.hasNext())
-				{
-					DeviceDescriptor descriptor = 
-						(DeviceDescriptor) instruments.next();
-					
-					addExternalDevice(descriptor);
-				}
-			}
-			else if (rootDescriptor instanceof DeviceDescriptor)
+			while (instruments.hasNext())
 			{
 				DeviceDescriptor descriptor = 
-					(DeviceDescriptor) rootDescriptor;
+					(DeviceDescriptor) instruments.next();
 				
 				addExternalDevice(descriptor);
 			}
 		}
+		else if (rootDescriptor instanceof DeviceDescriptor)
+		{
+			DeviceDescriptor descriptor = 
+				(DeviceDescriptor) rootDescriptor;
+			
+			addExternalDevice(descriptor);
+		}
+	}
+
+	/**
+	 * Loads the instrument (IML) or component (CML) description located at 
+	 * the specified URL. Errors are logged rather than thrown, so that a 
+	 * description that cannot be loaded does not stop the loading of others.
+	 *
+	 * @param descriptorFramework the DescriptorFramework to load with
+	 * @param url URL of the description
+	 * @param instruments true if the description is of instruments, false 
+	 * 		if it is of components
+	 * @return the root descriptor of the description, or null if it could 
+	 * 		not be loaded
+	**/
+	private Object loadDescription(DescriptorFramework descriptorFramework, 
+		URL url, boolean instruments)
+	{
+		Object result = null;
+		String kind = instruments ? "instrument" : "component";
+		
+		try
+		{
+			if (instruments)
+			{
+				result = descriptorFramework.loadInstruments(url);
+			}
+			else
+			{
+				result = descriptorFramework.loadComponentElement(url);
+			}
+		}
 		catch (DuplicateDescriptorNameException e)
 		{
-			String message = "Error adding instrument";
+			String message = "Error adding " + kind;
 			
 			sLogger.logp(Level.WARNING, CLASS_NAME, 
-				"addExternalDevice", message, e);
+				"loadDescription", message, e);
 		}
 		catch (DescriptorException e)
 		{
-			String message = "Error reading instrument description";
+			String message = "Error reading " + kind + " description";
 			
 			sLogger.logp(Level.WARNING, CLASS_NAME, 
-				"addExternalDevice", message, e);
+				"loadDescription", message, e);
+		}
+		catch (Exception e)
+		{
+			String message = "Error adding " + kind;
+			
+			sLogger.logp(Level.WARNING, CLASS_NAME, 
+				"loadDescription", message, e);
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Loads the descriptions located at the given URLs in turn, and returns 
+	 * their root descriptors in the same order. They are not loaded 
+	 * concurrently, since loading may change the shared state of the 
+	 * DescriptorFramework and the DescriptorLibrary.
+	 *
+	 * @param urls List of the URLs of the descriptions
+	 * @param instruments true if the descriptions are of instruments, false 
+	 * 		if they are of components
+	 * @return the root descriptors, with null for any description that 
+	 * 		could not be loaded
+	**/
+	private Object[] loadDescriptions(List urls, boolean instruments)
+	{
+		Object[] result = new Object[urls.size()];
+		DescriptorFramework descriptorFramework = getDescriptorFramework();
+		
+		for (int i = 0; i < result.length; i++)
+		{
+			result[i] = loadDescription(descriptorFramework, 
+				(URL) urls.get(i), instruments);
 		}
+		
+		return (result);
+	}
+
+	/**
+	 * Returns the URLs of the resources having the given comma-separated 
+	 * names. Names that cannot be found are logged and skipped.
+	 *
+	 * @param names comma-separated list of resource names
+	 * @return List of the URLs of the named resources
+	**/
+	private List getResources(String names)
+	{
+		List result = new ArrayList();
+		StringTokenizer tokenizer = new StringTokenizer(names, ",");
+		
+		while (tokenizer.hasMoreTokens())
+		{
+			String name = tokenizer.nextToken().trim();
+			
+			if (name.length() > 0)
+			{
+				URL url = Irc.getResourceManager().getResource(name);
+				
+				if (url != null)
+				{
+					result.add(url);
+				}
+				else if (sLogger.isLoggable(Level.WARNING))
+				{
+					String message = "Could not find description: " + name;
+					
+					sLogger.logp(Level.WARNING, CLASS_NAME, 
+						"getResources", message);
+				}
+			}
+		}
+		
+		return (result);
 	}
 
 	/**
@@ -396,54 +527,43 @@ public class DefaultIrcManager implements IrcManager
 	**/
 	public void addComponent(URL url)
 	{
-		//RootDescriptor rootDescriptor = null;
-		Descriptor rootDescriptor = null;
-		DescriptorFramework descriptorFramework = getDescriptorFramework();
-
-		try
-		{
-			rootDescriptor = descriptorFramework.loadComponentElement(url);
-			
+		Object rootDescriptor = 
+			loadDescription(getDescriptorFramework(), url, false);
+		Iterator descriptors = 
+			getComponentDescriptors(rootDescriptor).iterator();
 
-			if (rootDescriptor instanceof ComponentDescriptor)
-			{
-				addComponent((ComponentDescriptor) rootDescriptor);
-			}
-			else if (rootDescriptor instanceof ComponentSetDescriptor)
-			{
-				Iterator components = 
-					((ComponentSetDescriptor) rootDescriptor).getComponents();
-
-				while (components.hasNext())
-				{
-					ComponentDescriptor descriptor = 
-						(ComponentDescriptor) components.next();
-					
-					addComponent(descriptor);
-				}				
-			}
-		}
-		catch (DuplicateDescriptorNameException e)
+		while (descriptors.hasNext())
 		{
-			String message = "Error adding component";
-			
-			sLogger.logp(Level.WARNING, CLASS_NAME, 
-				"addComponent", message, e);
+			addComponent((ComponentDescriptor) descriptors.next());
 		}
-		catch (DescriptorException e)
+	}
+
+	/**
+	 * Returns the component descriptors of the given root descriptor.
+	 *
+	 * @param rootDescriptor a component or component set descriptor, or null
+	 * @return List of the component descriptors
+	**/
+	private List getComponentDescriptors(Object rootDescriptor)
+	{
+		List result = new ArrayList();
+		
+		if (rootDescriptor instanceof ComponentDescriptor)
 		{
-			String message = "Error reading component description";
-			
-			sLogger.logp(Level.WARNING, CLASS_NAME, 
-				"addComponent", message, e);
+			result.add(rootDescriptor);
 		}
-		catch (Exception e)
+		else if (rootDescriptor instanceof ComponentSetDescriptor)
 		{
-			String message = "Error adding component";
-			
-			sLogger.logp(Level.WARNING, CLASS_NAME, 
-				"addComponent", message, e);
+			Iterator components = 
+				((ComponentSetDescriptor) rootDescriptor).getComponents();
+
+			while (components.hasNext())
+			{
+				result.add(components.next());
+			}
 		}
+		
+		return (result);
 	}
 
 	/**
@@ -1016,21 +1136,33 @@ public class DefaultIrcManager implements IrcManager
 	}
 
 	/**
-	 * This method will instantiate the components from a CML file 
-	 * specified in the plist file.
+	 * This method will instantiate the components from the CML files 
+	 * specified in the plist file, in the order of the files and of the 
+	 * components within each file.
 	**/
 	protected synchronized void initializeComponents()
 	{
-		String cmlFilename = System.getProperty
+		String cmlFilenames = System.getProperty
 			(IrcPrefKeys.COMPONENT_DESCRIPTION);
 		
-		if (cmlFilename == null || cmlFilename.length() == 0)
+		if (cmlFilenames == null || cmlFilenames.length() == 0)
 		{
 			return;
 		}
 
-		URL cmlURL = Irc.getResource(cmlFilename);
-		addComponent(cmlURL);
+		Object[] rootDescriptors = 
+			loadDescriptions(getResources(cmlFilenames), false);
+		
+		for (int i = 0; i < rootDescriptors.length; i++)
+		{
+			Iterator descriptors = 
+				getComponentDescriptors(rootDescriptors[i]).iterator();
+			
+			while (descriptors.hasNext())
+			{
+				addComponent((ComponentDescriptor) descriptors.next());
+			}
+		}
 //		PipelineElementLibraryDescriptor peld = null;
 //
 //		try
@@ -1989,25 +2121,33 @@ public class DefaultIrcManager implements IrcManager
 	}
 	
 	/**
-	 * Loads the instrument specified by the preference key
-	 * {@link IrcPrefKeys#INSTRUMENT_DESCRIPTION INSTRUMENT_DESCRIPTION}.
+	 * Loads the instruments specified by the preference key
+	 * {@link IrcPrefKeys#INSTRUMENT_DESCRIPTION INSTRUMENT_DESCRIPTION}, 
+	 * which may name several comma-separated files. The devices are added, 
+	 * and started if they are to be started automatically, in the order of 
+	 * the files.
 	 */
 	protected synchronized void loadInstruments()
 	{
-		String filename = Irc.getPreference(IrcPrefKeys.INSTRUMENT_DESCRIPTION);
+		String filenames = Irc.getPreference(IrcPrefKeys.INSTRUMENT_DESCRIPTION);
 		
-		if(filename != null)
+		if(filenames != null)
 		{
 			if (sLogger.isLoggable(Level.INFO))
 			{
-				String message = "Loading instrument description:" + filename;
+				String message = "Loading instrument description:" + filenames;
 					
 				sLogger.logp(Level.INFO, CLASS_NAME, 
 					"initializeInstruments", message);
 			}
 
-			URL url = Irc.getResourceManager().getResource(filename);
-			addExternalDevice(url);
+			Object[] rootDescriptors = 
+				loadDescriptions(getResources(filenames), true);
+			
+			for (int i = 0; i < rootDescriptors.length; i++)
+			{
+				addExternalDevices(rootDescriptors[i]);
+			}
 		}
 	}
 	
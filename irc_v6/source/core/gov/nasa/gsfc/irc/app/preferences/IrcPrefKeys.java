@@ -36,7 +36,7 @@ public abstract class IrcPrefKeys extends PrefKeys
 
 	/** 
 	 * Name of property specifying the XML file used to define the 
-	 * available components 
+	 * available components, or a comma-separated list of such files 
 	 */
 	public static final String COMPONENT_DESCRIPTION = "irc.description.components";
 
@@ -46,7 +46,10 @@ public abstract class IrcPrefKeys extends PrefKeys
 	 */
 	public static final String CLIENT_DESCRIPTION = "irc.description.client";
 	
-	/** Name of property specifying the description used by this IRC Device */
+	/** 
+	 * Name of property specifying the description used by this IRC Device, 
+	 * or a comma-separated list of such descriptions 
+	 */
 	public static final String INSTRUMENT_DESCRIPTION = "irc.description.instrument";
 
 	/** XML file to use to define the instrument type mappings. **/
@@ -82,6 +85,12 @@ public abstract class IrcPrefKeys extends PrefKeys
 	 */
 	public static final String IRC_COMPONENT_AUTOSTART = "irc.component.autoStartEnabled";
 	
+	/** 
+	 * The flag to determine if Components should be started concurrently, in
+	 * waves by type, rather than in turn. Defaults to false.
+	 */
+	public static final String IRC_COMPONENT_PARALLEL_START = "irc.component.parallelStartEnabled";
+	
 	/** 
 	 * The flag to determine if the properties of Saveable components should
 	 * be loaded upon construction.
@@ -0,0 +1,261 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.components;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import gov.nasa.gsfc.commons.processing.activity.Startable;
+import gov.nasa.gsfc.commons.processing.tasks.BoundedTaskPool;
+import gov.nasa.gsfc.commons.processing.tasks.StagedTaskRunner;
+import gov.nasa.gsfc.irc.app.preferences.IrcPrefKeys;
+import gov.nasa.gsfc.irc.devices.DeviceProxy;
+import gov.nasa.gsfc.irc.devices.ports.Port;
+import gov.nasa.gsfc.irc.devices.ports.adapters.PortAdapter;
+import gov.nasa.gsfc.irc.devices.ports.connections.Connection;
+
+
+/**
+ * The ComponentStartupScheduler starts a Collection of Components in waves 
+ * and logs the time taken. It is only used if the property 
+ * {@link IrcPrefKeys#IRC_COMPONENT_PARALLEL_START} is set to true; by 
+ * default the component managers start each of their Components in turn, 
+ * while holding their configuration change lock.
+ * <p>
+ * The Components are started in waves: first Connections, 
+ * then the Adapters, Ports, and DeviceProxies that move data through them, 
+ * then all other (processing) Components, and finally GUI Components. The 
+ * Components of a wave are started concurrently on a shared 
+ * {@link BoundedTaskPool}, taken in the order of the Collection, except for
+ * GUI Components, which are started one at a time in that order. Components 
+ * do not declare what they depend upon, so the waves only follow their 
+ * types: Components of the same wave must not depend upon one another, and 
+ * must not need any monitor held by the Thread starting them.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.</p>
+ *
+ * @version	$Date$
+ * @author	$Author$
+ */
+public final class ComponentStartupScheduler
+{
+	private static final String[] WAVE_NAMES = 
+		{ "Connections", "Adapters", "Processors", "GUIs" };
+	
+	private static final int CONNECTION_WAVE = 0;
+	private static final int ADAPTER_WAVE = 1;
+	private static final int PROCESSOR_WAVE = 2;
+	private static final int GUI_WAVE = 3;
+	
+	private static final BoundedTaskPool sPool = new BoundedTaskPool(
+		"Component Startup", 0, 
+		Math.max(4, 2 * Runtime.getRuntime().availableProcessors()), 
+		BoundedTaskPool.DEFAULT_KEEP_ALIVE_MILLIS);
+	
+	
+	/**
+	 *	Prevents instantiation.
+	 */
+	
+	private ComponentStartupScheduler()
+	{
+	}
+	
+	
+	/**
+	 *	Returns true if Components are to be started in waves by this 
+	 *  scheduler, as set by the property 
+	 *  {@link IrcPrefKeys#IRC_COMPONENT_PARALLEL_START}.
+	 *
+	 *  @return True if parallel startup is enabled
+	 */
+	
+	public static boolean isParallelStartEnabled()
+	{
+		return (Boolean.valueOf(System.getProperty(
+			IrcPrefKeys.IRC_COMPONENT_PARALLEL_START)).booleanValue());
+	}
+	
+	
+	/**
+	 *	Starts the given Components in waves as described above.
+	 *  Members of the given Collection that are not Startable are ignored.
+	 *  If starting any Component throws an exception, later waves are not 
+	 *  started and the exception is rethrown. The rest of a concurrent wave 
+	 *  is still started, but the GUI Components following the one that 
+	 *  failed are not.
+	 *
+	 *  @param name The name under which to log the time taken
+	 *  @param components The Collection of Components to start
+	 */
+	
+	public static void startComponents(String name, Collection components)
+	{
+		List[] waves = new List[WAVE_NAMES.length];
+		
+		for (int i = 0; i < waves.length; i++)
+		{
+			waves[i] = new ArrayList();
+		}
+		
+		Iterator iterator = components.iterator();
+		
+		while (iterator.hasNext())
+		{
+			Object component = iterator.next();
+			
+			if (component instanceof Startable)
+			{
+				waves[getWave(component)].add(
+					new StartTask((Startable) component));
+			}
+		}
+		
+		StagedTaskRunner runner = new StagedTaskRunner(name, sPool);
+		
+		for (int i = 0; i < waves.length; i++)
+		{
+			if (waves[i].isEmpty())
+			{
+				continue;
+			}
+			
+			if (i != GUI_WAVE)
+			{
+				runner.runStage(WAVE_NAMES[i], waves[i]);
+			}
+			else
+			{
+				runSerially(runner, WAVE_NAMES[i], waves[i]);
+			}
+		}
+	}
+	
+	
+	/**
+	 *	Runs the given tasks in turn on the calling Thread, timed as a single 
+	 *  stage of the given StagedTaskRunner. Nothing is run or timed if there
+	 *  are no tasks.
+	 *
+	 *  @param runner The StagedTaskRunner timing the stage
+	 *  @param stage The name of the stage
+	 *  @param tasks The List of tasks to run
+	 */
+	
+	private static void runSerially(StagedTaskRunner runner, String stage, 
+		List tasks)
+	{
+		if (! tasks.isEmpty())
+		{
+			List serial = new ArrayList(1);
+			serial.add(new SerialTask(tasks));
+			
+			runner.runStage(stage, serial);
+		}
+	}
+	
+	
+	/**
+	 *	Returns the index of the wave in which the given Component should be 
+	 *  started.
+	 *
+	 *  @param component A Component
+	 *  @return The index of its startup wave
+	 */
+	
+	private static int getWave(Object component)
+	{
+		int result = PROCESSOR_WAVE;
+		
+		if (component instanceof Connection)
+		{
+			result = CONNECTION_WAVE;
+		}
+		else if ((component instanceof PortAdapter) || 
+			(component instanceof Port) || 
+			(component instanceof DeviceProxy))
+		{
+			result = ADAPTER_WAVE;
+		}
+		else if (component instanceof java.awt.Component)
+		{
+			result = GUI_WAVE;
+		}
+		
+		return (result);
+	}
+	
+	
+	/**
+	 *	A StartTask starts a single Component.
+	 */
+	
+	private static class StartTask implements Runnable
+	{
+		private final Startable fComponent;
+		
+		StartTask(Startable component)
+		{
+			fComponent = component;
+		}
+		
+		public void run()
+		{
+			fComponent.start();
+		}
+	}
+	
+	
+	/**
+	 *	A SerialTask runs a List of tasks in turn. If any task throws an 
+	 *  exception, the rest are not run.
+	 */
+	
+	private static class SerialTask implements Runnable
+	{
+		private final List fTasks;
+		
+		SerialTask(List tasks)
+		{
+			fTasks = tasks;
+		}
+		
+		public void run()
+		{
+			Iterator tasks = fTasks.iterator();
+			
+			while (tasks.hasNext())
+			{
+				((Runnable) tasks.next()).run();
+			}
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -24,7 +24,9 @@
 
 package gov.nasa.gsfc.irc.components;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -279,29 +281,55 @@ public class DefaultComponentNamespaceManager
 	
 	
 	/**
-	 *	Starts all of the Components managed by this ComponentNamespaceManager.
+	 *	Starts all of the Components managed by this ComponentNamespaceManager. By default 
+	 *  each Component is started in turn while the configuration change lock 
+	 *  is held. If parallel startup is enabled they are instead started 
+	 *  outside the lock, as scheduled by the {@link ComponentStartupScheduler}.
 	 *
 	 */
 	
 	public void startAllComponents()
 	{
-		synchronized (getConfigurationChangeLock())
+		if (! ComponentStartupScheduler.isParallelStartEnabled())
 		{
-			Iterator components = iterator();
-			
-			while (components.hasNext())
+			synchronized (getConfigurationChangeLock())
 			{
-				try
+				Iterator components = iterator();
+				
+				while (components.hasNext())
 				{
-					Startable component = (Startable) components.next();
-					
-					component.start();
+					try
+					{
+						Startable component = (Startable) components.next();
+						
+						component.start();
+					}
+					catch (ClassCastException ex)
+					{
+						
+					}
 				}
-				catch (ClassCastException ex)
+			}
+		}
+		else
+		{
+			List components = new ArrayList();
+			
+			// Start outside the lock, since Components started on other 
+			// Threads may need to change the configuration of this manager.
+			
+			synchronized (getConfigurationChangeLock())
+			{
+				Iterator members = iterator();
+				
+				while (members.hasNext())
 				{
-					
+					components.add(members.next());
 				}
 			}
+			
+			ComponentStartupScheduler.startComponents(
+				getFullyQualifiedName(), components);
 		}
 	}
 
@@ -39,6 +39,7 @@ import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
 import gov.nasa.gsfc.irc.data.events.BasisBundleEvent;
 import gov.nasa.gsfc.irc.data.events.BasisBundleListener;
 import gov.nasa.gsfc.irc.data.events.BasisSetEvent;
+import gov.nasa.gsfc.irc.data.events.SatisfiedRequestListener;
 
 
 /**
@@ -76,8 +77,10 @@ public abstract class AbstractBasisRequester implements BasisRequester
 	 */
 	private BasisBundleDescriptor fBasisBundleDescriptor;
 	private List fBasisBundleListeners = new CopyOnWriteArrayList();
+	private List fSatisfiedRequestListeners = new CopyOnWriteArrayList();
 	private Set fDataBufferSubset;
 	private int fDownsamplingRate = 0;
+	private DownsamplingMode fDownsamplingMode = DownsamplingMode.FIRST;
 	
 	/**
 	 * Default constructor for derivations.
@@ -217,6 +220,7 @@ public abstract class AbstractBasisRequester implements BasisRequester
 		}
 
 		fDownsamplingRate = basisRequest.getDownsamplingRate();
+		fDownsamplingMode = basisRequest.getDownsamplingMode();
 
 		fBasisBundle = 
 			Irc.getDataSpace().getBasisBundle(basisBundleId);
@@ -247,7 +251,8 @@ public abstract class AbstractBasisRequester implements BasisRequester
 	/**
 	 * Downsample the given basis set if the BasisRequest requests it, otherwise
 	 * returns the original basis set unmodified. The original basis set is
-	 * released if downsampling is performed.
+	 * released if downsampling is performed. Each group of samples is reduced
+	 * as specified by the current DownsamplingMode.
 	 * 
 	 * @param basisSet the basisSet to downsample.
 	 * @return a downsampled basis set or the original basis set.
@@ -261,7 +266,7 @@ public abstract class AbstractBasisRequester implements BasisRequester
 			if (fDownsamplingRate < basisSet.getSize())
 			{
 				BasisSet subsampledData = 
-					basisSet.downsample(fDownsamplingRate);
+					basisSet.downsample(fDownsamplingRate, fDownsamplingMode);
 				
 				// We no longer need the original so release it
 				basisSet.release();
@@ -293,6 +298,34 @@ public abstract class AbstractBasisRequester implements BasisRequester
 		return (fDownsamplingRate);
 	}
 
+	/**
+	 * Sets the DownsamplingMode of this BasisRequester to the given mode. If
+	 * the given mode is null the mode is set to {@link DownsamplingMode#FIRST}.
+	 * 
+	 * @param downsamplingMode The DownsamplingMode of this BasisRequester
+	 */
+	public void setDownsamplingMode(DownsamplingMode downsamplingMode)
+	{
+		if (downsamplingMode == null)
+		{
+			fDownsamplingMode = DownsamplingMode.FIRST;
+		}
+		else
+		{
+			fDownsamplingMode = downsamplingMode;
+		}
+	}
+
+	/**
+	 * Gets the DownsamplingMode of this BasisRequester.
+	 * 
+	 * @return The DownsamplingMode of this BasisRequester
+	 */
+	public DownsamplingMode getDownsamplingMode()
+	{
+		return (fDownsamplingMode);
+	}
+
 	/**
 	 * Returns true if the basis request specifies downsampling, otherwise
 	 * returns false.
@@ -645,6 +678,47 @@ public abstract class AbstractBasisRequester implements BasisRequester
 	{
 		fBasisBundleListeners.remove(listener);
 	}	
+	
+	/**
+	 * Alerts each of the current SatisfiedRequestListeners of this 
+	 * BasisRequester that a satisfying BasisSet has become available. 
+	 * Subclasses must call this each time they queue a satisfying BasisSet.
+	 */
+	protected void alertSatisfiedRequestListeners()
+	{
+		for (Iterator iter = fSatisfiedRequestListeners.iterator(); 
+			iter.hasNext();)
+		{
+			((SatisfiedRequestListener) iter.next()).
+				receiveSatisfiedRequest(this);
+		}
+	}
+
+	/**
+	 * Adds the given SatisfiedRequestListener as a listener for newly 
+	 * satisfied BasisRequests of this BasisRequester.
+	 *
+	 * @param listener A SatisfiedRequestListener
+	 **/
+	public void addSatisfiedRequestListener(SatisfiedRequestListener listener)
+	{
+		if (! isKilled())
+		{
+			fSatisfiedRequestListeners.add(listener);
+		}
+	}
+	
+	/**
+	 * Removes the given SatisfiedRequestListener as a listener for newly 
+	 * satisfied BasisRequests of this BasisRequester.
+	 *
+	 * @param listener A SatisfiedRequestListener
+	 **/
+	public void removeSatisfiedRequestListener(
+		SatisfiedRequestListener listener)
+	{
+		fSatisfiedRequestListeners.remove(listener);
+	}	
 }
 
 //--- Development History  ---------------------------------------------------
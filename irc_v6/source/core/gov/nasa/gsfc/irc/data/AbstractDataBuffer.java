@@ -30,6 +30,7 @@ import java.nio.ReadOnlyBufferException;
 
 import org.jscience.physics.units.Unit;
 
+import gov.nasa.gsfc.commons.numerics.math.calculations.StreamingMoments;
 import gov.nasa.gsfc.commons.numerics.types.Pixel;
 import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
 
@@ -55,6 +56,21 @@ public abstract class AbstractDataBuffer implements DataBuffer
 	protected int fArrayLength = 0;
 	
 	protected int fBufferLength = 0;
+	
+	// Number of samples aggregated per bulk get when downsampling
+	private static final int DOWNSAMPLING_CHUNK_SIZE = 4096;
+	
+	// Number of samples copied per bulk get when calculating statistics
+	private static final int STATISTICS_CHUNK_SIZE = 4096;
+	
+	// Per-thread moments and chunk reused when calculating statistics
+	private static final ThreadLocal sStatisticsWorkspaces = new ThreadLocal()
+	{
+		protected Object initialValue()
+		{
+			return (new StatisticsWorkspace());
+		}
+	};
 
 	private Class fDataType;
 	
@@ -276,6 +292,199 @@ public abstract class AbstractDataBuffer implements DataBuffer
 		return index;
 	}
 
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.irc.data.DataBuffer#get(int, double[], int, int)
+	 */
+	public DataBuffer get(
+		int index, double[] destination, int destinationIndex, int length)
+	{
+		if ((index < 0) || (length < 0) || (index + length > fBufferLength)
+			|| (destinationIndex < 0) 
+			|| (destinationIndex + length > destination.length))
+		{
+			throw new IndexOutOfBoundsException();
+		}
+		
+		if (length > 0)
+		{
+			int start = resolveIndex(index);
+			int tailLength = fArrayLength - start;
+			
+			if (length > tailLength)
+			{
+				// Handle part at the end of native array, then the part that
+				// wraps around to the beginning of native array.
+				copyAsDoubles(start, destination, destinationIndex, tailLength);
+				copyAsDoubles(0, destination, destinationIndex + tailLength, 
+					length - tailLength);
+			}
+			else
+			{
+				copyAsDoubles(start, destination, destinationIndex, length);
+			}
+		}
+		
+		return (this);
+	}
+	
+	/**
+	 * Copies the given number of elements of the underlying array, starting 
+	 * at the given absolute index, into the given array of doubles. The range
+	 * has already been checked and does not wrap around the end of the
+	 * underlying array.
+	 * 
+	 * @param arrayIndex The absolute index in the underlying array of the 
+	 * 		first element to copy
+	 * @param destination The array into which elements are to be written
+	 * @param destinationIndex The index in the array of the first element 
+	 * 		written
+	 * @param length The number of elements to copy
+	 */
+	abstract void copyAsDoubles(
+		int arrayIndex, double[] destination, int destinationIndex, int length);
+
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.irc.data.DataBuffer#downsample(int, gov.nasa.gsfc.irc.data.DownsamplingMode)
+	 */
+	public DataBuffer downsample(int downsamplingRate, DownsamplingMode mode)
+	{
+		DataBuffer result;
+		
+		if ((mode == null) || (mode == DownsamplingMode.FIRST) 
+			|| (downsamplingRate <= 1))
+		{
+			result = downsample(downsamplingRate);
+		}
+		else if (downsamplingRate <= fBufferLength)
+		{
+			int numGroups = fBufferLength / downsamplingRate;
+			int groupsPerChunk = 
+				Math.max(1, DOWNSAMPLING_CHUNK_SIZE / downsamplingRate);
+			double[] chunk = 
+				new double[Math.min(numGroups, groupsPerChunk) * downsamplingRate];
+			double[] values = new double[numGroups * mode.getSamplesPerGroup()];
+			int numValues = 0;
+			
+			// Pull whole groups out of the native array a chunk at a time and
+			// reduce each group as soon as it is available.
+			for (int group = 0; group < numGroups; group += groupsPerChunk)
+			{
+				int groups = Math.min(groupsPerChunk, numGroups - group);
+				
+				get(group * downsamplingRate, chunk, 0, groups * downsamplingRate);
+				
+				for (int i = 0, start = 0; i < groups; 
+					i++, start += downsamplingRate)
+				{
+					numValues = reduceGroup(
+						chunk, start, downsamplingRate, mode, values, numValues);
+				}
+			}
+			
+			result = DataBufferFactory.getInstance().createDataBuffer(
+				getDescriptor(), numValues);
+			result.put(0, values, 0, numValues);
+		}
+		else
+		{
+			String message = "The given downsampling rate (" + 
+				downsamplingRate + 
+				" exceeds the capacity of this DataBuffer:\n" + this;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Reduces the given group of samples as specified by the given 
+	 * DownsamplingMode and stores the result in the given array of values. 
+	 * NaN samples are ignored by the aggregates.
+	 * 
+	 * @param samples The array holding the group
+	 * @param start The index of the first sample of the group
+	 * @param length The number of samples in the group
+	 * @param mode The DownsamplingMode to apply
+	 * @param values The array into which the result is stored
+	 * @param index The index in values of the first value stored
+	 * @return The index in values following the last value stored
+	 */
+	private static int reduceGroup(double[] samples, int start, int length, 
+		DownsamplingMode mode, double[] values, int index)
+	{
+		if (mode == DownsamplingMode.LAST)
+		{
+			values[index++] = samples[start + length - 1];
+		}
+		else
+		{
+			int count = 0;
+			double sum = 0;
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			int minIndex = -1;
+			int maxIndex = -1;
+			
+			for (int i = start, end = start + length; i < end; i++)
+			{
+				double value = samples[i];
+				
+				if (!Double.isNaN(value))
+				{
+					count++;
+					sum += (mode == DownsamplingMode.RMS) ? value * value : value;
+					
+					if (value < min)
+					{
+						min = value;
+						minIndex = i;
+					}
+					
+					if (value > max)
+					{
+						max = value;
+						maxIndex = i;
+					}
+				}
+			}
+			
+			if (count == 0)
+			{
+				min = Double.NaN;
+				max = Double.NaN;
+				sum = Double.NaN;
+			}
+			
+			if (mode == DownsamplingMode.MEAN)
+			{
+				values[index++] = sum / count;
+			}
+			else if (mode == DownsamplingMode.RMS)
+			{
+				values[index++] = Math.sqrt(sum / count);
+			}
+			else if (mode == DownsamplingMode.MINIMUM)
+			{
+				values[index++] = min;
+			}
+			else if (mode == DownsamplingMode.MAXIMUM)
+			{
+				values[index++] = max;
+			}
+			else
+			{
+				// Keep the extremes in the order they occurred
+				boolean minFirst = (minIndex <= maxIndex);
+				
+				values[index++] = minFirst ? min : max;
+				values[index++] = minFirst ? max : min;
+			}
+		}
+		
+		return (index);
+	}
+
 	/* (non-Javadoc)
 	 * @see gov.nasa.gsfc.irc.data.DataBuffer#getDescriptor()
 	 */
@@ -349,46 +558,68 @@ public abstract class AbstractDataBuffer implements DataBuffer
 	public void recalculateStatistics()
 	{
 		int numSamples = fBufferLength;
-		fNumSamplesInStatistics = numSamples;
+		StatisticsWorkspace workspace = 
+			(StatisticsWorkspace) sStatisticsWorkspaces.get();
+		StreamingMoments moments = workspace.fMoments;
 		
-		double sum = 0;
+		moments.clear();
 		
-		for (int i = 0; i < numSamples; i++)
+		// One pass over the samples, in at most two segments of the native
+		// array, one on either side of the point at which it wraps around
+		if (numSamples > 0)
 		{
-			double value = getAsDouble(i);
+			int start = resolveIndex(0);
+			int tailLength = fArrayLength - start;
 			
-			if (value != Double.NaN)
+			if (numSamples > tailLength)
 			{
-				sum += value;
-				
-				if (value < fMinValue)
-				{
-					fMinValue = value;
-					fMinValueIndex = i;
-				}
-				
-				if (value > fMaxValue)
-				{
-					fMaxValue = value;
-					fMaxValueIndex = i;
-				}
+				addToMoments(start, tailLength, moments, workspace.fChunk);
+				addToMoments(0, numSamples - tailLength, moments, 
+					workspace.fChunk);
 			}
 			else
 			{
-				fNumSamplesInStatistics--;
+				addToMoments(start, numSamples, moments, workspace.fChunk);
 			}
 		}
 		
-		if (fNumSamplesInStatistics > 0)
-		{
-			fArithmeticMean = sum / fNumSamplesInStatistics;
-		
-			fRootMeanSquare = Math.sqrt(fArithmeticMean * fArithmeticMean);
-		}
+		fNumSamplesInStatistics = (int) moments.getCount();
+		fMinValue = moments.getMinValue();
+		fMinValueIndex = (int) moments.getMinValueIndex();
+		fMaxValue = moments.getMaxValue();
+		fMaxValueIndex = (int) moments.getMaxValueIndex();
+		fArithmeticMean = moments.getMean();
+		fRootMeanSquare = moments.getRootMeanSquare();
 		
 		fCalculatedStatistics = true;
 	}
 
+	/**
+	 * Adds the given number of elements of the underlying array, starting at
+	 * the given absolute index, to the given StreamingMoments. The range 
+	 * does not wrap around the end of the underlying array. By default the 
+	 * elements are converted a chunk at a time into the given array; 
+	 * subclasses whose elements the StreamingMoments can take directly 
+	 * override this to add them from the underlying array itself.
+	 * 
+	 * @param arrayIndex The absolute index in the underlying array of the 
+	 * 		first element to add
+	 * @param length The number of elements to add
+	 * @param moments The StreamingMoments to add the elements to
+	 * @param chunk An array to convert the elements into
+	 */
+	void addToMoments(int arrayIndex, int length, StreamingMoments moments, 
+		double[] chunk)
+	{
+		for (int i = 0; i < length; i += chunk.length)
+		{
+			int chunkLength = Math.min(chunk.length, length - i);
+			
+			copyAsDoubles(arrayIndex + i, chunk, 0, chunkLength);
+			moments.add(chunk, 0, chunkLength);
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see gov.nasa.gsfc.irc.data.DataBuffer#getNumSamplesInStatistics()
 	 */
@@ -744,6 +975,15 @@ public abstract class AbstractDataBuffer implements DataBuffer
 		
 		return (stringRep.toString());
 	}	
+	
+	/**
+	 * The per-thread moments and chunk used to calculate statistics.
+	 */
+	private static class StatisticsWorkspace
+	{
+		final StreamingMoments fMoments = new StreamingMoments();
+		final double[] fChunk = new double[STATISTICS_CHUNK_SIZE];
+	}
 }
 
 //--- Development History  ---------------------------------------------------
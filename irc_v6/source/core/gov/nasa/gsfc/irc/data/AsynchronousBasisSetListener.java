@@ -0,0 +1,467 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import gov.nasa.gsfc.irc.data.events.BasisSetEvent;
+import gov.nasa.gsfc.irc.data.events.BasisSetListener;
+
+
+/**
+ * An AsynchronousBasisSetListener decouples a BasisSetListener from the 
+ * thread of the BasisBundleSource that makes BasisSets available to it. 
+ * BasisSetEvents received by this listener are placed in a bounded hand-off 
+ * ring and delivered to the wrapped listener by a dedicated worker Thread, 
+ * so a slow listener (a display, an archiver) no longer holds up the source 
+ * or any of the other listeners of the BasisBundle.
+ * <p>
+ * When the ring is full the configured {@link BasisSetOverflowPolicy} 
+ * decides whether the source blocks, the oldest queued BasisSet is dropped, 
+ * or the new BasisSet is coalesced with the newest queued one. The number of 
+ * BasisSets queued (the lag of the listener), and the numbers delivered, 
+ * dropped, coalesced, and blocked on, are available for monitoring.
+ * <p>
+ * Every BasisSet received is either delivered to the wrapped listener, which 
+ * then owns it as usual, or released by this listener.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$
+ * @author $Author$
+ */
+public class AsynchronousBasisSetListener implements BasisSetListener
+{
+	private static final String CLASS_NAME = 
+		AsynchronousBasisSetListener.class.getName();
+	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+	
+	private final BasisSetListener fListener;
+	private final BasisSetOverflowPolicy fOverflowPolicy;
+	
+	private final BasisSetEvent[] fRing;
+	private int fHead = 0;
+	private int fCount = 0;
+	private boolean fStopped = false;
+	private Thread fWorker;
+	
+	private long fDeliveredCount = 0;
+	private long fDroppedCount = 0;
+	private long fCoalescedCount = 0;
+	private long fBlockedCount = 0;
+	private int fMaxLag = 0;
+	
+	/**
+	 * Constructs a new AsynchronousBasisSetListener that will deliver 
+	 * BasisSetEvents to the given listener through a hand-off ring of the 
+	 * given capacity. The listener does not deliver anything until it is 
+	 * started.
+	 * 
+	 * @param listener The BasisSetListener to deliver BasisSetEvents to
+	 * @param capacity The maximum number of BasisSetEvents to queue
+	 * @param policy What to do when the queue is full
+	 * @throws IllegalArgumentException if the listener or policy is null, or 
+	 * 		the capacity is not positive
+	 */
+	public AsynchronousBasisSetListener(BasisSetListener listener, 
+		int capacity, BasisSetOverflowPolicy policy)
+	{
+		if (listener == null || policy == null || capacity <= 0)
+		{
+			String message = "Invalid listener (" + listener + 
+				"), capacity (" + capacity + "), or policy (" + policy + ")";
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fListener = listener;
+		fOverflowPolicy = policy;
+		fRing = new BasisSetEvent[capacity];
+	}
+	
+	/**
+	 * Starts the worker Thread of this listener.
+	 */
+	public synchronized void start()
+	{
+		if (fWorker == null && !fStopped)
+		{
+			fWorker = new Thread(new Dispatcher(), 
+				"BasisSet dispatcher for " + fListener);
+			fWorker.setDaemon(true);
+			fWorker.start();
+		}
+	}
+	
+	/**
+	 * Stops the worker Thread of this listener and releases any BasisSets 
+	 * still queued. A BasisSet currently being delivered is not interrupted. 
+	 * BasisSetEvents received after this call are released immediately.
+	 */
+	public void stop()
+	{
+		BasisSetEvent[] pending = null;
+		
+		synchronized (this)
+		{
+			fStopped = true;
+			pending = new BasisSetEvent[fCount];
+			
+			for (int i = 0; i < pending.length; i++)
+			{
+				pending[i] = dequeue();
+			}
+			
+			notifyAll();
+		}
+		
+		for (int i = 0; i < pending.length; i++)
+		{
+			pending[i].getBasisSet().release();
+		}
+	}
+	
+	/**
+	 * Returns the BasisSetListener to which this listener delivers 
+	 * BasisSetEvents.
+	 * 
+	 * @return The wrapped BasisSetListener
+	 */
+	public BasisSetListener getListener()
+	{
+		return (fListener);
+	}
+	
+	/**
+	 * Returns the overflow policy of this listener.
+	 * 
+	 * @return The BasisSetOverflowPolicy of this listener
+	 */
+	public BasisSetOverflowPolicy getOverflowPolicy()
+	{
+		return (fOverflowPolicy);
+	}
+	
+	/**
+	 * Returns the capacity of the hand-off ring of this listener.
+	 * 
+	 * @return The maximum number of BasisSetEvents that can be queued
+	 */
+	public int getCapacity()
+	{
+		return (fRing.length);
+	}
+	
+	/**
+	 * Returns the number of BasisSetEvents currently queued for delivery.
+	 * 
+	 * @return The current lag of this listener
+	 */
+	public synchronized int getLag()
+	{
+		return (fCount);
+	}
+	
+	/**
+	 * Returns the largest number of BasisSetEvents that have been queued for 
+	 * delivery at once.
+	 * 
+	 * @return The maximum lag of this listener
+	 */
+	public synchronized int getMaxLag()
+	{
+		return (fMaxLag);
+	}
+	
+	/**
+	 * Returns the number of BasisSetEvents delivered to the wrapped listener.
+	 * 
+	 * @return The number of BasisSetEvents delivered
+	 */
+	public synchronized long getDeliveredCount()
+	{
+		return (fDeliveredCount);
+	}
+	
+	/**
+	 * Returns the number of BasisSets dropped because the queue was full.
+	 * 
+	 * @return The number of BasisSets dropped
+	 */
+	public synchronized long getDroppedCount()
+	{
+		return (fDroppedCount);
+	}
+	
+	/**
+	 * Returns the number of BasisSets appended to an already queued BasisSet
+	 * because the queue was full.
+	 * 
+	 * @return The number of BasisSets coalesced
+	 */
+	public synchronized long getCoalescedCount()
+	{
+		return (fCoalescedCount);
+	}
+	
+	/**
+	 * Returns the number of times the BasisBundleSource had to wait because 
+	 * the queue was full.
+	 * 
+	 * @return The number of times the source blocked
+	 */
+	public synchronized long getBlockedCount()
+	{
+		return (fBlockedCount);
+	}
+	
+	/**
+	 * Queues the given BasisSetEvent for delivery to the wrapped listener, 
+	 * applying the overflow policy of this listener if the queue is full.
+	 * 
+	 * @param event A BasisSetEvent
+	 */
+	public void receiveBasisSetEvent(BasisSetEvent event)
+	{
+		BasisSet unwanted = null;
+		BasisSet coalesced = null;
+		boolean queue = true;
+		
+		synchronized (this)
+		{
+			boolean blocked = false;
+			
+			while (queue && fCount == fRing.length && !fStopped)
+			{
+				if (fOverflowPolicy == BasisSetOverflowPolicy.BLOCK)
+				{
+					if (!blocked)
+					{
+						blocked = true;
+						fBlockedCount++;
+					}
+					
+					try
+					{
+						wait();
+					}
+					catch (InterruptedException ex)
+					{
+						// Preserve the interrupt for the source and give up 
+						// on this BasisSet.
+						Thread.currentThread().interrupt();
+						
+						fDroppedCount++;
+						unwanted = event.getBasisSet();
+						queue = false;
+					}
+				}
+				else if (fOverflowPolicy == BasisSetOverflowPolicy.COALESCE 
+					&& canCoalesce(event))
+				{
+					int newest = (fHead + fCount - 1) % fRing.length;
+					BasisSetEvent queued = fRing[newest];
+					
+					coalesced = queued.getBasisSet();
+					unwanted = event.getBasisSet();
+					
+					BasisSet joined = coalesced.append(unwanted);
+					
+					fRing[newest] = new BasisSetEvent(
+						(BasisBundle) queued.getSource(), joined, 
+						queued.isStartOfNewBasisSequence());
+					fCoalescedCount++;
+					queue = false;
+				}
+				else
+				{
+					unwanted = dequeue().getBasisSet();
+					fDroppedCount++;
+				}
+			}
+			
+			if (fStopped && queue)
+			{
+				unwanted = event.getBasisSet();
+			}
+			else if (queue)
+			{
+				enqueue(event);
+			}
+		}
+		
+		// Release outside of the lock so that the worker is never held up
+		// by the MemoryModel.
+		
+		if (unwanted != null)
+		{
+			unwanted.release();
+		}
+		
+		if (coalesced != null)
+		{
+			coalesced.release();
+		}
+	}
+	
+	/**
+	 * Returns true if the given BasisSetEvent can be appended to the most 
+	 * recently queued BasisSetEvent, false otherwise.
+	 * 
+	 * @param event A BasisSetEvent
+	 * @return True if the event can be coalesced
+	 */
+	private boolean canCoalesce(BasisSetEvent event)
+	{
+		boolean result = false;
+		
+		if (fCount > 0 && !event.isStartOfNewBasisSequence())
+		{
+			BasisSet newest = 
+				fRing[(fHead + fCount - 1) % fRing.length].getBasisSet();
+			
+			result = (newest.getDescriptor() == 
+				event.getBasisSet().getDescriptor());
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Adds the given event to the tail of the ring. The caller must hold the 
+	 * lock and have made room.
+	 * 
+	 * @param event A BasisSetEvent
+	 */
+	private void enqueue(BasisSetEvent event)
+	{
+		fRing[(fHead + fCount) % fRing.length] = event;
+		fCount++;
+		
+		if (fCount > fMaxLag)
+		{
+			fMaxLag = fCount;
+		}
+		
+		notifyAll();
+	}
+	
+	/**
+	 * Removes and returns the event at the head of the ring. The caller must
+	 * hold the lock and the ring must not be empty.
+	 * 
+	 * @return The oldest queued BasisSetEvent
+	 */
+	private BasisSetEvent dequeue()
+	{
+		BasisSetEvent result = fRing[fHead];
+		
+		fRing[fHead] = null;
+		fHead = (fHead + 1) % fRing.length;
+		fCount--;
+		
+		return (result);
+	}
+	
+	/**
+	 * Returns a String representation of this listener.
+	 * 
+	 * @return A String representation of this listener
+	 */
+	public synchronized String toString()
+	{
+		return ("Asynchronous (" + fOverflowPolicy + ", lag " + fCount + "/" + 
+			fRing.length + ", delivered " + fDeliveredCount + ", dropped " + 
+			fDroppedCount + ", coalesced " + fCoalescedCount + ") " + 
+			fListener);
+	}
+	
+	//--- Utility class ------------------------------------------------------
+	
+	/**
+	 * Delivers queued BasisSetEvents to the wrapped listener in order until 
+	 * stopped.
+	 */
+	private final class Dispatcher implements Runnable
+	{
+		public void run()
+		{
+			while (true)
+			{
+				BasisSetEvent event = null;
+				
+				synchronized (AsynchronousBasisSetListener.this)
+				{
+					while (fCount == 0 && !fStopped)
+					{
+						try
+						{
+							AsynchronousBasisSetListener.this.wait();
+						}
+						catch (InterruptedException ex)
+						{
+							fStopped = true;
+						}
+					}
+					
+					if (fStopped)
+					{
+						break;
+					}
+					
+					event = dequeue();
+					
+					// Wake a blocked source
+					AsynchronousBasisSetListener.this.notifyAll();
+				}
+				
+				try
+				{
+					fListener.receiveBasisSetEvent(event);
+				}
+				catch (RuntimeException ex)
+				{
+					if (sLogger.isLoggable(Level.WARNING))
+					{
+						String message = "Listener failed to handle BasisSet";
+						
+						sLogger.logp(Level.WARNING, CLASS_NAME, "run", 
+							message, ex);
+					}
+				}
+				
+				synchronized (AsynchronousBasisSetListener.this)
+				{
+					fDeliveredCount++;
+				}
+			}
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
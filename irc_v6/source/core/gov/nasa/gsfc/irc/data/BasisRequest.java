@@ -143,6 +143,7 @@ public class BasisRequest
 	private Set fDataBufferNames;
 	private Amount fRequestAmount;
 	private int fDownsamplingRate = 0;
+	private DownsamplingMode fDownsamplingMode = DownsamplingMode.FIRST;
 	private boolean fIntegrate = false;
 	private boolean fIgnoreBasisSequenceBoundaries = false;
 	private boolean fIncludePendingDataOnStop = false;
@@ -419,6 +420,36 @@ public class BasisRequest
 		return (fDownsamplingRate);
 	}
 
+	/**
+	 * Sets the DownsamplingMode of this BasisRequest to the given mode. The 
+	 * mode determines how each group of samples is reduced when this 
+	 * BasisRequest specifies a downsampling rate. If the given mode is null 
+	 * the mode is set to {@link DownsamplingMode#FIRST}.
+	 * 
+	 * @param downsamplingMode The DownsamplingMode of this BasisRequest
+	 */
+	public void setDownsamplingMode(DownsamplingMode downsamplingMode)
+	{
+		if (downsamplingMode == null)
+		{
+			fDownsamplingMode = DownsamplingMode.FIRST;
+		}
+		else
+		{
+			fDownsamplingMode = downsamplingMode;
+		}
+	}
+
+	/**
+	 * Returns the current DownsamplingMode of this BasisRequest.
+	 * 
+	 * @return The DownsamplingMode of this BasisRequest
+	 */
+	public DownsamplingMode getDownsamplingMode()
+	{
+		return (fDownsamplingMode);
+	}
+
 	/**
 	 * Sets the Set of DataBuffer names specifying the subset of the DataBuffers of 
 	 * the BasisBundle on which this BasisRequest is made to the given Set of 
@@ -551,6 +582,7 @@ public class BasisRequest
 		if (fDownsamplingRate > 0)
 		{
 			stringRep.append("\nDownsampling rate: " + fDownsamplingRate);
+			stringRep.append("\nDownsampling mode: " + fDownsamplingMode);
 		}
 
 		if (fIntegrate)
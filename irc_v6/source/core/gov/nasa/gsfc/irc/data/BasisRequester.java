@@ -27,6 +27,7 @@ package gov.nasa.gsfc.irc.data;
 import gov.nasa.gsfc.irc.components.HasComponentState;
 import gov.nasa.gsfc.irc.data.events.BasisBundleListener;
 import gov.nasa.gsfc.irc.data.events.BasisSetListener;
+import gov.nasa.gsfc.irc.data.events.SatisfiedRequestListener;
 
 /**
  * A BasisRequester is a receiver of BasisBundleEvents and BasisSetEvents, all
@@ -78,6 +79,22 @@ public interface BasisRequester extends
 	 */
 	public int getDownsamplingRate();
 	
+	/**
+	 * Sets the DownsamplingMode of this BasisRequester to the given mode. 
+	 * The mode determines how each group of samples is reduced when 
+	 * downsampling is enabled.
+	 * 
+	 * @param downsamplingMode The DownsamplingMode of this BasisRequester
+	 */
+	public void setDownsamplingMode(DownsamplingMode downsamplingMode);
+		
+	/**
+	 * Gets the DownsamplingMode of this BasisRequester. 
+	 * 
+	 * @return The DownsamplingMode of this BasisRequester
+	 */
+	public DownsamplingMode getDownsamplingMode();
+	
 	/**
 	 * Returns a BasisSet that satisfies the BasisRequest associated with this
 	 * BasisRequester, or null if there is not yet sufficient data available to
@@ -140,6 +157,25 @@ public interface BasisRequester extends
 	 * @param listener A BasisBundleListener
 	 **/	
 	public void removeBasisBundleListener(BasisBundleListener listener);
+	
+	/**
+	 * Adds the given SatisfiedRequestListener as a listener for newly 
+	 * satisfied BasisRequests of this BasisRequester. The listener is told 
+	 * each time a satisfying BasisSet becomes available to 
+	 * {@link #satisfyRequest()}.
+	 *
+	 * @param listener A SatisfiedRequestListener
+	 **/	
+	public void addSatisfiedRequestListener(SatisfiedRequestListener listener);
+		
+	/**
+	 * Removes the given SatisfiedRequestListener as a listener for newly 
+	 * satisfied BasisRequests of this BasisRequester.
+	 *
+	 * @param listener A SatisfiedRequestListener
+	 **/	
+	public void removeSatisfiedRequestListener(
+		SatisfiedRequestListener listener);
 }
 
 //--- Development History  ---------------------------------------------------
@@ -415,6 +415,27 @@ public interface BasisSet extends CreatedMember, Serializable
 	 */
 	public BasisSet downsample(int sampleRate);
 
+	/**
+	 * Returns a new BasisSet with the same structure as this BasisSet but whose
+	 * data buffers have had each group of n consecutive samples reduced as 
+	 * specified by the given DownsamplingMode, where n is the given sampling 
+	 * rate. The basis buffer is reduced with the 
+	 * {@link DownsamplingMode#getBasisMode() basis mode} of the given mode.
+	 * <p>
+	 * If the given mode is null or {@link DownsamplingMode#FIRST} the result 
+	 * is the same as that of {@link #downsample(int)}. The result of 
+	 * {@link DownsamplingMode#ENVELOPE} has two samples per group and is not 
+	 * uniformly sampled.
+	 * 
+	 * @param sampleRate The subsampling rate
+	 * @param mode The DownsamplingMode applied to each group of samples
+	 * @return A new BasisSet with the same structure as this BasisSet but 
+	 *         reduced as specified by the given mode
+	 * @throws IllegalArgumentException if the given sample rate is greater than
+	 *             the current capacity of this BasisSet
+	 */
+	public BasisSet downsample(int sampleRate, DownsamplingMode mode);
+
 	/**
 	 * Returns true if this BasisSet is read-only, false otherwise.
 	 * 
@@ -0,0 +1,137 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import gov.nasa.gsfc.commons.types.namespaces.AbstractNamedObject;
+
+
+/**
+ * A BasisSetOverflowPolicy enumerates what an asynchronous BasisSet 
+ * dispatcher does when a BasisSet arrives for a listener whose hand-off 
+ * queue is already full.
+ * <ul>
+ * <li>{@link #BLOCK}: the BasisBundleSource waits until the listener has 
+ * 		caught up. No data is lost, but a slow listener slows the source.</li>
+ * <li>{@link #DROP_OLDEST}: the oldest queued BasisSet is released unseen to 
+ * 		make room.</li>
+ * <li>{@link #COALESCE}: the new BasisSet is appended to the most recently 
+ * 		queued one, so the listener receives fewer, larger BasisSets. Where 
+ * 		the two cannot be joined (e.g. the new BasisSet starts a new basis 
+ * 		sequence) the oldest queued BasisSet is dropped instead.</li>
+ * </ul>
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$ 
+ * @author $Author$ 
+**/
+
+public class BasisSetOverflowPolicy extends AbstractNamedObject 
+	implements Serializable
+{
+	/**
+	 * All known BasisSetOverflowPolicies, keyed by name.
+	**/
+	// NB: For initialization sequence, this has to come before any 
+	// BasisSetOverflowPolicy constants.
+	private static Map sPolicies = new HashMap();
+	
+	public static final BasisSetOverflowPolicy BLOCK = 
+		new BasisSetOverflowPolicy("block");
+	public static final BasisSetOverflowPolicy DROP_OLDEST = 
+		new BasisSetOverflowPolicy("dropOldest");
+	public static final BasisSetOverflowPolicy COALESCE = 
+		new BasisSetOverflowPolicy("coalesce");
+	
+
+	/**
+	 * Constructs a new BasisSetOverflowPolicy having the given name.
+	 *
+	 * @param name The name of the new BasisSetOverflowPolicy
+	**/
+	
+	protected BasisSetOverflowPolicy(String name)
+	{
+		super(name);
+		
+		sPolicies.put(name, this);
+	}
+	
+
+	/**
+	 *  Returns a String representation of this BasisSetOverflowPolicy.
+	 *
+	 *  @return A String representation of this BasisSetOverflowPolicy
+	**/
+	
+	public String toString()
+	{
+		return (getName());
+	}
+	
+
+	/**
+	 * Returns the BasisSetOverflowPolicy corresponding to the given 
+	 * BasisSetOverflowPolicy name.
+	 *
+	 * @param The name of the desired BasisSetOverflowPolicy
+	 * @return The BasisSetOverflowPolicy that has the given name (if any)
+	**/
+	
+	public static BasisSetOverflowPolicy forName(String name)
+	{
+		BasisSetOverflowPolicy result = 
+			(BasisSetOverflowPolicy) sPolicies.get(name);
+		
+		return (result);
+	}
+	
+
+	/**
+	 * This method supports serialization.
+	 *
+	**/
+	
+	public Object readResolve() throws ObjectStreamException
+	{
+		String name = getName();
+		
+		if (! sPolicies.containsKey(name))
+		{
+			sPolicies.put(name, this);
+		}
+		
+		return ((BasisSetOverflowPolicy) sPolicies.get(name));
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -23,6 +23,7 @@
 package gov.nasa.gsfc.irc.data;
 
 import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ReadOnlyBufferException;
 
@@ -279,6 +280,92 @@ final class ByteDataBuffer extends AbstractDataBuffer
 		return (buffer);	
 	}
 
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.irc.data.DataBuffer#get(java.nio.ByteBuffer)
+	 */
+	public DataBuffer get(ByteBuffer destination)
+	{
+		int size = fBufferLength;
+		int sizeInBytes = size * BYTES_PER_ELEMENT;
+		int position = destination.position();
+		
+		if (destination.remaining() < sizeInBytes)
+		{
+			throw new BufferOverflowException();
+		}
+		
+		if (fArrayOffset + size > fArrayLength)
+		{
+			int tailLength = fArrayLength - fArrayOffset;
+			destination.put(fNativeArray, fArrayOffset, tailLength);
+			destination.put(fNativeArray, 0, size - tailLength);
+		}
+		else
+		{
+			destination.put(fNativeArray, fArrayOffset, size);
+		}
+		
+		destination.position(position + sizeInBytes);
+		
+		return (this);
+	}
+
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.irc.data.DataBuffer#put(int, java.nio.ByteBuffer, int)
+	 */
+	public DataBuffer put(int index, ByteBuffer source, int length)
+	{
+		if (fIsReadOnly)
+		{
+			throw new ReadOnlyBufferException();
+		}
+		
+		if (index < 0 || length < 0 || length + index > getSize())
+		{
+			throw new BufferOverflowException();
+		}
+		
+		int lengthInBytes = length * BYTES_PER_ELEMENT;
+		int position = source.position();
+		
+		if (source.remaining() < lengthInBytes)
+		{
+			throw new BufferUnderflowException();
+		}
+		
+		if (length > 0)
+		{
+			int start = resolveIndex(index);
+			int tailLength = fArrayLength - start;
+			
+			if (length > tailLength)
+			{
+				source.get(fNativeArray, start, tailLength);
+				source.get(fNativeArray, 0, length - tailLength);
+			}
+			else
+			{
+				source.get(fNativeArray, start, length);
+			}
+		}
+		
+		source.position(position + lengthInBytes);
+		
+		return (this);
+	}
+
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.irc.data.AbstractDataBuffer#copyAsDoubles(int, double[], int, int)
+	 */
+	void copyAsDoubles(
+		int arrayIndex, double[] destination, int destinationIndex, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			destination[destinationIndex + i] = fNativeArray[arrayIndex + i];
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see gov.nasa.gsfc.irc.data.DataBuffer#getAsByteArray()
 	 */
@@ -26,6 +26,7 @@ package gov.nasa.gsfc.irc.data;
 
 import java.io.Serializable;
 import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ReadOnlyBufferException;
 
@@ -597,6 +598,39 @@ public interface DataBuffer extends HasName, Serializable
      */
     public DataBuffer put(int index, Object[] source, int sourceIndex, int length);
     
+    /**
+     * Bulk <i>put</i> method.
+     *
+     * <p> This method transfers <tt>length</tt> elements from the given 
+     * source ByteBuffer into this buffer, starting at <tt>index</tt>. The 
+     * bytes starting at the current position of the source are interpreted 
+     * as elements of the type of this buffer in the byte order of the 
+     * source, and the position of the source is advanced past them. The 
+     * elements are transferred in at most two blocks, one on either side of 
+     * the point at which the backing array of this buffer wraps around.
+     * 
+     * @param  index The index into this buffer to start copying the source data
+     * @param  source The source ByteBuffer from which elements are to be read
+     * @param  length The number of elements to copy
+     * 
+     * @return  This buffer
+     *
+     * @throws  BufferOverflowException
+     *          If there is insufficient space in this buffer
+     *          for the specified elements
+     *
+     * @throws  BufferUnderflowException
+     *          If there are fewer than <tt>length</tt> elements remaining in
+     *          the source
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this buffer is read-only
+     *
+     * @throws  UnsupportedOperationException
+     *          If this buffer does not hold primitive elements
+     */
+    public DataBuffer put(int index, ByteBuffer source, int length);
+    
     /**
      * Absolute <i>put</i> method.
      * 
@@ -854,6 +888,53 @@ public interface DataBuffer extends HasName, Serializable
 	 */	
 	public ByteBuffer getAsByteBuffer();
 	
+	/**
+	 * Bulk <i>get</i> method. Writes the n elements of this DataBuffer into
+	 * the given ByteBuffer, starting at its current position and in its byte 
+	 * order, and advances its position past them.
+	 * <p>
+	 * Unlike {@link #getAsByteBuffer()}, no intermediate copy is made. The 
+	 * elements are transferred in at most two blocks, one on either side of 
+	 * the point at which the backing array of this DataBuffer wraps around.
+	 * </p>
+	 * 
+	 * @param destination The ByteBuffer to write the elements of this 
+	 * 		DataBuffer to
+	 * @return This DataBuffer
+	 * @throws BufferOverflowException if there is insufficient space remaining
+	 * 		in the destination
+	 * @throws UnsupportedOperationException if this buffer does not hold 
+	 * 		primitive elements
+	 */
+	public DataBuffer get(ByteBuffer destination);
+	
+	/**
+	 * Absolute bulk <i>get</i> method. Copies the given number of elements of
+	 * this DataBuffer, starting at the given index, into the given array of
+	 * doubles, starting at the given array index. Each element is converted
+	 * as by {@link #getAsDouble(int)}.
+	 * <p>
+	 * Unlike repeated calls to <code>getAsDouble</code>, the range is checked
+	 * and resolved against the underlying array once, and the elements are
+	 * then copied from at most two contiguous segments of it. Unlike 
+	 * {@link #getAsDoubleArray()}, the destination belongs to the caller and 
+	 * can be reused from one call to the next.
+	 * </p>
+	 * 
+	 * @param index The index of the first element of this DataBuffer to copy
+	 * @param destination The array into which elements are to be written
+	 * @param destinationIndex The index in the array of the first element
+	 * 		written
+	 * @param length The number of elements to copy
+	 * @return This DataBuffer
+	 * @throws IndexOutOfBoundsException if the given range is not within this
+	 * 		DataBuffer or the given array
+	 * @throws UnsupportedOperationException if an element cannot be converted
+	 * 		into a <code>double</code>
+	 */
+	public DataBuffer get(
+		int index, double[] destination, int destinationIndex, int length);
+	
 	/**
 	 * Returns a copy of the n elements of this DataBuffer as an array of n
 	 * bytes.
@@ -1038,6 +1119,28 @@ public interface DataBuffer extends HasName, Serializable
 	 */
 	public DataBuffer downsample(int downsamplingRate);
 
+	/**
+	 * Returns a new DataBuffer with the same characteristics as this DataBuffer
+	 * but in which each group of n consecutive elements of this original has 
+	 * been reduced as specified by the given DownsamplingMode, where n is the 
+	 * given sampling rate. The groups are reduced in a single pass over this
+	 * DataBuffer. The size of the result is 1/n (with integer rounding), or 
+	 * 2/n for {@link DownsamplingMode#ENVELOPE}.
+	 * <p>
+	 * If the given mode is null or {@link DownsamplingMode#FIRST} the result 
+	 * is the same as that of {@link #downsample(int)}. DataBuffers whose 
+	 * elements are not numbers cannot be aggregated and are always decimated.
+	 * 
+	 * @param sampleRate The subsampling rate
+	 * @param mode The DownsamplingMode applied to each group of elements
+	 * @return A new DataBuffer with the same characteristics as this DataBuffer
+	 *         but containing one reduced element (two for an envelope) for 
+	 *         each group of n elements of this original
+	 * @throws IllegalArgumentException if the given sample rate is greater than
+	 *             the current limit of this DataBuffer
+	 */
+	public DataBuffer downsample(int downsamplingRate, DownsamplingMode mode);
+
 	/**
 	 * Returns a String representation of the specified range of data in this
 	 * DataBuffer.
@@ -0,0 +1,277 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import gov.nasa.gsfc.commons.types.strings.PatternCache;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
+
+
+/**
+ * A DataBufferSelectionIndex caches which DataBuffers of a BasisBundle 
+ * structure are selected by a regular expression. Selections are keyed by 
+ * the identity of the BasisBundleDescriptor and the regular expression, and
+ * hold the positions of the matching DataBuffers among the DataBuffers the 
+ * descriptor describes, together with their names. Once a selection has been
+ * made, resolving the same regular expression against BasisSets of the same 
+ * structure no longer matches any names.
+ * <p>
+ * A DataBuffer is selected if the regular expression matches its whole name, 
+ * as for {@link BasisSet#getDataBuffers(String)}. The least recently used 
+ * selections are dropped when the index is full, and the selections of a 
+ * descriptor are dropped when a BasisBundle replaces it with a new structure.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$
+ * @author $Author$
+ */
+
+public class DataBufferSelectionIndex
+{
+	public static final int CAPACITY = 512;
+	
+	private static final DataBufferSelectionIndex fInstance = 
+		new DataBufferSelectionIndex();
+	
+	private final Map fSelections = new LinkedHashMap(64, 0.75f, true)
+	{
+		protected boolean removeEldestEntry(Map.Entry eldest)
+		{
+			return (size() > CAPACITY);
+		}
+	};
+	
+	
+	/**
+	 * Default constructor of a DataBufferSelectionIndex.
+	 */
+	private DataBufferSelectionIndex()
+	{
+	}
+
+	/**
+	 * Returns the singleton instance of a DataBufferSelectionIndex.
+	 * 
+	 * @return The singleton instance of a DataBufferSelectionIndex
+	 */
+	public static DataBufferSelectionIndex getInstance()
+	{
+		return (fInstance);
+	}
+	
+	/**
+	 * Returns the Selection of the DataBuffers described by the given 
+	 * BasisBundleDescriptor whose names match the given regular expression.
+	 * 
+	 * @param descriptor A BasisBundleDescriptor
+	 * @param regEx A regular expression
+	 * @return The Selection of the matching DataBuffers
+	 */
+	public Selection getSelection(BasisBundleDescriptor descriptor, String regEx)
+	{
+		Selection result = null;
+		SelectionKey key = new SelectionKey(descriptor, regEx);
+		
+		synchronized (fSelections)
+		{
+			result = (Selection) fSelections.get(key);
+		}
+		
+		if (result == null)
+		{
+			result = new Selection(descriptor, PatternCache.getPattern(regEx));
+			
+			synchronized (fSelections)
+			{
+				fSelections.put(key, result);
+			}
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Returns the ordered, unmodifiable Set of the names of the DataBuffers 
+	 * described by the given BasisBundleDescriptor that match the given 
+	 * regular expression.
+	 * 
+	 * @param descriptor A BasisBundleDescriptor
+	 * @param regEx A regular expression
+	 * @return The Set of the names of the matching DataBuffers
+	 */
+	public Set getDataBufferNames(BasisBundleDescriptor descriptor, String regEx)
+	{
+		return (getSelection(descriptor, regEx).getNames());
+	}
+	
+	/**
+	 * Drops all Selections made on the given BasisBundleDescriptor.
+	 * 
+	 * @param descriptor A BasisBundleDescriptor
+	 */
+	public void invalidate(BasisBundleDescriptor descriptor)
+	{
+		synchronized (fSelections)
+		{
+			for (Iterator keys = fSelections.keySet().iterator(); keys.hasNext();)
+			{
+				if (((SelectionKey) keys.next()).fDescriptor == descriptor)
+				{
+					keys.remove();
+				}
+			}
+		}
+	}
+	
+	
+	/**
+	 * A Selection holds the positions and names of the DataBuffers of a 
+	 * BasisBundle structure that match a regular expression.
+	 */
+	public static final class Selection
+	{
+		private final int[] fIndices;
+		private final Set fNames;
+		
+		/**
+		 * Makes the Selection of the DataBuffers described by the given 
+		 * descriptor whose names match the given Pattern.
+		 */
+		private Selection(BasisBundleDescriptor descriptor, Pattern pattern)
+		{
+			Set names = new LinkedHashSet();
+			int[] indices = new int[8];
+			int numMatches = 0;
+			int index = 0;
+			
+			for (Iterator descriptors = 
+				descriptor.getDataBufferDescriptors().iterator(); 
+				descriptors.hasNext(); index++)
+			{
+				String name = ((DataBufferDescriptor) descriptors.next()).getName();
+				
+				if (pattern.matcher(name).matches())
+				{
+					if (numMatches == indices.length)
+					{
+						int[] newIndices = new int[indices.length * 2];
+						System.arraycopy(indices, 0, newIndices, 0, numMatches);
+						indices = newIndices;
+					}
+					
+					indices[numMatches++] = index;
+					names.add(name);
+				}
+			}
+			
+			fIndices = new int[numMatches];
+			System.arraycopy(indices, 0, fIndices, 0, numMatches);
+			fNames = Collections.unmodifiableSet(names);
+		}
+		
+		/**
+		 * Returns the number of selected DataBuffers.
+		 * 
+		 * @return The number of selected DataBuffers
+		 */
+		public int size()
+		{
+			return (fIndices.length);
+		}
+		
+		/**
+		 * Returns the position of the given selected DataBuffer among the 
+		 * DataBuffers described by the BasisBundleDescriptor.
+		 * 
+		 * @param selected The index of a selected DataBuffer
+		 * @return The position of the selected DataBuffer
+		 */
+		public int getIndex(int selected)
+		{
+			return (fIndices[selected]);
+		}
+		
+		/**
+		 * Returns the ordered, unmodifiable Set of the names of the selected
+		 * DataBuffers.
+		 * 
+		 * @return The Set of the names of the selected DataBuffers
+		 */
+		public Set getNames()
+		{
+			return (fNames);
+		}
+	}
+	
+	
+	/**
+	 * The key of a Selection: the identity of a BasisBundleDescriptor and a 
+	 * regular expression.
+	 */
+	private static final class SelectionKey
+	{
+		private final BasisBundleDescriptor fDescriptor;
+		private final String fRegEx;
+		
+		private SelectionKey(BasisBundleDescriptor descriptor, String regEx)
+		{
+			fDescriptor = descriptor;
+			fRegEx = regEx;
+		}
+		
+		public boolean equals(Object object)
+		{
+			boolean result = false;
+			
+			if (object instanceof SelectionKey)
+			{
+				SelectionKey key = (SelectionKey) object;
+				
+				result = (key.fDescriptor == fDescriptor) 
+					&& key.fRegEx.equals(fRegEx);
+			}
+			
+			return (result);
+		}
+		
+		public int hashCode()
+		{
+			return (System.identityHashCode(fDescriptor) * 31 + fRegEx.hashCode());
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -214,6 +214,27 @@ public interface DataRequester extends HasComponentState, HasBasisRequests
 	public int getDownsamplingRate();
 	
 	
+	/**
+	 * Sets the DownsamplingMode of all of the BasisRequesters of this 
+	 * DataRequester to the given mode.
+	 * 
+	 * @param downsamplingMode The DownsamplingMode of the BasisRequesters of 
+	 * 		this DataRequester
+	 */
+	
+	public void setDownsamplingMode(DownsamplingMode downsamplingMode);
+
+	
+	/**
+	 * Gets the DownsamplingMode of the BasisRequesters of this DataRequester.
+	 * 
+	 * @return The DownsamplingMode of the BasisRequesters of this 
+	 * 		DataRequester
+	 */
+	
+	public DownsamplingMode getDownsamplingMode();
+	
+	
 	/**
 	 *  Starts this DataRequester.
 	 * 
@@ -24,6 +24,7 @@
 
 package gov.nasa.gsfc.irc.data;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -36,7 +37,6 @@ import java.util.logging.Logger;
 import edu.emory.mathcs.backport.java.util.concurrent.CopyOnWriteArrayList;
 
 import gov.nasa.gsfc.commons.system.memory.Allocation;
-import gov.nasa.gsfc.commons.system.memory.ContiguousMemoryModel;
 import gov.nasa.gsfc.commons.system.memory.MemoryModel;
 import gov.nasa.gsfc.commons.system.memory.MemoryModelEvent;
 import gov.nasa.gsfc.commons.system.memory.MemoryModelListener;
@@ -77,6 +77,14 @@ import gov.nasa.gsfc.irc.data.events.BasisSetListener;
  * <p>Note that a request by a BasisBundleSource to allocate some amount of 
  * data for writing will fail if there is currently insufficient free space 
  * in the BasisBundle.
+ * 
+ * <p>By default BasisSetEvents are delivered to each listener in turn on the 
+ * thread of the BasisBundleSource. If asynchronous dispatch is enabled, 
+ * either through the BasisBundleDescriptor or 
+ * {@link #setAsynchronousDispatch(int, BasisSetOverflowPolicy)}, each 
+ * subsequently added listener is instead wrapped in an 
+ * {@link AsynchronousBasisSetListener} with its own hand-off queue and 
+ * worker, so that a slow listener cannot hold up the source.
  *
  * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
  * for the Instrument Remote Control (IRC) project.
@@ -104,6 +112,10 @@ public class DefaultBasisBundle extends AbstractMemberBean
 	
 	private List fBasisBundleListeners = new CopyOnWriteArrayList();
 	private List fBasisSetListeners = new CopyOnWriteArrayList();
+	private Map fAsynchronousListeners = new HashMap();
+	private int fDispatchQueueSize = 0;
+	private BasisSetOverflowPolicy fOverflowPolicy = 
+		BasisSetOverflowPolicy.BLOCK;
 	private double fBasisBase = 0.0d;
 	
 	/**
@@ -147,11 +159,15 @@ public class DefaultBasisBundle extends AbstractMemberBean
 		fCapacity = capacity;
 		
 		setDescriptor(descriptor);
+		setAsynchronousDispatch(descriptor.getDispatchQueueSize(), 
+			descriptor.getOverflowPolicy());
 	}
 		
 	/**
 	 * Creates a new set of backing data buffers according to the current
-	 * BasisBundleDescriptor and capacity.
+	 * BasisBundleDescriptor and capacity. The MemoryModel that allocates 
+	 * BasisSets from the new buffers is of the type given by the 
+	 * BasisBundleDescriptor.
 	 */
 	protected synchronized final void createNewBackingBuffers()
 	{
@@ -162,7 +178,8 @@ public class DefaultBasisBundle extends AbstractMemberBean
 				fMemoryModel.removeReleaseRequestListener(this);
 			}
 			
-			fMemoryModel = new ContiguousMemoryModel(fCapacity);
+			fMemoryModel = 
+				fDescriptor.getMemoryModelType().createMemoryModel(fCapacity);
 			fMemoryModel.addReleaseRequestListener(this);
 			
 			fBackingBasisSet = new DefaultBasisSet(this, fCapacity);
@@ -198,6 +215,11 @@ public class DefaultBasisBundle extends AbstractMemberBean
 	{
 		if (fDescriptor != descriptor)
 		{
+			if (fDescriptor != null)
+			{
+				DataBufferSelectionIndex.getInstance().invalidate(fDescriptor);
+			}
+			
 			fDescriptor = descriptor;
 			
 			alertListenersOfNewStructure();
@@ -820,10 +842,23 @@ public class DefaultBasisBundle extends AbstractMemberBean
 	{
 		if (listener != null)
 		{
-			fBasisSetListeners.add(listener);
-
 			synchronized (fBasisSetListeners)
-			{		
+			{
+				if (fDispatchQueueSize <= 0)
+				{
+					fBasisSetListeners.add(listener);
+				}
+				else if (!fAsynchronousListeners.containsKey(listener))
+				{
+					AsynchronousBasisSetListener asynchronousListener = 
+						new AsynchronousBasisSetListener(listener, 
+							fDispatchQueueSize, fOverflowPolicy);
+					
+					asynchronousListener.start();
+					fAsynchronousListeners.put(listener, asynchronousListener);
+					fBasisSetListeners.add(asynchronousListener);
+				}
+
 				// In the case that the given BasisSetListener is the first one 
 				// added since this BasisBundle was created or last cleared, 
 				// alert any processes waiting for a listener to be added to 
@@ -849,13 +884,31 @@ public class DefaultBasisBundle extends AbstractMemberBean
 
 	/**
 	 * Removes the given BasisSetLisener from this BasisBundle as a listener
-	 * for BasisSetEvents.
+	 * for BasisSetEvents. If the listener was added for asynchronous 
+	 * dispatch, its worker is stopped and any BasisSets still queued for it 
+	 * are released.
 	 * 
 	 * @param listener A BasisSetLisener
 	 */
 	public void removeBasisSetListener(BasisSetListener listener)
 	{
-		fBasisSetListeners.remove(listener);
+		AsynchronousBasisSetListener asynchronousListener = null;
+		
+		synchronized (fBasisSetListeners)
+		{
+			asynchronousListener = (AsynchronousBasisSetListener) 
+				fAsynchronousListeners.remove(listener);
+		}
+		
+		if (asynchronousListener != null)
+		{
+			fBasisSetListeners.remove(asynchronousListener);
+			asynchronousListener.stop();
+		}
+		else
+		{
+			fBasisSetListeners.remove(listener);
+		}
 	}
 
 	/**
@@ -867,8 +920,63 @@ public class DefaultBasisBundle extends AbstractMemberBean
 	 */
 	public BasisSetListener[] getBasisSetListeners()
 	{
-		return (BasisSetListener[]) 
+		BasisSetListener[] result = (BasisSetListener[]) 
 			fBasisSetListeners.toArray(new BasisSetListener[fBasisSetListeners.size()]);
+		
+		for (int i = 0; i < result.length; i++)
+		{
+			if (result[i] instanceof AsynchronousBasisSetListener)
+			{
+				result[i] = 
+					((AsynchronousBasisSetListener) result[i]).getListener();
+			}
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Returns the listeners on this BasisBundle that are dispatched to 
+	 * asynchronously. Each reports the lag, drop, and coalesce counts of the 
+	 * listener it wraps.
+	 * 
+	 * @return The AsynchronousBasisSetListeners on this BasisBundle
+	 */
+	public AsynchronousBasisSetListener[] getAsynchronousBasisSetListeners()
+	{
+		synchronized (fBasisSetListeners)
+		{
+			return (AsynchronousBasisSetListener[]) 
+				fAsynchronousListeners.values().toArray(
+					new AsynchronousBasisSetListener[
+						fAsynchronousListeners.size()]);
+		}
+	}
+
+	/**
+	 * Sets how BasisSetEvents will be dispatched to BasisSetListeners 
+	 * subsequently added to this BasisBundle. A queue size of 0 or less 
+	 * selects synchronous dispatch on the thread of the BasisBundleSource 
+	 * (the default). Otherwise each new listener gets its own hand-off queue 
+	 * of the given size and worker Thread, and the given policy decides what 
+	 * happens when a listener falls that far behind.
+	 * 
+	 * @param queueSize The size of the hand-off queue of each listener, or 0 
+	 * 		for synchronous dispatch
+	 * @param policy The overflow policy for full queues
+	 */
+	public void setAsynchronousDispatch(int queueSize, 
+		BasisSetOverflowPolicy policy)
+	{
+		synchronized (fBasisSetListeners)
+		{
+			fDispatchQueueSize = queueSize;
+			
+			if (policy != null)
+			{
+				fOverflowPolicy = policy;
+			}
+		}
 	}
 
 	/**
@@ -33,6 +33,7 @@ import org.jscience.physics.units.Unit;
 import gov.nasa.gsfc.commons.numerics.types.Amount;
 import gov.nasa.gsfc.commons.types.queues.FifoQueue;
 import gov.nasa.gsfc.commons.types.queues.Queue;
+import gov.nasa.gsfc.commons.types.queues.QueueFactory;
 import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
 import gov.nasa.gsfc.irc.data.events.BasisBundleEvent;
 
@@ -61,11 +62,21 @@ implements BasisRequester
      */
 	private static final String CLASS_NAME = DefaultDataRequester.class.getName();
     private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+    
+	/**
+	 * The system property that selects a lock-free queue for satisfied 
+	 * requests, e.g. "mpsc".
+	 * 
+	 * @see QueueFactory
+	 */
+	public static final String QUEUE_PROPERTY = 
+		DefaultBasisRequester.class.getName() + ".queue";
 
 	private BasisRequest fBasisRequest = null;
 	
 	private Queue fPendingData = new FifoQueue();
-	private FifoQueue fSatisfiedRequests = new FifoQueue();	
+	private Queue fSatisfiedRequests = 
+		QueueFactory.getQueue(QUEUE_PROPERTY, new FifoQueue());	
 	
 	private boolean fSelectsAllAvailableData = false;
 	private boolean fDownsamplingEnabled = false;
@@ -201,7 +212,40 @@ implements BasisRequester
 			basisSet = downsample(basisSet);
 		}
 		
-		fSatisfiedRequests.add(basisSet);
+		enqueueSatisfiedRequest(basisSet);
+		
+		alertSatisfiedRequestListeners();
+	}
+	
+	/**
+	 * Adds the given BasisSet to the queue of satisfied BasisRequests, waiting
+	 * for room if the queue is bounded and full. If the wait is interrupted 
+	 * the BasisSet is released.
+	 */
+	private void enqueueSatisfiedRequest(BasisSet basisSet)
+	{
+		if (! fSatisfiedRequests.add(basisSet))
+		{
+			try
+			{
+				fSatisfiedRequests.blockingAdd(basisSet);
+			}
+			catch (InterruptedException e)
+			{
+				basisSet.release();
+				
+				Thread.currentThread().interrupt();
+				
+				if (sLogger.isLoggable(Level.WARNING))
+				{
+					String message = "Interrupted while queueing " + 
+						"satisfied request, discarded data";
+					
+					sLogger.logp(Level.WARNING, CLASS_NAME, 
+						"enqueueSatisfiedRequest", message);
+				}
+			}
+		}
 	}
 	
 	/**
@@ -505,15 +549,23 @@ implements BasisRequester
 	 */	
 	protected void promotePendingData()
 	{
+		boolean promoted = false;
+		
 		synchronized (fPendingData)
 		{
 			while (fPendingData.size() > 0)
 			{
 				BasisSet basisSet = (BasisSet) fPendingData.remove();
 
-				fSatisfiedRequests.add(basisSet);
+				enqueueSatisfiedRequest(basisSet);
+				promoted = true;
 			}
 		}
+		
+		if (promoted)
+		{
+			alertSatisfiedRequestListeners();
+		}
 	}
 	
 	/**
@@ -40,6 +40,7 @@ import java.util.regex.Pattern;
 import gov.nasa.gsfc.commons.numerics.types.Pixel;
 import gov.nasa.gsfc.commons.system.memory.AbstractAllocation;
 import gov.nasa.gsfc.commons.system.memory.Allocation;
+import gov.nasa.gsfc.commons.types.strings.PatternCache;
 import gov.nasa.gsfc.commons.types.namespaces.AbstractCreatedMember;
 import gov.nasa.gsfc.commons.types.namespaces.MemberId;
 import gov.nasa.gsfc.irc.app.Irc;
@@ -79,6 +80,11 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 	private LinkedHashMap fDataBuffersByName;
 	private ArrayList fDataBuffers;
 	
+	//  True if fDataBuffers are exactly the DataBuffers described by 
+	//  fDescriptor, in order, so that regex selections can be looked up in
+	//  the DataBufferSelectionIndex
+	private boolean fHasDescriptorStructure = false;
+	
 	private double fSampleRate = Double.NaN;
 	private boolean fIsReadOnly = false;
 	private boolean fIsCopy = false;
@@ -179,6 +185,8 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 				
 		fDataBuffersByName = (LinkedHashMap) basisSet.fDataBuffersByName.clone();
 		fDataBuffers = (ArrayList) basisSet.fDataBuffers.clone();
+		fHasDescriptorStructure = basisSet.fHasDescriptorStructure 
+			&& (fDescriptor == basisSet.fDescriptor);
 		
 		if (basisSet.fAllocation != null)
 		{
@@ -216,6 +224,8 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 			fDataBuffersByName.put(buffer.getName(), buffer);
 			fDataBuffers.add(buffer);
 		}
+		
+		fHasDescriptorStructure = true;
 	}
 	
 	/**
@@ -331,6 +341,8 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 			result.fDataBuffers.add(bufferCopy);
 			result.fDataBuffersByName.put(bufferCopy.getName(), bufferCopy);
 		}
+		
+		result.fHasDescriptorStructure = fHasDescriptorStructure;
 				
 		return (result);
 	}
@@ -384,9 +396,36 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 	 * 		than the current capacity of this BasisSet
 	 **/
 	public BasisSet downsample(int sampleRate)
+	{
+		return (downsample(sampleRate, DownsamplingMode.FIRST));
+	}
+	
+	/**
+	 *  Returns a new BasisSet with the same structure as this BasisSet but 
+	 *  whose data buffers have had each group of n consecutive samples 
+	 *  reduced as specified by the given DownsamplingMode, where n is the 
+	 *  given sampling rate. Each buffer is reduced in a single pass.
+	 * 
+	 *  <p> If the given rate is 1 or less, the result will be a copy of the 
+	 *  entire buffer; if it is larger than the capacity of this DataBuffer, 
+	 *  an IllegalArgumentException is thrown.
+	 *
+	 *  @param sampleRate The subsampling rate
+	 *  @param mode The DownsamplingMode applied to each group of samples
+	 *  @return A new BasisSet with the same structure as this BasisSet but 
+	 * 		reduced as specified by the given mode
+	 *  @throws IllegalArgumentException if the given sample rate is greater 
+	 * 		than the current capacity of this BasisSet
+	 **/
+	public BasisSet downsample(int sampleRate, DownsamplingMode mode)
 	{
 		DefaultBasisSet result = null;
 		
+		if (mode == null)
+		{
+			mode = DownsamplingMode.FIRST;
+		}
+		
 		if (sampleRate > 1)
 		{
 			if (sampleRate <= fBasisBuffer.getSize())
@@ -394,7 +433,8 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 				result = shallowCloneBasisSet();
 				
 				result.fIsCopy = true;				
-				result.fBasisBuffer = fBasisBuffer.downsample(sampleRate);
+				result.fBasisBuffer = 
+					fBasisBuffer.downsample(sampleRate, mode.getBasisMode());
 				
 				int numBuffers = fDataBuffers.size();
 				result.fDataBuffers.ensureCapacity(numBuffers);
@@ -402,13 +442,20 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 				for (int i=0; i < numBuffers; i++)
 				{
 					DataBuffer downsampledBuffer = 
-						((DataBuffer) fDataBuffers.get(i)).downsample(sampleRate);
+						((DataBuffer) fDataBuffers.get(i)).downsample(
+							sampleRate, mode);
 					result.fDataBuffers.add(downsampledBuffer);
 					result.fDataBuffersByName.put(
 						downsampledBuffer.getName(), downsampledBuffer);
 				}
 				
-				if (this.isUniformlySampled())
+				result.fHasDescriptorStructure = fHasDescriptorStructure;
+				
+				if (mode == DownsamplingMode.ENVELOPE)
+				{
+					result.fSampleRate = Double.NaN;
+				}
+				else if (this.isUniformlySampled())
 				{
 					result.fSampleRate = this.fSampleRate * sampleRate;
 				}
@@ -477,6 +524,8 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 			result.fDataBuffers.add(dataBuffer);
 			result.fDataBuffersByName.put(dataBuffer.getName(), dataBuffer);
 		}
+		
+		result.fHasDescriptorStructure = fHasDescriptorStructure;
 
 		return (result);
 	}
@@ -687,6 +736,7 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 				(result.fDescriptor.getName(), 
 					result.getBasisBufferDescriptor(), 
 						newDataBufferDescriptors);
+			result.fHasDescriptorStructure = fHasDescriptorStructure;
 		}
 		
 		return (result);
@@ -738,6 +788,7 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 		
 		// Override descriptor with the template's (may reflect "filtered" data buffers)
 		source.fDescriptor = template.fDescriptor;
+		source.fHasDescriptorStructure = false;
 		
 		result.fBasisBuffer = source.fBasisBuffer;
 		
@@ -862,6 +913,7 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 				(result.fDescriptor.getName(), 
 					result.getBasisBufferDescriptor(), 
 						newDataBufferDescriptors);
+			result.fHasDescriptorStructure = fHasDescriptorStructure;
 		}
 
 		return (result);
@@ -1421,7 +1473,8 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 	/**
 	 *  Returns the Set of names of the DataBuffers of this BasisSet that match 
 	 *  the given regular expression. Note that if a DataBuffer has a Pixel, the 
-	 *  Pixel tag is part of its name.
+	 *  Pixel tag is part of its name. The result may be shared with other 
+	 *  BasisSets of the same structure, and so is unmodifiable.
 	 *  
 	 * @param A regular expression
 	 *  @return The Set of names of the DataBuffers of this BasisSet that match 
@@ -1430,14 +1483,22 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 	public Set getDataBufferNames(String regEx)
 	{
 		Set result = null;
-			
-		Map matchingBuffers = getDataBuffers(regEx);
 		
-		if (matchingBuffers != null)
+		if (fHasDescriptorStructure)
 		{
-			Set names = matchingBuffers.keySet();
+			result = DataBufferSelectionIndex.getInstance().
+				getDataBufferNames(fDescriptor, regEx);
+		}
+		else
+		{
+			Map matchingBuffers = getDataBuffers(regEx);
 			
-			result = new LinkedHashSet(names);
+			if (matchingBuffers != null)
+			{
+				Set names = matchingBuffers.keySet();
+				
+				result = Collections.unmodifiableSet(new LinkedHashSet(names));
+			}
 		}
 		
 		return (result);
@@ -1526,17 +1587,35 @@ public class DefaultBasisSet extends AbstractCreatedMember implements BasisSet
 		{
 			result = new LinkedHashMap();
 			
-			Iterator dataBuffers = fDataBuffersByName.entrySet().iterator();
-			
-			while (dataBuffers.hasNext())
+			if (fHasDescriptorStructure)
 			{
-				Map.Entry entry = (Map.Entry) dataBuffers.next();
+				DataBufferSelectionIndex.Selection selection = 
+					DataBufferSelectionIndex.getInstance().
+						getSelection(fDescriptor, regEx);
 				
-				String name = (String) entry.getKey();
+				for (int i = 0; i < selection.size(); i++)
+				{
+					DataBuffer buffer = 
+						(DataBuffer) fDataBuffers.get(selection.getIndex(i));
+					
+					result.put(buffer.getName(), buffer);
+				}
+			}
+			else
+			{
+				Pattern pattern = PatternCache.getPattern(regEx);
+				Iterator dataBuffers = fDataBuffersByName.entrySet().iterator();
 				
-				if (Pattern.matches(regEx, name))
+				while (dataBuffers.hasNext())
 				{
-					result.put(name, entry.getValue());
+					Map.Entry entry = (Map.Entry) dataBuffers.next();
+					
+					String name = (String) entry.getKey();
+					
+					if (pattern.matcher(name).matches())
+					{
+						result.put(name, entry.getValue());
+					}
 				}
 			}
 		}
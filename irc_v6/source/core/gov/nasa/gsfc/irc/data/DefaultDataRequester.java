@@ -40,6 +40,7 @@ import edu.emory.mathcs.backport.java.util.concurrent.CopyOnWriteArrayList;
 import gov.nasa.gsfc.commons.processing.activity.ActivityStateModel;
 import gov.nasa.gsfc.commons.processing.activity.DefaultActivityStateModel;
 import gov.nasa.gsfc.commons.processing.creation.AbstractCreator;
+import gov.nasa.gsfc.commons.processing.tasks.BoundedTaskPool;
 import gov.nasa.gsfc.commons.properties.state.State;
 import gov.nasa.gsfc.commons.types.namespaces.HasName;
 import gov.nasa.gsfc.commons.types.namespaces.MembershipEvent;
@@ -50,6 +51,7 @@ import gov.nasa.gsfc.irc.data.events.DataListener;
 import gov.nasa.gsfc.irc.data.events.DataSetEvent;
 import gov.nasa.gsfc.irc.data.events.DataSpaceEvent;
 import gov.nasa.gsfc.irc.data.events.DataSpaceListener;
+import gov.nasa.gsfc.irc.data.events.SatisfiedRequestListener;
 
 
 /**
@@ -66,6 +68,13 @@ import gov.nasa.gsfc.irc.data.events.DataSpaceListener;
  * A DefaultDataRequester permits only one BasisRequest per BasisBundle. Adding
  * a BasisRequest for a BasisBundle will replace whatever BasisRequest may
  * previously have been associated with that BasisBundle.
+ * <p>
+ * A DefaultDataRequester has no Thread of its own. Its BasisRequesters notify
+ * it when they have satisfied their requests, and it then assembles and sends
+ * its DataSets on a pool of Threads shared by all DefaultDataRequesters. The
+ * pool does not bound its number of Threads, since listeners may block (e.g.,
+ * allocating in a full BasisBundle read by another DefaultDataRequester); 
+ * idle requesters hold no Thread, and idle Threads are reused and expire.
  * <P>
  * This code was developed for NASA, Goddard Space Flight Center, Code 580 for
  * the Instrument Remote Control (IRC) project.
@@ -79,6 +88,18 @@ public class DefaultDataRequester extends AbstractCreator
 	private static final String CLASS_NAME = DefaultDataRequester.class.getName();
 	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
 	
+	/**
+	 * The Threads shared by all DefaultDataRequesters for satisfying their 
+	 * requests. A satisfier scheduled while all of the Threads are busy runs 
+	 * on the Thread that scheduled it instead, since the busy Threads may be 
+	 * blocked in listeners waiting for it to consume their data.
+	 */
+	private static final BoundedTaskPool sSatisfierPool = 
+		new BoundedTaskPool("DataRequestSatisfier", 
+			Runtime.getRuntime().availableProcessors(), 
+			Math.max(4, 2 * Runtime.getRuntime().availableProcessors()), 
+			BoundedTaskPool.DEFAULT_KEEP_ALIVE_MILLIS);
+	
 	private ActivityStateModel fStateModel = new DefaultActivityStateModel();
 	
 	private HasName fSource;
@@ -98,207 +119,116 @@ public class DefaultDataRequester extends AbstractCreator
 	private int fRepetition = 0;
 	private int fRemainingRepetitions = 0;
 	private int fDownsamplingRate = 0;
+	private DownsamplingMode fDownsamplingMode = DownsamplingMode.FIRST;
 	
-	private Collection fSatisfyingBasisSets;
-	private DefaultDataSet fDataSet;
+	private Map fHeldBasisSets = new HashMap();
 	
 	private DataRequestSatisfier fDataRequestSatisfier = new DataRequestSatisfier();
-	private Thread fDataRequestSatisfierThread;
 	private PendingRequestHandler fPendingRequestHandler = new PendingRequestHandler();
 
 	/**
 	 * A DataRequestSatisfier is a Runnable that manages the satisfaction of the
-	 * composite set of BasisRequests for a DataRequester.
+	 * composite set of BasisRequests for a DataRequester. It is scheduled on 
+	 * the pool shared by all DefaultDataRequesters whenever one of the 
+	 * BasisRequesters of its DataRequester reports a satisfied request, or 
+	 * run by the scheduling Thread if no Thread of the pool is free. It runs 
+	 * at most once at a time, so DataSets are still sent in order.
 	 * 
 	 * @version $Date: 2006/08/01 19:55:47 $
 	 * @author Carl F. Hostetter
 	 */
-	private class DataRequestSatisfier implements Runnable 
+	private class DataRequestSatisfier 
+		implements Runnable, SatisfiedRequestListener
 	{
+		private boolean fScheduled = false;
+		private boolean fSignalled = false;
+		
 		/**
-		 * Causes this DataRequestSatisfier to satisfy the composite set of
-		 * BasisRequests of this DataRequester.
+		 * Schedules this DataRequestSatisfier to collect the newly satisfied 
+		 * request of the given BasisRequester.
+		 * 
+		 * @param requester A BasisRequester having a satisfied request
 		 */
-		public void run()
+		public void receiveSatisfiedRequest(BasisRequester requester)
 		{
-			if (! fIsContinuous)
+			schedule();
+		}
+		
+		/**
+		 * Schedules this DataRequestSatisfier to run, unless it is already 
+		 * scheduled. If it is currently running, it will run once more.
+		 */
+		public void schedule()
+		{
+			boolean submit = false;
+			
+			synchronized (this)
 			{
-				fRemainingRepetitions = fRepetition;
+				fSignalled = true;
+				
+				if (! fScheduled)
+				{
+					fScheduled = true;
+					submit = true;
+				}
 			}
 			
-			if (isStarted())
+			if (submit && ! sSatisfierPool.invokeIfAvailable(this))
 			{
-				declareActive();
+				run();
 			}
+		}
+		
+		/**
+		 * Causes this DataRequestSatisfier to satisfy the composite set of
+		 * BasisRequests of this DataRequester as far as the data now 
+		 * available allows.
+		 */
+		public void run()
+		{
+			boolean resubmit = true;
 			
-			boolean interrupted = false;
-			
-			while (! interrupted && isStarted() && 
-				(fIsContinuous || fRemainingRepetitions > 0))
+			while (resubmit)
 			{
-				// Iterate through the current set of BasisRequesters, blocking on 
-				// each until it returns a BasisSet that satisfies its individual 
-				// request.
+				boolean satisfied = false;
 				
-				if (fBasisRequestersByBasisBundleId.isEmpty())
+				synchronized (this)
 				{
-					// Wait until we have a request
-					synchronized (fBasisRequestersByBasisBundleId)
-					{
-						if (fBasisRequestersByBasisBundleId.isEmpty())
-						{
-							try
-							{
-								fBasisRequestersByBasisBundleId.wait();
-							}
-							catch (InterruptedException ex)
-							{
-								interrupted = true;
-							}
-						}
-					}
+					fSignalled = false;
 				}
 				
-				if (! interrupted)
+				try
 				{
-					int numBasisRequesters = 
-						fBasisRequestersByBasisBundleId.size();
-					
-					if (fSatisfyingBasisSets == null)
-					{
-						fSatisfyingBasisSets = 
-							new ArrayList(numBasisRequesters);
-					}
-					else
-					{
-						fSatisfyingBasisSets.clear();
-					}
-					
-					Object[] basisRequesters = 
-						fBasisRequestersByBasisBundleId.values().toArray();
-					
-					int numRequests = basisRequesters.length;
-					
-					boolean block = false;
-					boolean done = false;
-					
-					if ((fSatisfactionRule == 
-							DataRequestSatisfactionRuleType.ALL) || 
-						((fSatisfactionRule == 
-							DataRequestSatisfactionRuleType.FIRST)))
-					{
-						block = true;
-					}
-					
-					while (!interrupted && !done && isStarted())
+					satisfyRequests();
+					satisfied = true;
+				}
+				finally
+				{
+					synchronized (this)
 					{
-						for (int i=0; i < numRequests && isStarted(); i++)
-						{
-							BasisSet satisfyingBasisSet = null;
-							try
-							{
-								satisfyingBasisSet = collectBasisSet(
-										(BasisRequester) basisRequesters[i], 
-										block);
-								
-								if (getDataRequestSatisfactionRule() == 
-									DataRequestSatisfactionRuleType.FIRST)
-								{
-									block = false;
-								}
-							}
-							catch (InterruptedException e1)
-							{
-								// TODO Auto-generated catch block
-								interrupted = true;
-							}
-
-							// The result should only be null in the case that
-							// a BasisRequester is stopped.
-
-							if (satisfyingBasisSet != null)
-							{
-								fSatisfyingBasisSets.add(satisfyingBasisSet);
-							}
-						}
+						resubmit = fSignalled;
 						
-						if (! fSatisfyingBasisSets.isEmpty())
-						{
-							done = true;
-						}
-						else
+						if (! resubmit)
 						{
-							try
-							{
-								Thread.sleep(10);
-							}
-							catch (InterruptedException e)
-							{
-								interrupted = true;
-							}
+							fScheduled = false;
 						}
 					}
-				}
-					
-				// If we weren't interrupted or stopped while waiting for the 
-				// BasisRequests to be satisfied, then at this point they have all 
-				// been satisfied, so we package up the satisfying BasisSets into a 
-				// DataSet and ship it out.
-				
-				if (! interrupted && isStarted())
-				{
-					fDataSet = new DefaultDataSet
-						(getMemberId(), fSatisfyingBasisSets);
 					
-					fSatisfyingBasisSets.clear();
+					// Go to the back of the queue rather than looping here, 
+					// so that a busy DataRequester cannot starve the others, 
+					// unless no Thread of the pool is free to take over.
 					
-					if (! fIsContinuous)
+					if (resubmit && ! satisfied)
 					{
-						fRemainingRepetitions--;
+						sSatisfierPool.invokeLater(this);
 					}
-					
-					sendToListeners(fDataSet);
-					
-					// After our listeners have received the data, we can 
-					// release its memory for reuse.
-					
-					if (fDataSet != null)
+					else if (resubmit && 
+						sSatisfierPool.invokeIfAvailable(this))
 					{
-						// The DataSet can become null if we are stopped 
-						fDataSet.release();
-						fDataSet = null;
+						resubmit = false;
 					}
 				}
 			}
-			
-			// If we reach this point and our set of satisfying BasisSets is not 
-			// empty, then we were interrupted or stopped while satisfying requests, 
-			// and so need to release the BasisSets we did get for reuse.
-			
-			if ((fSatisfyingBasisSets != null) && 
-				(fSatisfyingBasisSets.size() > 0))
-			{
-				Iterator satisfyingBasisSets = 
-					((Collection) ((ArrayList) fSatisfyingBasisSets).clone()).iterator();
-				fSatisfyingBasisSets.clear();
-				
-				while (satisfyingBasisSets.hasNext())
-				{
-					BasisSet satisfyingBasisSet = 
-						(BasisSet) satisfyingBasisSets.next();
-					
-					satisfyingBasisSet.release();
-				}
-				
-			}
-			
-			if (fDataSet != null)
-			{
-				fDataSet.release();
-				fDataSet = null;
-			}
-			
-			stop();
 		}
 	}
 	
@@ -402,16 +332,18 @@ public class DefaultDataRequester extends AbstractCreator
 			{
 				fStateModel.start();
 				
-				startBasisRequesters();
-				
-				if (fDataRequestSatisfierThread == null)
+				if (! fIsContinuous)
 				{
-					fDataRequestSatisfierThread = 
-						new Thread(fDataRequestSatisfier, 
-							"DataRequestSatisfier for " + getName());
+					fRemainingRepetitions = fRepetition;
 				}
 				
-				fDataRequestSatisfierThread.start();
+				startBasisRequesters();
+				
+				declareActive();
+				
+				// Collect anything our BasisRequesters may already have.
+				
+				fDataRequestSatisfier.schedule();
 			}
 			catch (Exception ex)
 			{
@@ -478,39 +410,12 @@ public class DefaultDataRequester extends AbstractCreator
 		{
 			stopBasisRequesters();
 			
-			synchronized (fDataRequestSatisfierThread)
-			{
-				fStateModel.stop();
-				
-				if (! fDataRequestSatisfierThread.isInterrupted())
-				{
-					fDataRequestSatisfierThread.interrupt();
-				}
-				
-				if ((fSatisfyingBasisSets != null) && 
-					(fSatisfyingBasisSets.size() > 0))
-				{
-					Iterator remainingBasisSets = fSatisfyingBasisSets.iterator();
-					
-					while (remainingBasisSets.hasNext())
-					{
-						BasisSet basisSet = (BasisSet) remainingBasisSets.next();
-						
-						basisSet.release();
-					}
-					
-					fSatisfyingBasisSets.clear();
-				}
-				else if (fDataSet != null)
-				{
-					fDataSet.release();
-					fDataSet = null;
-				}
-			}
+			fStateModel.stop();
 			
-			// TODO investigate how to restart an interrupted thread instead
-			// of discarding the old one.
-			fDataRequestSatisfierThread = null;
+			// Any BasisSets already collected toward the next DataSet are no 
+			// longer needed.
+			
+			releaseHeldBasisSets();
 			
 			synchronized (fStateModel)
 			{
@@ -594,18 +499,13 @@ public class DefaultDataRequester extends AbstractCreator
 	{
 		if (! isKilled())
 		{
-			if (fDataRequestSatisfierThread != null)
-			{
-				// Kill the thread now to release the lock below
-				fDataRequestSatisfierThread.interrupt();
-				fDataRequestSatisfierThread = null;
-			}
-
 			stopBasisRequesters();
 			removeBasisRequests();
 			
 			fStateModel.kill();
 			
+			releaseHeldBasisSets();
+			
 			fIsContinuous = false;
 			fRepetition = 0;
 			fRemainingRepetitions = 0;
@@ -672,6 +572,16 @@ public class DefaultDataRequester extends AbstractCreator
 	//	BasisRequest-related methods
 	//----------------------------------------------------------------------
 	
+	/**
+	 * Collects a satisfying BasisSet from the given BasisRequester, blocking 
+	 * if requested until one is available.
+	 * 
+	 * @param requester A BasisRequester
+	 * @param block True if the call should block until the request of the 
+	 * 		BasisRequester is satisfied
+	 * @return The satisfying BasisSet, or null if there is none (yet)
+	 * @throws InterruptedException if a blocking call is interrupted
+	 */
 	protected BasisSet collectBasisSet(BasisRequester requester, boolean block)
 	throws InterruptedException
 	{
@@ -691,6 +601,179 @@ public class DefaultDataRequester extends AbstractCreator
 		return satisfyingBasisSet;
 	}
 	
+	/**
+	 * Collects the satisfying BasisSets now available from the BasisRequesters
+	 * of this DataRequester, and sends them on in DataSets for as long as the
+	 * DataRequestSatisfactionRuleType of this DataRequester is met. Called 
+	 * only by the DataRequestSatisfier.
+	 */
+	private void satisfyRequests()
+	{
+		DefaultDataSet dataSet = collectDataSet();
+		
+		while (dataSet != null)
+		{
+			try
+			{
+				sendToListeners(dataSet);
+			}
+			finally
+			{
+				// After our listeners have received the data, we can 
+				// release its memory for reuse.
+				
+				dataSet.release();
+			}
+			
+			if (! fIsContinuous && (fRemainingRepetitions <= 0))
+			{
+				stop();
+			}
+			
+			dataSet = collectDataSet();
+		}
+		
+		// If we were stopped while collecting, release whatever we hold.
+		
+		if (! isStarted())
+		{
+			releaseHeldBasisSets();
+		}
+	}
+	
+	/**
+	 * Collects, without blocking, a satisfying BasisSet from each 
+	 * BasisRequester of this DataRequester that does not already have one 
+	 * held, and returns a new DataSet of the held BasisSets if they now meet 
+	 * the DataRequestSatisfactionRuleType of this DataRequester. Under the 
+	 * ALL rule every BasisRequester must have been satisfied, under the FIRST 
+	 * rule the first BasisRequester added, and under the ANY rule any one.
+	 * 
+	 * @return A new DataSet, or null if the satisfaction rule is not yet met 
+	 * 		or this DataRequester is done
+	 */
+	private DefaultDataSet collectDataSet()
+	{
+		DefaultDataSet result = null;
+		
+		synchronized (fHeldBasisSets)
+		{
+			if (isStarted() && (fIsContinuous || fRemainingRepetitions > 0))
+			{
+				Object[] basisRequesters = fBasisRequesters.toArray();
+				
+				// Release anything still held for a BasisRequester that has 
+				// since been removed.
+				
+				for (Iterator iter = fHeldBasisSets.entrySet().iterator(); 
+					iter.hasNext();)
+				{
+					Map.Entry entry = (Map.Entry) iter.next();
+					
+					if (! fBasisRequesters.contains(entry.getKey()))
+					{
+						((BasisSet) entry.getValue()).release();
+						iter.remove();
+					}
+				}
+				
+				for (int i = 0; i < basisRequesters.length; i++)
+				{
+					if (! fHeldBasisSets.containsKey(basisRequesters[i]))
+					{
+						BasisSet satisfyingBasisSet = null;
+						
+						try
+						{
+							satisfyingBasisSet = collectBasisSet(
+								(BasisRequester) basisRequesters[i], false);
+						}
+						catch (InterruptedException ex)
+						{
+							// Cannot happen, since we never block here.
+						}
+						
+						// The result is null if the request is not yet 
+						// satisfied, or if the BasisRequester is stopped.
+						
+						if (satisfyingBasisSet != null)
+						{
+							fHeldBasisSets.put(
+								basisRequesters[i], satisfyingBasisSet);
+						}
+					}
+				}
+				
+				boolean satisfied = false;
+				
+				if (basisRequesters.length > 0)
+				{
+					if (fSatisfactionRule == 
+						DataRequestSatisfactionRuleType.ALL)
+					{
+						satisfied = 
+							(fHeldBasisSets.size() == basisRequesters.length);
+					}
+					else if (fSatisfactionRule == 
+						DataRequestSatisfactionRuleType.FIRST)
+					{
+						satisfied = 
+							fHeldBasisSets.containsKey(basisRequesters[0]);
+					}
+					else
+					{
+						satisfied = ! fHeldBasisSets.isEmpty();
+					}
+				}
+				
+				if (satisfied)
+				{
+					List satisfyingBasisSets = 
+						new ArrayList(fHeldBasisSets.size());
+					
+					for (int i = 0; i < basisRequesters.length; i++)
+					{
+						Object basisSet = 
+							fHeldBasisSets.remove(basisRequesters[i]);
+						
+						if (basisSet != null)
+						{
+							satisfyingBasisSets.add(basisSet);
+						}
+					}
+					
+					if (! fIsContinuous)
+					{
+						fRemainingRepetitions--;
+					}
+					
+					result = new DefaultDataSet
+						(getMemberId(), satisfyingBasisSets);
+				}
+			}
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Releases the BasisSets collected toward the next DataSet of this 
+	 * DataRequester.
+	 */
+	private void releaseHeldBasisSets()
+	{
+		synchronized (fHeldBasisSets)
+		{
+			for (Iterator iter = fHeldBasisSets.values().iterator(); 
+				iter.hasNext();)
+			{
+				((BasisSet) iter.next()).release();
+			}
+			
+			fHeldBasisSets.clear();
+		}
+	}
+	
 	/**
 	 * Releases all currently queued input data.
 	 */
@@ -832,15 +915,12 @@ public class DefaultDataRequester extends AbstractCreator
 			
 			requester = createBasisRequester(basisRequest);
 			
-			synchronized (fBasisRequestersByBasisBundleId)
-			{
-				fBasisRequestersByBasisBundleId.put(basisBundleId, requester);
-				
-				if (fBasisRequestersByBasisBundleId.size() == 1)
-				{
-					fBasisRequestersByBasisBundleId.notify();
-				}
-			}
+			fBasisRequestersByBasisBundleId.put(basisBundleId, requester);
+			
+			// Have the new BasisRequester tell us when its requests are 
+			// satisfied.
+			
+			requester.addSatisfiedRequestListener(fDataRequestSatisfier);
 			
 			// Add any current DataRequesterListeners as
 			// BasisBundleEventListeners on the new BasisRequester,
@@ -910,7 +990,10 @@ public class DefaultDataRequester extends AbstractCreator
 	{
 		for (Iterator iter = fBasisRequesters.iterator(); iter.hasNext();)
 		{
-			((BasisRequester) iter.next()).stop();
+			BasisRequester requester = (BasisRequester) iter.next();
+			
+			requester.removeSatisfiedRequestListener(fDataRequestSatisfier);
+			requester.stop();
 		}
 		
 		fBasisRequesters.clear();
@@ -947,6 +1030,8 @@ public class DefaultDataRequester extends AbstractCreator
 				
 				if (requester != null)
 				{
+					requester.removeSatisfiedRequestListener(
+						fDataRequestSatisfier);
 					requester.stop();
 					fBasisRequesters.remove(requester);
 				}
@@ -1104,6 +1189,40 @@ public class DefaultDataRequester extends AbstractCreator
 	{
 		return fDownsamplingRate;
 	}
+	
+	/**
+	 * Sets the DownsamplingMode of all of the BasisRequesters of this 
+	 * DataRequester to the given mode. If the given mode is null the mode is
+	 * set to {@link DownsamplingMode#FIRST}.
+	 * 
+	 * @param downsamplingMode The DownsamplingMode of the BasisRequesters of 
+	 * 		this DataRequester
+	 */
+	public void setDownsamplingMode(DownsamplingMode downsamplingMode)
+	{
+		if (downsamplingMode == null)
+		{
+			downsamplingMode = DownsamplingMode.FIRST;
+		}
+		
+		for (Iterator iter = fBasisRequesters.iterator(); iter.hasNext();)
+		{
+			((BasisRequester) iter.next()).setDownsamplingMode(downsamplingMode);
+		}
+
+		fDownsamplingMode = downsamplingMode;
+	}
+	
+	/**
+	 * Gets the DownsamplingMode of the BasisRequesters of this DataRequester.
+	 * 
+	 * @return The DownsamplingMode of the BasisRequesters of this 
+	 * 		DataRequester
+	 */
+	public DownsamplingMode getDownsamplingMode()
+	{
+		return fDownsamplingMode;
+	}
 
 	/**
 	 * After this DataRequester has been started, this will return the current
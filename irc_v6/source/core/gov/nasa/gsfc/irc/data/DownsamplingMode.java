@@ -0,0 +1,185 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import gov.nasa.gsfc.commons.types.namespaces.AbstractNamedObject;
+
+
+/**
+ * A DownsamplingMode enumerates how each group of n consecutive samples is 
+ * reduced to the samples of a downsampled DataBuffer, where n is the 
+ * downsampling rate.
+ * <ul>
+ * <li>{@link #FIRST}: the first sample of each group (plain decimation, and 
+ * 		the default).</li>
+ * <li>{@link #LAST}: the last sample of each group.</li>
+ * <li>{@link #MEAN}: the arithmetic mean of each group.</li>
+ * <li>{@link #MINIMUM}: the smallest sample of each group.</li>
+ * <li>{@link #MAXIMUM}: the largest sample of each group.</li>
+ * <li>{@link #ENVELOPE}: the smallest and the largest sample of each group, 
+ * 		in the order in which they occur, so the result has two samples per 
+ * 		group and keeps every spike of the original.</li>
+ * <li>{@link #RMS}: the root mean square of each group.</li>
+ * </ul>
+ * NaN samples are left out of the aggregates; a group with only NaN samples 
+ * yields NaN.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$ 
+ * @author $Author$ 
+**/
+
+public class DownsamplingMode extends AbstractNamedObject 
+	implements Serializable
+{
+	/**
+	 * All known DownsamplingModes, keyed by name.
+	**/
+	// NB: For initialization sequence, this has to come before any 
+	// DownsamplingMode constants.
+	private static Map sModes = new HashMap();
+	
+	public static final DownsamplingMode FIRST = 
+		new DownsamplingMode("first");
+	public static final DownsamplingMode LAST = 
+		new DownsamplingMode("last");
+	public static final DownsamplingMode MEAN = 
+		new DownsamplingMode("mean");
+	public static final DownsamplingMode MINIMUM = 
+		new DownsamplingMode("min");
+	public static final DownsamplingMode MAXIMUM = 
+		new DownsamplingMode("max");
+	public static final DownsamplingMode ENVELOPE = 
+		new DownsamplingMode("envelope");
+	public static final DownsamplingMode RMS = 
+		new DownsamplingMode("rms");
+	
+
+	/**
+	 * Constructs a new DownsamplingMode having the given name.
+	 *
+	 * @param name The name of the new DownsamplingMode
+	**/
+	
+	protected DownsamplingMode(String name)
+	{
+		super(name);
+		
+		sModes.put(name, this);
+	}
+	
+
+	/**
+	 * Returns the DownsamplingMode to be applied to the basis buffer of a 
+	 * BasisSet whose data buffers are downsampled with this mode. Modes that 
+	 * select samples select the matching basis values; modes that compute a 
+	 * value per group place it at the mean basis value of the group. Since a 
+	 * basis is increasing, the envelope of a basis group is its first and 
+	 * last value.
+	 *
+	 * @return The DownsamplingMode of the basis buffer
+	**/
+	
+	public DownsamplingMode getBasisMode()
+	{
+		DownsamplingMode result = MEAN;
+		
+		if (this == FIRST || this == LAST || this == ENVELOPE)
+		{
+			result = this;
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns the number of samples this DownsamplingMode yields for each 
+	 * group of samples.
+	 *
+	 * @return The number of samples per group
+	**/
+	
+	public int getSamplesPerGroup()
+	{
+		return (this == ENVELOPE ? 2 : 1);
+	}
+	
+
+	/**
+	 *  Returns a String representation of this DownsamplingMode.
+	 *
+	 *  @return A String representation of this DownsamplingMode
+	**/
+	
+	public String toString()
+	{
+		return (getName());
+	}
+	
+
+	/**
+	 * Returns the DownsamplingMode corresponding to the given 
+	 * DownsamplingMode name.
+	 *
+	 * @param The name of the desired DownsamplingMode
+	 * @return The DownsamplingMode that has the given name (if any)
+	**/
+	
+	public static DownsamplingMode forName(String name)
+	{
+		DownsamplingMode result = (DownsamplingMode) sModes.get(name);
+		
+		return (result);
+	}
+	
+
+	/**
+	 * This method supports serialization.
+	 *
+	**/
+	
+	public Object readResolve() throws ObjectStreamException
+	{
+		String name = getName();
+		
+		if (! sModes.containsKey(name))
+		{
+			sModes.put(name, this);
+		}
+		
+		return ((DownsamplingMode) sModes.get(name));
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
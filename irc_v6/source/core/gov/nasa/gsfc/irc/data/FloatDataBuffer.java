@@ -23,9 +23,12 @@
 package gov.nasa.gsfc.irc.data;
 
 import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.nio.ReadOnlyBufferException;
 
+import gov.nasa.gsfc.commons.numerics.math.calculations.StreamingMoments;
 import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
 
 /**
@@ -271,6 +274,104 @@ final class FloatDataBuffer extends AbstractDataBuffer
 		return (buffer);	
 	}
 
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.irc.data.DataBuffer#get(java.nio.ByteBuffer)
+	 */
+	public DataBuffer get(ByteBuffer destination)
+	{
+		int size = fBufferLength;
+		int sizeInBytes = size * BYTES_PER_ELEMENT;
+		int position = destination.position();
+		
+		if (destination.remaining() < sizeInBytes)
+		{
+			throw new BufferOverflowException();
+		}
+		
+		FloatBuffer view = destination.asFloatBuffer();
+		
+		if (fArrayOffset + size > fArrayLength)
+		{
+			int tailLength = fArrayLength - fArrayOffset;
+			view.put(fNativeArray, fArrayOffset, tailLength);
+			view.put(fNativeArray, 0, size - tailLength);
+		}
+		else
+		{
+			view.put(fNativeArray, fArrayOffset, size);
+		}
+		
+		destination.position(position + sizeInBytes);
+		
+		return (this);
+	}
+
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.irc.data.DataBuffer#put(int, java.nio.ByteBuffer, int)
+	 */
+	public DataBuffer put(int index, ByteBuffer source, int length)
+	{
+		if (fIsReadOnly)
+		{
+			throw new ReadOnlyBufferException();
+		}
+		
+		if (index < 0 || length < 0 || length + index > getSize())
+		{
+			throw new BufferOverflowException();
+		}
+		
+		int lengthInBytes = length * BYTES_PER_ELEMENT;
+		int position = source.position();
+		
+		if (source.remaining() < lengthInBytes)
+		{
+			throw new BufferUnderflowException();
+		}
+		
+		if (length > 0)
+		{
+			FloatBuffer view = source.asFloatBuffer();
+			int start = resolveIndex(index);
+			int tailLength = fArrayLength - start;
+			
+			if (length > tailLength)
+			{
+				view.get(fNativeArray, start, tailLength);
+				view.get(fNativeArray, 0, length - tailLength);
+			}
+			else
+			{
+				view.get(fNativeArray, start, length);
+			}
+		}
+		
+		source.position(position + lengthInBytes);
+		
+		return (this);
+	}
+
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.irc.data.AbstractDataBuffer#addToMoments(int, int, gov.nasa.gsfc.commons.numerics.math.calculations.StreamingMoments, double[])
+	 */
+	void addToMoments(int arrayIndex, int length, StreamingMoments moments, 
+		double[] chunk)
+	{
+		moments.add(fNativeArray, arrayIndex, length);
+	}
+
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.irc.data.AbstractDataBuffer#copyAsDoubles(int, double[], int, int)
+	 */
+	void copyAsDoubles(
+		int arrayIndex, double[] destination, int destinationIndex, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			destination[destinationIndex + i] = fNativeArray[arrayIndex + i];
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see gov.nasa.gsfc.irc.data.DataBuffer#getAsByteArray()
 	 */
@@ -40,6 +40,7 @@ import gov.nasa.gsfc.commons.numerics.types.Amount;
 public class HistoryBasisRequest extends BasisRequest
 {
 	private double fUpdateInterval = 1.0;
+	private int fResolution = 0;
 	
 	/**
 	 * Constructs a HistoryBasisRequest for the given Amount of
@@ -165,6 +166,32 @@ public class HistoryBasisRequest extends BasisRequest
 	{
 		fUpdateInterval = interval;
 	}
+
+	/**
+	 * Returns the target resolution of the requested history in samples, or
+	 * 0 if the history is requested at full rate.
+	 * 
+	 * @return Returns the target resolution.
+	 */
+	public int getResolution()
+	{
+		return fResolution;
+	}
+
+	/**
+	 * Sets the target resolution of the requested history in samples. If 
+	 * the history holds more samples than this, it is satisfied from the
+	 * coarsest level of detail that still has at least this many samples, 
+	 * each summarizing a bucket of samples by its minimum and maximum. Set 
+	 * to 0 (the default) to request the history at full rate.
+	 * 
+	 * @param resolution The target resolution to set.
+	 * @see HistoryPyramid
+	 */
+	public void setResolution(int resolution)
+	{
+		fResolution = resolution;
+	}
 }
 
 //--- Development History  ---------------------------------------------------
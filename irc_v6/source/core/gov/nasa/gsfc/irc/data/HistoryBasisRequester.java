@@ -80,6 +80,7 @@ public class HistoryBasisRequester extends AbstractBasisRequester
 	private Unit fRequestedUpdateIntervalUnit = Amount.lookUpUnit("s");
 	private long fLastUpdate = 0;
 	private boolean fDownsamplingEnabled = false;
+	private int fResolution = 0;			// target resolution in samples
 
 	private double fAmountKept = 0;
 	private boolean fHistoryBundleInitialized = false;
@@ -161,6 +162,9 @@ public class HistoryBasisRequester extends AbstractBasisRequester
 		
 		if (fBasisRequest instanceof HistoryBasisRequest)
 		{
+			fResolution = 
+				((HistoryBasisRequest) fBasisRequest).getResolution();
+			
 			// Get the update interval in seconds and convert it to ms
 			fRequestedUpdateInterval = 
 				((HistoryBasisRequest) fBasisRequest).getUpdateInterval();
@@ -268,12 +272,81 @@ public class HistoryBasisRequester extends AbstractBasisRequester
 			outdatedBasisSet.release();
 		}
 
-		if (fDownsamplingEnabled)
+		if (fResolution > 0)
+		{
+			basisSet = reduceResolution(basisSet);
+		}
+		else if (fDownsamplingEnabled)
 		{
 			basisSet = downsample(basisSet);
 		}
 		
 		fSatisfiedRequest.add(basisSet);
+		
+		alertSatisfiedRequestListeners();
+	}
+
+	/**
+	 * Replaces the given history BasisSet by its envelope at the coarsest 
+	 * level of detail that has at least the requested resolution, if there 
+	 * is one. The given BasisSet will be released if it is replaced.
+	 * 
+	 * @param basisSet the history BasisSet to reduce
+	 * @return a reduced BasisSet or the original BasisSet
+	 */
+	private BasisSet reduceResolution(BasisSet basisSet)
+	{
+		BasisSet result = basisSet;
+		
+		if (basisSet.getSize() > fResolution)
+		{
+			BasisSet reduced = fHistoryBasisBundle.getLevelOfDetail(
+				basisSet.getFirstBasisValue(), basisSet.getLastBasisValue(), 
+				fResolution, HistoryPyramid.ENVELOPE);
+			
+			if (reduced != null)
+			{
+				basisSet.release();
+				result = reduced;
+			}
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Returns the given basis range of the history kept by this 
+	 * BasisRequester with at least the given number of samples, taken from 
+	 * the cheapest source that satisfies it: the envelope of the coarsest 
+	 * level of detail that has enough samples in the range, or else the 
+	 * full-rate history. Levels of detail are only kept if the 
+	 * HistoryBasisRequest of this BasisRequester has a target resolution. 
+	 * The caller must release the result.
+	 * 
+	 * @param startBasis The start of the basis range
+	 * @param endBasis The end of the basis range
+	 * @param resolution The desired minimum number of samples in the range
+	 * @return A BasisSet holding the basis range, or null if there is no
+	 * 		history yet
+	 * @see HistoryBundle#getLevelOfDetail(double, double, int, int)
+	 */
+	public synchronized BasisSet getHistory(
+		double startBasis, double endBasis, int resolution)
+	{
+		BasisSet result = null;
+		
+		if (fHistoryBundleInitialized)
+		{
+			result = fHistoryBasisBundle.getLevelOfDetail(
+				startBasis, endBasis, resolution, HistoryPyramid.ENVELOPE);
+			
+			if (result == null)
+			{
+				result = fHistoryBasisBundle.getHistory(startBasis, endBasis);
+			}
+		}
+		
+		return (result);
 	}
 
 	/**
@@ -466,6 +539,12 @@ public class HistoryBasisRequester extends AbstractBasisRequester
 			
 			fHistoryBasisBundle.setHistorySize(fHistorySamples);
 			fMemoryModel = fHistoryBasisBundle.getMemoryModel();
+			
+			if (fResolution > 0)
+			{
+				fHistoryBasisBundle.setLevelOfDetailFactor(
+					HistoryPyramid.DEFAULT_FACTOR);
+			}
 
 			// Initialization is complete
 			result = true;
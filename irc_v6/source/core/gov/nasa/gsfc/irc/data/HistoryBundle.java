@@ -51,6 +51,13 @@ import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
  * The {@link #appendBasisSet(BasisSet)} method provides the means to add data
  * to this history. Note that appending data will block if there is currently
  * insufficient free space in the HistoryBundle.
+ * <p>
+ * A HistoryBundle can optionally maintain a {@link HistoryPyramid} of 
+ * aggregates of its history at successively coarser resolutions, enabled
+ * with {@link #setLevelOfDetailFactor(int)}. A basis range can then be read 
+ * at a target resolution with 
+ * {@link #getLevelOfDetail(double, double, int, int)} without reading the 
+ * full-rate history.
  * <P>
  * This code was developed for NASA, Goddard Space Flight Center, Code 580 for
  * the Instrument Remote Control (IRC) project.
@@ -76,6 +83,9 @@ public class HistoryBundle extends AbstractCreatedMember
 	private CompositeAllocation fHistoryAllocation = null;
 	private int fHistorySize = 1000;
 	
+	private int fLevelOfDetailFactor = 0;
+	private HistoryPyramid fPyramid = null;
+	
 	/**
 	 * Constructs a new HistoryBundle for the given BasisBundleSource, as
 	 * described by the given BasisBundleDescriptor, and whose backing data
@@ -115,6 +125,8 @@ public class HistoryBundle extends AbstractCreatedMember
 			
 			fBackingBasisSet = new DefaultBasisSet(fBasisBundleId, fCapacity);
 		}
+		
+		fPyramid = null;
 	}
 	
 	/**
@@ -133,6 +145,11 @@ public class HistoryBundle extends AbstractCreatedMember
 	{
 		if (fDescriptor != descriptor)
 		{
+			if (fDescriptor != null)
+			{
+				DataBufferSelectionIndex.getInstance().invalidate(fDescriptor);
+			}
+			
 			fDescriptor = descriptor;
 			
 			createNewBackingBuffers();
@@ -406,6 +423,8 @@ public class HistoryBundle extends AbstractCreatedMember
 					fBackingBasisSet.put(startIndex, basisSet);
 				}
 				
+				appendToPyramid(startIndex, basisSet.getSize());
+				
 				// Remember previous allocation
 				CompositeAllocation previousHistoryAllocation = fHistoryAllocation;
 				
@@ -497,6 +516,183 @@ public class HistoryBundle extends AbstractCreatedMember
 		return (result);
 	}
 
+	/**
+	 * Adds the given range of the backing buffers, which has just been 
+	 * written, to the level of detail pyramid if it is enabled.
+	 * 
+	 * @param startIndex The index of the first new sample
+	 * @param size The number of new samples
+	 */
+	private void appendToPyramid(int startIndex, int size)
+	{
+		if (fLevelOfDetailFactor > 1)
+		{
+			if (fPyramid == null)
+			{
+				fPyramid = new HistoryPyramid(
+					fBackingBasisSet.getNumberOfDataBuffers(), 
+					fHistorySize, fLevelOfDetailFactor);
+			}
+			
+			int bufferEnd = startIndex + size;
+			
+			if (bufferEnd > fCapacity)
+			{
+				fPyramid.append(fBackingBasisSet, startIndex, 
+					fCapacity - startIndex);
+				fPyramid.append(fBackingBasisSet, 0, bufferEnd - fCapacity);
+			}
+			else
+			{
+				fPyramid.append(fBackingBasisSet, startIndex, size);
+			}
+		}
+	}
+	
+	/**
+	 * Sets the factor between the resolutions of successive levels of the 
+	 * level of detail pyramid of this HistoryBundle, typically 4 or 10. A 
+	 * factor of 0 (the default) disables the pyramid. The pyramid only 
+	 * summarizes data appended after it is enabled.
+	 * 
+	 * @param factor The factor between successive levels of detail, or 0
+	 * @see HistoryPyramid
+	 */
+	public synchronized void setLevelOfDetailFactor(int factor)
+	{
+		if (factor != fLevelOfDetailFactor)
+		{
+			fLevelOfDetailFactor = factor;
+			fPyramid = null;
+		}
+	}
+	
+	/**
+	 * Returns the factor between the resolutions of successive levels of the 
+	 * level of detail pyramid of this HistoryBundle, or 0 if it is disabled.
+	 * 
+	 * @return The factor between successive levels of detail, or 0
+	 */
+	public int getLevelOfDetailFactor()
+	{
+		return (fLevelOfDetailFactor);
+	}
+	
+	/**
+	 * Returns a new BasisSet holding the given basis range of this history 
+	 * at the coarsest level of detail that has at least the given number of
+	 * samples in the range, or null if no level does, in which case the 
+	 * full-rate history is the cheapest source that satisfies the request 
+	 * (see {@link #getHistory(double, double)}). The result is a copy and 
+	 * has the structure of this HistoryBundle; each of its samples 
+	 * summarizes a bucket of full-rate samples as the given aggregate.
+	 * 
+	 * @param startBasis The start of the basis range
+	 * @param endBasis The end of the basis range
+	 * @param resolution The desired minimum number of samples in the range
+	 * @param aggregate One of the HistoryPyramid aggregates MEAN, MINIMUM,
+	 * 		MAXIMUM or ENVELOPE
+	 * @return A BasisSet summarizing the basis range, or null
+	 */
+	public synchronized BasisSet getLevelOfDetail(
+		double startBasis, double endBasis, int resolution, int aggregate)
+	{
+		BasisSet result = null;
+		
+		if (fPyramid != null)
+		{
+			int level = fPyramid.selectLevel(startBasis, endBasis, resolution);
+			
+			if (level >= 0)
+			{
+				int size = 
+					fPyramid.getNumberOfBuckets(level, startBasis, endBasis);
+				
+				if (aggregate == HistoryPyramid.ENVELOPE)
+				{
+					size *= 2;
+				}
+				
+				result = new DefaultBasisSet(fBasisBundleId, size);
+				
+				fPyramid.read(level, startBasis, endBasis, aggregate, result);
+			}
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Returns the full-rate samples of the current history that fall within
+	 * the given basis range, or null if this HistoryBundle is empty. The 
+	 * result shares the backing buffers of this HistoryBundle and must be 
+	 * released by the caller.
+	 * 
+	 * @param startBasis The start of the basis range
+	 * @param endBasis The end of the basis range
+	 * @return A BasisSet holding the samples in the basis range, or null
+	 */
+	public synchronized BasisSet getHistory(double startBasis, double endBasis)
+	{
+		BasisSet result = null;
+		
+		if (fHistoryAllocation != null)
+		{
+			fHistoryAllocation.hold();
+			
+			DefaultBasisSet history = (DefaultBasisSet) 
+				fBackingBasisSet.slice(
+						fHistoryAllocation.getStart(), 
+						fHistoryAllocation.getSize());
+			
+			history.setAllocation(fHistoryAllocation);
+			
+			DataBuffer basisBuffer = history.getBasisBuffer();
+			int first = findBasisIndex(basisBuffer, startBasis, false);
+			int last = findBasisIndex(basisBuffer, endBasis, true);
+			
+			result = history.slice(first, Math.max(0, last - first));
+			
+			history.release();
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Returns the index of the first sample of the given basis buffer whose 
+	 * value is not less than (or, if inclusive, greater than) the given 
+	 * basis value. Basis values are assumed to be non-decreasing.
+	 * 
+	 * @param basisBuffer A basis buffer
+	 * @param basis A basis value
+	 * @param inclusive True to skip samples equal to the basis value
+	 * @return The index found, which may be the size of the buffer
+	 */
+	private static int findBasisIndex(DataBuffer basisBuffer, double basis, 
+		boolean inclusive)
+	{
+		int low = 0;
+		int high = basisBuffer.getSize();
+		
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			double value = basisBuffer.getAsDouble(middle);
+			
+			if (value < basis || (inclusive && value == basis))
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		
+		return (low);
+	}
+
 	/**
 	 * @return Returns the memoryModel.
 	 */
@@ -616,9 +812,10 @@ public class HistoryBundle extends AbstractCreatedMember
 	/**
 	 * @param historySize The historySize to set.
 	 */
-	public void setHistorySize(int historySize)
+	public synchronized void setHistorySize(int historySize)
 	{
 		fHistorySize = historySize;
+		fPyramid = null;
 	}
 }
 
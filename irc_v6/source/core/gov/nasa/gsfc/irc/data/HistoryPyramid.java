@@ -0,0 +1,724 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data;
+
+import java.util.Iterator;
+
+
+/**
+ * A HistoryPyramid is a multi-resolution summary of the history held by a 
+ * {@link HistoryBundle}. Each level of the pyramid divides the history into 
+ * buckets of a fixed number of samples, growing by a constant factor from 
+ * one level to the next, and keeps the minimum, maximum, sum and count of 
+ * each DataBuffer together with the first and last basis value of each 
+ * bucket. Levels are maintained incrementally as samples are appended: the 
+ * finest level aggregates samples and each coarser level aggregates 
+ * completed buckets of the level below, so an append costs little more than
+ * one pass over the new samples.
+ * <p>
+ * A basis range can then be read at a target resolution from the coarsest 
+ * level that still has at least that many buckets in the range, rather than
+ * by reading or picking from the full-rate history. Basis values are assumed
+ * to be non-decreasing.
+ * <p>
+ * A HistoryPyramid is not synchronized; it is owned and guarded by its 
+ * HistoryBundle.
+ * <P>
+ * This code was developed for NASA, Goddard Space Flight Center, Code 580 for
+ * the Instrument Remote Control (IRC) project.
+ * 
+ * @version $Date$
+ * @author $Author$
+ */
+public class HistoryPyramid
+{
+	/**
+	 * The default factor between the bucket sizes of adjacent levels.
+	 */
+	public static final int DEFAULT_FACTOR = 4;
+	
+	/**
+	 * The smallest number of buckets a level is built with. Coarser levels
+	 * would hold too little of the history to be useful.
+	 */
+	public static final int MINIMUM_LEVEL_SIZE = 16;
+	
+	/**
+	 * Each bucket is read as one sample holding the mean of each DataBuffer.
+	 */
+	public static final int MEAN = 0;
+	
+	/**
+	 * Each bucket is read as one sample holding the minimum of each 
+	 * DataBuffer.
+	 */
+	public static final int MINIMUM = 1;
+	
+	/**
+	 * Each bucket is read as one sample holding the maximum of each 
+	 * DataBuffer.
+	 */
+	public static final int MAXIMUM = 2;
+	
+	/**
+	 * Each bucket is read as two samples, the minimum of each DataBuffer at
+	 * the first basis value of the bucket and the maximum at its last basis
+	 * value, so that no peak is lost.
+	 */
+	public static final int ENVELOPE = 3;
+	
+	private int fFactor;
+	private int fNumberOfBuffers;
+	private Level[] fLevels;
+	
+	//  Scratch copies of the samples being appended
+	private double[] fBasisValues = new double[0];
+	private double[][] fDataValues;
+	
+	//  Scratch bucket used to merge partial buckets when reading
+	private Level fPartial;
+	
+	/**
+	 * Constructs a new, empty HistoryPyramid for the given number of 
+	 * DataBuffers that summarizes a history of the given size.
+	 * 
+	 * @param numberOfBuffers The number of DataBuffers, not counting the 
+	 * 		basis buffer
+	 * @param historySize The number of samples of history to summarize
+	 * @param factor The factor between the bucket sizes of adjacent levels
+	 * @throws IllegalArgumentException if the factor is less than 2 or the 
+	 * 		history size is not positive
+	 */
+	public HistoryPyramid(int numberOfBuffers, int historySize, int factor)
+	{
+		if (factor < 2 || historySize < 1 || numberOfBuffers < 0)
+		{
+			String message = "Invalid pyramid factor " + factor 
+				+ " or history size " + historySize;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fFactor = factor;
+		fNumberOfBuffers = numberOfBuffers;
+		fDataValues = new double[numberOfBuffers][0];
+		fPartial = new Level(0, 0, numberOfBuffers);
+		
+		int numberOfLevels = 0;
+		
+		for (long span = factor; historySize / span >= MINIMUM_LEVEL_SIZE; 
+			span *= factor)
+		{
+			numberOfLevels++;
+		}
+		
+		fLevels = new Level[numberOfLevels];
+		
+		int span = factor;
+		
+		for (int i = 0; i < numberOfLevels; i++, span *= factor)
+		{
+			fLevels[i] = new Level(span, historySize / span + 2, 
+				numberOfBuffers);
+			
+			if (i > 0)
+			{
+				fLevels[i - 1].fParent = fLevels[i];
+			}
+		}
+	}
+	
+	/**
+	 * Returns the factor between the bucket sizes of adjacent levels.
+	 * 
+	 * @return The factor between the bucket sizes of adjacent levels
+	 */
+	public int getFactor()
+	{
+		return (fFactor);
+	}
+	
+	/**
+	 * Returns the number of levels of this pyramid, not counting the 
+	 * full-rate history itself.
+	 * 
+	 * @return The number of levels of this pyramid
+	 */
+	public int getNumberOfLevels()
+	{
+		return (fLevels.length);
+	}
+	
+	/**
+	 * Returns the number of samples summarized by each bucket of the given 
+	 * level, where level 0 is the finest.
+	 * 
+	 * @param level A level of this pyramid
+	 * @return The number of samples in each bucket of the level
+	 */
+	public int getSpan(int level)
+	{
+		return (fLevels[level].fSpan);
+	}
+	
+	/**
+	 * Discards all of the buckets of this pyramid.
+	 */
+	public void clear()
+	{
+		for (int i = 0; i < fLevels.length; i++)
+		{
+			fLevels[i].clear();
+		}
+	}
+	
+	/**
+	 * Adds the given range of samples of the given BasisSet to this pyramid.
+	 * The DataBuffers of the BasisSet are taken in the order of its 
+	 * <code>getDataBuffers</code> iterator, which must be the same for every
+	 * BasisSet added.
+	 * 
+	 * @param basisSet The BasisSet holding the new samples
+	 * @param startIndex The index of the first new sample in the BasisSet
+	 * @param length The number of new samples
+	 */
+	public void append(BasisSet basisSet, int startIndex, int length)
+	{
+		if (fLevels.length > 0 && length > 0)
+		{
+			if (fBasisValues.length < length)
+			{
+				fBasisValues = new double[length];
+				
+				for (int i = 0; i < fNumberOfBuffers; i++)
+				{
+					fDataValues[i] = new double[length];
+				}
+			}
+			
+			basisSet.getBasisBuffer().get(startIndex, fBasisValues, 0, length);
+			
+			Iterator dataBuffers = basisSet.getDataBuffers();
+			
+			for (int i = 0; i < fNumberOfBuffers && dataBuffers.hasNext(); i++)
+			{
+				DataBuffer dataBuffer = (DataBuffer) dataBuffers.next();
+				
+				dataBuffer.get(startIndex, fDataValues[i], 0, length);
+			}
+			
+			fLevels[0].addSamples(fBasisValues, fDataValues, length, fFactor);
+		}
+	}
+	
+	/**
+	 * Returns the coarsest level that has at least the given number of 
+	 * buckets within the given basis range, or -1 if even the finest level 
+	 * has fewer, in which case the full-rate history is the cheapest source
+	 * that satisfies the resolution.
+	 * 
+	 * @param startBasis The start of the basis range
+	 * @param endBasis The end of the basis range
+	 * @param resolution The desired number of samples over the range
+	 * @return The selected level, or -1
+	 */
+	public int selectLevel(double startBasis, double endBasis, int resolution)
+	{
+		int result = -1;
+		
+		for (int i = fLevels.length - 1; i >= 0 && result < 0; i--)
+		{
+			if (getNumberOfBuckets(i, startBasis, endBasis) >= resolution)
+			{
+				result = i;
+			}
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Returns the number of buckets of the given level that overlap the 
+	 * given basis range, including a trailing partial bucket.
+	 * 
+	 * @param level A level of this pyramid
+	 * @param startBasis The start of the basis range
+	 * @param endBasis The end of the basis range
+	 * @return The number of overlapping buckets
+	 */
+	public int getNumberOfBuckets(int level, double startBasis, double endBasis)
+	{
+		Level pyramidLevel = fLevels[level];
+		
+		int result = Math.max(0, pyramidLevel.findLast(endBasis) 
+			- pyramidLevel.findFirst(startBasis));
+		
+		if (mergePartial(level) && fPartial.overlaps(startBasis, endBasis))
+		{
+			result++;
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Writes the buckets of the given level that overlap the given basis 
+	 * range into the given BasisSet, one sample per bucket, or two for the
+	 * ENVELOPE aggregate, starting at index 0. The BasisSet must have the 
+	 * same structure as the BasisSets appended to this pyramid and be large
+	 * enough to hold the result.
+	 * 
+	 * @param level A level of this pyramid
+	 * @param startBasis The start of the basis range
+	 * @param endBasis The end of the basis range
+	 * @param aggregate One of MEAN, MINIMUM, MAXIMUM or ENVELOPE
+	 * @param basisSet The BasisSet to write into
+	 * @return The number of samples written
+	 */
+	public int read(int level, double startBasis, double endBasis, 
+		int aggregate, BasisSet basisSet)
+	{
+		Level pyramidLevel = fLevels[level];
+		DataBuffer basisBuffer = basisSet.getBasisBuffer();
+		DataBuffer[] dataBuffers = new DataBuffer[fNumberOfBuffers];
+		Iterator buffers = basisSet.getDataBuffers();
+		
+		for (int i = 0; i < fNumberOfBuffers && buffers.hasNext(); i++)
+		{
+			dataBuffers[i] = (DataBuffer) buffers.next();
+		}
+		
+		int result = 0;
+		int first = pyramidLevel.findFirst(startBasis);
+		int last = pyramidLevel.findLast(endBasis);
+		
+		for (int i = first; i < last; i++)
+		{
+			result = pyramidLevel.write(pyramidLevel.resolveSlot(i), 
+				aggregate, basisBuffer, dataBuffers, result);
+		}
+		
+		if (mergePartial(level) && fPartial.overlaps(startBasis, endBasis))
+		{
+			result = fPartial.write(0, aggregate, basisBuffer, dataBuffers, 
+				result);
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Merges the bucket being accumulated by the given level with the 
+	 * buckets being accumulated by all finer levels, which together cover 
+	 * the most recent samples not yet in a completed bucket of the level.
+	 * 
+	 * @param level A level of this pyramid
+	 * @return True if there are any such samples
+	 */
+	private boolean mergePartial(int level)
+	{
+		fPartial.clear();
+		
+		for (int i = level; i >= 0; i--)
+		{
+			Level finer = fLevels[i];
+			
+			if (finer.fParts > 0)
+			{
+				fPartial.mergeAccumulated(finer);
+			}
+		}
+		
+		return (fPartial.fSize > 0);
+	}
+	
+	/**
+	 * Returns a String representation of this HistoryPyramid.
+	 * 
+	 * @return A String representation of this HistoryPyramid
+	 */
+	public String toString()
+	{
+		StringBuffer stringRep = new StringBuffer("HistoryPyramid factor: " 
+			+ fFactor);
+		
+		for (int i = 0; i < fLevels.length; i++)
+		{
+			stringRep.append("\nLevel " + i + " span: " + fLevels[i].fSpan 
+				+ " buckets: " + fLevels[i].fSize + " of " 
+				+ fLevels[i].fCapacity);
+		}
+		
+		return (stringRep.toString());
+	}
+	
+	//--- Utility classes ----------------------------------------------------
+	
+	/**
+	 * One level of a HistoryPyramid: a ring of completed buckets and the 
+	 * bucket being accumulated.
+	 */
+	private static final class Level
+	{
+		int fSpan;
+		int fCapacity;
+		Level fParent;
+		
+		//  Completed buckets, oldest at fStart
+		double[] fFirstBasis;
+		double[] fLastBasis;
+		double[][] fMinimum;
+		double[][] fMaximum;
+		double[][] fSum;
+		int[] fCount;
+		int fStart = 0;
+		int fSize = 0;
+		
+		//  The bucket being accumulated and the number of samples or child
+		//  buckets in it
+		double fAccFirstBasis;
+		double fAccLastBasis;
+		double[] fAccMinimum;
+		double[] fAccMaximum;
+		double[] fAccSum;
+		int fAccCount = 0;
+		int fParts = 0;
+		
+		Level(int span, int capacity, int numberOfBuffers)
+		{
+			fSpan = span;
+			fCapacity = Math.max(capacity, 1);
+			fFirstBasis = new double[fCapacity];
+			fLastBasis = new double[fCapacity];
+			fMinimum = new double[numberOfBuffers][fCapacity];
+			fMaximum = new double[numberOfBuffers][fCapacity];
+			fSum = new double[numberOfBuffers][fCapacity];
+			fCount = new int[fCapacity];
+			fAccMinimum = new double[numberOfBuffers];
+			fAccMaximum = new double[numberOfBuffers];
+			fAccSum = new double[numberOfBuffers];
+		}
+		
+		void clear()
+		{
+			fStart = 0;
+			fSize = 0;
+			fAccCount = 0;
+			fParts = 0;
+		}
+		
+		int resolveSlot(int index)
+		{
+			return ((fStart + index) % fCapacity);
+		}
+		
+		/**
+		 * Starts accumulating a new bucket at the given basis value.
+		 */
+		void startBucket(double firstBasis)
+		{
+			fAccFirstBasis = firstBasis;
+			fAccCount = 0;
+			
+			for (int i = 0; i < fAccSum.length; i++)
+			{
+				fAccMinimum[i] = Double.POSITIVE_INFINITY;
+				fAccMaximum[i] = Double.NEGATIVE_INFINITY;
+				fAccSum[i] = 0;
+			}
+		}
+		
+		/**
+		 * Accumulates the given samples, which must only be called on the
+		 * finest level.
+		 */
+		void addSamples(double[] basisValues, double[][] dataValues, 
+			int length, int factor)
+		{
+			int offset = 0;
+			
+			while (offset < length)
+			{
+				if (fParts == 0)
+				{
+					startBucket(basisValues[offset]);
+				}
+				
+				int end = offset + Math.min(factor - fParts, length - offset);
+				
+				for (int i = 0; i < fAccSum.length; i++)
+				{
+					double[] values = dataValues[i];
+					double minimum = fAccMinimum[i];
+					double maximum = fAccMaximum[i];
+					double sum = fAccSum[i];
+					
+					for (int j = offset; j < end; j++)
+					{
+						double value = values[j];
+						
+						if (value < minimum)
+						{
+							minimum = value;
+						}
+						
+						if (value > maximum)
+						{
+							maximum = value;
+						}
+						
+						sum += value;
+					}
+					
+					fAccMinimum[i] = minimum;
+					fAccMaximum[i] = maximum;
+					fAccSum[i] = sum;
+				}
+				
+				fAccLastBasis = basisValues[end - 1];
+				fAccCount += end - offset;
+				fParts += end - offset;
+				offset = end;
+				
+				if (fParts == factor)
+				{
+					commit(factor);
+				}
+			}
+		}
+		
+		/**
+		 * Accumulates the given completed bucket of the next finer level.
+		 */
+		void addBucket(Level child, int slot, int factor)
+		{
+			if (fParts == 0)
+			{
+				startBucket(child.fFirstBasis[slot]);
+			}
+			
+			for (int i = 0; i < fAccSum.length; i++)
+			{
+				fAccMinimum[i] = 
+					Math.min(fAccMinimum[i], child.fMinimum[i][slot]);
+				fAccMaximum[i] = 
+					Math.max(fAccMaximum[i], child.fMaximum[i][slot]);
+				fAccSum[i] += child.fSum[i][slot];
+			}
+			
+			fAccLastBasis = child.fLastBasis[slot];
+			fAccCount += child.fCount[slot];
+			fParts++;
+			
+			if (fParts == factor)
+			{
+				commit(factor);
+			}
+		}
+		
+		/**
+		 * Merges the bucket being accumulated by the given level into the
+		 * single bucket of this scratch level.
+		 */
+		void mergeAccumulated(Level level)
+		{
+			if (fSize == 0)
+			{
+				fFirstBasis[0] = level.fAccFirstBasis;
+				fCount[0] = 0;
+				
+				for (int i = 0; i < fAccSum.length; i++)
+				{
+					fMinimum[i][0] = Double.POSITIVE_INFINITY;
+					fMaximum[i][0] = Double.NEGATIVE_INFINITY;
+					fSum[i][0] = 0;
+				}
+				
+				fSize = 1;
+			}
+			
+			for (int i = 0; i < fAccSum.length; i++)
+			{
+				fMinimum[i][0] = Math.min(fMinimum[i][0], level.fAccMinimum[i]);
+				fMaximum[i][0] = Math.max(fMaximum[i][0], level.fAccMaximum[i]);
+				fSum[i][0] += level.fAccSum[i];
+			}
+			
+			fLastBasis[0] = level.fAccLastBasis;
+			fCount[0] += level.fAccCount;
+		}
+		
+		/**
+		 * Stores the accumulated bucket, dropping the oldest bucket if the 
+		 * level is full, and passes it on to the next coarser level.
+		 */
+		void commit(int factor)
+		{
+			if (fSize == fCapacity)
+			{
+				fStart = (fStart + 1) % fCapacity;
+				fSize--;
+			}
+			
+			int slot = resolveSlot(fSize);
+			
+			fFirstBasis[slot] = fAccFirstBasis;
+			fLastBasis[slot] = fAccLastBasis;
+			fCount[slot] = fAccCount;
+			
+			for (int i = 0; i < fAccSum.length; i++)
+			{
+				fMinimum[i][slot] = fAccMinimum[i];
+				fMaximum[i][slot] = fAccMaximum[i];
+				fSum[i][slot] = fAccSum[i];
+			}
+			
+			fSize++;
+			fParts = 0;
+			fAccCount = 0;
+			
+			if (fParent != null)
+			{
+				fParent.addBucket(this, slot, factor);
+			}
+		}
+		
+		/**
+		 * Returns the index of the first completed bucket whose last basis 
+		 * value is not before the given basis value.
+		 */
+		int findFirst(double basis)
+		{
+			int low = 0;
+			int high = fSize;
+			
+			while (low < high)
+			{
+				int middle = (low + high) >>> 1;
+				
+				if (fLastBasis[resolveSlot(middle)] < basis)
+				{
+					low = middle + 1;
+				}
+				else
+				{
+					high = middle;
+				}
+			}
+			
+			return (low);
+		}
+		
+		/**
+		 * Returns the index after the last completed bucket whose first 
+		 * basis value is not after the given basis value.
+		 */
+		int findLast(double basis)
+		{
+			int low = 0;
+			int high = fSize;
+			
+			while (low < high)
+			{
+				int middle = (low + high) >>> 1;
+				
+				if (fFirstBasis[resolveSlot(middle)] <= basis)
+				{
+					low = middle + 1;
+				}
+				else
+				{
+					high = middle;
+				}
+			}
+			
+			return (low);
+		}
+		
+		/**
+		 * Returns true if the single bucket of this scratch level overlaps
+		 * the given basis range.
+		 */
+		boolean overlaps(double startBasis, double endBasis)
+		{
+			return (fSize > 0 && fLastBasis[0] >= startBasis 
+				&& fFirstBasis[0] <= endBasis);
+		}
+		
+		/**
+		 * Writes the given bucket as the given aggregate at the given index
+		 * and returns the index after the samples written.
+		 */
+		int write(int slot, int aggregate, DataBuffer basisBuffer, 
+			DataBuffer[] dataBuffers, int index)
+		{
+			int result = index + 1;
+			
+			if (aggregate == ENVELOPE)
+			{
+				basisBuffer.put(index, fFirstBasis[slot]);
+				basisBuffer.put(index + 1, fLastBasis[slot]);
+				
+				for (int i = 0; i < dataBuffers.length; i++)
+				{
+					dataBuffers[i].put(index, fMinimum[i][slot]);
+					dataBuffers[i].put(index + 1, fMaximum[i][slot]);
+				}
+				
+				result++;
+			}
+			else
+			{
+				basisBuffer.put(index, 
+					(fFirstBasis[slot] + fLastBasis[slot]) / 2);
+				
+				for (int i = 0; i < dataBuffers.length; i++)
+				{
+					double value;
+					
+					if (aggregate == MINIMUM)
+					{
+						value = fMinimum[i][slot];
+					}
+					else if (aggregate == MAXIMUM)
+					{
+						value = fMaximum[i][slot];
+					}
+					else
+					{
+						value = fSum[i][slot] / fCount[slot];
+					}
+					
+					dataBuffers[i].put(index, value);
+				}
+			}
+			
+			return (result);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -48,6 +48,7 @@ import gov.nasa.gsfc.irc.data.description.ModifiableBasisBundleDescriptor;
 import gov.nasa.gsfc.irc.data.events.BasisBundleEvent;
 import gov.nasa.gsfc.irc.data.events.BasisBundleListener;
 import gov.nasa.gsfc.irc.data.events.BasisSetEvent;
+import gov.nasa.gsfc.irc.data.events.SatisfiedRequestListener;
 
 
 /**
@@ -84,12 +85,15 @@ public class IntervalBasisRequester implements BasisRequester
 	
 	private List fBasisBundleListeners = 
 		Collections.synchronizedList(new ArrayList(0));
+	private List fSatisfiedRequestListeners = 
+		Collections.synchronizedList(new ArrayList(0));
 	private BasisBundleEvent fCurrentBasisBundleStructureEvent;
 	
 	private boolean fSelectsAllAvailableData = false;
 	private Set fDataBufferSubset;
 	
 	private int fDownsamplingRate = 0;
+	private DownsamplingMode fDownsamplingMode = DownsamplingMode.FIRST;
 	
 	private Unit fInputBasisUnit;
 	
@@ -581,6 +585,7 @@ public class IntervalBasisRequester implements BasisRequester
 		}
 		
 		fDownsamplingRate = basisRequest.getDownsamplingRate();
+		fDownsamplingMode = basisRequest.getDownsamplingMode();
 		
 		BasisBundleDescriptor descriptor = fBasisBundle.getDescriptor();
 		
@@ -626,6 +631,31 @@ public class IntervalBasisRequester implements BasisRequester
 	}
 	
 	
+	/**
+	 * Sets the DownsamplingMode of this BasisRequester to the given mode. 
+	 * 
+	 * @param downsamplingMode The DownsamplingMode of this BasisRequester
+	 */
+	
+	public void setDownsamplingMode(DownsamplingMode downsamplingMode)
+	{
+		fBasisRequest.setDownsamplingMode(downsamplingMode);
+		fDownsamplingMode = fBasisRequest.getDownsamplingMode();
+	}
+	
+	
+	/**
+	 * Gets the DownsamplingMode of this BasisRequester. 
+	 * 
+	 * @return The DownsamplingMode of this BasisRequester
+	 */
+	
+	public DownsamplingMode getDownsamplingMode()
+	{
+		return (fDownsamplingMode);
+	}
+	
+	
 	/**
 	 * Returns the BasisRequest currently associated with this 
 	 * BasisRequester.
@@ -651,7 +681,7 @@ public class IntervalBasisRequester implements BasisRequester
 			if (fDownsamplingRate < basisSet.getSize())
 			{
 				BasisSet subsampledData = 
-					basisSet.downsample(fDownsamplingRate);
+					basisSet.downsample(fDownsamplingRate, fDownsamplingMode);
 				
 				// We no longer need the original so release it
 				basisSet.release();
@@ -660,6 +690,8 @@ public class IntervalBasisRequester implements BasisRequester
 		}
 		
 		fSatisfiedRequests.add(basisSet);
+		
+		alertSatisfiedRequestListeners();
 	}
 	
 	
@@ -1300,6 +1332,58 @@ public class IntervalBasisRequester implements BasisRequester
 	}
 	
 	
+	/**
+	 * Alerts each of the current SatisfiedRequestListeners of this 
+	 * BasisRequester that a satisfying BasisSet has become available.
+	 */
+	
+	protected void alertSatisfiedRequestListeners()
+	{
+		Object[] listeners = null;
+		
+		synchronized (fSatisfiedRequestListeners)
+		{
+			listeners = fSatisfiedRequestListeners.toArray();
+		}
+
+		for (int i = 0; i < listeners.length; i++)
+		{
+			((SatisfiedRequestListener) listeners[i]).
+				receiveSatisfiedRequest(this);
+		}
+	}
+
+
+	/**
+	 * Adds the given SatisfiedRequestListener as a listener for newly 
+	 * satisfied BasisRequests of this BasisRequester.
+	 *
+	 * @param listener A SatisfiedRequestListener
+	 **/
+	
+	public void addSatisfiedRequestListener(SatisfiedRequestListener listener)
+	{
+		if (! isKilled())
+		{
+			fSatisfiedRequestListeners.add(listener);
+		}
+	}
+	
+	
+	/**
+	 * Removes the given SatisfiedRequestListener as a listener for newly 
+	 * satisfied BasisRequests of this BasisRequester.
+	 *
+	 * @param listener A SatisfiedRequestListener
+	 **/
+	
+	public void removeSatisfiedRequestListener(
+		SatisfiedRequestListener listener)
+	{
+		fSatisfiedRequestListeners.remove(listener);
+	}
+	
+	
 	/**
 	 * Causes this BasisRequester to receive the given BasisSetEvent. 
 	 * If the BasisSet contained in the BasisSetEvent completes a 
@@ -1462,6 +1546,8 @@ public class IntervalBasisRequester implements BasisRequester
 	
 	protected void promotePendingData()
 	{
+		boolean promoted = false;
+		
 		synchronized (fPendingData)
 		{
 			while (fPendingData.size() > 0)
@@ -1469,8 +1555,14 @@ public class IntervalBasisRequester implements BasisRequester
 				BasisSet basisSet = (BasisSet) fPendingData.remove();
 
 				fSatisfiedRequests.add(basisSet);
+				promoted = true;
 			}
 		}
+		
+		if (promoted)
+		{
+			alertSatisfiedRequestListeners();
+		}
 	}
 	
 
@@ -444,9 +444,21 @@ class ObjectDataBuffer extends AbstractDataBuffer
 	 *             into a <code>double</code>
 	 */
 	public double getAsDouble(int index)
+	{
+ 		return (toDouble(fNativeArray[resolveIndex(index)]));
+	}
+	
+	/**
+	 * Returns the given element converted to a <code>double</code>.
+	 * 
+	 * @param valueObject An element of this DataBuffer
+	 * @return The value of the element converted to a double
+	 * @throws UnsupportedOperationException if the value cannot be converted
+	 *             into a <code>double</code>
+	 */
+	private static double toDouble(Object valueObject)
 	{
 		double value;
-		Object valueObject = fNativeArray[resolveIndex(index)];
 		
 		if (valueObject instanceof Number)
 		{
@@ -489,6 +501,43 @@ class ObjectDataBuffer extends AbstractDataBuffer
 		 	"Buffer cannot be converted to a ByteBuffer");
 	}
 
+	/**
+	 * Not supported by an ObjectDataBuffer, since its elements have no
+	 * fixed binary representation.
+	 * 
+	 * @throws UnsupportedOperationException always
+	 */
+	public DataBuffer get(ByteBuffer destination)
+	{
+		throw new UnsupportedOperationException(
+		 	"Buffer cannot be written to a ByteBuffer");
+	}
+
+	/**
+	 * Not supported by an ObjectDataBuffer, since its elements have no
+	 * fixed binary representation.
+	 * 
+	 * @throws UnsupportedOperationException always
+	 */
+	public DataBuffer put(int index, ByteBuffer source, int length)
+	{
+		throw new UnsupportedOperationException(
+		 	"Buffer cannot be read from a ByteBuffer");
+	}
+
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.irc.data.AbstractDataBuffer#copyAsDoubles(int, double[], int, int)
+	 */
+	void copyAsDoubles(
+		int arrayIndex, double[] destination, int destinationIndex, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			destination[destinationIndex + i] = 
+				toDouble(fNativeArray[arrayIndex + i]);
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see gov.nasa.gsfc.irc.data.DataBuffer#getAsByteArray()
 	 */
@@ -832,6 +881,61 @@ class ObjectDataBuffer extends AbstractDataBuffer
 		return this;
 	}
 
+	/**
+	 * Objects cannot be aggregated, so an ObjectDataBuffer selects samples 
+	 * instead: the last object of each group for {@link DownsamplingMode#LAST}, 
+	 * the first and last objects of each group for 
+	 * {@link DownsamplingMode#ENVELOPE}, matching the samples of the basis 
+	 * buffer, and the first object of each group for any other mode. The 
+	 * result therefore has as many samples as the other buffers of a 
+	 * BasisSet downsampled with the same mode.
+	 * 
+	 * @see gov.nasa.gsfc.irc.data.DataBuffer#downsample(int, gov.nasa.gsfc.irc.data.DownsamplingMode)
+	 */
+	public DataBuffer downsample(int downsamplingRate, DownsamplingMode mode)
+	{
+		DataBuffer result;
+		
+		if (((mode != DownsamplingMode.LAST) 
+			&& (mode != DownsamplingMode.ENVELOPE)) || (downsamplingRate <= 1))
+		{
+			result = downsample(downsamplingRate);
+		}
+		else if (downsamplingRate <= getSize())
+		{
+			int numGroups = getSize() / downsamplingRate;
+			Object [] sampledArray = 
+				new Object[numGroups * mode.getSamplesPerGroup()];
+			int numSamples = 0;
+			int element = 0;
+			
+			for (int i = 0; i < numGroups; i++, element += downsamplingRate)
+			{
+				if (mode == DownsamplingMode.ENVELOPE)
+				{
+					sampledArray[numSamples++] = 
+						fNativeArray[resolveIndex(element)];
+				}
+				
+				sampledArray[numSamples++] = 
+					fNativeArray[resolveIndex(element + downsamplingRate - 1)];
+			}
+			
+			result = new ObjectDataBuffer(
+				getDescriptor(), sampledArray, 0, numSamples);
+		}
+		else
+		{
+			String message = "The given downsampling rate (" + 
+				downsamplingRate + 
+				" exceeds the capacity of this DataBuffer:\n" + this;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		return (result);
+	}
+
 	/* (non-Javadoc)
 	 * @see gov.nasa.gsfc.irc.data.DataBuffer#downsample(int)
 	 */
@@ -25,7 +25,10 @@
 package gov.nasa.gsfc.irc.data.description;
 
 import gov.nasa.gsfc.commons.properties.beans.A;
+import gov.nasa.gsfc.commons.system.memory.MemoryModelType;
+import gov.nasa.gsfc.commons.types.strings.PatternCache;
 import gov.nasa.gsfc.irc.data.BasisRequest;
+import gov.nasa.gsfc.irc.data.BasisSetOverflowPolicy;
 import gov.nasa.gsfc.irc.description.Descriptor;
 import gov.nasa.gsfc.irc.description.xml.DescriptorDirectory;
 
@@ -54,6 +57,10 @@ public class BasisBundleDescriptor extends DataBundleDescriptor
 {
 	private int fSize = -1;
 	private DataBufferDescriptor fBasisBufferDescriptor;
+	private MemoryModelType fMemoryModelType = MemoryModelType.CONTIGUOUS;
+	private int fDispatchQueueSize = 0;
+	private BasisSetOverflowPolicy fOverflowPolicy = 
+		BasisSetOverflowPolicy.BLOCK;
 	
 	
 	/**
@@ -213,7 +220,7 @@ public class BasisBundleDescriptor extends DataBundleDescriptor
 				if (rawDataBufferName.startsWith(BasisRequest.REGEX_DELIMETER_START) == true &&
 						rawDataBufferName.endsWith(BasisRequest.REGEX_DELIMETER_END) == true)
 				{
-					Pattern pattern = Pattern.compile(rawDataBufferName.substring(1, rawDataBufferName.length() - 1));					
+					Pattern pattern = PatternCache.getPattern(rawDataBufferName.substring(1, rawDataBufferName.length() - 1));					
 					regexes.add(new DataBufferRegex(pattern));
 				}
 				else
@@ -299,6 +306,9 @@ public class BasisBundleDescriptor extends DataBundleDescriptor
 			
 			result = new BasisBundleDescriptor
 				(getName(), getBasisBufferDescriptor(),	newDataBufferDescriptors);
+			result.setMemoryModelType(fMemoryModelType);
+			result.setDispatchQueueSize(fDispatchQueueSize);
+			result.setOverflowPolicy(fOverflowPolicy);
 		}
 		
 		return result;
@@ -358,6 +368,88 @@ public class BasisBundleDescriptor extends DataBundleDescriptor
 	}
 
 
+	/**
+	 *	Sets the type of MemoryModel used to allocate BasisSets from 
+	 *  BasisBundles described by this BasisBundleDescriptor.
+	 *
+	 *  @param type The MemoryModelType of described BasisBundles
+	 */
+	
+	protected void setMemoryModelType(MemoryModelType type)
+	{
+		fMemoryModelType = type;
+	}
+
+
+	/**
+	 *	Returns the type of MemoryModel used to allocate BasisSets from 
+	 *  BasisBundles described by this BasisBundleDescriptor. The default is 
+	 *  {@link MemoryModelType#CONTIGUOUS}.
+	 *
+	 *  @return The MemoryModelType of described BasisBundles
+	 */
+	
+	public MemoryModelType getMemoryModelType()
+	{
+		return (fMemoryModelType);
+	}
+
+
+	/**
+	 *	Sets the size of the hand-off queue used to dispatch BasisSets 
+	 *  asynchronously to each listener of BasisBundles described by this 
+	 *  BasisBundleDescriptor. A size of 0 selects synchronous dispatch.
+	 *
+	 *  @param size The dispatch queue size, or 0 for synchronous dispatch
+	 */
+	
+	protected void setDispatchQueueSize(int size)
+	{
+		fDispatchQueueSize = size;
+	}
+
+
+	/**
+	 *	Returns the size of the hand-off queue used to dispatch BasisSets 
+	 *  asynchronously to each listener of BasisBundles described by this 
+	 *  BasisBundleDescriptor. The default, 0, selects synchronous dispatch.
+	 *
+	 *  @return The dispatch queue size, or 0 for synchronous dispatch
+	 */
+	
+	public int getDispatchQueueSize()
+	{
+		return (fDispatchQueueSize);
+	}
+
+
+	/**
+	 *	Sets what asynchronous dispatch does when the queue of a listener of 
+	 *  BasisBundles described by this BasisBundleDescriptor is full.
+	 *
+	 *  @param policy The BasisSetOverflowPolicy of described BasisBundles
+	 */
+	
+	protected void setOverflowPolicy(BasisSetOverflowPolicy policy)
+	{
+		fOverflowPolicy = policy;
+	}
+
+
+	/**
+	 *	Returns what asynchronous dispatch does when the queue of a listener of 
+	 *  BasisBundles described by this BasisBundleDescriptor is full. The 
+	 *  default is {@link BasisSetOverflowPolicy#BLOCK}.
+	 *
+	 *  @return The BasisSetOverflowPolicy of described BasisBundles
+	 */
+	
+	public BasisSetOverflowPolicy getOverflowPolicy()
+	{
+		return (fOverflowPolicy);
+	}
+
+
 	/**
 	 *	Returns a String representation of this BasisBundleDescriptor.
 	 *
@@ -387,6 +479,30 @@ public class BasisBundleDescriptor extends DataBundleDescriptor
 		// Load the size attribute
 		fSize = fSerializer.loadIntAttribute(Dataml.A_SIZE, -1, fElement);
 		
+		// Load the memoryModel attribute
+		String memoryModel = fSerializer.loadStringAttribute
+			(Dataml.A_MEMORY_MODEL, fMemoryModelType.getName(), fElement);
+		MemoryModelType memoryModelType = MemoryModelType.forName(memoryModel);
+		
+		if (memoryModelType != null)
+		{
+			fMemoryModelType = memoryModelType;
+		}
+		
+		// Load the asynchronous dispatch attributes
+		fDispatchQueueSize = fSerializer.loadIntAttribute
+			(Dataml.A_DISPATCH_QUEUE_SIZE, 0, fElement);
+		
+		String overflowPolicy = fSerializer.loadStringAttribute
+			(Dataml.A_OVERFLOW_POLICY, fOverflowPolicy.getName(), fElement);
+		BasisSetOverflowPolicy policy = 
+			BasisSetOverflowPolicy.forName(overflowPolicy);
+		
+		if (policy != null)
+		{
+			fOverflowPolicy = policy;
+		}
+		
 		// Load the BasisBuffer
 		fBasisBufferDescriptor = (DataBufferDescriptor) 
 			fSerializer.loadSingleChildDescriptorElement(Dataml.E_BASIS_BUFFER,
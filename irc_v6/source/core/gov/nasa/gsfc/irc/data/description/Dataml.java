@@ -75,6 +75,9 @@ public interface Dataml extends Xsd
 	static final String A_UNITS			= "units";
 	static final String A_COADD_HINT		= "coaddHint";	
 	static final String A_SIZE			= "size";
+	static final String A_MEMORY_MODEL	= "memoryModel";
+	static final String A_DISPATCH_QUEUE_SIZE	= "dispatchQueueSize";
+	static final String A_OVERFLOW_POLICY	= "overflowPolicy";
 	static final String A_EXPERT			= "expert";
 	static final String A_HIDDEN			= "hidden";
 	static final String A_PREFERRED		= "preferred";
@@ -32,6 +32,9 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import gov.nasa.gsfc.commons.system.memory.MemoryModelType;
+import gov.nasa.gsfc.irc.data.BasisSetOverflowPolicy;
+
 
 /**
  * A ModifiableBasisBundleDescriptor is a modifiable copy of a 
@@ -57,6 +60,9 @@ public class ModifiableBasisBundleDescriptor extends BasisBundleDescriptor
 		super(descriptor.getName(), descriptor.getBasisBufferDescriptor());
 		
 		setSize(descriptor.getSize());
+		setMemoryModelType(descriptor.getMemoryModelType());
+		setDispatchQueueSize(descriptor.getDispatchQueueSize());
+		setOverflowPolicy(descriptor.getOverflowPolicy());
 		setDataEntryDescriptors(descriptor.getDataEntryDescriptors());
 	}
 
@@ -75,6 +81,46 @@ public class ModifiableBasisBundleDescriptor extends BasisBundleDescriptor
 	}
 	
 	
+	/**
+	 *	Sets the type of MemoryModel used to allocate BasisSets from 
+	 *  BasisBundles described by this BasisBundleDescriptor.
+	 *
+	 *  @param type The MemoryModelType of described BasisBundles
+	 */
+	
+	public void setMemoryModelType(MemoryModelType type)
+	{
+		super.setMemoryModelType(type);
+	}
+	
+	
+	/**
+	 *	Sets the size of the hand-off queue used to dispatch BasisSets 
+	 *  asynchronously to each listener of BasisBundles described by this 
+	 *  BasisBundleDescriptor. A size of 0 selects synchronous dispatch.
+	 *
+	 *  @param size The dispatch queue size, or 0 for synchronous dispatch
+	 */
+	
+	public void setDispatchQueueSize(int size)
+	{
+		super.setDispatchQueueSize(size);
+	}
+	
+	
+	/**
+	 *	Sets what asynchronous dispatch does when the queue of a listener of 
+	 *  BasisBundles described by this BasisBundleDescriptor is full.
+	 *
+	 *  @param policy The BasisSetOverflowPolicy of described BasisBundles
+	 */
+	
+	public void setOverflowPolicy(BasisSetOverflowPolicy policy)
+	{
+		super.setOverflowPolicy(policy);
+	}
+	
+	
 	/**
 	 *	Sets the DataBufferDescriptor of the basis Buffer of this 
 	 *  BasisBundleDescriptor to the given DataBufferDescriptor
@@ -0,0 +1,58 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data.events;
+
+import gov.nasa.gsfc.irc.data.BasisRequester;
+
+
+/**
+ * A SatisfiedRequestListener is told when a BasisRequester has a newly 
+ * satisfied BasisRequest waiting to be collected with 
+ * {@link BasisRequester#satisfyRequest()}. This lets a DataRequester wait 
+ * for its BasisRequests to be satisfied without blocking or polling a Thread 
+ * of its own.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$
+ * @author $Author$
+ */
+public interface SatisfiedRequestListener
+{
+	/**
+	 * Causes this SatisfiedRequestListener to receive notice that the given 
+	 * BasisRequester has a satisfied BasisRequest. The notice is sent on the 
+	 * Thread that delivered the satisfying data, and possibly while that 
+	 * BasisRequester is locked, so implementations should only schedule the 
+	 * collection of the request rather than collect it here.
+	 * 
+	 * @param requester The BasisRequester having a satisfied BasisRequest
+	 */
+	public void receiveSatisfiedRequest(BasisRequester requester);
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
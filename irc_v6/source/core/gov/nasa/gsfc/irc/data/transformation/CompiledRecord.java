@@ -0,0 +1,559 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data.transformation;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+/**
+ * A CompiledRecord is the reusable result of a {@link CompiledRecordParser}. 
+ * It is a read-only Map from field name to field value, in field order, 
+ * whose keys are fixed when the parser is compiled. The characters of each 
+ * value are kept in a single reusable array; a value's String is only 
+ * created when it is first requested, and numeric values can be read 
+ * directly from the characters with {@link #getLong(int)} and 
+ * {@link #getDouble(int)}.
+ * <p>
+ * A CompiledRecord is overwritten by the next parse of its parser, so its 
+ * contents must be used or copied before then.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$ 
+ * @author $Author$ 
+**/
+
+public class CompiledRecord extends AbstractMap
+{
+	private static final int MAX_EXACT_DIGITS = 15;
+	private static final double[] POWERS_OF_TEN = new double[23];
+	
+	static
+	{
+		POWERS_OF_TEN[0] = 1.0;
+		
+		for (int i = 1; i < POWERS_OF_TEN.length; i++)
+		{
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+		}
+	}
+	
+	private String[] fKeys;
+	private Map fIndicesByKey = new HashMap();
+	
+	private char[] fChars = new char[256];
+	private int fNumChars = 0;
+	private int[] fStarts;
+	private int[] fEnds;
+	private String[] fValues;
+	
+	private Set fEntrySet = new EntrySet();
+	
+	
+	/**
+	 * Constructs a new CompiledRecord having the given field names.
+	 *
+	 * @param keys The distinct field names of the new CompiledRecord, in 
+	 * 		order
+	**/
+	
+	CompiledRecord(String[] keys)
+	{
+		fKeys = keys;
+		fStarts = new int[keys.length];
+		fEnds = new int[keys.length];
+		fValues = new String[keys.length];
+		
+		for (int i = 0; i < keys.length; i++)
+		{
+			fIndicesByKey.put(keys[i], new Integer(i));
+		}
+	}
+	
+
+	/**
+	 * Prepares this CompiledRecord to receive the values of a new parse.
+	**/
+	
+	void clear(int numChars)
+	{
+		fNumChars = 0;
+		
+		if (fChars.length < numChars)
+		{
+			fChars = new char[Math.max(numChars, fChars.length * 2)];
+		}
+		
+		for (int i = 0; i < fValues.length; i++)
+		{
+			fValues[i] = null;
+			fStarts[i] = 0;
+			fEnds[i] = 0;
+		}
+	}
+	
+
+	/**
+	 * Sets the value at the given index to the ASCII characters of the given 
+	 * range of the given ByteBuffer.
+	**/
+	
+	void setValue(int index, ByteBuffer data, int start, int end)
+	{
+		ensureCapacity(end - start);
+		
+		fStarts[index] = fNumChars;
+		fValues[index] = null;
+		
+		if (data.hasArray())
+		{
+			byte[] bytes = data.array();
+			int offset = data.arrayOffset();
+			
+			for (int i = start + offset; i < end + offset; i++)
+			{
+				fChars[fNumChars++] = (char) bytes[i];
+			}
+		}
+		else
+		{
+			for (int i = start; i < end; i++)
+			{
+				fChars[fNumChars++] = (char) data.get(i);
+			}
+		}
+		
+		fEnds[index] = fNumChars;
+	}
+	
+
+	/**
+	 * Sets the value at the given index to the given range of the given 
+	 * CharBuffer.
+	**/
+	
+	void setValue(int index, CharBuffer data, int start, int end)
+	{
+		ensureCapacity(end - start);
+		
+		fStarts[index] = fNumChars;
+		fValues[index] = null;
+		
+		for (int i = start; i < end; i++)
+		{
+			fChars[fNumChars++] = data.get(i);
+		}
+		
+		fEnds[index] = fNumChars;
+	}
+	
+
+	/**
+	 * Sets the value at the given index to the empty String.
+	**/
+	
+	void setEmpty(int index)
+	{
+		fStarts[index] = fNumChars;
+		fEnds[index] = fNumChars;
+		fValues[index] = "";
+	}
+	
+
+	/**
+	 * Makes room for the given number of further characters.
+	**/
+	
+	private void ensureCapacity(int numChars)
+	{
+		if (fNumChars + numChars > fChars.length)
+		{
+			char[] chars = new char[Math.max(fNumChars + numChars, 
+				fChars.length * 2)];
+			
+			System.arraycopy(fChars, 0, chars, 0, fNumChars);
+			
+			fChars = chars;
+		}
+	}
+	
+
+	/**
+	 * Returns the number of fields in this CompiledRecord.
+	 *
+	 * @return The number of fields
+	**/
+	
+	public int getNumberOfFields()
+	{
+		return (fKeys.length);
+	}
+	
+
+	/**
+	 * Returns the index of the field having the given name, or -1 if there 
+	 * is no such field.
+	 *
+	 * @param key The name of a field
+	 * @return The index of the field, or -1
+	**/
+	
+	public int indexOf(Object key)
+	{
+		int result = -1;
+		
+		Integer index = (Integer) fIndicesByKey.get(key);
+		
+		if (index != null)
+		{
+			result = index.intValue();
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns the name of the field at the given index.
+	 *
+	 * @param index The index of a field
+	 * @return The name of the field
+	**/
+	
+	public String getKey(int index)
+	{
+		return (fKeys[index]);
+	}
+	
+
+	/**
+	 * Returns the value of the field at the given index.
+	 *
+	 * @param index The index of a field
+	 * @return The value of the field
+	**/
+	
+	public String getValue(int index)
+	{
+		String result = fValues[index];
+		
+		if (result == null)
+		{
+			result = new String(fChars, fStarts[index], 
+				fEnds[index] - fStarts[index]);
+			
+			fValues[index] = result;
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns the value of the field at the given index as a long, parsing 
+	 * it directly from its characters when it is a plain decimal integer.
+	 *
+	 * @param index The index of a field
+	 * @return The value of the field as a long
+	 * @throws NumberFormatException if the value is not a valid long
+	**/
+	
+	public long getLong(int index)
+	{
+		int start = fStarts[index];
+		int end = fEnds[index];
+		int i = start;
+		boolean negative = false;
+		
+		if (i < end && fChars[i] == '-')
+		{
+			negative = true;
+			i++;
+		}
+		
+		// Eighteen digits cannot overflow a long.
+		if (i == end || end - i > 18)
+		{
+			return (Long.parseLong(getValue(index)));
+		}
+		
+		long result = 0;
+		
+		for (; i < end; i++)
+		{
+			int digit = fChars[i] - '0';
+			
+			if (digit < 0 || digit > 9)
+			{
+				return (Long.parseLong(getValue(index)));
+			}
+			
+			result = result * 10 + digit;
+		}
+		
+		return (negative ? -result : result);
+	}
+	
+
+	/**
+	 * Returns the value of the field at the given index as a double. A plain 
+	 * decimal value of at most 15 significant digits is parsed directly from 
+	 * its characters, which gives the same, correctly rounded, result as 
+	 * <code>Double.parseDouble</code>; any other value is parsed by 
+	 * <code>Double.parseDouble</code>.
+	 *
+	 * @param index The index of a field
+	 * @return The value of the field as a double
+	 * @throws NumberFormatException if the value is not a valid double
+	**/
+	
+	public double getDouble(int index)
+	{
+		int start = fStarts[index];
+		int end = fEnds[index];
+		int i = start;
+		boolean negative = false;
+		
+		if (i < end && fChars[i] == '-')
+		{
+			negative = true;
+			i++;
+		}
+		
+		long mantissa = 0;
+		int numDigits = 0;
+		int numFractionDigits = 0;
+		boolean inFraction = false;
+		boolean plain = (i < end);
+		
+		for (; i < end && plain; i++)
+		{
+			char thisChar = fChars[i];
+			
+			if (thisChar >= '0' && thisChar <= '9')
+			{
+				if (mantissa != 0 || thisChar != '0')
+				{
+					numDigits++;
+				}
+				
+				mantissa = mantissa * 10 + (thisChar - '0');
+				
+				if (inFraction)
+				{
+					numFractionDigits++;
+				}
+				
+				plain = (numDigits <= MAX_EXACT_DIGITS);
+			}
+			else if (thisChar == '.' && ! inFraction)
+			{
+				inFraction = true;
+			}
+			else
+			{
+				plain = false;
+			}
+		}
+		
+		// Both the mantissa and the power of ten are exact doubles, so a 
+		// single division is correctly rounded.
+		if (! plain || numFractionDigits >= POWERS_OF_TEN.length || 
+			end - start == (negative ? 1 : 0) + (inFraction ? 1 : 0))
+		{
+			return (Double.parseDouble(getValue(index)));
+		}
+		
+		double result = mantissa / POWERS_OF_TEN[numFractionDigits];
+		
+		return (negative ? -result : result);
+	}
+	
+
+	/**
+	 * Returns the value of the field having the given name, or null if there 
+	 * is no such field.
+	 *
+	 * @param key The name of a field
+	 * @return The value of the field, or null
+	**/
+	
+	public Object get(Object key)
+	{
+		Object result = null;
+		int index = indexOf(key);
+		
+		if (index >= 0)
+		{
+			result = getValue(index);
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns true if this CompiledRecord has a field having the given name.
+	 *
+	 * @param key The name of a field
+	 * @return True if there is such a field
+	**/
+	
+	public boolean containsKey(Object key)
+	{
+		return (fIndicesByKey.containsKey(key));
+	}
+	
+
+	/**
+	 * Returns the number of fields in this CompiledRecord.
+	 *
+	 * @return The number of fields
+	**/
+	
+	public int size()
+	{
+		return (fKeys.length);
+	}
+	
+
+	/**
+	 * Returns a read-only Set view of the fields of this CompiledRecord, in 
+	 * field order.
+	 *
+	 * @return The fields of this CompiledRecord
+	**/
+	
+	public Set entrySet()
+	{
+		return (fEntrySet);
+	}
+	
+	
+	/**
+	 * The read-only Set of fields of this CompiledRecord.
+	 */
+	private class EntrySet extends AbstractSet
+	{
+		public int size()
+		{
+			return (fKeys.length);
+		}
+		
+		public Iterator iterator()
+		{
+			return (new Iterator()
+			{
+				private int fIndex = 0;
+				
+				public boolean hasNext()
+				{
+					return (fIndex < fKeys.length);
+				}
+				
+				public Object next()
+				{
+					if (fIndex >= fKeys.length)
+					{
+						throw (new NoSuchElementException());
+					}
+					
+					return (new Field(fIndex++));
+				}
+				
+				public void remove()
+				{
+					throw (new UnsupportedOperationException());
+				}
+			});
+		}
+	}
+	
+	
+	/**
+	 * A read-only view of one field of this CompiledRecord.
+	 */
+	private class Field implements Map.Entry
+	{
+		private int fIndex;
+		
+		public Field(int index)
+		{
+			fIndex = index;
+		}
+		
+		public Object getKey()
+		{
+			return (fKeys[fIndex]);
+		}
+		
+		public Object getValue()
+		{
+			return (CompiledRecord.this.getValue(fIndex));
+		}
+		
+		public Object setValue(Object value)
+		{
+			throw (new UnsupportedOperationException());
+		}
+		
+		public boolean equals(Object object)
+		{
+			boolean result = false;
+			
+			if (object instanceof Map.Entry)
+			{
+				Map.Entry entry = (Map.Entry) object;
+				
+				result = getKey().equals(entry.getKey()) && 
+					getValue().equals(entry.getValue());
+			}
+			
+			return (result);
+		}
+		
+		public int hashCode()
+		{
+			return (getKey().hashCode() ^ getValue().hashCode());
+		}
+		
+		public String toString()
+		{
+			return (getKey() + "=" + getValue());
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,489 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data.transformation;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import gov.nasa.gsfc.irc.data.transformation.description.RecordParserDescriptor;
+
+
+/**
+ * A CompiledRecordParser parses ByteBuffers and CharBuffers (or byte and 
+ * char arrays) according to a record structure that has been compiled by a 
+ * {@link RecordParserCompiler}. Each field is located by scanning directly 
+ * for its precomputed delimiter, and the results are returned in a single 
+ * reusable {@link CompiledRecord}, so that parsing a record allocates no 
+ * selectors, intermediate Maps or Strings. The result of a parse is the same 
+ * as that of a {@link RecordParser} configured by the same descriptor; any 
+ * other kind of data Object is passed to such a RecordParser.
+ * <p>
+ * When verifying, each ByteBuffer or CharBuffer is also parsed by a 
+ * RecordParser, and any difference between the two is logged and resolved 
+ * in favor of the RecordParser.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$ 
+ * @author $Author$ 
+**/
+
+public class CompiledRecordParser extends AbstractDataParser
+{
+	private static final String CLASS_NAME = 
+		CompiledRecordParser.class.getName();
+	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+	
+	private RecordParserDescriptor fDescriptor;
+	
+	private int[] fIndices;
+	private char[] fDelimiters;
+	private char[][] fPostfixes;
+	private char[] fTerminator;
+	
+	private CompiledRecord fLastParse;
+	
+	private RecordParser fInterpreter;
+	private boolean fVerifying = false;
+	private long fNumMismatches = 0;
+	
+	
+	/**
+	 * Constructs a new CompiledRecordParser for the given RecordParserDescriptor 
+	 * having fields with the given names, delimiters and (optional) postfixes, 
+	 * and the given (optional) terminator.
+	 *
+	 * @param descriptor The compiled RecordParserDescriptor
+	 * @param names The name of each field
+	 * @param delimiters The delimiter of the value of each field
+	 * @param postfixes The postfix of each field, or null
+	 * @param terminator The terminator of the record, or null
+	**/
+	
+	CompiledRecordParser(RecordParserDescriptor descriptor, String[] names, 
+		char[] delimiters, char[][] postfixes, char[] terminator)
+	{
+		super(descriptor);
+		
+		fDescriptor = descriptor;
+		fDelimiters = delimiters;
+		fPostfixes = postfixes;
+		fTerminator = terminator;
+		
+		// A repeated field name keeps the position of its first occurrence, 
+		// as it would in the Map returned by a RecordParser.
+		
+		List keys = new ArrayList();
+		fIndices = new int[names.length];
+		
+		for (int i = 0; i < names.length; i++)
+		{
+			int index = keys.indexOf(names[i]);
+			
+			if (index < 0)
+			{
+				index = keys.size();
+				keys.add(names[i]);
+			}
+			
+			fIndices[i] = index;
+		}
+		
+		fLastParse = new CompiledRecord
+			((String[]) keys.toArray(new String[keys.size()]));
+	}
+	
+
+	/**
+	 * Sets whether this CompiledRecordParser verifies each parse against the 
+	 * equivalent RecordParser.
+	 *
+	 * @param verifying True if parses are to be verified
+	**/
+	
+	public void setVerifying(boolean verifying)
+	{
+		fVerifying = verifying;
+	}
+	
+
+	/**
+	 * Returns true if this CompiledRecordParser verifies each parse against 
+	 * the equivalent RecordParser.
+	 *
+	 * @return True if parses are verified
+	**/
+	
+	public boolean isVerifying()
+	{
+		return (fVerifying);
+	}
+	
+
+	/**
+	 * Returns the number of verified parses whose results differed from those 
+	 * of the equivalent RecordParser.
+	 *
+	 * @return The number of mismatched parses
+	**/
+	
+	public long getNumberOfMismatches()
+	{
+		return (fNumMismatches);
+	}
+	
+
+	/**
+	 * Causes this CompiledRecordParser to parse the given data Object as 
+	 * specified by its associated RecordParserDescriptor and then return the 
+	 * resulting Map. When the data is a buffer or array, the Map is a 
+	 * CompiledRecord that is reused by the next parse.
+	 *
+	 * @param data The data Object to be parsed
+	 * @param context An optional Map of contextual information
+	 * @return The result of parsing the given data Object
+	**/
+	
+	public Map parse(Object data, Map context)
+	{
+		Map result = null;
+		
+		Object selectedData = data;
+		
+		if (data instanceof byte[])
+		{
+			selectedData = ByteBuffer.wrap((byte[]) data);
+		}
+		else if (data instanceof char[])
+		{
+			selectedData = CharBuffer.wrap((char[]) data);
+		}
+		
+		if (! (selectedData instanceof ByteBuffer) && 
+			! (selectedData instanceof CharBuffer))
+		{
+			result = getInterpreter().parse(selectedData, context);
+		}
+		else if (fVerifying)
+		{
+			result = verify((Buffer) selectedData, context);
+		}
+		else if (selectedData instanceof ByteBuffer)
+		{
+			result = parse((ByteBuffer) selectedData);
+		}
+		else
+		{
+			result = parse((CharBuffer) selectedData);
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Parses the given ByteBuffer from its position, leaving its position 
+	 * after the parsed record.
+	 *
+	 * @param data The ByteBuffer to be parsed
+	 * @return The result of parsing the given ByteBuffer
+	**/
+	
+	public CompiledRecord parse(ByteBuffer data)
+	{
+		int position = data.position();
+		int limit = data.limit();
+		
+		fLastParse.clear(limit - position);
+		
+		for (int i = 0; i < fDelimiters.length; i++)
+		{
+			int end = indexOf(data, fDelimiters[i], position, limit);
+			
+			if (end > position)
+			{
+				fLastParse.setValue(fIndices[i], data, position, end);
+				
+				position = end;
+			}
+			else
+			{
+				fLastParse.setEmpty(fIndices[i]);
+			}
+			
+			position = skip(data, fPostfixes[i], position, limit);
+			position = skip(data, fTerminator, position, limit);
+		}
+		
+		data.position(position);
+		
+		return (fLastParse);
+	}
+	
+
+	/**
+	 * Parses the given CharBuffer from its position, leaving its position 
+	 * after the parsed record.
+	 *
+	 * @param data The CharBuffer to be parsed
+	 * @return The result of parsing the given CharBuffer
+	**/
+	
+	public CompiledRecord parse(CharBuffer data)
+	{
+		int position = data.position();
+		int limit = data.limit();
+		
+		fLastParse.clear(limit - position);
+		
+		for (int i = 0; i < fDelimiters.length; i++)
+		{
+			int end = indexOf(data, fDelimiters[i], position, limit);
+			
+			if (end > position)
+			{
+				fLastParse.setValue(fIndices[i], data, position, end);
+				
+				position = end;
+			}
+			else
+			{
+				fLastParse.setEmpty(fIndices[i]);
+			}
+			
+			position = skip(data, fPostfixes[i], position, limit);
+			position = skip(data, fTerminator, position, limit);
+		}
+		
+		data.position(position);
+		
+		return (fLastParse);
+	}
+	
+
+	/**
+	 * Returns the index of the first occurrence of the given ASCII delimiter 
+	 * in the given range of the given ByteBuffer, or -1 if there is none.
+	**/
+	
+	private static int indexOf(ByteBuffer data, char delimiter, int start, 
+		int end)
+	{
+		if (data.hasArray())
+		{
+			byte[] bytes = data.array();
+			int offset = data.arrayOffset();
+			
+			for (int i = start + offset; i < end + offset; i++)
+			{
+				if ((char) bytes[i] == delimiter)
+				{
+					return (i - offset);
+				}
+			}
+		}
+		else
+		{
+			for (int i = start; i < end; i++)
+			{
+				if ((char) data.get(i) == delimiter)
+				{
+					return (i);
+				}
+			}
+		}
+		
+		return (-1);
+	}
+	
+
+	/**
+	 * Returns the index of the first occurrence of the given delimiter in the 
+	 * given range of the given CharBuffer, or -1 if there is none.
+	**/
+	
+	private static int indexOf(CharBuffer data, char delimiter, int start, 
+		int end)
+	{
+		for (int i = start; i < end; i++)
+		{
+			if (data.get(i) == delimiter)
+			{
+				return (i);
+			}
+		}
+		
+		return (-1);
+	}
+	
+
+	/**
+	 * Returns the position after the given ASCII constant if it occurs at the 
+	 * given position of the given ByteBuffer, or the given position otherwise.
+	**/
+	
+	private static int skip(ByteBuffer data, char[] constant, int position, 
+		int limit)
+	{
+		if ((constant == null) || (constant.length > limit - position))
+		{
+			return (position);
+		}
+		
+		for (int i = 0; i < constant.length; i++)
+		{
+			if ((char) data.get(position + i) != constant[i])
+			{
+				return (position);
+			}
+		}
+		
+		return (position + constant.length);
+	}
+	
+
+	/**
+	 * Returns the position after the given constant if it occurs at the given 
+	 * position of the given CharBuffer, or the given position otherwise.
+	**/
+	
+	private static int skip(CharBuffer data, char[] constant, int position, 
+		int limit)
+	{
+		if ((constant == null) || (constant.length > limit - position))
+		{
+			return (position);
+		}
+		
+		for (int i = 0; i < constant.length; i++)
+		{
+			if (data.get(position + i) != constant[i])
+			{
+				return (position);
+			}
+		}
+		
+		return (position + constant.length);
+	}
+	
+
+	/**
+	 * Parses the given buffer both as compiled and by the equivalent 
+	 * RecordParser, and returns the compiled result if the two agree, or 
+	 * otherwise logs the difference and returns the interpreted result.
+	**/
+	
+	private Map verify(Buffer data, Map context)
+	{
+		Map result = null;
+		
+		Buffer interpretedData = (data instanceof ByteBuffer) ? 
+			(Buffer) ((ByteBuffer) data).duplicate() : 
+				(Buffer) ((CharBuffer) data).duplicate();
+		
+		Map interpreted = getInterpreter().parse(interpretedData, context);
+		
+		CompiledRecord compiled = (data instanceof ByteBuffer) ? 
+			parse((ByteBuffer) data) : parse((CharBuffer) data);
+		
+		if (compiled.equals(interpreted) && 
+			(data.position() == interpretedData.position()))
+		{
+			result = compiled;
+		}
+		else
+		{
+			fNumMismatches++;
+			
+			if (sLogger.isLoggable(Level.WARNING))
+			{
+				String message = "Compiled parse of record " + getName() + 
+					" " + compiled + " ending at " + data.position() + 
+						" differs from interpreted parse " + interpreted + 
+							" ending at " + interpretedData.position();
+				
+				sLogger.logp(Level.WARNING, CLASS_NAME, "verify", message);
+			}
+			
+			data.position(interpretedData.position());
+			
+			result = interpreted;
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns the RecordParser equivalent to this CompiledRecordParser, 
+	 * creating it on first use.
+	**/
+	
+	private RecordParser getInterpreter()
+	{
+		if (fInterpreter == null)
+		{
+			fInterpreter = new RecordParser(fDescriptor);
+		}
+		
+		return (fInterpreter);
+	}
+	
+
+	/** 
+	 *  Returns a String representation of this CompiledRecordParser.
+	 *
+	 *  @return A String representation of this CompiledRecordParser
+	**/
+	
+	public String toString()
+	{
+		StringBuffer result = new StringBuffer();
+		
+		result.append("CompiledRecordParser: ");
+		
+		if (fDescriptor != null)
+		{
+			result.append("\nDescriptor: " + fDescriptor);
+		}
+		
+		if (fVerifying)
+		{
+			result.append("\nVerifying");
+		}
+		
+		return (result.toString());
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -72,4 +72,16 @@ public interface DataParserFactory
 	 */
 	
 	public DataParser getDataParser(DataParserDescriptor descriptor);
+	
+	
+	/**
+	 *  Creates and returns a DataParser appropriate to the given 
+	 *  DataParserDescriptor, compiling a described record into a 
+	 *  CompiledRecordParser where its structure permits.
+	 *  
+	 *  @param A DataParserDescriptor describing the desired data parser
+	 *  @return A DataParser appropriate to the given DataParserDescriptor
+	 */
+	
+	public DataParser getCompiledDataParser(DataParserDescriptor descriptor);
 }
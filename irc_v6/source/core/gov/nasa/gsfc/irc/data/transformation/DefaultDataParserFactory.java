@@ -82,8 +82,27 @@ public class DefaultDataParserFactory extends AbstractIrcElementFactory
 		DefaultDataParserFactory.class.getName();
 	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
 	
+	/**
+	 * System property that, when true, causes records to be compiled into 
+	 * CompiledRecordParsers wherever their structure permits.
+	 */
+	public static final String COMPILE_RECORDS_PROPERTY = 
+		CLASS_NAME + ".compileRecords";
+	
+	/**
+	 * System property that, when true, causes CompiledRecordParsers to verify 
+	 * each parse against the equivalent RecordParser.
+	 */
+	public static final String VERIFY_COMPILED_RECORDS_PROPERTY = 
+		CLASS_NAME + ".verifyCompiledRecords";
+	
 	private static DataParserFactory fFactory;
 	
+	private boolean fCompilesRecords = 
+		Boolean.getBoolean(COMPILE_RECORDS_PROPERTY);
+	private boolean fVerifiesCompiledRecords = 
+		Boolean.getBoolean(VERIFY_COMPILED_RECORDS_PROPERTY);
+	
 	
 	/**
 	 *  Creates and returns a DataStreamParser appropriate to the given 
@@ -126,6 +145,37 @@ public class DefaultDataParserFactory extends AbstractIrcElementFactory
 	 */
 	
 	public DataParser getDataParser(DataParserDescriptor descriptor)
+	{
+		return (getDataParser(descriptor, fCompilesRecords));
+	}
+	
+	
+	/**
+	 *  Creates and returns a DataParser appropriate to the given 
+	 *  DataParserDescriptor, compiling a described record into a 
+	 *  CompiledRecordParser where its structure permits.
+	 *  
+	 *  @param A DataParserDescriptor describing the data parser
+	 *  @return A DataParser appropriate to the given DataParserDescriptor
+	 */
+	
+	public DataParser getCompiledDataParser(DataParserDescriptor descriptor)
+	{
+		return (getDataParser(descriptor, true));
+	}
+	
+	
+	/**
+	 *  Creates and returns a DataParser appropriate to the given 
+	 *  DataParserDescriptor, optionally compiling a described record.
+	 *  
+	 *  @param A DataParserDescriptor describing the data parser
+	 *  @param compile True if a described record is to be compiled
+	 *  @return A DataParser appropriate to the given DataParserDescriptor
+	 */
+	
+	private DataParser getDataParser(DataParserDescriptor descriptor, 
+		boolean compile)
 	{
 		DataParser parser = null;
 		
@@ -146,8 +196,26 @@ public class DefaultDataParserFactory extends AbstractIrcElementFactory
 				}
 				else if (descriptor instanceof RecordParserDescriptor)
 				{
-					parser = (DataParser) new RecordParser
-						((RecordParserDescriptor) descriptor);
+					if (compile)
+					{
+						CompiledRecordParser compiledParser = 
+							RecordParserCompiler.compile
+								((RecordParserDescriptor) descriptor);
+						
+						if (compiledParser != null)
+						{
+							compiledParser.setVerifying
+								(fVerifiesCompiledRecords);
+							
+							parser = compiledParser;
+						}
+					}
+					
+					if (parser == null)
+					{
+						parser = (DataParser) new RecordParser
+							((RecordParserDescriptor) descriptor);
+					}
 				}
 				else if (descriptor instanceof FieldParserDescriptor)
 				{
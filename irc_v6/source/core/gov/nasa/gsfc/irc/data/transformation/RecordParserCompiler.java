@@ -0,0 +1,329 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data.transformation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import gov.nasa.gsfc.irc.data.selection.CharDelimitedDataSelector;
+import gov.nasa.gsfc.irc.data.selection.StringConstantValueSelector;
+import gov.nasa.gsfc.irc.data.selection.description.BufferedDataSelectionDescriptor;
+import gov.nasa.gsfc.irc.data.selection.description.CharDelimitedDataSelectorDescriptor;
+import gov.nasa.gsfc.irc.data.selection.description.DataSelectionDescriptor;
+import gov.nasa.gsfc.irc.data.selection.description.DataSelectorDescriptor;
+import gov.nasa.gsfc.irc.data.selection.description.StringConstantValueSelectorDescriptor;
+import gov.nasa.gsfc.irc.data.transformation.description.DataParseDescriptor;
+import gov.nasa.gsfc.irc.data.transformation.description.DataParserDescriptor;
+import gov.nasa.gsfc.irc.data.transformation.description.FieldParserDescriptor;
+import gov.nasa.gsfc.irc.data.transformation.description.RecordParserDescriptor;
+import gov.nasa.gsfc.irc.data.transformation.description.SimpleValueParserDescriptor;
+import gov.nasa.gsfc.irc.description.xml.IrcElementDescriptor;
+
+
+/**
+ * A RecordParserCompiler compiles a RecordParserDescriptor into a 
+ * {@link CompiledRecordParser}, resolving the descriptor's fields, delimiters, 
+ * postfixes and terminator once rather than on every parse.
+ * <p>
+ * Only records whose structure can be decoded by a straight scan are 
+ * compiled: a record with no source, sequencer or initiator, whose fields 
+ * are named, unlabeled, unprefixed ASCII values each delimited by a single 
+ * character, optionally followed by ASCII constant postfixes and terminator, 
+ * all using the default parser and selector classes. Any other record 
+ * yields null, and should be parsed by a {@link RecordParser}.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$ 
+ * @author $Author$ 
+**/
+
+public class RecordParserCompiler
+{
+	private static final String CLASS_NAME = 
+		RecordParserCompiler.class.getName();
+	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+	
+	
+	/**
+	 * Compiles the given RecordParserDescriptor into a CompiledRecordParser, 
+	 * or returns null if the described record cannot be compiled.
+	 *
+	 * @param descriptor A RecordParserDescriptor
+	 * @return A CompiledRecordParser equivalent to a RecordParser configured 
+	 * 		by the given descriptor, or null
+	**/
+	
+	public static CompiledRecordParser compile(RecordParserDescriptor descriptor)
+	{
+		CompiledRecordParser result = null;
+		String reason = null;
+		
+		if (! usesClass(descriptor, RecordParser.class))
+		{
+			reason = "it is parsed by a custom class";
+		}
+		else if (descriptor.getSource() != null)
+		{
+			reason = "it has a source";
+		}
+		else if ((descriptor.getSequencer() != null) || 
+			(descriptor.getSequencerSeparator() != null) || 
+			(descriptor.getInitiator() != null) || 
+			(descriptor.getInitiatorSeparator() != null))
+		{
+			reason = "it has a sequencer or initiator";
+		}
+		
+		char[] terminator = null;
+		
+		if ((reason == null) && (descriptor.getTerminator() != null))
+		{
+			terminator = getConstant(descriptor.getTerminator());
+			
+			if (terminator == null)
+			{
+				reason = "its terminator is not an ASCII constant";
+			}
+		}
+		
+		Collection fieldDescriptors = descriptor.getFields();
+		
+		List names = new ArrayList();
+		char[] delimiters = new char[fieldDescriptors.size()];
+		char[][] postfixes = new char[fieldDescriptors.size()][];
+		
+		Iterator fields = fieldDescriptors.iterator();
+		
+		for (int i = 0; (reason == null) && fields.hasNext(); i++)
+		{
+			FieldParserDescriptor field = (FieldParserDescriptor) fields.next();
+			
+			if (! usesClass(field, FieldParser.class) || 
+				(field.getSource() != null) || 
+				(field.getName() == null) || 
+				(field.getPrefix() != null) || 
+				(field.getLabel() != null) || 
+				(field.getLabelSeparator() != null) || 
+				field.usesLabelAsParseKey() || 
+				field.applyToRemainingFields())
+			{
+				reason = "field " + field.getName() + 
+					" is not a simple named field";
+			}
+			else 
+			{
+				CharDelimitedDataSelectorDescriptor delimiter = 
+					getDelimiter(field.getValue());
+				
+				if (delimiter == null)
+				{
+					reason = "the value of field " + field.getName() + 
+						" is not an ASCII char-delimited value";
+				}
+				else
+				{
+					delimiters[i] = delimiter.getDelimiter();
+					names.add(field.getName());
+				}
+			}
+			
+			if ((reason == null) && (field.getPostfix() != null))
+			{
+				postfixes[i] = getConstant(field.getPostfix());
+				
+				if (postfixes[i] == null)
+				{
+					reason = "the postfix of field " + field.getName() + 
+						" is not an ASCII constant";
+				}
+			}
+		}
+		
+		if (reason == null)
+		{
+			result = new CompiledRecordParser(descriptor, 
+				(String[]) names.toArray(new String[names.size()]), 
+					delimiters, postfixes, terminator);
+		}
+		else if (sLogger.isLoggable(Level.FINE))
+		{
+			String message = "Record " + descriptor.getName() + 
+				" will be interpreted because " + reason;
+			
+			sLogger.logp(Level.FINE, CLASS_NAME, "compile", message);
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns the characters of the ASCII constant parsed as described by the 
+	 * given DataParseDescriptor, or null if it does not describe an ASCII 
+	 * constant.
+	**/
+	
+	private static char[] getConstant(DataParseDescriptor parse)
+	{
+		char[] result = null;
+		
+		SimpleValueParserDescriptor value = getSimpleValue(parse);
+		
+		if ((value != null) && (value.getConstantValue() != null))
+		{
+			if (value.isAscii())
+			{
+				result = value.getConstantValue().toCharArray();
+			}
+		}
+		else if ((value != null) && (value.getSource() == null))
+		{
+			DataSelectorDescriptor selector = getSelector(value);
+			
+			if ((selector instanceof StringConstantValueSelectorDescriptor) && 
+				usesClass(selector, StringConstantValueSelector.class))
+			{
+				StringConstantValueSelectorDescriptor constant = 
+					(StringConstantValueSelectorDescriptor) selector;
+				
+				if (constant.isAscii() && (constant.getValue() != null))
+				{
+					result = constant.getValue().toCharArray();
+				}
+			}
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns the descriptor of the ASCII char delimiter of the value parsed 
+	 * as described by the given DataParseDescriptor, or null if it does not 
+	 * describe an ASCII char-delimited value.
+	**/
+	
+	private static CharDelimitedDataSelectorDescriptor getDelimiter
+		(DataParseDescriptor parse)
+	{
+		CharDelimitedDataSelectorDescriptor result = null;
+		
+		SimpleValueParserDescriptor value = getSimpleValue(parse);
+		
+		if ((value != null) && (value.getConstantValue() == null) && 
+			(value.getSource() == null))
+		{
+			DataSelectorDescriptor selector = getSelector(value);
+			
+			if ((selector instanceof CharDelimitedDataSelectorDescriptor) && 
+				usesClass(selector, CharDelimitedDataSelector.class) && 
+				((CharDelimitedDataSelectorDescriptor) selector).isAscii())
+			{
+				result = (CharDelimitedDataSelectorDescriptor) selector;
+			}
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns the SimpleValueParserDescriptor of the given DataParseDescriptor, 
+	 * or null if it does not describe a default simple value parse.
+	**/
+	
+	private static SimpleValueParserDescriptor getSimpleValue
+		(DataParseDescriptor parse)
+	{
+		SimpleValueParserDescriptor result = null;
+		
+		if ((parse != null) && usesClass(parse, SimpleValueParser.class))
+		{
+			DataParserDescriptor parser = parse.getDataParser();
+			
+			if ((parser instanceof SimpleValueParserDescriptor) && 
+				usesClass(parser, SimpleValueParser.class))
+			{
+				result = (SimpleValueParserDescriptor) parser;
+			}
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns the unbuffered DataSelectorDescriptor of the selection of the 
+	 * given SimpleValueParserDescriptor, or null if it has none.
+	**/
+	
+	private static DataSelectorDescriptor getSelector
+		(SimpleValueParserDescriptor value)
+	{
+		DataSelectorDescriptor result = null;
+		
+		DataSelectionDescriptor selection = value.getSelection();
+		
+		if ((selection != null) && 
+			! (selection instanceof BufferedDataSelectionDescriptor) && 
+			usesClass(selection, null))
+		{
+			result = selection.getDataSelector();
+		}
+		
+		return (result);
+	}
+	
+
+	/**
+	 * Returns true if the given descriptor, if it is an IrcElementDescriptor, 
+	 * either names no class or names the given default class.
+	**/
+	
+	private static boolean usesClass(Object descriptor, Class defaultClass)
+	{
+		boolean result = true;
+		
+		if (descriptor instanceof IrcElementDescriptor)
+		{
+			String className = 
+				((IrcElementDescriptor) descriptor).getClassName();
+			
+			result = (className == null) || ((defaultClass != null) && 
+				className.equals(defaultClass.getName()));
+		}
+		
+		return (result);
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
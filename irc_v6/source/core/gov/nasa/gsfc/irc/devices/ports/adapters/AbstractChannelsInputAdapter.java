@@ -23,25 +23,20 @@
 package gov.nasa.gsfc.irc.devices.ports.adapters;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.Pipe;
 import java.nio.channels.ScatteringByteChannel;
-import java.nio.channels.SelectableChannel;
-import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
-import java.nio.channels.WritableByteChannel;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import edu.emory.mathcs.backport.java.util.concurrent.CopyOnWriteArrayList;
+import edu.emory.mathcs.backport.java.util.concurrent.atomic.AtomicBoolean;
 
 import gov.nasa.gsfc.commons.publishing.messages.Message;
 import gov.nasa.gsfc.commons.publishing.paths.DefaultPath;
 import gov.nasa.gsfc.commons.publishing.paths.Path;
 import gov.nasa.gsfc.commons.types.buffers.BufferHandle;
+import gov.nasa.gsfc.commons.types.buffers.BufferHandleChannel;
 import gov.nasa.gsfc.commons.types.queues.FifoQueue;
 import gov.nasa.gsfc.commons.types.queues.Queue;
 import gov.nasa.gsfc.irc.devices.events.InputMessageEvent;
@@ -49,15 +44,21 @@ import gov.nasa.gsfc.irc.devices.events.InputMessageListener;
 
 /**
  * This class converts the many InputBuffers received from a Connection into a 
- * set of readable Channels. This class takes the InputBuffers and writes them 
- * to dedicated internal pipes. One pipe per unique BufferHandle 
+ * set of readable Channels. This class appends the InputBuffers to dedicated 
+ * internal {@link BufferHandleChannel BufferHandleChannels}, one channel per 
+ * unique BufferHandle 
  * {@link gov.nasa.gsfc.commons.types.buffers.BufferHandle#getContext() context}. 
- * When a pipe has data available for reading the abstract
+ * The buffers are not copied: each channel holds the received BufferHandles 
+ * until their data has been read. When a channel has data available for 
+ * reading the abstract
  * {@link #processChannel(ScatteringByteChannel,Object) processChannel} method 
  * is called with the readable channel. Since one internal thread is used to 
- * monitor the status of all the pipes the channel is in nonblocking mode and 
+ * process all the channels the channel is in nonblocking mode and 
  * subclasses should not block in this method. A nonblocking channel does impose
- * some limitations on how the channel can be used.
+ * some limitations on how the channel can be used. Subclasses that can parse
+ * data in place may cast the channel to <code>BufferHandleChannel</code> and
+ * read the received buffers directly with
+ * {@link BufferHandleChannel#getReadableBuffer() getReadableBuffer}.
  * <p>
  * Since parsing messages may not be applicable to all subclasses, this 
  * abstract class does not declare that it implements
@@ -78,11 +79,10 @@ public abstract class AbstractChannelsInputAdapter extends AbstractInputAdapter
 	private transient List fListeners = new CopyOnWriteArrayList();
 
 	private ServiceThread fServiceThread = null;
-	private Map fPipeByContextMap = new HashMap();
+	private Map fChannelByContextMap = new HashMap();
 
-	//---DataSelector
-	private Selector fSelector = null;
-	private Queue fPendingPipeQueue = new FifoQueue();
+	// Channels that have new data to process
+	private Queue fReadyChannelQueue = new FifoQueue();
 
 	/**
 	 *  Constructs a new ChannelsInputAdapter having the given base name.
@@ -93,16 +93,6 @@ public abstract class AbstractChannelsInputAdapter extends AbstractInputAdapter
 	public AbstractChannelsInputAdapter(String name)
 	{
 		super(name);
-
-		try
-		{
-			//---DataSelector
-			fSelector = Selector.open();
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
-		}
 	}
 	
 	
@@ -116,22 +106,12 @@ public abstract class AbstractChannelsInputAdapter extends AbstractInputAdapter
 	public AbstractChannelsInputAdapter(InputAdapterDescriptor descriptor)
 	{
 		super(descriptor);
-
-		try
-		{
-			//---DataSelector
-			fSelector = Selector.open();
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
-		}
 	}
 	
 
 	/**
-	 * Causes this InputAdapter to process the specified buffer by writing the
-	 * data to an internal pipe.
+	 * Causes this InputAdapter to process the specified buffer by appending 
+	 * it to the internal channel of its context.
 	 *
 	 * @param handle BufferHandle to a buffer to be processed
 	 * @return null.
@@ -141,39 +121,28 @@ public abstract class AbstractChannelsInputAdapter extends AbstractInputAdapter
 	 */
 	public Object process(BufferHandle handle) throws InputException
 	{
-		ByteBuffer buffer = (ByteBuffer) handle.getBuffer();
-		Object context = handle.getContext();
-		Pipe pipe = getPipe(context);
+		ChannelEntry entry = getChannelEntry(handle.getContext());
 		
 		try
 		{
-			if (pipe == null)
-			{
-				// Create a new Pipe for the new context
-				pipe = Pipe.open();
-				
-				// Save the pipe for future use
-				addPipe(context, pipe);
-			}
-			
-			// Set up the bridge between a ByteBuffer and the pipe
-			WritableByteChannel channel = pipe.sink();
-			
-			// Write the new data to the internal pipe
-			while (buffer.remaining() > 0)
-			{
-				channel.write(buffer);
-			}
+			// Hold the buffer in the channel until it has been read
+			entry.fChannel.append(handle);
 		}
 		catch (IOException e)
 		{
-			String detail = "Input channel adapter unable to write to internal pipe";
+			String detail = "Input channel adapter unable to append to internal channel";
 			InputException exception = new InputException(detail);
 			exception.initCause(e);
 			
 			throw exception;
 		}
 		
+		// Schedule the channel unless it is already waiting to be processed
+		if (entry.fScheduled.compareAndSet(false, true))
+		{
+			fReadyChannelQueue.add(entry);
+		}
+		
 		return null;
 	}
 	
@@ -230,33 +199,51 @@ public abstract class AbstractChannelsInputAdapter extends AbstractInputAdapter
 	{
 		stop();
 		super.kill();
+		closeChannels();
 	}
 
 	/**
-	 * Get the Pipe associated with the given context.
+	 * Get the channel entry associated with the given context, creating it 
+	 * if this is a new context.
 	 * 
 	 * @param context the BufferHandle context
-	 * @return the associated Pipe
+	 * @return the associated ChannelEntry
 	 */
-	private Pipe getPipe(Object context)
+	private ChannelEntry getChannelEntry(Object context)
 	{
-		return (Pipe) fPipeByContextMap.get(context);
+		synchronized (fChannelByContextMap)
+		{
+			ChannelEntry entry = 
+				(ChannelEntry) fChannelByContextMap.get(context);
+			
+			if (entry == null)
+			{
+				// Create and save a new channel for the new context
+				entry = new ChannelEntry(new BufferHandleChannel(), context);
+				fChannelByContextMap.put(context, entry);
+			}
+			
+			return entry;
+		}
 	}
 	
 	/**
-	 * Add the given pipe and map it to the given context.
-	 * 
-	 * @param context the BufferHandle context
-	 * @param pipe the associated pipe.
+	 * Closes all the internal channels, releasing any buffers they hold.
 	 */
-	private void addPipe(Object context, Pipe pipe)
-	{		
-		// Save the pipe for future use
-		fPipeByContextMap.put(context, pipe);		
-		fPendingPipeQueue.add(new PipeEntry(pipe, context));
+	private void closeChannels()
+	{
+		synchronized (fChannelByContextMap)
+		{
+			for (Iterator iter = fChannelByContextMap.values().iterator(); 
+				iter.hasNext();)
+			{
+				((ChannelEntry) iter.next()).fChannel.close();
+			}
+			
+			fChannelByContextMap.clear();
+		}
 		
-		// Wake up blocked selector to handle new pipe
-		fSelector.wakeup();
+		fReadyChannelQueue.clear();
 	}
 	
 	/**
@@ -361,7 +348,7 @@ public abstract class AbstractChannelsInputAdapter extends AbstractInputAdapter
 	// --- Utility classes ----------------------------------------------------
 	
 	/**
-	 * The ServiceThread class listens for new data from the connection.
+	 * The ServiceThread class processes the channels that have new data.
 	**/
 	protected class ServiceThread extends Thread
 	{
@@ -374,106 +361,96 @@ public abstract class AbstractChannelsInputAdapter extends AbstractInputAdapter
 		}
 
 		/**
-		 * Continously listens for new data on internal pipes.
+		 * Continously processes channels as new data becomes available.
 		 */
 		public void run()
 		{
 			while(!isInterrupted())
 			{
+				ChannelEntry entry = null;
+				
 				try
 				{
-					// Block until a channel has a pending operation
-					fSelector.select();
+					// Block until a channel has new data
+					entry = (ChannelEntry) fReadyChannelQueue.blockingRemove();
 				}
-				catch (IOException e)
+				catch (InterruptedException e)
 				{
-					// TODO Auto-generated catch block
-					e.printStackTrace();
+					interrupt();
 				}
-					
-				//---Check if any channels have a pending reads
-				Set selectedSet = fSelector.selectedKeys();
-				int setSize = selectedSet.size();
 				
-				if (setSize > 0)	
-				{	
-					Iterator iter = fSelector.selectedKeys().iterator();
-					
-					while (iter.hasNext())
-					{
-						SelectionKey key = (SelectionKey) iter.next();
-
-						//---Check if there is data to read from connection
-						if (key.isReadable())
-						{
-							ScatteringByteChannel channel = 
-								(ScatteringByteChannel) key.channel();
+				if (entry != null)
+				{
+					processEntry(entry);
+				}
+			}
+		}
+		
+		/**
+		 * Calls <code>processChannel</code> for the channel of the given 
+		 * entry. As with a selector, the channel is processed again as long 
+		 * as data remains and the previous call consumed some of it.
+		 * 
+		 * @param entry the ChannelEntry that has new data
+		 */
+		private void processEntry(ChannelEntry entry)
+		{
+			BufferHandleChannel channel = entry.fChannel;
 
-							Object result = 
-								processChannel(channel, key.attachment());
+			// New data appended from here on will schedule the entry again,
+			// so clear the flag before reading what is available, else data 
+			// appended in between would be neither seen nor scheduled
+			entry.fScheduled.set(false);
+			
+			long available = channel.available();
+			
+			while (available > 0 && !isInterrupted())
+			{
+				Object result = processChannel(channel, entry.fContext);
 
-							// Check if the result is a message
-							if (result != null && result instanceof Message)
-							{
-								processInputMessage(
-									(Message) result, key.attachment());
-							}
-						}
-						
-						//---Remove key from selected set
-						iter.remove();
-					}
+				// Check if the result is a message
+				if (result != null && result instanceof Message)
+				{
+					processInputMessage((Message) result, entry.fContext);
 				}
 				
-				// Get and register any new pipes
-				while (fPendingPipeQueue.get() != null)
+				long remaining = channel.available();
+				
+				if (remaining >= available)
 				{
-					PipeEntry entry = (PipeEntry) fPendingPipeQueue.remove();
-					
-					if (entry != null)
-					{
-						try
-						{
-							SelectableChannel channel = entry.fPipe.source();
-							channel.configureBlocking(false);
-							channel.register(
-								fSelector, SelectionKey.OP_READ, entry.fContext);
-						}
-						catch (IOException e1)
-						{
-							// TODO Auto-generated catch block
-							e1.printStackTrace();
-						}
-					}
+					// No progress, so wait for more data
+					break;
 				}
+				
+				available = remaining;
 			}
 		}
 	} // End ServiceThread Class
 	
 	/**
-	 * Internal temp structure for keeping an association between 
-	 * a Pipe and a context.
+	 * Internal structure for keeping an association between 
+	 * a channel and a context.
 	 */
-	protected static class PipeEntry
+	protected static class ChannelEntry
 	{
-		private Pipe fPipe;
+		private BufferHandleChannel fChannel;
 		private Object fContext;
+		private AtomicBoolean fScheduled = new AtomicBoolean(false);
 
 		/**
 		 * Constructor.
 		 * 
-		 * @param pipe the Pipe
-		 * @param context the associated context of the Pipe.
+		 * @param channel the BufferHandleChannel
+		 * @param context the associated context of the channel.
 		 */
-		public PipeEntry(Pipe pipe, Object context)
+		public ChannelEntry(BufferHandleChannel channel, Object context)
 		{
-			fPipe = pipe;
+			fChannel = channel;
 			fContext = context;
 		}
 	}
 }
 
-
 //--- Development History  ---------------------------------------------------
 //
 //  $Log: AbstractChannelsInputAdapter.java,v $
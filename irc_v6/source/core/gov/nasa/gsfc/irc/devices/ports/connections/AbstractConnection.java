@@ -39,6 +39,7 @@ import java.util.logging.Logger;
 import edu.emory.mathcs.backport.java.util.concurrent.CopyOnWriteArrayList;
 
 import gov.nasa.gsfc.commons.types.buffers.BufferHandle;
+import gov.nasa.gsfc.commons.types.buffers.ByteBufferPool;
 import gov.nasa.gsfc.irc.components.AbstractManagedComponent;
 import gov.nasa.gsfc.irc.description.Descriptor;
 
@@ -54,7 +55,8 @@ import gov.nasa.gsfc.irc.description.Descriptor;
  * {@link gov.nasa.gsfc.irc.devices.ports.connections.InputBufferEvent InputBufferEvents} 
  * for data received by the Connnection. See the 
  * {@link #fireInputBufferEvent(InputBufferEvent) fireInputBufferEvent} 
- * method.
+ * method. Buffers for received data can be leased from the
+ * {@link #getReceiveBufferPool() receive buffer pool} of the Connection.
  * <li>Fire a {@link gov.nasa.gsfc.irc.devices.ports.connections.ConnectEvent ConnectEvent}
  * when an initial or new connection has been made or received. See the 
  * {@link #publishConnectionAdded(Object) publishConnectionAdded} method.
@@ -75,6 +77,9 @@ public abstract class AbstractConnection extends AbstractManagedComponent
 	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
 	
 	public static final String DEFAULT_NAME = "Connection";
+	
+	// Smallest buffer held by the receive buffer pool
+	private static final int MIN_RECEIVE_BUFFER_SIZE = 1024;
 
 	// ConnectEvent listeners
 	private transient List fConnectListeners = new CopyOnWriteArrayList();
@@ -82,6 +87,9 @@ public abstract class AbstractConnection extends AbstractManagedComponent
 	// InputBufferEvent listeners
 	private transient List fInputListeners = new CopyOnWriteArrayList();
 	
+	// Pool of reusable buffers for received data
+	private transient ByteBufferPool fReceiveBufferPool = null;
+	
 	// Parameters for dumping connection data to a file
 	public final static String FILE_NAME_KEY = "filename";
 	public final static String ENABLE_FILE_DUMP_KEY = "dumpToFile";
@@ -319,6 +327,26 @@ public abstract class AbstractConnection extends AbstractManagedComponent
 				fInputListeners.toArray(
 						new InputBufferListener[fInputListeners.size()]));
 	}
+	
+	/**
+	 * Gets the pool of direct buffers for received data. A subclass leases a
+	 * buffer for each read, fires it in an InputBufferEvent and then 
+	 * releases it, after which the buffer is reused by a later read. A 
+	 * listener that needs the buffer after handling the event must mark the
+	 * BufferHandle as in use and release it when done.
+	 * 
+	 * @return the receive buffer pool of this Connection
+	 */
+	public synchronized ByteBufferPool getReceiveBufferPool()
+	{
+		if (fReceiveBufferPool == null)
+		{
+			fReceiveBufferPool = new ByteBufferPool(MIN_RECEIVE_BUFFER_SIZE, 
+				ByteBufferPool.DEFAULT_CAPACITY);
+		}
+		
+		return (fReceiveBufferPool);
+	}
 
 
 	/**
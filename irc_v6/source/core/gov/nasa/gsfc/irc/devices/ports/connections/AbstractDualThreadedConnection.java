@@ -27,7 +27,12 @@ import java.nio.ByteBuffer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import gov.nasa.gsfc.commons.types.buffers.BufferHandle;
+import gov.nasa.gsfc.commons.types.queues.BoundedQueue;
 import gov.nasa.gsfc.commons.types.queues.KeepOptionalBoundedQueue;
+import gov.nasa.gsfc.commons.types.queues.OverflowPolicy;
+import gov.nasa.gsfc.commons.types.queues.QueueFactory;
+import gov.nasa.gsfc.commons.types.queues.WaitStrategy;
 import gov.nasa.gsfc.irc.description.Descriptor;
 
 /**
@@ -77,6 +82,16 @@ import gov.nasa.gsfc.irc.description.Descriptor;
  *      be queued up.
  *      </td>
  *  </tr>
+ *  <tr align="center">
+ *      <td>queueType</td><td>blocking</td>
+ *      <td align="left">The implementation of the queue. The options are
+ *       "blocking" for a synchronized queue, and "spsc", "mpsc" or "mpmc" for
+ *       a lock-free queue that allows a single or multiple publishers
+ *       and a single or multiple writers. The writer Thread is the only 
+ *       consumer, so "mpsc" suits most Connections. The capacity of a 
+ *       lock-free queue is rounded up to the next power of two, and can only
+ *       be changed while the Connection is stopped.</td>
+ *  </tr>
  *  </table>
  *  </center>
  *
@@ -111,10 +126,17 @@ public abstract class AbstractDualThreadedConnection
 	public static final String KEEP_LATEST_STR = "keepLatest";
 	public static final String KEEP_EARLIEST_STR = "keepEarliest";
 	public static final String KEEP_CAPACITY_KEY = "queueCapacity";
+	public static final String QUEUE_TYPE_KEY = "queueType";
+	public static final String BLOCKING_QUEUE_STR = "blocking";
 
 	private WriterThread fWriterThread = null;
-	private KeepOptionalBoundedQueue fOutputQueue = 
+	private volatile BoundedQueue fOutputQueue = 
 		new KeepOptionalBoundedQueue(10);
+	private String fQueueType = BLOCKING_QUEUE_STR;
+	
+	// Serializes producers whose events may be discarded, so that an event 
+	// is only discarded here, where its buffer can be released.
+	private final Object fDiscardLock = new Object();
 
 
 	/**
@@ -126,7 +148,7 @@ public abstract class AbstractDualThreadedConnection
 	{
 		super(DEFAULT_NAME);
 		
-		fOutputQueue.setKeepAll();
+		fOutputQueue.setOverflowPolicy(OverflowPolicy.KEEP_ALL);
 	}
 	
 	
@@ -141,7 +163,7 @@ public abstract class AbstractDualThreadedConnection
 	{
 		super(name);
 		
-		fOutputQueue.setKeepAll();
+		fOutputQueue.setOverflowPolicy(OverflowPolicy.KEEP_ALL);
 	}
 	
 	
@@ -155,7 +177,7 @@ public abstract class AbstractDualThreadedConnection
 	{
 		super(descriptor);
 		
-		fOutputQueue.setKeepAll();
+		fOutputQueue.setOverflowPolicy(OverflowPolicy.KEEP_ALL);
 		
 		configureFromDescriptor(descriptor);
 	}
@@ -214,14 +236,114 @@ public abstract class AbstractDualThreadedConnection
 	 */
 	public void setCapacity(int capacity) throws IllegalArgumentException
 	{
-		try
+		if (fOutputQueue instanceof KeepOptionalBoundedQueue)
+		{
+			KeepOptionalBoundedQueue queue = 
+				(KeepOptionalBoundedQueue) fOutputQueue;
+			
+			try
+			{
+				queue.setCapacity(capacity);
+			}
+			catch (IllegalArgumentException e)
+			{
+				queue.clear();
+				queue.setCapacity(capacity);
+			}
+		}
+		else
+		{
+			setOutputQueue(fQueueType, capacity);
+		}
+	}
+
+	/**
+	 * Returns the type of the queue of OutputBufferEvents.
+	 *
+	 * @return "blocking", "spsc", "mpsc" or "mpmc"
+	 * @see #QUEUE_TYPE_KEY
+	 **/
+	public String getQueueType()
+	{
+		return (fQueueType);
+	}
+
+	/**
+	 * Sets the type of the queue of OutputBufferEvents, keeping its capacity
+	 * and keep mode. Queued events are discarded.
+	 *
+	 * @param type "blocking", "spsc", "mpsc" or "mpmc"
+	 * @throws IllegalArgumentException if the type is unknown
+	 * @see #QUEUE_TYPE_KEY
+	 **/
+	public void setQueueType(String type) throws IllegalArgumentException
+	{
+		if (! type.equals(fQueueType))
+		{
+			setOutputQueue(type, fOutputQueue.getCapacity());
+		}
+	}
+
+	/**
+	 * Replaces the queue of OutputBufferEvents with a new queue of the given 
+	 * type and capacity having the keep mode of the current queue. The queue
+	 * is not replaced while the writer Thread is running, since it may be 
+	 * waiting on the current queue.
+	 *
+	 * @param type "blocking", "spsc", "mpsc" or "mpmc"
+	 * @param capacity the capacity of the new queue
+	 * @throws IllegalArgumentException if the type or capacity is invalid
+	 */
+	private synchronized void setOutputQueue(String type, int capacity)
+		throws IllegalArgumentException
+	{
+		if (fWriterThread != null && fWriterThread.isAlive())
+		{
+			String message = "Cannot change output Queue of " + 
+				getFullyQualifiedName() + " while it is started";
+
+			sLogger.logp(Level.WARNING, CLASS_NAME, 
+					"setOutputQueue", message);
+			
+			return;
+		}
+		
+		BoundedQueue queue = null;
+		OverflowPolicy policy = fOutputQueue.getOverflowPolicy();
+		
+		if (BLOCKING_QUEUE_STR.equals(type))
+		{
+			queue = new KeepOptionalBoundedQueue(capacity);
+			queue.setOverflowPolicy(policy);
+		}
+		else
+		{
+			queue = QueueFactory.createQueue(
+				type, capacity, policy, WaitStrategy.PARK);
+		}
+		
+		BoundedQueue oldQueue = fOutputQueue;
+		
+		fOutputQueue = queue;
+		fQueueType = type;
+		
+		for (Object event = oldQueue.remove(); event != null; 
+			event = oldQueue.remove())
 		{
-			fOutputQueue.setCapacity(capacity);
+			releaseEvent((OutputBufferEvent) event);
 		}
-		catch (IllegalArgumentException e)
+	}
+	
+	/**
+	 * Releases the buffer held by the given event, if any.
+	 *
+	 * @param event an OutputBufferEvent
+	 */
+	private void releaseEvent(OutputBufferEvent event)
+	{
+		if (event.getBufferHandle() != null)
 		{
-			fOutputQueue.clear();
-			fOutputQueue.setCapacity(capacity);
+			event.getBufferHandle().release();
 		}
 	}
 
@@ -244,7 +366,8 @@ public abstract class AbstractDualThreadedConnection
 	 */
 	public boolean isKeepAll()
 	{
-		return (fOutputQueue.isKeepAll());
+		return (fOutputQueue.getOverflowPolicy() == 
+			OverflowPolicy.KEEP_ALL);
 	}
 
 	/**
@@ -252,7 +375,7 @@ public abstract class AbstractDualThreadedConnection
 	 */
 	public void setKeepAll()
 	{
-		fOutputQueue.setKeepAll();
+		fOutputQueue.setOverflowPolicy(OverflowPolicy.KEEP_ALL);
 	}
 
 	/**
@@ -263,7 +386,8 @@ public abstract class AbstractDualThreadedConnection
 	 */
 	public boolean isKeepLatest()
 	{
-		return (fOutputQueue.isKeepLatest());
+		return (fOutputQueue.getOverflowPolicy() == 
+			OverflowPolicy.KEEP_LATEST);
 	}
 
 	/**
@@ -271,7 +395,7 @@ public abstract class AbstractDualThreadedConnection
 	 */
 	public void setKeepLatest()
 	{
-		fOutputQueue.setKeepLatest();
+		fOutputQueue.setOverflowPolicy(OverflowPolicy.KEEP_LATEST);
 	}
 
 	/**
@@ -282,7 +406,8 @@ public abstract class AbstractDualThreadedConnection
 	 */
 	public boolean isKeepEarliest()
 	{
-		return (fOutputQueue.isKeepEarliest());
+		return (fOutputQueue.getOverflowPolicy() == 
+			OverflowPolicy.KEEP_EARLIEST);
 	}
 
 	/**
@@ -290,31 +415,91 @@ public abstract class AbstractDualThreadedConnection
 	 */
 	public void setKeepEarliest()
 	{
-		fOutputQueue.setKeepEarliest();
+		fOutputQueue.setOverflowPolicy(OverflowPolicy.KEEP_EARLIEST);
 	}
 
 	/**
 	 * Overrides super class implementation to Queue the event
 	 * for later handling by the internally managed writer Thread. The 
 	 * internal Thread will call the protected method
-	 * <code>handleQueuedOutputEvent</code>.
+	 * <code>handleQueuedOutputEvent</code>. If the data of the event is held
+	 * by a BufferHandle, the handle is marked as in use until the event has
+	 * been handled, or until it is discarded by the overflow policy of the 
+	 * Queue.
 	 *
 	 * @param event event containing a buffer
 	 * @see #handleQueuedOutputEvent(OutputBufferEvent)
 	 */
 	public final void handleOutputBufferEvent(OutputBufferEvent event)
 	{
-		//System.out.println("AbstractDualThreaded Queue size:" + fOutputQueue.size());
+		BufferHandle handle = event.getBufferHandle();
+		
+		if (handle != null)
+		{
+			handle.setInUse();
+		}
 		
 		try
 		{
-			fOutputQueue.blockingAdd(event);
+			if (!enqueue(event))
+			{
+				releaseEvent(event);
+			}
 		}
 		catch (InterruptedException e)
 		{
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			releaseEvent(event);
+			
+			String message = "Interrupted while queueing output; discarded";
+			sLogger.logp(Level.FINE, CLASS_NAME, 
+				"handleOutputBufferEvent", message, e);
+			
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Adds the given event to the Queue according to its overflow policy. 
+	 * With the keep latest policy the earliest queued events are removed 
+	 * and released here to make room, rather than discarded by the Queue.
+	 *
+	 * @param event an OutputBufferEvent
+	 * @return false if the event was discarded by the keep earliest policy
+	 * @throws InterruptedException if interrupted while waiting for room
+	 */
+	private boolean enqueue(OutputBufferEvent event) 
+		throws InterruptedException
+	{
+		boolean result = true;
+		BoundedQueue queue = fOutputQueue;
+		OverflowPolicy policy = queue.getOverflowPolicy();
+		
+		if (policy == OverflowPolicy.KEEP_ALL)
+		{
+			queue.blockingAdd(event);
 		}
+		else
+		{
+			synchronized (fDiscardLock)
+			{
+				if (policy == OverflowPolicy.KEEP_LATEST)
+				{
+					while (queue.size() >= queue.getCapacity())
+					{
+						Object earliest = queue.remove();
+						
+						if (earliest != null)
+						{
+							releaseEvent((OutputBufferEvent) earliest);
+						}
+					}
+				}
+				
+				result = queue.add(event);
+			}
+		}
+		
+		return (result);
 	}
 
 	/**
@@ -354,20 +539,37 @@ public abstract class AbstractDualThreadedConnection
 			return;
 		}
 		
+		String queueType = descriptor.getParameter(QUEUE_TYPE_KEY);
+		if (queueType != null)
+		{
+			try
+			{
+				setQueueType(queueType);
+			}
+			catch (IllegalArgumentException e)
+			{
+				String message = 
+					"Attempt to set invalid output Queue type " + queueType;
+	
+				sLogger.logp(Level.WARNING, CLASS_NAME, 
+						"configureFromDescriptor", message, e);
+			}
+		}
+		
 		String keepMode = descriptor.getParameter(KEEP_KEY);
 		if (keepMode != null)
 		{
 			if (keepMode.equals(KEEP_ALL_STR))
 			{
-				fOutputQueue.setKeepAll();
+				setKeepAll();
 			}
 			else if (keepMode.equals(KEEP_LATEST_STR))
 			{
-				fOutputQueue.setKeepLatest();
+				setKeepLatest();
 			}
 			else if (keepMode.equals(KEEP_EARLIEST_STR))
 			{
-				fOutputQueue.setKeepEarliest();
+				setKeepEarliest();
 			}
 		}
 
@@ -390,7 +592,7 @@ public abstract class AbstractDualThreadedConnection
 				else 
 				{
 					//---Set the capacity 
-					fOutputQueue.setCapacity(capacity);			
+					setCapacity(capacity);			
 				}
 			}
 			catch (NumberFormatException e)
@@ -461,7 +663,19 @@ public abstract class AbstractDualThreadedConnection
 					OutputBufferEvent event = 
 						(OutputBufferEvent) fOutputQueue.blockingRemove();
 					
-					handleQueuedOutputEvent(event);
+					if (event == null)
+					{
+						continue;
+					}
+					
+					try
+					{
+						handleQueuedOutputEvent(event);
+					}
+					finally
+					{
+						releaseEvent(event);
+					}
 				}
 				catch (InterruptedException e)
 				{
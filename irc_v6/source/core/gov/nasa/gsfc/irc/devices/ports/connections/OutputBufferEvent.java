@@ -30,12 +30,19 @@ import java.nio.ByteBuffer;
 import java.util.EventObject;
 
 import gov.nasa.gsfc.commons.publishing.paths.Path;
+import gov.nasa.gsfc.commons.types.buffers.BufferHandle;
 
 /**
  * OutputBufferEvent is used to notify interested parties that a source
  * OutputAdapter has created output data. The send context Path for this event
  * should be set from an associated OutputMessageEvent if one exists.
  * <P>
+ * The data of an event may optionally be held by a 
+ * {@link BufferHandle BufferHandle}, typically one leased from a pool. A 
+ * listener that keeps the data beyond the return of its handler must mark 
+ * the handle as in use and release it when done; the source releases its 
+ * own use of the handle once the event has been delivered.
+ * <P>
  * This code was developed for NASA, Goddard Space Flight Center, Code 580 for
  * the Instrument Remote Control (IRC) project.
  * 
@@ -46,6 +53,7 @@ public class OutputBufferEvent extends EventObject
 {
 	private ByteBuffer fData;
 	private Path fSendContext = null;
+	private BufferHandle fBufferHandle = null;
 
 	/**
 	 * Creates a new OutputBufferEvent with the specified data. The path is set
@@ -56,7 +64,7 @@ public class OutputBufferEvent extends EventObject
 	 */
 	public OutputBufferEvent(Object source, ByteBuffer data)
 	{
-		this(source, data, null);
+		this(source, data, (Path) null);
 	}
 
 	/**
@@ -73,6 +81,20 @@ public class OutputBufferEvent extends EventObject
 		fSendContext = sendContext;
 	}
 
+	/**
+	 * Creates a new OutputBufferEvent with the specified data held by the
+	 * given BufferHandle. The path is set to null.
+	 * 
+	 * @param source The object on which the Event initially occurred.
+	 * @param data The data received by the source.
+	 * @param handle The handle that holds the data
+	 */
+	public OutputBufferEvent(Object source, ByteBuffer data, BufferHandle handle)
+	{
+		this(source, data, (Path) null);
+		fBufferHandle = handle;
+	}
+
 	/**
 	 * Returns the send context for this event.
 	 * 
@@ -92,6 +114,17 @@ public class OutputBufferEvent extends EventObject
 	{
 		return fData;
 	}
+
+	/**
+	 * Gets the handle that holds the data of this event, if any.
+	 * 
+	 * @return the BufferHandle of the data or null if the data is not held 
+	 * 		by a handle
+	 */
+	public BufferHandle getBufferHandle()
+	{
+		return fBufferHandle;
+	}
 }
 
 // --- Development History ---------------------------------------------------
@@ -289,6 +289,7 @@ public class VisInput extends DefaultInput
 		basisRequest.setRequestAmount(fRequestAmount);
 		// TODO should the basis request downsampling override the inputs?
 		basisRequest.setDownsamplingRate(getDownsamplingRate());
+		basisRequest.setDownsamplingMode(getDownsamplingMode());
 		
 		return basisRequest;
 	 }
@@ -23,6 +23,8 @@
 package gov.nasa.gsfc.irc.library.archiving.data;
 
 import gov.nasa.gsfc.irc.app.Irc;
+import gov.nasa.gsfc.irc.data.BasisBundleId;
+import gov.nasa.gsfc.irc.data.events.BasisSetListener;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -31,6 +33,10 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Vector;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -40,6 +46,11 @@ import com.thoughtworks.xstream.XStream;
 /**
  *  ArchiveCatalog maintains a list of user sessions. Each user session has
  *  a list of archived files along with their start and stop times.
+ *  
+ *  The catalog can also be queried for the data of one BasisBundle over a 
+ *  range of archive times (see ArchiveQuery). The file start and stop times 
+ *  select the files to read, and the time index of each file selects the 
+ *  records within it, so a query never reads data outside its range.
  *
  *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
  *  for the Instrument Remote Control (IRC) project.
@@ -104,6 +115,74 @@ public class ArchiveCatalog
         fSessions.remove(session);
     }
     
+    /**
+     * Returns the archived files that may hold data matching the given 
+     * query, ordered by start time.
+     * 
+     * @param query an ArchiveQuery
+     * @return a List of ArchiveFileInfos
+     */
+    public List findFiles(ArchiveQuery query)
+    {
+        List result = new ArrayList();
+        String name = query.getBasisBundleName();
+        
+        for (int i = 0; i < fSessions.size(); i++)
+        {
+            ArchiveSession session = (ArchiveSession)fSessions.elementAt(i);
+            BasisBundleId basisBundleId = session.getBasisBundleId();
+            
+            if (basisBundleId != null 
+                    && (name.equals(basisBundleId.getName()) 
+                        || name.equals(basisBundleId.getFullyQualifiedName())))
+            {
+                for (int j = 0; j < session.getFiles().size(); j++)
+                {
+                    ArchiveFileInfo file = 
+                        (ArchiveFileInfo)session.getFiles().elementAt(j);
+                    
+                    if (query.overlaps(file.getStartTime(), file.getStopTime()))
+                    {
+                        result.add(file);
+                    }
+                }
+            }
+        }
+        
+        Collections.sort(result, new Comparator()
+        {
+            public int compare(Object o1, Object o2)
+            {
+                long t1 = ((ArchiveFileInfo)o1).getStartTime();
+                long t2 = ((ArchiveFileInfo)o2).getStartTime();
+                
+                return (t1 < t2 ? -1 : (t1 == t2 ? 0 : 1));
+            }
+        });
+        
+        return result;
+    }
+    
+    /**
+     * Runs the given query, delivering the matching data to the given 
+     * listener from the calling thread, and returns once it has all been 
+     * delivered. To run a query in the background, or to be able to cancel 
+     * it, run an ArchiveQueryRunner from another thread instead.
+     * 
+     * @param query an ArchiveQuery
+     * @param listener the listener to deliver the matching data to
+     * @return the number of BasisSets delivered
+     */
+    public int query(ArchiveQuery query, BasisSetListener listener)
+    {
+        ArchiveQueryRunner runner = 
+            new ArchiveQueryRunner(query, findFiles(query), listener);
+        
+        runner.run();
+        
+        return runner.getBasisSetCount();
+    }
+    
     /**
      * Gets the ArchiveCatalog.
      * 
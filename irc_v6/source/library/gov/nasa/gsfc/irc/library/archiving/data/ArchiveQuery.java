@@ -0,0 +1,207 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.archiving.data;
+
+/**
+ *  ArchiveQuery describes a request for the archived data of one BasisBundle 
+ *  over a range of archive times, optionally restricted to the channels 
+ *  (DataBuffers) whose names match a regular expression. Queries are run by 
+ *  {@link ArchiveCatalog#query(ArchiveQuery, gov.nasa.gsfc.irc.data.events.BasisSetListener)}.
+ *  <p>
+ *  Matching records are gathered into BasisSets of up to the batch size. By 
+ *  default they are delivered as fast as they can be read; a positive 
+ *  playback speed paces them instead, at the rate they were recorded 
+ *  multiplied by that speed.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version $Date$
+ *  @author $Author$
+ */
+
+public class ArchiveQuery
+{
+    /** The default maximum number of samples in a delivered BasisSet. */
+    public static final int DEFAULT_BATCH_SIZE = 10000;
+    
+    private String fBasisBundleName;
+    private String fChannelRegex = null;
+    private long fStartTime;
+    private long fStopTime;
+    private int fBatchSize = DEFAULT_BATCH_SIZE;
+    private double fPlaybackSpeed = 0;
+    
+    /**
+     * Constructs a query for all of the channels of the named BasisBundle 
+     * archived between the given times.
+     * 
+     * @param basisBundleName the name (or fully qualified name) of an 
+     *        archived BasisBundle
+     * @param startTime the earliest archive time, in milliseconds, inclusive
+     * @param stopTime the latest archive time, in milliseconds, inclusive
+     */
+    public ArchiveQuery(String basisBundleName, long startTime, long stopTime)
+    {
+        if (basisBundleName == null || stopTime < startTime)
+        {
+            String message = "A query needs a BasisBundle name and a stop time "
+                + "no earlier than its start time";
+            
+            throw (new IllegalArgumentException(message));
+        }
+        
+        fBasisBundleName = basisBundleName;
+        fStartTime = startTime;
+        fStopTime = stopTime;
+    }
+    
+    /**
+     * @return Returns the name of the queried BasisBundle.
+     */
+    public String getBasisBundleName()
+    {
+        return fBasisBundleName;
+    }
+    
+    /**
+     * @return Returns the channel regular expression, or null for all 
+     *         channels.
+     */
+    public String getChannelRegex()
+    {
+        return fChannelRegex;
+    }
+    
+    /**
+     * Restricts the query to the DataBuffers whose names match the given 
+     * regular expression. The basis buffer is always included.
+     * 
+     * @param channelRegex a regular expression, or null for all channels
+     */
+    public void setChannelRegex(String channelRegex)
+    {
+        fChannelRegex = channelRegex;
+    }
+    
+    /**
+     * @return Returns the earliest archive time, inclusive.
+     */
+    public long getStartTime()
+    {
+        return fStartTime;
+    }
+    
+    /**
+     * @return Returns the latest archive time, inclusive.
+     */
+    public long getStopTime()
+    {
+        return fStopTime;
+    }
+    
+    /**
+     * @return Returns the maximum number of samples in a delivered BasisSet.
+     */
+    public int getBatchSize()
+    {
+        return fBatchSize;
+    }
+    
+    /**
+     * Sets the maximum number of samples in a delivered BasisSet. A single 
+     * archived record larger than this is still delivered whole.
+     * 
+     * @param batchSize the maximum number of samples
+     */
+    public void setBatchSize(int batchSize)
+    {
+        if (batchSize <= 0)
+        {
+            String message = "The batch size must be positive";
+            
+            throw (new IllegalArgumentException(message));
+        }
+        
+        fBatchSize = batchSize;
+    }
+    
+    /**
+     * @return Returns the playback speed, or 0 if the data is delivered as 
+     *         fast as it can be read.
+     */
+    public double getPlaybackSpeed()
+    {
+        return fPlaybackSpeed;
+    }
+    
+    /**
+     * Sets the playback speed. A speed of 1 delivers the data at the rate it 
+     * was recorded, 2 at twice that rate, and so on; 0 delivers it as fast 
+     * as it can be read.
+     * 
+     * @param playbackSpeed the playback speed
+     */
+    public void setPlaybackSpeed(double playbackSpeed)
+    {
+        if (playbackSpeed < 0)
+        {
+            String message = "The playback speed cannot be negative";
+            
+            throw (new IllegalArgumentException(message));
+        }
+        
+        fPlaybackSpeed = playbackSpeed;
+    }
+    
+    /**
+     * Returns true if the given archive time range overlaps this query. A 
+     * stop time of 0 means the range is still open.
+     * 
+     * @param startTime the start of the range
+     * @param stopTime the end of the range, or 0
+     * @return true if the range overlaps this query
+     */
+    public boolean overlaps(long startTime, long stopTime)
+    {
+        return (startTime <= fStopTime 
+                && (stopTime == 0 || stopTime >= fStartTime));
+    }
+    
+    /**
+     * Returns a String representation of this query.
+     * 
+     * @return a String representation of this query
+     */
+    public String toString()
+    {
+        return ("ArchiveQuery " + fBasisBundleName 
+                + (fChannelRegex != null ? " {" + fChannelRegex + "}" : "")
+                + " [" + fStartTime + ", " + fStopTime + "]");
+    }
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
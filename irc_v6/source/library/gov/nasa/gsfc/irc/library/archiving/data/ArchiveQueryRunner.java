@@ -0,0 +1,360 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.archiving.data;
+
+import gov.nasa.gsfc.irc.data.AbstractBasisBundleSource;
+import gov.nasa.gsfc.irc.data.BasisRequest;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.DefaultBasisBundle;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+import gov.nasa.gsfc.irc.data.events.BasisSetEvent;
+import gov.nasa.gsfc.irc.data.events.BasisSetListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  ArchiveQueryRunner runs an {@link ArchiveQuery} over a list of archive 
+ *  files and delivers the matching data to a BasisSetListener. Each file is 
+ *  opened with a {@link BasisSetArchiveReader}, which seeks straight to the 
+ *  start of the query through the file's time index, so only the records in 
+ *  the queried range are ever touched, and only the queried channels of 
+ *  those records are copied. Consecutive records are gathered into 
+ *  BasisSets of up to the batch size of the query.
+ *  <p>
+ *  The BasisSets are allocated from a private BasisBundle whose structure 
+ *  is that of the archived BasisBundle, filtered to the queried channels. 
+ *  As for any BasisSetListener, the listener owns each BasisSet it receives 
+ *  and must release it when done with it, which frees its space for the 
+ *  BasisSets that follow. The first BasisSet from each file starts a new 
+ *  basis sequence.
+ *  <p>
+ *  Files in the original serialized format have no index and are skipped.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version $Date$
+ *  @author $Author$
+ */
+
+public class ArchiveQueryRunner implements Runnable
+{
+    private static final String CLASS_NAME = ArchiveQueryRunner.class.getName();
+    private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+    
+    private ArchiveQuery fQuery;
+    private List fFiles;
+    private BasisSetListener fListener;
+    
+    private DefaultBasisBundle fBasisBundle = null;
+    private int fCapacity = 0;
+    private String[] fColumnNames = null;
+    
+    private long fFirstTime = 0;
+    private long fFirstWallTime = -1;
+    private int fBasisSetCount = 0;
+    private volatile boolean fCancelled = false;
+    
+    /**
+     * Constructs a runner for the given query over the given files.
+     * 
+     * @param query the query to run
+     * @param files the ArchiveFileInfos of the files to read, in time order
+     * @param listener the listener to deliver the matching data to
+     */
+    public ArchiveQueryRunner(ArchiveQuery query, List files, 
+            BasisSetListener listener)
+    {
+        fQuery = query;
+        fFiles = files;
+        fListener = listener;
+    }
+    
+    /**
+     * Runs the query, returning once all of the matching data has been 
+     * delivered or the query has been cancelled.
+     * 
+     * @see java.lang.Runnable#run()
+     */
+    public void run()
+    {
+        for (Iterator files = fFiles.iterator(); files.hasNext() && !fCancelled;)
+        {
+            runFile((ArchiveFileInfo) files.next());
+        }
+        
+        if (sLogger.isLoggable(Level.FINE))
+        {
+            String msg = fQuery + " delivered " + fBasisSetCount + " BasisSets";
+            sLogger.logp(Level.FINE, CLASS_NAME, "run", msg);
+        }
+    }
+    
+    /**
+     * Causes a running query to stop after the BasisSet it is delivering.
+     */
+    public void cancel()
+    {
+        fCancelled = true;
+    }
+    
+    /**
+     * @return Returns the number of BasisSets delivered so far.
+     */
+    public int getBasisSetCount()
+    {
+        return fBasisSetCount;
+    }
+    
+    /**
+     * Delivers the data of the given file that matches the query.
+     * 
+     * @param fileInfo an archive file
+     */
+    private void runFile(ArchiveFileInfo fileInfo)
+    {
+        File file = new File(fileInfo.getFileName());
+        
+        if (!BasisSetArchiveFormat.isIndexedArchive(file))
+        {
+            String msg = "Skipping unindexed archive file: " + file;
+            sLogger.logp(Level.WARNING, CLASS_NAME, "runFile", msg);
+            
+            return;
+        }
+        
+        BasisSetArchiveReader reader = null;
+        
+        try
+        {
+            reader = new BasisSetArchiveReader(file);
+            
+            long stopTime = fQuery.getStopTime();
+            boolean newSequence = true;
+            
+            if (reader.seek(fQuery.getStartTime()))
+            {
+                useStructure(reader);
+            }
+            
+            while (!fCancelled && reader.hasNext() 
+                    && reader.getNextTime() <= stopTime)
+            {
+                int samples = 
+                    reader.countNextSamples(fQuery.getBatchSize(), stopTime);
+                
+                pace(reader.getNextTime());
+                
+                if (samples > fCapacity)
+                {
+                    fCapacity = samples;
+                    fBasisBundle.resize(fCapacity);
+                }
+                
+                BasisSet basisSet = fBasisBundle.allocateBasisSet(samples);
+                
+                if (basisSet == null)
+                {
+                    break;
+                }
+                
+                for (int index = 0; index < samples;)
+                {
+                    int recordSamples = reader.getNextSamples();
+                    
+                    reader.readNext(basisSet, index);
+                    index += recordSamples;
+                }
+                
+                deliver(basisSet, newSequence);
+                newSequence = false;
+            }
+        }
+        catch (IOException ioe)
+        {
+            String msg = "IOException";
+            sLogger.logp(Level.WARNING, CLASS_NAME, "runFile", msg, ioe);
+        }
+        finally
+        {
+            if (reader != null)
+            {
+                reader.close();
+            }
+        }
+    }
+    
+    /**
+     * Makes the private BasisBundle match the structure of the file being 
+     * read, filtered to the queried channels.
+     * 
+     * @param reader the reader of the file
+     */
+    private void useStructure(BasisSetArchiveReader reader)
+    {
+        String[] columnNames = reader.getColumnNames();
+        
+        if (fBasisBundle == null || !Arrays.equals(columnNames, fColumnNames))
+        {
+            BasisBundleDescriptor descriptor = 
+                filterDescriptor(reader.getDescriptor());
+            
+            if (fBasisBundle == null)
+            {
+                fCapacity = fQuery.getBatchSize();
+                fBasisBundle = new DefaultBasisBundle(descriptor, 
+                        new QuerySource(descriptor.getName()), fCapacity);
+            }
+            else
+            {
+                fBasisBundle.setDescriptor(descriptor);
+            }
+            
+            fColumnNames = columnNames;
+        }
+    }
+    
+    /**
+     * Returns the given archived descriptor filtered to the queried channels.
+     * 
+     * @param descriptor an archived descriptor
+     * @return the filtered descriptor
+     */
+    private BasisBundleDescriptor filterDescriptor(BasisBundleDescriptor descriptor)
+    {
+        BasisBundleDescriptor result = descriptor;
+        String regex = fQuery.getChannelRegex();
+        
+        if (regex != null)
+        {
+            try
+            {
+                result = descriptor.filterDescriptor2(Collections.singleton(
+                        BasisRequest.REGEX_DELIMETER_START + regex 
+                        + BasisRequest.REGEX_DELIMETER_END));
+            }
+            catch (IllegalArgumentException iae)
+            {
+                //no channel matches, so only the basis buffer is delivered
+                result = new BasisBundleDescriptor(descriptor.getName(), 
+                        descriptor.getBasisBufferDescriptor(), new HashSet());
+            }
+        }
+        
+        return (result);
+    }
+    
+    /**
+     * Waits until the data recorded at the given archive time is due, if the 
+     * query is paced.
+     * 
+     * @param time an archive time
+     */
+    private void pace(long time)
+    {
+        double speed = fQuery.getPlaybackSpeed();
+        
+        if (speed > 0)
+        {
+            long now = System.currentTimeMillis();
+            
+            if (fFirstWallTime < 0)
+            {
+                fFirstTime = time;
+                fFirstWallTime = now;
+            }
+            else
+            {
+                long due = fFirstWallTime + (long) ((time - fFirstTime) / speed);
+                
+                try
+                {
+                    if (due > now)
+                    {
+                        Thread.sleep(due - now);
+                    }
+                }
+                catch (InterruptedException ie)
+                {
+                    Thread.currentThread().interrupt();
+                    fCancelled = true;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Delivers the given BasisSet to the listener, which then owns it. The 
+     * BasisSet is released here only if the listener fails to take it.
+     * 
+     * @param basisSet a BasisSet read from the archive
+     * @param newSequence true if the BasisSet starts a new basis sequence
+     */
+    private void deliver(BasisSet basisSet, boolean newSequence)
+    {
+        basisSet.makeReadOnly();
+        
+        try
+        {
+            fListener.receiveBasisSetEvent(
+                    new BasisSetEvent(fBasisBundle, basisSet, newSequence));
+            
+            fBasisSetCount++;
+        }
+        catch (RuntimeException re)
+        {
+            basisSet.release();
+            
+            throw (re);
+        }
+    }
+    
+    /**
+     * The source of the private BasisBundle of a query.
+     */
+    private static class QuerySource extends AbstractBasisBundleSource
+    {
+        /**
+         * Constructs a new QuerySource for the named BasisBundle.
+         * 
+         * @param name the name of the queried BasisBundle
+         */
+        public QuerySource(String name)
+        {
+            super(name + " Query");
+        }
+    }
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,219 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.archiving.data;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ *  BasisSetArchiveFormat defines the layout of the indexed BasisSet archive
+ *  (.bsa) files written by {@link BasisSetArchiveWriter} and read by
+ *  {@link BasisSetArchiveReader}. All values are big-endian.
+ *  <pre>
+ *  file    := header record* index?
+ *  header  := MAGIC VERSION int:descriptorLength byte[]:descriptor
+ *             int:columnCount column*
+ *  column  := byte:typeCode int:nameLength byte[]:name (UTF-8)
+ *  record  := RECORD_MARKER int:recordLength long:time int:samples block*
+ *  block   := primitive[samples]            (primitive columns)
+ *           | int:length byte[]:serialized  (Object columns)
+ *  index   := entry* long:indexPosition int:entryCount int:recordCount
+ *             long:firstTime long:lastTime INDEX_MAGIC
+ *  entry   := long:time long:recordPosition
+ *  </pre>
+ *  The descriptor is the serialized BasisBundleDescriptor, and the first
+ *  column is always the basis buffer. The index is sparse, holding one entry
+ *  for every {@link #INDEX_INTERVAL} records, and is only written when the
+ *  file is closed; a file without one is still readable by scanning its
+ *  self-delimiting records.
+ *  <p>
+ *  Files in the original format start with the Java serialization stream
+ *  header instead of {@link #MAGIC}, which is how the two are told apart.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version $Date$
+ *  @author $Author$
+ */
+
+public final class BasisSetArchiveFormat
+{
+    /** Identifies an indexed archive file ("BSAM"). */
+    public static final int MAGIC = 0x4253414D;
+    
+    /** The version of the format written by this release. */
+    public static final int VERSION = 1;
+    
+    /** Starts every record ("BSRC"). */
+    public static final int RECORD_MARKER = 0x42535243;
+    
+    /** Ends the index footer ("BSIX"). */
+    public static final int INDEX_MAGIC = 0x42534958;
+    
+    /** Number of bytes in a record header. */
+    public static final int RECORD_HEADER_SIZE = 20;
+    
+    /** Number of bytes in an index entry. */
+    public static final int INDEX_ENTRY_SIZE = 16;
+    
+    /** Number of bytes in the fixed trailer of the index footer. */
+    public static final int INDEX_TRAILER_SIZE = 36;
+    
+    /** Number of records between consecutive index entries. */
+    public static final int INDEX_INTERVAL = 16;
+    
+    /**
+     * Not instantiable.
+     */
+    private BasisSetArchiveFormat()
+    {
+    }
+    
+    /**
+     * Returns the type code of the given DataBuffer type, using the codes 
+     * defined by {@link BasisSetFileWriteProcessor}.
+     * 
+     * @param type a DataBuffer type
+     * @return the type code of the given type
+     */
+    public static byte getTypeCode(Class type)
+    {
+        byte result = BasisSetFileWriteProcessor.OBJECT_TYPE;
+        
+        if (type == double.class)
+        {
+            result = BasisSetFileWriteProcessor.DOUBLE_TYPE;
+        }
+        else if (type == int.class)
+        {
+            result = BasisSetFileWriteProcessor.INT_TYPE;
+        }
+        else if (type == float.class)
+        {
+            result = BasisSetFileWriteProcessor.FLOAT_TYPE;
+        }
+        else if (type == short.class)
+        {
+            result = BasisSetFileWriteProcessor.SHORT_TYPE;
+        }
+        else if (type == long.class)
+        {
+            result = BasisSetFileWriteProcessor.LONG_TYPE;
+        }
+        else if (type == byte.class)
+        {
+            result = BasisSetFileWriteProcessor.BYTE_TYPE;
+        }
+        else if (type == char.class)
+        {
+            result = BasisSetFileWriteProcessor.CHAR_TYPE;
+        }
+        
+        return (result);
+    }
+    
+    /**
+     * Returns the number of bytes in each element of a column with the given 
+     * type code, or 0 if the column holds serialized Objects.
+     * 
+     * @param typeCode a type code
+     * @return the size in bytes of one element
+     */
+    public static int getElementSize(byte typeCode)
+    {
+        int result = 0;
+        
+        switch (typeCode)
+        {
+            case BasisSetFileWriteProcessor.BYTE_TYPE:
+                result = 1;
+                break;
+            case BasisSetFileWriteProcessor.CHAR_TYPE:
+            case BasisSetFileWriteProcessor.SHORT_TYPE:
+                result = 2;
+                break;
+            case BasisSetFileWriteProcessor.INT_TYPE:
+            case BasisSetFileWriteProcessor.FLOAT_TYPE:
+                result = 4;
+                break;
+            case BasisSetFileWriteProcessor.LONG_TYPE:
+            case BasisSetFileWriteProcessor.DOUBLE_TYPE:
+                result = 8;
+                break;
+            default:
+                result = 0;
+        }
+        
+        return (result);
+    }
+    
+    /**
+     * Returns true if the given file starts with {@link #MAGIC}, false if it 
+     * is in the original (serialized stream) format or cannot be read.
+     * 
+     * @param file an archive file
+     * @return true if the file is an indexed archive
+     */
+    public static boolean isIndexedArchive(File file)
+    {
+        boolean result = false;
+        DataInputStream in = null;
+        
+        try
+        {
+            if (file.length() >= 4)
+            {
+                in = new DataInputStream(new FileInputStream(file));
+                result = (in.readInt() == MAGIC);
+            }
+        }
+        catch (IOException ioe)
+        {
+            result = false;
+        }
+        finally
+        {
+            if (in != null)
+            {
+                try
+                {
+                    in.close();
+                }
+                catch (IOException ioe)
+                {
+                    // Nothing more to do
+                }
+            }
+        }
+        
+        return (result);
+    }
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
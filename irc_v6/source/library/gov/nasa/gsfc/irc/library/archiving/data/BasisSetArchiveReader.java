@@ -0,0 +1,716 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.archiving.data;
+
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.DataBuffer;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  BasisSetArchiveReader reads an indexed archive file written by 
+ *  {@link BasisSetArchiveWriter}. The file is memory mapped, so records are 
+ *  copied straight from the page cache into the DataBuffers of a BasisSet 
+ *  without passing through an intermediate stream. The reader keeps a 
+ *  cursor on the next record; {@link #seek(long)} moves it to a given time 
+ *  by a binary search of the sparse time index followed by a short scan of 
+ *  record headers.
+ *  <p>
+ *  A file too large to map at once is instead mapped in fixed-size windows, 
+ *  the current one of which is reused for as long as the records read lie 
+ *  within it, so that reading sequentially maps each part of the file once.
+ *  <p>
+ *  A file that was not closed cleanly has no index; its records are scanned 
+ *  once when the reader is opened, and a partially written last record is 
+ *  ignored.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version $Date$
+ *  @author $Author$
+ */
+
+public class BasisSetArchiveReader
+{
+    private static final String CLASS_NAME = BasisSetArchiveReader.class.getName();
+    private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+    
+    //size of the windows in which a file too large to map at once is mapped
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    
+    private File fFile;
+    private RandomAccessFile fRandomAccessFile;
+    private FileChannel fFileChannel;
+    private long fSize;
+    
+    //mapping of the whole file, or null if it is too large to map at once
+    private MappedByteBuffer fMappedFile;
+    
+    //current window of a file mapped in windows, and its position in the file
+    private int fWindowSize;
+    private MappedByteBuffer fWindow;
+    private long fWindowPosition;
+    
+    private BasisBundleDescriptor fDescriptor;
+    private String[] fColumnNames;
+    private byte[] fColumnTypes;
+    
+    private long fFirstRecordPosition;
+    private long fEndOfRecords;
+    private long[] fIndexTimes;
+    private long[] fIndexPositions;
+    private int fRecordCount;
+    private long fFirstTime;
+    private long fLastTime;
+    
+    //position of the next record
+    private long fPosition;
+    
+    /**
+     * Opens and maps the given indexed archive file.
+     * 
+     * @param file an indexed archive file
+     * @throws IOException if the file cannot be read or is not an indexed 
+     *         archive
+     */
+    public BasisSetArchiveReader(File file) throws IOException
+    {
+        this(file, Integer.MAX_VALUE, DEFAULT_WINDOW_SIZE);
+    }
+    
+    /**
+     * Opens the given indexed archive file, mapping it whole if it is no 
+     * larger than the given size and otherwise in windows of the given size.
+     * 
+     * @param file an indexed archive file
+     * @param maxMappedSize the size of the largest file to map at once
+     * @param windowSize the size of the windows in which a larger file is 
+     *        mapped
+     * @throws IOException if the file cannot be read or is not an indexed 
+     *         archive
+     */
+    BasisSetArchiveReader(File file, long maxMappedSize, int windowSize) 
+            throws IOException
+    {
+        fFile = file;
+        fWindowSize = windowSize;
+        fRandomAccessFile = new RandomAccessFile(file, "r");
+        fFileChannel = fRandomAccessFile.getChannel();
+        
+        try
+        {
+            long size = fFileChannel.size();
+            fSize = size;
+            
+            if (size <= maxMappedSize)
+            {
+                fMappedFile = fFileChannel.map(
+                        FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            
+            readHeader();
+            
+            if (!readIndex(size))
+            {
+                scanRecords(size);
+            }
+            
+            fPosition = fFirstRecordPosition;
+        }
+        catch (IOException ioe)
+        {
+            close();
+            
+            throw (ioe);
+        }
+        catch (RuntimeException re)
+        {
+            close();
+            
+            String message = "Corrupt archive file: " + file;
+            IOException ioe = new IOException(message);
+            ioe.initCause(re);
+            
+            throw (ioe);
+        }
+    }
+    
+    /**
+     * Reads the file header.
+     * 
+     * @throws IOException if the file is not an indexed archive
+     */
+    private void readHeader() throws IOException
+    {
+        ByteBuffer header = region(0, (int) Math.min(fFileChannel.size(), 12));
+        
+        if (header.remaining() < 12 
+                || header.getInt() != BasisSetArchiveFormat.MAGIC)
+        {
+            String message = "Not an indexed archive file: " + fFile;
+            
+            throw (new IOException(message));
+        }
+        
+        int version = header.getInt();
+        
+        if (version > BasisSetArchiveFormat.VERSION)
+        {
+            String message = "Unsupported archive version " + version 
+                + " in file: " + fFile;
+            
+            throw (new IOException(message));
+        }
+        
+        int descriptorLength = header.getInt();
+        byte[] descriptorBytes = new byte[descriptorLength];
+        region(12, descriptorLength).get(descriptorBytes);
+        
+        ObjectInputStream objectInputStream = new ObjectInputStream(
+                new ByteArrayInputStream(descriptorBytes));
+        
+        try
+        {
+            fDescriptor = (BasisBundleDescriptor) objectInputStream.readObject();
+        }
+        catch (ClassNotFoundException cnfe)
+        {
+            String message = "Unable to read descriptor from file: " + fFile;
+            IOException ioe = new IOException(message);
+            ioe.initCause(cnfe);
+            
+            throw (ioe);
+        }
+        
+        long position = 12 + descriptorLength;
+        int columns = region(position, 4).getInt();
+        position += 4;
+        
+        fColumnNames = new String[columns];
+        fColumnTypes = new byte[columns];
+        
+        for (int i = 0; i < columns; i++)
+        {
+            ByteBuffer column = region(position, 5);
+            fColumnTypes[i] = column.get();
+            
+            byte[] name = new byte[column.getInt()];
+            region(position + 5, name.length).get(name);
+            fColumnNames[i] = new String(name, "UTF-8");
+            
+            position += 5 + name.length;
+        }
+        
+        fFirstRecordPosition = position;
+    }
+    
+    /**
+     * Reads the time index footer, if the file has one.
+     * 
+     * @param size the size of the file
+     * @return true if the index was read, false if the file has none
+     * @throws IOException if the file cannot be read
+     */
+    private boolean readIndex(long size) throws IOException
+    {
+        boolean result = false;
+        
+        if (size - BasisSetArchiveFormat.INDEX_TRAILER_SIZE >= fFirstRecordPosition)
+        {
+            ByteBuffer trailer = region(
+                    size - BasisSetArchiveFormat.INDEX_TRAILER_SIZE, 
+                    BasisSetArchiveFormat.INDEX_TRAILER_SIZE);
+            
+            long indexPosition = trailer.getLong();
+            int entries = trailer.getInt();
+            int records = trailer.getInt();
+            long firstTime = trailer.getLong();
+            long lastTime = trailer.getLong();
+            int magic = trailer.getInt();
+            
+            if (magic == BasisSetArchiveFormat.INDEX_MAGIC && entries >= 0
+                    && indexPosition >= fFirstRecordPosition
+                    && indexPosition + (long) entries 
+                        * BasisSetArchiveFormat.INDEX_ENTRY_SIZE 
+                        + BasisSetArchiveFormat.INDEX_TRAILER_SIZE == size)
+            {
+                ByteBuffer index = region(indexPosition, 
+                        entries * BasisSetArchiveFormat.INDEX_ENTRY_SIZE);
+                
+                fIndexTimes = new long[entries];
+                fIndexPositions = new long[entries];
+                
+                for (int i = 0; i < entries; i++)
+                {
+                    fIndexTimes[i] = index.getLong();
+                    fIndexPositions[i] = index.getLong();
+                }
+                
+                fEndOfRecords = indexPosition;
+                fRecordCount = records;
+                fFirstTime = firstTime;
+                fLastTime = lastTime;
+                
+                result = true;
+            }
+        }
+        
+        return (result);
+    }
+    
+    /**
+     * Rebuilds the time index of a file that has none by scanning its record 
+     * headers.
+     * 
+     * @param size the size of the file
+     * @throws IOException if the file cannot be read
+     */
+    private void scanRecords(long size) throws IOException
+    {
+        long[] times = new long[16];
+        long[] positions = new long[16];
+        int entries = 0;
+        long position = fFirstRecordPosition;
+        
+        fRecordCount = 0;
+        
+        while (position + BasisSetArchiveFormat.RECORD_HEADER_SIZE <= size)
+        {
+            ByteBuffer header = region(position, 
+                    BasisSetArchiveFormat.RECORD_HEADER_SIZE);
+            int marker = header.getInt();
+            int length = header.getInt();
+            long time = header.getLong();
+            
+            if (marker != BasisSetArchiveFormat.RECORD_MARKER 
+                    || length < BasisSetArchiveFormat.RECORD_HEADER_SIZE 
+                    || position + length > size)
+            {
+                break;
+            }
+            
+            if (fRecordCount % BasisSetArchiveFormat.INDEX_INTERVAL == 0)
+            {
+                if (entries == times.length)
+                {
+                    long[] newTimes = new long[entries * 2];
+                    long[] newPositions = new long[entries * 2];
+                    
+                    System.arraycopy(times, 0, newTimes, 0, entries);
+                    System.arraycopy(positions, 0, newPositions, 0, entries);
+                    
+                    times = newTimes;
+                    positions = newPositions;
+                }
+                
+                times[entries] = time;
+                positions[entries] = position;
+                entries++;
+            }
+            
+            if (fRecordCount == 0)
+            {
+                fFirstTime = time;
+            }
+            
+            fLastTime = time;
+            fRecordCount++;
+            position += length;
+        }
+        
+        fIndexTimes = new long[entries];
+        fIndexPositions = new long[entries];
+        System.arraycopy(times, 0, fIndexTimes, 0, entries);
+        System.arraycopy(positions, 0, fIndexPositions, 0, entries);
+        
+        fEndOfRecords = position;
+        
+        if (sLogger.isLoggable(Level.INFO))
+        {
+            String msg = "Rebuilt index of " + fRecordCount 
+                + " records for unclosed file: " + fFile;
+            sLogger.logp(Level.INFO, CLASS_NAME, "scanRecords", msg);
+        }
+    }
+    
+    /**
+     * Returns a big-endian view of the given region of the file.
+     * 
+     * @param position the position of the region
+     * @param length the length of the region
+     * @return a buffer positioned at the start of the region
+     * @throws IOException if the region cannot be mapped
+     */
+    private ByteBuffer region(long position, int length) throws IOException
+    {
+        ByteBuffer result;
+        
+        if (fMappedFile != null)
+        {
+            result = fMappedFile.duplicate();
+            result.limit((int) position + length);
+            result.position((int) position);
+        }
+        else
+        {
+            if (fWindow == null || position < fWindowPosition 
+                    || position + length > fWindowPosition + fWindow.capacity())
+            {
+                mapWindow(position, length);
+            }
+            
+            int offset = (int) (position - fWindowPosition);
+            
+            result = fWindow.duplicate();
+            result.limit(offset + length);
+            result.position(offset);
+        }
+        
+        return (result);
+    }
+    
+    /**
+     * Maps the window of the file that contains the given region. Windows 
+     * start on a multiple of the window size, and a window is extended past 
+     * the usual size when the region crosses its end.
+     * 
+     * @param position the position of the region
+     * @param length the length of the region
+     * @throws IOException if the window cannot be mapped
+     */
+    private void mapWindow(long position, int length) throws IOException
+    {
+        long windowPosition = position - position % fWindowSize;
+        long windowLength = Math.min(
+                Math.max(fWindowSize, position + length - windowPosition), 
+                fSize - windowPosition);
+        
+        fWindow = fFileChannel.map(FileChannel.MapMode.READ_ONLY, 
+                windowPosition, windowLength);
+        fWindowPosition = windowPosition;
+    }
+    
+    /**
+     * Returns the descriptor of the archived BasisBundle.
+     * 
+     * @return the descriptor of the archived BasisBundle
+     */
+    public BasisBundleDescriptor getDescriptor()
+    {
+        return (fDescriptor);
+    }
+    
+    /**
+     * Returns the names of the archived columns, the basis buffer first.
+     * 
+     * @return the names of the archived columns
+     */
+    public String[] getColumnNames()
+    {
+        return ((String[]) fColumnNames.clone());
+    }
+    
+    /**
+     * Returns the number of records in the file.
+     * 
+     * @return the number of records in the file
+     */
+    public int getRecordCount()
+    {
+        return (fRecordCount);
+    }
+    
+    /**
+     * Returns the archive time of the first record, or 0 if there are none.
+     * 
+     * @return the archive time of the first record
+     */
+    public long getStartTime()
+    {
+        return (fFirstTime);
+    }
+    
+    /**
+     * Returns the archive time of the last record, or 0 if there are none.
+     * 
+     * @return the archive time of the last record
+     */
+    public long getStopTime()
+    {
+        return (fLastTime);
+    }
+    
+    /**
+     * Moves the cursor to the first record whose archive time is at or after 
+     * the given time.
+     * 
+     * @param time an archive time
+     * @return true if there is such a record, false if the cursor is now at 
+     *         the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    public boolean seek(long time) throws IOException
+    {
+        //find the last index entry before the given time
+        int low = 0;
+        int high = fIndexTimes.length - 1;
+        int entry = -1;
+        
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            
+            if (fIndexTimes[middle] < time)
+            {
+                entry = middle;
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        
+        fPosition = (entry < 0) ? fFirstRecordPosition : fIndexPositions[entry];
+        
+        while (hasNext() && getNextTime() < time)
+        {
+            skipNext();
+        }
+        
+        return (hasNext());
+    }
+    
+    /**
+     * Moves the cursor back to the first record.
+     */
+    public void rewind()
+    {
+        fPosition = fFirstRecordPosition;
+    }
+    
+    /**
+     * Returns true if there is a record after the cursor.
+     * 
+     * @return true if there is a record after the cursor
+     */
+    public boolean hasNext()
+    {
+        return (fPosition < fEndOfRecords);
+    }
+    
+    /**
+     * Returns the archive time of the record after the cursor.
+     * 
+     * @return the archive time of the next record
+     * @throws IOException if the file cannot be read
+     */
+    public long getNextTime() throws IOException
+    {
+        return (region(fPosition + 8, 8).getLong());
+    }
+    
+    /**
+     * Returns the number of samples in the record after the cursor.
+     * 
+     * @return the number of samples in the next record
+     * @throws IOException if the file cannot be read
+     */
+    public int getNextSamples() throws IOException
+    {
+        return (region(fPosition + 16, 4).getInt());
+    }
+    
+    /**
+     * Returns the total number of samples in the records after the cursor 
+     * that have an archive time at or before the given time and that fit, 
+     * together, within the given number of samples. The first such record is 
+     * always counted, however large it is. The cursor does not move.
+     * 
+     * @param maxSamples the maximum number of samples to count
+     * @param stopTime the latest archive time to count
+     * @return the number of samples in the counted records
+     * @throws IOException if the file cannot be read
+     */
+    public int countNextSamples(int maxSamples, long stopTime) throws IOException
+    {
+        int result = 0;
+        long position = fPosition;
+        
+        while (position < fEndOfRecords)
+        {
+            ByteBuffer header = region(position + 4, 16);
+            int length = header.getInt();
+            long time = header.getLong();
+            int samples = header.getInt();
+            
+            if (time > stopTime || (result > 0 && result + samples > maxSamples))
+            {
+                break;
+            }
+            
+            result += samples;
+            position += length;
+        }
+        
+        return (result);
+    }
+    
+    /**
+     * Moves the cursor past the next record without reading it.
+     * 
+     * @throws IOException if the file cannot be read
+     */
+    public void skipNext() throws IOException
+    {
+        fPosition += region(fPosition + 4, 4).getInt();
+    }
+    
+    /**
+     * Reads the record after the cursor into the given BasisSet, which must 
+     * have been allocated with at least {@link #getNextSamples()} samples 
+     * from a BasisBundle with the archived descriptor, and moves the cursor 
+     * past it. Archived columns that the BasisSet does not have are skipped.
+     * 
+     * @param basisSet the BasisSet to read into
+     * @throws IOException if the record cannot be read
+     */
+    public void readNext(BasisSet basisSet) throws IOException
+    {
+        readNext(basisSet, 0);
+    }
+    
+    /**
+     * Reads the record after the cursor into the given BasisSet starting at 
+     * the given index, and moves the cursor past it. This allows consecutive 
+     * records to be gathered into one larger BasisSet.
+     * 
+     * @param basisSet the BasisSet to read into
+     * @param index the index in the BasisSet of the first sample read
+     * @throws IOException if the record cannot be read
+     */
+    public void readNext(BasisSet basisSet, int index) throws IOException
+    {
+        int recordLength = region(fPosition + 4, 4).getInt();
+        ByteBuffer record = region(fPosition, recordLength);
+        record.position(record.position() + 16);
+        
+        int samples = record.getInt();
+        
+        for (int i = 0; i < fColumnNames.length; i++)
+        {
+            DataBuffer buffer = (i == 0) ? basisSet.getBasisBuffer() 
+                    : basisSet.getDataBuffer(fColumnNames[i]);
+            
+            readBlock(record, fColumnTypes[i], buffer, index, samples);
+        }
+        
+        fPosition += recordLength;
+    }
+    
+    /**
+     * Reads one column block from the given record into the given DataBuffer 
+     * and leaves the record positioned at the next block.
+     * 
+     * @param record the record being read
+     * @param type the type code of the column
+     * @param buffer the DataBuffer to read into, or null to skip the block
+     * @param index the index in the DataBuffer of the first sample read
+     * @param samples the number of samples in the record
+     * @throws IOException if an Object column cannot be read
+     */
+    private void readBlock(ByteBuffer record, byte type, DataBuffer buffer, 
+            int index, int samples) throws IOException
+    {
+        int elementSize = BasisSetArchiveFormat.getElementSize(type);
+        int length = (elementSize == 0) ? record.getInt() : samples * elementSize;
+        int end = record.position() + length;
+        
+        if (buffer != null)
+        {
+            if (elementSize != 0)
+            {
+                //the block holds elements of the type of the buffer, so they 
+                //are copied straight from the mapping into its backing array
+                buffer.put(index, record, samples);
+            }
+            else
+            {
+                byte[] bytes = new byte[length];
+                record.get(bytes);
+                
+                ObjectInputStream objectInputStream = new ObjectInputStream(
+                        new ByteArrayInputStream(bytes));
+                
+                try
+                {
+                    for (int i = 0; i < samples; i++)
+                    {
+                        buffer.put(index + i, objectInputStream.readObject());
+                    }
+                }
+                catch (ClassNotFoundException cnfe)
+                {
+                    String msg = "Class Not Found";
+                    sLogger.logp(Level.WARNING, CLASS_NAME, "readBlock", msg, cnfe);
+                }
+            }
+        }
+        
+        record.position(end);
+    }
+    
+    /**
+     * Closes the file.
+     */
+    public void close()
+    {
+        fMappedFile = null;
+        
+        try
+        {
+            fRandomAccessFile.close();
+        }
+        catch (IOException ioe)
+        {
+            String msg = "IOException";
+            sLogger.logp(Level.WARNING, CLASS_NAME, "close", msg, ioe);
+        }
+    }
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
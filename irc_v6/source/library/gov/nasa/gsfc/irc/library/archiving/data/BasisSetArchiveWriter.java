@@ -0,0 +1,380 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.archiving.data;
+
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.DataBuffer;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ *  BasisSetArchiveWriter writes BasisSets of a single BasisBundle to an 
+ *  indexed archive file laid out as described by 
+ *  {@link BasisSetArchiveFormat}. Each DataBuffer of a BasisSet is copied 
+ *  straight from its backing array into its own reusable direct buffer as 
+ *  one contiguous block, and the record header and all of the blocks are 
+ *  then handed to the FileChannel in a single gathering write. The sparse 
+ *  time index is written when the writer is closed.
+ *
+ *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ *  for the Instrument Remote Control (IRC) project.
+ *
+ *  @version $Date$
+ *  @author $Author$
+ */
+
+public class BasisSetArchiveWriter
+{
+    private RandomAccessFile fFile;
+    private FileChannel fFileChannel;
+    
+    private String[] fColumnNames;
+    private byte[] fColumnTypes;
+    
+    //record header followed by one block per column
+    private ByteBuffer[] fBlocks;
+    
+    private long[] fIndexTimes = new long[64];
+    private long[] fIndexPositions = new long[64];
+    private int fIndexSize = 0;
+    private int fRecordCount = 0;
+    private long fFirstTime = 0;
+    private long fLastTime = 0;
+    private boolean fClosed = false;
+    
+    /**
+     * Creates the given file and writes the header for BasisSets described by 
+     * the given descriptor and having the DataBuffers of the given BasisSet.
+     * 
+     * @param file the file to create
+     * @param descriptor the descriptor of the archived BasisBundle
+     * @param basisSet a BasisSet giving the order of the archived columns
+     * @throws IOException if the file cannot be created or written
+     */
+    public BasisSetArchiveWriter(File file, BasisBundleDescriptor descriptor, 
+            BasisSet basisSet) throws IOException
+    {
+        List buffers = new ArrayList();
+        buffers.add(basisSet.getBasisBuffer());
+        
+        for (Iterator i = basisSet.getDataBuffers(); i.hasNext();)
+        {
+            buffers.add(i.next());
+        }
+        
+        int columns = buffers.size();
+        fColumnNames = new String[columns];
+        fColumnTypes = new byte[columns];
+        fBlocks = new ByteBuffer[columns + 1];
+        fBlocks[0] = ByteBuffer.allocateDirect(
+                BasisSetArchiveFormat.RECORD_HEADER_SIZE);
+        
+        for (int i = 0; i < columns; i++)
+        {
+            DataBuffer buffer = (DataBuffer) buffers.get(i);
+            fColumnNames[i] = buffer.getName();
+            fColumnTypes[i] = 
+                BasisSetArchiveFormat.getTypeCode(buffer.getDataBufferType());
+        }
+        
+        fFile = new RandomAccessFile(file, "rw");
+        fFile.setLength(0);
+        fFileChannel = fFile.getChannel();
+        
+        writeHeader(descriptor);
+    }
+    
+    /**
+     * Writes the file header.
+     * 
+     * @param descriptor the descriptor of the archived BasisBundle
+     * @throws IOException if the header cannot be written
+     */
+    private void writeHeader(BasisBundleDescriptor descriptor) throws IOException
+    {
+        ByteArrayOutputStream descriptorBytes = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream = 
+            new ObjectOutputStream(descriptorBytes);
+        objectOutputStream.writeObject(descriptor);
+        objectOutputStream.close();
+        
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        
+        header.writeInt(BasisSetArchiveFormat.MAGIC);
+        header.writeInt(BasisSetArchiveFormat.VERSION);
+        header.writeInt(descriptorBytes.size());
+        descriptorBytes.writeTo(header);
+        header.writeInt(fColumnNames.length);
+        
+        for (int i = 0; i < fColumnNames.length; i++)
+        {
+            byte[] name = fColumnNames[i].getBytes("UTF-8");
+            
+            header.writeByte(fColumnTypes[i]);
+            header.writeInt(name.length);
+            header.write(name);
+        }
+        
+        header.flush();
+        writeFully(ByteBuffer.wrap(headerBytes.toByteArray()));
+    }
+    
+    /**
+     * Appends the given BasisSet to the file as one record.
+     * 
+     * @param basisSet the BasisSet to write
+     * @param time the time at which the BasisSet was archived
+     * @throws IOException if the record cannot be written
+     */
+    public void write(BasisSet basisSet, long time) throws IOException
+    {
+        int samples = basisSet.getSize();
+        int recordLength = BasisSetArchiveFormat.RECORD_HEADER_SIZE;
+        
+        for (int i = 0; i < fColumnNames.length; i++)
+        {
+            DataBuffer buffer = (i == 0) ? basisSet.getBasisBuffer() 
+                    : basisSet.getDataBuffer(fColumnNames[i]);
+            
+            fBlocks[i + 1] = fillBlock(i, buffer, samples);
+            recordLength += fBlocks[i + 1].remaining();
+        }
+        
+        long position = fFileChannel.position();
+        
+        if (fRecordCount % BasisSetArchiveFormat.INDEX_INTERVAL == 0)
+        {
+            addIndexEntry(time, position);
+        }
+        
+        ByteBuffer header = fBlocks[0];
+        header.clear();
+        header.putInt(BasisSetArchiveFormat.RECORD_MARKER);
+        header.putInt(recordLength);
+        header.putLong(time);
+        header.putInt(samples);
+        header.flip();
+        
+        long remaining = recordLength;
+        
+        while (remaining > 0)
+        {
+            remaining -= fFileChannel.write(fBlocks);
+        }
+        
+        if (fRecordCount == 0)
+        {
+            fFirstTime = time;
+        }
+        
+        fLastTime = time;
+        fRecordCount++;
+    }
+    
+    /**
+     * Copies the given DataBuffer into the reusable block of the given column 
+     * and returns the block ready to be written.
+     * 
+     * @param column the index of the column
+     * @param buffer the DataBuffer of the column, or null if the BasisSet
+     *        does not have it
+     * @param samples the number of samples in the record
+     * @return the block of the column
+     * @throws IOException if an Object column cannot be serialized
+     */
+    private ByteBuffer fillBlock(int column, DataBuffer buffer, int samples) 
+            throws IOException
+    {
+        byte type = fColumnTypes[column];
+        int elementSize = BasisSetArchiveFormat.getElementSize(type);
+        ByteBuffer result;
+        
+        if (elementSize == 0)
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            bytes.write(new byte[4]);
+            
+            ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes);
+            
+            for (int i = 0; i < samples; i++)
+            {
+                objectOutputStream.writeObject(
+                        buffer != null ? buffer.getAsObject(i) : null);
+            }
+            
+            objectOutputStream.close();
+            
+            result = ByteBuffer.wrap(bytes.toByteArray());
+            result.putInt(0, result.capacity() - 4);
+        }
+        else
+        {
+            int length = samples * elementSize;
+            result = fBlocks[column + 1];
+            
+            if (result == null || !result.isDirect() || result.capacity() < length)
+            {
+                result = ByteBuffer.allocateDirect(Math.max(length, 
+                        result != null ? result.capacity() * 2 : 0));
+            }
+            
+            result.clear();
+            result.limit(length);
+            
+            if (buffer == null)
+            {
+                while (result.hasRemaining())
+                {
+                    result.put((byte) 0);
+                }
+            }
+            else
+            {
+                buffer.get(result);
+            }
+            
+            result.position(0);
+        }
+        
+        return (result);
+    }
+    
+    /**
+     * Adds an entry to the sparse time index.
+     * 
+     * @param time the time of the record
+     * @param position the position of the record in the file
+     */
+    private void addIndexEntry(long time, long position)
+    {
+        if (fIndexSize == fIndexTimes.length)
+        {
+            long[] times = new long[fIndexSize * 2];
+            long[] positions = new long[fIndexSize * 2];
+            
+            System.arraycopy(fIndexTimes, 0, times, 0, fIndexSize);
+            System.arraycopy(fIndexPositions, 0, positions, 0, fIndexSize);
+            
+            fIndexTimes = times;
+            fIndexPositions = positions;
+        }
+        
+        fIndexTimes[fIndexSize] = time;
+        fIndexPositions[fIndexSize] = position;
+        fIndexSize++;
+    }
+    
+    /**
+     * Returns the current size of the file in bytes.
+     * 
+     * @return the current size of the file
+     * @throws IOException if the size cannot be determined
+     */
+    public long getPosition() throws IOException
+    {
+        return (fFileChannel.position());
+    }
+    
+    /**
+     * Returns the number of records written so far.
+     * 
+     * @return the number of records written
+     */
+    public int getRecordCount()
+    {
+        return (fRecordCount);
+    }
+    
+    /**
+     * Writes the time index and closes the file. Closing a writer more than 
+     * once has no further effect.
+     * 
+     * @throws IOException if the index cannot be written
+     */
+    public void close() throws IOException
+    {
+        if (!fClosed)
+        {
+            fClosed = true;
+            
+            try
+            {
+                long indexPosition = fFileChannel.position();
+                ByteBuffer index = ByteBuffer.allocate(
+                        fIndexSize * BasisSetArchiveFormat.INDEX_ENTRY_SIZE 
+                        + BasisSetArchiveFormat.INDEX_TRAILER_SIZE);
+                
+                for (int i = 0; i < fIndexSize; i++)
+                {
+                    index.putLong(fIndexTimes[i]);
+                    index.putLong(fIndexPositions[i]);
+                }
+                
+                index.putLong(indexPosition);
+                index.putInt(fIndexSize);
+                index.putInt(fRecordCount);
+                index.putLong(fFirstTime);
+                index.putLong(fLastTime);
+                index.putInt(BasisSetArchiveFormat.INDEX_MAGIC);
+                index.flip();
+                
+                writeFully(index);
+            }
+            finally
+            {
+                fFile.close();
+            }
+        }
+    }
+    
+    /**
+     * Writes all of the given buffer to the file.
+     * 
+     * @param buffer the bytes to write
+     * @throws IOException if the bytes cannot be written
+     */
+    private void writeFully(ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            fFileChannel.write(buffer);
+        }
+    }
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
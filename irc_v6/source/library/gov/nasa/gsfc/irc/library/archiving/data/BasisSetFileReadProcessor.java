@@ -50,6 +50,10 @@ import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
  *  basisSet with this information and makes it available to the interested
  *  readers. Also, it uses different threads to read sessions with
  *  different bundleIds.
+ *  
+ *  Files in the indexed format (see BasisSetArchiveFormat) are memory mapped
+ *  and read with a BasisSetArchiveReader; files in the original serialized
+ *  stream format are still read as before.
  *
  *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
  *  for the Instrument Remote Control (IRC) project.
@@ -127,7 +131,135 @@ public class BasisSetFileReadProcessor extends DefaultProcessor
             }
         }
 
+        /**
+         * Reads the given file, which may be in either the indexed or the
+         * original archive format.
+         * 
+         * @param fileName the file to read
+         */
         private void readFromFile(String fileName)
+        {
+            File file = new File(fileName);
+            
+            if (BasisSetArchiveFormat.isIndexedArchive(file))
+            {
+                readFromIndexedFile(file);
+            }
+            else
+            {
+                readFromSerializedFile(fileName);
+            }
+        }
+        
+        /**
+         * Reads a file in the indexed archive format through a memory mapped
+         * BasisSetArchiveReader.
+         * 
+         * @param file the file to read
+         */
+        private void readFromIndexedFile(File file)
+        {
+            BasisSetArchiveReader reader = null;
+            
+            fOutput = getOutput();
+            
+            try
+            {
+                reader = new BasisSetArchiveReader(file);
+                
+                openBasisBundle(reader.getDescriptor());
+                
+                while (reader.hasNext())
+                {
+                    pace(reader.getNextTime());
+                    
+                    BasisSet outputBasisSet = fOutput.allocateBasisSet(
+                            fBasisBundleId, reader.getNextSamples());
+                    
+                    reader.readNext(outputBasisSet);
+                    
+                    fOutput.makeAvailable(outputBasisSet);
+                }
+            }
+            catch (IOException ioe)
+            {
+                String msg = "IOException";
+                sLogger.logp(Level.WARNING, CLASS_NAME, "readFromIndexedFile", msg, ioe);
+            }
+            finally
+            {
+                if (reader != null)
+                {
+                    reader.close();
+                }
+            }
+        }
+        
+        /**
+         * Uses the BasisBundle already opened for the given descriptor, or 
+         * adds a new one if there is none.
+         * 
+         * @param descriptor the descriptor read from a file
+         */
+        private void openBasisBundle(BasisBundleDescriptor descriptor)
+        {
+            //If descriptor's name exists in the map then use its value as the
+            //the basisbundleId otherwise create a new one and add it to the map
+            if(fDescriptorMap.containsKey(descriptor.getFullyQualifiedName()))
+            {
+                fBasisBundleId = (BasisBundleId) 
+                    fDescriptorMap.get(descriptor.getFullyQualifiedName());                   
+                fOutput.startNewBasisSequence(fBasisBundleId);
+            }
+            else
+            {
+                fBasisBundleId = fOutput.addBasisBundle(descriptor, 5000);
+                
+                fDescriptorMap.put(descriptor.getFullyQualifiedName(), fBasisBundleId);
+            }
+        }
+        
+        /**
+         * Sleeps for the difference between the given archive time and that 
+         * of the previous chunk of data, so that data is made available at 
+         * the rate it was recorded.
+         * 
+         * @param currTime the archive time of the next chunk of data
+         */
+        private void pace(long currTime)
+        {
+            try
+            {
+                //to avoid sleeping on the first chunk of data
+                if(fPrevTime != 0 && currTime > fPrevTime)
+                {
+                    long t = currTime - fPrevTime;
+                    
+                    if (sLogger.isLoggable(Level.FINE))
+                    {
+                        String msg = "Sleeping for "+t;
+                        sLogger.logp(Level.FINE, CLASS_NAME, "pace", msg);
+                    }
+                    
+                    Thread.sleep(t);
+                }
+            }
+            catch (InterruptedException ie)
+            {
+                String msg = "Interrupted Exception";
+                sLogger.logp(Level.WARNING, CLASS_NAME, "pace", msg, ie);
+            }
+            
+            //set fPrevTime for the next chunk of data
+            fPrevTime = currTime;
+        }
+        
+        /**
+         * Reads a file in the original format, written as a serialized stream.
+         * 
+         * @param fileName the file to read
+         */
+        private void readFromSerializedFile(String fileName)
         {
             FileInputStream fileInputStream = null;
             ObjectInputStream objectInputStream = null;
@@ -147,20 +279,7 @@ public class BasisSetFileReadProcessor extends DefaultProcessor
                 //read descriptor
                 descriptor = readDescriptor(objectInputStream);
                 
-                //If descriptor's name exists in the map then use its value as the
-                //the basisbundleId otherwise create a new one and add it to the map
-                if(fDescriptorMap.containsKey(descriptor.getFullyQualifiedName()))
-                {
-                		fBasisBundleId = (BasisBundleId) 
-                    		fDescriptorMap.get(descriptor.getFullyQualifiedName());                   
-                    fOutput.startNewBasisSequence(fBasisBundleId);
-                }
-                else
-                {
-                		fBasisBundleId = fOutput.addBasisBundle(descriptor, 5000);
-                    
-                    fDescriptorMap.put(descriptor.getFullyQualifiedName(), fBasisBundleId);
-                }
+                openBasisBundle(descriptor);
                 
                 while(fileInputStream.available() > 0)
                 {
@@ -169,30 +288,7 @@ public class BasisSetFileReadProcessor extends DefaultProcessor
                     
                     currTime = metadata.getTime();
                     
-                    try
-                    {
-                        //to avoid sleeping on the first chunk of data
-                        if(fPrevTime != 0)
-                        {
-                            long t = currTime - fPrevTime;
-                            
-                            if (sLogger.isLoggable(Level.FINE))
-                            {
-                                String msg = "Sleeping for "+t;
-                                sLogger.logp(Level.FINE, CLASS_NAME, "readFromFile", msg);
-                            }
-                            
-                            Thread.sleep(currTime - fPrevTime);
-                        }
-                    }
-                    catch (InterruptedException ie)
-                    {
-                        String msg = "Interrupted Exception";
-                        sLogger.logp(Level.WARNING, CLASS_NAME, "readFromFile", msg, ie);
-                    }
-                    
-                    //set fPrevTime for the next chunk of data
-                    fPrevTime = currTime;
+                    pace(currTime);
                     
                     //read data
                     outputBasisSet = readData(objectInputStream, metadata.getSamples());
@@ -27,14 +27,10 @@ import gov.nasa.gsfc.irc.algorithms.BasisSetProcessor;
 import gov.nasa.gsfc.irc.app.Irc;
 import gov.nasa.gsfc.irc.data.BasisBundleId;
 import gov.nasa.gsfc.irc.data.BasisSet;
-import gov.nasa.gsfc.irc.data.DataBuffer;
 import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.nio.channels.FileChannel;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -45,29 +41,31 @@ import java.util.logging.Logger;
  *  BasisSetFileWriteProcessor creates BasisSetArchive (.bsa) files in user
  *  specified directory. It creates 3 maps: WritersMap, SessionMap, and TimeMap.
  *  In all these maps BasisBundleId is kept as a key. WritersMap stores
- *  ArchiveFileWriters (ObjectOutputStream and FileChannel) to write data to a
- *  file, SessionMap stores a session which contains a list of files that 
+ *  a BasisSetArchiveWriter to write data to a file, SessionMap stores a session which contains a list of files that 
  *  belong to that session, and TimeMap stores the last time basisSet was 
  *  received as values.
  *  
  *  Other implementation details:
  *  There are 3 cases for writing the data to a file:
  *  (1) If we get a basisSet with a new BasisBundleId (i.e., BasisBundleId is
- *      not in the map), then create a ArchiveFileWriters object and 
- *      store BasisBundleId and ArchiveFileWriters objects in WritersMap. Also,
+ *      not in the map), then create a BasisSetArchiveWriter object and 
+ *      store BasisBundleId and BasisSetArchiveWriter objects in WritersMap. Also,
  *      create a new ArchiveSession object and add a ArchiveFileInfo object in 
  *      it. Then, set the startTime and fileName for this ArchiveFileInfo
- *      object and write to the file using the new ArchiveFileWriters object. 
+ *      object and write to the file using the new BasisSetArchiveWriter object. 
  *  (2) If by adding more data to the current file, the file size limit exceeds
  *      then close the current file (set the stopTime for the ArchiveFileInfo
- *      using TimeMap) and create new ArchiveFileWriters object (for the new 
- *      file). Then, overwrite the old ArchiveFileWriters object in the 
+ *      using TimeMap) and create new BasisSetArchiveWriter object (for the new 
+ *      file). Then, overwrite the old BasisSetArchiveWriter object in the 
  *      WritersMap with this new one and use it to write to the new file. In 
  *      this case, retreive the current session from SessionMap and add 
  *      ArchiveFileInfo (set startTime, fileName) for this new file to it. 
- *  (3) If none of the above cases apply, then get the ArchiveFileWriters
+ *  (3) If none of the above cases apply, then get the BasisSetArchiveWriter
  *      object (corresponding to the given basisBundleId) and write to the 
  *      current file.
+ *  
+ *  Files are written in the indexed format described by 
+ *  BasisSetArchiveFormat, which BasisSetFileReadProcessor can seek by time.
  * 
  *
  *  <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
@@ -190,10 +188,6 @@ public class BasisSetFileWriteProcessor extends BasisSetProcessor
                     startFileInSession(session, fileName, time); 
                 }
                 
-                //write descriptors to the new file
-                ArchiveFileWriters w = (ArchiveFileWriters)fWritersMap.get(basisBundleId);
-                w.getObjectOutputStream().writeObject(basisSet.getDescriptor());
-                
                 //write basisSet and time to the file
                 writeToFile(basisSet, time);
             }
@@ -227,18 +221,16 @@ public class BasisSetFileWriteProcessor extends BasisSetProcessor
         }
         else if (fWritersMap.get(basisBundleId) != null)
         {
-            FileChannel tempFileChannel = 
-                ((ArchiveFileWriters)fWritersMap.get(basisBundleId)).getFileChannel();
-            long newSize = tempFileChannel.position();
+            BasisSetArchiveWriter tempWriter = 
+                (BasisSetArchiveWriter)fWritersMap.get(basisBundleId);
+            long newSize = tempWriter.getPosition();
             
             //return 2, if adding more data will exceed the limit
             //for the file size
             if (newSize > fFileSize)
             {
-                System.out.println("newSize: "+newSize);
-                System.out.println("fFileSize: "+fFileSize);
                 //close the file
-                tempFileChannel.close();
+                tempWriter.close();
                 return 2;
             }
         }
@@ -248,34 +240,27 @@ public class BasisSetFileWriteProcessor extends BasisSetProcessor
     } 
     
     /**
-     * Creates writers (ObjectOutputStream and FileChannel) for the given file
+     * Creates a writer for the given file, which also writes the file header
+     * (with the descriptor of the given basisSet).
      * 
      * @param basisSet    used to get basisBundleId which is used as a key to
-     *                    access writers for the given file
-     * @param fileName    file for which writers are created
+     *                    access the writer for the given file
+     * @param fileName    file for which the writer is created
      * @throws IOException
      */
     private void createWriters(BasisSet basisSet, String fileName) throws IOException
     {
-        FileOutputStream fileOutputStream = new FileOutputStream(new File(fileName));
-
-        //to write descriptors and metadata to the file
-        ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream);
-
-        //to write data (ByteBuffers) to the file
-        FileChannel fileChannel = fileOutputStream.getChannel();
-
-        //create an object for storing FileChannel, ObjectOutputStream 
-        ArchiveFileWriters w = new ArchiveFileWriters(fileChannel, objectOutputStream);
+        BasisSetArchiveWriter w = new BasisSetArchiveWriter(
+                new File(fileName), basisSet.getDescriptor(), basisSet);
 
         //store the above object with a unique basisBundleId
-        ArchiveFileWriters tmp = 
-            (ArchiveFileWriters)fWritersMap.put(basisSet.getBasisBundleId(), w);
+        BasisSetArchiveWriter tmp = 
+            (BasisSetArchiveWriter)fWritersMap.put(basisSet.getBasisBundleId(), w);
         
-        //close file if a new writers object replaces an old one
+        //close file if a new writer replaces an old one
         if(tmp != null)
         {
-            tmp.getFileChannel().close();
+            tmp.close();
         }
     }
     
@@ -323,113 +308,22 @@ public class BasisSetFileWriteProcessor extends BasisSetProcessor
     }       
     
     /**
-     * Writes the basisSet (metadata and data) to the file.
+     * Writes the basisSet (time, samples, and data) to the file as one record.
      * 
      * @param basisSet   contains data to be written
      */
     private void writeToFile(BasisSet basisSet, long time) throws IOException
     {
-        //get objectOutputStream to write to the file
-        ObjectOutputStream objectOutputStream = 
-            ((ArchiveFileWriters)fWritersMap.get(basisSet.getBasisBundleId()))
-            .getObjectOutputStream();
-        
-        //get basis and data buffers
-        DataBuffer basisBuffer = basisSet.getBasisBuffer();
-        BasisBundleId basisBundleId = basisSet.getBasisBundleId();
-        int samples = basisBuffer.getSize();
-        
-        BasisSetFileMetadata metadata = 
-            new BasisSetFileMetadata(samples, time, basisBundleId);
-        
-        //write metadata
-        objectOutputStream.writeObject(metadata);
+        BasisSetArchiveWriter writer = 
+            (BasisSetArchiveWriter)fWritersMap.get(basisSet.getBasisBundleId());
         
         if(sLogger.isLoggable(Level.INFO))
         {
-            String msg = "Writing Data... Samples: "+samples;
+            String msg = "Writing Data... Samples: "+basisSet.getSize();
             sLogger.logp(Level.INFO, CLASS_NAME, "writeToFile", msg);
         }
         
-        //write data
-        writeDataBuffer(objectOutputStream, basisSet.getBasisBuffer());        
-        for (Iterator buffers = basisSet.getDataBuffers(); buffers.hasNext();)
-        {
-            writeDataBuffer(objectOutputStream, (DataBuffer) buffers.next());
-        }
-
-        objectOutputStream.flush();
-    }
-
-    /**
-     * Writes the DataBuffer to the given output stream.
-     * 
-     * @param outputStream the stream to write to
-     * @param buffer the DataBuffer to write out.
-     * @throws IOException if there is an exception writing to the stream.
-     */
-    private void writeDataBuffer(
-            ObjectOutputStream outputStream, DataBuffer buffer) throws IOException
-    {
-        int size = buffer.getSize();
-        Class type = buffer.getDataBufferType();
-        
-        if (type == double.class)
-        {
-            for (int i = 0; i < size; ++i)
-            {
-                outputStream.writeDouble(buffer.getAsDouble(i));
-            }
-        }
-        else if (type == int.class)
-        {
-            for (int i = 0; i < size; ++i)
-            {
-                outputStream.writeInt(buffer.getAsInt(i));
-            }
-        }
-        else if (type == float.class)
-        {
-            for (int i = 0; i < size; ++i)
-            {
-                outputStream.writeFloat(buffer.getAsFloat(i));
-            }
-        }
-        else if (type == short.class)
-        {
-            for (int i = 0; i < size; ++i)
-            {
-                outputStream.writeShort(buffer.getAsShort(i));
-            }
-        }
-        else if (type == long.class)
-        {
-            for (int i = 0; i < size; ++i)
-            {
-                outputStream.writeLong(buffer.getAsLong(i));
-            }
-        }
-        else if(type == byte.class)
-        {
-            for (int i = 0; i < size; ++i)
-            {
-                outputStream.writeByte(buffer.getAsByte(i));
-            }
-        }
-        else if (type == char.class)
-        {
-            for (int i = 0; i < size; ++i)
-            {
-                outputStream.writeChar(buffer.getAsChar(i));
-            }
-        }
-        else    // Type must be Object or subclass
-        {
-            for (int i = 0; i < size; ++i)
-            {
-                outputStream.writeObject(buffer.getAsObject(i));
-            }
-        }
+        writer.write(basisSet, time);
     }
     
     /**
@@ -514,10 +408,11 @@ public class BasisSetFileWriteProcessor extends BasisSetProcessor
         //remove inputBasisBundleId from the map
         if(fWritersMap.containsKey(inputBasisBundleId))
         {
-            fWritersMap.remove(inputBasisBundleId);
-            
-            //close the file corresponding to inputBasisBundleId 
+            //close the file corresponding to inputBasisBundleId (this writes
+            //its index, so it must happen before the writer is removed)
             closeFile(inputBasisBundleId);
+            
+            fWritersMap.remove(inputBasisBundleId);
         }
 //        else
 //        {
@@ -548,10 +443,11 @@ public class BasisSetFileWriteProcessor extends BasisSetProcessor
         //remove inputBasisBundleId from the map
         if(fWritersMap.containsKey(inputBasisBundleId))
         {
-            fWritersMap.remove(inputBasisBundleId);
-            
-            //close the file corresponding to inputBasisBundleId 
+            //close the file corresponding to inputBasisBundleId (this writes
+            //its index, so it must happen before the writer is removed)
             closeFile(inputBasisBundleId);
+            
+            fWritersMap.remove(inputBasisBundleId);
         }
 //        else
 //        {
@@ -573,8 +469,7 @@ public class BasisSetFileWriteProcessor extends BasisSetProcessor
             {
                 endFileInSession(basisBundleId);                
                 
-                ((ArchiveFileWriters)fWritersMap.get(basisBundleId))
-                    .getFileChannel().close();
+                ((BasisSetArchiveWriter)fWritersMap.get(basisBundleId)).close();
             }
             catch (IOException ioe)
             {
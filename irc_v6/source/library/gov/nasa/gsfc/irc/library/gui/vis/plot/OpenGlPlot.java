@@ -568,22 +568,38 @@ public class OpenGlPlot implements GLEventListener, MouseListener,
             gl.glLineWidth(fLineWidth );
             gl.glBegin(GL.GL_LINE_STRIP);
 
-            int numPoints = plotData.fXCoords.length;
+            int numCoords = plotData.fXCoords.length;
             
-            for (int coord = 0; coord < numPoints; coord++)
+            // Reduce the trace to a few vertices per pixel column, adding 
+            // only the coordinates the trace has not yet been reduced over
+            PixelDecimator decimator = traceData.fDecimator;
+            
+            if (decimator == null || decimator.getNumberOfSamples() > numCoords)
+            {
+                decimator = new PixelDecimator();
+                traceData.fDecimator = decimator;
+            }
+            
+            for (int coord = decimator.getNumberOfSamples(); coord < numCoords; coord++)
+            {
+                decimator.add(plotData.fXCoords[coord], traceData.fYCoords[coord]);
+            }
+            
+            int numPoints = decimator.getNumberOfPoints();
+            float[] xPoints = decimator.getXPoints();
+            float[] yPoints = decimator.getYPoints();
+            
+            for (int point = 0; point < numPoints; point++)
             {
-                if (trace == 2  && coord == 0)
-                {
-                    System.out.println("TRACE 3 coord y(0)=" + traceData.fYCoords[coord]);
-                }
                 // We add 2 to y because in the 2d plot canvasTop = 2, canvasLeft = 2 in XyPlotRenderer
-                gl.glVertex2f(plotData.fXCoords[coord] - 2, height - traceData.fYCoords[coord] + 2);
-                if (coord == numPoints - 1 && trace == 0)
-                {
-                	fMaxX = plotData.fXCoords[coord] - 2;
-                }
+                gl.glVertex2f(xPoints[point] - 2, height - yPoints[point] + 2);
             }
             gl.glEnd();
+            
+            if (numCoords > 0 && trace == 0)
+            {
+            	fMaxX = plotData.fXCoords[numCoords - 1] - 2;
+            }
 
 
             if (fXAxisRenderer != null)
@@ -1172,6 +1188,7 @@ public class OpenGlPlot implements GLEventListener, MouseListener,
                 if (toCopy.fTraces[i] != null)
                 {
                     fTraces[i].fYCoords = (float []) toCopy.fTraces[i].fYCoords.clone();
+                    fTraces[i].fDecimator = toCopy.fTraces[i].fDecimator;
                     if (toCopy.fTraces[i].fName != null)
                     {
                         fTraces[i].fName = new String(toCopy.fTraces[i].fName);
@@ -1224,6 +1241,10 @@ public class OpenGlPlot implements GLEventListener, MouseListener,
             public Color fColor;
 
             public String fName;
+            
+            // reduced trace, kept so that it is not rebuilt with the 
+            // display lists
+            public PixelDecimator fDecimator;
         }
     }
     
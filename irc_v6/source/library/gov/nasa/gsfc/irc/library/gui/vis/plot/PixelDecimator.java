@@ -0,0 +1,294 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.gui.vis.plot;
+
+
+/**
+ * A PixelDecimator reduces a trace of points, given in drawing coordinates, 
+ * to at most four points per pixel column: the first and last points that 
+ * fall in the column and its lowest and highest points, kept in the order 
+ * they occurred. Drawn as a polyline the reduced trace touches the same 
+ * pixels as the full trace, so the cost of building and drawing a path 
+ * scales with the width of the plot rather than with the number of samples.
+ * A column holding four or fewer points is kept exactly.
+ * 
+ * <P>Points are added incrementally with {@link #add(float, float)} in the
+ * order they are to be drawn, so a decimator can be extended as new samples 
+ * arrive and kept by a renderer to be redrawn without revisiting the 
+ * samples. Reading the reduced trace does not end the column being 
+ * accumulated, so points added afterwards are reduced exactly as if the 
+ * trace had not been read. Points need not be ordered in x; a trace that 
+ * returns to a column simply starts a new group of points for it.
+ *
+ * <P>
+ * This code was developed for NASA, Goddard Space Flight Center, Code 580 for
+ * the Instrument Remote Control (IRC) project.
+ * 
+ * @version $Date$
+ * @author $Author$
+ */
+public class PixelDecimator
+{
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int EXACT_POINTS = 4;
+	
+	//  The reduced trace
+	private float[] fXPoints = new float[INITIAL_CAPACITY];
+	private float[] fYPoints = new float[INITIAL_CAPACITY];
+	private int fNumberOfPoints = 0;
+	private int fNumberOfSamples = 0;
+	
+	//  The points of the current column, written after the reduced trace 
+	//  when it is read but not yet part of it
+	private int fNumberOfPendingPoints = 0;
+	
+	//  The pixel column being accumulated
+	private int fColumn = 0;
+	private int fColumnSize = 0;
+	private float[] fColumnX = new float[EXACT_POINTS];
+	private float[] fColumnY = new float[EXACT_POINTS];
+	private float fLastX;
+	private float fLastY;
+	private float fMinX;
+	private float fMinY;
+	private int fMinOrder;
+	private float fMaxX;
+	private float fMaxY;
+	private int fMaxOrder;
+	
+	/**
+	 * Discards all of the points of this decimator so that it can be 
+	 * reused for a new trace.
+	 */
+	public void reset()
+	{
+		fNumberOfPoints = 0;
+		fNumberOfSamples = 0;
+		fNumberOfPendingPoints = 0;
+		fColumnSize = 0;
+	}
+	
+	/**
+	 * Adds the given point to the end of the trace.
+	 * 
+	 * @param x the x drawing coordinate of the point
+	 * @param y the y drawing coordinate of the point
+	 */
+	public void add(float x, float y)
+	{
+		int column = (int) Math.floor(x);
+		
+		if (fColumnSize > 0 && column != fColumn)
+		{
+			flushColumn();
+		}
+		
+		if (fColumnSize == 0)
+		{
+			fColumn = column;
+			fMinX = x;
+			fMinY = y;
+			fMinOrder = 0;
+			fMaxX = x;
+			fMaxY = y;
+			fMaxOrder = 0;
+		}
+		else if (y < fMinY)
+		{
+			fMinX = x;
+			fMinY = y;
+			fMinOrder = fColumnSize;
+		}
+		else if (y > fMaxY)
+		{
+			fMaxX = x;
+			fMaxY = y;
+			fMaxOrder = fColumnSize;
+		}
+		
+		if (fColumnSize < EXACT_POINTS)
+		{
+			fColumnX[fColumnSize] = x;
+			fColumnY[fColumnSize] = y;
+		}
+		
+		fLastX = x;
+		fLastY = y;
+		fColumnSize++;
+		fNumberOfSamples++;
+	}
+	
+	/**
+	 * Returns the number of points added to this decimator since it was 
+	 * last reset.
+	 * 
+	 * @return the number of points added
+	 */
+	public int getNumberOfSamples()
+	{
+		return (fNumberOfSamples);
+	}
+	
+	/**
+	 * Returns the number of points in the reduced trace, which are the 
+	 * first elements of {@link #getXPoints()} and {@link #getYPoints()}.
+	 * 
+	 * @return the number of points in the reduced trace
+	 */
+	public int getNumberOfPoints()
+	{
+		writePendingColumn();
+		
+		return (fNumberOfPoints + fNumberOfPendingPoints);
+	}
+	
+	/**
+	 * Returns the x drawing coordinates of the reduced trace. The array is 
+	 * owned by this decimator and is only valid until it is next changed.
+	 * 
+	 * @return the x coordinates of the reduced trace
+	 * @see #getNumberOfPoints()
+	 */
+	public float[] getXPoints()
+	{
+		writePendingColumn();
+		
+		return (fXPoints);
+	}
+	
+	/**
+	 * Returns the y drawing coordinates of the reduced trace. The array is 
+	 * owned by this decimator and is only valid until it is next changed.
+	 * 
+	 * @return the y coordinates of the reduced trace
+	 * @see #getNumberOfPoints()
+	 */
+	public float[] getYPoints()
+	{
+		writePendingColumn();
+		
+		return (fYPoints);
+	}
+	
+	/**
+	 * Writes the points kept for the current column after the end of the 
+	 * reduced trace without appending them to it, so that the column can 
+	 * still be extended.
+	 */
+	private void writePendingColumn()
+	{
+		int numberOfPoints = fNumberOfPoints;
+		int columnSize = fColumnSize;
+		
+		flushColumn();
+		
+		fNumberOfPendingPoints = fNumberOfPoints - numberOfPoints;
+		fNumberOfPoints = numberOfPoints;
+		fColumnSize = columnSize;
+	}
+	
+	/**
+	 * Appends the points kept for the current column to the reduced trace.
+	 */
+	private void flushColumn()
+	{
+		if (fColumnSize > 0)
+		{
+			if (fColumnSize <= EXACT_POINTS)
+			{
+				for (int i = 0; i < fColumnSize; i++)
+				{
+					appendPoint(fColumnX[i], fColumnY[i]);
+				}
+			}
+			else
+			{
+				int last = fColumnSize - 1;
+				
+				appendPoint(fColumnX[0], fColumnY[0]);
+				
+				if (fMinOrder < fMaxOrder)
+				{
+					appendExtreme(fMinX, fMinY, fMinOrder, last);
+					appendExtreme(fMaxX, fMaxY, fMaxOrder, last);
+				}
+				else
+				{
+					appendExtreme(fMaxX, fMaxY, fMaxOrder, last);
+					appendExtreme(fMinX, fMinY, fMinOrder, last);
+				}
+				
+				appendPoint(fLastX, fLastY);
+			}
+			
+			fColumnSize = 0;
+		}
+	}
+	
+	/**
+	 * Appends the given extreme point of the current column unless it is
+	 * also the first or last point of the column, which are appended anyway.
+	 * 
+	 * @param x the x coordinate of the extreme point
+	 * @param y the y coordinate of the extreme point
+	 * @param order the position of the point in the column
+	 * @param last the position of the last point in the column
+	 */
+	private void appendExtreme(float x, float y, int order, int last)
+	{
+		if (order != 0 && order != last)
+		{
+			appendPoint(x, y);
+		}
+	}
+	
+	/**
+	 * Appends the given point to the reduced trace, growing it if needed.
+	 * 
+	 * @param x the x coordinate of the point
+	 * @param y the y coordinate of the point
+	 */
+	private void appendPoint(float x, float y)
+	{
+		if (fNumberOfPoints == fXPoints.length)
+		{
+			float[] xPoints = new float[fNumberOfPoints * 2];
+			float[] yPoints = new float[fNumberOfPoints * 2];
+			
+			System.arraycopy(fXPoints, 0, xPoints, 0, fNumberOfPoints);
+			System.arraycopy(fYPoints, 0, yPoints, 0, fNumberOfPoints);
+			
+			fXPoints = xPoints;
+			fYPoints = yPoints;
+		}
+		
+		fXPoints[fNumberOfPoints] = x;
+		fYPoints[fNumberOfPoints] = y;
+		fNumberOfPoints++;
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
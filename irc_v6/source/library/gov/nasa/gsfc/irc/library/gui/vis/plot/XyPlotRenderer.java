@@ -45,6 +45,8 @@ import java.awt.geom.Ellipse2D;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -52,11 +54,19 @@ import java.util.StringTokenizer;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
+import javax.swing.event.ChangeEvent;
+
 
 /**
  * This class provides basic two dimensional data plotting capability.
  * This class can be used in a Decorator pattern for a parent 
  * component that delegates the actual drawing to this renderer. 
+ * Each trace is reduced by a {@link PixelDecimator} to a few points per 
+ * pixel column before its path is built. The reduced trace of a channel is 
+ * kept by name for as long as the view is unchanged, and each new DataSet 
+ * only appends the samples of the channel that are later than the last one 
+ * it holds, so a new DataSet only costs the decimation of the samples new 
+ * to it.
  * 
  * <P>
  * This code was developed for NASA, Goddard Space Flight Center, Code 580 for
@@ -86,6 +96,10 @@ public class XyPlotRenderer extends AbstractVisRenderer
 	//  Point position information, including the actual position of the
 	//  drawn point on the canvas.
 	private float fXDrawnArray[]=null;
+	
+	//  Reused copies of the x values and of the values of one trace.
+	private double fXValueArray[]=null;
+	private double fYValueArray[]=null;
 	private float fXDrawn = 0;
 	private float fYDrawn = 0;
 	private float fYDrawnLast = 0;
@@ -97,6 +111,19 @@ public class XyPlotRenderer extends AbstractVisRenderer
 
 	private boolean fStructureChanged = true;
 
+	//  Decimated traces by channel name, valid for one view, and those 
+	//  found in the DataSet being drawn, in the order they were found.
+	private HashMap fDecimatedTraces = new HashMap();
+	private ArrayList fDrawnTraces = new ArrayList();
+	private double[] fDecimatedView = null;
+	private double[] fView = new double[8];
+	
+	//  Range of the visible samples of the BasisSet being drawn, and their
+	//  basis values.
+	private int fFirstSampleIndex = 0;
+	private int fLastSampleIndex = 0;
+	private double fBasisValueArray[]=null;
+
 	// Axis info.
 	private AxisModel fXAxisModel = null;
 	private AxisModel fYAxisModel = null;
@@ -113,6 +140,13 @@ public class XyPlotRenderer extends AbstractVisRenderer
 	 */
 	private ArrayList fYAxisChannelRegularExpressions = new ArrayList();
 	
+	/**
+	 * Holds the Set of channel names last added to the channel model for each
+	 * Y axis regular expression. BasisSets of the same structure share the 
+	 * same Set, so the channels only need to be added when it changes.
+	 */
+	private HashMap fYAxisChannelSelections = new HashMap();
+	
 	private boolean fRenderHintsSet=false;
 	
 	/**
@@ -193,8 +227,6 @@ public class XyPlotRenderer extends AbstractVisRenderer
 			BasisSet basisSet)
 	{
 		int numSamplesIn = basisSet.getSize();
-		int firstSampleIndex = 0;
-		int lastSampleIndex=0;
 
 		if(!fRenderHintsSet) {
 			setRenderingHints(g2d);
@@ -204,8 +236,6 @@ public class XyPlotRenderer extends AbstractVisRenderer
 		
 		if (numSamplesIn > 0)
 		{
-			Color savedColor = g2d.getColor();
-
 			BasisBundleId bundleId = basisSet.getBasisBundleId();
 			//JComponent parent = getParent();
 			
@@ -219,29 +249,9 @@ public class XyPlotRenderer extends AbstractVisRenderer
 			//System.out.println("Basis: " + basisSet.getBasisBufferDescriptor());
 			//System.out.println("Basis2: " + basisBuffer.getName());
 			
-
-
-			double xValue = 0;
-			double oldXValue = 0;
-
 			//  Axis model info
 			final double minX = fXAxisModel.getViewMinimum();
 			final double maxX = minX + fXAxisModel.getViewExtent();
-			final double minY = fYAxisModel.getViewMinimum();
-			final double maxY = minY + fYAxisModel.getViewExtent();
-
-			AxisScale xScale = fXAxisModel.getAxisScale();
-			AxisScale yScale = fYAxisModel.getAxisScale();
-			
-			// Drawing canvas bounds information
-			final double canvasLeft = rect.getMinX();
-			final double canvasRight = rect.getMaxX();
-			final double canvasTop = rect.getMinY();
-			final double canvasBottom = rect.getMaxY();
-
-			//  Canvas width and height
-			final double canvasHeight = rect.getHeight();
-			final double canvasWidth = rect.getWidth();
 
 			//  Set dimensions of circular point.
 			fDrawnPoint.width = fPointRadius * 2;
@@ -255,158 +265,368 @@ public class XyPlotRenderer extends AbstractVisRenderer
 				return;
 			}
 			
-			// some data is available if we get here.
-			firstSampleIndex=-1;
-			lastSampleIndex=-1;
-			for(int loop=0; loop<numSamplesIn; loop++) {
-				double timePoint = xBuffer.getAsDouble(loop);
-				if( (firstSampleIndex==-1) &&
-					timePoint>=minX) {
-					firstSampleIndex=loop;
-					
-					// only bother looking at the rest of the time points if 
-					// the dataSet has more data than the graph is viewing..
-					if(xBuffer.getMaxValue()>maxX) {
-						lastSampleIndex=numSamplesIn;
-						break;
-					}
-				}
-				if( (lastSampleIndex==-1) &&
-						timePoint>maxX) {
-					lastSampleIndex=loop-1;
-					// no need to check the rest of the time points
-					break;
-				}
-			}
-			// if there wasn't a max point, just use all of the data.
-			if(lastSampleIndex==-1) {
-				lastSampleIndex=numSamplesIn;
-			}
-			
-			// if we get here then there is at least some data to plot.
-			// by default below all channels use the SAME X point over and over again
-			// the transformation should only be done ONCE..
-			if(fXDrawnArray==null || fXDrawnArray.length<numSamplesIn) {
-				fXDrawnArray=new float[numSamplesIn];
-			}
-			
-			// precalculate all of the interesting X points
-			for(int loop=firstSampleIndex;loop<lastSampleIndex;loop++) {
-				xValue = xBuffer.getAsDouble(loop);
-				double xRatio = xScale.getScaleRatio(xValue, minX, maxX-minX);
-				//  Translate and scale the point to the view coordinates.
-				// TODO should we check if the results are INF or NaN?
-				fXDrawn = (float) ((canvasWidth * xRatio) + canvasLeft);
-				fXDrawnArray[loop]=fXDrawn;
-			}
-			
-//			Object[] dataChannels = fYAxisChannels.toArray();
-//
-//			int numChannels = dataChannels.length;
-			
 			ArrayList dataBufferNames = new ArrayList(fYAxisChannels);
 			for (Iterator regexes = fYAxisChannelRegularExpressions.iterator(); regexes.hasNext();)
 			{
 				String regex = (String) regexes.next();
 				Set regexDataBufferNames = basisSet.getDataBufferNames(regex);
 				dataBufferNames.addAll(regexDataBufferNames);
-				for (Iterator bufferName = regexDataBufferNames.iterator(); bufferName
-						.hasNext();)
+				
+				if (fYAxisChannelSelections.get(regex) != regexDataBufferNames)
 				{
-					String dataBufferName = (String) bufferName.next();
-					// This checks for duplicates, so we can just keep throwing the 
-					// new data buffers in.  TODO Performance problem?
-					fChannelModel.addChannel(dataBufferName);
+					for (Iterator bufferName = regexDataBufferNames.iterator(); bufferName
+							.hasNext();)
+					{
+						String dataBufferName = (String) bufferName.next();
+						// This checks for duplicates, so we can just keep throwing the 
+						// new data buffers in.
+						fChannelModel.addChannel(dataBufferName);
+					}
+					
+					fYAxisChannelSelections.put(regex, regexDataBufferNames);
 				}
 			}
 
+			DataBuffer basisBuffer = basisSet.getBasisBuffer();
+			
+			// the X points are shared by all channels, so they are only 
+			// calculated if some channel has samples to add.
+			boolean xDrawnCalculated = false;
 			
-			// if we get here than some of the data is visible.
-//			for (int i = 0; i < numChannels; i++)
 			for (Iterator iter = dataBufferNames.iterator(); iter.hasNext();)
 			{
 				String dataBufferName = (String) iter.next();
 					
-				oldXValue = 0;
-
-//				DataBuffer dataBuffer = 
-//					basisSet.getDataBuffer((String) dataChannels[i]);
 				DataBuffer dataBuffer = 
 					basisSet.getDataBuffer(dataBufferName);
 				
 				if (dataBuffer != null)
 				{
-					ChannelRenderInfo channelInfo = 
-						(ChannelRenderInfo) fChannelModel.getRenderInfo(
-							dataBuffer.getName());
-	
-					//  Set the drawing color for the trace. Reset the path.
-					//  First point of the trace.
-					fFirstTracePoint = true;
-					g2d.setColor(channelInfo.getColor());
-					fDrawnPath.reset();
-	
-					for (int j = firstSampleIndex; j < lastSampleIndex; j++)
-					{						
-						double yValue = dataBuffer.getAsDouble(j);
-						double yRatio = yScale.getScaleRatio(yValue, minY, maxY-minY);
-						
-						//  Translate and scale the point to the view coordinates.
-						// TODO should we check if the results are INF or NaN?
-						fXDrawn = fXDrawnArray[j];
-						fYDrawn = (float) (canvasBottom - (canvasHeight * yRatio));
-
-						//  If needed, draw the point, adjusting for the size
-						//  of the point itself.
-						if (fPointsVisible)
-						{
-							fDrawnPoint.x = fXDrawn - fPointRadius;
-							fDrawnPoint.y = fYDrawn - fPointRadius;
-							g2d.fill(fDrawnPoint);
-						}
-
-						//  The first point is the starting point in the path.
-						if (fFirstTracePoint)
-						{
-							fDrawnPath.moveTo(fXDrawn, fYDrawn);
-							fFirstTracePoint = false;
-						}
-						else //  Others are just pieces of the path
-						{
-							//  For discrete traces, we need to drawn a
-							//  line aligned vertically with new point. This
-							//  creates what seem like vertical transitions
-							//  between the values.
-							if (fIsDiscrete)
-							{
-								fDrawnPath.lineTo(fXDrawn, fYDrawnLast);
-							}
-
-							//  Draw the line.
-							fDrawnPath.lineTo(fXDrawn, fYDrawn);
-						}
-
-						//  Save this in case we need it for discrete values.
-						fYDrawnLast = fYDrawn;
-	
-						oldXValue = xValue;
+					DecimatedTrace trace = getDecimatedTrace(
+						dataBuffer.getName(), basisBuffer);
+					
+					if (trace.hasSamplesAfter(basisBuffer.getMaxValue()))
+					{
+						continue;
 					}
-	
-					//  Draw the line/path, if needed.
-					if (fLinesVisible)
+					
+					if (!xDrawnCalculated)
 					{
-						//g2d.setStroke(fStrokes[i]); // TBD.
-						//g2d.setStroke(BASIC_STROKE);
-						g2d.draw(fDrawnPath);
+						calculateXDrawn(xBuffer, basisBuffer, numSamplesIn, 
+							rect);
+						xDrawnCalculated = true;
 					}
+					
+					decimateTrace(trace, dataBuffer, rect);
 				}
 			}
-
-			// Restore graphics settings
-			g2d.setColor(savedColor);
 		}		
 	}
 
+	/**
+	 * Returns the decimated trace of the named channel, marking it as drawn.
+	 * The first time the trace is found in a DataSet it is reset if the 
+	 * DataSet no longer holds the first samples it was decimated from, 
+	 * which is the case when the plotted history has been trimmed.
+	 * 
+	 * @param name the name of the channel.
+	 * @param basisBuffer the basis DataBuffer of the first visible BasisSet 
+	 * 		holding the channel.
+	 * @return the decimated trace of the channel.
+	 */
+	private DecimatedTrace getDecimatedTrace(String name, 
+			DataBuffer basisBuffer)
+	{
+		DecimatedTrace result = (DecimatedTrace) fDecimatedTraces.get(name);
+		
+		if (result == null)
+		{
+			result = new DecimatedTrace(name);
+			fDecimatedTraces.put(name, result);
+		}
+		
+		if (!result.fDrawn)
+		{
+			if (!result.hasSamplesFrom(basisBuffer.getMinValue()))
+			{
+				result.reset();
+			}
+			
+			result.fDrawn = true;
+			fDrawnTraces.add(result);
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Draws the decimated traces of the channels found in the DataSet just 
+	 * decimated.
+	 * 
+	 * @param g2d the graphics context on which to draw.
+	 */
+	private synchronized void drawTraces(Graphics2D g2d)
+	{
+		Color savedColor = g2d.getColor();
+		
+		for (Iterator traces = fDrawnTraces.iterator(); traces.hasNext();)
+		{
+			DecimatedTrace trace = (DecimatedTrace) traces.next();
+			
+			ChannelRenderInfo channelInfo = 
+				(ChannelRenderInfo) fChannelModel.getRenderInfo(trace.fName);
+			
+			//  Set the drawing color for the trace. Reset the path.
+			//  First point of the trace.
+			fFirstTracePoint = true;
+			g2d.setColor(channelInfo.getColor());
+			fDrawnPath.reset();
+			
+			PixelDecimator decimator = trace.fDecimator;
+			int numPoints = decimator.getNumberOfPoints();
+			float[] xPoints = decimator.getXPoints();
+			float[] yPoints = decimator.getYPoints();
+			
+			for (int j = 0; j < numPoints; j++)
+			{						
+				fXDrawn = xPoints[j];
+				fYDrawn = yPoints[j];
+				
+				//  If needed, draw the point, adjusting for the size
+				//  of the point itself.
+				if (fPointsVisible)
+				{
+					fDrawnPoint.x = fXDrawn - fPointRadius;
+					fDrawnPoint.y = fYDrawn - fPointRadius;
+					g2d.fill(fDrawnPoint);
+				}
+				
+				//  The first point is the starting point in the path.
+				if (fFirstTracePoint)
+				{
+					fDrawnPath.moveTo(fXDrawn, fYDrawn);
+					fFirstTracePoint = false;
+				}
+				else //  Others are just pieces of the path
+				{
+					//  For discrete traces, we need to drawn a
+					//  line aligned vertically with new point. This
+					//  creates what seem like vertical transitions
+					//  between the values.
+					if (fIsDiscrete)
+					{
+						fDrawnPath.lineTo(fXDrawn, fYDrawnLast);
+					}
+					
+					//  Draw the line.
+					fDrawnPath.lineTo(fXDrawn, fYDrawn);
+				}
+				
+				//  Save this in case we need it for discrete values.
+				fYDrawnLast = fYDrawn;
+			}
+			
+			//  Draw the line/path, if needed.
+			if (fLinesVisible)
+			{
+				//g2d.setStroke(fStrokes[i]); // TBD.
+				//g2d.setStroke(BASIC_STROKE);
+				g2d.draw(fDrawnPath);
+			}
+		}
+		
+		// Restore graphics settings
+		g2d.setColor(savedColor);
+	}
+
+	/**
+	 * Calculates the X drawing coordinates of the samples of the given 
+	 * X axis DataBuffer that are visible on the X axis, and the range of
+	 * visible samples, and copies the basis values of the visible samples. 
+	 * The coordinates are shared by all of the channels of
+	 * a BasisSet.
+	 * 
+	 * @param xBuffer the X axis DataBuffer.
+	 * @param basisBuffer the basis DataBuffer.
+	 * @param numSamplesIn the number of samples in the BasisSet.
+	 * @param rect the unclipped drawing area bounds for rendering.
+	 */
+	private void calculateXDrawn(DataBuffer xBuffer, DataBuffer basisBuffer, 
+			int numSamplesIn, Rectangle2D rect)
+	{
+		final double minX = fXAxisModel.getViewMinimum();
+		final double maxX = minX + fXAxisModel.getViewExtent();
+		final double canvasLeft = rect.getMinX();
+		final double canvasWidth = rect.getWidth();
+		
+		AxisScale xScale = fXAxisModel.getAxisScale();
+		
+		// copy the x values once with a bulk get rather than resolving
+		// each sample through the DataBuffer.
+		if(fXValueArray==null || fXValueArray.length<numSamplesIn) {
+			fXValueArray=new double[numSamplesIn];
+			fYValueArray=new double[numSamplesIn];
+			fBasisValueArray=new double[numSamplesIn];
+		}
+		
+		xBuffer.get(0, fXValueArray, 0, numSamplesIn);
+		
+		// some data is available if we get here.
+		fFirstSampleIndex=-1;
+		fLastSampleIndex=-1;
+		for(int loop=0; loop<numSamplesIn; loop++) {
+			double timePoint = fXValueArray[loop];
+			if( (fFirstSampleIndex==-1) &&
+				timePoint>=minX) {
+				fFirstSampleIndex=loop;
+				
+				// only bother looking at the rest of the time points if 
+				// the dataSet has more data than the graph is viewing..
+				if(xBuffer.getMaxValue()>maxX) {
+					fLastSampleIndex=numSamplesIn;
+					break;
+				}
+			}
+			if( (fLastSampleIndex==-1) &&
+					timePoint>maxX) {
+				fLastSampleIndex=loop-1;
+				// no need to check the rest of the time points
+				break;
+			}
+		}
+		// if there wasn't a max point, just use all of the data.
+		if(fLastSampleIndex==-1) {
+			fLastSampleIndex=numSamplesIn;
+		}
+		
+		// by default below all channels use the SAME X point over and over again
+		// the transformation should only be done ONCE..
+		if(fXDrawnArray==null || fXDrawnArray.length<numSamplesIn) {
+			fXDrawnArray=new float[numSamplesIn];
+		}
+		
+		// precalculate all of the interesting X points
+		for(int loop=fFirstSampleIndex;loop<fLastSampleIndex;loop++) {
+			double xRatio = xScale.getScaleRatio(fXValueArray[loop], minX, maxX-minX);
+			//  Translate and scale the point to the view coordinates.
+			// TODO should we check if the results are INF or NaN?
+			fXDrawnArray[loop] = (float) ((canvasWidth * xRatio) + canvasLeft);
+		}
+		
+		if (fLastSampleIndex > fFirstSampleIndex)
+		{
+			basisBuffer.get(fFirstSampleIndex, fBasisValueArray, 
+				fFirstSampleIndex, fLastSampleIndex - fFirstSampleIndex);
+		}
+	}
+	
+	/**
+	 * Translates the visible samples of the given DataBuffer that are later 
+	 * than the last sample of the given trace to drawing coordinates and 
+	 * appends them to the trace. The X points must already have been 
+	 * calculated with <code>calculateXDrawn</code>.
+	 * 
+	 * @param trace the decimated trace of the channel.
+	 * @param dataBuffer the DataBuffer of the channel to plot.
+	 * @param rect the unclipped drawing area bounds for rendering.
+	 */
+	private void decimateTrace(DecimatedTrace trace, DataBuffer dataBuffer, 
+			Rectangle2D rect)
+	{
+		final double minY = fYAxisModel.getViewMinimum();
+		final double maxY = minY + fYAxisModel.getViewExtent();
+		final double canvasBottom = rect.getMaxY();
+		final double canvasHeight = rect.getHeight();
+		
+		AxisScale yScale = fYAxisModel.getAxisScale();
+		
+		int firstSampleIndex = fFirstSampleIndex;
+		
+		while (firstSampleIndex < fLastSampleIndex && 
+			trace.hasSamplesAfter(fBasisValueArray[firstSampleIndex]))
+		{
+			firstSampleIndex++;
+		}
+		
+		if (fLastSampleIndex > firstSampleIndex)
+		{
+			dataBuffer.get(firstSampleIndex, fYValueArray, 
+				firstSampleIndex, fLastSampleIndex - firstSampleIndex);
+			
+			for (int j = firstSampleIndex; j < fLastSampleIndex; j++)
+			{
+				double yRatio = yScale.getScaleRatio(fYValueArray[j], minY, maxY-minY);
+				
+				//  Translate and scale the point to the view coordinates.
+				// TODO should we check if the results are INF or NaN?
+				trace.add(fBasisValueArray[j], fXDrawnArray[j], 
+					(float) (canvasBottom - (canvasHeight * yRatio)));
+			}
+		}
+	}
+	
+	/**
+	 * Discards the decimated traces if the view differs from the one they 
+	 * were calculated for. Otherwise the traces remain valid, since samples 
+	 * already plotted do not change, and are only extended by later ones.
+	 * 
+	 * @param rect the unclipped drawing area bounds for rendering.
+	 */
+	private synchronized void validateDecimatedTraces(Rectangle2D rect)
+	{
+		double[] view = fView;
+		
+		view[0] = rect.getX();
+		view[1] = rect.getY();
+		view[2] = rect.getWidth();
+		view[3] = rect.getHeight();
+		view[4] = fXAxisModel.getViewMinimum();
+		view[5] = fXAxisModel.getViewExtent();
+		view[6] = fYAxisModel.getViewMinimum();
+		view[7] = fYAxisModel.getViewExtent();
+		
+		if (fDecimatedView == null || !Arrays.equals(view, fDecimatedView))
+		{
+			fDecimatedTraces.clear();
+			fDecimatedView = (double[]) view.clone();
+		}
+	}
+	
+	/**
+	 * Keeps the decimated traces drawn for the DataSet just drawn and 
+	 * discards the rest.
+	 */
+	private synchronized void retainDrawnTraces()
+	{
+		fDecimatedTraces.clear();
+		
+		for (Iterator traces = fDrawnTraces.iterator(); traces.hasNext();)
+		{
+			DecimatedTrace trace = (DecimatedTrace) traces.next();
+			
+			trace.fDrawn = false;
+			fDecimatedTraces.put(trace.fName, trace);
+		}
+		
+		fDrawnTraces.clear();
+	}
+	
+	/**
+	 * Invoked when an axis model has changed its state. Discards the 
+	 * decimated traces and repaints the parent component.
+	 *
+	 * @param event  a ChangeEvent object
+	 */
+	public void stateChanged(ChangeEvent event)
+	{
+		synchronized (this)
+		{
+			fDecimatedTraces.clear();
+		}
+		
+		super.stateChanged(event);
+	}
+
 	/**
 	 * Draw the data on the given graphics context.
 	 * 
@@ -424,6 +644,8 @@ public class XyPlotRenderer extends AbstractVisRenderer
 			{
 				fStructureChanged = false;
 			}
+			
+			validateDecimatedTraces(rect);
 
 			Iterator basisSets = dataSet.getBasisSets().iterator();
 
@@ -433,6 +655,9 @@ public class XyPlotRenderer extends AbstractVisRenderer
 
 				drawBasisSet(g2d, rect, basisSet);
 			}
+			
+			drawTraces(g2d);
+			retainDrawnTraces();
 		}
 
 		return rect;
@@ -483,6 +708,7 @@ public class XyPlotRenderer extends AbstractVisRenderer
 	{
 		fYAxisChannels.clear();
 		fYAxisChannelRegularExpressions.clear();
+		fYAxisChannelSelections.clear();
 		
 		//fChannelModel.clear();
 		
@@ -572,6 +798,63 @@ public class XyPlotRenderer extends AbstractVisRenderer
 	{
 		return fPointRadius;
 	}
+	
+	/**
+	 * The decimated trace of one channel, with the basis values of the first 
+	 * and last samples added to it.
+	 */
+	private static class DecimatedTrace
+	{
+		private final String fName;
+		private final PixelDecimator fDecimator = new PixelDecimator();
+		private double fFirstBasis = 0;
+		private double fLastBasis = 0;
+		
+		//  True if the trace was found in the DataSet being drawn
+		private boolean fDrawn = false;
+		
+		DecimatedTrace(String name)
+		{
+			fName = name;
+		}
+		
+		/**
+		 * Adds the point of the sample with the given basis value.
+		 */
+		void add(double basis, float x, float y)
+		{
+			if (fDecimator.getNumberOfSamples() == 0)
+			{
+				fFirstBasis = basis;
+			}
+			
+			fLastBasis = basis;
+			fDecimator.add(x, y);
+		}
+		
+		/**
+		 * Returns true if this trace holds a sample whose basis value is at 
+		 * or after the given one.
+		 */
+		boolean hasSamplesAfter(double basis)
+		{
+			return (fDecimator.getNumberOfSamples() > 0 && fLastBasis >= basis);
+		}
+		
+		/**
+		 * Returns true if this trace is empty or its first sample is at or 
+		 * after the given basis value.
+		 */
+		boolean hasSamplesFrom(double basis)
+		{
+			return (fDecimator.getNumberOfSamples() == 0 || fFirstBasis >= basis);
+		}
+		
+		void reset()
+		{
+			fDecimator.reset();
+		}
+	}
 }
 
 //--- Development History ---------------------------------------------------
@@ -45,6 +45,7 @@ import java.awt.geom.Ellipse2D;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -114,6 +115,13 @@ public class XyzPlotRenderer extends AbstractVisRenderer
 	 */
 	private ArrayList fYAxisChannelRegularExpressions = new ArrayList();
 	
+	/**
+	 * Holds the Set of channel names last added to the channel model for each
+	 * Y axis regular expression. BasisSets of the same structure share the 
+	 * same Set, so the channels only need to be added when it changes.
+	 */
+	private HashMap fYAxisChannelSelections = new HashMap();
+	
 	private boolean fRenderHintsSet=false;
     private OpenGlPlot fXyzPlotRenderer;
 	
@@ -308,13 +316,19 @@ public class XyzPlotRenderer extends AbstractVisRenderer
 				String regex = (String) regexes.next();
 				Set regexDataBufferNames = basisSet.getDataBufferNames(regex);
 				dataBufferNames.addAll(regexDataBufferNames);
-				for (Iterator bufferName = regexDataBufferNames.iterator(); bufferName
-						.hasNext();)
+				
+				if (fYAxisChannelSelections.get(regex) != regexDataBufferNames)
 				{
-					String dataBufferName = (String) bufferName.next();
-					// This checks for duplicates, so we can just keep throwing the 
-					// new data buffers in.  TODO Performance problem?
-					fChannelModel.addChannel(dataBufferName);
+					for (Iterator bufferName = regexDataBufferNames.iterator(); bufferName
+							.hasNext();)
+					{
+						String dataBufferName = (String) bufferName.next();
+						// This checks for duplicates, so we can just keep throwing the 
+						// new data buffers in.
+						fChannelModel.addChannel(dataBufferName);
+					}
+					
+					fYAxisChannelSelections.put(regex, regexDataBufferNames);
 				}
 			}
 
@@ -529,6 +543,7 @@ public class XyzPlotRenderer extends AbstractVisRenderer
 	{
 		fYAxisChannels.clear();
 		fYAxisChannelRegularExpressions.clear();
+		fYAxisChannelSelections.clear();
 		
 		//fChannelModel.clear();
 		
@@ -21,20 +21,29 @@
 
 package gov.nasa.gsfc.irc.library.logging;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Handler;
 import java.util.logging.Level;
+import java.util.logging.LogManager;
 import java.util.logging.LogRecord;
 
 import org.jscience.physics.units.SI;
 
 import gov.nasa.gsfc.commons.types.namespaces.DefaultMemberId;
 import gov.nasa.gsfc.commons.types.namespaces.MemberId;
+import gov.nasa.gsfc.commons.types.queues.BoundedQueue;
+import gov.nasa.gsfc.commons.types.queues.MpscArrayQueue;
+import gov.nasa.gsfc.commons.types.queues.OverflowPolicy;
 import gov.nasa.gsfc.irc.app.Irc;
 import gov.nasa.gsfc.irc.data.BasisBundle;
 import gov.nasa.gsfc.irc.data.BasisBundleSource;
@@ -98,6 +107,31 @@ import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
  * <p>
  * This DataSetRequest will request Severe and Warning messages as soon as they're available and
  * custom messages in groups of 10.
+ * <p>
+ * By default each log message is published as its own single-sample Basis Set
+ * on the logging thread. Setting the following LogManager properties switches
+ * the handler to batching mode:
+ * <ul>
+ * <li> gov.nasa.gsfc.irc.library.logging.BasisBundleLogHandler.batched - true
+ * 		to stage log messages and publish them from a background thread
+ * <li> gov.nasa.gsfc.irc.library.logging.BasisBundleLogHandler.batchSize - the
+ * 		number of staged messages that triggers a flush (default 256)
+ * <li> gov.nasa.gsfc.irc.library.logging.BasisBundleLogHandler.flushInterval - 
+ * 		the longest time in milliseconds a message stays staged (default 50)
+ * <li> gov.nasa.gsfc.irc.library.logging.BasisBundleLogHandler.stagingCapacity -
+ * 		the number of messages that can be staged (default 8192)
+ * </ul>
+ * In batching mode the logging thread only adds the message to a lock-free 
+ * staging queue, and each flush publishes one multi-sample Basis Set per log 
+ * level. If the staging queue is full the message is dropped rather than 
+ * blocking the logging thread. The handler then also creates a "Statistics" 
+ * Basis Bundle with Received, Published, and Dropped long buffers holding the 
+ * running message counts, and publishes a sample to it whenever the number of
+ * dropped messages changes and when the handler is closed.
+ * <p>
+ * In either mode, log messages published after the handler is closed are
+ * dropped and counted, since its Basis Bundles have by then been removed 
+ * from the Data Space.
  * <P>
  * This code was developed for NASA, Goddard Space Flight Center, Code 580 for
  * the Instrument Remote Control (IRC) project.
@@ -108,6 +142,19 @@ import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
 public class BasisBundleLogHandler extends Handler implements BasisBundleSource
 {
 	private static final String NAME = "BasisBundleLogHandler";	
+	private static final String CLASS_NAME = 
+		BasisBundleLogHandler.class.getName();
+	
+	public static final String BATCHED_PROPERTY = CLASS_NAME + ".batched";
+	public static final String BATCH_SIZE_PROPERTY = CLASS_NAME + ".batchSize";
+	public static final String FLUSH_INTERVAL_PROPERTY = 
+		CLASS_NAME + ".flushInterval";
+	public static final String STAGING_CAPACITY_PROPERTY = 
+		CLASS_NAME + ".stagingCapacity";
+	
+	public static final int DEFAULT_BATCH_SIZE = 256;
+	public static final int DEFAULT_FLUSH_INTERVAL = 50;
+	public static final int DEFAULT_STAGING_CAPACITY = 8192;
 
 	//
 	// Define the names of the basis bundles
@@ -132,13 +179,55 @@ public class BasisBundleLogHandler extends Handler implements BasisBundleSource
 	private static final String LEVEL_INT_BUFFER_NAME = "LevelInt";		
 	private static final String MESSAGE_BUFFER_NAME = "Message";	
 	
+	private static final String STATISTICS_BASIS_BUNDLE_NAME = "Statistics";
+	private static final String RECEIVED_BUFFER_NAME = "Received";
+	private static final String PUBLISHED_BUFFER_NAME = "Published";
+	private static final String DROPPED_BUFFER_NAME = "Dropped";
+	
 	private static final int BASIS_BUNDLE_SIZE = 2000;
 	
 	private MemberId fMemberId;
 
 	private Map fLevelToBasisBundleMap;
+	
+	// Batching mode only
+	private BoundedQueue fStagingQueue;
+	private int fBatchSize;
+	private long fFlushIntervalNanos;
+	private Thread fFlusher;
+	private volatile boolean fClosed = false;
+	
+	private final Object fFlushLock = new Object();
+	private final List fBatch = new ArrayList();
+	private BasisBundle fStatisticsBasisBundle;
+	private final AtomicLong fNumReceived = new AtomicLong();
+	private final AtomicLong fNumDropped = new AtomicLong();
+	private long fNumPublished = 0;
+	private long fLastNumDropped = 0;
 		
+	/**
+	 * Constructs a handler configured by the LogManager properties.
+	 */
 	public BasisBundleLogHandler()
+	{
+		this(Boolean.valueOf(getStringProperty(BATCHED_PROPERTY)).booleanValue(),
+			getIntProperty(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE),
+			getIntProperty(FLUSH_INTERVAL_PROPERTY, DEFAULT_FLUSH_INTERVAL),
+			getIntProperty(STAGING_CAPACITY_PROPERTY, DEFAULT_STAGING_CAPACITY));
+	}
+
+	/**
+	 * Constructs a handler with the given configuration. The batch size, 
+	 * flush interval, and staging capacity are ignored unless batched.
+	 * 
+	 * @param batched True to stage log messages and publish them in batches
+	 * @param batchSize The number of staged messages that triggers a flush
+	 * @param flushInterval The longest time in milliseconds a message stays
+	 * 		staged
+	 * @param stagingCapacity The number of messages that can be staged
+	 */
+	BasisBundleLogHandler(boolean batched, int batchSize, int flushInterval, 
+		int stagingCapacity)
 	{
 		fMemberId = new DefaultMemberId(this.getName());
 		
@@ -149,8 +238,82 @@ public class BasisBundleLogHandler extends Handler implements BasisBundleSource
 			fLevelToBasisBundleMap.put(BASIS_BUNDLES_LEVELS[i], basisBundle);
 		}
 		
+		if (batched)
+		{
+			startBatching(batchSize, flushInterval, stagingCapacity);
+		}
     }
 
+	/**
+	 * Switches this handler to batching mode: creates the staging queue and
+	 * the Statistics Basis Bundle and starts the background flusher thread.
+	 */
+	private void startBatching(int batchSize, int flushInterval, 
+		int stagingCapacity)
+	{
+		fBatchSize = Math.max(1, batchSize);
+		fFlushIntervalNanos = 1000000L * Math.max(1, flushInterval);
+		
+		int capacity = Math.max(fBatchSize, stagingCapacity);
+		
+		fStagingQueue = new MpscArrayQueue(capacity);
+		fStagingQueue.setOverflowPolicy(OverflowPolicy.KEEP_EARLIEST);
+		
+		fStatisticsBasisBundle = buildStatisticsBasisBundle();
+		
+		fFlusher = new Thread(new Runnable()
+			{
+				public void run()
+				{
+					runFlusher();
+				}
+			}, NAME + " Flusher");
+		
+		fFlusher.setDaemon(true);
+		fFlusher.start();
+	}
+
+	/**
+	 * Returns the trimmed value of the given LogManager property, or null if
+	 * the property is not set.
+	 */
+	private static String getStringProperty(String name)
+	{
+		String result = LogManager.getLogManager().getProperty(name);
+		
+		if (result != null)
+		{
+			result = result.trim();
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Returns the value of the given LogManager property as an int, or the 
+	 * given default value if the property is not set or is not a number.
+	 */
+	private static int getIntProperty(String name, int defaultValue)
+	{
+		int result = defaultValue;
+		
+		String value = getStringProperty(name);
+		
+		if (value != null)
+		{
+			try
+			{
+				result = Integer.parseInt(value);
+			}
+			catch (NumberFormatException ex)
+			{
+				// Use the default
+			}
+		}
+		
+		return (result);
+	}
+
 	protected BasisBundle buildBasisBundle(String basisBundleName)
 	{
 		Set dataBufferDescriptors = new LinkedHashSet();
@@ -175,6 +338,64 @@ public class BasisBundleLogHandler extends Handler implements BasisBundleSource
 		
 		return basisBundle;
 	}
+
+	/**
+	 * Creates the Basis Bundle to which batching mode publishes its message
+	 * counts.
+	 */
+	protected BasisBundle buildStatisticsBasisBundle()
+	{
+		Set dataBufferDescriptors = new LinkedHashSet();
+		
+		dataBufferDescriptors.add(new DataBufferDescriptor(RECEIVED_BUFFER_NAME, long.class));
+		dataBufferDescriptors.add(new DataBufferDescriptor(PUBLISHED_BUFFER_NAME, long.class));
+		dataBufferDescriptors.add(new DataBufferDescriptor(DROPPED_BUFFER_NAME, long.class));
+		
+		BasisBundleDescriptor basisBundleDescriptor = 
+			new BasisBundleDescriptor
+			(STATISTICS_BASIS_BUNDLE_NAME, 
+					new DataBufferDescriptor(BASIS_BUFFER_NAME, double.class, 
+							SI.SECOND)
+							, dataBufferDescriptors);
+		
+		BasisBundle basisBundle = Irc.getBasisBundleFactory()
+		.createBasisBundle(basisBundleDescriptor, this,
+            BASIS_BUNDLE_SIZE);		
+	
+		Irc.getDataSpace().addBasisBundle(basisBundle);
+		
+		return basisBundle;
+	}
+	
+	/**
+	 * Returns the Basis Bundle that matches the given log level, or the 
+	 * "Custom" Basis Bundle if none does.
+	 */
+	BasisBundle getBasisBundle(Level level)
+	{
+		BasisBundle result = (BasisBundle) fLevelToBasisBundleMap.get(level);
+		
+		if (result == null)
+		{
+			result = (BasisBundle) fLevelToBasisBundleMap.get(sCustomLevel);			
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Writes the time, message string, level name, level int value, and raw 
+	 * LogRecord of the given record into the given sample of the given 
+	 * Basis Set.
+	 */
+	private static void putRecord(BasisSet basisSet, int index, LogRecord record)
+	{
+		basisSet.getBasisBuffer().put(index, record.getMillis() * 1000.0);
+		basisSet.getDataBuffer(0).put(index, record.getMessage());
+		basisSet.getDataBuffer(1).put(index, record.getLevel().getName());		
+		basisSet.getDataBuffer(2).put(index, record.getLevel().intValue());				
+		basisSet.getDataBuffer(3).put(index, record);		
+	}
 		
 	
 
@@ -186,36 +407,198 @@ public class BasisBundleLogHandler extends Handler implements BasisBundleSource
 //	@Override
 	public void publish(LogRecord record)
 	{
-		// 
-		// Get the basis bundle that matches the log level
-		//
+		fNumReceived.incrementAndGet();
 		
-		BasisBundle basisBundle = (BasisBundle) fLevelToBasisBundleMap.get(record.getLevel());
+		if (fClosed)
+		{
+			// The Basis Bundles are no longer in the Data Space
+			fNumDropped.incrementAndGet();
+			
+			return;
+		}
 		
-		// 
-		// Must be a custom level, so use the "Custom" basis bundle
-		//
-		if (basisBundle == null)
+		if (fStagingQueue != null)
 		{
-			basisBundle = (BasisBundle) fLevelToBasisBundleMap.get(sCustomLevel);			
+			//
+			// Never block the logging thread; count what doesn't fit
+			//
+			if (! fStagingQueue.add(record))
+			{
+				fNumDropped.incrementAndGet();
+			}
+			else if (fClosed)
+			{
+				// close() may already have made its final flush, so 
+				// publish the record here rather than strand it
+				flushStagedRecords();
+			}
+			else if (fStagingQueue.size() >= fBatchSize)
+			{
+				LockSupport.unpark(fFlusher);
+			}
+			
+			return;
 		}
 		
+		// 
+		// Get the basis bundle that matches the log level
+		//
+		
+		BasisBundle basisBundle = getBasisBundle(record.getLevel());
+		
 		// Allocate a basis set for a single log message
 		BasisSet basisSet = basisBundle.allocateBasisSet(1);
 		
-		//
-		// Write time, message string, level int value, and raw LogRecord
-		//
-		basisSet.getBasisBuffer().put(0, record.getMillis() * 1000.0);
-		basisSet.getDataBuffer(0).put(0, record.getMessage());
-		basisSet.getDataBuffer(1).put(0, record.getLevel().getName());		
-		basisSet.getDataBuffer(2).put(0, record.getLevel().intValue());				
-		basisSet.getDataBuffer(3).put(0, record);		
+		putRecord(basisSet, 0, record);
 
 		// Send it off ..
 		basisBundle.makeAvailable(basisSet);
 	}
 	
+	/**
+	 * Runs the background flusher of batching mode: flushes the staged 
+	 * records whenever a full batch is staged or the flush interval elapses,
+	 * until this handler is closed.
+	 */
+	private void runFlusher()
+	{
+		while (! fClosed)
+		{
+			long deadline = System.nanoTime() + fFlushIntervalNanos;
+			
+			while (! fClosed && fStagingQueue.size() < fBatchSize)
+			{
+				long remaining = deadline - System.nanoTime();
+				
+				if (remaining <= 0)
+				{
+					break;
+				}
+				
+				LockSupport.parkNanos(this, remaining);
+			}
+			
+			flushStagedRecords();
+		}
+	}
+	
+	/**
+	 * Publishes all staged records, one multi-sample Basis Set per log level
+	 * per batch, and then publishes the message counts if any messages have 
+	 * been dropped since they were last published.
+	 */
+	private void flushStagedRecords()
+	{
+		synchronized (fFlushLock)
+		{
+			while (fStagingQueue.drainTo(fBatch, fBatchSize) > 0)
+			{
+				publishBatch(fBatch);
+				fBatch.clear();
+			}
+			
+			if (fNumDropped.get() != fLastNumDropped)
+			{
+				publishStatistics();
+			}
+		}
+	}
+	
+	/**
+	 * Publishes the given records, grouped by the Basis Bundle of their log 
+	 * level. The order of the records within each Basis Bundle is kept.
+	 */
+	private void publishBatch(List records)
+	{
+		Map basisBundleToRecordsMap = new LinkedHashMap();
+		
+		for (Iterator iter = records.iterator(); iter.hasNext();)
+		{
+			LogRecord record = (LogRecord) iter.next();
+			BasisBundle basisBundle = getBasisBundle(record.getLevel());
+			
+			List bundleRecords = (List) basisBundleToRecordsMap.get(basisBundle);
+			
+			if (bundleRecords == null)
+			{
+				bundleRecords = new ArrayList();
+				basisBundleToRecordsMap.put(basisBundle, bundleRecords);
+			}
+			
+			bundleRecords.add(record);
+		}
+		
+		for (Iterator iter = basisBundleToRecordsMap.entrySet().iterator(); 
+			iter.hasNext();)
+		{
+			Map.Entry entry = (Map.Entry) iter.next();
+			BasisBundle basisBundle = (BasisBundle) entry.getKey();
+			List bundleRecords = (List) entry.getValue();
+			int numSamples = bundleRecords.size();
+			
+			BasisSet basisSet = basisBundle.allocateBasisSet(numSamples);
+			
+			for (int i = 0; i < numSamples; i++)
+			{
+				putRecord(basisSet, i, (LogRecord) bundleRecords.get(i));
+			}
+			
+			basisBundle.makeAvailable(basisSet);
+		}
+		
+		fNumPublished += records.size();
+	}
+	
+	/**
+	 * Publishes the current message counts to the Statistics Basis Bundle.
+	 */
+	private void publishStatistics()
+	{
+		long numDropped = fNumDropped.get();
+		
+		BasisSet basisSet = fStatisticsBasisBundle.allocateBasisSet(1);
+		
+		basisSet.getBasisBuffer().put(0, System.currentTimeMillis() * 1000.0);
+		basisSet.getDataBuffer(0).put(0, fNumReceived.get());
+		basisSet.getDataBuffer(1).put(0, fNumPublished);
+		basisSet.getDataBuffer(2).put(0, numDropped);
+		
+		fStatisticsBasisBundle.makeAvailable(basisSet);
+		
+		fLastNumDropped = numDropped;
+	}
+	
+	/**
+	 * Returns the Basis Bundle to which batching mode publishes its message
+	 * counts, or null if this handler is not in batching mode.
+	 */
+	BasisBundle getStatisticsBasisBundle()
+	{
+		return (fStatisticsBasisBundle);
+	}
+	
+	/**
+	 * Returns the number of log messages dropped because the staging queue
+	 * was full or because they were published after this handler was 
+	 * closed.
+	 * 
+	 * @return The number of dropped log messages
+	 */
+	public long getNumberOfDroppedRecords()
+	{
+		return (fNumDropped.get());
+	}
+	
+	/**
+	 * Returns true if this handler stages log messages and publishes them 
+	 * in batches from a background thread.
+	 * 
+	 * @return True if this handler is in batching mode
+	 */
+	public boolean isBatching()
+	{
+		return (fStagingQueue != null);
+	}
 
 	/* (non-Javadoc)
 	 * @see java.util.logging.Handler#flush()
@@ -223,15 +606,47 @@ public class BasisBundleLogHandler extends Handler implements BasisBundleSource
 	//	@Override
 	public void flush()
 	{
-		// Nothing to flush
+		if (fStagingQueue != null)
+		{
+			flushStagedRecords();
+		}
 	}
 	
 	/* (non-Javadoc)
 	 * @see java.util.logging.Handler#close()
 	 */
 	//	@Override
-	public void close() throws SecurityException
+	public synchronized void close() throws SecurityException
 	{
+		if (fClosed)
+		{
+			return;
+		}
+		
+		fClosed = true;
+		
+		if (fStagingQueue != null)
+		{
+			LockSupport.unpark(fFlusher);
+			
+			try
+			{
+				fFlusher.join();
+			}
+			catch (InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+			}
+			
+			synchronized (fFlushLock)
+			{
+				flushStagedRecords();
+				publishStatistics();
+			}
+			
+			Irc.getDataSpace().remove(fStatisticsBasisBundle);
+		}
+		
 		//
 		// Remove all basis bundles from the dataspace
 		//
@@ -37,10 +37,13 @@ import gov.nasa.gsfc.irc.library.ports.adapters.BasisSetSerializer.Header;
 import gov.nasa.gsfc.irc.library.ports.adapters.BasisSetSerializer.Trailer;
 
 import java.beans.PropertyVetoException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.SequenceInputStream;
 import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ScatteringByteChannel;
 import java.util.HashMap;
@@ -57,6 +60,10 @@ import java.util.logging.Logger;
  * recreates a {@link gov.nasa.gsfc.irc.data.BasisSet BasisSet} from the data.
  * The format of the data is specified by a
  * {@link gov.nasa.gsfc.irc.library.ports.adapters.BasisSetSerializer BasisSetSerializer}.
+ * Each packet is recognized by its leading magic number as either Java 
+ * serialization or the binary format of a 
+ * {@link gov.nasa.gsfc.irc.library.ports.adapters.BasisSetWireCodec BasisSetWireCodec},
+ * so no configuration is needed to receive either format.
  * <p>
  * This InputAdapter paired with a <code>BasisSetDeserializer</code> on the
  * remote sending end allows a BasisSet to be published across a Connection.
@@ -123,6 +130,8 @@ public class BasisSetDeserializer extends AbstractPipeInputAdapter
 	private InputStream fInputStream = null;
 	
 	private ObjectInputStream fObjectInputStream = null;
+	private ByteBuffer fMagic = ByteBuffer.allocate(4);
+	private BasisSetWireCodec fWireCodec = new BasisSetWireCodec();
 	private Map fDescriptorMap = new HashMap();
 	private Map fIdMap = new HashMap();
 	private int fBasisBundleSize = 5000;
@@ -191,21 +200,36 @@ public class BasisSetDeserializer extends AbstractPipeInputAdapter
 		{
 			try 
 			{
-				fObjectInputStream = new ObjectInputStream(fInputStream);				
-					
-				// Read header
-				Header header = (Header) fObjectInputStream.readUnshared();
-				//System.out.println("Received Header:" + header.fSequenceNumber + " Samples:" + header.fSamples);
+				// Both formats begin every packet with a magic number
+				fMagic.clear();
+				BasisSetWireCodec.readFully(channel, fMagic);
 				
-				if (header != null
-						&& header.fPacketType == BasisSetSerializer.DESCRIPTOR_PACKET)
+				if (fMagic.getInt(0) == BasisSetWireCodec.MAGIC)
 				{
-					readDescriptorPacket(fObjectInputStream, header);
+					readWirePacket(channel);
 				}
-				else if (header != null 
-						&& header.fPacketType == BasisSetSerializer.DATA_PACKET)
+				else
 				{
-					readBasisSetPacket(fObjectInputStream, header);
+					// Give the magic number back to the Java serialization stream
+					fObjectInputStream = new ObjectInputStream(
+						new SequenceInputStream(
+							new ByteArrayInputStream(fMagic.array()), 
+							fInputStream));
+					
+					// Read header
+					Header header = (Header) fObjectInputStream.readUnshared();
+					//System.out.println("Received Header:" + header.fSequenceNumber + " Samples:" + header.fSamples);
+				
+					if (header != null
+							&& header.fPacketType == BasisSetSerializer.DESCRIPTOR_PACKET)
+					{
+						readDescriptorPacket(fObjectInputStream, header);
+					}
+					else if (header != null 
+							&& header.fPacketType == BasisSetSerializer.DATA_PACKET)
+					{
+						readBasisSetPacket(fObjectInputStream, header);
+					}
 				}
 			} 
 			catch (ClassNotFoundException e)
@@ -323,56 +347,113 @@ public class BasisSetDeserializer extends AbstractPipeInputAdapter
 		BasisBundleDescriptor descriptor = 
 			(BasisBundleDescriptor) input.readUnshared();
 
-		String remoteBundleName = header.fBundleId.getFullyQualifiedName();
-		
 		Trailer trailer = (Trailer) input.readUnshared();
 		
 		// Verify we received a complete packet
 		if (header.fSequenceNumber == trailer.fSequenceNumber)
 		{
+			addDescriptor(header.fBundleId, descriptor);
+		}
+	}
+	
+	/**
+	 * Reads the remainder of a packet in the format of a BasisSetWireCodec, 
+	 * whose magic number has already been read, and publishes its contents.
+	 * 
+	 * @param channel the channel to read from
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	private void readWirePacket(ScatteringByteChannel channel) 
+		throws IOException, ClassNotFoundException
+	{
+		fWireCodec.readPacketAfterMagic(channel);
+		
+		int packetType = fWireCodec.getPacketType();
+		
+		if (packetType == BasisSetSerializer.DESCRIPTOR_PACKET)
+		{
+			addDescriptor(
+				fWireCodec.getBasisBundleId(), 
+				fWireCodec.getBasisBundleDescriptor());
+		}
+		else if (packetType == BasisSetSerializer.DATA_PACKET)
+		{
+			String remoteBundleName = fWireCodec.getBasisBundleName();
+			
+			// Data for a bundle whose descriptor we have not seen is skipped
+			if (fDescriptorMap.get(remoteBundleName) != null)
+			{
+	    		BasisBundleId localBundleId = 
+	    			(BasisBundleId) fIdMap.get(remoteBundleName);
+	    		BasisSet newBasisSet = fOutput.allocateBasisSet(
+	    			localBundleId, fWireCodec.getSamples());
+	    		
+	    		if (fWireCodec.decodeBasisSet(newBasisSet))
+	    		{
+	    			fOutput.makeAvailable(newBasisSet);
+	    		}
+	    		else
+	    		{
+	    			newBasisSet.release();
+	    		}
+			}
+		}
+	}
+	
+	/**
+	 * Records the given descriptor received from the remote end, and either
+	 * restructures or creates the corresponding local BasisBundle.
+	 * 
+	 * @param remoteBundleId the remote id of the BasisBundle
+	 * @param descriptor the descriptor of the BasisBundle
+	 */
+	private void addDescriptor(
+			BasisBundleId remoteBundleId, BasisBundleDescriptor descriptor)
+	{
+		String remoteBundleName = remoteBundleId.getFullyQualifiedName();
+		
+		// Save the descriptor for future use
+		fDescriptorMap.put(remoteBundleName, descriptor);
 
-			// Save the descriptor for future use
-			fDescriptorMap.put(remoteBundleName, descriptor);
-
-			// Check if we have seen this bundle Id before
-			BasisBundleId localBundleId = (BasisBundleId) fIdMap
-					.get(remoteBundleName);
+		// Check if we have seen this bundle Id before
+		BasisBundleId localBundleId = (BasisBundleId) fIdMap
+				.get(remoteBundleName);
 
-			if (localBundleId != null)
+		if (localBundleId != null)
+		{
+			// Update descriptor for BasisBundle
+			fOutput.restructureBasisBundle(localBundleId, descriptor);
+		}
+		else
+		{
+			// We have not seen this Id before so add it and save
+			// the local bundle Id for future use.
+			if (fUseRemoteSourceName )
 			{
-				// Update descriptor for BasisBundle
-				fOutput.restructureBasisBundle(localBundleId, descriptor);
+				BasisBundleSource remoteSourceProxy = 
+					new AbstractBasisBundleSource(
+						remoteBundleId.getNameQualifier()){};
+					
+				localBundleId = fOutput.addBasisBundle(
+					descriptor, remoteSourceProxy, fBasisBundleSize);
 			}
 			else
 			{
-				// We have not seen this Id before so add it and save
-				// the local bundle Id for future use.
-				if (fUseRemoteSourceName )
-				{
-					BasisBundleSource remoteSourceProxy = 
-						new AbstractBasisBundleSource(
-							header.fBundleId.getNameQualifier()){};
-						
-					localBundleId = fOutput.addBasisBundle(
-						descriptor, remoteSourceProxy, fBasisBundleSize);
-				}
-				else
-				{
-					localBundleId = 
-						fOutput.addBasisBundle(descriptor, fBasisBundleSize);
-				}
+				localBundleId = 
+					fOutput.addBasisBundle(descriptor, fBasisBundleSize);
+			}
 
-				fIdMap.put(remoteBundleName, localBundleId);
+			fIdMap.put(remoteBundleName, localBundleId);
 
-				if (sLogger.isLoggable(Level.FINER))
-				{
-					String message = 
-						"Received new BasisBundle Descriptor, RemoteId:" 
-						+ remoteBundleName + " LocalId:" + localBundleId;
-					
-					sLogger.logp(Level.FINER, CLASS_NAME, 
-						"readDescriptorPacket", message);
-				}
+			if (sLogger.isLoggable(Level.FINER))
+			{
+				String message = 
+					"Received new BasisBundle Descriptor, RemoteId:" 
+					+ remoteBundleName + " LocalId:" + localBundleId;
+				
+				sLogger.logp(Level.FINER, CLASS_NAME, 
+					"addDescriptor", message);
 			}
 		}
 	}
@@ -23,6 +23,7 @@
 package gov.nasa.gsfc.irc.library.ports.adapters;
 
 import gov.nasa.gsfc.commons.numerics.types.Amount;
+import gov.nasa.gsfc.commons.types.buffers.PooledBufferHandle;
 import gov.nasa.gsfc.irc.algorithms.DefaultInput;
 import gov.nasa.gsfc.irc.algorithms.Input;
 import gov.nasa.gsfc.irc.algorithms.InputListener;
@@ -102,6 +103,14 @@ import java.util.logging.Logger;
  *      <td>requestUnit</td><td>samples</td>
  *      <td align="left">The unit of the requested amount for each publication</td>
  *  </tr>
+ *  <tr align="center">
+ *      <td>format</td><td>java</td>
+ *      <td align="left">The format of the published data: "java" for Java 
+ *      serialization, or "wire" for the binary packets of a 
+ *      {@link BasisSetWireCodec}, which copies each primitive DataBuffer in 
+ *      bulk into pooled buffers. A BasisSetDeserializer recognizes either 
+ *      format.</td>
+ *  </tr>
  *  </table>
  *  </center>
  *
@@ -141,6 +150,10 @@ public class BasisSetSerializer extends AbstractOutputAdapter
 	public static final byte FLOAT_TYPE = 5;
 	public static final byte DOUBLE_TYPE = 6;
 	public static final byte OBJECT_TYPE = 7;
+	
+	public static final String FORMAT_KEY = "format";
+	public static final String FORMAT_JAVA = "java";
+	public static final String FORMAT_WIRE = "wire";
 
 	private Input fInput;
 	private Map fDescriptorMap = new HashMap();
@@ -149,6 +162,11 @@ public class BasisSetSerializer extends AbstractOutputAdapter
 	private Header fHeader = new Header();
 	private Trailer fTrailer = new Trailer();
 	
+	/**
+	 * The codec for the "wire" format, or null for Java serialization.
+	 */
+	private BasisSetWireCodec fWireCodec = null;
+	
 
 	/**
 	 *  Constructs a new BasisSetSerializer having a default name and managed 
@@ -272,31 +290,38 @@ public class BasisSetSerializer extends AbstractOutputAdapter
 				publishAllDescriptors();
 			}
 			
-			// Process this basis set
-		    ByteArrayOutputStream byteStream = null;
-			ByteBuffer byteBuffer = null;
+			if (fWireCodec != null)
+			{
+				publishWirePacket(basisSet, null, null);
+			}
+			else
+			{
+				// Process this basis set
+			    ByteArrayOutputStream byteStream = null;
+				ByteBuffer byteBuffer = null;
 			
-	    	byteStream = new ByteArrayOutputStream();
+		    	byteStream = new ByteArrayOutputStream();
 	    	
-			try
-			{
-				writeBasisSetPacket(byteStream, basisSet);
-				byteStream.flush();
+				try
+				{
+					writeBasisSetPacket(byteStream, basisSet);
+					byteStream.flush();
 
-				byteBuffer =  ByteBuffer.wrap(byteStream.toByteArray());
-				//System.out.println("++Writing Buffer:" + byteBuffer.remaining());
-				byteStream.close();
+					byteBuffer =  ByteBuffer.wrap(byteStream.toByteArray());
+					//System.out.println("++Writing Buffer:" + byteBuffer.remaining());
+					byteStream.close();
 				
-				fireOutputBufferEvent(new OutputBufferEvent(this, byteBuffer));
-			}
-			catch (IOException e)
-			{
-				String message = 
-					getFullyQualifiedName() + " encountered Exception";
+					fireOutputBufferEvent(new OutputBufferEvent(this, byteBuffer));
+				}
+				catch (IOException e)
+				{
+					String message = 
+						getFullyQualifiedName() + " encountered Exception";
 			
-				sLogger.logp(
-					Level.WARNING, CLASS_NAME, 
-					"processBasisSet", message, e);
+					sLogger.logp(
+						Level.WARNING, CLASS_NAME, 
+						"processBasisSet", message, e);
+				}
 			}
 		}		
 	}
@@ -318,7 +343,11 @@ public class BasisSetSerializer extends AbstractOutputAdapter
 		// Save the descriptor for future use
 		fDescriptorMap.put(inputBasisBundleId, inputDescriptor);
 		
-		if (isStarted())
+		if (isStarted() && fWireCodec != null)
+		{
+			publishWirePacket(null, inputBasisBundleId, inputDescriptor);
+		}
+		else if (isStarted())
 		{
 		    ByteArrayOutputStream byteStream = null;
 			ByteBuffer byteBuffer = null;
@@ -388,34 +417,92 @@ public class BasisSetSerializer extends AbstractOutputAdapter
 				BasisBundleDescriptor descriptor = 
 					(BasisBundleDescriptor) entry.getValue();
 				
-			    ByteArrayOutputStream byteStream = null;
-				ByteBuffer byteBuffer = null;
+				if (fWireCodec != null)
+				{
+					publishWirePacket(null, bundleId, descriptor);
+				}
+				else
+				{
+				    ByteArrayOutputStream byteStream = null;
+					ByteBuffer byteBuffer = null;
 				
-		    	byteStream = new ByteArrayOutputStream();
+			    	byteStream = new ByteArrayOutputStream();
 		    	
-				try
-				{
-					writeDescriptorPacket(byteStream, bundleId, descriptor);
-					byteStream.flush();
+					try
+					{
+						writeDescriptorPacket(byteStream, bundleId, descriptor);
+						byteStream.flush();
 	
-					byteBuffer =  ByteBuffer.wrap(byteStream.toByteArray());
-					byteStream.close();
+						byteBuffer =  ByteBuffer.wrap(byteStream.toByteArray());
+						byteStream.close();
 					
-					fireOutputBufferEvent(new OutputBufferEvent(this, byteBuffer));
-				}
-				catch (IOException e)
-				{
-					String message = 
-						getFullyQualifiedName() + " encountered Exception";
+						fireOutputBufferEvent(new OutputBufferEvent(this, byteBuffer));
+					}
+					catch (IOException e)
+					{
+						String message = 
+							getFullyQualifiedName() + " encountered Exception";
 				
-					sLogger.logp(
-						Level.WARNING, CLASS_NAME, 
-						"publishAllDescriptors", message, e);
+						sLogger.logp(
+							Level.WARNING, CLASS_NAME, 
+							"publishAllDescriptors", message, e);
+					}
 				}
 			}
 		}		
 	}	
 	
+	/**
+	 * Encodes either the given BasisSet or the given descriptor with the 
+	 * wire codec and publishes the resulting packet. The pooled buffer of the
+	 * packet is released once every listener has been notified; a listener 
+	 * that queues the event holds the buffer through its BufferHandle.
+	 * 
+	 * @param basisSet the BasisSet to publish, or null to publish a descriptor
+	 * @param basisBundleId the id of the BasisBundle of the descriptor
+	 * @param descriptor the descriptor to publish
+	 */
+	private void publishWirePacket(BasisSet basisSet, 
+			BasisBundleId basisBundleId, BasisBundleDescriptor descriptor)
+	{
+		PooledBufferHandle handle = null;
+		
+		try
+		{
+			synchronized (fWireCodec)
+			{
+				if (basisSet != null)
+				{
+					handle = fWireCodec.encodeBasisSet(basisSet);
+				}
+				else
+				{
+					handle = fWireCodec.encodeDescriptor(
+						basisBundleId, descriptor);
+				}
+			}
+			
+			fireOutputBufferEvent(
+				new OutputBufferEvent(this, handle.getByteBuffer(), handle));
+		}
+		catch (IOException e)
+		{
+			String message = 
+				getFullyQualifiedName() + " encountered Exception";
+		
+			sLogger.logp(
+				Level.WARNING, CLASS_NAME, 
+				"publishWirePacket", message, e);
+		}
+		finally
+		{
+			if (handle != null)
+			{
+				handle.release();
+			}
+		}
+	}
+	
 	/**
 	 * Causes this Adapter to (re)configure itself in accordance with 
 	 * the current Descriptor.
@@ -430,6 +517,31 @@ public class BasisSetSerializer extends AbstractOutputAdapter
 			return;
 		}
 		
+		//---Extract the data format from descriptor
+		String format = descriptor.getParameter(FORMAT_KEY);
+		
+		if (FORMAT_WIRE.equals(format))
+		{
+			if (fWireCodec == null)
+			{
+				fWireCodec = new BasisSetWireCodec();
+			}
+		}
+		else
+		{
+			if (format != null && !FORMAT_JAVA.equals(format))
+			{
+				String message = 
+					"Attempt to build Adapter with invalid format " + format;
+
+				sLogger.logp(
+						Level.WARNING, CLASS_NAME, 
+						"configureFromDescriptor", message);
+			}
+			
+			fWireCodec = null;
+		}
+		
 		// Build request
 		Amount basisRequestAmount = new Amount();
 		basisRequestAmount.setAmount(1.0);
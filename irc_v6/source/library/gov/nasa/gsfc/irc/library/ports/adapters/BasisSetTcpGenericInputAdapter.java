@@ -92,7 +92,7 @@ import java.util.logging.Logger;
  *               &lt;Parameter name=&quot;useRemoteBundleNames&quot; value=&quot;true&quot; /&gt;          
  *               
  *               &lt;DataSetRequest&gt;
- *                  &lt;Format&gt;xdr&lt;/Format&gt;  &lt;!-- &quot;xdr&quot; or &quot;java&quot; --&gt;
+ *                  &lt;Format&gt;xdr&lt;/Format&gt;  &lt;!-- &quot;xdr&quot;, &quot;java&quot; or &quot;wire&quot; --&gt;
  *                  &lt;BasisBundleRequest&gt;
  *                         &lt;BasisBundleName&gt;
  *                               SensorData.MarkIII
@@ -192,6 +192,11 @@ public class BasisSetTcpGenericInputAdapter extends AbstractPortAdapter
 				name = "BasisSetTcpGenericInputAdapter (XDR)";
 				fDecoder = new BasisSetTcpXdrInputAdapter(inputAdapterDescriptor);
 			}
+			else if (BasisSetTcpGenericOutputAdapter.DataSetRequest.FORMAT_WIRE.equals(dataSetRequest.getFormat()))
+			{
+				name = "BasisSetTcpGenericInputAdapter (Wire)";
+				fDecoder = new BasisSetTcpWireInputAdapter(inputAdapterDescriptor);
+			}
 			else
 			{
 				sLogger.warning("InputAdapterDescriptor - Invalid data set request format: "
@@ -31,6 +31,7 @@ import gov.nasa.gsfc.irc.data.BasisRequest;
 import gov.nasa.gsfc.irc.data.DefaultBasisBundleIdFactory;
 import gov.nasa.gsfc.irc.library.ports.adapters.encoders.tcp.basisset.BasisSetTcpEncoder;
 import gov.nasa.gsfc.irc.library.ports.adapters.encoders.tcp.basisset.JavaSerializationTcpEncoder;
+import gov.nasa.gsfc.irc.library.ports.adapters.encoders.tcp.basisset.WireTcpEncoder;
 import gov.nasa.gsfc.irc.library.ports.adapters.encoders.tcp.basisset.XdrTcpEncoder;
 
 import java.io.ByteArrayInputStream;
@@ -57,10 +58,10 @@ import org.jdom.Text;
  * from the client. After making the initial socket connection, the client sends
  * a DataSetRequest XML document (preceeded by an integer specifying the
  * document size in bytes). The DataSetRequest contains one or more BasisSet
- * requests and a format for the data (XDR or Java serialization). This class
- * will create and add BasisRequests to the dataspace and allocate, depending on
- * the format, either an XdrTcpEncoder or JavaSerializationTcpEncoder to perform
- * the data encoding. Any errors in the request will be sent back to the client
+ * requests and a format for the data (XDR, Java serialization or the bulk
+ * binary wire format). This class will create and add BasisRequests to the
+ * dataspace and allocate, depending on the format, an XdrTcpEncoder,
+ * JavaSerializationTcpEncoder or WireTcpEncoder to perform the data encoding. Any errors in the request will be sent back to the client
  * in the Header (message part). The DataSetRequest is immutable. To create a new request,
  * an new socket connection and request must be made.
  * <p>
@@ -243,6 +244,10 @@ public class BasisSetTcpGenericOutputAdapter extends AbstractBasisSetTcpOutputAd
 			{
 				encoder = new JavaSerializationTcpEncoder(this, socket, keepMode, capacity, bufferSizeBytes, errorMesgB.length() > 0 ? errorMesgB.toString() : null, inputs);
 			}
+			else if (dataSetRequest.getFormat().equals(DataSetRequest.FORMAT_WIRE))
+			{
+				encoder = new WireTcpEncoder(this, socket, keepMode, capacity, bufferSizeBytes, errorMesgB.length() > 0 ? errorMesgB.toString() : null, inputs);
+			}
 		}
 		
 		return encoder;
@@ -412,6 +417,7 @@ public class BasisSetTcpGenericOutputAdapter extends AbstractBasisSetTcpOutputAd
 		// Can't use 1.5 enums yet ...
 		public final static String FORMAT_XDR = "xdr";
 		public final static String FORMAT_JAVA = "java";		
+		public final static String FORMAT_WIRE = "wire";
 		private final String fFormat;
 		
 		private final List fBasisBundleRequests;
@@ -0,0 +1,282 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.ports.adapters;
+
+import gov.nasa.gsfc.irc.algorithms.DefaultOutput;
+import gov.nasa.gsfc.irc.data.AbstractBasisBundleSource;
+import gov.nasa.gsfc.irc.data.BasisBundleId;
+import gov.nasa.gsfc.irc.data.BasisBundleSource;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+import gov.nasa.gsfc.irc.devices.ports.adapters.InputAdapterDescriptor;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * A BasisSetTcpWireInputAdapter manages a TCP/IP socket and recreates a
+ * {@link gov.nasa.gsfc.irc.data.BasisSet BasisSet} from packets in the bulk 
+ * binary format of 
+ * {@link gov.nasa.gsfc.irc.library.ports.adapters.BasisSetWireCodec BasisSetWireCodec}
+ * received over the socket. It is allocated by a
+ * {@link gov.nasa.gsfc.irc.library.ports.adapters.BasisSetTcpGenericInputAdapter BasisSetTcpGenericInputAdapter}
+ * whose DataSetRequest has the "wire" format. Each packet is read into a 
+ * reused buffer and copied with bulk transfers straight into the DataBuffers
+ * of a newly allocated BasisSet.
+ * <P>
+ * The configuration parameters of this adapter are the same as those of the
+ * {@link gov.nasa.gsfc.irc.library.ports.adapters.BasisSetTcpJavaSerializationInputAdapter BasisSetTcpJavaSerializationInputAdapter}.
+ * <P>
+ * This code was developed for NASA, Goddard Space Flight Center, Code 580 for
+ * the Instrument Remote Control (IRC) project.
+ * 
+ * @version $Date$
+ * @author $Author$
+ */
+public class BasisSetTcpWireInputAdapter extends AbstractBasisSetTcpInputAdapter
+{
+	static final String CLASS_NAME = BasisSetTcpWireInputAdapter.class.getName();
+	static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+	
+	public static final String DEFAULT_NAME = "BasisSet TCP Wire Decoder";
+
+	private BasisSetWireCodec fWireCodec = new BasisSetWireCodec();
+	private Map fIdMap = new HashMap();
+	
+	/**
+	 * Constructs a new BasisSetTcpWireInputAdapter having a default name and 
+	 * managed by the default ComponentManager.
+	 *
+	 */
+	public BasisSetTcpWireInputAdapter()
+	{
+		super(DEFAULT_NAME);	
+
+		fOutput = new DefaultOutput(getFullyQualifiedName());
+	}
+
+
+	/**
+	 * Constructs a new BasisSetTcpWireInputAdapter having the given name and 
+	 * managed by the default ComponentManager.
+	 *
+	 */
+	public BasisSetTcpWireInputAdapter(String name)
+	{
+		super(name);	
+
+		fOutput = new DefaultOutput(getFullyQualifiedName());
+	}
+
+
+	/**
+	 *	Constructs a new BasisSetTcpWireInputAdapter configured according to 
+	 *  the given InputAdapterDescriptor.
+	 *
+	 *  @param descriptor The InputAdapterDescriptor of the new 
+	 *  		BasisSetTcpWireInputAdapter
+	 */
+	public BasisSetTcpWireInputAdapter(InputAdapterDescriptor descriptor)
+	{
+		super(descriptor);
+		
+		fOutput = new DefaultOutput(getFullyQualifiedName());
+
+		configureFromDescriptor(descriptor);
+	}
+
+
+	/**
+	 * Adds or restructures the local BasisBundle of the descriptor packet 
+	 * last read by the codec.
+	 */
+	private void readDescriptorPacket()
+	{
+		BasisBundleId remoteBundleId = fWireCodec.getBasisBundleId();
+		BasisBundleDescriptor descriptor = fWireCodec.getBasisBundleDescriptor();
+		String remoteBundleName = remoteBundleId.getFullyQualifiedName();
+
+		// Check if we have seen this bundle Id before
+		BasisBundleId localBundleId = 
+			(BasisBundleId) fIdMap.get(remoteBundleName);
+
+		if (localBundleId != null)
+		{
+			// Update descriptor for BasisBundle
+			fOutput.restructureBasisBundle(localBundleId, descriptor);
+		}
+		else
+		{
+			// We have not seen this Id before so add it and save
+			// the local bundle Id for future use.
+			if (fUseRemoteSourceName)
+			{
+				BasisBundleSource remoteSourceProxy = 
+					new AbstractBasisBundleSource(
+						remoteBundleId.getNameQualifier()){};
+					
+				localBundleId = fOutput.addBasisBundle(
+					descriptor, remoteSourceProxy, fBasisBundleSize);
+			}
+			else
+			{
+				localBundleId = 
+					fOutput.addBasisBundle(descriptor, fBasisBundleSize);
+			}
+			
+			fIdMap.put(remoteBundleName, localBundleId);
+
+			if (sLogger.isLoggable(Level.FINER))
+			{
+				String message = 
+					"Received new BasisBundle Descriptor, RemoteId:" 
+					+ remoteBundleName + " LocalId:" + localBundleId;
+				
+				sLogger.logp(Level.FINER, CLASS_NAME, 
+					"readDescriptorPacket", message);
+			}
+		}
+	}
+	
+	/**
+	 * Decodes the data packet last read by the codec into a new BasisSet and
+	 * makes it available. Packets of BasisBundles whose descriptor has not 
+	 * been received are skipped.
+	 * 
+	 * @throws IOException if an Object DataBuffer could not be deserialized
+	 * @throws ClassNotFoundException if an element of an Object DataBuffer is
+	 * 		of an unknown class
+	 */
+	private void readBasisSetPacket() 
+		throws IOException, ClassNotFoundException
+	{
+		String remoteBundleName = fWireCodec.getBasisBundleName();
+		BasisBundleId localBundleId = 
+			(BasisBundleId) fIdMap.get(remoteBundleName);
+
+    	if (localBundleId != null)
+    	{
+    		BasisSet newBasisSet = fOutput.allocateBasisSet(
+    			localBundleId, fWireCodec.getSamples());
+
+    		if (fWireCodec.decodeBasisSet(newBasisSet))
+    		{
+    			fOutput.makeAvailable(newBasisSet);
+    		}
+    		else
+    		{
+    			newBasisSet.release();
+    			
+    			String message = "BasisSet of " + remoteBundleName 
+    				+ " does not match its descriptor";
+    			
+    			sLogger.logp(Level.WARNING, CLASS_NAME, 
+    				"readBasisSetPacket", message);
+    		}
+    	}
+	}
+
+	//============================================================================
+	// CONNECTION SUPPORT
+	//============================================================================
+	
+	/**
+	 * Reads packets from the socket. This method does not return unless this
+	 * component is killed, stopped, or an exception is encountered.
+	 * 
+	 * @throws IOException 
+	 */
+	protected void serviceConnection() throws IOException
+	{
+		while (!isKilled())
+		{
+			try 
+			{
+				fWireCodec.readPacket(fSocket);
+				
+				switch (fWireCodec.getPacketType()) {
+				case AbstractBasisSetTcpOutputAdapter.ERROR_PACKET:
+					String mesg = "Error returned from server: " 
+						+ fWireCodec.getErrorMessage();
+					sLogger.severe(mesg);
+					break;
+				case AbstractBasisSetTcpOutputAdapter.DESCRIPTOR_PACKET:
+					readDescriptorPacket();
+					break;
+				case AbstractBasisSetTcpOutputAdapter.DATA_PACKET:
+					readBasisSetPacket();
+					break;
+				default:
+					String mesg2 = "Unknown packet type: " 
+						+ fWireCodec.getPacketType();
+					sLogger.severe(mesg2);
+					break;			
+				}
+			} 
+			catch (ClassNotFoundException e)
+			{
+				String message = e.getLocalizedMessage() + " "
+						+ getFullyQualifiedName()
+						+ " did not recognize class";
+				sLogger.logp(Level.WARNING, CLASS_NAME, "serviceConnection",
+					message);
+			}
+	    }
+	}
+	
+	/**
+	 * Closes a client socket connection.
+	 */
+	protected void closeConnection()
+	{
+		sLogger.logp(Level.FINE, CLASS_NAME, "closeConnection", 
+				"Closing connection...");
+		
+		if (fSocket != null)
+		{
+			try
+			{
+				fSocket.close();
+			}
+			catch (IOException e)
+			{
+				String message = getFullyQualifiedName() + " could not close ";
+				sLogger.logp(Level.WARNING, CLASS_NAME, 
+						"closeConnection", message, e);
+			}
+			finally 
+			{
+				fSocket = null;
+			}
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -46,7 +46,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.acplt.oncrpc.OncRpcException;
-import org.acplt.oncrpc.XdrTcpDecodingStream;
 
 
 /**
@@ -127,7 +126,7 @@ public class BasisSetTcpXdrInputAdapter extends AbstractBasisSetTcpInputAdapter
 
 	private Map fDescriptorMap = new HashMap();
 	private Map fIdMap = new HashMap();
-	private XdrTcpDecodingStream fXdrTcpDecodingStream;
+	private XdrTcpBulkDecodingStream fXdrTcpDecodingStream;
 	
 	
 	/**
@@ -202,7 +201,7 @@ public class BasisSetTcpXdrInputAdapter extends AbstractBasisSetTcpInputAdapter
 	 */
 	private byte[] readByteArray() throws IOException
 	{
-		XdrTcpDecodingStream xdrDecoder = (XdrTcpDecodingStream) fXdrTcpDecodingStream;		
+		XdrTcpBulkDecodingStream xdrDecoder = (XdrTcpBulkDecodingStream) fXdrTcpDecodingStream;		
 		byte[] bytes = null;
 
 		try
@@ -346,16 +345,18 @@ public class BasisSetTcpXdrInputAdapter extends AbstractBasisSetTcpInputAdapter
 	}
 
 	/**
-	 * Reads the DataBuffer from the given input stream.
+	 * Reads the DataBuffer from the given input stream. When the type on the 
+	 * wire is the primitive type of the DataBuffer, the values are decoded 
+	 * straight into it.
 	 * @param buffer the DataBuffer to read into.
 	 * @param xdrTcpDecodingStream TODO
 	 * @param inputStream the stream to read from
 	 * 
 	 * @throws IOException if there is an exception reading from the stream.
 	 */
-	private void readDataBuffer(DataBuffer buffer, XdrTcpDecodingStream xdrTcpDecodingStream) throws IOException
+	private void readDataBuffer(DataBuffer buffer, XdrTcpBulkDecodingStream xdrTcpDecodingStream) throws IOException
 	{
-		XdrTcpDecodingStream xdrDecoder = fXdrTcpDecodingStream;	
+		XdrTcpBulkDecodingStream xdrDecoder = fXdrTcpDecodingStream;	
 		try 
 		{
 			xdrTcpDecodingStream.beginDecoding();
@@ -371,58 +372,65 @@ public class BasisSetTcpXdrInputAdapter extends AbstractBasisSetTcpInputAdapter
 			byte type = xdrDecoder.xdrDecodeByte();
 //			byte type = inputStream.readByte();
 			
-			switch (type)
-			
+			if (type == getTypeCode(buffer))
 			{
-			case AbstractBasisSetTcpOutputAdapter.DOUBLE_TYPE:
-				
-				double[] doubles = xdrDecoder.xdrDecodeDoubleVector();
-				buffer.put(0, doubles, 0, doubles.length);
-				break;
-			case AbstractBasisSetTcpOutputAdapter.INT_TYPE:
-				int[] ints = xdrDecoder.xdrDecodeIntVector();
-				buffer.put(0, ints, 0, ints.length);
-//				System.out.println("XXXX  object input: " + Arrays.toString(ints));				
-				break;
-			case AbstractBasisSetTcpOutputAdapter.FLOAT_TYPE:
-				float[] floats = xdrDecoder.xdrDecodeFloatVector();
-				buffer.put(0, floats, 0, floats.length);
-				break;
-			case AbstractBasisSetTcpOutputAdapter.SHORT_TYPE:
-				short[] shorts = xdrDecoder.xdrDecodeShortVector();
-				buffer.put(0, shorts, 0, shorts.length);
-				break;
-			case AbstractBasisSetTcpOutputAdapter.LONG_TYPE:
-				long[] longs = xdrDecoder.xdrDecodeLongVector();
-				buffer.put(0, longs, 0, longs.length);
-				break;
-			case AbstractBasisSetTcpOutputAdapter.BYTE_TYPE:
-				byte[] bytes = xdrDecoder.xdrDecodeByteVector();
-				buffer.put(0, bytes, 0, bytes.length);
-				break;	
-			case AbstractBasisSetTcpOutputAdapter.CHAR_TYPE:
-				// Need to do a conversion to char[]
-				//
-				int[] intsTemp = xdrDecoder.xdrDecodeIntVector();
-				char[] chars = new char[intsTemp.length];
-				for (int i = 0; i < intsTemp.length; i++)
+				xdrDecoder.xdrDecodeDataBuffer(buffer);
+			}
+			else
+			{
+				switch (type)
+			
 				{
-					chars[i] = (char) intsTemp[i];
-				}
-				buffer.put(0, chars, 0, chars.length);
-				break;				
-
-			case AbstractBasisSetTcpOutputAdapter.OBJECT_TYPE:
-				String[] strings = xdrDecoder.xdrDecodeStringVector();
-				buffer.put(0, strings, 0, strings.length);			
-//				System.out.println("XXXX  object input: " + Arrays.toString(strings));
-				break;	
-
-			default:
-				String mesg = "Unsupported type: " + type;
-				sLogger.severe(mesg);
+				case AbstractBasisSetTcpOutputAdapter.DOUBLE_TYPE:
+				
+					double[] doubles = xdrDecoder.xdrDecodeDoubleVector();
+					buffer.put(0, doubles, 0, doubles.length);
+					break;
+				case AbstractBasisSetTcpOutputAdapter.INT_TYPE:
+					int[] ints = xdrDecoder.xdrDecodeIntVector();
+					buffer.put(0, ints, 0, ints.length);
+//					System.out.println("XXXX  object input: " + Arrays.toString(ints));				
+					break;
+				case AbstractBasisSetTcpOutputAdapter.FLOAT_TYPE:
+					float[] floats = xdrDecoder.xdrDecodeFloatVector();
+					buffer.put(0, floats, 0, floats.length);
+					break;
+				case AbstractBasisSetTcpOutputAdapter.SHORT_TYPE:
+					short[] shorts = xdrDecoder.xdrDecodeShortVector();
+					buffer.put(0, shorts, 0, shorts.length);
+					break;
+				case AbstractBasisSetTcpOutputAdapter.LONG_TYPE:
+					long[] longs = xdrDecoder.xdrDecodeLongVector();
+					buffer.put(0, longs, 0, longs.length);
+					break;
+				case AbstractBasisSetTcpOutputAdapter.BYTE_TYPE:
+					byte[] bytes = xdrDecoder.xdrDecodeByteVector();
+					buffer.put(0, bytes, 0, bytes.length);
+					break;	
+				case AbstractBasisSetTcpOutputAdapter.CHAR_TYPE:
+					// Need to do a conversion to char[]
+					//
+					int[] intsTemp = xdrDecoder.xdrDecodeIntVector();
+					char[] chars = new char[intsTemp.length];
+					for (int i = 0; i < intsTemp.length; i++)
+					{
+						chars[i] = (char) intsTemp[i];
+					}
+					buffer.put(0, chars, 0, chars.length);
+					break;				
+
+				case AbstractBasisSetTcpOutputAdapter.OBJECT_TYPE:
+					String[] strings = xdrDecoder.xdrDecodeStringVector();
+					buffer.put(0, strings, 0, strings.length);			
+//					System.out.println("XXXX  object input: " + Arrays.toString(strings));
+					break;	
+
+				default:
+					String mesg = "Unsupported type: " + type;
+					sLogger.severe(mesg);
 			
-//				throw new IOException();
+//					throw new IOException();
+				}
 			}
 			xdrDecoder.endDecoding();
 
@@ -434,7 +442,52 @@ public class BasisSetTcpXdrInputAdapter extends AbstractBasisSetTcpInputAdapter
 	}
 
 	/**
-	 * Discards the DataBuffer from the given input stream.
+	 * Returns the code of the primitive type of the given DataBuffer on the 
+	 * wire, or -1 if it does not hold primitive values.
+	 * 
+	 * @param buffer a DataBuffer
+	 * @return the type code of the DataBuffer
+	 */
+	private static byte getTypeCode(DataBuffer buffer)
+	{
+		Class type = buffer.getDataBufferType();
+		byte result = -1;
+		
+		if (type == double.class)
+		{
+			result = AbstractBasisSetTcpOutputAdapter.DOUBLE_TYPE;
+		}
+		else if (type == int.class)
+		{
+			result = AbstractBasisSetTcpOutputAdapter.INT_TYPE;
+		}
+		else if (type == float.class)
+		{
+			result = AbstractBasisSetTcpOutputAdapter.FLOAT_TYPE;
+		}
+		else if (type == short.class)
+		{
+			result = AbstractBasisSetTcpOutputAdapter.SHORT_TYPE;
+		}
+		else if (type == long.class)
+		{
+			result = AbstractBasisSetTcpOutputAdapter.LONG_TYPE;
+		}
+		else if (type == byte.class)
+		{
+			result = AbstractBasisSetTcpOutputAdapter.BYTE_TYPE;
+		}
+		else if (type == char.class)
+		{
+			result = AbstractBasisSetTcpOutputAdapter.CHAR_TYPE;
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Discards the DataBuffer from the given input stream. Each DataBuffer is
+	 * sent as one XDR record, so the whole record is skipped.
 	 * 
 	 * @param inputStream the stream to read from
 	 * @param samples the size in samples of the data buffer to discard.
@@ -443,71 +496,18 @@ public class BasisSetTcpXdrInputAdapter extends AbstractBasisSetTcpInputAdapter
 	private void discardDataBuffer(int samples)
 			throws IOException
 	{
-		XdrTcpDecodingStream xdrDecoder = (XdrTcpDecodingStream) fXdrTcpDecodingStream;	
+		XdrTcpBulkDecodingStream xdrDecoder = (XdrTcpBulkDecodingStream) fXdrTcpDecodingStream;	
 
 		try
 		{		
 			xdrDecoder.beginDecoding();
-			byte type = xdrDecoder.xdrDecodeByte();
-			
-			int numBytes = 0;
-			
-			if (type == AbstractBasisSetTcpOutputAdapter.DOUBLE_TYPE)
-			{
-				
-				numBytes = 8 * samples;
-			}
-			else if (type == AbstractBasisSetTcpOutputAdapter.INT_TYPE)
-			{
-				numBytes = 4 * samples;
-			}
-			else if (type == AbstractBasisSetTcpOutputAdapter.FLOAT_TYPE)
-			{
-				numBytes = 4 * samples;
-			}
-			else if (type == AbstractBasisSetTcpOutputAdapter.SHORT_TYPE)
-			{
-				numBytes = 2 * samples;
-			}
-			else if (type == AbstractBasisSetTcpOutputAdapter.LONG_TYPE)
-			{
-				numBytes = 8 * samples;
-			}
-			else if(type == AbstractBasisSetTcpOutputAdapter.BYTE_TYPE)
-			{
-				numBytes = 1 * samples;
-			}
-			else if (type == AbstractBasisSetTcpOutputAdapter.CHAR_TYPE)
-			{
-				numBytes = 2 * samples;
-			}
-			else	// Type must be Object or subclass
-			{
-//				for (int i = 0; i < samples; ++i)
-//				{
-//				try
-//				{
-//				// TODO should this be readUnshared
-//				inputStream.readObject();
-//				}
-//				catch (ClassNotFoundException e)
-//				{
-//				// TODO Auto-generated catch block
-//				e.printStackTrace();
-//				}
-//				}
-				System.err.println("Hmm trying to skip objects - not implemented yet");
-			}
-			
-
-			xdrDecoder.xdrDecodeByteFixedVector(numBytes);
 			xdrDecoder.endDecoding();			
 		} catch (OncRpcException e)
 		{
 			throw new IOException(e.getMessage());
 		} 				
 	}
-	
+
 	//============================================================================
 	// CONNECTION SUPPORT
 	//============================================================================
@@ -520,7 +520,7 @@ public class BasisSetTcpXdrInputAdapter extends AbstractBasisSetTcpInputAdapter
 	protected void serviceConnection() throws IOException
 	{
 
-		fXdrTcpDecodingStream = new XdrTcpDecodingStream(fSocket.socket(), fBufferSizeBytes);
+		fXdrTcpDecodingStream = new XdrTcpBulkDecodingStream(fSocket, fBufferSizeBytes);
 		
 		while (!isKilled())
 		{
@@ -556,9 +556,9 @@ public class BasisSetTcpXdrInputAdapter extends AbstractBasisSetTcpInputAdapter
 		 * @throws OncRpcException 
 		 * @throws OncRpcException 
 		 */
-		private Header readAndDecodeHeader(XdrTcpDecodingStream xdrTcpDecodingStream) throws IOException
+		private Header readAndDecodeHeader(XdrTcpBulkDecodingStream xdrTcpDecodingStream) throws IOException
 		{
-			XdrTcpDecodingStream xdrDecoder = (XdrTcpDecodingStream) fXdrTcpDecodingStream;
+			XdrTcpBulkDecodingStream xdrDecoder = (XdrTcpBulkDecodingStream) fXdrTcpDecodingStream;
 			Header header = new Header();
 	
 			try
@@ -589,9 +589,9 @@ public class BasisSetTcpXdrInputAdapter extends AbstractBasisSetTcpInputAdapter
 	 * @throws OncRpcException 
 	 * @throws OncRpcException 
 	 */
-	private Trailer readAndDecodeTrailer(XdrTcpDecodingStream xdrTcpDecodingStream) throws IOException
+	private Trailer readAndDecodeTrailer(XdrTcpBulkDecodingStream xdrTcpDecodingStream) throws IOException
 	{
-		XdrTcpDecodingStream xdrDecoder = (XdrTcpDecodingStream) fXdrTcpDecodingStream;
+		XdrTcpBulkDecodingStream xdrDecoder = (XdrTcpBulkDecodingStream) fXdrTcpDecodingStream;
 		Trailer trailer = new Trailer();
 
 		try
@@ -0,0 +1,999 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.ports.adapters;
+
+import gov.nasa.gsfc.commons.types.buffers.ByteBufferPool;
+import gov.nasa.gsfc.commons.types.buffers.PooledBufferHandle;
+import gov.nasa.gsfc.irc.data.BasisBundleId;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.DataBuffer;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A BasisSetWireCodec encodes BasisSets and BasisBundleDescriptors into a 
+ * compact binary packet format, and decodes them again on the receiving 
+ * end. It is used by the 
+ * {@link gov.nasa.gsfc.irc.library.ports.adapters.BasisSetSerializer BasisSetSerializer}
+ * and 
+ * {@link gov.nasa.gsfc.irc.library.ports.adapters.BasisSetDeserializer BasisSetDeserializer}
+ * pair when configured for the "wire" format, and by the "wire" format of the
+ * {@link gov.nasa.gsfc.irc.library.ports.adapters.BasisSetTcpGenericOutputAdapter BasisSetTcpGenericOutputAdapter}.
+ * <p>
+ * Each primitive DataBuffer is transferred as a single block of bytes by 
+ * the bulk <code>get(ByteBuffer)</code> and 
+ * <code>put(int, ByteBuffer, int)</code> methods of DataBuffer, which copy 
+ * the ring buffer of a BasisBundle in at most two segments. Packets are 
+ * encoded into direct buffers leased from a 
+ * {@link ByteBufferPool ByteBufferPool}, and a decoder reuses a single 
+ * leased buffer, so neither side allocates per packet once the buffers have
+ * grown to the packet size. Only Object DataBuffers, which have no fixed 
+ * binary representation, still go through Java serialization.
+ * <p>
+ * All values are in network (big endian) byte order. A packet is laid out 
+ * as:
+ * <pre>
+ *   int    MAGIC
+ *   int    length of the rest of the packet in bytes
+ *   byte   packet type (DESCRIPTOR_PACKET, DATA_PACKET or ERROR_PACKET)
+ *   int    sequence number
+ *   short  length of the bundle name in bytes
+ *   byte[] fully qualified BasisBundle name (UTF-8)
+ *   ...    payload
+ *   int    sequence number, repeated as a trailer
+ * </pre>
+ * The payload of a data packet is the number of samples and the number of 
+ * DataBuffers (basis buffer first), followed for each DataBuffer by its type
+ * code and its elements; the elements of an Object DataBuffer are preceded by
+ * their length in bytes. The payload of a descriptor packet is the Java 
+ * serialized BasisBundleId and BasisBundleDescriptor, preceded by their 
+ * length. The payload of an error packet is the length of the message in 
+ * bytes followed by the message (UTF-8).
+ * <p>
+ * A codec keeps per-stream state and is not safe for use by more than one 
+ * thread at a time; an encoder and a decoder each need their own instance.
+ * <P>
+ * This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ */
+public class BasisSetWireCodec
+{
+	/**
+	 * The first four bytes of every packet ("BSWP"). These can never begin a 
+	 * Java serialization stream, so a receiver can tell the two formats 
+	 * apart.
+	 */
+	public static final int MAGIC = 0x42535750;
+	
+	/**
+	 * The size in bytes of the magic number and length that precede the body 
+	 * of a packet.
+	 */
+	public static final int PREAMBLE_SIZE = 8;
+	
+	/**
+	 * The size in bytes of the packet type and sequence number.
+	 */
+	private static final int HEADER_SIZE = 5;
+	
+	/**
+	 * The size in bytes of the trailer.
+	 */
+	private static final int TRAILER_SIZE = 4;
+	
+	/**
+	 * The pool shared by codecs that are not given one.
+	 */
+	private static final ByteBufferPool sDefaultPool = new ByteBufferPool();
+	
+	private ByteBufferPool fPool;
+	private int fSequenceNumber = 0;
+	
+	// Encoding state
+	private Map fNameBytesMap = new HashMap();
+	private ExposedByteArrayOutputStream fObjectBytes = 
+		new ExposedByteArrayOutputStream();
+	private int[] fObjectEnds = new int[4];
+	private int fNumberOfObjectBuffers = 0;
+	private int fObjectBufferIndex = 0;
+
+	// Decoding state
+	private ByteBuffer fPreamble = ByteBuffer.allocate(PREAMBLE_SIZE);
+	private PooledBufferHandle fReadHandle = null;
+	private ByteBuffer fPacket = null;
+	private int fPacketType = 0;
+	private int fPacketSequenceNumber = 0;
+	private byte[] fBundleNameBytes = new byte[64];
+	private int fBundleNameLength = -1;
+	private String fBundleName = null;
+	private int fSamples = 0;
+	private int fNumberOfBuffers = 0;
+	private BasisBundleId fBasisBundleId = null;
+	private BasisBundleDescriptor fDescriptor = null;
+	private String fErrorMessage = null;
+	
+	
+	/**
+	 * Constructs a new BasisSetWireCodec that leases its buffers from a 
+	 * pool shared by all codecs.
+	 */
+	public BasisSetWireCodec()
+	{
+		this(sDefaultPool);
+	}
+	
+	/**
+	 * Constructs a new BasisSetWireCodec that leases its buffers from the 
+	 * given pool.
+	 * 
+	 * @param pool the pool to lease buffers from
+	 */
+	public BasisSetWireCodec(ByteBufferPool pool)
+	{
+		fPool = pool;
+	}
+	
+	//--- Encoding ------------------------------------------------------------
+	
+	/**
+	 * Encodes the given BasisSet as a data packet. The returned handle is in 
+	 * use by the caller, who must release it once the packet has been sent; 
+	 * its buffer is ready to be read from position 0 to its limit.
+	 * 
+	 * @param basisSet the BasisSet to encode
+	 * @return a handle to the encoded packet
+	 * @throws IOException if an Object DataBuffer could not be serialized
+	 */
+	public PooledBufferHandle encodeBasisSet(BasisSet basisSet) 
+		throws IOException
+	{
+		byte[] nameBytes = getNameBytes(basisSet.getBasisBundleId());
+		int samples = basisSet.getSize();
+		
+		// Size the packet, serializing any Object buffers along the way
+		
+		fObjectBytes.reset();
+		fNumberOfObjectBuffers = 0;
+		
+		int size = PREAMBLE_SIZE + HEADER_SIZE + 2 + nameBytes.length + 8
+			+ TRAILER_SIZE;
+		int numberOfBuffers = 1;
+		
+		size += sizeDataBuffer(basisSet.getBasisBuffer(), samples);
+		
+		for (Iterator buffers = basisSet.getDataBuffers(); buffers.hasNext();)
+		{
+			size += sizeDataBuffer((DataBuffer) buffers.next(), samples);
+			numberOfBuffers++;
+		}
+		
+		// Write the packet
+		
+		PooledBufferHandle result = fPool.acquire(size);
+		ByteBuffer packet = result.getByteBuffer();
+		
+		fObjectBufferIndex = 0;
+		writeHeader(packet, BasisSetSerializer.DATA_PACKET, nameBytes, size);
+		packet.putInt(samples);
+		packet.putInt(numberOfBuffers);
+		
+		writeDataBuffer(packet, basisSet.getBasisBuffer());
+		
+		for (Iterator buffers = basisSet.getDataBuffers(); buffers.hasNext();)
+		{
+			writeDataBuffer(packet, (DataBuffer) buffers.next());
+		}
+		
+		packet.putInt(fSequenceNumber);
+		packet.flip();
+		
+		return (result);
+	}
+	
+	/**
+	 * Encodes the given BasisBundleDescriptor as a descriptor packet. The 
+	 * returned handle is in use by the caller, who must release it once the 
+	 * packet has been sent.
+	 * 
+	 * @param basisBundleId the id of the BasisBundle the descriptor describes
+	 * @param descriptor the descriptor to encode
+	 * @return a handle to the encoded packet
+	 * @throws IOException if the descriptor could not be serialized
+	 */
+	public PooledBufferHandle encodeDescriptor(
+			BasisBundleId basisBundleId, BasisBundleDescriptor descriptor)
+		throws IOException
+	{
+		byte[] nameBytes = getNameBytes(basisBundleId);
+		
+		fObjectBytes.reset();
+		
+		ObjectOutputStream objectStream = new ObjectOutputStream(fObjectBytes);
+		objectStream.writeObject(basisBundleId);
+		objectStream.writeObject(descriptor);
+		objectStream.flush();
+		
+		int length = fObjectBytes.size();
+		int size = PREAMBLE_SIZE + HEADER_SIZE + 2 + nameBytes.length + 4 
+			+ length + TRAILER_SIZE;
+		
+		PooledBufferHandle result = fPool.acquire(size);
+		ByteBuffer packet = result.getByteBuffer();
+		
+		writeHeader(packet, BasisSetSerializer.DESCRIPTOR_PACKET, nameBytes, size);
+		packet.putInt(length);
+		packet.put(fObjectBytes.getBuffer(), 0, length);
+		packet.putInt(fSequenceNumber);
+		packet.flip();
+		
+		return (result);
+	}
+	
+	/**
+	 * Encodes the given message as an error packet. The returned handle is in
+	 * use by the caller, who must release it once the packet has been sent.
+	 * 
+	 * @param message the error message
+	 * @return a handle to the encoded packet
+	 */
+	public PooledBufferHandle encodeError(String message)
+	{
+		byte[] messageBytes = toUtf8(message);
+		int size = PREAMBLE_SIZE + HEADER_SIZE + 2 + 4 + messageBytes.length 
+			+ TRAILER_SIZE;
+		
+		PooledBufferHandle result = fPool.acquire(size);
+		ByteBuffer packet = result.getByteBuffer();
+		
+		writeHeader(packet, BasisSetSerializer.ERROR_PACKET, new byte[0], size);
+		packet.putInt(messageBytes.length);
+		packet.put(messageBytes);
+		packet.putInt(fSequenceNumber);
+		packet.flip();
+		
+		return (result);
+	}
+	
+	/**
+	 * Writes the preamble and header of a new packet and advances the 
+	 * sequence number.
+	 * 
+	 * @param packet the buffer to write to
+	 * @param packetType the type of the packet
+	 * @param nameBytes the encoded bundle name
+	 * @param size the total size of the packet in bytes
+	 */
+	private void writeHeader(
+			ByteBuffer packet, int packetType, byte[] nameBytes, int size)
+	{
+		fSequenceNumber++;
+		
+		packet.putInt(MAGIC);
+		packet.putInt(size - PREAMBLE_SIZE);
+		packet.put((byte) packetType);
+		packet.putInt(fSequenceNumber);
+		packet.putShort((short) nameBytes.length);
+		packet.put(nameBytes);
+	}
+	
+	/**
+	 * Returns the encoded size in bytes of the given DataBuffer. The 
+	 * elements of an Object DataBuffer are serialized at this point and 
+	 * written out later by <code>writeDataBuffer</code>.
+	 * 
+	 * @param buffer the DataBuffer to size
+	 * @param samples the number of samples in the buffer
+	 * @return the encoded size of the buffer
+	 * @throws IOException if an Object DataBuffer could not be serialized
+	 */
+	private int sizeDataBuffer(DataBuffer buffer, int samples) 
+		throws IOException
+	{
+		int result = 1;
+		byte type = getTypeCode(buffer.getDataBufferType());
+		
+		if (type == BasisSetSerializer.OBJECT_TYPE)
+		{
+			int start = fObjectBytes.size();
+			ObjectOutputStream objectStream = 
+				new ObjectOutputStream(fObjectBytes);
+			
+			for (int i = 0; i < samples; ++i)
+			{
+				objectStream.writeObject(buffer.getAsObject(i));
+			}
+			
+			objectStream.flush();
+			
+			if (fNumberOfObjectBuffers == fObjectEnds.length)
+			{
+				int[] objectEnds = new int[fObjectEnds.length * 2];
+				System.arraycopy(fObjectEnds, 0, objectEnds, 0, 
+					fObjectEnds.length);
+				fObjectEnds = objectEnds;
+			}
+			
+			fObjectEnds[fNumberOfObjectBuffers] = fObjectBytes.size();
+			fNumberOfObjectBuffers++;
+			
+			result += 4 + fObjectBytes.size() - start;
+		}
+		else
+		{
+			result += samples * getElementSize(type);
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Writes the given DataBuffer to the given packet.
+	 * 
+	 * @param packet the buffer to write to
+	 * @param buffer the DataBuffer to write
+	 */
+	private void writeDataBuffer(ByteBuffer packet, DataBuffer buffer)
+	{
+		byte type = getTypeCode(buffer.getDataBufferType());
+		
+		packet.put(type);
+		
+		if (type == BasisSetSerializer.OBJECT_TYPE)
+		{
+			int start = (fObjectBufferIndex == 0) ? 
+				0 : fObjectEnds[fObjectBufferIndex - 1];
+			int length = fObjectEnds[fObjectBufferIndex] - start;
+			
+			packet.putInt(length);
+			packet.put(fObjectBytes.getBuffer(), start, length);
+			fObjectBufferIndex++;
+		}
+		else
+		{
+			buffer.get(packet);
+		}
+	}
+	
+	/**
+	 * Returns the UTF-8 encoding of the fully qualified name of the given
+	 * BasisBundleId, which is cached since a stream carries few bundles.
+	 * 
+	 * @param basisBundleId a BasisBundleId
+	 * @return the encoded name
+	 */
+	private byte[] getNameBytes(BasisBundleId basisBundleId)
+	{
+		byte[] result = (byte[]) fNameBytesMap.get(basisBundleId);
+		
+		if (result == null)
+		{
+			result = toUtf8(basisBundleId.getFullyQualifiedName());
+			fNameBytesMap.put(basisBundleId, result);
+		}
+		
+		return (result);
+	}
+	
+	//--- Decoding ------------------------------------------------------------
+	
+	/**
+	 * Reads the next packet from the given channel, blocking until the whole 
+	 * packet has been read. The packet is then described by the accessors of
+	 * this codec until the next packet is read.
+	 * 
+	 * @param channel the channel to read from
+	 * @throws EOFException if the channel reaches end of stream
+	 * @throws StreamCorruptedException if the packet is not valid
+	 * @throws IOException if the channel could not be read
+	 * @throws ClassNotFoundException if the BasisBundleDescriptor of a 
+	 * 		descriptor packet is of an unknown class
+	 */
+	public void readPacket(ReadableByteChannel channel) 
+		throws IOException, ClassNotFoundException
+	{
+		fPreamble.clear();
+		fPreamble.limit(4);
+		readFully(channel, fPreamble);
+		
+		int magic = fPreamble.getInt(0);
+		
+		if (magic != MAGIC)
+		{
+			throw new StreamCorruptedException(
+				"Invalid packet magic number " + Integer.toHexString(magic));
+		}
+		
+		readPacketAfterMagic(channel);
+	}
+	
+	/**
+	 * Reads the remainder of a packet whose magic number has already been 
+	 * read from the given channel.
+	 * 
+	 * @param channel the channel to read from
+	 * @throws EOFException if the channel reaches end of stream
+	 * @throws StreamCorruptedException if the packet is not valid
+	 * @throws IOException if the channel could not be read
+	 * @throws ClassNotFoundException if the BasisBundleDescriptor of a 
+	 * 		descriptor packet is of an unknown class
+	 * @see #readPacket(ReadableByteChannel)
+	 */
+	public void readPacketAfterMagic(ReadableByteChannel channel) 
+		throws IOException, ClassNotFoundException
+	{
+		fPreamble.clear();
+		fPreamble.limit(4);
+		readFully(channel, fPreamble);
+		
+		int length = fPreamble.getInt(0);
+		
+		if (length < HEADER_SIZE + 2 + TRAILER_SIZE)
+		{
+			throw new StreamCorruptedException(
+				"Invalid packet length " + length);
+		}
+		
+		if (fReadHandle == null 
+				|| fReadHandle.getByteBuffer().capacity() < length)
+		{
+			if (fReadHandle != null)
+			{
+				fReadHandle.release();
+			}
+			
+			fReadHandle = fPool.acquire(length);
+			fPacket = fReadHandle.getByteBuffer();
+		}
+		
+		fPacket.clear();
+		fPacket.limit(length);
+		readFully(channel, fPacket);
+		fPacket.flip();
+		
+		decodeHeader();
+	}
+	
+	/**
+	 * Decodes the header of the packet just read, and the payload of a 
+	 * descriptor or error packet.
+	 * 
+	 * @throws StreamCorruptedException if the packet is not valid
+	 * @throws IOException if a descriptor could not be deserialized
+	 * @throws ClassNotFoundException if the BasisBundleDescriptor of a 
+	 * 		descriptor packet is of an unknown class
+	 */
+	private void decodeHeader() throws IOException, ClassNotFoundException
+	{
+		int trailerPosition = fPacket.limit() - TRAILER_SIZE;
+		
+		fPacketType = fPacket.get();
+		fPacketSequenceNumber = fPacket.getInt();
+		
+		if (fPacket.getInt(trailerPosition) != fPacketSequenceNumber)
+		{
+			throw new StreamCorruptedException(
+				"Packet trailer does not match sequence number " 
+				+ fPacketSequenceNumber);
+		}
+		
+		fPacket.limit(trailerPosition);
+		decodeBundleName();
+		
+		fBasisBundleId = null;
+		fDescriptor = null;
+		fErrorMessage = null;
+		
+		if (fPacketType == BasisSetSerializer.DATA_PACKET)
+		{
+			fSamples = fPacket.getInt();
+			fNumberOfBuffers = fPacket.getInt();
+		}
+		else if (fPacketType == BasisSetSerializer.DESCRIPTOR_PACKET)
+		{
+			int length = fPacket.getInt();
+			ObjectInputStream objectStream = 
+				new ObjectInputStream(new ByteBufferInputStream(fPacket, length));
+			
+			fBasisBundleId = (BasisBundleId) objectStream.readObject();
+			fDescriptor = (BasisBundleDescriptor) objectStream.readObject();
+		}
+		else if (fPacketType == BasisSetSerializer.ERROR_PACKET)
+		{
+			byte[] messageBytes = new byte[fPacket.getInt()];
+			
+			fPacket.get(messageBytes);
+			fErrorMessage = new String(messageBytes, "UTF-8");
+		}
+	}
+	
+	/**
+	 * Decodes the bundle name of the packet just read, reusing the previous 
+	 * name if it is unchanged.
+	 * 
+	 * @throws IOException if the name is not valid
+	 */
+	private void decodeBundleName() throws IOException
+	{
+		int length = fPacket.getShort();
+		boolean unchanged = (length == fBundleNameLength);
+		
+		if (length > fBundleNameBytes.length)
+		{
+			fBundleNameBytes = new byte[length];
+		}
+		
+		for (int i = 0; i < length; i++)
+		{
+			byte value = fPacket.get();
+			
+			if (fBundleNameBytes[i] != value)
+			{
+				fBundleNameBytes[i] = value;
+				unchanged = false;
+			}
+		}
+		
+		if (!unchanged)
+		{
+			fBundleNameLength = length;
+			fBundleName = new String(fBundleNameBytes, 0, length, "UTF-8");
+		}
+	}
+	
+	/**
+	 * Returns the type of the packet last read.
+	 * 
+	 * @return the packet type
+	 * @see BasisSetSerializer#DATA_PACKET
+	 * @see BasisSetSerializer#DESCRIPTOR_PACKET
+	 * @see BasisSetSerializer#ERROR_PACKET
+	 */
+	public int getPacketType()
+	{
+		return (fPacketType);
+	}
+	
+	/**
+	 * Returns the sequence number of the packet last read.
+	 * 
+	 * @return the sequence number
+	 */
+	public int getSequenceNumber()
+	{
+		return (fPacketSequenceNumber);
+	}
+	
+	/**
+	 * Returns the fully qualified name of the BasisBundle of the packet last
+	 * read.
+	 * 
+	 * @return the BasisBundle name
+	 */
+	public String getBasisBundleName()
+	{
+		return (fBundleName);
+	}
+	
+	/**
+	 * Returns the number of samples in the data packet last read.
+	 * 
+	 * @return the number of samples
+	 */
+	public int getSamples()
+	{
+		return (fSamples);
+	}
+	
+	/**
+	 * Returns the number of DataBuffers, including the basis buffer, in the 
+	 * data packet last read.
+	 * 
+	 * @return the number of DataBuffers
+	 */
+	public int getNumberOfBuffers()
+	{
+		return (fNumberOfBuffers);
+	}
+	
+	/**
+	 * Returns the BasisBundleId of the descriptor packet last read.
+	 * 
+	 * @return the BasisBundleId or null if the packet was not a descriptor 
+	 * 		packet
+	 */
+	public BasisBundleId getBasisBundleId()
+	{
+		return (fBasisBundleId);
+	}
+	
+	/**
+	 * Returns the BasisBundleDescriptor of the descriptor packet last read.
+	 * 
+	 * @return the descriptor or null if the packet was not a descriptor 
+	 * 		packet
+	 */
+	public BasisBundleDescriptor getBasisBundleDescriptor()
+	{
+		return (fDescriptor);
+	}
+	
+	/**
+	 * Returns the message of the error packet last read.
+	 * 
+	 * @return the message or null if the packet was not an error packet
+	 */
+	public String getErrorMessage()
+	{
+		return (fErrorMessage);
+	}
+	
+	/**
+	 * Decodes the data packet last read into the given BasisSet, which must 
+	 * have the number of samples of the packet and the same structure as the
+	 * BasisSet that was encoded.
+	 * 
+	 * @param basisSet the BasisSet to fill
+	 * @return true if the BasisSet was filled, false if its structure does
+	 * 		not match the packet
+	 * @throws IOException if an Object DataBuffer could not be deserialized
+	 * @throws ClassNotFoundException if an element of an Object DataBuffer is
+	 * 		of an unknown class
+	 */
+	public boolean decodeBasisSet(BasisSet basisSet) 
+		throws IOException, ClassNotFoundException
+	{
+		boolean result = false;
+		
+		if (fPacketType == BasisSetSerializer.DATA_PACKET
+				&& basisSet.getSize() == fSamples
+				&& basisSet.getNumberOfDataBuffers() + 1 == fNumberOfBuffers)
+		{
+			readDataBuffer(basisSet.getBasisBuffer());
+			
+			for (Iterator buffers = basisSet.getDataBuffers(); 
+				buffers.hasNext();)
+			{
+				readDataBuffer((DataBuffer) buffers.next());
+			}
+			
+			result = true;
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Reads the next DataBuffer of the current packet into the given 
+	 * DataBuffer. A block of the same type as the DataBuffer is copied in 
+	 * bulk; otherwise each element is converted.
+	 * 
+	 * @param buffer the DataBuffer to read into
+	 * @throws IOException if an Object DataBuffer could not be deserialized
+	 * @throws ClassNotFoundException if an element of an Object DataBuffer is
+	 * 		of an unknown class
+	 */
+	private void readDataBuffer(DataBuffer buffer) 
+		throws IOException, ClassNotFoundException
+	{
+		int size = fSamples;
+		byte type = fPacket.get();
+		
+		if (type == BasisSetSerializer.OBJECT_TYPE)
+		{
+			int length = fPacket.getInt();
+			ObjectInputStream objectStream = 
+				new ObjectInputStream(new ByteBufferInputStream(fPacket, length));
+			
+			for (int i = 0; i < size; ++i)
+			{
+				buffer.put(i, objectStream.readObject());
+			}
+		}
+		else if (type == getTypeCode(buffer.getDataBufferType()))
+		{
+			buffer.put(0, fPacket, size);
+		}
+		else if (type == BasisSetSerializer.DOUBLE_TYPE)
+		{
+			for (int i = 0; i < size; ++i)
+			{
+				buffer.put(i, fPacket.getDouble());
+			}
+		}
+		else if (type == BasisSetSerializer.INT_TYPE)
+		{
+			for (int i = 0; i < size; ++i)
+			{
+				buffer.put(i, fPacket.getInt());
+			}
+		}
+		else if (type == BasisSetSerializer.FLOAT_TYPE)
+		{
+			for (int i = 0; i < size; ++i)
+			{
+				buffer.put(i, fPacket.getFloat());
+			}
+		}
+		else if (type == BasisSetSerializer.SHORT_TYPE)
+		{
+			for (int i = 0; i < size; ++i)
+			{
+				buffer.put(i, fPacket.getShort());
+			}
+		}
+		else if (type == BasisSetSerializer.LONG_TYPE)
+		{
+			for (int i = 0; i < size; ++i)
+			{
+				buffer.put(i, fPacket.getLong());
+			}
+		}
+		else if (type == BasisSetSerializer.BYTE_TYPE)
+		{
+			for (int i = 0; i < size; ++i)
+			{
+				buffer.put(i, fPacket.get());
+			}
+		}
+		else if (type == BasisSetSerializer.CHAR_TYPE)
+		{
+			for (int i = 0; i < size; ++i)
+			{
+				buffer.put(i, fPacket.getChar());
+			}
+		}
+		else
+		{
+			throw new StreamCorruptedException(
+				"Unknown DataBuffer type " + type);
+		}
+	}
+	
+	/**
+	 * Releases the read buffer of this codec back to its pool. The codec may 
+	 * still be used afterwards.
+	 */
+	public void close()
+	{
+		if (fReadHandle != null)
+		{
+			fReadHandle.release();
+			fReadHandle = null;
+			fPacket = null;
+		}
+	}
+	
+	//--- Utilities -----------------------------------------------------------
+	
+	/**
+	 * Reads from the given channel until the given buffer is full.
+	 * 
+	 * @param channel the channel to read from
+	 * @param buffer the buffer to fill
+	 * @throws EOFException if the channel reaches end of stream first
+	 * @throws IOException if the channel could not be read
+	 */
+	public static void readFully(ReadableByteChannel channel, ByteBuffer buffer)
+		throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			if (channel.read(buffer) < 0)
+			{
+				throw new EOFException();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the type code of the given DataBuffer type.
+	 * 
+	 * @param type the type of a DataBuffer
+	 * @return the type code
+	 */
+	private static byte getTypeCode(Class type)
+	{
+		byte result = BasisSetSerializer.OBJECT_TYPE;
+		
+		if (type == double.class)
+		{
+			result = BasisSetSerializer.DOUBLE_TYPE;
+		}
+		else if (type == int.class)
+		{
+			result = BasisSetSerializer.INT_TYPE;
+		}
+		else if (type == float.class)
+		{
+			result = BasisSetSerializer.FLOAT_TYPE;
+		}
+		else if (type == short.class)
+		{
+			result = BasisSetSerializer.SHORT_TYPE;
+		}
+		else if (type == long.class)
+		{
+			result = BasisSetSerializer.LONG_TYPE;
+		}
+		else if (type == byte.class)
+		{
+			result = BasisSetSerializer.BYTE_TYPE;
+		}
+		else if (type == char.class)
+		{
+			result = BasisSetSerializer.CHAR_TYPE;
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Returns the size in bytes of an element of the given primitive type 
+	 * code.
+	 * 
+	 * @param type a primitive type code
+	 * @return the size of an element
+	 */
+	private static int getElementSize(byte type)
+	{
+		int result = 1;
+		
+		if (type == BasisSetSerializer.DOUBLE_TYPE 
+				|| type == BasisSetSerializer.LONG_TYPE)
+		{
+			result = 8;
+		}
+		else if (type == BasisSetSerializer.INT_TYPE 
+				|| type == BasisSetSerializer.FLOAT_TYPE)
+		{
+			result = 4;
+		}
+		else if (type == BasisSetSerializer.SHORT_TYPE 
+				|| type == BasisSetSerializer.CHAR_TYPE)
+		{
+			result = 2;
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Returns the UTF-8 encoding of the given String.
+	 * 
+	 * @param string a String
+	 * @return the encoded String
+	 */
+	private static byte[] toUtf8(String string)
+	{
+		byte[] result = null;
+		
+		try
+		{
+			result = string.getBytes("UTF-8");
+		}
+		catch (java.io.UnsupportedEncodingException e)
+		{
+			// Every JVM supports UTF-8
+			result = string.getBytes();
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * A ByteArrayOutputStream whose buffer can be read without a copy.
+	 */
+	private static class ExposedByteArrayOutputStream 
+		extends ByteArrayOutputStream
+	{
+		/**
+		 * Returns the buffer of this stream, which holds <code>size()</code>
+		 * valid bytes.
+		 * 
+		 * @return the buffer
+		 */
+		byte[] getBuffer()
+		{
+			return (buf);
+		}
+	}
+	
+	/**
+	 * An InputStream over the next bytes of a ByteBuffer, which advances the
+	 * position of the ByteBuffer as it is read.
+	 */
+	private static class ByteBufferInputStream extends InputStream
+	{
+		private ByteBuffer fBuffer;
+		private int fRemaining;
+		
+		/**
+		 * Constructs a stream over the given number of bytes of the given 
+		 * buffer, starting at its position.
+		 * 
+		 * @param buffer the buffer to read
+		 * @param length the number of bytes to read
+		 */
+		ByteBufferInputStream(ByteBuffer buffer, int length)
+		{
+			fBuffer = buffer;
+			fRemaining = length;
+		}
+		
+		public int read()
+		{
+			int result = -1;
+			
+			if (fRemaining > 0)
+			{
+				fRemaining--;
+				result = fBuffer.get() & 0xff;
+			}
+			
+			return (result);
+		}
+		
+		public int read(byte[] bytes, int offset, int length)
+		{
+			int result = -1;
+			
+			if (fRemaining > 0)
+			{
+				result = Math.min(length, fRemaining);
+				fBuffer.get(bytes, offset, result);
+				fRemaining -= result;
+			}
+			else if (length == 0)
+			{
+				result = 0;
+			}
+			
+			return (result);
+		}
+		
+		public int available()
+		{
+			return (fRemaining);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
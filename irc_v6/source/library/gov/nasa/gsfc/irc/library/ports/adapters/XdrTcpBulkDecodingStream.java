@@ -0,0 +1,450 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.ports.adapters;
+
+import gov.nasa.gsfc.irc.data.DataBuffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+
+import org.acplt.oncrpc.OncRpcException;
+import org.acplt.oncrpc.XdrDecodingStream;
+
+
+/**
+ * An XdrTcpBulkDecodingStream decodes XDR records, delimited by the standard 
+ * TCP record marking, read from a channel into a reused direct ByteBuffer. 
+ * It is wire-compatible with the <code>XdrTcpDecodingStream</code> of the 
+ * ONC/RPC library, and all of the decoding methods of 
+ * <code>XdrDecodingStream</code> may be used on it.
+ * <p>
+ * In addition, {@link #xdrDecodeDataBuffer(DataBuffer)} decodes an XDR vector 
+ * straight into the native array of a DataBuffer. XDR ints, floats, hypers 
+ * and doubles are big-endian, as is the ByteBuffer, so each run of elements 
+ * within a fragment is transferred with a single bulk copy, without the 
+ * intermediate array that <code>xdrDecodeDoubleVector</code> and the other 
+ * vector methods allocate.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$
+ * @author $Author$
+ * @see <a href="http://www.ietf.org/rfc/rfc1831.txt">RFC 1831 (Record Marking)</a>
+ */
+public class XdrTcpBulkDecodingStream extends XdrDecodingStream
+{
+	private static final int MIN_BUFFER_SIZE = 64;
+	private static final int LAST_FRAGMENT = 0x80000000;
+	
+	private ReadableByteChannel fChannel;
+	private ByteBuffer fBuffer;
+	
+	// The number of bytes of the current fragment not yet decoded, some of 
+	// which may not yet have been read from the channel.
+	private int fFragmentRemaining = 0;
+	private boolean fLastFragment = true;
+	
+	
+	/**
+	 * Constructs a new XdrTcpBulkDecodingStream that reads from the given 
+	 * blocking channel through a buffer of the given size.
+	 * 
+	 * @param channel The channel to read from
+	 * @param bufferSize The size in bytes of the read buffer
+	 */
+	public XdrTcpBulkDecodingStream(ReadableByteChannel channel, int bufferSize)
+	{
+		fChannel = channel;
+		fBuffer = ByteBuffer.allocateDirect(Math.max(bufferSize, MIN_BUFFER_SIZE));
+		fBuffer.limit(0);
+	}
+
+	/**
+	 * Returns the address of the remote end of the channel, if it is a 
+	 * SocketChannel, or null otherwise.
+	 * 
+	 * @return The address of the sender
+	 */
+	public InetAddress getSenderAddress()
+	{
+		InetAddress result = null;
+		
+		if (fChannel instanceof SocketChannel)
+		{
+			result = ((SocketChannel) fChannel).socket().getInetAddress();
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Returns the port of the remote end of the channel, if it is a 
+	 * SocketChannel, or -1 otherwise.
+	 * 
+	 * @return The port of the sender
+	 */
+	public int getSenderPort()
+	{
+		int result = -1;
+		
+		if (fChannel instanceof SocketChannel)
+		{
+			result = ((SocketChannel) fChannel).socket().getPort();
+		}
+		
+		return (result);
+	}
+
+	/**
+	 * Begins decoding a new record by reading the header of its first 
+	 * fragment.
+	 * 
+	 * @throws IOException if the channel cannot be read
+	 */
+	public void beginDecoding() throws OncRpcException, IOException
+	{
+		fFragmentRemaining = 0;
+		fLastFragment = false;
+		
+		nextFragment();
+	}
+
+	/**
+	 * Ends decoding the current record, skipping whatever remains of it.
+	 * 
+	 * @throws IOException if the channel cannot be read
+	 */
+	public void endDecoding() throws OncRpcException, IOException
+	{
+		while (fFragmentRemaining > 0 || !fLastFragment)
+		{
+			if (fFragmentRemaining == 0)
+			{
+				nextFragment();
+			}
+			else
+			{
+				if (!fBuffer.hasRemaining())
+				{
+					fill();
+				}
+				
+				int skipped = Math.min(fFragmentRemaining, fBuffer.remaining());
+				
+				fBuffer.position(fBuffer.position() + skipped);
+				fFragmentRemaining -= skipped;
+			}
+		}
+	}
+
+	/**
+	 * Closes the channel.
+	 * 
+	 * @throws IOException if the channel cannot be closed
+	 */
+	public void close() throws OncRpcException, IOException
+	{
+		fChannel.close();
+	}
+
+	/**
+	 * Decodes an XDR int.
+	 * 
+	 * @return The decoded int
+	 * @throws OncRpcException if the record has no more data
+	 * @throws IOException if the channel cannot be read
+	 */
+	public int xdrDecodeInt() throws OncRpcException, IOException
+	{
+		ensure(4);
+		
+		fFragmentRemaining -= 4;
+		
+		return (fBuffer.getInt());
+	}
+
+	/**
+	 * Decodes the given number of bytes of XDR opaque data, and skips its 
+	 * padding.
+	 * 
+	 * @param length The number of bytes to decode
+	 * @return The decoded bytes
+	 * @throws OncRpcException if the record has too little data
+	 * @throws IOException if the channel cannot be read
+	 */
+	public byte[] xdrDecodeOpaque(int length) throws OncRpcException, IOException
+	{
+		byte[] result = new byte[length];
+		
+		xdrDecodeOpaque(result, 0, length);
+		
+		return (result);
+	}
+
+	/**
+	 * Decodes the given number of bytes of XDR opaque data into the given 
+	 * array, and skips its padding.
+	 * 
+	 * @param opaque The array to decode into
+	 * @param offset The index of the first byte decoded in the array
+	 * @param length The number of bytes to decode
+	 * @throws OncRpcException if the record has too little data
+	 * @throws IOException if the channel cannot be read
+	 */
+	public void xdrDecodeOpaque(byte[] opaque, int offset, int length) 
+		throws OncRpcException, IOException
+	{
+		int padding = (4 - (length & 3)) & 3;
+		
+		while (length > 0)
+		{
+			ensure(1);
+			
+			int count = Math.min(length, available());
+			
+			fBuffer.get(opaque, offset, count);
+			fFragmentRemaining -= count;
+			offset += count;
+			length -= count;
+		}
+		
+		if (padding > 0)
+		{
+			ensure(padding);
+			
+			fBuffer.position(fBuffer.position() + padding);
+			fFragmentRemaining -= padding;
+		}
+	}
+	
+	/**
+	 * Decodes an XDR vector whose elements are of the type of the given 
+	 * DataBuffer into it, starting at its first element. Elements of type 
+	 * double, float, long and int are transferred in bulk; elements of type 
+	 * short, char and byte, which XDR encodes as ints, are narrowed one by one.
+	 * 
+	 * @param destination The DataBuffer to decode into
+	 * @return The number of elements decoded
+	 * @throws OncRpcException if the record has too little data, or the vector 
+	 * 		does not fit in the destination
+	 * @throws IOException if the channel cannot be read
+	 * @throws IllegalArgumentException if the destination does not hold 
+	 * 		primitive elements
+	 */
+	public int xdrDecodeDataBuffer(DataBuffer destination) 
+		throws OncRpcException, IOException
+	{
+		int length = xdrDecodeInt();
+		
+		if (length < 0 || length > destination.getSize())
+		{
+			String message = "XDR vector of " + length + 
+				" elements does not fit in " + destination.getName();
+			
+			throw (new OncRpcException(message));
+		}
+		
+		Class type = destination.getDataBufferType();
+		
+		if (type == double.class || type == long.class)
+		{
+			decodeBulk(destination, length, 8);
+		}
+		else if (type == int.class || type == float.class)
+		{
+			decodeBulk(destination, length, 4);
+		}
+		else if (type == short.class)
+		{
+			for (int i = 0; i < length; i++)
+			{
+				destination.put(i, (short) xdrDecodeInt());
+			}
+		}
+		else if (type == char.class)
+		{
+			for (int i = 0; i < length; i++)
+			{
+				destination.put(i, (char) xdrDecodeInt());
+			}
+		}
+		else if (type == byte.class)
+		{
+			for (int i = 0; i < length; i++)
+			{
+				destination.put(i, (byte) xdrDecodeInt());
+			}
+		}
+		else
+		{
+			String message = "Cannot decode elements of type " + type + 
+				" in bulk";
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		return (length);
+	}
+	
+	/**
+	 * Transfers the given number of elements of the given size from the 
+	 * record into the given DataBuffer, one bulk copy per contiguous run.
+	 */
+	private void decodeBulk(DataBuffer destination, int length, int elementSize) 
+		throws OncRpcException, IOException
+	{
+		int index = 0;
+		
+		while (index < length)
+		{
+			ensure(elementSize);
+			
+			int count = Math.min(length - index, available() / elementSize);
+			int limit = fBuffer.limit();
+			
+			fBuffer.limit(fBuffer.position() + count * elementSize);
+			destination.put(index, fBuffer, count);
+			fBuffer.limit(limit);
+			
+			fFragmentRemaining -= count * elementSize;
+			index += count;
+		}
+	}
+	
+	/**
+	 * Returns the number of bytes of the current fragment that are in the 
+	 * buffer.
+	 */
+	private int available()
+	{
+		return (Math.min(fBuffer.remaining(), fFragmentRemaining));
+	}
+	
+	/**
+	 * Ensures that the given number of bytes of the record, at most eight, are 
+	 * contiguous in the buffer, reading further data and removing fragment 
+	 * headers as needed.
+	 */
+	private void ensure(int length) throws OncRpcException, IOException
+	{
+		while (available() < length)
+		{
+			int available = available();
+			
+			if (fFragmentRemaining > fBuffer.remaining())
+			{
+				fill();
+			}
+			else if (available == 0)
+			{
+				nextFragment();
+			}
+			else
+			{
+				// The value is split between two fragments, so move its first 
+				// part up against the remainder, over the fragment header.
+				
+				if (fLastFragment)
+				{
+					throw (new OncRpcException(OncRpcException.RPC_BUFFERUNDERFLOW));
+				}
+				
+				while (fBuffer.remaining() < available + 4)
+				{
+					fill();
+				}
+				
+				int position = fBuffer.position();
+				int header = fBuffer.getInt(position + available);
+				
+				for (int i = available - 1; i >= 0; i--)
+				{
+					fBuffer.put(position + 4 + i, fBuffer.get(position + i));
+				}
+				
+				fBuffer.position(position + 4);
+				fFragmentRemaining = available + (header & ~LAST_FRAGMENT);
+				fLastFragment = (header & LAST_FRAGMENT) != 0;
+			}
+		}
+	}
+	
+	/**
+	 * Reads the header of the next fragment of the record.
+	 */
+	private void nextFragment() throws OncRpcException, IOException
+	{
+		if (fLastFragment)
+		{
+			throw (new OncRpcException(OncRpcException.RPC_BUFFERUNDERFLOW));
+		}
+		
+		while (fBuffer.remaining() < 4)
+		{
+			fill();
+		}
+		
+		int header = fBuffer.getInt();
+		
+		fFragmentRemaining = header & ~LAST_FRAGMENT;
+		fLastFragment = (header & LAST_FRAGMENT) != 0;
+	}
+	
+	/**
+	 * Reads at least one more byte from the channel into the buffer, keeping 
+	 * the bytes not yet decoded.
+	 */
+	private void fill() throws IOException
+	{
+		fBuffer.compact();
+		
+		try
+		{
+			int count = 0;
+			
+			while (count == 0)
+			{
+				count = fChannel.read(fBuffer);
+			}
+			
+			if (count < 0)
+			{
+				throw (new EOFException("End of XDR stream"));
+			}
+		}
+		finally
+		{
+			fBuffer.flip();
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,363 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.ports.adapters.encoders.tcp.basisset;
+
+import gov.nasa.gsfc.commons.types.buffers.PooledBufferHandle;
+import gov.nasa.gsfc.commons.types.queues.KeepOptionalBoundedQueue;
+import gov.nasa.gsfc.irc.data.BasisBundleId;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.DataSet;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+import gov.nasa.gsfc.irc.library.ports.adapters.AbstractBasisSetTcpOutputAdapter;
+import gov.nasa.gsfc.irc.library.ports.adapters.BasisSetWireCodec;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Uses the bulk binary
+ * {@link gov.nasa.gsfc.irc.library.ports.adapters.BasisSetWireCodec BasisSetWireCodec}
+ * format to encode data sets over a (TCP) socket. Each packet is encoded 
+ * into a pooled buffer and written to the socket with a single channel 
+ * write, so no per-sample objects are created on the publishing side.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ * 
+ * @version	$Date$
+ * @author	$Author$
+ */
+public class WireTcpEncoder extends Thread implements BasisSetTcpEncoder
+{
+	private static final String CLASS_NAME = WireTcpEncoder.class.getName();
+	
+	/**
+	 * Logger for this class
+	 */
+	private static final Logger sLogger = Logger.getLogger(CLASS_NAME);
+	
+	public static final String KEEP_ALL_STR = "keepAll";
+	public static final String KEEP_LATEST_STR = "keepLatest";
+	public static final String KEEP_EARLIEST_STR = "keepEarliest";
+	
+	private Socket fSocket = null;
+	private WritableByteChannel fChannel = null;
+	private KeepOptionalBoundedQueue fOutputQueue = null;
+	private BasisSetWireCodec fWireCodec = new BasisSetWireCodec();
+	private boolean fEnabled = true;
+	
+	/**
+	 * The Input(s) associated with the data requests
+	 * for this encoder (if using the generic data request
+	 * mechanism)
+	 */
+	private List fInputs; 
+	
+	/**
+	 * The "parent" Tcp Output Adapter, which supplies the basis bundle
+	 * descriptor map and whether the adapter is still running.
+	 */
+	private AbstractBasisSetTcpOutputAdapter fTcpOutputAdapter;
+
+	private String fSetupError;
+	
+	/**
+	 * Constructs a new WireTcpEncoder.
+	 *
+	 * @param outputAdapter The parent output adapter
+	 * @param socket The open client socket
+	 * @param keepMode The keep policy for queue
+	 * @param capacity The maximum number of DataSetEvents that will be queued up.
+	 * @param bufferSizeBytes The size of the socket send buffer
+	 * @param setupError An error to send to the client instead of data, or null
+	 * @param inputs The Inputs to shut down when this encoder closes
+	 */
+	public WireTcpEncoder(AbstractBasisSetTcpOutputAdapter outputAdapter,
+			Socket socket, String keepMode, int capacity, int bufferSizeBytes, 
+			String setupError, List inputs)
+	{
+		fTcpOutputAdapter = outputAdapter;
+		fSocket = socket;
+		fOutputQueue = new KeepOptionalBoundedQueue(capacity);
+		fSetupError = setupError;
+		fInputs = inputs;		
+		
+		if (keepMode != null)
+		{
+			if (keepMode.equals(KEEP_ALL_STR))
+			{
+				fOutputQueue.setKeepAll();
+			}
+			else if (keepMode.equals(KEEP_LATEST_STR))
+			{
+				fOutputQueue.setKeepLatest();
+			}
+			else if (keepMode.equals(KEEP_EARLIEST_STR))
+			{
+				fOutputQueue.setKeepEarliest();
+			}
+		}
+		
+		try
+		{
+			fSocket.setSendBufferSize(bufferSizeBytes);
+		} 
+		catch (SocketException e1)
+		{
+			String message = "Unable to set send buffer size to " + 
+				bufferSizeBytes;
+			sLogger.logp(Level.WARNING, CLASS_NAME, "WireTcpEncoder", 
+				message, e1);
+		}
+		
+		if (fSocket.getChannel() != null)
+		{
+			fChannel = fSocket.getChannel();
+		}
+		else
+		{
+			try
+			{
+				fChannel = Channels.newChannel(fSocket.getOutputStream());
+			}
+			catch (IOException e)
+			{
+				String message = "Could not open socket output";
+				
+				sLogger.logp(Level.SEVERE, CLASS_NAME, "WireTcpEncoder", 
+					message, e);
+			}
+		}
+	}
+	
+	/**
+	 * Repeatedly removes DataSets from the queue and publishes them
+	 * until interrupted or an exception occurs.
+	 */
+	public void run()
+	{
+		try
+		{
+			if (fSetupError != null)
+			{
+				writePacket(fWireCodec.encodeError(fSetupError));
+			}			
+			else
+			{			
+				publishAllDescriptors();
+				
+				while (!isInterrupted())
+				{
+					try
+					{
+						Object queuedObject = fOutputQueue.blockingRemove();
+						
+						if (queuedObject instanceof DataSet)
+						{
+							publishDataSet((DataSet) queuedObject);
+						}
+						else if (queuedObject instanceof BasisBundleId)
+						{
+							BasisBundleDescriptor descriptor = 
+								(BasisBundleDescriptor) fTcpOutputAdapter.
+									getBasisBundleDescriptorMap().get(queuedObject);
+							
+							if (descriptor != null)
+							{
+								writePacket(fWireCodec.encodeDescriptor(
+									(BasisBundleId) queuedObject, descriptor));
+							}
+						}
+					}
+					catch (InterruptedException e)
+					{
+						String message = "Exception from interrupted Connection";
+						sLogger.logp(
+								Level.FINE, CLASS_NAME, 
+								"run", message, e);
+						
+						interrupt();
+					}
+				}
+			}
+		}
+		catch (Exception e)
+		{
+			sLogger.logp(Level.SEVERE, CLASS_NAME, "run", e.toString(), e);
+		}
+		finally
+		{
+			close();
+		}
+	}
+	
+	/**
+	 * Adds a BasisBundleId to the publish queue.
+	 * 
+	 * @param inputBasisBundleId the id of the change to publish to clients
+	 */
+	public void handleBasisBundleChange(BasisBundleId inputBasisBundleId)
+	{
+		if (fEnabled)
+		{
+			try
+			{
+				fOutputQueue.blockingAdd(inputBasisBundleId);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	/**
+	 * Adds DataSet to publish queue.
+	 * 
+	 * @param dataSet the DataSet to publish
+	 */
+	public void handleDataSet(DataSet dataSet)
+	{
+		if (fEnabled)
+		{
+			try
+			{
+				fOutputQueue.blockingAdd(dataSet);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	/**
+	 * Closes this handler and clears the publish queue.
+	 */
+	protected void close()
+	{
+		fEnabled = false;
+		
+		try
+		{		
+			// Clear out any pending publishables.
+			while (!fOutputQueue.isEmpty())
+			{
+				fOutputQueue.remove();
+			}
+			
+			fWireCodec.close();
+			fSocket.close();
+		}
+		catch (IOException e)
+		{
+			String message = "Exception closing socket";
+			
+			sLogger.logp(Level.WARNING, CLASS_NAME, "close", message, e);
+		}
+		finally
+		{
+			fTcpOutputAdapter.shutdownInputs(fInputs);
+		}		
+	}
+	
+	/**
+	 * Publishes all current descriptors.
+	 */
+	private void publishAllDescriptors() throws IOException
+	{
+		if (fTcpOutputAdapter.isStarted())
+		{
+			Iterator entries = fTcpOutputAdapter.getBasisBundleDescriptorMap().
+				entrySet().iterator();
+			
+			while (entries.hasNext())
+			{
+				Map.Entry entry = (Map.Entry) entries.next();
+				BasisBundleId bundleId = (BasisBundleId) entry.getKey();
+				BasisBundleDescriptor descriptor = 
+					(BasisBundleDescriptor) entry.getValue();
+				
+				writePacket(fWireCodec.encodeDescriptor(bundleId, descriptor));
+			}
+		}		
+	}	
+	
+	/**
+	 * Publishes each BasisSet of the given DataSet.
+	 * 
+	 * @param dataSet A DataSet
+	 */	
+	public void publishDataSet(DataSet dataSet) throws IOException
+	{
+		Iterator basisSets = dataSet.getBasisSets().iterator();
+		
+		while (basisSets.hasNext())
+		{
+			BasisSet basisSet = (BasisSet) basisSets.next();
+			
+			if (fTcpOutputAdapter.isStarted())
+			{
+				writePacket(fWireCodec.encodeBasisSet(basisSet));
+			}
+		}
+	}
+	
+	/**
+	 * Writes the encoded packet held by the given handle to the socket and
+	 * returns its buffer to the pool.
+	 * 
+	 * @param handle A handle to an encoded packet
+	 * @throws IOException if the packet could not be written
+	 */
+	private void writePacket(PooledBufferHandle handle) throws IOException
+	{
+		try
+		{
+			ByteBuffer packet = handle.getByteBuffer();
+			
+			while (packet.hasRemaining())
+			{
+				fChannel.write(packet);
+			}
+		}
+		finally
+		{
+			handle.release();
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,290 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.ports.adapters.encoders.tcp.basisset;
+
+import gov.nasa.gsfc.irc.data.DataBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+import org.acplt.oncrpc.OncRpcException;
+import org.acplt.oncrpc.XdrEncodingStream;
+
+
+/**
+ * An XdrTcpBulkEncodingStream encodes XDR records into a reused buffer and 
+ * writes them to a socket as fragments delimited by the standard TCP record 
+ * marking. It is wire-compatible with the <code>XdrTcpEncodingStream</code> 
+ * of the ONC/RPC library, and all of the encoding methods of 
+ * <code>XdrEncodingStream</code> may be used on it.
+ * <p>
+ * In addition, {@link #xdrEncodeDataBuffer(DataBuffer)} encodes a DataBuffer 
+ * as an XDR vector straight from its native array. XDR ints, floats, hypers 
+ * and doubles are big-endian, as is the buffer, so each run of elements that 
+ * fits in a fragment is transferred with a single bulk copy, without the 
+ * intermediate array that <code>getAsDoubleArray</code> and the other array 
+ * accessors allocate.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$
+ * @author $Author$
+ * @see <a href="http://www.ietf.org/rfc/rfc1831.txt">RFC 1831 (Record Marking)</a>
+ */
+public class XdrTcpBulkEncodingStream extends XdrEncodingStream
+{
+	private static final int MIN_BUFFER_SIZE = 64;
+	private static final int HEADER_SIZE = 4;
+	private static final int LAST_FRAGMENT = 0x80000000;
+	
+	private Socket fSocket;
+	private OutputStream fStream;
+	private ByteBuffer fBuffer;
+	
+	
+	/**
+	 * Constructs a new XdrTcpBulkEncodingStream that writes fragments of at 
+	 * most the given size, including their headers, to the given socket.
+	 * 
+	 * @param socket The socket to write to
+	 * @param bufferSize The size in bytes of the write buffer
+	 * @throws IOException if the output stream of the socket is unavailable
+	 */
+	public XdrTcpBulkEncodingStream(Socket socket, int bufferSize) 
+		throws IOException
+	{
+		fSocket = socket;
+		fStream = socket.getOutputStream();
+		fBuffer = ByteBuffer.allocate(Math.max(bufferSize, MIN_BUFFER_SIZE));
+		fBuffer.position(HEADER_SIZE);
+	}
+
+	/**
+	 * Returns the address of the remote end of the socket.
+	 * 
+	 * @return The address of the receiver
+	 */
+	public InetAddress getSenderAddress()
+	{
+		return (fSocket.getInetAddress());
+	}
+
+	/**
+	 * Returns the port of the remote end of the socket.
+	 * 
+	 * @return The port of the receiver
+	 */
+	public int getSenderPort()
+	{
+		return (fSocket.getPort());
+	}
+
+	/**
+	 * Begins encoding a new record.
+	 * 
+	 * @param receiverAddress Ignored
+	 * @param receiverPort Ignored
+	 */
+	public void beginEncoding(InetAddress receiverAddress, int receiverPort) 
+		throws OncRpcException, IOException
+	{
+		fBuffer.clear();
+		fBuffer.position(HEADER_SIZE);
+	}
+
+	/**
+	 * Ends encoding the current record, writing its last fragment.
+	 * 
+	 * @throws IOException if the socket cannot be written
+	 */
+	public void endEncoding() throws OncRpcException, IOException
+	{
+		writeFragment(true);
+		
+		fStream.flush();
+	}
+
+	/**
+	 * Closes the output stream of the socket.
+	 * 
+	 * @throws IOException if the stream cannot be closed
+	 */
+	public void close() throws OncRpcException, IOException
+	{
+		fStream.close();
+	}
+
+	/**
+	 * Encodes an XDR int.
+	 * 
+	 * @param value The int to encode
+	 * @throws IOException if the socket cannot be written
+	 */
+	public void xdrEncodeInt(int value) throws OncRpcException, IOException
+	{
+		if (fBuffer.remaining() < 4)
+		{
+			writeFragment(false);
+		}
+		
+		fBuffer.putInt(value);
+	}
+
+	/**
+	 * Encodes the given bytes of the given array as XDR opaque data, followed 
+	 * by its padding.
+	 * 
+	 * @param value The array of bytes to encode
+	 * @param offset The index of the first byte to encode
+	 * @param length The number of bytes to encode
+	 * @throws IOException if the socket cannot be written
+	 */
+	public void xdrEncodeOpaque(byte[] value, int offset, int length) 
+		throws OncRpcException, IOException
+	{
+		int padding = (4 - (length & 3)) & 3;
+		
+		while (length > 0)
+		{
+			if (!fBuffer.hasRemaining())
+			{
+				writeFragment(false);
+			}
+			
+			int count = Math.min(length, fBuffer.remaining());
+			
+			fBuffer.put(value, offset, count);
+			offset += count;
+			length -= count;
+		}
+		
+		for (int i = 0; i < padding; i++)
+		{
+			if (!fBuffer.hasRemaining())
+			{
+				writeFragment(false);
+			}
+			
+			fBuffer.put((byte) 0);
+		}
+	}
+	
+	/**
+	 * Encodes the elements of the given DataBuffer as an XDR vector of 
+	 * elements of its type. Elements of type double, float, long and int are 
+	 * transferred in bulk; elements of type short, char and byte, which XDR 
+	 * encodes as ints, are widened one by one.
+	 * 
+	 * @param source The DataBuffer to encode
+	 * @throws IOException if the socket cannot be written
+	 * @throws IllegalArgumentException if the source does not hold primitive 
+	 * 		elements
+	 */
+	public void xdrEncodeDataBuffer(DataBuffer source) 
+		throws OncRpcException, IOException
+	{
+		int length = source.getSize();
+		Class type = source.getDataBufferType();
+		
+		if (type == double.class || type == long.class)
+		{
+			xdrEncodeInt(length);
+			encodeBulk(source, length, 8);
+		}
+		else if (type == int.class || type == float.class)
+		{
+			xdrEncodeInt(length);
+			encodeBulk(source, length, 4);
+		}
+		else if (type == short.class || type == char.class || type == byte.class)
+		{
+			xdrEncodeInt(length);
+			
+			for (int i = 0; i < length; i++)
+			{
+				xdrEncodeInt(source.getAsInt(i));
+			}
+		}
+		else
+		{
+			String message = "Cannot encode elements of type " + type + 
+				" in bulk";
+			
+			throw (new IllegalArgumentException(message));
+		}
+	}
+	
+	/**
+	 * Transfers the elements of the given DataBuffer, of the given size, into 
+	 * the record, one bulk copy per run that fits in the current fragment.
+	 */
+	private void encodeBulk(DataBuffer source, int length, int elementSize) 
+		throws IOException
+	{
+		int index = 0;
+		
+		while (index < length)
+		{
+			int count = Math.min(length - index, fBuffer.remaining() / elementSize);
+			
+			if (count == 0)
+			{
+				writeFragment(false);
+			}
+			else if (count == length)
+			{
+				source.get(fBuffer);
+				index = length;
+			}
+			else
+			{
+				source.slice(index, count).get(fBuffer);
+				index += count;
+			}
+		}
+	}
+	
+	/**
+	 * Writes the buffered data as one fragment, marked as the last of its 
+	 * record if so indicated, and empties the buffer.
+	 */
+	private void writeFragment(boolean last) throws IOException
+	{
+		int length = fBuffer.position() - HEADER_SIZE;
+		
+		fBuffer.putInt(0, last ? (length | LAST_FRAGMENT) : length);
+		fStream.write(fBuffer.array(), fBuffer.arrayOffset(), fBuffer.position());
+		
+		fBuffer.clear();
+		fBuffer.position(HEADER_SIZE);
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
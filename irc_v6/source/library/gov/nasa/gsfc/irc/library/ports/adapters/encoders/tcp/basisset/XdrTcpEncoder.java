@@ -43,7 +43,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.acplt.oncrpc.OncRpcException;
-import org.acplt.oncrpc.XdrTcpEncodingStream;
+import org.acplt.oncrpc.XdrEncodingStream;
 
 /**
  * This class encodes basis sets over a TCP socket using the eXternal Data
@@ -287,7 +287,7 @@ public class XdrTcpEncoder extends Thread implements BasisSetTcpEncoder
 		
 		try
 		{
-			fOutputHandle = new XdrTcpEncodingStream(socket, bufferSizeBytes);
+			fOutputHandle = new XdrTcpBulkEncodingStream(socket, bufferSizeBytes);
 		} catch (IOException e1)
 		{
 			sLogger
@@ -465,9 +465,9 @@ public class XdrTcpEncoder extends Thread implements BasisSetTcpEncoder
 			ObjectOutputStream ooStream = (ObjectOutputStream) fOutputHandle;
 			ooStream.close();
 		}
-		else if (fOutputHandle instanceof XdrTcpEncodingStream)
+		else if (fOutputHandle instanceof XdrEncodingStream)
 		{
-			XdrTcpEncodingStream xdrEncoder = (XdrTcpEncodingStream) fOutputHandle;
+			XdrEncodingStream xdrEncoder = (XdrEncodingStream) fOutputHandle;
 			try
 			{
 				xdrEncoder.close();
@@ -612,9 +612,9 @@ public class XdrTcpEncoder extends Thread implements BasisSetTcpEncoder
 			ObjectOutputStream ooStream = (ObjectOutputStream) fOutputHandle;
 			ooStream.writeUnshared(fHeader);			
 		}
-		else if (fOutputHandle instanceof XdrTcpEncodingStream)
+		else if (fOutputHandle instanceof XdrEncodingStream)
 		{
-			XdrTcpEncodingStream xdrEncoder = (XdrTcpEncodingStream) fOutputHandle;
+			XdrEncodingStream xdrEncoder = (XdrEncodingStream) fOutputHandle;
 			try
 			{
 				xdrEncoder.beginEncoding(null, 0);
@@ -701,9 +701,9 @@ public class XdrTcpEncoder extends Thread implements BasisSetTcpEncoder
 			ObjectOutputStream ooStream = (ObjectOutputStream) fOutputHandle;
 			ooStream.writeUnshared(fHeader);			
 		}
-		else if (fOutputHandle instanceof XdrTcpEncodingStream)
+		else if (fOutputHandle instanceof XdrEncodingStream)
 		{
-			XdrTcpEncodingStream xdrEncoder = (XdrTcpEncodingStream) fOutputHandle;
+			XdrEncodingStream xdrEncoder = (XdrEncodingStream) fOutputHandle;
 			try
 			{
 				xdrEncoder.beginEncoding(null, 0);
@@ -735,9 +735,9 @@ public class XdrTcpEncoder extends Thread implements BasisSetTcpEncoder
 			ObjectOutputStream ooStream = (ObjectOutputStream) fOutputHandle;
 			ooStream.writeUnshared(fHeader);			
 		}
-		else if (fOutputHandle instanceof XdrTcpEncodingStream)
+		else if (fOutputHandle instanceof XdrEncodingStream)
 		{
-			XdrTcpEncodingStream xdrEncoder = (XdrTcpEncodingStream) fOutputHandle;
+			XdrEncodingStream xdrEncoder = (XdrEncodingStream) fOutputHandle;
 			try
 			{
 				xdrEncoder.beginEncoding(null, 0);
@@ -755,7 +755,8 @@ public class XdrTcpEncoder extends Thread implements BasisSetTcpEncoder
 	}
 
 	/**
-	 * Writes the DataBuffer to the given output stream.
+	 * Writes the DataBuffer to the given output stream. Primitive values are 
+	 * encoded straight from the DataBuffer by the XdrTcpBulkEncodingStream.
 	 * 
 	 * @param outputStream the stream to write to
 	 * @param buffer the DataBuffer to write out.
@@ -764,7 +765,7 @@ public class XdrTcpEncoder extends Thread implements BasisSetTcpEncoder
 	private void writeDataBuffer(DataBuffer buffer) throws IOException
 	{
 		Class type = buffer.getDataBufferType();
-		XdrTcpEncodingStream xdrEncoder = (XdrTcpEncodingStream) fOutputHandle;
+		XdrTcpBulkEncodingStream xdrEncoder = (XdrTcpBulkEncodingStream) fOutputHandle;
 		try
 		{
 			xdrEncoder.beginEncoding(null, 0);
@@ -775,40 +776,38 @@ public class XdrTcpEncoder extends Thread implements BasisSetTcpEncoder
 			if (type == double.class)
 			{
 				xdrEncoder.xdrEncodeByte(AbstractBasisSetTcpOutputAdapter.DOUBLE_TYPE);
-				double[] doubles = buffer.getAsDoubleArray();
-				xdrEncoder.xdrEncodeDoubleVector(doubles);			
+				xdrEncoder.xdrEncodeDataBuffer(buffer);
 			}
 			else if (type == int.class)
 			{
 				xdrEncoder.xdrEncodeByte(AbstractBasisSetTcpOutputAdapter.INT_TYPE);
-				int[] ints = buffer.getAsIntArray();				
-				xdrEncoder.xdrEncodeIntVector(ints);
+				xdrEncoder.xdrEncodeDataBuffer(buffer);
 			}
 			else if (type == float.class)
 			{
 				xdrEncoder.xdrEncodeByte(AbstractBasisSetTcpOutputAdapter.FLOAT_TYPE);
-				xdrEncoder.xdrEncodeFloatVector(buffer.getAsFloatArray());
+				xdrEncoder.xdrEncodeDataBuffer(buffer);
 			}
 			else if (type == short.class)
 			{
 				xdrEncoder.xdrEncodeByte(AbstractBasisSetTcpOutputAdapter.SHORT_TYPE);
-				xdrEncoder.xdrEncodeShortVector(buffer.getAsShortArray());
+				xdrEncoder.xdrEncodeDataBuffer(buffer);
 			}
 			else if (type == long.class)
 			{
 				xdrEncoder.xdrEncodeByte(AbstractBasisSetTcpOutputAdapter.LONG_TYPE);
-				xdrEncoder.xdrEncodeLongVector(buffer.getAsLongArray());
+				xdrEncoder.xdrEncodeDataBuffer(buffer);
 			}
 			else if (type == byte.class)
 			{
 				xdrEncoder.xdrEncodeByte(AbstractBasisSetTcpOutputAdapter.BYTE_TYPE);
-				xdrEncoder.xdrEncodeByteVector(buffer.getAsByteArray());
+				xdrEncoder.xdrEncodeDataBuffer(buffer);
 			}		
 			else if (type == char.class)
 			{
+				// Encoded as ints
 				xdrEncoder.xdrEncodeByte(AbstractBasisSetTcpOutputAdapter.CHAR_TYPE);
-				int[] ints = buffer.getAsIntArray();				
-				xdrEncoder.xdrEncodeIntVector(ints);
+				xdrEncoder.xdrEncodeDataBuffer(buffer);
 			}		
 			else 
 			{
@@ -33,8 +33,7 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import gov.nasa.gsfc.commons.types.buffers.BufferHandle;
-import gov.nasa.gsfc.commons.types.buffers.SingleUseBufferHandle;
+import gov.nasa.gsfc.commons.types.buffers.PooledBufferHandle;
 import gov.nasa.gsfc.irc.description.Descriptor;
 import gov.nasa.gsfc.irc.devices.ports.connections.AbstractThreadedConnection;
 import gov.nasa.gsfc.irc.devices.ports.connections.Connection;
@@ -552,7 +551,9 @@ public class TcpClientConnection extends AbstractThreadedConnection
 	
 	/**
 	 * Reads data from the specified channel and fires a 
-	 * <code>fireConnectionDataEvent</code> method on the Connection.
+	 * <code>fireConnectionDataEvent</code> method on the Connection. The 
+	 * data is read into a buffer leased from the receive buffer pool, which
+	 * is released once the event has been delivered.
 	 * 
 	 * @param channel the socket channel to read from
 	 * @throws IOException
@@ -560,13 +561,16 @@ public class TcpClientConnection extends AbstractThreadedConnection
 	protected void readDataFromChannel(SocketChannel channel) 
 		throws IOException
 	{
-		ByteBuffer buffer = ByteBuffer.allocate(fReadBlockSize);
 		int bytesRead = 0;
 		int totalBytes = 0;
 		//System.out.println("socket buffer size:" + channel.socket().getReceiveBufferSize());
 		
 		if (channel.isConnected())
 		{
+			PooledBufferHandle handle = 
+				getReceiveBufferPool().acquire(fReadBlockSize);
+			ByteBuffer buffer = handle.getByteBuffer();
+			
 			try
 			{
 				//---Loop while data is available
@@ -581,7 +585,6 @@ public class TcpClientConnection extends AbstractThreadedConnection
 				if (totalBytes > 0)
 				{
 					buffer.flip();
-					BufferHandle handle = new SingleUseBufferHandle(buffer);
 
 					if (sLogger.isLoggable(Level.FINE))
 					{
@@ -615,6 +618,10 @@ public class TcpClientConnection extends AbstractThreadedConnection
 
 				throw new IOException(e.toString());
 			}
+			finally
+			{
+				handle.release();
+			}
 			
 			if (bytesRead < 0)
 			{
@@ -32,7 +32,9 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
@@ -42,7 +44,7 @@ import edu.emory.mathcs.backport.java.util.concurrent.CopyOnWriteArrayList;
 
 import gov.nasa.gsfc.commons.publishing.paths.Path;
 import gov.nasa.gsfc.commons.types.buffers.BufferHandle;
-import gov.nasa.gsfc.commons.types.buffers.SingleUseBufferHandle;
+import gov.nasa.gsfc.commons.types.buffers.PooledBufferHandle;
 import gov.nasa.gsfc.irc.description.Descriptor;
 import gov.nasa.gsfc.irc.devices.ports.connections.AbstractConnection;
 import gov.nasa.gsfc.irc.devices.ports.connections.AbstractDualThreadedConnection;
@@ -73,6 +75,18 @@ import gov.nasa.gsfc.irc.devices.ports.connections.OutputBufferEvent;
  * data demultiplexing if necessary, particularly if a complete message or data
  * block can be larger then the value of the read block size property.
  * 
+ * <p>
+ * Output is written to each client without blocking. Every client has a
+ * bounded queue of read-only views of the buffers that could not yet be 
+ * written to it, and the reading Thread writes these out as the client's
+ * socket becomes writable. One slow client therefore does not delay the 
+ * others. When the queue of a client is full, its overflow policy decides
+ * what happens to the next buffer: "block" waits for room, "drop" discards
+ * the buffer for that client only, and "disconnect" closes the client. The
+ * policy of each client is chosen by 
+ * {@link #getOverflowPolicy(InetAddress) getOverflowPolicy}, and the backlog
+ * of each client is available from {@link #getClientBacklogs()}.
+ * 
  * <P>
  * The configuration of this connection is specified by a ConnectionDescriptor.
  * The table below gives the configuration parameters specific to this connection.
@@ -105,6 +119,18 @@ import gov.nasa.gsfc.irc.devices.ports.connections.OutputBufferEvent;
  * <td align="left">The maximum number of simultaneous client connections
  * allowed. </td>
  * </tr>
+ * <tr align="center">
+ * <td>clientQueueCapacity</td>
+ * <td>64</td>
+ * <td align="left">The maximum number of output buffers queued for a 
+ * client that is not keeping up</td>
+ * </tr>
+ * <tr align="center">
+ * <td>clientOverflowPolicy</td>
+ * <td>block</td>
+ * <td align="left">What to do with output for a client whose queue is full:
+ * "block", "drop" or "disconnect"</td>
+ * </tr>
  * </table> </center>
  * 
  * <P>
@@ -141,6 +167,16 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 	public final static String PORT_KEY                = "port";
 	public final static String CONNECTIONS_ALLOWED_KEY = "connectionsAllowed";
 	public final static String BLOCK_SIZE_KEY          = "readBlockSize";
+	public final static String CLIENT_QUEUE_CAPACITY_KEY = "clientQueueCapacity";
+	public final static String OVERFLOW_POLICY_KEY     = "clientOverflowPolicy";
+	
+	//---Client overflow policies
+	public final static String OVERFLOW_BLOCK_STR      = "block";
+	public final static String OVERFLOW_DROP_STR       = "drop";
+	public final static String OVERFLOW_DISCONNECT_STR = "disconnect";
+	
+	//---Longest single wait of a blocked writer before it rechecks state
+	private final static long BLOCK_WAIT_MILLIS = 100;
 	
 	//============================================================================
 	// VARS
@@ -150,6 +186,8 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 	private int fConnectionsAllowed = 1;
 	private int fReadBlockSize      = 1024;
 	private int fServerPort         = 9999;
+	private int fClientQueueCapacity = 64;
+	private String fOverflowPolicy  = OVERFLOW_BLOCK_STR;
 	
 	//---Default object name
 	public final static String DEFAULT_NAME = "TCP/IP Server Socket Connection";
@@ -157,6 +195,9 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 	//---Open clients
 	private List fClientSockets = new CopyOnWriteArrayList();
 	
+	//---Clients with newly queued output awaiting write interest
+	private List fPendingWriters = new ArrayList();
+	
 	//---Selector
 	private Selector fSelector = null;
 
@@ -330,6 +371,70 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 						"configureFromDescriptor", message, e);
 			}
 		}
+
+		String strQueueCapacity = descriptor.getParameter(CLIENT_QUEUE_CAPACITY_KEY);
+		if (strQueueCapacity != null)
+		{		
+			try
+			{
+				int capacity = Integer.parseInt(strQueueCapacity);
+				
+				if (capacity < 1)
+				{
+					String message = 
+						"Attempt to build TcpServerConnection with invalid parameter "
+						+ CLIENT_QUEUE_CAPACITY_KEY + " = " + strQueueCapacity;
+	
+					sLogger.logp(Level.WARNING, CLASS_NAME, 
+							"configureFromDescriptor", message);
+				}
+				else 
+				{
+					fClientQueueCapacity = capacity;			
+				}
+			}
+			catch (NumberFormatException e)
+			{
+				String message = 
+					"Attempt to build TcpServerConnection with invalid parameter "
+					+ CLIENT_QUEUE_CAPACITY_KEY + " = " + strQueueCapacity;
+	
+				sLogger.logp(Level.WARNING, CLASS_NAME, 
+						"configureFromDescriptor", message, e);
+			}
+		}
+
+		String strPolicy = descriptor.getParameter(OVERFLOW_POLICY_KEY);
+		if (strPolicy != null)
+		{		
+			if (isOverflowPolicy(strPolicy))
+			{
+				fOverflowPolicy = strPolicy;
+			}
+			else
+			{
+				String message = 
+					"Attempt to build TcpServerConnection with invalid parameter "
+					+ OVERFLOW_POLICY_KEY + " = " + strPolicy;
+
+				sLogger.logp(Level.WARNING, CLASS_NAME, 
+						"configureFromDescriptor", message);
+			}
+		}
+	}
+	
+	/**
+	 * Returns true if the given String names one of the client overflow 
+	 * policies.
+	 * 
+	 * @param policy the String to check
+	 * @return true if the String is a valid overflow policy
+	 */
+	private static boolean isOverflowPolicy(String policy)
+	{
+		return (OVERFLOW_BLOCK_STR.equals(policy) 
+			|| OVERFLOW_DROP_STR.equals(policy)
+			|| OVERFLOW_DISCONNECT_STR.equals(policy));
 	}
 	
 	//============================================================================
@@ -373,6 +478,22 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 		return true;
 	}
 
+	/**
+	 * Returns the policy to apply when the output queue of the client at the
+	 * given address is full. This implementation returns the value of the 
+	 * clientOverflowPolicy property for every client. Subclasses can override
+	 * this method to, for example, let a critical client block the output 
+	 * while monitoring clients have their output dropped.
+	 * 
+	 * @param address the address of the client
+	 * @return one of OVERFLOW_BLOCK_STR, OVERFLOW_DROP_STR or 
+	 * 		OVERFLOW_DISCONNECT_STR
+	 */
+	protected String getOverflowPolicy(InetAddress address)
+	{
+		return fOverflowPolicy;
+	}
+
 	/**
 	 * Closes a server socket connection.
 	 */
@@ -416,10 +537,22 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 			{
 				//---Configure the channel for reading
 				channel.configureBlocking(false);
-				channel.register(fSelector, SelectionKey.OP_READ);
+				
+				String policy = 
+					getOverflowPolicy(channel.socket().getInetAddress());
+				
+				if (!isOverflowPolicy(policy))
+				{
+					policy = OVERFLOW_BLOCK_STR;
+				}
+				
+				ClientChannel client = new ClientChannel(
+					channel, policy, fClientQueueCapacity);
+				client.fKey = 
+					channel.register(fSelector, SelectionKey.OP_READ, client);
 				
 				//---Add new client socket to list of open sockets
-				fClientSockets.add(channel);
+				fClientSockets.add(client);
 				
 				if (sLogger.isLoggable(Level.INFO))
 				{
@@ -471,17 +604,20 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 	}
 
 	/**
-	 * Listens for new connections or data on client connections and calls the 
-	 * <code>acceptConnection</code> or <code>readDataFromChannel</code>
-	 * method on the Connection.
+	 * Listens for new connections, data on client connections, or room to
+	 * write queued output to client connections, and calls the 
+	 * <code>acceptConnection</code>, <code>readDataFromChannel</code> or
+	 * <code>writeQueuedData</code> method on the Connection.
 	 */
 	protected void serviceConnection()
 	{
 		try
 		{
+			registerPendingWriters();
+			
 			int channelsReady = fSelector.select();
 				
-			//---Check if any channels have a pending read or accept operation
+			//---Check if any channels have a pending operation
 			Set selectedSet = fSelector.selectedKeys();
 			
 			if (selectedSet != null && selectedSet.size() > 0)	
@@ -499,12 +635,20 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 						SocketChannel channel = server.accept();
 						acceptConnection(channel);
 					}
-
-					//---Check if there is data to read from connection
-					else if (key.isReadable())
+					else
 					{
-						SocketChannel channel = (SocketChannel) key.channel();
-						readDataFromChannel(channel);
+						//---Check if there is data to read from connection
+						if (key.isReadable())
+						{
+							SocketChannel channel = (SocketChannel) key.channel();
+							readDataFromChannel(channel);
+						}
+
+						//---Check if queued output can be written
+						if (key.isValid() && key.isWritable())
+						{
+							writeQueuedData((ClientChannel) key.attachment());
+						}
 					}
 					
 					//---Remove key from selected set
@@ -521,14 +665,15 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 
 	/**
 	 * Overrides super class implementation to first check if the event has Path
-	 * information specific to this connection. If the send context is null or
-	 * not relevant then this implementation calls <code>super</code>. If the
-	 * send context contains context information that is relevant this method
-	 * calls <code>process(ByteBuffer, InetAddress)</code>.
+	 * information specific to this connection. If the send context is 
+	 * relevant the buffer is only sent to the client it identifies, otherwise
+	 * it is sent to every client. If the data of the event is held by a 
+	 * BufferHandle, clients that cannot take the data immediately hold the
+	 * handle instead of a copy of the data.
 	 * 
 	 * @param event event containing a buffer
 	 * @see AbstractConnection
-	 * @see #process(ByteBuffer, InetAddress)
+	 * @see #process(ByteBuffer, SocketAddress)
 	 */
 	protected void handleQueuedOutputEvent(OutputBufferEvent event)
 	{
@@ -546,113 +691,106 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 			}
 		}
 		
-		if (context != null)
-		{
-			process(event.getData(), context);
-		}
-		else
-		{
-			super.handleQueuedOutputEvent(event);
-		}
+		sendToClients(event.getData(), event.getBufferHandle(), context);
 	}
 
 	/**
-	 * Writes the data to the given channel. This method will not return until 
-	 * all the data from the buffer is written to the channel.
-	 * 
-	 * @param buffer	the data to write
-	 * @param channel	the channel to write to
-	 * @throws IOException if writing to the channel results in an exception
+	 * Writes the contents of the Buffer to the connection(s) using 
+	 * information from the given context. Clients that cannot take all of
+	 * the data immediately are sent the rest as their socket allows.
+	 *
+	 * @param buffer ByteBuffer to write to the connection
+	 * @param context the context associated with the buffer.
 	 */
-	protected void writeDataToChannel(
-			ByteBuffer buffer, SocketChannel channel) throws IOException
+	public void process(ByteBuffer buffer, SocketAddress context)
 	{
-		try
-		{
-			//System.out.println(" Before TCP write remaining:" + buffer.remaining());
-			//System.out.println(" TCP send buffer size: " + channel.socket().getSendBufferSize());
-			int bytesToWrite = buffer.remaining();
-			int bytesWritten = 0;
-			int loops = 0;
-			
-			//---Loop while data is available
-			while (bytesWritten < bytesToWrite)
-			{
-				int bytesThisWrite = channel.write(buffer);
-				bytesWritten += bytesThisWrite;
-				loops++;
-				
-				if (bytesThisWrite == 0)
-				{
-					// Give the receiver time to catch up and reduce the
-					// risk of saturating the local processor.
-					try
-					{
-						Thread.sleep(10);
-					}
-					catch (InterruptedException e)
-					{
-						// Nothing to do here
-					}
-				}
-			}
-			
-			//System.out.println("bytes written loop: " + loops + " total:"+ bytesWritten );
-		}
-		catch (IOException ex)
-		{
-			String message = getFullyQualifiedName()
-					+ " exception writing to connection " + channel.toString();
-			sLogger.logp(Level.WARNING, CLASS_NAME, "writeDataToChannel",
-					message, ex);
-			
-			// Rethrow exception so caller can handle it
-			throw ex;
-		}
+		sendToClients(buffer, null, context);
 	}
 	
 	/**
-	 * Writes the contents of the Buffer to the connection(s) using 
-	 * information from the given context.
+	 * Writes the contents of the Buffer to the connection(s). Clients that 
+	 * cannot take all of the data immediately are sent the rest as their
+	 * socket allows.
 	 *
 	 * @param buffer ByteBuffer to write to the connection
-	 * @param context the context associated with the buffer.
-	 * @throws IOException if the write fails.
 	 */
-	public void process(ByteBuffer buffer, SocketAddress context)
+	public void process(ByteBuffer buffer)
+	{
+		sendToClients(buffer, null, null);
+	}
+
+	/**
+	 * Sends the remaining contents of the given buffer to each client, or 
+	 * only to the client at the given address if it is not null. The buffer
+	 * itself is not modified. Each client first gets as much of the data as
+	 * its socket will take without blocking; the rest is queued for the 
+	 * client as a read-only view. Queued views share either the buffer, kept
+	 * alive by the given handle, or a single copy of the buffer made for all
+	 * the clients that need one.
+	 * 
+	 * @param buffer the data to send
+	 * @param handle the handle holding the buffer, or null if the buffer may
+	 * 		be reused by the caller as soon as this method returns
+	 * @param context the address of the only client to send to, or null
+	 */
+	private void sendToClients(
+			ByteBuffer buffer, BufferHandle handle, SocketAddress context)
 	{
 		if (isStarted())
 		{
 			int initialOffset = buffer.position();
+			ByteBuffer copy = null;
 
-			// Loop over the list of sockets for the given context.
+			// Loop over the list of clients sending the buffer to each.
 			for (Iterator iter = fClientSockets.iterator(); iter.hasNext();)
 			{
-				SocketChannel channel = (SocketChannel) iter.next();
+				ClientChannel client = (ClientChannel) iter.next();
 				
-				if (context.equals(channel.socket().getRemoteSocketAddress()))
+				if (context == null || context.equals(
+						client.fChannel.socket().getRemoteSocketAddress()))
 				{
-	
 					try
 					{
-						writeDataToChannel(buffer, channel);
-		
-						// reset position for the next write
-						buffer.position(initialOffset);
+						synchronized (client)
+						{
+							ByteBuffer view = buffer.asReadOnlyBuffer();
+							
+							if (client.fQueue.isEmpty())
+							{
+								client.write(view);
+							}
+							
+							if (view.hasRemaining())
+							{
+								if (handle == null)
+								{
+									if (copy == null)
+									{
+										copy = ByteBuffer.allocate(
+											buffer.remaining());
+										copy.put(buffer.duplicate());
+										copy.flip();
+									}
+									
+									int written = view.position() - initialOffset;
+									
+									view = copy.asReadOnlyBuffer();
+									view.position(written);
+								}
+								
+								queueForClient(client, view, handle);
+							}
+						}
 					}
 					catch (IOException ex)
 					{
-						fClientSockets.remove(channel);
+						String message = getFullyQualifiedName()
+							+ " exception writing to connection " 
+							+ client.fChannel.toString();
+						sLogger.logp(Level.WARNING, CLASS_NAME, 
+							"sendToClients", message, ex);
 						
-						try
-						{
-							channel.close();
-						}
-						catch (IOException e)
-						{
-							// Since we are closing the socket anyway there is 
-							// nothing else to do here.
-						}
+						closeClientConnection(client.fChannel);
 					}
 				}
 			}
@@ -660,57 +798,183 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 	}
 	
 	/**
-	 * Writes the contents of the Buffer to the connection(s).
-	 *
-	 * @param buffer ByteBuffer to write to the connection
-	 * @throws IOException if the write fails.
+	 * Adds the given view to the output queue of the given client, applying
+	 * the overflow policy of the client if its queue is full. The caller 
+	 * must hold the lock of the client.
+	 * 
+	 * @param client the client to queue the view for
+	 * @param view the data still to be written to the client
+	 * @param handle the handle holding the data of the view, or null
+	 * @throws IOException if the client should be disconnected
 	 */
-	public void process(ByteBuffer buffer)
+	private void queueForClient(
+			ClientChannel client, ByteBuffer view, BufferHandle handle) 
+		throws IOException
 	{
-		if (isStarted())
+		if (client.fQueue.size() >= client.fCapacity 
+				&& OVERFLOW_BLOCK_STR.equals(client.fOverflowPolicy))
 		{
-			int initialOffset = buffer.position();
-	
-			// Loop over the list of sockets sending the buffer to each.
-			for (Iterator iter = fClientSockets.iterator(); iter.hasNext();)
+			try
 			{
-				SocketChannel socket = (SocketChannel) iter.next();
-	
-				try
+				while (client.fQueue.size() >= client.fCapacity 
+						&& !client.fClosed && isStarted())
 				{
-					writeDataToChannel(buffer, socket);
+					client.wait(BLOCK_WAIT_MILLIS);
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		if (client.fClosed)
+		{
+			// The client was closed while we waited; nothing to send.
+		}
+		else if (client.fQueue.size() < client.fCapacity)
+		{
+			if (handle != null)
+			{
+				handle.setInUse();
+			}
+			
+			client.fQueue.addLast(new PendingWrite(view, handle));
+			client.fQueuedBytes += view.remaining();
+			
+			if (client.fQueue.size() > client.fMaxQueuedBuffers)
+			{
+				client.fMaxQueuedBuffers = client.fQueue.size();
+			}
+			
+			if (client.fQueue.size() == 1)
+			{
+				requestWriteInterest(client);
+			}
+		}
+		else if (OVERFLOW_DISCONNECT_STR.equals(client.fOverflowPolicy))
+		{
+			throw (new IOException("Output queue of client is full"));
+		}
+		else
+		{
+			client.fDroppedBuffers++;
+		}
+	}
 	
-					// reset position for the next write
-					buffer.position(initialOffset);
+	/**
+	 * Asks the reading Thread to watch the given client for room to write 
+	 * its queued output. Interest is registered by the reading Thread itself
+	 * since it may be blocked in the Selector.
+	 * 
+	 * @param client a client with queued output
+	 */
+	private void requestWriteInterest(ClientChannel client)
+	{
+		synchronized (fPendingWriters)
+		{
+			fPendingWriters.add(client);
+		}
+		
+		fSelector.wakeup();
+	}
+	
+	/**
+	 * Registers interest in writing on every client that has queued output
+	 * since the last call.
+	 */
+	private void registerPendingWriters()
+	{
+		ClientChannel[] clients = null;
+		
+		synchronized (fPendingWriters)
+		{
+			clients = (ClientChannel[]) fPendingWriters.toArray(
+				new ClientChannel[fPendingWriters.size()]);
+			fPendingWriters.clear();
+		}
+		
+		for (int i = 0; i < clients.length; i++)
+		{
+			ClientChannel client = clients[i];
+			
+			synchronized (client)
+			{
+				if (!client.fQueue.isEmpty() && client.fKey.isValid())
+				{
+					client.fKey.interestOps(
+						SelectionKey.OP_READ | SelectionKey.OP_WRITE);
 				}
-				catch (IOException ex)
+			}
+		}
+	}
+	
+	/**
+	 * Writes as much of the queued output of the given client as its socket
+	 * will take without blocking. Interest in writing is dropped once the 
+	 * queue is empty.
+	 * 
+	 * @param client the client to write to
+	 */
+	private void writeQueuedData(ClientChannel client)
+	{
+		try
+		{
+			synchronized (client)
+			{
+				boolean full = false;
+				
+				while (!full && !client.fQueue.isEmpty())
 				{
-					fClientSockets.remove(socket);
+					PendingWrite pending = (PendingWrite) client.fQueue.getFirst();
 					
-					try
+					client.fQueuedBytes -= client.write(pending.fBuffer);
+					
+					if (pending.fBuffer.hasRemaining())
 					{
-						socket.close();
+						full = true;
 					}
-					catch (IOException e)
+					else
 					{
-						// Since we are closing the socket anyway there is 
-						// nothing else to do here.
+						client.fQueue.removeFirst();
+						pending.release();
 					}
 				}
+				
+				if (client.fQueue.isEmpty())
+				{
+					client.fKey.interestOps(SelectionKey.OP_READ);
+				}
+				
+				client.notifyAll();
 			}
 		}
+		catch (IOException ex)
+		{
+			String message = getFullyQualifiedName()
+				+ " exception writing to connection " 
+				+ client.fChannel.toString();
+			sLogger.logp(Level.WARNING, CLASS_NAME, "writeQueuedData",
+				message, ex);
+			
+			closeClientConnection(client.fChannel);
+		}
 	}
 
 	/**
 	 * Reads data from the specified channel and fires a 
-	 * <code>fireConnectionDataEvent</code> method on the Connection.
+	 * <code>fireConnectionDataEvent</code> method on the Connection. The 
+	 * data is read into a buffer leased from the receive buffer pool, which
+	 * is released once the event has been delivered.
 	 * 
 	 * @param channel the socket channel to read from
 	 * @throws IOException
 	 */
 	protected void readDataFromChannel(SocketChannel channel) throws IOException
 	{
-		ByteBuffer buffer = ByteBuffer.allocate(fReadBlockSize);
+		PooledBufferHandle handle = 
+			getReceiveBufferPool().acquire(fReadBlockSize);
+		ByteBuffer buffer = handle.getByteBuffer();
 		int bytesRead = 0;
 		int totalBytes = 0;
 		try
@@ -724,7 +988,6 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 			if (totalBytes > 0)
 			{
 				buffer.flip();
-				BufferHandle handle = new SingleUseBufferHandle(buffer);
 				
 				// Get a unique context for the input. If
 				// we see this context for outgoing data we can limit the 
@@ -755,12 +1018,17 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 
 			closeClientConnection(channel);
 		}	
+		finally
+		{
+			handle.release();
+		}
 	}
 	
 	/**
 	 * Helper to support closing a channel connection to a client and 
 	 * removing it from our 
-	 * list of connections.
+	 * list of connections. Any output still queued for the client is 
+	 * discarded.
 	 * 
 	 * @param channel - Client channel to close 
 	 * @throws ClosedByInterruptException 
@@ -783,7 +1051,16 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 		finally
 		{
 			// Make sure we remove the channel regardless of exception
-			fClientSockets.remove(channel);			
+			for (Iterator iter = fClientSockets.iterator(); iter.hasNext();)
+			{
+				ClientChannel client = (ClientChannel) iter.next();
+				
+				if (client.fChannel == channel)
+				{
+					fClientSockets.remove(client);
+					client.close();
+				}
+			}
 		}
 	}
 	
@@ -797,8 +1074,8 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 		// Loop over the list of sockets closing each.
 		for (Iterator iter = fClientSockets.iterator(); iter.hasNext();)
 		{
-			SocketChannel socket = (SocketChannel) iter.next();
-			closeClientConnection(socket);
+			ClientChannel client = (ClientChannel) iter.next();
+			closeClientConnection(client.fChannel);
 		}
 	}
 
@@ -896,6 +1173,82 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 		}
 	}
 	
+	/**
+	 * Get the maximum number of output buffers queued for each client.
+	 * 
+	 * @return Returns the client queue capacity.
+	 */
+	public int getClientQueueCapacity()
+	{
+		return fClientQueueCapacity;
+	}
+	
+	/**
+	 * Set the maximum number of output buffers queued for each client. The 
+	 * new capacity applies to clients connecting after this call.
+	 * 
+	 * @param capacity The client queue capacity to set.
+	 */
+	public void setClientQueueCapacity(int capacity)
+	{
+		if (capacity > 0)
+		{
+			int oldValue = fClientQueueCapacity;
+			fClientQueueCapacity = capacity;
+			firePropertyChange(CLIENT_QUEUE_CAPACITY_KEY, oldValue,
+					fClientQueueCapacity);
+		}
+	}
+	
+	/**
+	 * Get the default policy for a client whose output queue is full.
+	 * 
+	 * @return Returns the client overflow policy.
+	 */
+	public String getClientOverflowPolicy()
+	{
+		return fOverflowPolicy;
+	}
+	
+	/**
+	 * Set the default policy for a client whose output queue is full. The 
+	 * new policy applies to clients connecting after this call.
+	 * 
+	 * @param policy One of OVERFLOW_BLOCK_STR, OVERFLOW_DROP_STR or 
+	 * 		OVERFLOW_DISCONNECT_STR.
+	 */
+	public void setClientOverflowPolicy(String policy)
+	{
+		if (isOverflowPolicy(policy))
+		{
+			String oldValue = fOverflowPolicy;
+			fOverflowPolicy = policy;
+			firePropertyChange(OVERFLOW_POLICY_KEY, oldValue, fOverflowPolicy);
+		}
+	}
+	
+	/**
+	 * Returns a snapshot of the output backlog of each connected client.
+	 * 
+	 * @return a List of ClientBacklog
+	 */
+	public List getClientBacklogs()
+	{
+		List result = new ArrayList();
+		
+		for (Iterator iter = fClientSockets.iterator(); iter.hasNext();)
+		{
+			ClientChannel client = (ClientChannel) iter.next();
+			
+			synchronized (client)
+			{
+				result.add(new ClientBacklog(client));
+			}
+		}
+		
+		return (result);
+	}
+	
 	/**
 	 * Get the port number listening for new client connections.
 	 * @return Returns the serverPort.
@@ -936,19 +1289,245 @@ public class TcpServerConnection extends AbstractDualThreadedConnection
 		stringRep.append("[ServerPort=" + getPort());
 		stringRep.append(" AllowedConnections=" + getConnectionsAllowed());
 		stringRep.append(" ReadSize=" + getReadBlockSize());
+		stringRep.append(" ClientQueueCapacity=" + getClientQueueCapacity());
+		stringRep.append(" ClientOverflowPolicy=" + getClientOverflowPolicy());
 		stringRep.append("]");
 		stringRep.append("\nConnection(s): ");
 		
-		// Loop over the list of sockets.
-		for (Iterator iter = fClientSockets.iterator(); iter.hasNext();)
+		// Loop over the list of client backlogs.
+		for (Iterator iter = getClientBacklogs().iterator(); iter.hasNext();)
 		{
-			SocketChannel socket = (SocketChannel) iter.next();
-
-			stringRep.append("/n/t" + socket.socket().getInetAddress());
+			stringRep.append("\n\t" + iter.next());
 		}
 		
 		return (stringRep.toString());
 	}
+	
+	// --- Utility classes ----------------------------------------------------
+	
+	/**
+	 * A snapshot of the output backlog of a client of a TcpServerConnection.
+	 */
+	public static final class ClientBacklog
+	{
+		private final SocketAddress fRemoteAddress;
+		private final String fOverflowPolicy;
+		private final int fQueuedBuffers;
+		private final int fMaxQueuedBuffers;
+		private final long fQueuedBytes;
+		private final long fBytesWritten;
+		private final long fDroppedBuffers;
+		
+		/**
+		 * Constructs a snapshot of the backlog of the given client. The 
+		 * caller must hold the lock of the client.
+		 * 
+		 * @param client the client
+		 */
+		private ClientBacklog(ClientChannel client)
+		{
+			fRemoteAddress = client.fChannel.socket().getRemoteSocketAddress();
+			fOverflowPolicy = client.fOverflowPolicy;
+			fQueuedBuffers = client.fQueue.size();
+			fMaxQueuedBuffers = client.fMaxQueuedBuffers;
+			fQueuedBytes = client.fQueuedBytes;
+			fBytesWritten = client.fBytesWritten;
+			fDroppedBuffers = client.fDroppedBuffers;
+		}
+		
+		/**
+		 * Returns the address of the client.
+		 * 
+		 * @return the remote address of the client
+		 */
+		public SocketAddress getRemoteAddress()
+		{
+			return (fRemoteAddress);
+		}
+		
+		/**
+		 * Returns the overflow policy of the client.
+		 * 
+		 * @return the overflow policy
+		 */
+		public String getOverflowPolicy()
+		{
+			return (fOverflowPolicy);
+		}
+		
+		/**
+		 * Returns the number of buffers queued for the client.
+		 * 
+		 * @return the number of queued buffers
+		 */
+		public int getQueuedBuffers()
+		{
+			return (fQueuedBuffers);
+		}
+		
+		/**
+		 * Returns the largest number of buffers that have been queued for
+		 * the client at once.
+		 * 
+		 * @return the high-water mark of the queue
+		 */
+		public int getMaxQueuedBuffers()
+		{
+			return (fMaxQueuedBuffers);
+		}
+		
+		/**
+		 * Returns the number of bytes queued for the client.
+		 * 
+		 * @return the number of queued bytes
+		 */
+		public long getQueuedBytes()
+		{
+			return (fQueuedBytes);
+		}
+		
+		/**
+		 * Returns the total number of bytes written to the client.
+		 * 
+		 * @return the number of bytes written
+		 */
+		public long getBytesWritten()
+		{
+			return (fBytesWritten);
+		}
+		
+		/**
+		 * Returns the number of buffers dropped for the client because its
+		 * queue was full.
+		 * 
+		 * @return the number of dropped buffers
+		 */
+		public long getDroppedBuffers()
+		{
+			return (fDroppedBuffers);
+		}
+		
+		/**
+		 * Returns a String representation of this ClientBacklog.
+		 * 
+		 * @return a String representation of this ClientBacklog
+		 */
+		public String toString()
+		{
+			return (fRemoteAddress + " [Policy=" + fOverflowPolicy 
+				+ " Queued=" + fQueuedBuffers + "/" + fQueuedBytes + "B"
+				+ " MaxQueued=" + fMaxQueuedBuffers 
+				+ " Written=" + fBytesWritten + "B"
+				+ " Dropped=" + fDroppedBuffers + "]");
+		}
+	}
+	
+	/**
+	 * The output state of one client connection. All fields other than the
+	 * final ones are guarded by the lock of the ClientChannel.
+	 */
+	private static final class ClientChannel
+	{
+		final SocketChannel fChannel;
+		final String fOverflowPolicy;
+		final int fCapacity;
+		final LinkedList fQueue = new LinkedList();
+		SelectionKey fKey = null;
+		long fQueuedBytes = 0;
+		long fBytesWritten = 0;
+		long fDroppedBuffers = 0;
+		int fMaxQueuedBuffers = 0;
+		boolean fClosed = false;
+		
+		/**
+		 * Constructs a new ClientChannel.
+		 * 
+		 * @param channel the socket channel of the client
+		 * @param overflowPolicy the policy when the queue is full
+		 * @param capacity the capacity of the queue
+		 */
+		ClientChannel(SocketChannel channel, String overflowPolicy, int capacity)
+		{
+			fChannel = channel;
+			fOverflowPolicy = overflowPolicy;
+			fCapacity = capacity;
+		}
+		
+		/**
+		 * Writes as much of the given buffer to the client as its socket 
+		 * will take without blocking.
+		 * 
+		 * @param buffer the data to write
+		 * @return the number of bytes written
+		 * @throws IOException if the write fails
+		 */
+		int write(ByteBuffer buffer) throws IOException
+		{
+			int result = 0;
+			int bytesThisWrite = 1;
+			
+			while (bytesThisWrite > 0 && buffer.hasRemaining())
+			{
+				bytesThisWrite = fChannel.write(buffer);
+				result += bytesThisWrite;
+			}
+			
+			fBytesWritten += result;
+			
+			return (result);
+		}
+		
+		/**
+		 * Marks this client closed, discards its queued output and wakes any
+		 * writer blocked on its queue.
+		 */
+		synchronized void close()
+		{
+			fClosed = true;
+			
+			while (!fQueue.isEmpty())
+			{
+				((PendingWrite) fQueue.removeFirst()).release();
+			}
+			
+			fQueuedBytes = 0;
+			
+			notifyAll();
+		}
+	}
+	
+	/**
+	 * A view of output data queued for a client, together with the handle
+	 * that keeps the data from being reused, if any.
+	 */
+	private static final class PendingWrite
+	{
+		final ByteBuffer fBuffer;
+		final BufferHandle fHandle;
+		
+		/**
+		 * Constructs a new PendingWrite.
+		 * 
+		 * @param buffer the view of the data still to be written
+		 * @param handle the handle holding the data, or null
+		 */
+		PendingWrite(ByteBuffer buffer, BufferHandle handle)
+		{
+			fBuffer = buffer;
+			fHandle = handle;
+		}
+		
+		/**
+		 * Releases the use of the data held by this PendingWrite.
+		 */
+		void release()
+		{
+			if (fHandle != null)
+			{
+				fHandle.release();
+			}
+		}
+	}
 }
 
 //--- Development History  ---------------------------------------------------
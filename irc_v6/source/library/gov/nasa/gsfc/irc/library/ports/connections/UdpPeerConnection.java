@@ -32,8 +32,7 @@ import java.util.TimerTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import gov.nasa.gsfc.commons.types.buffers.BufferHandle;
-import gov.nasa.gsfc.commons.types.buffers.DefaultBufferHandle;
+import gov.nasa.gsfc.commons.types.buffers.PooledBufferHandle;
 import gov.nasa.gsfc.irc.description.Descriptor;
 import gov.nasa.gsfc.irc.devices.ports.connections.AbstractThreadedConnection;
 import gov.nasa.gsfc.irc.devices.ports.connections.Connection;
@@ -171,10 +170,6 @@ public class UdpPeerConnection extends AbstractThreadedConnection
 	private boolean fConnectedMode = false;
 	private DatagramChannel fDatagramChannel = null;
 	
-	// Cached receive buffer and handle
-	private ByteBuffer fReceiveBuffer;
-	private BufferHandle fReceiveBufferHandle;
-	private boolean fPacketSizeChange = false;
 	
 
 	/**
@@ -293,10 +288,6 @@ public class UdpPeerConnection extends AbstractThreadedConnection
 	 */
 	protected void openConnection()
 	{
-		// Initialize receive buffer
-		fReceiveBuffer = ByteBuffer.allocate(fPacketSize);
-		fReceiveBufferHandle = new DefaultBufferHandle(fReceiveBuffer);
-
 		try
 		{
 			// Set up channel to remote peer or server
@@ -382,9 +373,6 @@ public class UdpPeerConnection extends AbstractThreadedConnection
 						"Exception closing DatagramChannel", e);
 			}
 		}		
-
-		fReceiveBuffer = null;
-		fReceiveBufferHandle = null;
 	}
 
 	/**
@@ -396,33 +384,31 @@ public class UdpPeerConnection extends AbstractThreadedConnection
 	protected void serviceConnection() 
 		throws IOException
 	{
-		// Create a new buffer if a previous listener is still using it.
-		if (fReceiveBufferHandle.isInUse() || fPacketSizeChange)
-		{
-			fReceiveBuffer = ByteBuffer.allocate(fPacketSize);
-			fReceiveBufferHandle = new DefaultBufferHandle(fReceiveBuffer);
-			fPacketSizeChange = false;
-		}
-		else
+		// Lease a buffer that no listener is still using.
+		PooledBufferHandle handle = 
+			getReceiveBufferPool().acquire(fPacketSize);
+		ByteBuffer buffer = handle.getByteBuffer();
+		
+		try
 		{
-			// Reset buffer for next read
-			fReceiveBuffer.position(0);
-			fReceiveBuffer.limit(fPacketSize);
-		}
-
-		int bytesRead = 0;
+			int bytesRead = 0;
 		
-		fDatagramChannel.receive(fReceiveBuffer);
-		bytesRead = fReceiveBuffer.position();
+			fDatagramChannel.receive(buffer);
+			bytesRead = buffer.position();
 
-		if (bytesRead > 0)
-		{
-			fReceiveBuffer.flip();
+			if (bytesRead > 0)
+			{
+				buffer.flip();
 
-			// Set a unique context for the input
-			fReceiveBufferHandle.setContext(fRemoteAddress);
+				// Set a unique context for the input
+				handle.setContext(fRemoteAddress);
 			
-			fireInputBufferEvent(new InputBufferEvent(this, fReceiveBufferHandle));
+				fireInputBufferEvent(new InputBufferEvent(this, handle));
+			}
+		}
+		finally
+		{
+			handle.release();
 		}
 	}
 
@@ -644,7 +630,6 @@ public class UdpPeerConnection extends AbstractThreadedConnection
 		{
 			int oldValue = fPacketSize;
 			fPacketSize = size;
-			fPacketSizeChange = true;
 			firePropertyChange("packetSize", oldValue, fPacketSize);
 		}
 	}
@@ -31,8 +31,7 @@ import java.nio.channels.DatagramChannel;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import gov.nasa.gsfc.commons.types.buffers.BufferHandle;
-import gov.nasa.gsfc.commons.types.buffers.DefaultBufferHandle;
+import gov.nasa.gsfc.commons.types.buffers.PooledBufferHandle;
 import gov.nasa.gsfc.irc.description.Descriptor;
 import gov.nasa.gsfc.irc.devices.ports.connections.AbstractThreadedConnection;
 import gov.nasa.gsfc.irc.devices.ports.connections.Connection;
@@ -114,10 +113,6 @@ public class UdpPeerlessConnection extends AbstractThreadedConnection
 	private int fPacketSize = 1024;
 	private DatagramChannel fDatagramChannel = null;
 
-	// Cached receive buffer and handle
-	private ByteBuffer fReceiveBuffer;
-	private BufferHandle fReceiveBufferHandle;
-	private boolean fPacketSizeChange = false;
 	
 
 	/**
@@ -280,10 +275,6 @@ public class UdpPeerlessConnection extends AbstractThreadedConnection
 	 */
 	protected void openConnection()
 	{
-		// Initialize receive buffer
-		fReceiveBuffer = ByteBuffer.allocate(fPacketSize);
-		fReceiveBufferHandle = new DefaultBufferHandle(fReceiveBuffer);
-
 		try
 		{
 			fDatagramChannel = DatagramChannel.open();
@@ -324,9 +315,6 @@ public class UdpPeerlessConnection extends AbstractThreadedConnection
 						"Exception closing DatagramChannel", e);
 			}
 		}		
-
-		fReceiveBuffer = null;
-		fReceiveBufferHandle = null;
 	}
 
 	/**
@@ -338,33 +326,32 @@ public class UdpPeerlessConnection extends AbstractThreadedConnection
 	protected void serviceConnection() 
 		throws IOException
 	{
-		// Create a new buffer if a previous listener is still using it.
-		if (fReceiveBufferHandle.isInUse() || fPacketSizeChange)
-		{
-			fReceiveBuffer = ByteBuffer.allocate(fPacketSize);
-			fReceiveBufferHandle = new DefaultBufferHandle(fReceiveBuffer);
-			fPacketSizeChange = false;
-		}
-		else
+		// Lease a buffer that no listener is still using.
+		PooledBufferHandle handle = 
+			getReceiveBufferPool().acquire(fPacketSize);
+		ByteBuffer buffer = handle.getByteBuffer();
+		
+		try
 		{
-			// Reset buffer for next read
-			fReceiveBuffer.position(0);
-			fReceiveBuffer.limit(fPacketSize);
-		}
 		
-		SocketAddress remoteAddress = fDatagramChannel.receive(fReceiveBuffer);
-		int bytesRead = fReceiveBuffer.position();
+			SocketAddress remoteAddress = fDatagramChannel.receive(buffer);
+			int bytesRead = buffer.position();
 
-		if (bytesRead > 0)
-		{
-			fReceiveBuffer.flip();
+			if (bytesRead > 0)
+			{
+				buffer.flip();
 			
-			// Set a unique context for the input. If
-			// we see this context for outgoing data we can limit the 
-			// send to the specific port.
-			fReceiveBufferHandle.setContext(remoteAddress);
+				// Set a unique context for the input. If
+				// we see this context for outgoing data we can limit the 
+				// send to the specific port.
+				handle.setContext(remoteAddress);
 			
-			fireInputBufferEvent(new InputBufferEvent(this, fReceiveBufferHandle));
+				fireInputBufferEvent(new InputBufferEvent(this, handle));
+			}
+		}
+		finally
+		{
+			handle.release();
 		}
 	}
 
@@ -391,7 +378,6 @@ public class UdpPeerlessConnection extends AbstractThreadedConnection
 		{
 			int oldValue = fPacketSize;
 			fPacketSize = size;
-			fPacketSizeChange = true;
 			firePropertyChange("packetSize", oldValue, fPacketSize);
 		}
 	}
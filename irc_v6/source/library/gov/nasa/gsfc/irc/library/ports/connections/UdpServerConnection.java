@@ -35,8 +35,7 @@ import java.util.Vector;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import gov.nasa.gsfc.commons.types.buffers.BufferHandle;
-import gov.nasa.gsfc.commons.types.buffers.DefaultBufferHandle;
+import gov.nasa.gsfc.commons.types.buffers.PooledBufferHandle;
 import gov.nasa.gsfc.irc.description.Descriptor;
 import gov.nasa.gsfc.irc.devices.ports.connections.AbstractThreadedConnection;
 import gov.nasa.gsfc.irc.devices.ports.connections.Connection;
@@ -153,16 +152,11 @@ public class UdpServerConnection extends AbstractThreadedConnection
 	private boolean fConnectedMode = false;
 	private DatagramChannel fServerChannel;
 
-	// Cached receive buffer and handle
-	private ByteBuffer fReceiveBuffer;
-	private BufferHandle fReceiveBufferHandle;
-	
 	private Map fConnectionMap = new HashMap();
 	private Vector fBadConnections = new Vector(5, 5);
 	private DatagramChannel[] fConnections = new DatagramChannel[0];
 	private SocketAddress[] fRemoteAddress = new SocketAddress[0];
 	private boolean fInvalidConnectionArray = false;
-	private boolean fPacketSizeChange = false;
 
 
 	/**
@@ -343,10 +337,6 @@ public class UdpServerConnection extends AbstractThreadedConnection
 	 */
 	protected void openConnection()
 	{
-		// Initialize receive buffer
-		fReceiveBuffer = ByteBuffer.allocate(fPacketSize);
-		fReceiveBufferHandle = new DefaultBufferHandle(fReceiveBuffer);
-
 		try
 		{
 			fServerChannel = DatagramChannel.open();
@@ -387,9 +377,6 @@ public class UdpServerConnection extends AbstractThreadedConnection
 						"Exception closing DatagramChannel", e);
 			}
 		}		
-
-		fReceiveBuffer = null;
-		fReceiveBufferHandle = null;
 	}
 
 	/**
@@ -404,67 +391,66 @@ public class UdpServerConnection extends AbstractThreadedConnection
 		DatagramChannel channel = fServerChannel;
 		SocketAddress address = null;
 
-		// Create a new buffer if a previous listener is still using it.
-		if (fReceiveBufferHandle.isInUse() || fPacketSizeChange)
-		{
-			fReceiveBuffer = ByteBuffer.allocate(fPacketSize);
-			fReceiveBufferHandle = new DefaultBufferHandle(fReceiveBuffer);
-			fPacketSizeChange = false;
-		}
-		else
+		// Lease a buffer that no listener is still using.
+		PooledBufferHandle handle = 
+			getReceiveBufferPool().acquire(fPacketSize);
+		ByteBuffer buffer = handle.getByteBuffer();
+		
+		try
 		{
-			// Reset buffer for next read
-			fReceiveBuffer.position(0);
-			fReceiveBuffer.limit(fPacketSize);
-		}
 		
-		address = fServerChannel.receive(fReceiveBuffer);
+			address = fServerChannel.receive(buffer);
 
-		if (!fConnectionMap.containsKey(address)
-				&& allowConnection(address))
-		{
-			if (fConnectedMode)
+			if (!fConnectionMap.containsKey(address)
+					&& allowConnection(address))
 			{
-				// Create and connect a new channel
-				channel = DatagramChannel.open();
-				channel.connect(address);
-			}
+				if (fConnectedMode)
+				{
+					// Create and connect a new channel
+					channel = DatagramChannel.open();
+					channel.connect(address);
+				}
 			
-			synchronized(fConnectionMap)
-			{							
-				sLogger.logp(
-						Level.INFO, CLASS_NAME, 
-						"serviceConnection", 
-						"Connection made from:" + address 
-						+ " on channel:" + channel);
+				synchronized(fConnectionMap)
+				{							
+					sLogger.logp(
+							Level.INFO, CLASS_NAME, 
+							"serviceConnection", 
+							"Connection made from:" + address 
+							+ " on channel:" + channel);
 
-				fConnectionMap.put(address, channel);
-				fInvalidConnectionArray = true;
-			}
+					fConnectionMap.put(address, channel);
+					fInvalidConnectionArray = true;
+				}
 			
-			publishConnectionAdded(address);
-		}
-		else
-		{
-			String message = "Received duplicate address:" + address;
+				publishConnectionAdded(address);
+			}
+			else
+			{
+				String message = "Received duplicate address:" + address;
 			
-			sLogger.logp(
-					Level.FINE, CLASS_NAME, 
-					"ServerSocketManager.run", message);
-		}
+				sLogger.logp(
+						Level.FINE, CLASS_NAME, 
+						"ServerSocketManager.run", message);
+			}
 		
-		int bytesRead = fReceiveBuffer.position();
+			int bytesRead = buffer.position();
 
-		if (bytesRead > 0)
-		{
-			fReceiveBuffer.flip();
+			if (bytesRead > 0)
+			{
+				buffer.flip();
 
-			// Set a unique context for the input. If
-			// we see this context for outgoing data we can limit the 
-			// send to the specific port.
-			fReceiveBufferHandle.setContext(address);
+				// Set a unique context for the input. If
+				// we see this context for outgoing data we can limit the 
+				// send to the specific port.
+				handle.setContext(address);
 			
-			fireInputBufferEvent(new InputBufferEvent(this, fReceiveBufferHandle));
+				fireInputBufferEvent(new InputBufferEvent(this, handle));
+			}
+		}
+		finally
+		{
+			handle.release();
 		}
 	}
 	
@@ -687,7 +673,6 @@ public class UdpServerConnection extends AbstractThreadedConnection
 		{
 			int oldValue = fPacketSize;
 			fPacketSize = size;
-			fPacketSizeChange = true;
 			firePropertyChange("packetSize", oldValue, fPacketSize);
 		}
 	}
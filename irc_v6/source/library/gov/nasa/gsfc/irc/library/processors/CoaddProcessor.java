@@ -47,6 +47,12 @@ import org.jscience.physics.units.SI;
  * The Coadder uses a pluggable "strategy" pattern where the strategy is used
  * with each incoming basis set to define the coadd points.
  * 
+ * The data buffers of each basis set are coadded independently of one another,
+ * split among the workers of the processor (see 
+ * {@link BasisSetProcessor#setParallelism(int)}); the coadds are then stored
+ * in order on the calling thread, so the output does not depend on the
+ * parallelism.
+ * 
  * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
  * for the Instrument Remote Control (IRC) project.
  * 
@@ -109,6 +115,59 @@ final public class CoaddProcessor extends BasisSetProcessor
 
     private boolean[] fPerBufferCoaddHintBinaryFlags;
 
+    private double[] fInputBasisArray;
+
+    private double[][] fInputDataBufferArrays;
+
+    private DataBuffer[] fInputDataBuffers;
+    
+    /**
+     * The coadded sums of each data buffer, indexed by coadd and then by data
+     * buffer.  The last coadd holds the leftovers.
+     */
+    private double[][] fDataSums;
+    
+    private int fInputBasisSetSize;
+    
+    private int[] fCoaddIndexPoints;
+    
+    /**
+     * Coadds a single data buffer of the current basis set at every coadd
+     * index point.
+     */
+    private final ChannelKernel fCoaddKernel = new ChannelKernel()
+    {
+        public void processChannel(int bufferNumber, int worker)
+        {
+            double[] inputDataArray = fInputDataBufferArrays[bufferNumber];
+            int[] coaddIndexPoints = fCoaddIndexPoints;
+            
+            fInputDataBuffers[bufferNumber].get(
+                0, inputDataArray, 0, fInputBasisSetSize);
+            
+            int lastIndexToCoaddAfter = -1;
+            
+            for (int coadd = 0; coadd <= coaddIndexPoints.length; coadd++)
+            {
+                int indexToCoaddAfter = (coadd < coaddIndexPoints.length) 
+                    ? coaddIndexPoints[coadd] : fInputBasisSetSize - 1;
+                
+                // Include leftovers from previous basis set in the first coadd
+                double dataSum = (coadd == 0) 
+                    ? fDataBufferLeftovers[bufferNumber] : 0.0;
+                
+                // The coaddIndex is INCLUDED IN THE COADD
+                for (int i = lastIndexToCoaddAfter + 1; i <= indexToCoaddAfter; i++)
+                {
+                    dataSum += inputDataArray[i];
+                }
+                
+                fDataSums[coadd][bufferNumber] = dataSum;
+                lastIndexToCoaddAfter = indexToCoaddAfter;
+            }
+        }
+    };
+
     
     //--- Some diagnostic information
 	/**
@@ -171,36 +230,69 @@ final public class CoaddProcessor extends BasisSetProcessor
         // A diagnostic
         fLastNumberOfCoaddsInBasisSet = (coaddIndexPoints != null) ? coaddIndexPoints.length: 0;
         
-        Object[] dataBufferArrays = new Object[basisSet.getNumberOfDataBuffers()];
+        int numberOfDataBuffers = basisSet.getNumberOfDataBuffers();
+        int basisSetSize = basisSet.getSize();
+        
+        // Copy the input into reused arrays of doubles with one bulk get per
+        // buffer so that the coadd loops below run over plain arrays
+        if (fInputBasisArray == null || fInputBasisArray.length < basisSetSize)
+        {
+        	fInputBasisArray = new double[basisSetSize];
+        }
+        
+        if (fInputDataBufferArrays == null 
+        	|| fInputDataBufferArrays.length != numberOfDataBuffers)
+        {
+        	fInputDataBufferArrays = new double[numberOfDataBuffers][];
+        	fInputDataBuffers = new DataBuffer[numberOfDataBuffers];
+        }
+        
+        basisSet.getBasisBuffer().get(0, fInputBasisArray, 0, basisSetSize);
 
-        for (int bufferNumber = 0; bufferNumber < basisSet.getNumberOfDataBuffers(); bufferNumber++)
+        for (int bufferNumber = 0; bufferNumber < numberOfDataBuffers; bufferNumber++)
 		{
-			DataBuffer inputDataBuffer = basisSet.getDataBuffer(bufferNumber);
-            if (inputDataBuffer.getDataBufferType() == double.class)
-            {
-            	dataBufferArrays[bufferNumber] = inputDataBuffer.getAsDoubleArray();     	                
-            }
-            else if (inputDataBuffer.getDataBufferType() == float.class)
-            {
-            	dataBufferArrays[bufferNumber] = inputDataBuffer.getAsFloatArray();              	
-            }
-            else if (inputDataBuffer.getDataBufferType() == long.class)
-            {
-            	dataBufferArrays[bufferNumber] = inputDataBuffer.getAsLongArray();	            	
-            }            
-            else if (inputDataBuffer.getDataBufferType() == int.class)
-            {
-            	dataBufferArrays[bufferNumber] = inputDataBuffer.getAsIntArray();	            	
-            }
-            else if (inputDataBuffer.getDataBufferType() == short.class)
-            {
-            	dataBufferArrays[bufferNumber] = inputDataBuffer.getAsShortArray();	            	
-            }          
-            else if (inputDataBuffer.getDataBufferType() == byte.class)
-            {
-            	dataBufferArrays[bufferNumber] = inputDataBuffer.getAsByteArray();	            	
-            }  	 
+        	double[] inputDataArray = fInputDataBufferArrays[bufferNumber];
+        	
+        	if (inputDataArray == null || inputDataArray.length < basisSetSize)
+        	{
+        		inputDataArray = new double[basisSetSize];
+        		fInputDataBufferArrays[bufferNumber] = inputDataArray;
+        	}
+        	
+        	fInputDataBuffers[bufferNumber] = basisSet.getDataBuffer(bufferNumber);
 		}
+        
+        // One coadd per index point, plus the leftovers
+        int numberOfCoadds = coaddIndexPoints.length + 1;
+        
+        if (fDataSums == null || fDataSums.length < numberOfCoadds
+        	|| fDataSums[0].length != numberOfDataBuffers)
+        {
+        	fDataSums = new double[numberOfCoadds][numberOfDataBuffers];
+        }
+        
+        ////////////////////////////
+        //
+        // Coadd the data buffers
+        //
+        ////////////////////////////
+        
+        fInputBasisSetSize = basisSetSize;
+        fCoaddIndexPoints = coaddIndexPoints;
+        
+        try
+        {
+        	processChannels(numberOfDataBuffers, fCoaddKernel);
+        }
+        finally
+        {
+        	fCoaddIndexPoints = null;
+        	
+        	for (int bufferNumber = 0; bufferNumber < numberOfDataBuffers; bufferNumber++)
+        	{
+        		fInputDataBuffers[bufferNumber] = null;
+        	}
+        }
 
 
         boolean firstCoadd = true;	
@@ -211,11 +303,11 @@ final public class CoaddProcessor extends BasisSetProcessor
         // for basis and data buffers
 		int coaddIndexPointIndex = 0;
         
-        double[] inputBasisArray = basisSet.getBasisBuffer().getAsDoubleArray();
-        double[] dataSums = new double[basisSet.getNumberOfDataBuffers()];
+        double[] inputBasisArray = fInputBasisArray;
         
 		while (!done)
         {
+			double[] dataSums = fDataSums[coaddIndexPointIndex];
 			boolean addingLeftovers = false;
 			int indexToCoaddAfter;
 			if (coaddIndexPointIndex < coaddIndexPoints.length)
@@ -237,7 +329,7 @@ final public class CoaddProcessor extends BasisSetProcessor
                 //--- Special Case: Output the leftovers from previous basis set without including
                 // any samples from this basis set
 
-                storeCoadd(basisSet, fBasisBufferLeftovers, fDataBufferLeftovers, fNumberOfLeftoverSamples);
+                storeCoadd(basisSet, fBasisBufferLeftovers, dataSums, fNumberOfLeftoverSamples);
             }
             else
             {
@@ -279,91 +371,15 @@ final public class CoaddProcessor extends BasisSetProcessor
 
                 
                 
-                ////////////////////////////
-                //
-                // Coadd the data buffers
-                //
-                ////////////////////////////
-                
-                for (int bufferNumber = 0; bufferNumber < basisSet.getNumberOfDataBuffers(); bufferNumber++)
-                {
-                    double dataSum = 0.0;
-                    if (firstCoadd == true)
-                    {
-                        // Include leftovers from previous basis set
-                        dataSum = fDataBufferLeftovers[bufferNumber];
-                    }
-                    Object bufferArray = dataBufferArrays[bufferNumber];
-                    
-                    if (bufferArray instanceof double[])
-                    {
-                        double[] inputDataArrayD =  (double[]) bufferArray;     
-                        for (int i = lastIndexToCoaddAfter + 1; i <= indexToCoaddAfter; i++)
-                        {
-                            dataSum += inputDataArrayD[i];   						
-                        }	                
-                    }
-                    else if (bufferArray instanceof float[])
-                    {
-                        float[] inputDataArrayF = (float[]) bufferArray;  
-                        for (int i = lastIndexToCoaddAfter + 1; i <= indexToCoaddAfter; i++)
-                        {
-                            dataSum += inputDataArrayF[i];   						
-                        }	            	
-                    }
-                    else if (bufferArray instanceof long[])
-                    {
-                        long[] inputDataArrayL = (long[]) bufferArray;
-                        for (int i = lastIndexToCoaddAfter + 1; i <= indexToCoaddAfter; i++)
-                        {
-                            dataSum += inputDataArrayL[i];   						
-                        }	            	
-                    }            
-                    else if (bufferArray instanceof int[])
-                    {
-                        int[] inputDataArrayI = (int[]) bufferArray;
-                        for (int i = lastIndexToCoaddAfter + 1; i <= indexToCoaddAfter; i++)
-                        {
-                            dataSum += inputDataArrayI[i];   						
-                        }		            	
-                    }
-                    else if (bufferArray instanceof short[])
-                    {
-                        short[] inputDataArrayS = (short[]) bufferArray;
-                        for (int i = lastIndexToCoaddAfter + 1; i <= indexToCoaddAfter; i++)
-                        {
-                            dataSum += inputDataArrayS[i];   						
-                        }		            	
-                    }          
-                    else if (bufferArray instanceof byte[])
-                    {
-                        byte[] inputDataArrayB = (byte[]) bufferArray;
-                        for (int i = lastIndexToCoaddAfter + 1; i <= indexToCoaddAfter; i++)
-                        {
-                            dataSum += inputDataArrayB[i];   						
-                        }		            	
-                    }  	           
-                    else
-                    {
-                        throw new AssertionError("Illegal buffer array type: " + bufferArray.getClass());
-                    }
-                    
-                    if (addingLeftovers == false)
-                    {
-                        // Store temporarily for later insertion in basis set
-                        dataSums[bufferNumber] = dataSum;
-                    }
-                    else
-                    {
-                        // Store leftovers for next call to processBasisSet
-                        fDataBufferLeftovers[bufferNumber]= dataSum;
-                    }
-                }
-                
                 if (addingLeftovers == false)
                 {
                     storeCoadd(basisSet, basisSum, dataSums, numberOfSamplesInThisCoadd);
                 }
+                else
+                {
+                    // Store leftovers for next call to processBasisSet
+                    System.arraycopy(dataSums, 0, fDataBufferLeftovers, 0, numberOfDataBuffers);
+                }
                 
             } // else PREVIOUS_LEFTOVERS
             
@@ -114,13 +114,16 @@
 
 package gov.nasa.gsfc.irc.library.processors;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.jscience.physics.units.SI;
 import org.jscience.physics.units.Unit;
 
+import gov.nasa.gsfc.commons.numerics.math.calculations.WindowFunction;
 import gov.nasa.gsfc.commons.numerics.math.types.FrequencySpectrum;
 import gov.nasa.gsfc.irc.algorithms.BasisSetProcessor;
 import gov.nasa.gsfc.irc.algorithms.Output;
@@ -138,6 +141,19 @@ import gov.nasa.gsfc.irc.data.description.ModifiableDataBufferDescriptor;
  * A FrequencySpectrum produces a frequency spectrum for each 
  * uniformly-sampled BasisSet of each DataBuffer of each DataSet it 
  * receives.
+ * 
+ * <p>By default the spectrum of each DataBuffer is that of its largest 
+ * power-of-two prefix. Setting a window (one of "rectangular", "hann", 
+ * "hamming" or "blackman") or a segment size switches to a Welch estimate: 
+ * the DataBuffer is divided into segments of the given size (of any 
+ * length, or the whole BasisSet if the size is 0), overlapping by the 
+ * given fraction, and the windowed spectra of the segments are averaged.
+ * 
+ * <p>The DataBuffers of a BasisSet are transformed in parallel, split 
+ * among at most the given parallelism of worker threads (by default, the 
+ * number of available processors); each DataBuffer is always written to 
+ * the same output DataBuffer, so the results do not depend on the 
+ * parallelism.
  *
  * This code was developed for NASA, Goddard Space Flight Center, Code 588
  * for the Instrument Remote Control (IRC) project.
@@ -159,7 +175,49 @@ public class FrequencySpectrumProcessor extends BasisSetProcessor
 		new DataBufferDescriptor("Frequency", double.class, 
 			SI.HERTZ);
 	
-	private FrequencySpectrum fSpectrum;
+	private WindowFunction fWindow = WindowFunction.RECTANGULAR;
+	private int fSegmentSize = 0;
+	private double fSegmentOverlap = 0.5;
+	
+	private FrequencySpectrum[] fSpectra = new FrequencySpectrum[0];
+	private double[][] fInputSamples = new double[0][];
+	private List fInputBuffers = new ArrayList();
+	private List fOutputBuffers = new ArrayList();
+	private double[] fFrequencies;
+	
+	private int fNumInputSamples;
+	private double fInputSampleInterval;
+	
+	
+	/**
+	 * Transforms one DataBuffer of the current BasisSet with the 
+	 * FrequencySpectrum and sample array of the worker running it.
+	 */
+	private final ChannelKernel fKernel = new ChannelKernel()
+	{
+		public void processChannel(int channel, int worker)
+		{
+			FrequencySpectrum spectrum = fSpectra[worker];
+			double[] samples = fInputSamples[worker];
+			
+			if ((samples == null) || (samples.length != fNumInputSamples))
+			{
+				samples = new double[fNumInputSamples];
+				fInputSamples[worker] = samples;
+			}
+			
+			DataBuffer inputBuffer = (DataBuffer) fInputBuffers.get(channel);
+			DataBuffer outputBuffer = (DataBuffer) fOutputBuffers.get(channel);
+			
+			inputBuffer.get(0, samples, 0, fNumInputSamples);
+			
+			int numAmplitudes = formSpectrum(spectrum, samples, 
+				fInputSampleInterval);
+			
+			outputBuffer.put(0, spectrum.getAmplitudeValues(), 0, 
+				numAmplitudes);
+		}
+	};
 	
 	
 	/**
@@ -183,6 +241,8 @@ public class FrequencySpectrumProcessor extends BasisSetProcessor
 	public FrequencySpectrumProcessor(String name)
 	{
 		super(name);
+		
+		setParallelism(Runtime.getRuntime().availableProcessors());
 	}
 	
 	
@@ -197,6 +257,8 @@ public class FrequencySpectrumProcessor extends BasisSetProcessor
 	public FrequencySpectrumProcessor(ComponentDescriptor descriptor)
 	{
 		super(descriptor);
+		
+		setParallelism(Runtime.getRuntime().availableProcessors());
 	}
 	
 	
@@ -210,7 +272,190 @@ public class FrequencySpectrumProcessor extends BasisSetProcessor
 
 	protected int getOutputSize(int numInputSamples)
 	{
-		return (FrequencySpectrum.getResultSize(numInputSamples));
+		int result;
+		
+		if (isAveraging())
+		{
+			result = FrequencySpectrum.getAveragedResultSize(
+				getSegmentSize(numInputSamples));
+		}
+		else
+		{
+			result = FrequencySpectrum.getResultSize(numInputSamples);
+		}
+		
+		return (result);
+	}
+	
+	
+	/**
+	 *  Sets the WindowFunction applied to each segment to the one having 
+	 *  the given name ("rectangular", "hann", "hamming" or "blackman").
+	 * 
+	 *  @param window The name of the WindowFunction
+	 *  @throws IllegalArgumentException if the given name is not the name 
+	 * 		of a WindowFunction
+	**/
+
+	public void setWindow(String window)
+	{
+		WindowFunction function = WindowFunction.forName(window);
+		
+		if (function == null)
+		{
+			String message = "Unknown window function: " + window;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fWindow = function;
+	}
+	
+	
+	/**
+	 *  Returns the name of the WindowFunction applied to each segment.
+	 * 
+	 *  @return The name of the WindowFunction
+	**/
+
+	public String getWindow()
+	{
+		return (fWindow.getName());
+	}
+	
+	
+	/**
+	 *  Sets the number of samples in each averaged segment. A size of 0 
+	 *  uses the whole of each BasisSet as one segment.
+	 * 
+	 *  @param segmentSize The number of samples in each segment
+	 *  @throws IllegalArgumentException if the given size is negative
+	**/
+
+	public void setSegmentSize(int segmentSize)
+	{
+		if (segmentSize < 0)
+		{
+			String message = "The segment size cannot be negative: " 
+				+ segmentSize;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fSegmentSize = segmentSize;
+	}
+	
+	
+	/**
+	 *  Returns the number of samples in each averaged segment, or 0 if the 
+	 *  whole of each BasisSet is one segment.
+	 * 
+	 *  @return The number of samples in each segment
+	**/
+
+	public int getSegmentSize()
+	{
+		return (fSegmentSize);
+	}
+	
+	
+	/**
+	 *  Sets the fraction of each segment that overlaps the next one.
+	 * 
+	 *  @param segmentOverlap The overlap, at least 0 and less than 1
+	 *  @throws IllegalArgumentException if the given overlap is out of range
+	**/
+
+	public void setSegmentOverlap(double segmentOverlap)
+	{
+		if (!(segmentOverlap >= 0) || (segmentOverlap >= 1))
+		{
+			String message = "The segment overlap must be in [0, 1): " 
+				+ segmentOverlap;
+			
+			throw (new IllegalArgumentException(message));
+		}
+		
+		fSegmentOverlap = segmentOverlap;
+	}
+	
+	
+	/**
+	 *  Returns the fraction of each segment that overlaps the next one.
+	 * 
+	 *  @return The overlap of successive segments
+	**/
+
+	public double getSegmentOverlap()
+	{
+		return (fSegmentOverlap);
+	}
+	
+	
+	/**
+	 *  Returns true if this Processor forms Welch estimates rather than 
+	 *  the spectrum of the power-of-two prefix of each DataBuffer.
+	 * 
+	 *  @return True if this Processor forms averaged spectra
+	**/
+
+	private boolean isAveraging()
+	{
+		return ((fSegmentSize > 0) || (fWindow != WindowFunction.RECTANGULAR));
+	}
+	
+	
+	/**
+	 *  Returns the size of the segments of a BasisSet of the given size.
+	 * 
+	 *  @param numInputSamples The number of samples in the BasisSet
+	 *  @return The number of samples in each segment
+	**/
+
+	private int getSegmentSize(int numInputSamples)
+	{
+		int result = numInputSamples;
+		
+		if ((fSegmentSize > 0) && (fSegmentSize < numInputSamples))
+		{
+			result = fSegmentSize;
+		}
+		
+		return (result);
+	}
+	
+	
+	/**
+	 *  Forms the spectrum of the given samples with the given 
+	 *  FrequencySpectrum, according to the current settings.
+	 * 
+	 *  @param spectrum The FrequencySpectrum to use
+	 *  @param samples The samples of one DataBuffer
+	 *  @param sampleInterval The interval between the samples
+	 *  @return The number of amplitude values formed
+	**/
+
+	private int formSpectrum(FrequencySpectrum spectrum, double[] samples, 
+		double sampleInterval)
+	{
+		int result;
+		
+		if (isAveraging())
+		{
+			int segmentSize = getSegmentSize(samples.length);
+			int overlap = (int) (fSegmentOverlap * segmentSize);
+			
+			result = spectrum.formAveragedFrequencySpectrum(samples, 
+				samples.length, sampleInterval, segmentSize, overlap, 
+				fWindow, null, 1.0, 0.0);
+		}
+		else
+		{
+			result = spectrum.formFrequencySpectrum(samples, sampleInterval, 
+				null, 1.0, 0.0);
+		}
+		
+		return (result);
 	}
 	
 	
@@ -285,59 +530,51 @@ public class FrequencySpectrumProcessor extends BasisSetProcessor
 			
 			BasisSet results = output.allocateBasisSet(outputId, outputSize);
 			
-			Iterator inputBuffers = basisSet.getDataBuffers();
-			
-			boolean firstResult = true;
+			fInputBuffers.clear();
+			fOutputBuffers.clear();
 			
-			while (inputBuffers.hasNext())
+			for (Iterator inputBuffers = basisSet.getDataBuffers(); 
+				inputBuffers.hasNext();)
 			{
 				DataBuffer inputBuffer = (DataBuffer) inputBuffers.next();
-				String inputBufferName = inputBuffer.getName();
+				String outputBufferName = 
+					getOutputDataBufferName(inputBuffer.getName(), inputId);
 				
-				double[] inputSamples = inputBuffer.getAsDoubleArray();
+				fInputBuffers.add(inputBuffer);
+				fOutputBuffers.add(results.getDataBuffer(outputBufferName));
+			}
+			
+			int numBuffers = fInputBuffers.size();
+			
+			if (numBuffers > 0)
+			{
+				transformBuffers(numBuffers, numInputSamples, inputSampleRate);
 				
-				if (fSpectrum==null) 
-				{
-					fSpectrum = new FrequencySpectrum(inputSamples, inputSampleRate, 
-						1.0, 0.0);
-				} 
-				else 
-				{
-					fSpectrum.formFrequencySpectrum(inputSamples, inputSampleRate, 
-						1.0, 0.0);
-				}
+				FrequencySpectrum spectrum = fSpectra[0];
+				int numAmplitudes = spectrum.getNumAmplitudeValues();
+				double frequency = spectrum.getFrequencyRange().getMin();
+				double frequencyDelta = spectrum.getFrequencyDelta();
 				
-				double[] amplitudes = fSpectrum.getAmplitudeValues();
+				results.setUniformSampleInterval(frequencyDelta);
 				
-				if (firstResult)
+				if (fFrequencies == null 
+					|| fFrequencies.length < numAmplitudes)
 				{
-					double frequency = fSpectrum.getFrequencyRange().getMin();
-					double frequencyDelta = fSpectrum.getFrequencyDelta();
-					
-					results.setUniformSampleInterval(frequencyDelta);
-					
-					DataBuffer frequencies = results.getBasisBuffer();
-					
-					for (int i = 0; i < amplitudes.length; i++)
-					{
-						frequencies.put(i, frequency);
-						frequency += frequencyDelta;
-					}
-					
-					firstResult = false;
+					fFrequencies = new double[numAmplitudes];
 				}
 				
-				String outputBufferName = 
-					getOutputDataBufferName(inputBufferName, inputId);
-				
-				DataBuffer outputBuffer = results.getDataBuffer(outputBufferName);
-				
-				for (int i = 0; i < amplitudes.length; i++)
+				for (int i = 0; i < numAmplitudes; i++)
 				{
-					outputBuffer.put(i, amplitudes[i]);
+					fFrequencies[i] = frequency;
+					frequency += frequencyDelta;
 				}
+				
+				results.getBasisBuffer().put(0, fFrequencies, 0, numAmplitudes);
 			}
 			
+			fInputBuffers.clear();
+			fOutputBuffers.clear();
+			
 			output.startNewBasisSequence(outputId);
 			output.makeAvailable(results);
 		}
@@ -352,5 +589,44 @@ public class FrequencySpectrumProcessor extends BasisSetProcessor
 			}
 		}
 	}
+	
+	
+	/**
+	 * Transforms the current input DataBuffers into the current output 
+	 * DataBuffers, split among the workers of this Processor. This method 
+	 * returns when all of them are done.
+	 * 
+	 * @param numBuffers The number of input DataBuffers
+	 * @param numInputSamples The number of samples in each DataBuffer
+	 * @param inputSampleInterval The interval between the samples
+	 */
+	
+	private void transformBuffers(int numBuffers, int numInputSamples, 
+		double inputSampleInterval)
+	{
+		int numWorkers = getNumberOfWorkers(numBuffers);
+		
+		if (fSpectra.length < numWorkers)
+		{
+			FrequencySpectrum[] spectra = new FrequencySpectrum[numWorkers];
+			double[][] samples = new double[numWorkers][];
+			
+			System.arraycopy(fSpectra, 0, spectra, 0, fSpectra.length);
+			System.arraycopy(fInputSamples, 0, samples, 0, 
+				fInputSamples.length);
+			
+			for (int i = fSpectra.length; i < numWorkers; i++)
+			{
+				spectra[i] = new FrequencySpectrum();
+			}
+			
+			fSpectra = spectra;
+			fInputSamples = samples;
+		}
+		
+		fNumInputSamples = numInputSamples;
+		fInputSampleInterval = inputSampleInterval;
+		
+		processChannels(numBuffers, fKernel);
+	}
 }
-
@@ -0,0 +1,239 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.numerics.math.calculations;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit test for {@link ComplexFftPlan} and {@link RealFftPlan}, comparing
+ * them with a direct evaluation of the Discrete Fourier Transform.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class FftPlanTest extends TestCase
+{
+	// Powers of two, mixed radices, primes within and beyond MAX_RADIX
+	private static final int[] SIZES = 
+		{1, 2, 3, 4, 5, 6, 7, 8, 12, 16, 17, 30, 45, 64, 97, 100, 210, 243, 
+		 256, 1000, 1009};
+	
+	private Random fRandom = new Random(580);
+	
+	/**
+	 * Test the forward and inverse complex transforms of every size.
+	 */
+	public void testComplexTransform()
+	{
+		for (int s = 0; s < SIZES.length; s++)
+		{
+			int size = SIZES[s];
+			double[] real = randomValues(size);
+			double[] imaginary = randomValues(size);
+			double[] expectedReal = new double[size];
+			double[] expectedImaginary = new double[size];
+			
+			dft(real, imaginary, expectedReal, expectedImaginary, size);
+			
+			double[] originalReal = (double[]) real.clone();
+			double[] originalImaginary = (double[]) imaginary.clone();
+			
+			ComplexFftPlan plan = new ComplexFftPlan(size);
+			plan.transform(real, imaginary);
+			
+			assertValues("size " + size, expectedReal, real, size);
+			assertValues("size " + size, expectedImaginary, imaginary, size);
+			
+			plan.inverse(real, imaginary);
+			
+			assertValues("inverse " + size, originalReal, real, size);
+			assertValues("inverse " + size, originalImaginary, imaginary, size);
+		}
+		
+		assertTrue(new ComplexFftPlan(1009).isBluestein());
+		assertFalse(new ComplexFftPlan(1000).isBluestein());
+	}
+	
+	/**
+	 * Test the real transform of every size, from an offset in the input.
+	 */
+	public void testRealTransform()
+	{
+		for (int s = 0; s < SIZES.length; s++)
+		{
+			int size = SIZES[s];
+			double[] input = randomValues(size + 3);
+			double[] real = new double[size];
+			double[] imaginary = new double[size];
+			
+			System.arraycopy(input, 3, real, 0, size);
+			
+			double[] expectedReal = new double[size];
+			double[] expectedImaginary = new double[size];
+			
+			dft(real, imaginary, expectedReal, expectedImaginary, size);
+			
+			RealFftPlan plan = RealFftPlan.getInstance(size);
+			
+			assertSame(plan, RealFftPlan.getInstance(size));
+			assertEquals(size / 2 + 1, plan.getResultSize());
+			
+			plan.transform(input, 3, real, imaginary);
+			
+			assertValues("size " + size, expectedReal, real, 
+				plan.getResultSize());
+			assertValues("size " + size, expectedImaginary, imaginary, 
+				plan.getResultSize());
+		}
+	}
+	
+	/**
+	 * Test that one plan can be used by several threads at once.
+	 */
+	public void testSharedPlan() throws Exception
+	{
+		final ComplexFftPlan plan = new ComplexFftPlan(97);
+		final double[] real = randomValues(97);
+		final double[] expectedReal = new double[97];
+		final double[] expectedImaginary = new double[97];
+		final boolean[] failed = new boolean[1];
+		
+		dft(real, new double[97], expectedReal, expectedImaginary, 97);
+		
+		Thread[] threads = new Thread[4];
+		
+		for (int t = 0; t < threads.length; t++)
+		{
+			threads[t] = new Thread()
+			{
+				public void run()
+				{
+					for (int i = 0; i < 200; i++)
+					{
+						double[] r = (double[]) real.clone();
+						double[] im = new double[97];
+						
+						plan.transform(r, im);
+						
+						for (int k = 0; k < 97; k++)
+						{
+							if (Math.abs(r[k] - expectedReal[k]) > 1e-8
+								|| Math.abs(im[k] - expectedImaginary[k]) > 1e-8)
+							{
+								failed[0] = true;
+							}
+						}
+					}
+				}
+			};
+			
+			threads[t].start();
+		}
+		
+		for (int t = 0; t < threads.length; t++)
+		{
+			threads[t].join();
+		}
+		
+		assertFalse(failed[0]);
+	}
+	
+	/**
+	 * Test that invalid sizes are rejected.
+	 */
+	public void testInvalidSize()
+	{
+		try
+		{
+			new RealFftPlan(0);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e)
+		{
+			// Expected
+		}
+	}
+	
+	/**
+	 * Returns the given number of random values.
+	 */
+	private double[] randomValues(int size)
+	{
+		double[] result = new double[size];
+		
+		for (int i = 0; i < size; i++)
+		{
+			result[i] = fRandom.nextDouble() * 2 - 1;
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Evaluates the Discrete Fourier Transform directly.
+	 */
+	private static void dft(double[] real, double[] imaginary, 
+		double[] resultReal, double[] resultImaginary, int size)
+	{
+		for (int k = 0; k < size; k++)
+		{
+			double sumReal = 0;
+			double sumImaginary = 0;
+			
+			for (int j = 0; j < size; j++)
+			{
+				double angle = -2 * Math.PI * (((long) j * k) % size) / size;
+				double c = Math.cos(angle);
+				double s = Math.sin(angle);
+				
+				sumReal += real[j] * c - imaginary[j] * s;
+				sumImaginary += real[j] * s + imaginary[j] * c;
+			}
+			
+			resultReal[k] = sumReal;
+			resultImaginary[k] = sumImaginary;
+		}
+	}
+	
+	/**
+	 * Asserts that the first values of the given arrays are equal.
+	 */
+	private static void assertValues(String label, double[] expected, 
+		double[] actual, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			assertEquals(label + " [" + i + "]", expected[i], actual[i], 1e-8);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
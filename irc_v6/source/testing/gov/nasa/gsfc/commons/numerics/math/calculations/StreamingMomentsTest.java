@@ -0,0 +1,202 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.numerics.math.calculations;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit test for {@link StreamingMoments} and {@link Coadd}, comparing them
+ * with a two-pass evaluation of the moments.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class StreamingMomentsTest extends TestCase
+{
+	/**
+	 * Test the moments of samples with a large mean and a small spread,
+	 * spanning several blocks and added in uneven pieces.
+	 */
+	public void testMoments()
+	{
+		Random random = new Random(580);
+		double[] values = new double[1000];
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			values[i] = 1.0e9 + random.nextGaussian();
+		}
+		
+		values[321] = -5.0;
+		values[654] = 2.0e9;
+		
+		StreamingMoments moments = new StreamingMoments();
+		moments.add(values, 0, 1);
+		moments.add(values, 1, 600);
+		
+		for (int i = 601; i < values.length; i++)
+		{
+			moments.add(values[i]);
+		}
+		
+		double mean = 0.0;
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			mean += values[i];
+		}
+		
+		mean /= values.length;
+		
+		double sumOfSquaredDeviations = 0.0;
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			sumOfSquaredDeviations += (values[i] - mean) * (values[i] - mean);
+		}
+		
+		assertEquals(values.length, moments.getCount());
+		assertEquals(mean, moments.getMean(), 1e-6);
+		assertEquals(sumOfSquaredDeviations / values.length, 
+			moments.getVariance(), 1e-9 * sumOfSquaredDeviations);
+		assertEquals(Math.sqrt(sumOfSquaredDeviations / (values.length - 1)), 
+			moments.getStandardDeviation(), 1e-6);
+		assertEquals(-5.0, moments.getMinValue(), 0);
+		assertEquals(321, moments.getMinValueIndex());
+		assertEquals(2.0e9, moments.getMaxValue(), 0);
+		assertEquals(654, moments.getMaxValueIndex());
+	}
+	
+	/**
+	 * Test that NaNs are left out but keep their positions, and that
+	 * merging two StreamingMoments matches adding all of the samples to one.
+	 */
+	public void testNaNAndMerge()
+	{
+		float[] values = {1, Float.NaN, 2, 7, Float.NaN, -3};
+		
+		StreamingMoments first = new StreamingMoments();
+		StreamingMoments second = new StreamingMoments();
+		StreamingMoments all = new StreamingMoments();
+		
+		first.add(values, 0, 3);
+		second.add(values, 3, 3);
+		all.add(values, 0, values.length);
+		first.add(second);
+		
+		assertEquals(4, all.getCount());
+		assertEquals(6, all.getNumPositions());
+		assertEquals(7.0 / 4, all.getMean(), 1e-12);
+		assertEquals(Math.sqrt(63.0 / 4), all.getRootMeanSquare(), 1e-12);
+		assertEquals(5, all.getMinValueIndex());
+		assertEquals(3, all.getMaxValueIndex());
+		
+		assertEquals(all.getCount(), first.getCount());
+		assertEquals(all.getMean(), first.getMean(), 1e-12);
+		assertEquals(all.getVariance(), first.getVariance(), 1e-12);
+		assertEquals(all.getMinValueIndex(), first.getMinValueIndex());
+		assertEquals(all.getMaxValueIndex(), first.getMaxValueIndex());
+		
+		StreamingMoments empty = new StreamingMoments();
+		
+		assertEquals(0, empty.getCount());
+		assertTrue(Double.isNaN(empty.getMean()));
+		assertTrue(Double.isNaN(empty.getStandardDeviation()));
+	}
+	
+	/**
+	 * Test that the sum is accumulated exactly for integer samples, however
+	 * they are added, rather than derived from the mean.
+	 */
+	public void testExactSum()
+	{
+		Random random = new Random(580);
+		double[] values = new double[1001];
+		long expected = 0;
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			long value = 1000000000L + random.nextInt(1000000);
+			
+			values[i] = value;
+			expected += value;
+		}
+		
+		StreamingMoments first = new StreamingMoments();
+		StreamingMoments second = new StreamingMoments();
+		
+		first.add(values, 0, 700);
+		
+		for (int i = 700; i < values.length; i++)
+		{
+			second.add(values[i]);
+		}
+		
+		first.add(second);
+		
+		assertEquals((double) expected, first.getSum(), 0);
+		
+		Coadd sums = new Coadd(1, false);
+		sums.sumData(values, 0, values.length - 1, 0);
+		
+		assertEquals((double) expected, sums.calculate(0).getValue(), 0);
+	}
+	
+	/**
+	 * Test that Coadd gives the mean or sum, the sample standard deviation
+	 * and the sample count of each channel.
+	 */
+	public void testCoadd()
+	{
+		double[] values = {2, 4, 4, 4, 5, 5, 7, 9};
+		Coadd means = new Coadd(2);
+		Coadd sums = new Coadd(1, false);
+		
+		means.sumData(values, 0, 3, 0);
+		means.sumData(values, 4, 7, 0);
+		means.sumData(values, 0, 0, 1);
+		sums.sumData(values, 0, 7, 0);
+		
+		CoaddInfo info = means.calculate(0);
+		
+		assertEquals(5.0, info.getValue(), 1e-12);
+		assertEquals(Math.sqrt(32.0 / 7), info.getRms(), 1e-12);
+		assertEquals(8, info.getSampleCount());
+		assertTrue(Double.isNaN(means.calculate(1).getRms()));
+		assertEquals(40.0, sums.calculate(0).getValue(), 0);
+		
+		means.initialize();
+		
+		assertEquals(0, means.getSampleCount(0));
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,348 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.numerics.math.types;
+
+import java.util.Random;
+
+import gov.nasa.gsfc.commons.numerics.math.calculations.Fft;
+import gov.nasa.gsfc.commons.numerics.math.calculations.WindowFunction;
+import gov.nasa.gsfc.commons.numerics.types.ComplexArray;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit test for {@link FrequencySpectrum}, comparing single spectra with
+ * the ones formed from {@link Fft#applySampledFft(double[])} as before the
+ * FFT plans were introduced, and averaged spectra with a direct evaluation
+ * of the Welch estimate.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class FrequencySpectrumTest extends TestCase
+{
+	// Powers of two, and sizes that are truncated to the prior power of two
+	private static final int[] SIZES = {1, 2, 64, 100, 1000, 1024};
+
+	private static final double SAMPLING_PERIOD = 0.01;
+
+	private Random fRandom = new Random(580);
+
+	/**
+	 * Test that single spectra, formed repeatedly by one FrequencySpectrum,
+	 * are those formed from Fft.applySampledFft.
+	 */
+	public void testLegacyOutputUnchanged()
+	{
+		FrequencySpectrum spectrum = new FrequencySpectrum();
+
+		for (int s = 0; s < SIZES.length; s++)
+		{
+			double[] samples = randomValues(SIZES[s]);
+
+			checkLegacySpectrum(spectrum, samples, 1.0, 0.0);
+			checkLegacySpectrum(spectrum, samples, 2.5, 0.3);
+		}
+	}
+
+	/**
+	 * Test that the constructors form the same spectra as before.
+	 */
+	public void testLegacyConstructors()
+	{
+		double[] samples = randomValues(512);
+		double[] expected = legacyAmplitudes(samples, 1.0, 0.0);
+
+		FrequencySpectrum spectrum =
+			new FrequencySpectrum(samples, SAMPLING_PERIOD);
+
+		assertValues("constructed", expected,
+			spectrum.getAmplitudeValues(), expected.length);
+
+		double[] buffer = new double[expected.length];
+		new FrequencySpectrum(samples, SAMPLING_PERIOD, buffer);
+
+		assertValues("into buffer", expected, buffer, expected.length);
+	}
+
+	/**
+	 * Test that a single rectangular segment of a power-of-two size gives
+	 * the same amplitudes as a single spectrum.
+	 */
+	public void testAveragedSingleSegment()
+	{
+		double[] samples = randomValues(256);
+		double[] expected =
+			new FrequencySpectrum().formFrequencySpectrum(
+				samples, SAMPLING_PERIOD, 1.5, 0.2);
+
+		FrequencySpectrum spectrum = new FrequencySpectrum();
+		double[] amplitudes = new double[129];
+
+		int numValues = spectrum.formAveragedFrequencySpectrum(samples, 256,
+			SAMPLING_PERIOD, 0, 0, null, amplitudes, 1.5, 0.2);
+
+		assertEquals(129, numValues);
+		assertValues("single segment", expected, amplitudes, numValues);
+		assertEquals(1.0 / (256 * SAMPLING_PERIOD),
+			spectrum.getFrequencyDelta(), 1e-12);
+	}
+
+	/**
+	 * Test the Welch estimate over overlapping windowed segments whose size
+	 * is not a power of two, with samples left over after the last segment.
+	 */
+	public void testWelchEstimate()
+	{
+		int numSamples = 530;
+		int segmentSize = 100;
+		int overlap = 40;
+		double[] samples = randomValues(numSamples + 7);
+
+		WindowFunction[] windows = {WindowFunction.RECTANGULAR,
+			WindowFunction.HANN, WindowFunction.BLACKMAN};
+		FrequencySpectrum spectrum = new FrequencySpectrum();
+
+		for (int w = 0; w < windows.length; w++)
+		{
+			double[] expected = welch(samples, numSamples, segmentSize,
+				overlap, windows[w], 2.0, 0.5);
+
+			int numValues = spectrum.formAveragedFrequencySpectrum(samples,
+				numSamples, SAMPLING_PERIOD, segmentSize, overlap, windows[w],
+				null, 2.0, 0.5);
+
+			assertEquals(FrequencySpectrum.getAveragedResultSize(segmentSize),
+				numValues);
+			assertValues(windows[w].toString(), expected,
+				spectrum.getAmplitudeValues(), numValues);
+		}
+	}
+
+	/**
+	 * Test that the peak of the Welch estimate of a sinusoid is at its
+	 * frequency.
+	 */
+	public void testWelchPeak()
+	{
+		int numSamples = 2048;
+		int segmentSize = 250;
+		int bin = 20;
+		double[] samples = new double[numSamples];
+
+		for (int i = 0; i < numSamples; i++)
+		{
+			samples[i] = Math.sin(2 * Math.PI * bin * i / segmentSize);
+		}
+
+		FrequencySpectrum spectrum = new FrequencySpectrum();
+		spectrum.formAveragedFrequencySpectrum(samples, numSamples,
+			SAMPLING_PERIOD, segmentSize, segmentSize / 2,
+			WindowFunction.HANN, null, 1.0, 0.0);
+
+		double[] amplitudes = spectrum.getAmplitudeValues();
+		int peak = 0;
+
+		for (int i = 1; i < spectrum.getNumAmplitudeValues(); i++)
+		{
+			if (amplitudes[i] > amplitudes[peak])
+			{
+				peak = i;
+			}
+		}
+
+		assertEquals(bin, peak);
+		assertEquals(bin / (segmentSize * SAMPLING_PERIOD),
+			peak * spectrum.getFrequencyDelta(), 1e-9);
+	}
+
+	/**
+	 * Test that an overlap that is not less than the segment size is
+	 * rejected.
+	 */
+	public void testInvalidOverlap()
+	{
+		try
+		{
+			new FrequencySpectrum().formAveragedFrequencySpectrum(
+				randomValues(100), 100, SAMPLING_PERIOD, 50, 50, null, null,
+				1.0, 0.0);
+
+			fail("Overlap equal to the segment size accepted");
+		}
+		catch (IllegalArgumentException e)
+		{
+		}
+	}
+
+	/**
+	 * Forms a single spectrum of the given samples and checks it against
+	 * the one formed from Fft.applySampledFft.
+	 */
+	private void checkLegacySpectrum(FrequencySpectrum spectrum,
+		double[] samples, double calibrationCoefficient,
+		double calibrationOffset)
+	{
+		double[] expected = legacyAmplitudes(
+			samples, calibrationCoefficient, calibrationOffset);
+		ComplexArray expectedFft = 
+			Fft.applySampledFft((double[]) samples.clone());
+		String label = "size " + samples.length;
+
+		double[] amplitudes = spectrum.formFrequencySpectrum(samples,
+			SAMPLING_PERIOD, calibrationCoefficient, calibrationOffset);
+
+		assertEquals(label, expected.length,
+			spectrum.getNumAmplitudeValues());
+		assertValues(label, expected, amplitudes, expected.length);
+
+		ComplexArray fft = spectrum.getFftResults();
+
+		assertValues(label + " real", expectedFft.realParts,
+			fft.realParts, expected.length);
+		assertValues(label + " imaginary", expectedFft.imaginaryParts,
+			fft.imaginaryParts, expected.length);
+		assertEquals(label,
+			1.0 / (2 * expected.length * SAMPLING_PERIOD),
+			spectrum.getFrequencyDelta(), 1e-12);
+	}
+
+	/**
+	 * Returns the amplitudes of the given samples as formed from
+	 * Fft.applySampledFft, which reorders a copy of them in place.
+	 */
+	private static double[] legacyAmplitudes(double[] samples,
+		double calibrationCoefficient, double calibrationOffset)
+	{
+		int numUsefulSamples = Integer.highestOneBit(samples.length);
+		double calibrationScale = Math.sqrt((2 * SAMPLING_PERIOD) /
+			((calibrationCoefficient * Math.sqrt(numUsefulSamples)) +
+				calibrationOffset));
+
+		ComplexArray fft = Fft.applySampledFft((double[]) samples.clone());
+		double[] result = new double[fft.length];
+
+		for (int i = 0; i < fft.length; i++)
+		{
+			double realPart = fft.realParts[i];
+			double imaginaryPart = fft.imaginaryParts[i];
+
+			result[i] = Math.sqrt(2) * Math.sqrt((realPart * realPart) +
+				(imaginaryPart * imaginaryPart)) * calibrationScale;
+		}
+
+		return (result);
+	}
+
+	/**
+	 * Evaluates the Welch estimate directly, transforming each windowed
+	 * segment with a Discrete Fourier Transform.
+	 */
+	private static double[] welch(double[] samples, int numSamples,
+		int segmentSize, int overlap, WindowFunction window,
+		double calibrationCoefficient, double calibrationOffset)
+	{
+		int numValues = segmentSize / 2 + 1;
+		int step = segmentSize - overlap;
+		double[] coefficients = window.getCoefficients(segmentSize);
+		double[] powers = new double[numValues];
+		double windowPower = 0;
+		int numSegments = 0;
+
+		for (int j = 0; j < segmentSize; j++)
+		{
+			windowPower += coefficients[j] * coefficients[j] / segmentSize;
+		}
+
+		for (int start = 0; start + segmentSize <= numSamples; start += step)
+		{
+			for (int k = 0; k < numValues; k++)
+			{
+				double sumReal = 0;
+				double sumImaginary = 0;
+
+				for (int j = 0; j < segmentSize; j++)
+				{
+					double value = samples[start + j] * coefficients[j];
+					double angle = -2 * Math.PI *
+						(((long) j * k) % segmentSize) / segmentSize;
+
+					sumReal += value * Math.cos(angle);
+					sumImaginary += value * Math.sin(angle);
+				}
+
+				powers[k] += sumReal * sumReal + sumImaginary * sumImaginary;
+			}
+
+			numSegments++;
+		}
+
+		double calibrationScale = Math.sqrt((2 * SAMPLING_PERIOD) /
+			((calibrationCoefficient * Math.sqrt(segmentSize)) +
+				calibrationOffset));
+		double[] result = new double[numValues];
+
+		for (int k = 0; k < numValues; k++)
+		{
+			result[k] = Math.sqrt(2) * calibrationScale * Math.sqrt(
+				powers[k] / (numSegments * segmentSize * windowPower));
+		}
+
+		return (result);
+	}
+
+	/**
+	 * Returns the given number of random values.
+	 */
+	private double[] randomValues(int size)
+	{
+		double[] result = new double[size];
+
+		for (int i = 0; i < size; i++)
+		{
+			result[i] = fRandom.nextDouble() * 2 - 1;
+		}
+
+		return (result);
+	}
+
+	/**
+	 * Asserts that the first values of the given arrays are equal.
+	 */
+	private static void assertValues(String label, double[] expected,
+		double[] actual, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			assertEquals(label + " [" + i + "]", expected[i], actual[i], 1e-9);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
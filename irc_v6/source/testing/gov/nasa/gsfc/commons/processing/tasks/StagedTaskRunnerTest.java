@@ -0,0 +1,216 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.processing.tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit test for {@link StagedTaskRunner}.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class StagedTaskRunnerTest extends TestCase
+{
+	private BoundedTaskPool fPool;
+	private StagedTaskRunner fRunner;
+	
+	protected void setUp()
+	{
+		fPool = new BoundedTaskPool("Test", 0, 4, 1000);
+		fRunner = new StagedTaskRunner("Test", fPool);
+	}
+	
+	protected void tearDown()
+	{
+		fPool.shutdown();
+	}
+	
+	/**
+	 * Test that a stage runs all of its tasks before returning, and that 
+	 * its time is recorded.
+	 */
+	public void testStages()
+	{
+		final List finished = Collections.synchronizedList(new ArrayList());
+		List tasks = new ArrayList();
+		
+		for (int i = 0; i < 10; i++)
+		{
+			final Integer value = new Integer(i);
+			
+			tasks.add(new Runnable()
+			{
+				public void run()
+				{
+					finished.add(value);
+				}
+			});
+		}
+		
+		fRunner.runStage("First", tasks);
+		
+		assertEquals(10, finished.size());
+		
+		fRunner.runStage("Second", new ArrayList());
+		
+		assertEquals(2, fRunner.getStageTimes().size());
+		assertTrue(fRunner.getStageTimes().containsKey("First"));
+		assertTrue(fRunner.getStageTimes().containsKey("Second"));
+	}
+	
+	/**
+	 * Test that the tasks of a stage run concurrently.
+	 */
+	public void testConcurrency()
+	{
+		final Object barrier = new Object();
+		final int[] arrived = new int[1];
+		List tasks = new ArrayList();
+		
+		for (int i = 0; i < 3; i++)
+		{
+			tasks.add(new Runnable()
+			{
+				public void run()
+				{
+					synchronized (barrier)
+					{
+						arrived[0]++;
+						barrier.notifyAll();
+						
+						long deadline = System.currentTimeMillis() + 10000;
+						
+						while ((arrived[0] < 3) && 
+							(System.currentTimeMillis() < deadline))
+						{
+							try
+							{
+								barrier.wait(100);
+							}
+							catch (InterruptedException ex)
+							{
+								// Keep waiting
+							}
+						}
+					}
+				}
+			});
+		}
+		
+		fRunner.runStage("Concurrent", tasks);
+		
+		assertEquals(3, arrived[0]);
+	}
+	
+	/**
+	 * Test that the remaining tasks of a stage run after one fails, and that 
+	 * the failure is then rethrown.
+	 */
+	public void testFailure()
+	{
+		final List finished = Collections.synchronizedList(new ArrayList());
+		List tasks = new ArrayList();
+		
+		tasks.add(new Runnable()
+		{
+			public void run()
+			{
+				throw (new IllegalStateException("Expected"));
+			}
+		});
+		
+		for (int i = 0; i < 5; i++)
+		{
+			tasks.add(new Runnable()
+			{
+				public void run()
+				{
+					finished.add(this);
+				}
+			});
+		}
+		
+		try
+		{
+			fRunner.runStage("Failing", tasks);
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e)
+		{
+			// Expected
+		}
+		
+		assertEquals(5, finished.size());
+	}
+	
+	/**
+	 * Test that a task may itself run a stage on the same pool when every 
+	 * worker is busy.
+	 */
+	public void testNestedStages()
+	{
+		final List finished = Collections.synchronizedList(new ArrayList());
+		List tasks = new ArrayList();
+		
+		for (int i = 0; i < 8; i++)
+		{
+			tasks.add(new Runnable()
+			{
+				public void run()
+				{
+					List nested = new ArrayList();
+					
+					for (int j = 0; j < 4; j++)
+					{
+						nested.add(new Runnable()
+						{
+							public void run()
+							{
+								finished.add(this);
+							}
+						});
+					}
+					
+					fRunner.runStage("Nested", nested);
+				}
+			});
+		}
+		
+		fRunner.runStage("Outer", tasks);
+		
+		assertEquals(32, finished.size());
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
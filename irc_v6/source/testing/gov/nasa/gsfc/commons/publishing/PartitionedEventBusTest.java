@@ -0,0 +1,232 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.publishing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import edu.emory.mathcs.backport.java.util.concurrent.CountDownLatch;
+import edu.emory.mathcs.backport.java.util.concurrent.TimeUnit;
+
+import gov.nasa.gsfc.commons.publishing.selectors.EventSelector;
+
+/**
+ * JUnit test for {@link PartitionedEventBus}.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class PartitionedEventBusTest extends TestCase
+{
+	/**
+	 * Test that the listeners of each selector receive their events in
+	 * order, even when the lanes fill up, and that publishAndWait returns
+	 * only once every lane has delivered its event.
+	 */
+	public void testOrdering() throws Exception
+	{
+		PartitionedEventBus bus = new PartitionedEventBus(3, 4);
+		RecordingListener[] listeners = new RecordingListener[5];
+		
+		for (int i = 0; i < listeners.length; i++)
+		{
+			listeners[i] = new RecordingListener();
+			bus.addBusEventListener(new KeySelector(i), listeners[i]);
+		}
+		
+		for (int n = 0; n < 1000; n++)
+		{
+			bus.publish(new KeyEvent(this, n % listeners.length, n));
+		}
+		
+		bus.publishAndWait(new KeyEvent(this, -1, -1));
+		
+		for (int i = 0; i < listeners.length; i++)
+		{
+			List values = listeners[i].getValues();
+			
+			assertEquals(200, values.size());
+			
+			for (int j = 0; j < values.size(); j++)
+			{
+				assertEquals(j * listeners.length + i, 
+					((Integer) values.get(j)).intValue());
+			}
+		}
+	}
+	
+	/**
+	 * Test that a listener does not receive its own events, and does not
+	 * receive events once it is removed.
+	 */
+	public void testSourceAndRemoval() throws Exception
+	{
+		PartitionedEventBus bus = new PartitionedEventBus(2);
+		RecordingListener first = new RecordingListener();
+		RecordingListener second = new RecordingListener();
+		
+		bus.addBusEventListener(first);
+		bus.addBusEventListener(new KeySelector(1), second);
+		
+		bus.publishAndWait(new KeyEvent(first, 1, 1));
+		bus.publishAndWait(new KeyEvent(this, 1, 2));
+		
+		assertEquals(Collections.singletonList(new Integer(2)), 
+			first.getValues());
+		assertEquals(2, second.getValues().size());
+		
+		bus.removeBusEventListener(second);
+		bus.publishAndWait(new KeyEvent(this, 1, 3));
+		
+		assertEquals(2, second.getValues().size());
+		assertEquals(2, first.getValues().size());
+	}
+	
+	/**
+	 * Test that listeners on two lanes can publish to each other's lane 
+	 * while both lanes are full, without their lanes waiting for each other.
+	 */
+	public void testCrossLanePublishing() throws Exception
+	{
+		int depth = 6;
+		int numberOfEvents = 0;
+		
+		for (int i = 0, events = 1; i <= depth; i++, events *= FAN_OUT)
+		{
+			numberOfEvents += events;
+		}
+		
+		PartitionedEventBus bus = new PartitionedEventBus(2, 1);
+		CountDownLatch latch = new CountDownLatch(numberOfEvents);
+		
+		bus.addBusEventListener(new KeySelector(0), 
+			new ForwardingListener(bus, 1, latch));
+		bus.addBusEventListener(new KeySelector(1), 
+			new ForwardingListener(bus, 0, latch));
+		
+		bus.publish(new KeyEvent(this, 0, depth));
+		
+		assertTrue("Lanes deadlocked with " + latch.getCount() 
+			+ " events undelivered", latch.await(30, TimeUnit.SECONDS));
+	}
+	
+	/**
+	 * The number of events a ForwardingListener publishes for each event.
+	 */
+	private static final int FAN_OUT = 3;
+	
+	/**
+	 * An event with a key and a value.
+	 */
+	private static class KeyEvent extends EventObject
+	{
+		private int fKey;
+		private int fValue;
+		
+		KeyEvent(Object source, int key, int value)
+		{
+			super(source);
+			fKey = key;
+			fValue = value;
+		}
+	}
+	
+	/**
+	 * Selects the KeyEvents with a given key.
+	 */
+	private static class KeySelector implements EventSelector
+	{
+		private int fKey;
+		
+		KeySelector(int key)
+		{
+			fKey = key;
+		}
+		
+		public boolean matches(EventObject event)
+		{
+			return ((KeyEvent) event).fKey == fKey;
+		}
+	}
+	
+	/**
+	 * Counts the events it receives and, for an event with a value greater
+	 * than 0, publishes FAN_OUT events with the next lower value to the 
+	 * listener of another key.
+	 */
+	private static class ForwardingListener implements BusEventListener
+	{
+		private EventBus fBus;
+		private int fKey;
+		private CountDownLatch fLatch;
+		
+		ForwardingListener(EventBus bus, int key, CountDownLatch latch)
+		{
+			fBus = bus;
+			fKey = key;
+			fLatch = latch;
+		}
+		
+		public void receiveBusEvent(EventObject event)
+		{
+			int value = ((KeyEvent) event).fValue;
+			
+			for (int i = 0; value > 0 && i < FAN_OUT; i++)
+			{
+				fBus.publish(new KeyEvent(this, fKey, value - 1));
+			}
+			
+			fLatch.countDown();
+		}
+	}
+	
+	/**
+	 * Records the values of the events it receives.
+	 */
+	private static class RecordingListener implements BusEventListener
+	{
+		private List fValues = new ArrayList();
+		
+		public synchronized void receiveBusEvent(EventObject event)
+		{
+			fValues.add(new Integer(((KeyEvent) event).fValue));
+		}
+		
+		synchronized List getValues()
+		{
+			return new ArrayList(fValues);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
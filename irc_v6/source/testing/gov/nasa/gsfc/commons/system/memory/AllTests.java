@@ -45,6 +45,7 @@ public class AllTests
 		suite.addTestSuite(CompositeAllocationTest.class);
 		suite.addTestSuite(ContiguousMemoryModelTest.class);
 		suite.addTestSuite(DefaultLinkedAllocationTest.class);
+		suite.addTestSuite(RingMemoryModelTest.class);
 		//$JUnit-END$
 		return suite;
 	}
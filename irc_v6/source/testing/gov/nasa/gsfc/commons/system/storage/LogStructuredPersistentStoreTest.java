@@ -0,0 +1,318 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.system.storage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+
+/**
+ * JUnit tests for {@link LogStructuredPersistentStore}.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version $Date$
+ * @author $Author$
+ */
+public class LogStructuredPersistentStoreTest extends TestCase
+{
+	private File fDirectory;
+	private String fStoreName;
+	
+
+	protected void setUp() throws Exception
+	{
+		fDirectory = File.createTempFile("store", "");
+		fDirectory.delete();
+		fDirectory.mkdir();
+		
+		fStoreName = new File(fDirectory, "TestStore").getPath();
+	}
+
+	protected void tearDown()
+	{
+		File[] files = fDirectory.listFiles();
+		
+		for (int i = 0; files != null && i < files.length; i++)
+		{
+			files[i].delete();
+		}
+		
+		fDirectory.delete();
+	}
+
+	/**
+	 * Test that stores and deletes survive reopening the store.
+	 */
+	public void testReopen()
+	{
+		LogStructuredPersistentStore store = createStore(4096);
+		
+		assertFalse(store.readFromDisk());
+		
+		store.store("a", "first");
+		store.store("b", new Integer(2));
+		store.store("a", "second");
+		store.store("c", "deleted");
+		store.delete("c");
+		store.close();
+		
+		store = createStore(4096);
+		
+		assertTrue(store.readFromDisk());
+		assertEquals("second", store.retrieve("a"));
+		assertEquals(new Integer(2), store.retrieve("b"));
+		assertNull(store.retrieve("c"));
+		
+		Iterator keys = store.getAllKeys();
+		
+		assertEquals("a", keys.next());
+		assertEquals("b", keys.next());
+		assertFalse(keys.hasNext());
+		
+		store.close();
+	}
+
+	/**
+	 * Test that saveToDisk writes Objects changed in place after retrieval.
+	 */
+	public void testSaveChangedObject()
+	{
+		LogStructuredPersistentStore store = createStore(4096);
+		HashMap map = new HashMap();
+		
+		map.put("count", new Integer(1));
+		store.store("map", map);
+		
+		((Map) store.retrieve("map")).put("count", new Integer(2));
+		assertTrue(store.saveToDisk());
+		store.close();
+		
+		store = createStore(4096);
+		store.readFromDisk();
+		
+		assertEquals(new Integer(2), ((Map) store.retrieve("map")).get("count"));
+		
+		store.close();
+	}
+
+	/**
+	 * Test that saveToDisk writes Objects changed in place after an earlier
+	 * save, without their being retrieved again, and that it appends no 
+	 * records when nothing has changed.
+	 */
+	public void testSaveAfterSave()
+	{
+		LogStructuredPersistentStore store = createStore(1 << 20);
+		File segment = new File(fStoreName + ".1.log");
+		HashMap map = new HashMap();
+		
+		store.store("map", map);
+		map.put("count", new Integer(1));
+		
+		for (int i = 0; i < 10; i++)
+		{
+			store.store("key" + i, new Integer(i));
+		}
+		
+		long size = segment.length();
+		
+		assertTrue(store.saveToDisk());
+		assertTrue(segment.length() > size);
+		
+		size = segment.length();
+		
+		assertTrue(store.saveToDisk());
+		assertEquals(size, segment.length());
+		
+		// Changed again through the reference held since it was stored
+		map.put("count", new Integer(2));
+		
+		assertTrue(store.saveToDisk());
+		assertTrue(segment.length() > size);
+		
+		size = segment.length();
+		
+		assertTrue(store.saveToDisk());
+		assertEquals(size, segment.length());
+		store.close();
+		
+		store = createStore(1 << 20);
+		store.readFromDisk();
+		
+		Map retrieved = (Map) store.retrieve("map");
+		
+		assertEquals(new Integer(2), retrieved.get("count"));
+		assertEquals(new Integer(3), store.retrieve("key3"));
+		
+		size = segment.length();
+		
+		assertTrue(store.saveToDisk());
+		assertEquals(size, segment.length());
+		
+		// Changed through the retrieved reference after each save
+		retrieved.put("count", new Integer(3));
+		assertTrue(store.saveToDisk());
+		
+		retrieved.put("count", new Integer(4));
+		assertTrue(store.saveToDisk());
+		store.close();
+		
+		store = createStore(1 << 20);
+		store.readFromDisk();
+		
+		assertEquals(new Integer(4), ((Map) store.retrieve("map")).get("count"));
+		
+		store.close();
+	}
+
+	/**
+	 * Test that a damaged record at the end of the store is discarded and 
+	 * that the records before it are kept.
+	 */
+	public void testTornWrite() throws Exception
+	{
+		LogStructuredPersistentStore store = createStore(4096);
+		
+		store.store("a", "kept");
+		store.store("b", "damaged");
+		store.close();
+		
+		RandomAccessFile segment = 
+			new RandomAccessFile(fStoreName + ".1.log", "rw");
+		segment.setLength(segment.length() - 3);
+		segment.close();
+		
+		store = createStore(4096);
+		store.readFromDisk();
+		
+		assertEquals("kept", store.retrieve("a"));
+		assertNull(store.retrieve("b"));
+		
+		store.store("c", "appended");
+		store.close();
+		
+		store = createStore(4096);
+		store.readFromDisk();
+		
+		assertEquals("kept", store.retrieve("a"));
+		assertEquals("appended", store.retrieve("c"));
+		
+		store.close();
+	}
+
+	/**
+	 * Test that compaction drops superseded records and keeps the latest 
+	 * value of each key.
+	 */
+	public void testCompaction()
+	{
+		LogStructuredPersistentStore store = createStore(256);
+		
+		for (int i = 0; i < 200; i++)
+		{
+			store.store("key" + (i % 5), "value " + i);
+		}
+		
+		store.delete("key4");
+		store.compact();
+		
+		assertEquals(2, store.getNumberOfSegments());
+		assertEquals(0, store.getNumberOfDeadBytes());
+		assertNull(store.retrieve("key4"));
+		assertEquals("value 198", store.retrieve("key3"));
+		
+		store.store("key0", "after compaction");
+		store.close();
+		
+		store = createStore(256);
+		store.readFromDisk();
+		
+		assertEquals("after compaction", store.retrieve("key0"));
+		assertEquals("value 196", store.retrieve("key1"));
+		assertNull(store.retrieve("key4"));
+		
+		store.close();
+	}
+
+	/**
+	 * Test that a store written by DefaultPersistentStore is imported.
+	 */
+	public void testImport() throws Exception
+	{
+		Map objects = new TreeMap();
+		objects.put("legacy", "value");
+		
+		ObjectOutputStream out = 
+			new ObjectOutputStream(new FileOutputStream(fStoreName));
+		out.writeObject(objects);
+		out.close();
+		
+		LogStructuredPersistentStore store = createStore(4096);
+		
+		assertTrue(store.readFromDisk());
+		assertEquals("value", store.retrieve("legacy"));
+		
+		store.close();
+	}
+
+	/**
+	 * Test that group commit waits for records to be forced.
+	 */
+	public void testGroupCommit()
+	{
+		LogStructuredPersistentStore store = 
+			new LogStructuredPersistentStore(4096, 5);
+		
+		store.setStoreName(fStoreName);
+		store.store("a", "synced");
+		
+		assertEquals("synced", store.retrieve("a"));
+		
+		store.close();
+	}
+
+	private LogStructuredPersistentStore createStore(int segmentSize)
+	{
+		LogStructuredPersistentStore result = 
+			new LogStructuredPersistentStore(segmentSize, -1);
+		
+		result.setStoreName(fStoreName);
+		
+		return (result);
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,140 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.buffers;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit test for {@link BufferHandleChannel}.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class BufferHandleChannelTest extends TestCase
+{
+	/**
+	 * Returns a handle to a buffer holding the given bytes.
+	 */
+	private static BufferHandle createHandle(byte[] bytes)
+	{
+		return (new DefaultBufferHandle(ByteBuffer.wrap(bytes)));
+	}
+
+	/**
+	 * Test that reads span appended buffers and release consumed handles.
+	 */
+	public void testRead() throws Exception
+	{
+		BufferHandleChannel channel = new BufferHandleChannel();
+		BufferHandle first = createHandle(new byte[] {1, 2, 3});
+		BufferHandle second = createHandle(new byte[] {4, 5});
+
+		assertEquals(0, channel.read(ByteBuffer.allocate(4)));
+
+		channel.append(first);
+		channel.append(second);
+
+		assertTrue(first.isInUse());
+		assertEquals(5, channel.available());
+
+		ByteBuffer destination = ByteBuffer.allocate(4);
+
+		assertEquals(4, channel.read(destination));
+		assertFalse(first.isInUse());
+		assertTrue(second.isInUse());
+		assertEquals(1, channel.available());
+
+		for (int i = 0; i < 4; i++)
+		{
+			assertEquals(i + 1, destination.get(i));
+		}
+
+		ByteBuffer[] destinations = 
+			new ByteBuffer[] {ByteBuffer.allocate(0), ByteBuffer.allocate(2)};
+
+		assertEquals(1, channel.read(destinations));
+		assertEquals(5, destinations[1].get(0));
+		assertFalse(second.isInUse());
+	}
+
+	/**
+	 * Test reading the appended buffers in place.
+	 */
+	public void testReadableBuffer() throws Exception
+	{
+		BufferHandleChannel channel = new BufferHandleChannel();
+		BufferHandle handle = createHandle(new byte[] {7, 8, 9});
+
+		assertNull(channel.getReadableBuffer());
+
+		channel.append(handle);
+
+		ByteBuffer buffer = channel.getReadableBuffer();
+
+		assertTrue(buffer.isReadOnly());
+		assertEquals(7, buffer.get());
+		assertEquals(2, channel.available());
+
+		buffer.position(buffer.limit());
+
+		assertEquals(0, channel.available());
+		assertNull(channel.getReadableBuffer());
+		assertFalse(handle.isInUse());
+	}
+
+	/**
+	 * Test that closing releases unread handles and ends the stream.
+	 */
+	public void testClose() throws Exception
+	{
+		BufferHandleChannel channel = new BufferHandleChannel();
+		BufferHandle handle = createHandle(new byte[] {1});
+
+		channel.append(handle);
+		channel.close();
+
+		assertFalse(handle.isInUse());
+		assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+
+		try
+		{
+			channel.append(createHandle(new byte[] {2}));
+			fail("Expected ClosedChannelException");
+		}
+		catch (ClosedChannelException e)
+		{
+			// Expected
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,156 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.buffers;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit test for {@link ByteBufferPool} and {@link PooledBufferHandle}.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class ByteBufferPoolTest extends TestCase
+{
+	/**
+	 * Test that a released buffer is reused and that leases are counted.
+	 */
+	public void testReuse()
+	{
+		ByteBufferPool pool = new ByteBufferPool(64, 2);
+
+		PooledBufferHandle first = pool.acquire(32);
+		ByteBuffer buffer = first.getByteBuffer();
+
+		assertTrue(buffer.isDirect());
+		assertEquals(0, buffer.position());
+		assertEquals(32, buffer.limit());
+		assertEquals(1, pool.getNumberOfLeasedBuffers());
+
+		first.release();
+
+		assertEquals(0, pool.getNumberOfLeasedBuffers());
+		assertEquals(1, pool.getNumberOfFreeBuffers());
+
+		PooledBufferHandle second = pool.acquire(48);
+
+		assertSame(first, second);
+		assertSame(buffer, second.getByteBuffer());
+		assertEquals(48, second.getByteBuffer().limit());
+		assertEquals(2, pool.getNumberOfAcquires());
+		assertEquals(1, pool.getNumberOfMisses());
+
+		second.release();
+	}
+
+	/**
+	 * Test that a buffer is only returned once its last user releases it.
+	 */
+	public void testSharedUse()
+	{
+		ByteBufferPool pool = new ByteBufferPool(64, 2);
+		PooledBufferHandle handle = pool.acquire(16);
+
+		handle.setInUse();
+		handle.release();
+
+		assertTrue(handle.isInUse());
+		assertEquals(0, pool.getNumberOfFreeBuffers());
+
+		handle.release();
+
+		assertFalse(handle.isInUse());
+		assertEquals(1, pool.getNumberOfFreeBuffers());
+	}
+
+	/**
+	 * Test that users of a handle get independent read-only views.
+	 */
+	public void testReadOnlyViews()
+	{
+		ByteBufferPool pool = new ByteBufferPool(64, 2);
+		PooledBufferHandle handle = pool.acquire(4);
+
+		handle.getByteBuffer().putInt(0, 42);
+
+		ByteBuffer first = (ByteBuffer) handle.getBuffer();
+		ByteBuffer second = (ByteBuffer) handle.getBuffer();
+
+		assertTrue(first.isReadOnly());
+		assertEquals(42, first.getInt());
+		assertEquals(0, second.position());
+		assertEquals(42, second.getInt());
+
+		handle.release();
+	}
+
+	/**
+	 * Test that a buffer that is too small is replaced and that buffers
+	 * beyond the capacity of the pool are discarded.
+	 */
+	public void testGrowthAndDiscard()
+	{
+		ByteBufferPool pool = new ByteBufferPool(16, 1);
+		PooledBufferHandle first = pool.acquire(8);
+		PooledBufferHandle second = pool.acquire(8);
+
+		first.release();
+		second.release();
+
+		assertEquals(1, pool.getNumberOfFreeBuffers());
+		assertEquals(1, pool.getNumberOfDiscards());
+
+		PooledBufferHandle large = pool.acquire(1024);
+
+		assertTrue(large.getByteBuffer().capacity() >= 1024);
+		assertEquals(3, pool.getNumberOfMisses());
+
+		large.release();
+	}
+
+	/**
+	 * Test that invalid pool sizes are rejected.
+	 */
+	public void testInvalidSize()
+	{
+		try
+		{
+			new ByteBufferPool(0, 1);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e)
+		{
+			// Expected
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
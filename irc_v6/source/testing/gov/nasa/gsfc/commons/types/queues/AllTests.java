@@ -22,6 +22,7 @@ public class AllTests {
                 "Test for gov.nasa.gsfc.commons.testing.types.queues");
         //$JUnit-BEGIN$
         suite.addTestSuite(DequeuerTest.class);
+        suite.addTestSuite(ConcurrentArrayQueueTest.class);
         //$JUnit-END$
         return suite;
     }
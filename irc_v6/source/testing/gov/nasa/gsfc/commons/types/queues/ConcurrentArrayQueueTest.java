@@ -0,0 +1,264 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.commons.types.queues;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit test for the lock-free {@link ConcurrentArrayQueue} family.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class ConcurrentArrayQueueTest extends TestCase
+{
+	/**
+	 * Test FIFO order, capacity rounding and the keep all policy.
+	 */
+	public void testKeepAll()
+	{
+		SpscArrayQueue queue = new SpscArrayQueue(3);
+
+		assertEquals(4, queue.getCapacity());
+		assertTrue(queue.isEmpty());
+		assertNull(queue.remove());
+
+		for (int i = 0; i < 4; i++)
+		{
+			assertTrue(queue.add(new Integer(i)));
+		}
+
+		assertFalse(queue.add(new Integer(4)));
+		assertEquals(4, queue.size());
+		assertEquals(new Integer(0), queue.get());
+
+		for (int i = 0; i < 4; i++)
+		{
+			assertEquals(new Integer(i), queue.remove());
+		}
+
+		assertTrue(queue.isEmpty());
+	}
+
+	/**
+	 * Test the keep latest and keep earliest policies.
+	 */
+	public void testOverflowPolicies() throws InterruptedException
+	{
+		MpscArrayQueue latest = new MpscArrayQueue(2, 
+			OverflowPolicy.KEEP_LATEST, WaitStrategy.PARK);
+		MpscArrayQueue earliest = new MpscArrayQueue(2, 
+			OverflowPolicy.KEEP_EARLIEST, WaitStrategy.PARK);
+
+		for (int i = 0; i < 5; i++)
+		{
+			assertTrue(latest.add(new Integer(i)));
+			earliest.blockingAdd(new Integer(i));
+		}
+
+		assertFalse(earliest.add(new Integer(5)));
+		assertEquals(new Integer(3), latest.remove());
+		assertEquals(new Integer(4), latest.remove());
+		assertEquals(new Integer(0), earliest.remove());
+		assertEquals(new Integer(1), earliest.remove());
+	}
+
+	/**
+	 * Test batch draining.
+	 */
+	public void testDrainTo()
+	{
+		SpscArrayQueue queue = new SpscArrayQueue(8);
+		List list = new ArrayList();
+
+		for (int i = 0; i < 6; i++)
+		{
+			queue.add(new Integer(i));
+		}
+
+		assertEquals(4, queue.drainTo(list, 4));
+		assertEquals(2, queue.size());
+		assertEquals(2, queue.drainTo(list));
+		assertEquals(0, queue.drainTo(list));
+
+		for (int i = 0; i < 6; i++)
+		{
+			assertEquals(new Integer(i), list.get(i));
+		}
+
+		// The slots freed by the drain can be reused.
+		for (int i = 0; i < 8; i++)
+		{
+			assertTrue(queue.add(new Integer(i)));
+		}
+	}
+
+	/**
+	 * Test that unblock releases a waiting consumer.
+	 */
+	public void testUnblock() throws InterruptedException
+	{
+		final SpscArrayQueue queue = new SpscArrayQueue(4);
+
+		Thread unblocker = new Thread()
+		{
+			public void run()
+			{
+				try
+				{
+					Thread.sleep(50);
+				}
+				catch (InterruptedException e)
+				{
+					// Unblock anyway.
+				}
+
+				queue.unblock();
+			}
+		};
+
+		unblocker.start();
+
+		assertNull(queue.blockingRemove());
+
+		unblocker.join();
+	}
+
+	/**
+	 * Test that concurrent producers and consumers each see every Object 
+	 * exactly once.
+	 */
+	public void testConcurrentTransfer() throws InterruptedException
+	{
+		final int producers = 4;
+		final int perProducer = 20000;
+		final MpmcArrayQueue queue = new MpmcArrayQueue(64);
+		final int[] seen = new int[producers * perProducer];
+		final int[] received = new int[1];
+
+		Thread[] threads = new Thread[producers * 2];
+
+		for (int p = 0; p < producers; p++)
+		{
+			final int base = p * perProducer;
+
+			threads[p] = new Thread()
+			{
+				public void run()
+				{
+					try
+					{
+						for (int i = 0; i < perProducer; i++)
+						{
+							queue.blockingAdd(new Integer(base + i));
+						}
+					}
+					catch (InterruptedException e)
+					{
+						// End the test thread.
+					}
+				}
+			};
+
+			threads[producers + p] = new Thread()
+			{
+				public void run()
+				{
+					for (int i = 0; i < perProducer; i++)
+					{
+						Integer value = null;
+
+						try
+						{
+							value = (Integer) queue.blockingRemove();
+						}
+						catch (InterruptedException e)
+						{
+							return;
+						}
+
+						synchronized (seen)
+						{
+							seen[value.intValue()]++;
+							received[0]++;
+						}
+					}
+				}
+			};
+		}
+
+		for (int i = 0; i < threads.length; i++)
+		{
+			threads[i].start();
+		}
+
+		for (int i = 0; i < threads.length; i++)
+		{
+			threads[i].join(30000);
+		}
+
+		assertEquals(seen.length, received[0]);
+
+		for (int i = 0; i < seen.length; i++)
+		{
+			assertEquals(1, seen[i]);
+		}
+
+		assertTrue(queue.isEmpty());
+	}
+
+	/**
+	 * Test the factory and invalid arguments.
+	 */
+	public void testFactory()
+	{
+		assertTrue(QueueFactory.createQueue("mpsc", 4, OverflowPolicy.KEEP_ALL, 
+			WaitStrategy.SPIN) instanceof MpscArrayQueue);
+
+		Queue legacy = new FifoQueue();
+
+		assertSame(legacy, QueueFactory.getQueue(
+			ConcurrentArrayQueueTest.class.getName() + ".unset", legacy));
+
+		try
+		{
+			new SpscArrayQueue(0);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e)
+		{
+			// Expected
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
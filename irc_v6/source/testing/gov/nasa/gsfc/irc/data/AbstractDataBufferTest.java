@@ -136,6 +136,41 @@ public class AbstractDataBufferTest extends TestCase
 		assertEquals(0, (int) fDataBuffer.getMinValueIndex());
 	}
 	
+	/**
+	 * Test the statistics of a buffer that wraps around the end of its 
+	 * array and holds NaNs, which must be left out.
+	 * @see AbstractDataBuffer#recalculateStatistics()
+	 */
+	public void testStatistics()
+	{
+		double[] array = {3, -1, Double.NaN, 50, 4, 0, Double.NaN, 2};
+		DataBuffer buffer = new DoubleDataBuffer(
+			new DataBufferDescriptor("TestBuffer", double.class), 
+			array, 0, array.length).slice(5, 8);
+		
+		// The values are {0, NaN, 2, 3, -1, NaN, 50, 4}
+		assertEquals(6, buffer.getNumSamplesInStatistics());
+		assertEquals(-1, buffer.getMinValue(), 0);
+		assertEquals(4, buffer.getMinValueIndex());
+		assertEquals(50, buffer.getMaxValue(), 0);
+		assertEquals(6, buffer.getMaxValueIndex());
+		assertEquals(58.0 / 6, buffer.getArithmeticMean(), 1e-12);
+		assertEquals(Math.sqrt(2530.0 / 6), buffer.getRootMeanSquare(), 1e-12);
+		
+		float[] floatArray = {3, -1, Float.NaN, 50, 4, 0, Float.NaN, 2};
+		DataBuffer floatBuffer = new FloatDataBuffer(
+			new DataBufferDescriptor("TestBuffer", float.class), 
+			floatArray, 0, floatArray.length).slice(5, 8);
+		
+		assertEquals(6, floatBuffer.getNumSamplesInStatistics());
+		assertEquals(4, floatBuffer.getMinValueIndex());
+		assertEquals(6, floatBuffer.getMaxValueIndex());
+		assertEquals(58.0 / 6, floatBuffer.getArithmeticMean(), 1e-12);
+		
+		assertEquals(4.5, fDataBuffer.getArithmeticMean(), 1e-12);
+		assertEquals(Math.sqrt(28.5), fDataBuffer.getRootMeanSquare(), 1e-12);
+	}
+	
 	/**
 	 * Test duplicating a DataBuffer.
 	 * @see AbstractDataBuffer#duplicate()
@@ -159,6 +194,120 @@ public class AbstractDataBufferTest extends TestCase
 		assertSame(fDuplicateBuffer.array(), fDataBuffer.array());
 	}
 
+	/**
+	 * Test bulk copying a DataBuffer into an array of doubles, including a
+	 * range that wraps around the end of the underlying array.
+	 * @see AbstractDataBuffer#get(int, double[], int, int)
+	 */
+	public void testBulkGet()
+	{
+		double[] values = new double[fTestCapacity + 1];
+		
+		fDataBuffer.get(2, values, 1, 5);
+		
+		for (int i = 0; i < 5; i++)
+		{
+			assertEquals(i + 2, (int) values[i + 1]);
+		}
+		
+		// A slice of 6 starting at 7 wraps after 3 elements.
+		DataBuffer slice = fDataBuffer.slice(7, 6);
+		
+		slice.get(0, values, 0, slice.getSize());
+		
+		for (int i = 0; i < slice.getSize(); i++)
+		{
+			assertEquals(slice.getAsInt(i), (int) values[i]);
+		}
+		
+		try
+		{
+			fDataBuffer.get(5, values, 0, fTestCapacity);
+			fail("Expected IndexOutOfBoundsException");
+		}
+		catch (IndexOutOfBoundsException e)
+		{
+			// Expected
+		}
+	}
+
+	/**
+	 * Test the aggregating downsampling modes, including groups that wrap
+	 * around the end of the underlying array and groups holding NaNs.
+	 * @see AbstractDataBuffer#downsample(int, DownsamplingMode)
+	 */
+	public void testDownsampleModes()
+	{
+		double[] array = {3, -1, 2, 50, 4, 0, Double.NaN, Double.NaN};
+		DataBuffer buffer = new DoubleDataBuffer(
+			new DataBufferDescriptor("TestBuffer", double.class), 
+			array, 0, array.length);
+		
+		// Starting at 6 the groups are {NaN, NaN}, {3, -1}, {2, 50}, {4, 0}.
+		DataBuffer slice = buffer.slice(6, 8);
+		
+		assertValues(new double[] {Double.NaN, 3, 2, 4}, 
+			slice.downsample(2, DownsamplingMode.FIRST));
+		assertValues(new double[] {Double.NaN, -1, 50, 0}, 
+			slice.downsample(2, DownsamplingMode.LAST));
+		assertValues(new double[] {Double.NaN, 1, 26, 2}, 
+			slice.downsample(2, DownsamplingMode.MEAN));
+		assertValues(new double[] {Double.NaN, -1, 2, 0}, 
+			slice.downsample(2, DownsamplingMode.MINIMUM));
+		assertValues(new double[] {Double.NaN, 3, 50, 4}, 
+			slice.downsample(2, DownsamplingMode.MAXIMUM));
+		assertValues(new double[] {Double.NaN, Math.sqrt(5), 
+			Math.sqrt(1252), Math.sqrt(8)}, 
+			slice.downsample(2, DownsamplingMode.RMS));
+		
+		// The envelope keeps the spike and the order of the extremes.
+		assertValues(new double[] {3, -1, 2, 50, 4, 0, Double.NaN, Double.NaN}, 
+			buffer.downsample(2, DownsamplingMode.ENVELOPE));
+		assertValues(new double[] {3, -1, 50, 0}, 
+			buffer.downsample(3, DownsamplingMode.ENVELOPE));
+		
+		// Integer buffers keep their type.
+		DataBuffer sampled = fDataBuffer.downsample(5, DownsamplingMode.MAXIMUM);
+		
+		assertTrue(sampled instanceof IntegerDataBuffer);
+		assertEquals(2, sampled.getSize());
+		assertEquals(4, sampled.getAsInt(0));
+		assertEquals(9, sampled.getAsInt(1));
+		
+		try
+		{
+			fDataBuffer.downsample(fTestCapacity + 1, DownsamplingMode.MEAN);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e)
+		{
+			// Expected
+		}
+	}
+	
+	/**
+	 * Asserts that the given DataBuffer holds the given values.
+	 * 
+	 * @param expected The expected values
+	 * @param buffer The DataBuffer to check
+	 */
+	private static void assertValues(double[] expected, DataBuffer buffer)
+	{
+		assertEquals(expected.length, buffer.getSize());
+		
+		for (int i = 0; i < expected.length; i++)
+		{
+			if (Double.isNaN(expected[i]))
+			{
+				assertTrue(Double.isNaN(buffer.getAsDouble(i)));
+			}
+			else
+			{
+				assertEquals(expected[i], buffer.getAsDouble(i), 1e-9);
+			}
+		}
+	}
+
 	public static void main(String[] args)
 	{
 		junit.textui.TestRunner.run(suite());
@@ -47,6 +47,8 @@ public class AllTests
 		suite.addTestSuite(DataModelTest.class);
 		suite.addTestSuite(HistoryBundleTest.class);
 		suite.addTestSuite(BasisBundleTest.class);
+		suite.addTestSuite(DataRequesterTest.class);
+		suite.addTestSuite(DataBufferSelectionIndexTest.class);
 		//$JUnit-END$
 		return suite;
 	}
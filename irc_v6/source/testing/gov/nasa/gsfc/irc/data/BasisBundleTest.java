@@ -193,13 +193,94 @@ public class BasisBundleTest extends TestCase
 	 * 
 	 * @see BasisBundle#makeAvailable(BasisSet)
 	 */
-	public void testAllocations()
-	{
-		int basisSetSize = 3;
-		BasisSet basisSet = fBasisBundle.allocateBasisSet(basisSetSize);
-		basisSet.makeAvailable();
-		basisSet.release();
-	}
+	public void testAllocations()
+	{
+		int basisSetSize = 3;
+		BasisSet basisSet = fBasisBundle.allocateBasisSet(basisSetSize);
+		basisSet.makeAvailable();
+		basisSet.release();
+	}
+	
+	/**
+	 * Test asynchronous dispatch to a stalled listener that drops the oldest
+	 * BasisSets when its queue is full.
+	 * 
+	 * @see DefaultBasisBundle#setAsynchronousDispatch(int, BasisSetOverflowPolicy)
+	 */
+	public void testAsynchronousDropOldest() throws Exception
+	{
+		DefaultBasisBundle bundle = (DefaultBasisBundle) fBasisBundle;
+		final Object gate = new Object();
+		final boolean[] open = new boolean[] {false};
+		
+		bundle.setAsynchronousDispatch(2, BasisSetOverflowPolicy.DROP_OLDEST);
+		
+		BasisSetListener stalledListener = new BasisSetListener()
+		{
+			public void receiveBasisSetEvent(BasisSetEvent event)
+			{
+				synchronized (gate)
+				{
+					while (!open[0])
+					{
+						try
+						{
+							gate.wait();
+						}
+						catch (InterruptedException ex)
+						{
+							break;
+						}
+					}
+				}
+				
+				event.getBasisSet().release();
+			}
+		};
+		
+		bundle.addBasisSetListener(stalledListener);
+		
+		AsynchronousBasisSetListener asyncListener = 
+			bundle.getAsynchronousBasisSetListeners()[0];
+		
+		assertSame(stalledListener, asyncListener.getListener());
+		
+		// The first BasisSet stalls the worker, the next two fill the queue, 
+		// and the last two push out the oldest queued ones.
+		fBasisBundle.allocateBasisSet(1).makeAvailable();
+		
+		for (int i = 0; i < 100 && asyncListener.getLag() > 0; i++)
+		{
+			Thread.sleep(10);
+		}
+		
+		for (int i = 0; i < 4; i++)
+		{
+			fBasisBundle.allocateBasisSet(1).makeAvailable();
+		}
+		
+		assertEquals(2, asyncListener.getLag());
+		assertEquals(2, asyncListener.getDroppedCount());
+		
+		synchronized (gate)
+		{
+			open[0] = true;
+			gate.notifyAll();
+		}
+		
+		for (int i = 0; i < 100 && asyncListener.getDeliveredCount() < 3; i++)
+		{
+			Thread.sleep(10);
+		}
+		
+		assertEquals(3, asyncListener.getDeliveredCount());
+		assertEquals(0, asyncListener.getLag());
+		
+		bundle.removeBasisSetListener(stalledListener);
+		
+		assertEquals(fTestCapacity, 
+			bundle.getMemoryModel().getAmountAvailable());
+	}
 	
 	
 	/**
@@ -0,0 +1,121 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
+
+/**
+ * JUnit test for {@link DataBufferSelectionIndex}.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class DataBufferSelectionIndexTest extends TestCase
+{
+	private DataBufferSelectionIndex fIndex = 
+		DataBufferSelectionIndex.getInstance();
+	
+	/**
+	 * Test that a selection holds the positions and names of the matching
+	 * DataBuffers in descriptor order.
+	 */
+	public void testSelection()
+	{
+		BasisBundleDescriptor descriptor = createDescriptor();
+		DataBufferSelectionIndex.Selection selection = 
+			fIndex.getSelection(descriptor, "DAC.*");
+		
+		assertEquals(2, selection.size());
+		assertEquals(0, selection.getIndex(0));
+		assertEquals(2, selection.getIndex(1));
+		
+		Iterator names = selection.getNames().iterator();
+		
+		assertEquals("DAC1", names.next());
+		assertEquals("DAC2", names.next());
+		assertFalse(names.hasNext());
+		
+		//  The whole name must match
+		assertEquals(0, fIndex.getSelection(descriptor, "DAC").size());
+	}
+
+	/**
+	 * Test that selections are cached by descriptor identity and dropped
+	 * when the descriptor is invalidated.
+	 */
+	public void testCaching()
+	{
+		BasisBundleDescriptor descriptor = createDescriptor();
+		BasisBundleDescriptor sameNamedDescriptor = createDescriptor();
+		
+		Set names = fIndex.getDataBufferNames(descriptor, "DAC.*");
+		
+		assertSame(names, fIndex.getDataBufferNames(descriptor, "DAC.*"));
+		assertNotSame(names, 
+			fIndex.getDataBufferNames(sameNamedDescriptor, "DAC.*"));
+		
+		fIndex.invalidate(descriptor);
+		
+		Set newNames = fIndex.getDataBufferNames(descriptor, "DAC.*");
+		
+		assertNotSame(names, newNames);
+		assertEquals(names, newNames);
+		
+		try
+		{
+			newNames.clear();
+			fail("Expected UnsupportedOperationException");
+		}
+		catch (UnsupportedOperationException e)
+		{
+			// Expected
+		}
+	}
+
+	private BasisBundleDescriptor createDescriptor()
+	{
+		Set dataBufferDescriptors = new LinkedHashSet();
+		
+		dataBufferDescriptors.add(new DataBufferDescriptor("DAC1", double.class));
+		dataBufferDescriptors.add(new DataBufferDescriptor("Temperature", double.class));
+		dataBufferDescriptors.add(new DataBufferDescriptor("DAC2", double.class));
+		
+		return (new BasisBundleDescriptor("Test", 
+			new DataBufferDescriptor("Time", double.class), dataBufferDescriptors));
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
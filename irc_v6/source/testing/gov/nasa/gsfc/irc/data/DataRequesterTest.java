@@ -0,0 +1,495 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.jscience.physics.units.SI;
+
+import gov.nasa.gsfc.commons.system.memory.MemoryModel;
+import gov.nasa.gsfc.commons.types.namespaces.HasName;
+import gov.nasa.gsfc.irc.app.Irc;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
+import gov.nasa.gsfc.irc.data.events.BasisBundleEvent;
+import gov.nasa.gsfc.irc.data.events.DataListener;
+import gov.nasa.gsfc.irc.data.events.DataSetEvent;
+
+/**
+ * JUnit test for the satisfaction of BasisRequests by the
+ * {@link gov.nasa.gsfc.irc.data.DefaultDataRequester DefaultDataRequester} 
+ * class.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class DataRequesterTest extends TestCase
+{
+	private static final long TIMEOUT_MILLIS = 5000;
+	
+	private int fTestCapacity = 100;
+	private BasisBundle fFirstBundle;
+	private BasisBundle fSecondBundle;
+	private DefaultDataRequester fRequester;
+	private DataSetCollector fCollector;
+	
+	/**
+	 * Default constructor for the test
+	 */
+	public DataRequesterTest()
+	{
+		super();
+	}
+	
+	/**
+	 * Constructs the specified test.
+	 * 
+	 * @param name the test method name
+	 */
+	public DataRequesterTest(String name)
+	{
+		super(name);
+	}
+	
+	/**
+	 * Set up for test cases defined in this class.
+	 * @see TestCase#setUp()
+	 */
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		
+		fFirstBundle = createBasisBundle("First");
+		fSecondBundle = createBasisBundle("Second");
+		
+		fCollector = new DataSetCollector();
+		fRequester = new DefaultDataRequester(new RequesterSource());
+		fRequester.addDataListener(fCollector);
+	}
+
+	/**
+	 * Tear down for test cases defined in this class.
+	 * @see TestCase#tearDown()
+	 */
+	protected void tearDown() throws Exception
+	{
+		super.tearDown();
+		fRequester.kill();
+		Irc.getDataSpace().clear();
+		fFirstBundle = null;
+		fSecondBundle = null;
+	}
+
+	/**
+	 * Test that under the ALL rule no DataSet is sent until every 
+	 * BasisRequest is satisfied.
+	 */
+	public void testAllRule() throws Exception
+	{
+		fRequester.setDataRequestSatisfactionRule(
+			DataRequestSatisfactionRuleType.ALL);
+		fRequester.addBasisRequest(
+			new BasisRequest(fFirstBundle.getBasisBundleId()));
+		fRequester.addBasisRequest(
+			new BasisRequest(fSecondBundle.getBasisBundleId()));
+		fRequester.start();
+		
+		makeAvailable(fFirstBundle, 3);
+		
+		assertEquals(0, fCollector.waitForDataSets(1, 100));
+		
+		makeAvailable(fSecondBundle, 2);
+		
+		assertEquals(1, fCollector.waitForDataSets(1, TIMEOUT_MILLIS));
+		assertEquals(2, fCollector.getLastNumBasisSets());
+		
+		fRequester.stop();
+		
+		// The DataSet is released once the listener returns, which may be 
+		// just after the stop.
+		
+		assertEquals(fTestCapacity, waitForAmountAvailable(fFirstBundle));
+		assertEquals(fTestCapacity, waitForAmountAvailable(fSecondBundle));
+	}
+	
+	/**
+	 * Test that under the ANY rule a DataSet is sent as soon as any one 
+	 * BasisRequest is satisfied.
+	 */
+	public void testAnyRule() throws Exception
+	{
+		fRequester.setDataRequestSatisfactionRule(
+			DataRequestSatisfactionRuleType.ANY);
+		fRequester.addBasisRequest(
+			new BasisRequest(fFirstBundle.getBasisBundleId()));
+		fRequester.addBasisRequest(
+			new BasisRequest(fSecondBundle.getBasisBundleId()));
+		fRequester.start();
+		
+		makeAvailable(fSecondBundle, 4);
+		
+		assertEquals(1, fCollector.waitForDataSets(1, TIMEOUT_MILLIS));
+		assertEquals(1, fCollector.getLastNumBasisSets());
+	}
+	
+	/**
+	 * Test that a DataRequester with a finite repetition sends exactly that 
+	 * many DataSets and then stops.
+	 */
+	public void testRepetition() throws Exception
+	{
+		fRequester.addBasisRequest(
+			new BasisRequest(fFirstBundle.getBasisBundleId()));
+		fRequester.setRepetition(2);
+		fRequester.start();
+		
+		for (int i = 0; i < 5; i++)
+		{
+			makeAvailable(fFirstBundle, 1);
+		}
+		
+		fRequester.waitUntilStopped();
+		
+		assertEquals(2, fCollector.getNumDataSets());
+		assertEquals(0, fRequester.getRemainingRepetitions());
+	}
+	
+	/**
+	 * Test that started DataRequesters do not each hold a Thread.
+	 */
+	public void testSharedThreads() throws Exception
+	{
+		int numRequesters = 50;
+		List requesters = new ArrayList(numRequesters);
+		int initialThreads = Thread.activeCount();
+		
+		for (int i = 0; i < numRequesters; i++)
+		{
+			DefaultDataRequester requester = 
+				new DefaultDataRequester(new RequesterSource());
+			
+			requester.addBasisRequest(
+				new BasisRequest(fFirstBundle.getBasisBundleId()));
+			requester.start();
+			requesters.add(requester);
+		}
+		
+		assertTrue(Thread.activeCount() - initialThreads < numRequesters);
+		
+		for (int i = 0; i < numRequesters; i++)
+		{
+			((DefaultDataRequester) requesters.get(i)).kill();
+		}
+	}
+	
+	/**
+	 * Test that a long chain of DataRequesters, each of whose listeners 
+	 * blocks allocating in the BasisBundle read by the next, does not 
+	 * deadlock on the threads they share.
+	 */
+	public void testChainedRequesters() throws Exception
+	{
+		int numStages = 100;
+		int numBasisSets = 200;
+		List requesters = new ArrayList(numStages);
+		BasisBundle[] bundles = new BasisBundle[numStages + 1];
+		
+		for (int i = 0; i <= numStages; i++)
+		{
+			bundles[i] = createBasisBundle("Stage " + i, 1);
+		}
+		
+		for (int i = 0; i < numStages; i++)
+		{
+			DefaultDataRequester requester = 
+				new DefaultDataRequester(new RequesterSource());
+			
+			requester.addBasisRequest(
+				new BasisRequest(bundles[i].getBasisBundleId()));
+			requester.addDataListener(new Forwarder(bundles[i + 1]));
+			requester.start();
+			requesters.add(requester);
+		}
+		
+		DefaultDataRequester last = 
+			new DefaultDataRequester(new RequesterSource());
+		
+		last.addBasisRequest(
+			new BasisRequest(bundles[numStages].getBasisBundleId()));
+		last.addDataListener(fCollector);
+		last.start();
+		requesters.add(last);
+		
+		final BasisBundle first = bundles[0];
+		final int numToFeed = numBasisSets;
+		
+		// Feed from another Thread, so that a deadlock fails the test 
+		// rather than hanging it.
+		
+		Thread feeder = new Thread("Chain Feeder")
+		{
+			public void run()
+			{
+				for (int i = 0; i < numToFeed; i++)
+				{
+					makeAvailable(first, 1);
+				}
+			}
+		};
+		
+		feeder.setDaemon(true);
+		feeder.start();
+		
+		try
+		{
+			assertEquals(numBasisSets, 
+				fCollector.waitForDataSets(numBasisSets, 4 * TIMEOUT_MILLIS));
+		}
+		finally
+		{
+			for (int i = 0; i < requesters.size(); i++)
+			{
+				((DefaultDataRequester) requesters.get(i)).kill();
+			}
+		}
+	}
+	
+	/**
+	 * Runs the suite of tests using the <code>TestRunner</code> class.
+	 * @param args
+	 */
+	public static void main(String[] args)
+	{
+		junit.textui.TestRunner.run(suite());
+	}
+	
+	/**
+	 * Returns the suite of tests for this class.
+	 * @return a suite of Test.
+	 */
+	public static Test suite()
+	{
+		TestSuite suite = new TestSuite(DataRequesterTest.class);
+		return suite;
+	}
+
+	/**
+	 * Creates a new BasisBundle of the given name and adds it to the 
+	 * DataSpace.
+	 * 
+	 * @param name The name of the new BasisBundle
+	 * @return The new BasisBundle
+	 */
+	private BasisBundle createBasisBundle(String name)
+	{
+		return (createBasisBundle(name, fTestCapacity));
+	}
+	
+	/**
+	 * Creates a new BasisBundle of the given name and capacity and adds it 
+	 * to the DataSpace.
+	 * 
+	 * @param name The name of the new BasisBundle
+	 * @param capacity The capacity of the new BasisBundle
+	 * @return The new BasisBundle
+	 */
+	private BasisBundle createBasisBundle(String name, int capacity)
+	{
+		Set dataBufferDescriptors = new HashSet();
+		
+		dataBufferDescriptors.add(new DataBufferDescriptor("data", int.class));
+		
+		BasisBundleDescriptor descriptor = new BasisBundleDescriptor(name, 
+			new DataBufferDescriptor("time", int.class, SI.MILLI(SI.SECOND)), 
+			dataBufferDescriptors);
+		
+		DefaultBasisBundle result = new DefaultBasisBundle(descriptor, 
+			new BundleSource(name), capacity);
+		
+		result.createNewBackingBuffers();
+		
+		Irc.getDataSpace().addBasisBundle(result);
+		
+		return (result);
+	}
+	
+	/**
+	 * Makes a new BasisSet of the given size available from the given 
+	 * BasisBundle.
+	 * 
+	 * @param bundle A BasisBundle
+	 * @param size The size of the new BasisSet
+	 */
+	private void makeAvailable(BasisBundle bundle, int size)
+	{
+		BasisSet basisSet = bundle.allocateBasisSet(size);
+		DataBuffer basisBuffer = basisSet.getBasisBuffer();
+		
+		for (int i = 0; i < size; i++)
+		{
+			basisBuffer.put(i, i);
+		}
+		
+		basisSet.makeAvailable();
+	}
+	
+	/**
+	 * Waits for all of the space in the given BasisBundle to be released, 
+	 * or until the timeout has passed, and returns the amount available.
+	 * 
+	 * @param bundle A BasisBundle
+	 * @return The amount of space available
+	 */
+	private int waitForAmountAvailable(BasisBundle bundle) 
+		throws InterruptedException
+	{
+		MemoryModel model = ((DefaultBasisBundle) bundle).getMemoryModel();
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		
+		while ((model.getAmountAvailable() < fTestCapacity) && 
+			(System.currentTimeMillis() < deadline))
+		{
+			Thread.sleep(1);
+		}
+		
+		return (model.getAmountAvailable());
+	}
+
+	//--- Utility classes ----------------------------------------------------
+
+	private static class BundleSource extends AbstractBasisBundleSource 
+	{
+		/**
+		 * Constructs a new BundleSource having the given name.
+		 * 
+		 * @param name The name of the new BundleSource
+		 */
+		public BundleSource(String name)
+		{
+			super(name);
+		}
+	}
+	
+	private static class RequesterSource implements HasName
+	{
+		public String getName()
+		{
+			return ("Test Requester");
+		}
+	}
+	
+	/**
+	 * A Forwarder makes a BasisSet available from its BasisBundle for each 
+	 * BasisSet it receives, blocking while the BasisBundle is full.
+	 */
+	private class Forwarder implements DataListener
+	{
+		private BasisBundle fBundle;
+		
+		public Forwarder(BasisBundle bundle)
+		{
+			fBundle = bundle;
+		}
+		
+		public void receiveBasisBundleEvent(BasisBundleEvent event)
+		{
+		}
+		
+		public void receiveDataSetEvent(DataSetEvent event)
+		{
+			int numBasisSets = event.getDataSet().getBasisSets().size();
+			
+			for (int i = 0; i < numBasisSets; i++)
+			{
+				makeAvailable(fBundle, 1);
+			}
+		}
+	}
+	
+	private static class DataSetCollector implements DataListener
+	{
+		private int fNumDataSets = 0;
+		private int fLastNumBasisSets = 0;
+		
+		public void receiveBasisBundleEvent(BasisBundleEvent event)
+		{
+		}
+		
+		public synchronized void receiveDataSetEvent(DataSetEvent event)
+		{
+			fNumDataSets++;
+			fLastNumBasisSets = event.getDataSet().getBasisSets().size();
+			
+			notifyAll();
+		}
+		
+		/**
+		 * Waits until the given number of DataSets have been received, or 
+		 * until the given time has passed.
+		 * 
+		 * @param numDataSets The number of DataSets to wait for
+		 * @param timeoutMillis The longest time to wait
+		 * @return The number of DataSets received
+		 */
+		public synchronized int waitForDataSets(int numDataSets, 
+			long timeoutMillis) throws InterruptedException
+		{
+			long deadline = System.currentTimeMillis() + timeoutMillis;
+			long remaining = timeoutMillis;
+			
+			while ((fNumDataSets < numDataSets) && (remaining > 0))
+			{
+				wait(remaining);
+				
+				remaining = deadline - System.currentTimeMillis();
+			}
+			
+			return (fNumDataSets);
+		}
+		
+		public synchronized int getNumDataSets()
+		{
+			return (fNumDataSets);
+		}
+		
+		public synchronized int getLastNumBasisSets()
+		{
+			return (fLastNumBasisSets);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
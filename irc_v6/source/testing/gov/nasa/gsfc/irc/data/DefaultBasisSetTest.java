@@ -172,6 +172,85 @@ public class DefaultBasisSetTest extends TestCase
 		}
 	}
 	
+	/**
+	 * Test that every DataBuffer of a BasisSet holding both numeric and 
+	 * Object DataBuffers is downsampled to the length of the BasisSet in 
+	 * every DownsamplingMode, and that an enveloped Object DataBuffer keeps 
+	 * the first and last Object of each group.
+	 * @see BasisSet#downsample(int, DownsamplingMode)
+	 */
+	public void testDownsampleMixedBuffers()
+	{
+		Set dataBufferDescriptors = new HashSet();
+		dataBufferDescriptors.add(DATA_BUFFER_DESCRIPTOR);
+		dataBufferDescriptors.add(
+			new DataBufferDescriptor("object", String.class));
+		
+		BasisBundle basisBundle = new DefaultBasisBundle(
+			new BasisBundleDescriptor("Mixed", BASIS_BUFFER_DESCRIPTOR, 
+				dataBufferDescriptors), 
+			new BundleSource(), fTestCapacity);
+		((DefaultBasisBundle) basisBundle).createNewBackingBuffers();
+		
+		BasisSet basisSet = basisBundle.allocateBasisSet(fTestCapacity);
+		DataBuffer objectBuffer = basisSet.getDataBuffer("object");
+		
+		for (int i = 0; i < basisSet.getSize(); i++)
+		{
+			basisSet.getBasisBuffer().put(i, i);
+			basisSet.getDataBuffer(DATA_BUFFER_NAME).put(i, i % 3);
+			objectBuffer.put(i, String.valueOf(i));
+		}
+		
+		DownsamplingMode[] modes = {
+			DownsamplingMode.FIRST, DownsamplingMode.LAST, 
+			DownsamplingMode.MEAN, DownsamplingMode.MINIMUM, 
+			DownsamplingMode.MAXIMUM, DownsamplingMode.ENVELOPE, 
+			DownsamplingMode.RMS };
+		
+		for (int m = 0; m < modes.length; m++)
+		{
+			for (int downsample = 2; downsample <= basisSet.getSize(); 
+				downsample++)
+			{
+				BasisSet sampledSet = basisSet.downsample(downsample, modes[m]);
+				int expectedSize = (basisSet.getSize() / downsample) * 
+					modes[m].getSamplesPerGroup();
+				
+				assertEquals(expectedSize, sampledSet.getSize());
+				assertEquals(expectedSize, 
+					sampledSet.getBasisBuffer().getSize());
+				
+				for (Iterator buffers = sampledSet.getDataBuffers();
+					buffers.hasNext();)
+				{
+					DataBuffer buffer = (DataBuffer) buffers.next();
+					
+					assertEquals(modes[m] + " " + buffer.getName(), 
+						expectedSize, buffer.getSize());
+				}
+				
+				if (modes[m] == DownsamplingMode.ENVELOPE)
+				{
+					DataBuffer sampledObjects = 
+						sampledSet.getDataBuffer("object");
+					
+					for (int i = 0; i < expectedSize; i += 2)
+					{
+						int first = (i / 2) * downsample;
+						
+						assertEquals(String.valueOf(first), 
+							sampledObjects.getAsObject(i));
+						assertEquals(String.valueOf(first + downsample - 1), 
+							sampledObjects.getAsObject(i + 1));
+					}
+				}
+			}
+		}
+		
+		basisSet.release();
+	}
+	
 	/**
 	 * Test appending one BasisSet to another when they are contiguous.
 	 * @see BasisSet#append(BasisSet)
@@ -283,6 +283,82 @@ public class HistoryBundleTest extends TestCase
 		basisSet.release();
 	}
 	
+	/**
+	 * Test reading basis ranges of history from the level of detail pyramid
+	 * and falling back to the full-rate history.
+	 * 
+	 * @see HistoryBundle#getLevelOfDetail(double, double, int, int)
+	 * @see HistoryBundle#getHistory(double, double)
+	 */
+	public void testLevelOfDetail()
+	{
+		int historySize = 1000;
+		HistoryBundle historyBundle = new HistoryBundle(
+			fBasisBundle.getBasisBundleSourceId(), 
+			fBasisBundle.getBasisBundleId(),
+			fBasisBundle.getDescriptor(), historySize * 2);
+		
+		historyBundle.setHistorySize(historySize);
+		historyBundle.setLevelOfDetailFactor(HistoryPyramid.DEFAULT_FACTOR);
+		
+		int time = 0;
+		
+		for (int i = 0; i < 200; i++)
+		{
+			BasisSet basisSet = fBasisBundle.allocateBasisSet(fTestCapacity);
+			DataBuffer dataBuffer = basisSet.getDataBuffer(DATA_BUFFER_NAME + 0);
+			
+			for (int j = 0; j < fTestCapacity; j++, time++)
+			{
+				basisSet.getBasisBuffer().put(j, time);
+				dataBuffer.put(j, (time == 1234) ? 1000 : (time % 4 == 0) ? 8 : 0);
+			}
+			
+			historyBundle.appendBasisSet(basisSet).release();
+			basisSet.release();
+		}
+		
+		// A coarse level has enough buckets for a low resolution
+		BasisSet envelope = historyBundle.getLevelOfDetail(
+			1000, 1999, 50, HistoryPyramid.ENVELOPE);
+		
+		assertNotNull(envelope);
+		assertTrue(envelope.getSize() >= 100);
+		assertTrue(envelope.getSize() < 200);
+		
+		DataBuffer envelopeBuffer = envelope.getDataBuffer(DATA_BUFFER_NAME + 0);
+		double maximum = 0;
+		
+		for (int i = 0; i < envelope.getSize(); i += 2)
+		{
+			assertEquals(0, envelopeBuffer.getAsDouble(i), 0);
+			maximum = Math.max(maximum, envelopeBuffer.getAsDouble(i + 1));
+		}
+		
+		assertEquals(1000, maximum, 0);
+		assertEquals(1999, envelope.getBasisBuffer().getAsDouble(
+			envelope.getSize() - 1), 0);
+		
+		// The finest level averages four samples per bucket
+		BasisSet mean = historyBundle.getLevelOfDetail(
+			1500, 1599, 25, HistoryPyramid.MEAN);
+		
+		assertEquals(25, mean.getSize());
+		assertEquals(2, mean.getDataBuffer(DATA_BUFFER_NAME + 0).getAsDouble(3), 0);
+		
+		// No level is fine enough so the full-rate history is needed
+		assertNull(historyBundle.getLevelOfDetail(
+			1500, 1599, 50, HistoryPyramid.ENVELOPE));
+		
+		BasisSet history = historyBundle.getHistory(1500, 1599);
+		
+		assertEquals(100, history.getSize());
+		assertEquals(1500, history.getFirstBasisValue(), 0);
+		assertEquals(1599, history.getLastBasisValue(), 0);
+		
+		history.release();
+	}
+	
 	/**
 	 * Runs the suite of tests using the <code>TestRunner</code> class.
 	 * @param args
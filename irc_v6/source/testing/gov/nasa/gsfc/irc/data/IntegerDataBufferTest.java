@@ -210,6 +210,56 @@ public class IntegerDataBufferTest extends TestCase
 		}
 	}
 	
+	/**
+	 * Test bulk transfer to and from a ByteBuffer across the wrap point.
+	 * @see IntegerDataBuffer#get(ByteBuffer)
+	 * @see IntegerDataBuffer#put(int, ByteBuffer, int)
+	 */
+	public void testByteBufferTransfer()
+	{
+		DataBuffer wrapped = new IntegerDataBuffer(
+				fDescriptor, testArray, 5, fTestCapacity);
+		int sizeInBytes = fTestCapacity * IntegerDataBuffer.BYTES_PER_ELEMENT;
+		ByteBuffer byteBuffer = ByteBuffer.allocateDirect(sizeInBytes + 4);
+		
+		byteBuffer.putInt(-1);
+		wrapped.get(byteBuffer);
+		assertEquals(sizeInBytes + 4, byteBuffer.position());
+		
+		byteBuffer.flip();
+		assertEquals(-1, byteBuffer.getInt());
+		
+		for (int i = 0; i < fTestCapacity; i++)
+		{
+			assertEquals(wrapped.getAsInt(i), byteBuffer.getInt(4 + i * 4));
+		}
+		
+		// Read the elements back into a buffer that wraps elsewhere
+		
+		DataBuffer target = new IntegerDataBuffer(
+				fDescriptor, new int[fTestCapacity], 8, fTestCapacity);
+		target.put(0, byteBuffer, fTestCapacity);
+		assertFalse(byteBuffer.hasRemaining());
+		
+		for (int i = 0; i < fTestCapacity; i++)
+		{
+			assertEquals(wrapped.getAsInt(i), target.getAsInt(i));
+		}
+		
+		// Test exception when the destination is too small
+		
+		try
+		{
+			wrapped.get(ByteBuffer.allocate(sizeInBytes - 1));
+			assertTrue("Expected BufferOverflowException", false);
+		}
+		catch (BufferOverflowException e)
+		{
+			// This is expected
+			assertTrue(true);
+		}
+	}
+	
 	public static void main(String[] args)
 	{
 		junit.textui.TestRunner.run(suite());
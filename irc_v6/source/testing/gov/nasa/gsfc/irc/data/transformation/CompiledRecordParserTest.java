@@ -0,0 +1,236 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.data.transformation;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.jdom.Element;
+import org.jdom.input.SAXBuilder;
+
+import gov.nasa.gsfc.irc.data.transformation.description.RecordParserDescriptor;
+import gov.nasa.gsfc.irc.description.xml.DescriptorDirectory;
+
+
+/**
+ * JUnit test for {@link CompiledRecordParser}, which checks its results 
+ * against those of a {@link RecordParser} configured by the same descriptor.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class CompiledRecordParserTest extends TestCase
+{
+	private static final String RECORD = 
+		"<Record>" + 
+		"<Field name='time'><Value type='long'><Selection>" + 
+			"<CharDelimited delimiter=','/></Selection></Value>" + 
+			"<Postfix value=','/></Field>" + 
+		"<Field name='x'><Value type='double'><Selection>" + 
+			"<CharDelimited delimiter=','/></Selection></Value>" + 
+			"<Postfix value=','/></Field>" + 
+		"<Field name='id'><Value type='String'><Selection>" + 
+			"<CharDelimited delimiter='\\r'/></Selection></Value></Field>" + 
+		"<Terminator value='&#13;'/>" + 
+		"</Record>";
+	
+	private static final String[] INPUTS = 
+	{
+		"1160000000000,1.5,alpha\r", 
+		"-42,-0.000125,beta\rnext", 
+		",,\r", 
+		"7,2.5", 
+		"7,2.5,gamma", 
+		"", 
+		"123456789012345678901,1e10,delta\r", 
+		"0,12345678901234567890.5,eps\r",
+	};
+	
+	
+	/**
+	 * Test that compiled and interpreted parses of ByteBuffers, direct 
+	 * ByteBuffers and CharBuffers agree, including their ending positions.
+	 */
+	public void testMatchesInterpretedParser() throws Exception
+	{
+		RecordParserDescriptor descriptor = getDescriptor(RECORD);
+		CompiledRecordParser compiled = 
+			RecordParserCompiler.compile(descriptor);
+		RecordParser interpreted = new RecordParser(descriptor);
+		
+		assertNotNull(compiled);
+		
+		for (int i = 0; i < INPUTS.length; i++)
+		{
+			byte[] bytes = INPUTS[i].getBytes("US-ASCII");
+			ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+			direct.put(bytes).flip();
+			
+			assertSameParse(INPUTS[i], compiled, interpreted, 
+				ByteBuffer.wrap(bytes), ByteBuffer.wrap(bytes));
+			assertSameParse(INPUTS[i], compiled, interpreted, 
+				direct.duplicate(), direct.duplicate());
+			assertSameParse(INPUTS[i], compiled, interpreted, 
+				CharBuffer.wrap(INPUTS[i]), CharBuffer.wrap(INPUTS[i]));
+		}
+	}
+	
+	
+	/**
+	 * Test that numeric values read directly from a CompiledRecord equal 
+	 * those parsed from its Strings.
+	 */
+	public void testNumericValues() throws Exception
+	{
+		CompiledRecordParser compiled = 
+			RecordParserCompiler.compile(getDescriptor(RECORD));
+		
+		String[] doubles = {"1.5", "-0.000125", "0.1", "3.141592653589793", 
+			"999999999999999", "12345678901234567890.5", "1e10", "-0", ".5", 
+			"5."};
+		
+		for (int i = 0; i < doubles.length; i++)
+		{
+			CompiledRecord record = compiled.parse
+				(CharBuffer.wrap("-9," + doubles[i] + ",id\r"));
+			
+			int x = record.indexOf("x");
+			
+			assertEquals(doubles[i], new Double(Double.parseDouble(doubles[i])), 
+				new Double(record.getDouble(x)));
+			assertEquals(-9, record.getLong(record.indexOf("time")));
+		}
+		
+		CompiledRecord record = 
+			compiled.parse(CharBuffer.wrap("9223372036854775807,x,\r"));
+		
+		assertEquals(Long.MAX_VALUE, record.getLong(0));
+		
+		try
+		{
+			record.getDouble(1);
+			fail("Expected NumberFormatException");
+		}
+		catch (NumberFormatException e)
+		{
+			// Expected
+		}
+	}
+	
+	
+	/**
+	 * Test that the result record is reused and keeps the field order.
+	 */
+	public void testReusedRecord() throws Exception
+	{
+		CompiledRecordParser compiled = 
+			RecordParserCompiler.compile(getDescriptor(RECORD));
+		
+		Map first = compiled.parse("1,2,a\r".getBytes("US-ASCII"), null);
+		Map second = compiled.parse("3,4,b\r".toCharArray(), null);
+		
+		assertSame(first, second);
+		assertEquals("[time, x, id]", new ArrayList(second.keySet()).toString());
+		assertEquals("b", second.get("id"));
+		assertNull(second.get("y"));
+	}
+	
+	
+	/**
+	 * Test that a record that cannot be compiled is parsed by a RecordParser.
+	 */
+	public void testUncompilableRecord() throws Exception
+	{
+		String xml = "<Record><Initiator value='$'/>" + 
+			RECORD.substring("<Record>".length());
+		RecordParserDescriptor descriptor = getDescriptor(xml);
+		
+		assertNull(RecordParserCompiler.compile(descriptor));
+		assertTrue(DefaultDataParserFactory.getInstance().getCompiledDataParser
+			(descriptor) instanceof RecordParser);
+	}
+	
+	
+	/**
+	 * Test that a verifying parser finds no differences.
+	 */
+	public void testVerifying() throws Exception
+	{
+		CompiledRecordParser compiled = (CompiledRecordParser) 
+			DefaultDataParserFactory.getInstance().getCompiledDataParser
+				(getDescriptor(RECORD));
+		
+		compiled.setVerifying(true);
+		
+		for (int i = 0; i < INPUTS.length; i++)
+		{
+			compiled.parse(INPUTS[i].getBytes("US-ASCII"), null);
+			compiled.parse(INPUTS[i].toCharArray(), null);
+		}
+		
+		assertEquals(0, compiled.getNumberOfMismatches());
+	}
+	
+	
+	/**
+	 * Asserts that the given parsers give the same result and ending position 
+	 * for the given copies of the same data.
+	 */
+	private static void assertSameParse(String input, 
+		CompiledRecordParser compiled, RecordParser interpreted, 
+			java.nio.Buffer compiledData, java.nio.Buffer interpretedData)
+	{
+		String expected = interpreted.parse(interpretedData, null).toString();
+		String actual = compiled.parse(compiledData, null).toString();
+		
+		assertEquals(input, expected, actual);
+		assertEquals(input, interpretedData.position(), compiledData.position());
+	}
+	
+	
+	/**
+	 * Returns the RecordParserDescriptor described by the given XML.
+	 */
+	private static RecordParserDescriptor getDescriptor(String xml) 
+		throws Exception
+	{
+		Element element = 
+			new SAXBuilder().build(new StringReader(xml)).getRootElement();
+		
+		return (new RecordParserDescriptor
+			(null, new DescriptorDirectory(null), element));
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,428 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.archiving.data;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import gov.nasa.gsfc.irc.data.AbstractBasisBundleSource;
+import gov.nasa.gsfc.irc.data.BasisBundle;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.DefaultBasisBundle;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
+import gov.nasa.gsfc.irc.data.events.BasisSetEvent;
+import gov.nasa.gsfc.irc.data.events.BasisSetListener;
+
+/**
+ * JUnit test for the indexed archive format written by 
+ * {@link BasisSetArchiveWriter} and read by {@link BasisSetArchiveReader}, 
+ * and for time-range queries over it.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class BasisSetArchiveTest extends TestCase
+{
+	private static final int RECORDS = 50;
+	private static final int SAMPLES = 8;
+	
+	private BasisBundle fBundle;
+	private File fFile;
+	private File fSecondFile;
+	
+	/**
+	 * Set up for test cases defined in this class.
+	 * @see TestCase#setUp()
+	 */
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		
+		Set dataBufferDescriptors = new HashSet();
+		dataBufferDescriptors.add(new DataBufferDescriptor("counts", int.class));
+		dataBufferDescriptors.add(new DataBufferDescriptor("labels", String.class));
+		
+		BasisBundleDescriptor descriptor = new BasisBundleDescriptor("Archive", 
+			new DataBufferDescriptor("time", double.class), 
+			dataBufferDescriptors);
+		
+		fBundle = new DefaultBasisBundle(descriptor, 
+			new BundleSource("Archive Source"), 1000);
+		fFile = File.createTempFile("archive", ".bsa");
+		fSecondFile = File.createTempFile("archive", ".bsa");
+	}
+
+	/**
+	 * Tear down for test cases defined in this class.
+	 * @see TestCase#tearDown()
+	 */
+	protected void tearDown() throws Exception
+	{
+		super.tearDown();
+		fFile.delete();
+		fSecondFile.delete();
+	}
+
+	/**
+	 * Test that records read back unchanged and in order.
+	 */
+	public void testRoundTrip() throws Exception
+	{
+		writeRecords(true);
+		
+		assertTrue(BasisSetArchiveFormat.isIndexedArchive(fFile));
+		
+		BasisSetArchiveReader reader = new BasisSetArchiveReader(fFile);
+		
+		try
+		{
+			assertEquals("Archive", reader.getDescriptor().getName());
+			assertEquals(RECORDS, reader.getRecordCount());
+			assertEquals(1000, reader.getStartTime());
+			assertEquals(1000 + 10 * (RECORDS - 1), reader.getStopTime());
+			
+			for (int record = 0; record < RECORDS; record++)
+			{
+				assertTrue(reader.hasNext());
+				assertEquals(1000 + 10 * record, reader.getNextTime());
+				assertEquals(SAMPLES, reader.getNextSamples());
+				
+				checkRecord(reader, record);
+			}
+			
+			assertFalse(reader.hasNext());
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+	/**
+	 * Test that a file mapped in windows smaller than itself, and than some 
+	 * of its records, reads back the same as one mapped whole.
+	 */
+	public void testWindowedMapping() throws Exception
+	{
+		writeRecords(true);
+		
+		BasisSetArchiveReader reader = new BasisSetArchiveReader(fFile, 0, 64);
+		
+		try
+		{
+			assertEquals(RECORDS, reader.getRecordCount());
+			
+			for (int record = 0; record < RECORDS; record++)
+			{
+				assertEquals(1000 + 10 * record, reader.getNextTime());
+				checkRecord(reader, record);
+			}
+			
+			assertTrue(reader.seek(1000 + 10 * 23));
+			checkRecord(reader, 23);
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+	/**
+	 * Test that seeking finds the first record at or after a given time.
+	 */
+	public void testSeek() throws Exception
+	{
+		writeRecords(true);
+		
+		BasisSetArchiveReader reader = new BasisSetArchiveReader(fFile);
+		
+		try
+		{
+			assertTrue(reader.seek(1000 + 10 * 37));
+			checkRecord(reader, 37);
+			
+			assertTrue(reader.seek(1000 + 10 * 20 - 5));
+			checkRecord(reader, 20);
+			
+			assertTrue(reader.seek(0));
+			checkRecord(reader, 0);
+			
+			assertFalse(reader.seek(1000 + 10 * RECORDS));
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+	/**
+	 * Test that a file that was never closed, and so has no index, is still 
+	 * readable and seekable.
+	 */
+	public void testUnclosedFile() throws Exception
+	{
+		BasisSetArchiveWriter writer = writeRecords(false);
+		
+		try
+		{
+			BasisSetArchiveReader reader = new BasisSetArchiveReader(fFile);
+			
+			try
+			{
+				assertEquals(RECORDS, reader.getRecordCount());
+				assertTrue(reader.seek(1000 + 10 * 41));
+				checkRecord(reader, 41);
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+	/**
+	 * Test that a file in the original serialized format is not taken for an 
+	 * indexed archive.
+	 */
+	public void testSerializedFormatDetected() throws Exception
+	{
+		java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(
+			new java.io.FileOutputStream(fFile));
+		out.writeObject(fBundle.getDescriptor());
+		out.close();
+		
+		assertFalse(BasisSetArchiveFormat.isIndexedArchive(fFile));
+	}
+
+	/**
+	 * Test that a query spanning two files delivers exactly the records in 
+	 * its time range, in batches, with only the queried channels.
+	 */
+	public void testQuery() throws Exception
+	{
+		writeRecords(fFile, 0, true);
+		writeRecords(fSecondFile, RECORDS, true);
+		
+		ArchiveSession session = new ArchiveSession();
+		session.setBasisBundleId(fBundle.getBasisBundleId());
+		session.addFile(createFileInfo(fFile, 0));
+		session.addFile(createFileInfo(fSecondFile, RECORDS));
+		
+		ArchiveCatalog catalog = new ArchiveCatalog();
+		catalog.addSession(session);
+		
+		ArchiveQuery query = new ArchiveQuery("Archive", 
+			1000 + 10 * 40, 1000 + 10 * 60);
+		query.setChannelRegex("count.*");
+		query.setBatchSize(20);
+		
+		assertEquals(2, catalog.findFiles(query).size());
+		
+		BasisSetCollector collector = new BasisSetCollector();
+		int delivered = catalog.query(query, collector);
+		
+		// 10 records from the first file and 11 from the second, two per 
+		// batch
+		assertEquals(5 + 6, delivered);
+		assertEquals(2, collector.fNewSequences);
+		assertEquals(21 * SAMPLES, collector.fSamples.size());
+		
+		for (int i = 0; i < collector.fSamples.size(); i++)
+		{
+			int record = 40 + i / SAMPLES;
+			int sample = i % SAMPLES;
+			
+			assertEquals(new Integer(record * 100 + sample), 
+				collector.fSamples.get(i));
+		}
+		
+		assertFalse(collector.fHadLabels);
+		
+		ArchiveQuery laterQuery = new ArchiveQuery("Archive", 
+			1000 + 10 * 55, 1000 + 10 * 200);
+		
+		assertEquals(1, catalog.findFiles(laterQuery).size());
+	}
+
+	/**
+	 * Creates the catalog entry for a file of test records.
+	 * 
+	 * @param file The file
+	 * @param firstRecord The number of the first record in the file
+	 * @return The catalog entry
+	 */
+	private ArchiveFileInfo createFileInfo(File file, int firstRecord)
+	{
+		ArchiveFileInfo result = new ArchiveFileInfo();
+		
+		result.setFileName(file.getPath());
+		result.setStartTime(1000 + 10 * firstRecord);
+		result.setStopTime(1000 + 10 * (firstRecord + RECORDS - 1));
+		
+		return (result);
+	}
+	
+	/**
+	 * Writes the test records to the test file.
+	 * 
+	 * @param close Whether to close the writer
+	 * @return The writer
+	 */
+	private BasisSetArchiveWriter writeRecords(boolean close) throws Exception
+	{
+		return (writeRecords(fFile, 0, close));
+	}
+	
+	/**
+	 * Writes test records to the given file.
+	 * 
+	 * @param file The file to write
+	 * @param firstRecord The number of the first record
+	 * @param close Whether to close the writer
+	 * @return The writer
+	 */
+	private BasisSetArchiveWriter writeRecords(File file, int firstRecord, 
+		boolean close) throws Exception
+	{
+		BasisSetArchiveWriter writer = null;
+		
+		for (int record = firstRecord; record < firstRecord + RECORDS; record++)
+		{
+			BasisSet basisSet = fBundle.allocateBasisSet(SAMPLES);
+			
+			for (int i = 0; i < SAMPLES; i++)
+			{
+				basisSet.getBasisBuffer().put(i, record + i / 10.0);
+				basisSet.getDataBuffer("counts").put(i, record * 100 + i);
+				basisSet.getDataBuffer("labels").put(i, "r" + record + "s" + i);
+			}
+			
+			if (writer == null)
+			{
+				writer = new BasisSetArchiveWriter(file, 
+					fBundle.getDescriptor(), basisSet);
+			}
+			
+			writer.write(basisSet, 1000 + 10 * record);
+			basisSet.release();
+		}
+		
+		if (close)
+		{
+			writer.close();
+		}
+		
+		return (writer);
+	}
+
+	/**
+	 * Reads the next record and checks that it is the given record.
+	 * 
+	 * @param reader The reader
+	 * @param record The expected record number
+	 */
+	private void checkRecord(BasisSetArchiveReader reader, int record) 
+		throws Exception
+	{
+		BasisSet basisSet = fBundle.allocateBasisSet(reader.getNextSamples());
+		
+		try
+		{
+			reader.readNext(basisSet);
+			
+			for (int i = 0; i < SAMPLES; i++)
+			{
+				assertEquals(record + i / 10.0, 
+					basisSet.getBasisBuffer().getAsDouble(i), 0.0);
+				assertEquals(record * 100 + i, 
+					basisSet.getDataBuffer("counts").getAsInt(i));
+				assertEquals("r" + record + "s" + i, 
+					basisSet.getDataBuffer("labels").getAsObject(i));
+			}
+		}
+		finally
+		{
+			basisSet.release();
+		}
+	}
+	
+	private static class BasisSetCollector implements BasisSetListener
+	{
+		private List fSamples = new ArrayList();
+		private int fNewSequences = 0;
+		private boolean fHadLabels = false;
+		
+		public void receiveBasisSetEvent(BasisSetEvent event)
+		{
+			BasisSet basisSet = event.getBasisSet();
+			
+			assertTrue(basisSet.getSize() <= 20);
+			
+			for (int i = 0; i < basisSet.getSize(); i++)
+			{
+				fSamples.add(new Integer(
+					basisSet.getDataBuffer("counts").getAsInt(i)));
+			}
+			
+			if (event.isStartOfNewBasisSequence())
+			{
+				fNewSequences++;
+			}
+			
+			fHadLabels |= (basisSet.getDataBuffer("labels") != null);
+			
+			basisSet.release();
+		}
+	}
+	
+	private static class BundleSource extends AbstractBasisBundleSource 
+	{
+		/**
+		 * Constructs a new BundleSource having the given name.
+		 * 
+		 * @param name The name of the new BundleSource
+		 */
+		public BundleSource(String name)
+		{
+			super(name);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
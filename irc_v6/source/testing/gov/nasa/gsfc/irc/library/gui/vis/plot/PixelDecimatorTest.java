@@ -0,0 +1,146 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.gui.vis.plot;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit test for {@link PixelDecimator}.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class PixelDecimatorTest extends TestCase
+{
+	/**
+	 * Test that sparse points are kept exactly.
+	 */
+	public void testSparsePoints()
+	{
+		PixelDecimator decimator = new PixelDecimator();
+		
+		decimator.add(0.5f, 1f);
+		decimator.add(1.5f, 3f);
+		decimator.add(1.7f, 2f);
+		decimator.add(3.2f, 5f);
+		
+		assertEquals(4, decimator.getNumberOfPoints());
+		assertEquals(4, decimator.getNumberOfSamples());
+		assertEquals(1.7f, decimator.getXPoints()[2], 0f);
+		assertEquals(2f, decimator.getYPoints()[2], 0f);
+	}
+	
+	/**
+	 * Test that a dense column is reduced to its first, extreme and last 
+	 * points in the order they occurred.
+	 */
+	public void testDenseColumn()
+	{
+		PixelDecimator decimator = new PixelDecimator();
+		
+		for (int i = 0; i < 100; i++)
+		{
+			decimator.add(10f + i / 1000f, (float) Math.sin(i / 10.0));
+		}
+		
+		decimator.add(11f, 0f);
+		
+		float[] y = decimator.getYPoints();
+		
+		assertEquals(5, decimator.getNumberOfPoints());
+		assertEquals(0f, y[0], 0f);
+		assertEquals(1f, y[1], 1e-3f);
+		assertEquals(-1f, y[2], 1e-3f);
+		assertEquals((float) Math.sin(9.9), y[3], 0f);
+		assertEquals(0f, y[4], 0f);
+		assertEquals(101, decimator.getNumberOfSamples());
+	}
+	
+	/**
+	 * Test that a trace is reduced to a bounded number of points per column
+	 * and that the decimator can be reset and extended.
+	 */
+	public void testBoundedAndIncremental()
+	{
+		PixelDecimator decimator = new PixelDecimator();
+		
+		for (int i = 0; i < 100000; i++)
+		{
+			decimator.add(i / 100f, i % 7);
+		}
+		
+		assertTrue(decimator.getNumberOfPoints() <= 4 * 1000);
+		
+		decimator.add(2000.5f, 1f);
+		
+		int numPoints = decimator.getNumberOfPoints();
+		
+		assertEquals(2000.5f, decimator.getXPoints()[numPoints - 1], 0f);
+		
+		decimator.reset();
+		
+		assertEquals(0, decimator.getNumberOfPoints());
+	}
+	
+	/**
+	 * Test that reading the trace partway through a column does not change 
+	 * how the rest of the column is reduced.
+	 */
+	public void testReadWhileExtending()
+	{
+		PixelDecimator whole = new PixelDecimator();
+		PixelDecimator extended = new PixelDecimator();
+		
+		for (int i = 0; i < 1000; i++)
+		{
+			float x = i / 50f;
+			float y = (float) Math.sin(i / 3.0);
+			
+			whole.add(x, y);
+			extended.add(x, y);
+			
+			if (i % 7 == 0)
+			{
+				extended.getNumberOfPoints();
+			}
+		}
+		
+		int numPoints = whole.getNumberOfPoints();
+		
+		assertEquals(numPoints, extended.getNumberOfPoints());
+		
+		for (int i = 0; i < numPoints; i++)
+		{
+			assertEquals(whole.getXPoints()[i], extended.getXPoints()[i], 0f);
+			assertEquals(whole.getYPoints()[i], extended.getYPoints()[i], 0f);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,343 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import junit.framework.TestCase;
+
+import gov.nasa.gsfc.irc.app.Irc;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.events.BasisSetEvent;
+import gov.nasa.gsfc.irc.data.events.BasisSetListener;
+
+/**
+ * JUnit test for the batching mode of {@link BasisBundleLogHandler}.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class BasisBundleLogHandlerTest extends TestCase
+{
+	private static final long TIMEOUT_MILLIS = 5000;
+
+	// Long enough that no flush is triggered by time
+	private static final int NEVER = 600000;
+
+	private BasisBundleLogHandler fHandler;
+
+	/**
+	 * Tear down for test cases defined in this class.
+	 * @see TestCase#tearDown()
+	 */
+	protected void tearDown() throws Exception
+	{
+		super.tearDown();
+
+		if (fHandler != null)
+		{
+			fHandler.close();
+			fHandler = null;
+		}
+
+		Irc.getDataSpace().clear();
+	}
+
+	/**
+	 * Test that a full batch is published as one Basis Set without waiting
+	 * for the flush interval.
+	 */
+	public void testBatchingBySize() throws Exception
+	{
+		fHandler = new BasisBundleLogHandler(true, 4, NEVER, 64);
+		MessageCollector collector = new MessageCollector();
+		fHandler.getBasisBundle(Level.INFO).addBasisSetListener(collector);
+
+		publish(Level.INFO, 0, 4);
+
+		assertEquals(4, collector.waitForMessages(4, TIMEOUT_MILLIS));
+		assertEquals(messages(0, 4), collector.getMessages());
+		assertEquals(1, collector.getNumBasisSets());
+	}
+
+	/**
+	 * Test that records short of a full batch are published once the flush
+	 * interval elapses.
+	 */
+	public void testBatchingByTime() throws Exception
+	{
+		fHandler = new BasisBundleLogHandler(true, 1000, 20, 1000);
+		MessageCollector collector = new MessageCollector();
+		fHandler.getBasisBundle(Level.INFO).addBasisSetListener(collector);
+
+		publish(Level.INFO, 0, 3);
+
+		assertEquals(3, collector.waitForMessages(3, TIMEOUT_MILLIS));
+		assertEquals(messages(0, 3), collector.getMessages());
+	}
+
+	/**
+	 * Test that the records that do not fit in the staging queue are the
+	 * latest ones, that they are counted, and that the counts are published
+	 * to the Statistics Basis Bundle.
+	 */
+	public void testDropCounting() throws Exception
+	{
+		fHandler = new BasisBundleLogHandler(true, 4, NEVER, 4);
+		MessageCollector collector = new MessageCollector();
+		StatisticsCollector statistics = new StatisticsCollector();
+
+		fHandler.getBasisBundle(Level.INFO).addBasisSetListener(collector);
+		fHandler.getStatisticsBasisBundle().addBasisSetListener(statistics);
+
+		// Hold the flusher in the listener while the queue fills up
+		collector.block();
+
+		try
+		{
+			publish(Level.INFO, 0, 4);
+			assertTrue(collector.waitForBlocked(TIMEOUT_MILLIS));
+
+			publish(Level.INFO, 4, 11);
+
+			assertEquals(3, fHandler.getNumberOfDroppedRecords());
+		}
+		finally
+		{
+			collector.unblock();
+		}
+
+		fHandler.flush();
+
+		assertEquals(messages(0, 8), collector.getMessages());
+		assertEquals(new long[] {11, 8, 3}, statistics.getLastCounts());
+	}
+
+	/**
+	 * Test that flush() and close() publish every staged record, that close()
+	 * publishes the final counts, and that records published after close()
+	 * are dropped and counted.
+	 */
+	public void testFlushAndClose() throws Exception
+	{
+		fHandler = new BasisBundleLogHandler(true, 1000, NEVER, 1000);
+		MessageCollector info = new MessageCollector();
+		MessageCollector severe = new MessageCollector();
+		StatisticsCollector statistics = new StatisticsCollector();
+
+		fHandler.getBasisBundle(Level.INFO).addBasisSetListener(info);
+		fHandler.getBasisBundle(Level.SEVERE).addBasisSetListener(severe);
+		fHandler.getStatisticsBasisBundle().addBasisSetListener(statistics);
+
+		publish(Level.INFO, 0, 3);
+		publish(Level.SEVERE, 3, 5);
+		fHandler.flush();
+
+		assertEquals(messages(0, 3), info.getMessages());
+		assertEquals(messages(3, 5), severe.getMessages());
+		assertNull(statistics.getLastCounts());
+
+		publish(Level.INFO, 5, 7);
+		fHandler.close();
+
+		List expected = messages(0, 3);
+		expected.addAll(messages(5, 7));
+
+		assertEquals(expected, info.getMessages());
+		assertEquals(new long[] {7, 7, 0}, statistics.getLastCounts());
+
+		publish(Level.INFO, 7, 8);
+
+		assertEquals(expected, info.getMessages());
+		assertEquals(1, fHandler.getNumberOfDroppedRecords());
+	}
+
+	/**
+	 * Publishes records with the given level and with the messages from
+	 * the first number up to, but not including, the last number.
+	 */
+	private void publish(Level level, int first, int last)
+	{
+		for (int i = first; i < last; i++)
+		{
+			fHandler.publish(new LogRecord(level, String.valueOf(i)));
+		}
+	}
+
+	/**
+	 * Returns the messages from the first number up to, but not including,
+	 * the last number.
+	 */
+	private static List messages(int first, int last)
+	{
+		List result = new ArrayList();
+
+		for (int i = first; i < last; i++)
+		{
+			result.add(String.valueOf(i));
+		}
+
+		return (result);
+	}
+
+	/**
+	 * Asserts that the given arrays are equal.
+	 */
+	private static void assertEquals(long[] expected, long[] actual)
+	{
+		assertNotNull(actual);
+		assertEquals(expected.length, actual.length);
+
+		for (int i = 0; i < expected.length; i++)
+		{
+			assertEquals("[" + i + "]", expected[i], actual[i]);
+		}
+	}
+
+	/**
+	 * Collects the messages of the Basis Sets it receives, optionally
+	 * blocking the publishing thread until unblocked.
+	 */
+	private static class MessageCollector implements BasisSetListener
+	{
+		private List fMessages = new ArrayList();
+		private int fNumBasisSets = 0;
+		private boolean fBlocking = false;
+		private boolean fBlocked = false;
+
+		public synchronized void receiveBasisSetEvent(BasisSetEvent event)
+		{
+			BasisSet basisSet = event.getBasisSet();
+
+			for (int i = 0; i < basisSet.getSize(); i++)
+			{
+				fMessages.add(basisSet.getDataBuffer(0).getAsObject(i));
+			}
+
+			fNumBasisSets++;
+			basisSet.release();
+
+			fBlocked = fBlocking;
+			notifyAll();
+
+			while (fBlocking)
+			{
+				try
+				{
+					wait();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+
+		synchronized void block()
+		{
+			fBlocking = true;
+		}
+
+		synchronized void unblock()
+		{
+			fBlocking = false;
+			notifyAll();
+		}
+
+		synchronized boolean waitForBlocked(long timeout)
+			throws InterruptedException
+		{
+			long deadline = System.currentTimeMillis() + timeout;
+
+			while (! fBlocked && System.currentTimeMillis() < deadline)
+			{
+				wait(Math.max(1, deadline - System.currentTimeMillis()));
+			}
+
+			return (fBlocked);
+		}
+
+		synchronized int waitForMessages(int number, long timeout)
+			throws InterruptedException
+		{
+			long deadline = System.currentTimeMillis() + timeout;
+
+			while (fMessages.size() < number
+				&& System.currentTimeMillis() < deadline)
+			{
+				wait(Math.max(1, deadline - System.currentTimeMillis()));
+			}
+
+			return (fMessages.size());
+		}
+
+		synchronized List getMessages()
+		{
+			return (new ArrayList(fMessages));
+		}
+
+		synchronized int getNumBasisSets()
+		{
+			return (fNumBasisSets);
+		}
+	}
+
+	/**
+	 * Keeps the Received, Published, and Dropped counts of the last sample
+	 * it receives.
+	 */
+	private static class StatisticsCollector implements BasisSetListener
+	{
+		private long[] fLastCounts = null;
+
+		public synchronized void receiveBasisSetEvent(BasisSetEvent event)
+		{
+			BasisSet basisSet = event.getBasisSet();
+			int last = basisSet.getSize() - 1;
+
+			fLastCounts = new long[] {
+				basisSet.getDataBuffer(0).getAsLong(last),
+				basisSet.getDataBuffer(1).getAsLong(last),
+				basisSet.getDataBuffer(2).getAsLong(last)};
+
+			basisSet.release();
+		}
+
+		synchronized long[] getLastCounts()
+		{
+			return (fLastCounts);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
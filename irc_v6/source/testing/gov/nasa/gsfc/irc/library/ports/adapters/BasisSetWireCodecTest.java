@@ -0,0 +1,215 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.ports.adapters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import gov.nasa.gsfc.commons.types.buffers.PooledBufferHandle;
+import gov.nasa.gsfc.irc.data.AbstractBasisBundleSource;
+import gov.nasa.gsfc.irc.data.BasisBundle;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.DefaultBasisBundle;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
+
+/**
+ * JUnit test for the packets encoded and decoded by 
+ * {@link BasisSetWireCodec}.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class BasisSetWireCodecTest extends TestCase
+{
+	private static final int SAMPLES = 16;
+	
+	private BasisBundleDescriptor fDescriptor;
+	private BasisBundle fSourceBundle;
+	private BasisBundle fTargetBundle;
+	
+	/**
+	 * Set up for test cases defined in this class.
+	 * @see TestCase#setUp()
+	 */
+	protected void setUp() throws Exception
+	{
+		super.setUp();
+		
+		Set dataBufferDescriptors = new HashSet();
+		dataBufferDescriptors.add(new DataBufferDescriptor("counts", int.class));
+		dataBufferDescriptors.add(new DataBufferDescriptor("labels", String.class));
+		
+		fDescriptor = new BasisBundleDescriptor("Wire", 
+			new DataBufferDescriptor("time", double.class), 
+			dataBufferDescriptors);
+		
+		fSourceBundle = new DefaultBasisBundle(fDescriptor, 
+			new BundleSource("Wire Source"), 100);
+		fTargetBundle = new DefaultBasisBundle(fDescriptor, 
+			new BundleSource("Wire Target"), 100);
+	}
+
+	/**
+	 * Test that a BasisSet decodes to the values that were encoded.
+	 */
+	public void testBasisSetRoundTrip() throws Exception
+	{
+		BasisSetWireCodec codec = new BasisSetWireCodec();
+		BasisSet basisSet = fSourceBundle.allocateBasisSet(SAMPLES);
+		
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			basisSet.getBasisBuffer().put(i, i / 10.0);
+			basisSet.getDataBuffer("counts").put(i, i * 100);
+			basisSet.getDataBuffer("labels").put(i, "s" + i);
+		}
+		
+		ReadableByteChannel channel = toChannel(
+			new PooledBufferHandle[] {codec.encodeBasisSet(basisSet)});
+		
+		codec.readPacket(channel);
+		
+		assertEquals(BasisSetSerializer.DATA_PACKET, codec.getPacketType());
+		assertEquals(fSourceBundle.getBasisBundleId().getFullyQualifiedName(), 
+			codec.getBasisBundleName());
+		assertEquals(SAMPLES, codec.getSamples());
+		assertEquals(3, codec.getNumberOfBuffers());
+		
+		BasisSet decoded = fTargetBundle.allocateBasisSet(codec.getSamples());
+		
+		assertTrue(codec.decodeBasisSet(decoded));
+		
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			assertEquals(i / 10.0, decoded.getBasisBuffer().getAsDouble(i), 0.0);
+			assertEquals(i * 100, decoded.getDataBuffer("counts").getAsInt(i));
+			assertEquals("s" + i, decoded.getDataBuffer("labels").getAsObject(i));
+		}
+		
+		assertFalse(codec.decodeBasisSet(fTargetBundle.allocateBasisSet(1)));
+		
+		codec.close();
+	}
+
+	/**
+	 * Test that descriptor and error packets decode in order.
+	 */
+	public void testDescriptorAndError() throws Exception
+	{
+		BasisSetWireCodec codec = new BasisSetWireCodec();
+		
+		ReadableByteChannel channel = toChannel(new PooledBufferHandle[] {
+			codec.encodeDescriptor(fSourceBundle.getBasisBundleId(), fDescriptor),
+			codec.encodeError("No such bundle")});
+		
+		codec.readPacket(channel);
+		
+		assertEquals(BasisSetSerializer.DESCRIPTOR_PACKET, codec.getPacketType());
+		assertEquals(fSourceBundle.getBasisBundleId(), codec.getBasisBundleId());
+		assertEquals("Wire", codec.getBasisBundleDescriptor().getName());
+		
+		codec.readPacket(channel);
+		
+		assertEquals(BasisSetSerializer.ERROR_PACKET, codec.getPacketType());
+		assertEquals("No such bundle", codec.getErrorMessage());
+		
+		codec.close();
+	}
+
+	/**
+	 * Test that a packet with a damaged trailer is rejected.
+	 */
+	public void testCorruptedTrailer() throws Exception
+	{
+		BasisSetWireCodec codec = new BasisSetWireCodec();
+		PooledBufferHandle handle = codec.encodeError("Damaged");
+		ByteBuffer packet = handle.getByteBuffer();
+		
+		packet.put(packet.limit() - 1, (byte) (packet.get(packet.limit() - 1) + 1));
+		
+		try
+		{
+			codec.readPacket(toChannel(new PooledBufferHandle[] {handle}));
+			fail("Expected StreamCorruptedException");
+		}
+		catch (StreamCorruptedException e)
+		{
+			// Expected
+		}
+		
+		codec.close();
+	}
+
+	/**
+	 * Writes the given encoded packets, releasing each, and returns a channel
+	 * that reads them back.
+	 * 
+	 * @param handles handles to encoded packets
+	 * @return a channel over the packets
+	 */
+	private ReadableByteChannel toChannel(PooledBufferHandle[] handles) 
+		throws Exception
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		WritableByteChannel output = Channels.newChannel(bytes);
+		
+		for (int i = 0; i < handles.length; i++)
+		{
+			output.write(handles[i].getByteBuffer());
+			handles[i].release();
+		}
+		
+		return (Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+	
+	private static class BundleSource extends AbstractBasisBundleSource 
+	{
+		/**
+		 * Constructs a new BundleSource having the given name.
+		 * 
+		 * @param name The name of the new BundleSource
+		 */
+		public BundleSource(String name)
+		{
+			super(name);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
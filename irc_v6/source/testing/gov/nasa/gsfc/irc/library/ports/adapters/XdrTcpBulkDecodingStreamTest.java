@@ -0,0 +1,246 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.irc.library.ports.adapters;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import junit.framework.TestCase;
+
+import org.acplt.oncrpc.XdrTcpDecodingStream;
+import org.acplt.oncrpc.XdrTcpEncodingStream;
+
+import gov.nasa.gsfc.irc.data.DataBuffer;
+import gov.nasa.gsfc.irc.data.DataBufferFactory;
+import gov.nasa.gsfc.irc.library.ports.adapters.encoders.tcp.basisset.XdrTcpBulkEncodingStream;
+
+/**
+ * JUnit test for {@link XdrTcpBulkDecodingStream} and 
+ * {@link XdrTcpBulkEncodingStream}, which checks each against the XDR TCP 
+ * streams of the ONC/RPC library over a loopback connection. Small buffers 
+ * are used so that values are split across fragments.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author 	$Author$
+ */
+public class XdrTcpBulkDecodingStreamTest extends TestCase
+{
+	private static final int BUFFER_SIZE = 64;
+	private static final int SAMPLES = 37;
+	
+	private ServerSocketChannel fServer;
+	private Socket fSender;
+	private SocketChannel fReceiver;
+	
+	protected void setUp() throws Exception
+	{
+		fServer = ServerSocketChannel.open();
+		fServer.socket().bind(new InetSocketAddress(InetAddress.getByName(null), 0));
+		fSender = new Socket(InetAddress.getByName(null), 
+			fServer.socket().getLocalPort());
+		fReceiver = fServer.accept();
+	}
+	
+	protected void tearDown() throws Exception
+	{
+		fSender.close();
+		fReceiver.close();
+		fServer.close();
+	}
+	
+	/**
+	 * Test that records encoded by the ONC/RPC library are decoded into 
+	 * DataBuffers, and that skipped records leave the stream in step.
+	 */
+	public void testDecodesLibraryRecords() throws Exception
+	{
+		double[] doubles = new double[SAMPLES];
+		int[] ints = new int[SAMPLES];
+		long[] longs = new long[SAMPLES];
+		float[] floats = new float[SAMPLES];
+		short[] shorts = new short[SAMPLES];
+		int[] chars = new int[SAMPLES];
+		byte[] bytes = new byte[SAMPLES];
+		
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			doubles[i] = i * 1.25 - 7;
+			ints[i] = i * 1000003 - 5;
+			longs[i] = i * 0x100000001L - 3;
+			floats[i] = i * 0.5f - 1;
+			shorts[i] = (short) (i * 1001 - 20000);
+			chars[i] = 0xfff0 + i;
+			bytes[i] = (byte) (i * 7 - 100);
+		}
+		
+		XdrTcpEncodingStream encoder = 
+			new XdrTcpEncodingStream(fSender, BUFFER_SIZE);
+		
+		encoder.beginEncoding(null, 0);
+		encoder.xdrEncodeString("time");
+		encoder.xdrEncodeDoubleVector(doubles);
+		encoder.endEncoding();
+		
+		encoder.beginEncoding(null, 0);
+		encoder.xdrEncodeIntVector(new int[] {1, 2, 3});
+		encoder.endEncoding();
+		
+		encoder.beginEncoding(null, 0);
+		encoder.xdrEncodeByte((byte) 3);
+		encoder.xdrEncodeIntVector(ints);
+		encoder.xdrEncodeLongVector(longs);
+		encoder.xdrEncodeFloatVector(floats);
+		encoder.xdrEncodeShortVector(shorts);
+		encoder.xdrEncodeIntVector(chars);
+		encoder.xdrEncodeByteVector(bytes);
+		encoder.endEncoding();
+		
+		XdrTcpBulkDecodingStream decoder = 
+			new XdrTcpBulkDecodingStream(fReceiver, BUFFER_SIZE);
+		
+		// Wraps around the end of its array
+		DataBuffer doubleBuffer = createDataBuffer(double.class).slice(11, SAMPLES);
+		
+		decoder.beginDecoding();
+		assertEquals("time", decoder.xdrDecodeString());
+		assertEquals(SAMPLES, decoder.xdrDecodeDataBuffer(doubleBuffer));
+		decoder.endDecoding();
+		
+		decoder.beginDecoding();
+		decoder.endDecoding();
+		
+		DataBuffer intBuffer = createDataBuffer(int.class);
+		DataBuffer longBuffer = createDataBuffer(long.class);
+		DataBuffer floatBuffer = createDataBuffer(float.class);
+		DataBuffer shortBuffer = createDataBuffer(short.class);
+		DataBuffer charBuffer = createDataBuffer(char.class);
+		DataBuffer byteBuffer = createDataBuffer(byte.class);
+		
+		decoder.beginDecoding();
+		assertEquals(3, decoder.xdrDecodeByte());
+		decoder.xdrDecodeDataBuffer(intBuffer);
+		decoder.xdrDecodeDataBuffer(longBuffer);
+		decoder.xdrDecodeDataBuffer(floatBuffer);
+		decoder.xdrDecodeDataBuffer(shortBuffer);
+		decoder.xdrDecodeDataBuffer(charBuffer);
+		decoder.xdrDecodeDataBuffer(byteBuffer);
+		decoder.endDecoding();
+		
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			assertEquals(doubles[i], doubleBuffer.getAsDouble(i), 0);
+			assertEquals(ints[i], intBuffer.getAsInt(i));
+			assertEquals(longs[i], longBuffer.getAsLong(i));
+			assertEquals(floats[i], floatBuffer.getAsFloat(i), 0);
+			assertEquals(shorts[i], shortBuffer.getAsShort(i));
+			assertEquals((char) chars[i], charBuffer.getAsChar(i));
+			assertEquals(bytes[i], byteBuffer.getAsByte(i));
+		}
+	}
+	
+	/**
+	 * Test that DataBuffers encoded in bulk are decoded by the ONC/RPC 
+	 * library as the equivalent vectors.
+	 */
+	public void testEncodesLibraryRecords() throws Exception
+	{
+		// Wraps around the end of its array
+		DataBuffer doubleBuffer = createDataBuffer(double.class).slice(11, SAMPLES);
+		DataBuffer intBuffer = createDataBuffer(int.class);
+		DataBuffer longBuffer = createDataBuffer(long.class);
+		DataBuffer charBuffer = createDataBuffer(char.class);
+		DataBuffer byteBuffer = createDataBuffer(byte.class);
+		
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			doubleBuffer.put(i, Math.sqrt(i) - 3);
+			intBuffer.put(i, -i * 65537);
+			longBuffer.put(i, i * -0x100000001L);
+			charBuffer.put(i, (char) (0xfff0 + i));
+			byteBuffer.put(i, (byte) (i * 7 - 100));
+		}
+		
+		XdrTcpBulkEncodingStream encoder = 
+			new XdrTcpBulkEncodingStream(fSender, BUFFER_SIZE);
+		
+		encoder.beginEncoding(null, 0);
+		encoder.xdrEncodeString("time");
+		encoder.xdrEncodeDataBuffer(doubleBuffer);
+		encoder.xdrEncodeDataBuffer(intBuffer);
+		encoder.xdrEncodeDataBuffer(longBuffer);
+		encoder.xdrEncodeDataBuffer(charBuffer);
+		encoder.xdrEncodeDataBuffer(byteBuffer);
+		encoder.endEncoding();
+		
+		encoder.beginEncoding(null, 0);
+		encoder.xdrEncodeInt(42);
+		encoder.endEncoding();
+		
+		XdrTcpDecodingStream decoder = 
+			new XdrTcpDecodingStream(fReceiver.socket(), BUFFER_SIZE);
+		
+		decoder.beginDecoding();
+		assertEquals("time", decoder.xdrDecodeString());
+		
+		double[] decodedDoubles = decoder.xdrDecodeDoubleVector();
+		int[] decodedInts = decoder.xdrDecodeIntVector();
+		long[] decodedLongs = decoder.xdrDecodeLongVector();
+		int[] decodedChars = decoder.xdrDecodeIntVector();
+		byte[] decodedBytes = decoder.xdrDecodeByteVector();
+		
+		decoder.endDecoding();
+		
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			assertEquals(doubleBuffer.getAsDouble(i), decodedDoubles[i], 0);
+			assertEquals(intBuffer.getAsInt(i), decodedInts[i]);
+			assertEquals(longBuffer.getAsLong(i), decodedLongs[i]);
+			assertEquals(charBuffer.getAsChar(i), decodedChars[i]);
+			assertEquals(byteBuffer.getAsByte(i), decodedBytes[i]);
+		}
+		
+		decoder.beginDecoding();
+		assertEquals(42, decoder.xdrDecodeInt());
+		decoder.endDecoding();
+	}
+	
+	/**
+	 * Returns a new DataBuffer of values of the given type.
+	 */
+	private static DataBuffer createDataBuffer(Class type)
+	{
+		return (DataBufferFactory.getInstance().createDataBuffer
+			(type.getName(), type, SAMPLES));
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -22,6 +22,12 @@
 
 package gov.nasa.gsfc.irc.library.ports.connections;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -78,6 +84,127 @@ public class TcpConnectionTest extends TestCase
 		assertTrue(fClientConnection.isStarted());
 	}
 
+	/**
+	 * Test that a client that stops reading has its output dropped without
+	 * delaying a client that keeps reading.
+	 */
+	public void testSlowClientDoesNotStallOthers() throws Exception
+	{
+		final int buffers = 400;
+		final int bufferSize = 64 * 1024;
+		
+		fServerConnection.setPort(9997);
+		fServerConnection.setConnectionsAllowed(2);
+		fServerConnection.setClientQueueCapacity(4);
+		fServerConnection.setClientOverflowPolicy(
+			TcpServerConnection.OVERFLOW_DROP_STR);
+		fServerConnection.start();
+		
+		Socket slowClient = connect(9997);
+		Socket fastClient = connect(9997);
+		final InputStream fastInput = fastClient.getInputStream();
+		final long[] bytesRead = new long[1];
+		
+		Thread reader = new Thread()
+		{
+			public void run()
+			{
+				byte[] bytes = new byte[bufferSize];
+				
+				try
+				{
+					int count = fastInput.read(bytes);
+					
+					while (count > 0)
+					{
+						synchronized (bytesRead)
+						{
+							bytesRead[0] += count;
+						}
+						
+						count = fastInput.read(bytes);
+					}
+				}
+				catch (IOException e)
+				{
+					// The socket was closed at the end of the test.
+				}
+			}
+		};
+		reader.start();
+		
+		for (int i = 0; i < 50 
+			&& fServerConnection.getClientBacklogs().size() < 2; i++)
+		{
+			Thread.sleep(100);
+		}
+		
+		assertEquals(2, fServerConnection.getClientBacklogs().size());
+		
+		ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+		
+		for (int i = 0; i < buffers; i++)
+		{
+			buffer.clear();
+			fServerConnection.process(buffer);
+		}
+		
+		for (int i = 0; i < 100 && getBytesRead(bytesRead) < buffers * bufferSize; i++)
+		{
+			Thread.sleep(100);
+		}
+		
+		assertEquals(buffers * bufferSize, getBytesRead(bytesRead));
+		
+		long dropped = 0;
+		
+		for (Iterator iter = fServerConnection.getClientBacklogs().iterator(); 
+			iter.hasNext();)
+		{
+			TcpServerConnection.ClientBacklog backlog = 
+				(TcpServerConnection.ClientBacklog) iter.next();
+			
+			assertTrue(backlog.getQueuedBuffers() <= 4);
+			dropped += backlog.getDroppedBuffers();
+		}
+		
+		assertTrue(dropped > 0);
+		
+		slowClient.close();
+		fastClient.close();
+	}
+	
+	/**
+	 * Connects a plain socket to the given local port, retrying while the 
+	 * server starts.
+	 */
+	private Socket connect(int port) throws Exception
+	{
+		Socket result = null;
+		
+		for (int i = 0; i < 50 && result == null; i++)
+		{
+			try
+			{
+				result = new Socket("localhost", port);
+			}
+			catch (IOException e)
+			{
+				Thread.sleep(100);
+			}
+		}
+		
+		return (result);
+	}
+	
+	private long getBytesRead(long[] bytesRead)
+	{
+		synchronized (bytesRead)
+		{
+			return (bytesRead[0]);
+		}
+	}
+
 	public static void main(String[] args)
 	{
 		junit.textui.TestRunner.run(suite());
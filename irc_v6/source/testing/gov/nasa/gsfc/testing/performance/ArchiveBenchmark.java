@@ -0,0 +1,159 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.testing.performance;
+
+import java.io.File;
+
+import gov.nasa.gsfc.irc.data.BasisBundle;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.library.archiving.data.BasisSetArchiveReader;
+import gov.nasa.gsfc.irc.library.archiving.data.BasisSetArchiveWriter;
+
+/**
+ * Measures writing BasisSets to, or reading BasisSets from, a binary 
+ * BasisSet archive file. One operation is one BasisSet. Writes go to a 
+ * temporary file that is started over periodically so that the benchmark 
+ * does not fill the disk; reads start over at the beginning of the archive
+ * once it is exhausted.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ **/
+public class ArchiveBenchmark extends Benchmark
+{
+	private static final int RECORDS_PER_FILE = 10000;
+	private static final int RECORDS_TO_READ = 100;
+	
+	private boolean fWrite;
+	private BasisBundle fBasisBundle;
+	private BasisSet fBasisSet;
+	private File fFile;
+	private BasisSetArchiveWriter fWriter;
+	private BasisSetArchiveReader fReader;
+	private long fTime = 0;
+	
+	/**
+	 * Constructs a benchmark of writing or reading.
+	 * 
+	 * @param write True to measure writing, false to measure reading
+	 */
+	public ArchiveBenchmark(boolean write)
+	{
+		super(write ? "BasisSetArchiveWriter.write" 
+			: "BasisSetArchiveReader.readNext");
+		
+		fWrite = write;
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#setUp()
+	 */
+	public void setUp() throws Exception
+	{
+		fBasisBundle = DataPathBenchmarks.createBasisBundle(
+			"Archive", DataPathBenchmarks.SAMPLES * 2);
+		fBasisSet = fBasisBundle.allocateBasisSet(DataPathBenchmarks.SAMPLES);
+		fFile = File.createTempFile("benchmark", ".archive");
+		
+		DataPathBenchmarks.fill(fBasisSet, 0);
+		
+		fWriter = new BasisSetArchiveWriter(
+			fFile, fBasisBundle.getDescriptor(), fBasisSet);
+		
+		if (!fWrite)
+		{
+			for (int i = 0; i < RECORDS_TO_READ; i++)
+			{
+				fWriter.write(fBasisSet, fTime++);
+			}
+			
+			fWriter.close();
+			fWriter = null;
+			
+			fReader = new BasisSetArchiveReader(fFile);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#run()
+	 */
+	public void run() throws Exception
+	{
+		if (fWrite)
+		{
+			if (fWriter.getRecordCount() >= RECORDS_PER_FILE)
+			{
+				fWriter.close();
+				fWriter = new BasisSetArchiveWriter(
+					fFile, fBasisBundle.getDescriptor(), fBasisSet);
+			}
+			
+			fWriter.write(fBasisSet, fTime++);
+			
+			consume(fWriter.getRecordCount());
+		}
+		else
+		{
+			if (!fReader.hasNext())
+			{
+				fReader.rewind();
+			}
+			
+			fReader.readNext(fBasisSet);
+			
+			consume(fBasisSet.getBasisBuffer().getAsDouble(0));
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#tearDown()
+	 */
+	public void tearDown() throws Exception
+	{
+		if (fWriter != null)
+		{
+			fWriter.close();
+		}
+		
+		if (fReader != null)
+		{
+			fReader.close();
+		}
+		
+		fBasisSet.release();
+		fFile.delete();
+		
+		fWriter = null;
+		fReader = null;
+		fBasisSet = null;
+		fBasisBundle = null;
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
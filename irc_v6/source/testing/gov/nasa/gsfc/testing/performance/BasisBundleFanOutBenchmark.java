@@ -0,0 +1,103 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.testing.performance;
+
+import gov.nasa.gsfc.irc.data.BasisBundle;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.events.BasisSetEvent;
+import gov.nasa.gsfc.irc.data.events.BasisSetListener;
+
+/**
+ * Measures allocating a BasisSet from a BasisBundle and making it available
+ * to a number of BasisSetListeners, each of which releases it. One operation
+ * is one allocation and fan out.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ **/
+public class BasisBundleFanOutBenchmark extends Benchmark
+{
+	private int fNumberOfListeners;
+	private BasisBundle fBasisBundle;
+	
+	/**
+	 * Constructs a benchmark that fans out to the given number of listeners.
+	 * 
+	 * @param listeners The number of listeners of the BasisBundle
+	 */
+	public BasisBundleFanOutBenchmark(int listeners)
+	{
+		super("BasisBundle.makeAvailable/" + listeners + " listeners");
+		
+		fNumberOfListeners = listeners;
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#setUp()
+	 */
+	public void setUp()
+	{
+		fBasisBundle = DataPathBenchmarks.createBasisBundle(
+			"FanOut", DataPathBenchmarks.SAMPLES * 16);
+		
+		for (int i = 0; i < fNumberOfListeners; i++)
+		{
+			fBasisBundle.addBasisSetListener(new BasisSetListener()
+			{
+				public void receiveBasisSetEvent(BasisSetEvent event)
+				{
+					event.getBasisSet().release();
+				}
+			});
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#run()
+	 */
+	public void run()
+	{
+		BasisSet basisSet = 
+			fBasisBundle.allocateBasisSet(DataPathBenchmarks.SAMPLES);
+		
+		consume(basisSet.getSize());
+		
+		basisSet.makeAvailable();
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#tearDown()
+	 */
+	public void tearDown()
+	{
+		fBasisBundle = null;
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
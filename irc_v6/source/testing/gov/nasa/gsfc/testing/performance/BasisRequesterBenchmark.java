@@ -0,0 +1,139 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.testing.performance;
+
+import gov.nasa.gsfc.irc.app.Irc;
+import gov.nasa.gsfc.irc.data.BasisBundle;
+import gov.nasa.gsfc.irc.data.BasisRequest;
+import gov.nasa.gsfc.irc.data.BasisRequestAmount;
+import gov.nasa.gsfc.irc.data.BasisRequester;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.DefaultBasisRequester;
+import gov.nasa.gsfc.irc.data.IntervalBasisRequester;
+
+/**
+ * Measures a BasisRequester satisfying a request for one and a half 
+ * BasisSets' worth of samples, so that satisfied requests both span and 
+ * split the BasisSets made available. One operation is making one BasisSet
+ * available and taking and releasing every request it satisfies.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ **/
+public class BasisRequesterBenchmark extends Benchmark
+{
+	private boolean fInterval;
+	private BasisBundle fBasisBundle;
+	private BasisRequester fRequester;
+	private double fTime = 0;
+	
+	/**
+	 * Constructs a benchmark of a DefaultBasisRequester or an 
+	 * IntervalBasisRequester.
+	 * 
+	 * @param interval True for an IntervalBasisRequester, false for a 
+	 * 		DefaultBasisRequester
+	 */
+	public BasisRequesterBenchmark(boolean interval)
+	{
+		super(interval ? "IntervalBasisRequester.satisfyRequest" 
+			: "DefaultBasisRequester.satisfyRequest");
+		
+		fInterval = interval;
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#setUp()
+	 */
+	public void setUp()
+	{
+		fBasisBundle = DataPathBenchmarks.createBasisBundle(
+			fInterval ? "IntervalRequester" : "DefaultRequester", 
+			DataPathBenchmarks.SAMPLES * 16);
+		
+		Irc.getDataSpace().addBasisBundle(fBasisBundle);
+		
+		BasisRequestAmount amount = new BasisRequestAmount();
+		amount.setAmount(DataPathBenchmarks.SAMPLES * 3 / 2);
+		
+		BasisRequest request = 
+			new BasisRequest(fBasisBundle.getBasisBundleId(), amount);
+		
+		if (fInterval)
+		{
+			fRequester = new IntervalBasisRequester(request);
+		}
+		else
+		{
+			fRequester = new DefaultBasisRequester(request);
+		}
+		
+		fRequester.start();
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#run()
+	 */
+	public void run()
+	{
+		BasisSet basisSet = 
+			fBasisBundle.allocateBasisSet(DataPathBenchmarks.SAMPLES);
+		
+		for (int i = 0; i < DataPathBenchmarks.SAMPLES; i++)
+		{
+			basisSet.getBasisBuffer().put(i, fTime++);
+		}
+		
+		basisSet.makeAvailable();
+		
+		BasisSet satisfied = fRequester.satisfyRequest();
+		
+		while (satisfied != null)
+		{
+			consume(satisfied.getSize());
+			satisfied.release();
+			
+			satisfied = fRequester.satisfyRequest();
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#tearDown()
+	 */
+	public void tearDown()
+	{
+		fRequester.kill();
+		Irc.getDataSpace().remove(fBasisBundle);
+		
+		fRequester = null;
+		fBasisBundle = null;
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,127 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.testing.performance;
+
+/**
+ * A Benchmark is one measured operation on the data path, run repeatedly by a
+ * {@link BenchmarkRunner}. The fixture is built in {@link #setUp()} and torn
+ * down in {@link #tearDown()}, outside of the measurement, and each call to
+ * {@link #run()} performs exactly one operation.
+ * <p>
+ * An operation should leave something behind that depends on its result,
+ * for example in the {@link #consume(double)} sink, so that the JIT compiler
+ * cannot eliminate it.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ **/
+public abstract class Benchmark
+{
+	private String fName;
+	private double fSink = 0;
+
+	/**
+	 * Constructs a Benchmark having the given name.
+	 * 
+	 * @param name The name of the new Benchmark
+	 */
+	protected Benchmark(String name)
+	{
+		fName = name;
+	}
+	
+	/**
+	 * Returns the name of this Benchmark.
+	 * 
+	 * @return The name of this Benchmark
+	 */
+	public String getName()
+	{
+		return (fName);
+	}
+	
+	/**
+	 * Builds the fixture of this Benchmark. This implementation does nothing.
+	 * 
+	 * @throws Exception if the fixture cannot be built
+	 */
+	public void setUp() throws Exception
+	{
+	}
+	
+	/**
+	 * Performs one operation of this Benchmark.
+	 * 
+	 * @throws Exception if the operation fails
+	 */
+	public abstract void run() throws Exception;
+	
+	/**
+	 * Releases the fixture of this Benchmark. This implementation does 
+	 * nothing.
+	 * 
+	 * @throws Exception if the fixture cannot be released
+	 */
+	public void tearDown() throws Exception
+	{
+	}
+	
+	/**
+	 * Accumulates the given value so that the operation that computed it is
+	 * not optimized away.
+	 * 
+	 * @param value A result of an operation
+	 */
+	protected final void consume(double value)
+	{
+		fSink += value;
+	}
+	
+	/**
+	 * Returns the accumulation of the values consumed by this Benchmark.
+	 * 
+	 * @return The accumulation of the values consumed by this Benchmark
+	 */
+	public final double getSink()
+	{
+		return (fSink);
+	}
+	
+	/**
+	 * Returns a String representation of this Benchmark.
+	 * 
+	 * @return A String representation of this Benchmark
+	 */
+	public String toString()
+	{
+		return (fName);
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,452 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.testing.performance;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A BenchmarkRunner warms up a {@link Benchmark}, then runs it for a fixed 
+ * time and reports its throughput, the percentiles of the latency of its 
+ * operations, and how much it allocated.
+ * <p>
+ * Every operation is timed. Once more operations have run than can be kept, 
+ * a uniform random sample of the latencies is kept instead (reservoir 
+ * sampling). Allocation is measured with the per-thread allocation counter 
+ * of HotSpot JVMs, and so only covers the thread running the benchmark; on 
+ * other JVMs it is reported as unavailable.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ **/
+public class BenchmarkRunner
+{
+	/**
+	 * The default time to run a benchmark before measuring it.
+	 */
+	public static final long DEFAULT_WARMUP_MILLIS = 2000;
+	
+	/**
+	 * The default time to measure a benchmark.
+	 */
+	public static final long DEFAULT_MEASUREMENT_MILLIS = 5000;
+	
+	/**
+	 * The latency percentiles reported for each benchmark.
+	 */
+	public static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+	
+	private static final int MAX_LATENCY_SAMPLES = 1 << 20;
+	
+	private static Object sThreadBean = null;
+	private static Method sAllocatedBytesMethod = null;
+	
+	private long fWarmupMillis = DEFAULT_WARMUP_MILLIS;
+	private long fMeasurementMillis = DEFAULT_MEASUREMENT_MILLIS;
+	private long[] fLatencies = null;
+	private Random fRandom = new Random(0);
+	
+	static
+	{
+		try
+		{
+			Class beanClass = Class.forName("com.sun.management.ThreadMXBean");
+			Object threadBean = ManagementFactory.getThreadMXBean();
+			
+			if (beanClass.isInstance(threadBean))
+			{
+				sAllocatedBytesMethod = beanClass.getMethod(
+					"getThreadAllocatedBytes", new Class[] {long.class});
+				sThreadBean = threadBean;
+			}
+		}
+		catch (Exception e)
+		{
+			// Allocation will be reported as unavailable
+		}
+	}
+	
+	/**
+	 * Constructs a BenchmarkRunner with the default warm up and measurement 
+	 * times.
+	 */
+	public BenchmarkRunner()
+	{
+		this(DEFAULT_WARMUP_MILLIS, DEFAULT_MEASUREMENT_MILLIS);
+	}
+	
+	/**
+	 * Constructs a BenchmarkRunner with the given warm up and measurement 
+	 * times.
+	 * 
+	 * @param warmupMillis How long to run each benchmark before measuring it
+	 * @param measurementMillis How long to measure each benchmark
+	 */
+	public BenchmarkRunner(long warmupMillis, long measurementMillis)
+	{
+		fWarmupMillis = warmupMillis;
+		fMeasurementMillis = measurementMillis;
+	}
+	
+	/**
+	 * Sets up, warms up, measures, and tears down the given Benchmark.
+	 * 
+	 * @param benchmark A Benchmark
+	 * @return The measurements of the Benchmark
+	 * @throws Exception if the Benchmark fails
+	 */
+	public Result run(Benchmark benchmark) throws Exception
+	{
+		Result result = null;
+		
+		benchmark.setUp();
+		
+		try
+		{
+			long end = System.nanoTime() + fWarmupMillis * 1000000L;
+			
+			while (System.nanoTime() < end)
+			{
+				benchmark.run();
+			}
+			
+			result = measure(benchmark);
+		}
+		finally
+		{
+			benchmark.tearDown();
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * Runs the given Benchmark for the measurement time, timing each 
+	 * operation.
+	 * 
+	 * @param benchmark A set up and warmed up Benchmark
+	 * @return The measurements of the Benchmark
+	 * @throws Exception if the Benchmark fails
+	 */
+	private Result measure(Benchmark benchmark) throws Exception
+	{
+		if (fLatencies == null)
+		{
+			fLatencies = new long[MAX_LATENCY_SAMPLES];
+		}
+		
+		long[] latencies = fLatencies;
+		int numLatencies = 0;
+		long operations = 0;
+		
+		long startBytes = getAllocatedBytes();
+		long start = System.nanoTime();
+		long end = start + fMeasurementMillis * 1000000L;
+		long now = start;
+		
+		while (now < end)
+		{
+			benchmark.run();
+			
+			long finish = System.nanoTime();
+			long latency = finish - now;
+			
+			if (numLatencies < latencies.length)
+			{
+				latencies[numLatencies++] = latency;
+			}
+			else
+			{
+				long slot = (long) (fRandom.nextDouble() * (operations + 1));
+				
+				if (slot < latencies.length)
+				{
+					latencies[(int) slot] = latency;
+				}
+			}
+			
+			operations++;
+			now = finish;
+		}
+		
+		long allocatedBytes = -1;
+		
+		if (startBytes >= 0)
+		{
+			allocatedBytes = getAllocatedBytes() - startBytes;
+		}
+		
+		Arrays.sort(latencies, 0, numLatencies);
+		
+		long[] percentiles = new long[PERCENTILES.length];
+		
+		for (int i = 0; i < PERCENTILES.length; i++)
+		{
+			int index = (int) Math.ceil(PERCENTILES[i] / 100.0 * numLatencies) - 1;
+			
+			percentiles[i] = latencies[Math.max(0, index)];
+		}
+		
+		return (new Result(benchmark.getName(), operations, now - start, 
+			percentiles, latencies[numLatencies - 1], allocatedBytes));
+	}
+	
+	/**
+	 * Returns the number of bytes allocated so far by the current thread, or
+	 * -1 if this JVM cannot tell.
+	 * 
+	 * @return The number of bytes allocated by the current thread
+	 */
+	private static long getAllocatedBytes()
+	{
+		long result = -1;
+		
+		if (sThreadBean != null)
+		{
+			try
+			{
+				Object bytes = sAllocatedBytesMethod.invoke(sThreadBean, 
+					new Object[] {new Long(Thread.currentThread().getId())});
+				
+				result = ((Long) bytes).longValue();
+			}
+			catch (Exception e)
+			{
+				result = -1;
+			}
+		}
+		
+		return (result);
+	}
+	
+	/**
+	 * The measurements of one run of a Benchmark.
+	 */
+	public static class Result
+	{
+		private String fName;
+		private long fOperations;
+		private long fElapsedNanos;
+		private long[] fPercentiles;
+		private long fMaxLatency;
+		private long fAllocatedBytes;
+		
+		/**
+		 * Constructs a Result.
+		 * 
+		 * @param name The name of the Benchmark
+		 * @param operations The number of operations measured
+		 * @param elapsedNanos The time taken by the operations
+		 * @param percentiles The latencies at each of the PERCENTILES
+		 * @param maxLatency The longest latency
+		 * @param allocatedBytes The bytes allocated, or -1 if unknown
+		 */
+		Result(String name, long operations, long elapsedNanos, 
+			long[] percentiles, long maxLatency, long allocatedBytes)
+		{
+			fName = name;
+			fOperations = operations;
+			fElapsedNanos = elapsedNanos;
+			fPercentiles = percentiles;
+			fMaxLatency = maxLatency;
+			fAllocatedBytes = allocatedBytes;
+		}
+		
+		/**
+		 * Returns the name of the Benchmark.
+		 * 
+		 * @return The name of the Benchmark
+		 */
+		public String getName()
+		{
+			return (fName);
+		}
+		
+		/**
+		 * Returns the number of operations measured.
+		 * 
+		 * @return The number of operations measured
+		 */
+		public long getOperations()
+		{
+			return (fOperations);
+		}
+		
+		/**
+		 * Returns the throughput in operations per second.
+		 * 
+		 * @return The throughput in operations per second
+		 */
+		public double getThroughput()
+		{
+			return (fOperations * 1.0e9 / fElapsedNanos);
+		}
+		
+		/**
+		 * Returns the latency in nanoseconds at the given index into 
+		 * {@link BenchmarkRunner#PERCENTILES}.
+		 * 
+		 * @param index An index into PERCENTILES
+		 * @return The latency in nanoseconds at that percentile
+		 */
+		public long getLatencyPercentile(int index)
+		{
+			return (fPercentiles[index]);
+		}
+		
+		/**
+		 * Returns the longest latency measured in nanoseconds.
+		 * 
+		 * @return The longest latency in nanoseconds
+		 */
+		public long getMaxLatency()
+		{
+			return (fMaxLatency);
+		}
+		
+		/**
+		 * Returns the average number of bytes allocated per operation, or a 
+		 * negative number if allocation could not be measured.
+		 * 
+		 * @return The bytes allocated per operation
+		 */
+		public double getAllocatedBytesPerOperation()
+		{
+			double result = -1;
+			
+			if (fAllocatedBytes >= 0 && fOperations > 0)
+			{
+				result = (double) fAllocatedBytes / fOperations;
+			}
+			
+			return (result);
+		}
+		
+		/**
+		 * Returns the allocation rate in megabytes per second, or a negative
+		 * number if allocation could not be measured.
+		 * 
+		 * @return The allocation rate in megabytes per second
+		 */
+		public double getAllocationRate()
+		{
+			double result = -1;
+			
+			if (fAllocatedBytes >= 0)
+			{
+				result = fAllocatedBytes * 1.0e9 / fElapsedNanos / (1024 * 1024);
+			}
+			
+			return (result);
+		}
+		
+		/**
+		 * Returns the column headings matching {@link #toString()}.
+		 * 
+		 * @return The column headings of a report
+		 */
+		public static String getHeader()
+		{
+			StringBuffer header = new StringBuffer();
+			
+			header.append(pad("Benchmark", 40));
+			header.append(pad("ops/s", 14));
+			
+			for (int i = 0; i < PERCENTILES.length; i++)
+			{
+				header.append(pad("p" + PERCENTILES[i] + " ns", 12));
+			}
+			
+			header.append(pad("max ns", 12));
+			header.append(pad("B/op", 12));
+			header.append(pad("MB/s", 10));
+			
+			return (header.toString());
+		}
+		
+		/**
+		 * Returns a report line for this Result.
+		 * 
+		 * @return A report line for this Result
+		 */
+		public String toString()
+		{
+			StringBuffer line = new StringBuffer();
+			
+			line.append(pad(fName, 40));
+			line.append(pad(Long.toString((long) getThroughput()), 14));
+			
+			for (int i = 0; i < fPercentiles.length; i++)
+			{
+				line.append(pad(Long.toString(fPercentiles[i]), 12));
+			}
+			
+			line.append(pad(Long.toString(fMaxLatency), 12));
+			
+			if (fAllocatedBytes >= 0)
+			{
+				line.append(pad(Long.toString(
+					Math.round(getAllocatedBytesPerOperation())), 12));
+				line.append(pad(Long.toString(
+					Math.round(getAllocationRate())), 10));
+			}
+			else
+			{
+				line.append(pad("n/a", 12));
+				line.append(pad("n/a", 10));
+			}
+			
+			return (line.toString());
+		}
+		
+		/**
+		 * Pads the given text with spaces to the given width.
+		 * 
+		 * @param text The text
+		 * @param width The width of the column
+		 * @return The padded text
+		 */
+		private static String pad(String text, int width)
+		{
+			StringBuffer result = new StringBuffer(text);
+			
+			do
+			{
+				result.append(' ');
+			}
+			while (result.length() < width);
+			
+			return (result.toString());
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,163 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.testing.performance;
+
+import gov.nasa.gsfc.irc.data.BasisBundle;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.DataBuffer;
+
+/**
+ * Measures access to a DataBuffer of doubles that wraps around the end of 
+ * its BasisBundle's backing buffer. One operation is one pass over the 
+ * DataBuffer, or one slice of it.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ **/
+public class DataBufferBenchmark extends Benchmark
+{
+	/**
+	 * Reads every element with getAsDouble(int).
+	 */
+	public static final String GET = "getAsDouble";
+	
+	/**
+	 * Reads every element with one bulk get into a double array.
+	 */
+	public static final String BULK_GET = "get(bulk)";
+	
+	/**
+	 * Writes every element with put(int, double).
+	 */
+	public static final String PUT = "put";
+	
+	/**
+	 * Takes a slice of half of the DataBuffer at a moving offset.
+	 */
+	public static final String SLICE = "slice";
+	
+	private String fMode;
+	private BasisSet fBasisSet;
+	private DataBuffer fBuffer;
+	private double[] fValues;
+	private int fOffset = 0;
+	
+	/**
+	 * Constructs a benchmark of the given access mode.
+	 * 
+	 * @param mode One of GET, BULK_GET, PUT, or SLICE
+	 */
+	public DataBufferBenchmark(String mode)
+	{
+		super("DataBuffer." + mode);
+		
+		fMode = mode;
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#setUp()
+	 */
+	public void setUp()
+	{
+		int samples = DataPathBenchmarks.SAMPLES;
+		BasisBundle basisBundle = DataPathBenchmarks.createBasisBundle(
+			"DataBuffer", samples * 3 / 2);
+		
+		// Move the allocation point so that the measured buffer wraps
+		basisBundle.allocateBasisSet(samples).release();
+		
+		fBasisSet = basisBundle.allocateBasisSet(samples);
+		fBuffer = fBasisSet.getDataBuffer(0);
+		fValues = new double[samples];
+		
+		DataPathBenchmarks.fill(fBasisSet, 0);
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#run()
+	 */
+	public void run()
+	{
+		DataBuffer buffer = fBuffer;
+		int size = buffer.getSize();
+		
+		if (fMode == GET)
+		{
+			double sum = 0;
+			
+			for (int i = 0; i < size; i++)
+			{
+				sum += buffer.getAsDouble(i);
+			}
+			
+			consume(sum);
+		}
+		else if (fMode == BULK_GET)
+		{
+			double[] values = fValues;
+			double sum = 0;
+			
+			buffer.get(0, values, 0, size);
+			
+			for (int i = 0; i < size; i++)
+			{
+				sum += values[i];
+			}
+			
+			consume(sum);
+		}
+		else if (fMode == PUT)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				buffer.put(i, (double) i);
+			}
+			
+			consume(buffer.getAsDouble(size - 1));
+		}
+		else
+		{
+			fOffset = (fOffset + 1) % (size / 2);
+			
+			consume(buffer.slice(fOffset, size / 2).getSize());
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#tearDown()
+	 */
+	public void tearDown()
+	{
+		fBasisSet.release();
+		fBasisSet = null;
+		fBuffer = null;
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
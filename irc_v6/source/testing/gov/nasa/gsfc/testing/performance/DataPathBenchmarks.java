@@ -0,0 +1,215 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.testing.performance;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import gov.nasa.gsfc.irc.data.AbstractBasisBundleSource;
+import gov.nasa.gsfc.irc.data.BasisBundle;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.DefaultBasisBundle;
+import gov.nasa.gsfc.irc.data.description.BasisBundleDescriptor;
+import gov.nasa.gsfc.irc.data.description.DataBufferDescriptor;
+
+/**
+ * Runs the benchmarks of the BasisBundle data path and prints a report of 
+ * their throughput, latency percentiles, and allocation, so that regressions
+ * in these paths can be caught by comparing reports. The suite covers 
+ * BasisBundle fan out, BasisRequester satisfaction, DataBuffer access, 
+ * HistoryBundle appends, the BasisSet wire codec, and archive writes and 
+ * reads.
+ * <p>
+ * Usage: <code>DataPathBenchmarks [-warmup seconds] [-time seconds] 
+ * [regex]</code>, where only the benchmarks whose names match the optional 
+ * regular expression are run. The <code>benchmark</code> target of the 
+ * build runs this class.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ **/
+public class DataPathBenchmarks
+{
+	/**
+	 * The number of samples in each BasisSet of the benchmarks.
+	 */
+	static final int SAMPLES = 1000;
+	
+	/**
+	 * The number of data buffers in each BasisBundle of the benchmarks.
+	 */
+	static final int DATA_BUFFERS = 8;
+	
+	/**
+	 * Returns all the benchmarks of the data path.
+	 * 
+	 * @return A List of Benchmarks
+	 */
+	public static List createBenchmarks()
+	{
+		List result = new ArrayList();
+		
+		result.add(new BasisBundleFanOutBenchmark(1));
+		result.add(new BasisBundleFanOutBenchmark(4));
+		result.add(new BasisBundleFanOutBenchmark(16));
+		
+		result.add(new BasisRequesterBenchmark(false));
+		result.add(new BasisRequesterBenchmark(true));
+		
+		result.add(new DataBufferBenchmark(DataBufferBenchmark.GET));
+		result.add(new DataBufferBenchmark(DataBufferBenchmark.BULK_GET));
+		result.add(new DataBufferBenchmark(DataBufferBenchmark.PUT));
+		result.add(new DataBufferBenchmark(DataBufferBenchmark.SLICE));
+		
+		result.add(new HistoryBundleBenchmark());
+		
+		result.add(new WireCodecBenchmark(true));
+		result.add(new WireCodecBenchmark(false));
+		
+		result.add(new ArchiveBenchmark(true));
+		result.add(new ArchiveBenchmark(false));
+		
+		return (result);
+	}
+	
+	/**
+	 * Creates a BasisBundle with a double basis buffer and DATA_BUFFERS 
+	 * double data buffers.
+	 * 
+	 * @param name The name of the BasisBundle
+	 * @param capacity The capacity of the BasisBundle
+	 * @return A new BasisBundle
+	 */
+	static BasisBundle createBasisBundle(String name, int capacity)
+	{
+		Set dataBufferDescriptors = new HashSet();
+		
+		for (int i = 0; i < DATA_BUFFERS; i++)
+		{
+			dataBufferDescriptors.add(
+				new DataBufferDescriptor("data" + i, double.class));
+		}
+		
+		BasisBundleDescriptor descriptor = new BasisBundleDescriptor(name, 
+			new DataBufferDescriptor("time", double.class), 
+			dataBufferDescriptors);
+		
+		return (new DefaultBasisBundle(descriptor, 
+			new BundleSource(name + " Source"), capacity));
+	}
+	
+	/**
+	 * Fills the given BasisSet with a ramp starting at the given time.
+	 * 
+	 * @param basisSet A writeable BasisSet
+	 * @param time The first basis value
+	 */
+	static void fill(BasisSet basisSet, double time)
+	{
+		int size = basisSet.getSize();
+		
+		for (int i = 0; i < size; i++)
+		{
+			basisSet.getBasisBuffer().put(i, time + i);
+		}
+		
+		for (int buffer = 0; buffer < basisSet.getNumberOfDataBuffers(); buffer++)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				basisSet.getDataBuffer(buffer).put(i, (double) (buffer + i));
+			}
+		}
+	}
+	
+	/**
+	 * Runs the benchmarks selected by the given arguments.
+	 * 
+	 * @param args [-warmup seconds] [-time seconds] [regex]
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		long warmupMillis = BenchmarkRunner.DEFAULT_WARMUP_MILLIS;
+		long measurementMillis = BenchmarkRunner.DEFAULT_MEASUREMENT_MILLIS;
+		Pattern filter = null;
+		
+		for (int i = 0; i < args.length; i++)
+		{
+			if ("-warmup".equals(args[i]) && i + 1 < args.length)
+			{
+				warmupMillis = (long) (Double.parseDouble(args[++i]) * 1000);
+			}
+			else if ("-time".equals(args[i]) && i + 1 < args.length)
+			{
+				measurementMillis = (long) (Double.parseDouble(args[++i]) * 1000);
+			}
+			else
+			{
+				filter = Pattern.compile(args[i]);
+			}
+		}
+		
+		BenchmarkRunner runner = 
+			new BenchmarkRunner(warmupMillis, measurementMillis);
+		
+		System.out.println(BenchmarkRunner.Result.getHeader());
+		
+		for (Iterator benchmarks = createBenchmarks().iterator(); 
+			benchmarks.hasNext();)
+		{
+			Benchmark benchmark = (Benchmark) benchmarks.next();
+			
+			if (filter == null || filter.matcher(benchmark.getName()).find())
+			{
+				System.out.println(runner.run(benchmark));
+			}
+		}
+		
+		System.exit(0);
+	}
+	
+	private static class BundleSource extends AbstractBasisBundleSource 
+	{
+		/**
+		 * Constructs a new BundleSource having the given name.
+		 * 
+		 * @param name The name of the new BundleSource
+		 */
+		public BundleSource(String name)
+		{
+			super(name);
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
@@ -0,0 +1,114 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.testing.performance;
+
+import gov.nasa.gsfc.irc.app.Irc;
+import gov.nasa.gsfc.irc.data.BasisBundle;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.data.HistoryBundle;
+
+/**
+ * Measures appending BasisSets to a HistoryBundle whose history is already 
+ * full, so that every append also drops the oldest samples. One operation 
+ * is one append and the release of the resulting history.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ **/
+public class HistoryBundleBenchmark extends Benchmark
+{
+	private BasisBundle fBasisBundle;
+	private BasisSet fBasisSet;
+	private HistoryBundle fHistoryBundle;
+	
+	/**
+	 * Constructs a HistoryBundle benchmark.
+	 */
+	public HistoryBundleBenchmark()
+	{
+		super("HistoryBundle.appendBasisSet");
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#setUp()
+	 */
+	public void setUp()
+	{
+		int samples = DataPathBenchmarks.SAMPLES;
+		BasisBundle basisBundle = DataPathBenchmarks.createBasisBundle(
+			"History", samples * 2);
+		
+		// The HistoryBundle finds its source BasisBundle in the DataSpace
+		Irc.getDataSpace().addBasisBundle(basisBundle);
+		
+		fBasisBundle = basisBundle;
+		fBasisSet = basisBundle.allocateBasisSet(samples);
+		
+		DataPathBenchmarks.fill(fBasisSet, 0);
+		
+		fHistoryBundle = new HistoryBundle(
+			basisBundle.getBasisBundleSourceId(), 
+			basisBundle.getBasisBundleId(),
+			basisBundle.getDescriptor(), samples * 20);
+		
+		fHistoryBundle.setHistorySize(samples * 10);
+		
+		for (int i = 0; i < 10; i++)
+		{
+			fHistoryBundle.appendBasisSet(fBasisSet).release();
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#run()
+	 */
+	public void run()
+	{
+		BasisSet history = fHistoryBundle.appendBasisSet(fBasisSet);
+		
+		consume(history.getSize());
+		
+		history.release();
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#tearDown()
+	 */
+	public void tearDown()
+	{
+		fBasisSet.release();
+		Irc.getDataSpace().remove(fBasisBundle);
+		
+		fBasisSet = null;
+		fBasisBundle = null;
+		fHistoryBundle = null;
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
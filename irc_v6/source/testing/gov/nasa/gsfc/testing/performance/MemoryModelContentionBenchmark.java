@@ -0,0 +1,187 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.testing.performance;
+
+import gov.nasa.gsfc.commons.system.memory.Allocation;
+import gov.nasa.gsfc.commons.system.memory.MemoryModel;
+import gov.nasa.gsfc.commons.system.memory.MemoryModelType;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Measures allocation throughput of the available MemoryModels when one
+ * producer allocates from a model and several consumers, each holding every
+ * Allocation as a BasisSetListener would, release them concurrently. This
+ * is the access pattern of a BasisBundle fanning out to its listeners.
+ * <p>
+ * Usage: <code>MemoryModelContentionBenchmark [consumers [allocationSize 
+ * [modelSize [seconds]]]]</code>
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ **/
+public class MemoryModelContentionBenchmark
+{
+	private int fNumberOfConsumers = 4;
+	private int fAllocationSize = 10;
+	private int fModelSize = 2000;
+	private long fDurationMillis = 5000;
+
+	/**
+	 * Constructs a benchmark with the given parameters.
+	 * 
+	 * @param consumers The number of consumers releasing each Allocation
+	 * @param allocationSize The size of each Allocation
+	 * @param modelSize The size of the MemoryModel
+	 * @param durationMillis How long to run each model
+	 */
+	public MemoryModelContentionBenchmark(int consumers, int allocationSize, 
+		int modelSize, long durationMillis)
+	{
+		fNumberOfConsumers = consumers;
+		fAllocationSize = allocationSize;
+		fModelSize = modelSize;
+		fDurationMillis = durationMillis;
+	}
+	
+	/**
+	 * Runs the benchmark against a MemoryModel of the given type and returns
+	 * the number of allocations per second.
+	 * 
+	 * @param type The type of MemoryModel to benchmark
+	 * @return Allocations per second
+	 * @throws InterruptedException if interrupted
+	 */
+	public double run(MemoryModelType type) throws InterruptedException
+	{
+		final MemoryModel model = type.createMemoryModel(fModelSize);
+		final BlockingQueue [] queues = new BlockingQueue[fNumberOfConsumers];
+		Thread [] consumers = new Thread[fNumberOfConsumers];
+		
+		for (int i = 0; i < fNumberOfConsumers; i++)
+		{
+			final BlockingQueue queue = new ArrayBlockingQueue(1024);
+			queues[i] = queue;
+			
+			consumers[i] = new Thread("Consumer " + i)
+			{
+				public void run()
+				{
+					try
+					{
+						while (true)
+						{
+							((Allocation) queue.take()).release();
+						}
+					}
+					catch (InterruptedException e)
+					{
+						// Benchmark is finished
+					}
+				}
+			};
+			
+			consumers[i].setDaemon(true);
+			consumers[i].start();
+		}
+		
+		long count = 0;
+		long start = System.currentTimeMillis();
+		long end = start + fDurationMillis;
+		
+		while (System.currentTimeMillis() < end)
+		{
+			// Check the clock only every so often
+			for (int j = 0; j < 1000; j++)
+			{
+				Allocation allocation = model.blockingAllocate(fAllocationSize);
+				
+				for (int i = 1; i < fNumberOfConsumers; i++)
+				{
+					allocation.hold();
+				}
+				
+				for (int i = 0; i < fNumberOfConsumers; i++)
+				{
+					queues[i].put(allocation);
+				}
+			}
+			
+			count += 1000;
+		}
+		
+		long elapsed = System.currentTimeMillis() - start;
+		
+		for (int i = 0; i < fNumberOfConsumers; i++)
+		{
+			consumers[i].interrupt();
+		}
+		
+		return (count * 1000.0 / elapsed);
+	}
+	
+	/**
+	 * Runs the benchmark for each MemoryModelType, warming up first.
+	 * 
+	 * @param args consumers, allocation size, model size, seconds
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		int consumers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		int allocationSize = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int modelSize = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+		long millis = args.length > 3 ? Long.parseLong(args[3]) * 1000 : 5000;
+		
+		MemoryModelType [] types = 
+			{ MemoryModelType.CONTIGUOUS, MemoryModelType.RING };
+		
+		MemoryModelContentionBenchmark warmup = 
+			new MemoryModelContentionBenchmark(
+				consumers, allocationSize, modelSize, 1000);
+		MemoryModelContentionBenchmark benchmark = 
+			new MemoryModelContentionBenchmark(
+				consumers, allocationSize, modelSize, millis);
+		
+		for (int i = 0; i < types.length; i++)
+		{
+			warmup.run(types[i]);
+		}
+		
+		for (int i = 0; i < types.length; i++)
+		{
+			double rate = benchmark.run(types[i]);
+			
+			System.out.println(types[i] + ": " + (long) rate 
+				+ " allocations/s with " + consumers + " consumers");
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//
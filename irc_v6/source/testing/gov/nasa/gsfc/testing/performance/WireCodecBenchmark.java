@@ -0,0 +1,187 @@
+//=== File Prolog ============================================================
+//
+//	This code was developed by NASA, Goddard Space Flight Center, Code 580
+//	for the Instrument Remote Control (IRC) project.
+//
+//--- Notes ------------------------------------------------------------------
+//  Development history is located at the end of the file.
+//
+//--- Warning ----------------------------------------------------------------
+//	This software is property of the National Aeronautics and Space
+//	Administration. Unauthorized use or duplication of this software is
+//	strictly prohibited. Authorized users are subject to the following
+//	restrictions:
+//	*	Neither the author, their corporation, nor NASA is responsible for
+//		any consequence of the use of this software.
+//	*	The origin of this software must not be misrepresented either by
+//		explicit claim or by omission.
+//	*	Altered versions of this software must be plainly marked as such.
+//	*	This notice may not be removed or altered.
+//
+//=== End File Prolog ========================================================
+
+package gov.nasa.gsfc.testing.performance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import gov.nasa.gsfc.commons.types.buffers.PooledBufferHandle;
+import gov.nasa.gsfc.irc.data.BasisBundle;
+import gov.nasa.gsfc.irc.data.BasisSet;
+import gov.nasa.gsfc.irc.library.ports.adapters.BasisSetWireCodec;
+
+/**
+ * Measures encoding BasisSets into, or decoding BasisSets from, the binary
+ * wire format of the BasisSetWireCodec. One operation is one BasisSet.
+ *
+ * <P>This code was developed for NASA, Goddard Space Flight Center, Code 580
+ * for the Instrument Remote Control (IRC) project.
+ *
+ * @version	$Date$
+ * @author	$Author$
+ **/
+public class WireCodecBenchmark extends Benchmark
+{
+	private boolean fEncode;
+	private BasisSet fBasisSet;
+	private BasisSetWireCodec fCodec;
+	private PacketChannel fChannel;
+	
+	/**
+	 * Constructs a benchmark of encoding or decoding.
+	 * 
+	 * @param encode True to measure encoding, false to measure decoding
+	 */
+	public WireCodecBenchmark(boolean encode)
+	{
+		super(encode ? "BasisSetWireCodec.encodeBasisSet" 
+			: "BasisSetWireCodec.decodeBasisSet");
+		
+		fEncode = encode;
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#setUp()
+	 */
+	public void setUp() throws Exception
+	{
+		BasisBundle basisBundle = DataPathBenchmarks.createBasisBundle(
+			"WireCodec", DataPathBenchmarks.SAMPLES * 2);
+		
+		fBasisSet = basisBundle.allocateBasisSet(DataPathBenchmarks.SAMPLES);
+		fCodec = new BasisSetWireCodec();
+		
+		DataPathBenchmarks.fill(fBasisSet, 0);
+		
+		PooledBufferHandle handle = fCodec.encodeBasisSet(fBasisSet);
+		
+		try
+		{
+			ByteBuffer encoded = handle.getByteBuffer();
+			ByteBuffer packet = ByteBuffer.allocate(encoded.remaining());
+			
+			packet.put(encoded);
+			packet.flip();
+			
+			fChannel = new PacketChannel(packet);
+		}
+		finally
+		{
+			handle.release();
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#run()
+	 */
+	public void run() throws Exception
+	{
+		if (fEncode)
+		{
+			PooledBufferHandle handle = fCodec.encodeBasisSet(fBasisSet);
+			
+			consume(handle.getByteBuffer().remaining());
+			handle.release();
+		}
+		else
+		{
+			fChannel.rewind();
+			fCodec.readPacket(fChannel);
+			
+			if (!fCodec.decodeBasisSet(fBasisSet))
+			{
+				throw new IllegalStateException(
+					"Decoded packet does not match the BasisSet");
+			}
+			
+			consume(fCodec.getSamples());
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see gov.nasa.gsfc.testing.performance.Benchmark#tearDown()
+	 */
+	public void tearDown()
+	{
+		fCodec.close();
+		fBasisSet.release();
+		
+		fCodec = null;
+		fBasisSet = null;
+		fChannel = null;
+	}
+	
+	/**
+	 * A channel that reads the same packet again each time it is rewound,
+	 * so that decoding is measured without any I/O.
+	 */
+	private static class PacketChannel implements ReadableByteChannel
+	{
+		private ByteBuffer fPacket;
+		
+		PacketChannel(ByteBuffer packet)
+		{
+			fPacket = packet;
+		}
+		
+		void rewind()
+		{
+			fPacket.rewind();
+		}
+		
+		public int read(ByteBuffer destination) throws IOException
+		{
+			int result = -1;
+			
+			if (fPacket.hasRemaining())
+			{
+				int length = Math.min(destination.remaining(), 
+					fPacket.remaining());
+				int limit = fPacket.limit();
+				
+				fPacket.limit(fPacket.position() + length);
+				destination.put(fPacket);
+				fPacket.limit(limit);
+				
+				result = length;
+			}
+			
+			return (result);
+		}
+		
+		public boolean isOpen()
+		{
+			return (true);
+		}
+		
+		public void close()
+		{
+		}
+	}
+}
+
+//--- Development History  ---------------------------------------------------
+//
+//  $Log$
+//